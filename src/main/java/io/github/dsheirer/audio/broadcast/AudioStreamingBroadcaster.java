@@ -129,11 +129,7 @@ public abstract class AudioStreamingBroadcaster<T extends BroadcastConfiguration
     {
         if(mStreaming.compareAndSet(false, true))
         {
-            if(mRecordingQueueProcessorFuture == null)
-            {
-                mRecordingQueueProcessorFuture = ThreadPool.SCHEDULED.scheduleAtFixedRate(mRecordingQueueProcessor,
-                    0, PROCESSOR_RUN_INTERVAL_MS, TimeUnit.MILLISECONDS);
-            }
+            startRecordingQueueProcessor();
         }
     }
 
@@ -144,16 +140,47 @@ public abstract class AudioStreamingBroadcaster<T extends BroadcastConfiguration
     {
         if(mStreaming.compareAndSet(true, false))
         {
-            if(mRecordingQueueProcessorFuture != null)
-            {
-                mRecordingQueueProcessorFuture.cancel(true);
-                mRecordingQueueProcessorFuture = null;
-            }
-
+            stopRecordingQueueProcessor();
             disconnect();
         }
     }
 
+    /**
+     * Starts periodic processing of the recording queue once per processor run interval.  Sub-classes that pace the
+     * audio stream themselves can override this method and invoke processRecordingQueue() directly.
+     */
+    protected void startRecordingQueueProcessor()
+    {
+        if(mRecordingQueueProcessorFuture == null)
+        {
+            mRecordingQueueProcessorFuture = ThreadPool.SCHEDULED.scheduleAtFixedRate(mRecordingQueueProcessor,
+                0, PROCESSOR_RUN_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops periodic processing of the recording queue.
+     */
+    protected void stopRecordingQueueProcessor()
+    {
+        if(mRecordingQueueProcessorFuture != null)
+        {
+            mRecordingQueueProcessorFuture.cancel(true);
+            mRecordingQueueProcessorFuture = null;
+        }
+    }
+
+    /**
+     * Streams the next interval of audio from the recording queue, or silence when there are no recordings, to the
+     * broadcastAudio() method.
+     *
+     * @param interval in milliseconds of audio to stream
+     */
+    protected void processRecordingQueue(int interval)
+    {
+        mRecordingQueueProcessor.process(interval);
+    }
+
     /**
      * Stream name for the broadcast configuration for this broadcaster
      *
@@ -276,6 +303,18 @@ public abstract class AudioStreamingBroadcaster<T extends BroadcastConfiguration
 
         @Override
         public void run()
+        {
+            process(PROCESSOR_RUN_INTERVAL_MS);
+        }
+
+        /**
+         * Streams recording audio frames, followed by silence frames when the recording queue is empty, for the
+         * specified interval.  Any difference between the streamed audio duration and the interval is carried over
+         * to the next interval.
+         *
+         * @param interval in milliseconds
+         */
+        public void process(int interval)
         {
             if(mProcessing.compareAndSet(false, true))
             {
@@ -290,7 +329,8 @@ public abstract class AudioStreamingBroadcaster<T extends BroadcastConfiguration
 
                     if(mInputFrames != null && mInputFrames.hasNextFrame())
                     {
-                        while(mInputFrames.hasNextFrame() && timeSent < PROCESSOR_RUN_INTERVAL_MS)
+                        //Account for any overrun from the previous interval so that recordings stream at real-time rate
+                        while(mInputFrames.hasNextFrame() && timeSent < (interval - mTimeOverrun))
                         {
                             mInputFrames.nextFrame();
                             broadcastAudio(mInputFrames.getCurrentFrame(), mInputIdentifierCollection);
@@ -298,9 +338,9 @@ public abstract class AudioStreamingBroadcaster<T extends BroadcastConfiguration
                         }
                     }
 
-                    if((mInputFrames == null || !mInputFrames.hasNextFrame()) && timeSent < PROCESSOR_RUN_INTERVAL_MS)
+                    if((mInputFrames == null || !mInputFrames.hasNextFrame()) && timeSent < interval)
                     {
-                        AudioFrames silenceFrames = mSilenceGenerator.generate(PROCESSOR_RUN_INTERVAL_MS - mTimeOverrun - timeSent);
+                        AudioFrames silenceFrames = mSilenceGenerator.generate(interval - mTimeOverrun - timeSent);
                         while(silenceFrames.hasNextFrame())
                         {
                             silenceFrames.nextFrame();
@@ -309,7 +349,7 @@ public abstract class AudioStreamingBroadcaster<T extends BroadcastConfiguration
                         }
                     }
 
-                    mTimeOverrun += timeSent - PROCESSOR_RUN_INTERVAL_MS;
+                    mTimeOverrun += timeSent - interval;
                 }
                 catch(Throwable t)
                 {
@@ -29,10 +29,15 @@ import io.github.dsheirer.audio.broadcast.icecast.IcecastHTTPAudioBroadcaster;
 import io.github.dsheirer.audio.broadcast.icecast.IcecastHTTPConfiguration;
 import io.github.dsheirer.audio.broadcast.icecast.IcecastTCPAudioBroadcaster;
 import io.github.dsheirer.audio.broadcast.icecast.IcecastTCPConfiguration;
+import io.github.dsheirer.audio.broadcast.icecast.NioIcecastHTTPAudioBroadcaster;
+import io.github.dsheirer.audio.broadcast.icecast.NioIcecastTCPAudioBroadcaster;
+import io.github.dsheirer.audio.broadcast.shoutcast.v1.NioShoutcastV1AudioBroadcaster;
 import io.github.dsheirer.audio.broadcast.shoutcast.v1.ShoutcastV1AudioBroadcaster;
 import io.github.dsheirer.audio.broadcast.shoutcast.v1.ShoutcastV1Configuration;
+import io.github.dsheirer.audio.broadcast.shoutcast.v2.NioShoutcastV2AudioBroadcaster;
 import io.github.dsheirer.audio.broadcast.shoutcast.v2.ShoutcastV2AudioStreamingBroadcaster;
 import io.github.dsheirer.audio.broadcast.shoutcast.v2.ShoutcastV2Configuration;
+import io.github.dsheirer.audio.broadcast.upload.HttpUploadEngine;
 import io.github.dsheirer.audio.convert.ISilenceGenerator;
 import io.github.dsheirer.audio.convert.InputAudioFormat;
 import io.github.dsheirer.audio.convert.MP3Setting;
@@ -58,28 +63,56 @@ public class BroadcastFactory
         {
             InputAudioFormat inputAudioFormat = userPreferences.getMP3Preference().getAudioSampleRate();
             MP3Setting mp3Setting = userPreferences.getMP3Preference().getMP3Setting();
+            boolean multiplexed = userPreferences.getApplicationPreference().isMultiplexedStreamingEnabled();
 
             switch(configuration.getBroadcastServerType())
             {
                 case BROADCASTIFY_CALL:
                     return new BroadcastifyCallBroadcaster((BroadcastifyCallConfiguration)configuration,
-                            inputAudioFormat, mp3Setting, aliasModel);
+                            inputAudioFormat, mp3Setting, aliasModel, HttpUploadEngine.getSpoolDirectory(
+                            userPreferences.getDirectoryPreference().getDirectoryStreaming(), configuration));
                 case RDIOSCANNER_CALL:
                     return new RdioScannerBroadcaster((RdioScannerConfiguration)configuration,
-                            inputAudioFormat, mp3Setting, aliasModel);
+                            inputAudioFormat, mp3Setting, aliasModel, HttpUploadEngine.getSpoolDirectory(
+                            userPreferences.getDirectoryPreference().getDirectoryStreaming(), configuration));
                 case BROADCASTIFY:
+                    if(multiplexed)
+                    {
+                        return new NioIcecastTCPAudioBroadcaster((BroadcastifyFeedConfiguration) configuration,
+                                inputAudioFormat, mp3Setting, aliasModel);
+                    }
                     return new IcecastTCPAudioBroadcaster((BroadcastifyFeedConfiguration) configuration,
                             inputAudioFormat, mp3Setting, aliasModel);
                 case ICECAST_TCP:
+                    if(multiplexed)
+                    {
+                        return new NioIcecastTCPAudioBroadcaster((IcecastTCPConfiguration) configuration,
+                                inputAudioFormat, mp3Setting, aliasModel);
+                    }
                     return new IcecastTCPAudioBroadcaster((IcecastTCPConfiguration) configuration, inputAudioFormat,
                             mp3Setting, aliasModel);
                 case ICECAST_HTTP:
+                    if(multiplexed)
+                    {
+                        return new NioIcecastHTTPAudioBroadcaster((IcecastHTTPConfiguration) configuration,
+                                inputAudioFormat, mp3Setting, aliasModel);
+                    }
                     return new IcecastHTTPAudioBroadcaster((IcecastHTTPConfiguration) configuration, inputAudioFormat,
                             mp3Setting, aliasModel);
                 case SHOUTCAST_V1:
+                    if(multiplexed)
+                    {
+                        return new NioShoutcastV1AudioBroadcaster((ShoutcastV1Configuration) configuration,
+                                inputAudioFormat, mp3Setting, aliasModel);
+                    }
                     return new ShoutcastV1AudioBroadcaster((ShoutcastV1Configuration) configuration, inputAudioFormat,
                             mp3Setting, aliasModel);
                 case SHOUTCAST_V2:
+                    if(multiplexed)
+                    {
+                        return new NioShoutcastV2AudioBroadcaster((ShoutcastV2Configuration) configuration,
+                                inputAudioFormat, mp3Setting, aliasModel);
+                    }
                     return new ShoutcastV2AudioStreamingBroadcaster((ShoutcastV2Configuration) configuration,
                             inputAudioFormat, mp3Setting, aliasModel);
                 case UNKNOWN:
@@ -21,6 +21,7 @@ package io.github.dsheirer.audio.broadcast;
 import io.github.dsheirer.alias.AliasModel;
 import io.github.dsheirer.alias.id.broadcast.BroadcastChannel;
 import io.github.dsheirer.icon.IconModel;
+import io.github.dsheirer.metrics.MetricsRegistry;
 import io.github.dsheirer.preference.UserPreferences;
 import io.github.dsheirer.properties.SystemProperties;
 import io.github.dsheirer.sample.Broadcaster;
@@ -280,6 +281,7 @@ public class BroadcastModel extends AbstractTableModel implements Listener<Audio
             if(configuredBroadcast.hasAudioBroadcaster())
             {
                 mBroadcasterMap.remove(broadcastConfiguration.getId());
+                removeMetrics(broadcastConfiguration);
                 configuredBroadcast.getAudioBroadcaster().stop();;
                 configuredBroadcast.setAudioBroadcaster(null);
             }
@@ -353,6 +355,7 @@ public class BroadcastModel extends AbstractTableModel implements Listener<Audio
                 audioBroadcaster.setListener(mBroadcastEventListener);
                 audioBroadcaster.start();
                 mBroadcasterMap.put(audioBroadcaster.getBroadcastConfiguration().getId(), audioBroadcaster);
+                registerMetrics(audioBroadcaster);
 
                 int index = mConfiguredBroadcasts.indexOf(configuredBroadcast);
 
@@ -366,6 +369,39 @@ public class BroadcastModel extends AbstractTableModel implements Listener<Audio
         }
     }
 
+    /**
+     * Registers runtime metric gauges for the broadcaster, labeled by the broadcast configuration name.
+     */
+    private void registerMetrics(AbstractAudioBroadcaster<?> broadcaster)
+    {
+        BroadcastConfiguration configuration = broadcaster.getBroadcastConfiguration();
+        String name = configuration.getName();
+        String type = String.valueOf(configuration.getBroadcastServerType());
+
+        MetricsRegistry.gauge("broadcast_queue_size", "Audio recordings queued for streaming by the broadcaster",
+            broadcaster::getAudioQueueSize, "broadcaster", name, "type", type);
+        MetricsRegistry.gauge("broadcast_streamed_recordings", "Audio recordings streamed by the broadcaster",
+            broadcaster::getStreamedAudioCount, "broadcaster", name, "type", type);
+        MetricsRegistry.gauge("broadcast_aged_off_recordings", "Audio recordings discarded by the broadcaster " +
+            "after exceeding the maximum age", broadcaster::getAgedOffAudioCount, "broadcaster", name, "type", type);
+        MetricsRegistry.gauge("broadcast_error_recordings", "Audio recordings that failed to stream",
+            broadcaster::getAudioErrorCount, "broadcaster", name, "type", type);
+    }
+
+    /**
+     * Removes the runtime metric gauges for the broadcast configuration
+     */
+    private void removeMetrics(BroadcastConfiguration configuration)
+    {
+        String name = configuration.getName();
+        String type = String.valueOf(configuration.getBroadcastServerType());
+
+        MetricsRegistry.remove("broadcast_queue_size", "broadcaster", name, "type", type);
+        MetricsRegistry.remove("broadcast_streamed_recordings", "broadcaster", name, "type", type);
+        MetricsRegistry.remove("broadcast_aged_off_recordings", "broadcaster", name, "type", type);
+        MetricsRegistry.remove("broadcast_error_recordings", "broadcaster", name, "type", type);
+    }
+
     /**
      * Shut down a broadcaster created from the configuration and remove it from this model
      */
@@ -374,6 +410,7 @@ public class BroadcastModel extends AbstractTableModel implements Listener<Audio
         if(configuredBroadcast != null && configuredBroadcast.hasAudioBroadcaster())
         {
             mBroadcasterMap.remove(configuredBroadcast.getBroadcastConfiguration().getId());
+            removeMetrics(configuredBroadcast.getBroadcastConfiguration());
 
             AbstractAudioBroadcaster broadcaster = configuredBroadcast.getAudioBroadcaster();
             configuredBroadcast.setAudioBroadcaster(null);
@@ -25,6 +25,12 @@ import io.github.dsheirer.audio.broadcast.AbstractAudioBroadcaster;
 import io.github.dsheirer.audio.broadcast.AudioRecording;
 import io.github.dsheirer.audio.broadcast.BroadcastEvent;
 import io.github.dsheirer.audio.broadcast.BroadcastState;
+import io.github.dsheirer.audio.broadcast.upload.HttpUploadEngine;
+import io.github.dsheirer.audio.broadcast.upload.IUploadListener;
+import io.github.dsheirer.audio.broadcast.upload.IUploadProtocol;
+import io.github.dsheirer.audio.broadcast.upload.UploadRequest;
+import io.github.dsheirer.audio.broadcast.upload.UploadResult;
+import io.github.dsheirer.audio.broadcast.upload.UploadSpool;
 import io.github.dsheirer.audio.convert.InputAudioFormat;
 import io.github.dsheirer.audio.convert.MP3Setting;
 import io.github.dsheirer.gui.playlist.radioreference.RadioReferenceDecoder;
@@ -39,15 +45,13 @@ import io.github.dsheirer.identifier.radio.RadioIdentifier;
 import io.github.dsheirer.identifier.talkgroup.TalkgroupIdentifier;
 import io.github.dsheirer.util.ThreadPool;
 import java.io.FileNotFoundException;
-import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.file.Path;
 import java.time.Duration;
-import java.util.Queue;
-import java.util.concurrent.CompletionException;
-import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
@@ -59,6 +63,7 @@ import org.slf4j.LoggerFactory;
  * Note: this is not the same as the Broadcastify Feeds (ie streaming) service
  */
 public class BroadcastifyCallBroadcaster extends AbstractAudioBroadcaster<BroadcastifyCallConfiguration>
+    implements IUploadProtocol, IUploadListener
 {
     private final static Logger mLog = LoggerFactory.getLogger(BroadcastifyCallBroadcaster.class);
 
@@ -67,36 +72,37 @@ public class BroadcastifyCallBroadcaster extends AbstractAudioBroadcaster<Broadc
     private static final String DEFAULT_SUBTYPE = "form-data";
     private static final String MULTIPART_FORM_DATA = MULTIPART_TYPE + "/" + DEFAULT_SUBTYPE;
     private ScheduledFuture<?> mBroadcastifyTestFuture;
-    private Queue<AudioRecording> mAudioRecordingQueue = new LinkedTransferQueue<>();
-    private ScheduledFuture<?> mAudioRecordingProcessorFuture;
+    private HttpUploadEngine mUploadEngine;
+    private boolean mStarted;
     private HttpClient mHttpClient = HttpClient.newBuilder()
         .version(HttpClient.Version.HTTP_2)
         .followRedirects(HttpClient.Redirect.NORMAL)
         .connectTimeout(Duration.ofSeconds(20))
         .build();
-    private long mLastConnectionAttempt;
-    private long mConnectionAttemptInterval = 5000; //Every 5 seconds
 
     /**
      * Constructs an instance of the broadcaster
      * @param config to use
      * @param aliasModel for access to aliases
+     * @param spoolDirectory for persisting uploads that are waiting to be retried
      */
     public BroadcastifyCallBroadcaster(BroadcastifyCallConfiguration config, InputAudioFormat inputAudioFormat,
-                                       MP3Setting mp3Setting, AliasModel aliasModel)
+                                       MP3Setting mp3Setting, AliasModel aliasModel, Path spoolDirectory)
     {
         super(config);
+        mUploadEngine = new HttpUploadEngine("Broadcastify Calls", this, this,
+            spoolDirectory != null ? new UploadSpool(spoolDirectory) : null, config.getMaximumInFlight(),
+            config.getMaximumRecordingAge());
     }
 
     /**
-     * Starts the audio recording processor thread
+     * Starts the upload engine
      */
     @Override
     public void start()
     {
         setBroadcastState(BroadcastState.CONNECTING);
         String response = testConnection(getBroadcastConfiguration());
-        mLastConnectionAttempt = System.currentTimeMillis();
 
         if(response != null && response.toLowerCase().startsWith("ok"))
         {
@@ -114,15 +120,15 @@ public class BroadcastifyCallBroadcaster extends AbstractAudioBroadcaster<Broadc
             mBroadcastifyTestFuture = ThreadPool.SCHEDULED.scheduleAtFixedRate(new BroadcastifyCallTest(), getBroadcastConfiguration().getTestInterval(), getBroadcastConfiguration().getTestInterval(), TimeUnit.MINUTES);
         }
 
-        if(mAudioRecordingProcessorFuture == null)
+        if(!mStarted)
         {
-            mAudioRecordingProcessorFuture = ThreadPool.SCHEDULED.scheduleAtFixedRate(new AudioRecordingProcessor(),
-                0, 500, TimeUnit.MILLISECONDS);
+            mStarted = true;
+            mUploadEngine.start();
         }
     }
 
     /**
-     * Stops the audio recording processor thread
+     * Stops the upload engine
      */
     @Override
     public void stop()
@@ -132,10 +138,9 @@ public class BroadcastifyCallBroadcaster extends AbstractAudioBroadcaster<Broadc
             mBroadcastifyTestFuture.cancel(true);
             mBroadcastifyTestFuture = null;
         }
-        if(mAudioRecordingProcessorFuture != null)
+        if(mStarted)
         {
-            mAudioRecordingProcessorFuture.cancel(true);
-            mAudioRecordingProcessorFuture = null;
+            mStarted = false;
             dispose();
             setBroadcastState(BroadcastState.DISCONNECTED);
         }
@@ -164,245 +169,167 @@ public class BroadcastifyCallBroadcaster extends AbstractAudioBroadcaster<Broadc
     @Override
     public void dispose()
     {
-        AudioRecording audioRecording = mAudioRecordingQueue.poll();
+        mUploadEngine.stop();
+    }
 
-        while(audioRecording != null)
-        {
-            audioRecording.removePendingReplay();
-            audioRecording = mAudioRecordingQueue.poll();
-        }
+    @Override
+    public int getAudioQueueSize()
+    {
+        return mUploadEngine.getQueueSize();
     }
 
     /**
-     * Indicates if this broadcaster continues to have successful connections to and transactions with the remote
-     * server.  If there is a connectivity or other issue, the broadcast state is set to temporary error and
-     * the audio processor thread will persistently invoke this method to attempt a reconnect.
+     * Submits the audio recording to the upload engine.  Recordings without audio are ignored.
      */
-    private boolean connected()
+    @Override
+    public void receive(AudioRecording audioRecording)
     {
-        if(getBroadcastState() != BroadcastState.CONNECTED &&
-            (System.currentTimeMillis() - mLastConnectionAttempt > mConnectionAttemptInterval))
+        if(audioRecording.getRecordingLength() <= 0)
         {
-            setBroadcastState(BroadcastState.CONNECTING);
-
-            String response = testConnection(getBroadcastConfiguration());
-            mLastConnectionAttempt = System.currentTimeMillis();
-
-            if(response != null && response.toLowerCase().startsWith("ok"))
-            {
-                setBroadcastState(BroadcastState.CONNECTED);
-            }
-            else
-            {
-                setBroadcastState(BroadcastState.ERROR);
-            }
+            audioRecording.removePendingReplay();
+            return;
         }
 
-        return getBroadcastState() == BroadcastState.CONNECTED;
-    }
+        float durationSeconds = (float)(audioRecording.getRecordingLength() / 1E3f);
+        long timestampSeconds = (int)(audioRecording.getStartTime() / 1E3);
 
-    @Override
-    public int getAudioQueueSize()
-    {
-        return mAudioRecordingQueue.size();
-    }
+        UploadRequest request = new UploadRequest(audioRecording)
+            .addField(FormField.API_KEY.getHeader(), getBroadcastConfiguration().getApiKey())
+            .addField(FormField.SYSTEM_ID.getHeader(), getBroadcastConfiguration().getSystemID())
+            .addField(FormField.CALL_DURATION.getHeader(), durationSeconds)
+            .addField(FormField.TIMESTAMP.getHeader(), timestampSeconds)
+            .addField(FormField.TALKGROUP_ID.getHeader(), getTo(audioRecording))
+            .addField(FormField.RADIO_ID.getHeader(), getFrom(audioRecording))
+            .addField(FormField.FREQUENCY.getHeader(), getFrequency(audioRecording))
+            .addField(FormField.ENCODING.getHeader(), ENCODING_TYPE_MP3);
 
-    @Override
-    public void receive(AudioRecording audioRecording)
-    {
-        mAudioRecordingQueue.offer(audioRecording);
-        broadcast(new BroadcastEvent(this, BroadcastEvent.Event.BROADCASTER_QUEUE_CHANGE));
+        mUploadEngine.submit(request);
     }
 
     /**
-     * Indicates if the audio recording is non-null and not too old, meaning that the age of the recording has not
-     * exceeded the max age value indicated in the broadcast configuration.  Audio recordings that are too old will be
-     * deleted to ensure that the in-memory queue size doesn't blow up.
-     * @param audioRecording to test
-     * @return true if the recording is valid
+     * Uploads a call using the broadcastify calls API two-step process that includes requesting an upload URL and
+     * then uploading the audio recording file to that URL.
+     * @param request to upload
+     * @return future upload result
      */
-    private boolean isValid(AudioRecording audioRecording)
+    @Override
+    public CompletableFuture<UploadResult> upload(UploadRequest request)
     {
-        return audioRecording != null && System.currentTimeMillis() - audioRecording.getStartTime() <=
-            getBroadcastConfiguration().getMaximumRecordingAge();
-    }
+        BroadcastifyCallBuilder bodyBuilder = new BroadcastifyCallBuilder();
+        request.getFields().forEach(bodyBuilder::addPart);
 
-    /**
-     * Processes any enqueued audio recordings.  The broadcastify calls API uses a two-step process that includes
-     * requesting an upload URL and then uploading the audio recording to that URL.  This method employs asynchronous
-     * interaction with the server, so multiple audio recording uploads can occur simultaneously.
-     */
-    private void processRecordingQueue()
-    {
-        while(connected() && !mAudioRecordingQueue.isEmpty())
-        {
-            final AudioRecording audioRecording = mAudioRecordingQueue.poll();
-            broadcast(new BroadcastEvent(this, BroadcastEvent.Event.BROADCASTER_QUEUE_CHANGE));
+        HttpRequest httpRequest = HttpRequest.newBuilder()
+            .uri(URI.create(getBroadcastConfiguration().getHost()))
+            .header(HttpHeaders.CONTENT_TYPE, MULTIPART_FORM_DATA + "; boundary=" + bodyBuilder.getBoundary())
+            .header(HttpHeaders.USER_AGENT, "sdrtrunk")
+            .header(HttpHeaders.ACCEPT, "*/*")
+            .POST(bodyBuilder.build())
+            .build();
 
-            if(isValid(audioRecording) && audioRecording.getRecordingLength() > 0)
-            {
-                float durationSeconds = (float)(audioRecording.getRecordingLength() / 1E3f);
-                long timestampSeconds = (int)(audioRecording.getStartTime() / 1E3);
-                String talkgroup = getTo(audioRecording);
-                String radioId = getFrom(audioRecording);
-                float frequency = getFrequency(audioRecording);
-
-                BroadcastifyCallBuilder bodyBuilder = new BroadcastifyCallBuilder();
-                bodyBuilder.addPart(FormField.API_KEY, getBroadcastConfiguration().getApiKey())
-                    .addPart(FormField.SYSTEM_ID, getBroadcastConfiguration().getSystemID())
-                    .addPart(FormField.CALL_DURATION, durationSeconds)
-                    .addPart(FormField.TIMESTAMP, timestampSeconds)
-                    .addPart(FormField.TALKGROUP_ID, talkgroup)
-                    .addPart(FormField.RADIO_ID, radioId)
-                    .addPart(FormField.FREQUENCY, frequency)
-                    .addPart(FormField.ENCODING, ENCODING_TYPE_MP3);
-
-                try
+        return mHttpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofString())
+            .thenCompose(urlResponse -> {
+                if(urlResponse.statusCode() != 200)
+                {
+                    mLog.error("Broadcastify calls API upload URL request failed [" + urlResponse.statusCode() +
+                        "] response [" + urlResponse.body() + "]");
+                    return CompletableFuture.completedFuture(UploadResult.fromStatusCode(urlResponse.statusCode()));
+                }
+
+                String url = urlResponse.body();
+
+                if(url.startsWith("0 "))
                 {
-                    HttpRequest request = HttpRequest.newBuilder()
-                        .uri(URI.create(getBroadcastConfiguration().getHost()))
-                        .header(HttpHeaders.CONTENT_TYPE, MULTIPART_FORM_DATA + "; boundary=" + bodyBuilder.getBoundary())
+                    HttpRequest.BodyPublisher filePublisher;
+
+                    try
+                    {
+                        filePublisher = HttpRequest.BodyPublishers.ofFile(request.getAudioPath());
+                    }
+                    catch(FileNotFoundException fnfe)
+                    {
+                        mLog.error("Broadcastify calls API - upload file not found [" + request.getAudioPath() + "]");
+                        return CompletableFuture.completedFuture(UploadResult.FAILED);
+                    }
+
+                    HttpRequest fileRequest = HttpRequest.newBuilder()
+                        .uri(URI.create(url.substring(2).trim()))
                         .header(HttpHeaders.USER_AGENT, "sdrtrunk")
-                        .header(HttpHeaders.ACCEPT, "*/*")
-                        .POST(bodyBuilder.build())
+                        .header(HttpHeaders.CONTENT_TYPE, "audio/mpeg")
+                        .PUT(filePublisher)
                         .build();
 
-                    mHttpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                        .whenComplete((stringHttpResponse, throwable) -> {
-                            if(throwable != null || stringHttpResponse.statusCode() != 200)
-                            {
-                                if(throwable instanceof IOException || throwable instanceof CompletionException)
-                                {
-                                    //We get socket reset exceptions occasionally when the remote server doesn't
-                                    //fully read our request and immediately responds.
-                                }
-                                else
-                                {
-                                    mLog.error("Error while sending upload URL request" + throwable.getLocalizedMessage());
-                                    setBroadcastState(BroadcastState.TEMPORARY_BROADCAST_ERROR);
-                                }
-                                incrementErrorAudioCount();
-                                broadcast(new BroadcastEvent(BroadcastifyCallBroadcaster.this,
-                                    BroadcastEvent.Event.BROADCASTER_ERROR_COUNT_CHANGE));
-                            }
-                            else
+                    return mHttpClient.sendAsync(fileRequest, HttpResponse.BodyHandlers.ofString())
+                        .thenApply(fileResponse -> {
+                            if(fileResponse.statusCode() == 200)
                             {
-                                String urlResponse = stringHttpResponse.body();
-
-                                if(urlResponse.startsWith("0 "))
-                                {
-                                    HttpRequest.BodyPublisher filePublisher = null;
-
-                                    try
-                                    {
-                                        filePublisher = HttpRequest.BodyPublishers.ofFile(audioRecording.getPath());
-                                    }
-                                    catch(FileNotFoundException fnfe)
-                                    {
-                                        mLog.error("Broadcastify calls API - audio recording file not found - ignoring upload");
-                                    }
-
-                                    if(filePublisher != null)
-                                    {
-                                        HttpRequest fileRequest = HttpRequest.newBuilder()
-                                            .uri(URI.create(urlResponse.substring(2)))
-                                            .header(HttpHeaders.USER_AGENT, "sdrtrunk")
-                                            .header(HttpHeaders.CONTENT_TYPE, "audio/mpeg")
-                                            .PUT(filePublisher)
-                                            .build();
-
-                                        mHttpClient.sendAsync(fileRequest, HttpResponse.BodyHandlers.ofString())
-                                            .whenComplete((fileResponse, throwable1) -> {
-                                                if(throwable1 != null || fileResponse.statusCode() != 200)
-                                                {
-                                                    if(throwable1 instanceof IOException || throwable1 instanceof CompletionException)
-                                                    {
-                                                        //We get socket reset exceptions occasionally when the remote server doesn't
-                                                        //fully read our request and immediately responds.
-                                                    }
-                                                    else
-                                                    {
-                                                        setBroadcastState(BroadcastState.TEMPORARY_BROADCAST_ERROR);
-                                                        mLog.error("Broadcastify calls API file upload fail [" +
-                                                            fileResponse.statusCode() + "] response [" +
-                                                            fileResponse.body() + "]");
-                                                    }
-
-                                                    incrementErrorAudioCount();
-                                                    broadcast(new BroadcastEvent(BroadcastifyCallBroadcaster.this,
-                                                        BroadcastEvent.Event.BROADCASTER_ERROR_COUNT_CHANGE));
-                                                }
-                                                else
-                                                {
-                                                    incrementStreamedAudioCount();
-                                                    broadcast(new BroadcastEvent(BroadcastifyCallBroadcaster.this,
-                                                        BroadcastEvent.Event.BROADCASTER_STREAMED_COUNT_CHANGE));
-                                                }
-
-                                                audioRecording.removePendingReplay();
-                                            });
-                                    }
-                                    else
-                                    {
-                                        //Register an error for the file not found exception
-                                        mLog.error("Broadcastify calls API - upload file not found [" +
-                                            audioRecording.getPath().toString() + "]");
-                                        incrementErrorAudioCount();
-                                        broadcast(new BroadcastEvent(BroadcastifyCallBroadcaster.this,
-                                            BroadcastEvent.Event.BROADCASTER_ERROR_COUNT_CHANGE));
-                                        audioRecording.removePendingReplay();
-                                    }
-                                }
-                                else if(urlResponse.startsWith("1 SKIPPED"))
-                                {
-                                    //Broadcastify is telling us to skip audio upload - someone already uploaded it
-                                    audioRecording.removePendingReplay();
-                                }
-                                else
-                                {
-                                    mLog.error("Broadcastify calls API upload URL request failed [" + urlResponse + "]");
-                                    setBroadcastState(BroadcastState.TEMPORARY_BROADCAST_ERROR);
-                                    incrementErrorAudioCount();
-                                    broadcast(new BroadcastEvent(BroadcastifyCallBroadcaster.this,
-                                        BroadcastEvent.Event.BROADCASTER_ERROR_COUNT_CHANGE));
-                                    audioRecording.removePendingReplay();
-                                }
+                                return UploadResult.SUCCESS;
                             }
+
+                            mLog.error("Broadcastify calls API file upload fail [" + fileResponse.statusCode() +
+                                "] response [" + fileResponse.body() + "]");
+                            return UploadResult.fromStatusCode(fileResponse.statusCode());
                         });
                 }
-                catch(Exception e)
+                else if(url.startsWith("1 SKIPPED"))
                 {
-                    mLog.error("Unknown Error", e);
-                    setBroadcastState(BroadcastState.ERROR);
-                    incrementErrorAudioCount();
-                    broadcast(new BroadcastEvent(this, BroadcastEvent.Event.BROADCASTER_ERROR_COUNT_CHANGE));
-                    audioRecording.removePendingReplay();
+                    //Broadcastify is telling us to skip audio upload - someone already uploaded it
+                    return CompletableFuture.completedFuture(UploadResult.DUPLICATE);
                 }
-            }
-        }
 
-        //If we're not connected and there are recordings in the queue, check the recording at the head of the queue
-        // and start age-off once the recordings become too old.  The recordings should be time ordered in the queue.
-        AudioRecording audioRecording = mAudioRecordingQueue.peek();
+                mLog.error("Broadcastify calls API upload URL request failed [" + url + "]");
+                return CompletableFuture.completedFuture(UploadResult.FAILED);
+            })
+            .exceptionally(throwable -> {
+                //Connection errors and socket resets are transient and the call is retried
+                mLog.debug("Broadcastify calls API upload error - " + throwable.getLocalizedMessage());
+                return UploadResult.RETRY;
+            });
+    }
 
-        while(audioRecording != null)
+    @Override
+    public void uploadComplete(UploadRequest request, UploadResult result)
+    {
+        switch(result)
         {
-            if(isValid(audioRecording))
+            case SUCCESS, DUPLICATE ->
+            {
+                if(getBroadcastState() != BroadcastState.CONNECTED)
+                {
+                    setBroadcastState(BroadcastState.CONNECTED);
+                }
+
+                if(result == UploadResult.SUCCESS)
+                {
+                    incrementStreamedAudioCount();
+                    broadcast(new BroadcastEvent(this, BroadcastEvent.Event.BROADCASTER_STREAMED_COUNT_CHANGE));
+                }
+            }
+            case RETRY ->
             {
-                return;
+                if(getBroadcastState() != BroadcastState.TEMPORARY_BROADCAST_ERROR)
+                {
+                    setBroadcastState(BroadcastState.TEMPORARY_BROADCAST_ERROR);
+                }
             }
-            else
+            case FAILED ->
+            {
+                incrementErrorAudioCount();
+                broadcast(new BroadcastEvent(this, BroadcastEvent.Event.BROADCASTER_ERROR_COUNT_CHANGE));
+            }
+            case AGED_OFF ->
             {
-                //Remove the recording from the queue, remove a replay, and peek at the next recording in the queue
-                mAudioRecordingQueue.poll();
-                audioRecording.removePendingReplay();
                 incrementAgedOffAudioCount();
                 broadcast(new BroadcastEvent(this, BroadcastEvent.Event.BROADCASTER_AGED_OFF_COUNT_CHANGE));
-                audioRecording = mAudioRecordingQueue.peek();
             }
         }
     }
 
+    @Override
+    public void uploadQueueChanged()
+    {
+        broadcast(new BroadcastEvent(this, BroadcastEvent.Event.BROADCASTER_QUEUE_CHANGE));
+    }
+
     /**
      * Creates a frequency value from the audio recording identifier collection.
      */
@@ -525,15 +452,6 @@ public class BroadcastifyCallBroadcaster extends AbstractAudioBroadcaster<Broadc
         }
     }
 
-    public class AudioRecordingProcessor implements Runnable
-    {
-        @Override
-        public void run()
-        {
-            processRecordingQueue();
-        }
-    }
-
     public static void main(String[] args)
     {
         mLog.debug("Starting ...");
@@ -60,6 +60,19 @@ public class BroadcastifyCallBuilder
         return this;
     }
 
+    /**
+     * Adds a string part to the call using the form field header name
+     */
+    public BroadcastifyCallBuilder addPart(String key, String value)
+    {
+        if(key != null && value != null)
+        {
+            mParts.add(new Part(key, value));
+        }
+
+        return this;
+    }
+
     /**
      * Adds a number part to the call
      */
@@ -23,6 +23,7 @@ import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlProperty;
 import io.github.dsheirer.audio.broadcast.BroadcastConfiguration;
 import io.github.dsheirer.audio.broadcast.BroadcastFormat;
 import io.github.dsheirer.audio.broadcast.BroadcastServerType;
+import io.github.dsheirer.audio.broadcast.upload.HttpUploadEngine;
 import javafx.beans.binding.Bindings;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.IntegerProperty;
@@ -46,6 +47,7 @@ public class BroadcastifyCallConfiguration extends BroadcastConfiguration
     private StringProperty mApiKey = new SimpleStringProperty();
     private BooleanProperty mTestEnabled= new SimpleBooleanProperty(false);
     private IntegerProperty mTestInterval = new SimpleIntegerProperty(15);
+    private IntegerProperty mMaximumInFlight = new SimpleIntegerProperty(HttpUploadEngine.DEFAULT_MAXIMUM_IN_FLIGHT);
 
     /**
      * Constructor for faster jackson
@@ -160,11 +162,29 @@ public class BroadcastifyCallConfiguration extends BroadcastConfiguration
         mTestInterval.set(interval);
     }
 
+    /**
+     * Maximum number of concurrent upload requests to the server
+     */
+    @JacksonXmlProperty(isAttribute = true, localName = "maximum_in_flight")
+    public int getMaximumInFlight()
+    {
+        return mMaximumInFlight.get();
+    }
+
+    /**
+     * Sets the maximum number of concurrent upload requests to the server
+     */
+    public void setMaximumInFlight(int maximumInFlight)
+    {
+        mMaximumInFlight.set(maximumInFlight);
+    }
+
     @Override
     public BroadcastConfiguration copyOf()
     {
         BroadcastifyCallConfiguration copy = new BroadcastifyCallConfiguration();
         copy.setSystemID(getSystemID());
+        copy.setMaximumInFlight(getMaximumInFlight());
         return copy;
     }
 }
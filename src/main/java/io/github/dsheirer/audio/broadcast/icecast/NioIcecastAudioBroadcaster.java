@@ -0,0 +1,220 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.audio.broadcast.icecast;
+
+import io.github.dsheirer.alias.AliasModel;
+import io.github.dsheirer.audio.broadcast.BroadcastState;
+import io.github.dsheirer.audio.broadcast.IBroadcastMetadataUpdater;
+import io.github.dsheirer.audio.broadcast.nio.NioAudioStreamingBroadcaster;
+import io.github.dsheirer.audio.convert.InputAudioFormat;
+import io.github.dsheirer.audio.convert.MP3AudioConverter;
+import io.github.dsheirer.audio.convert.MP3Setting;
+import io.github.dsheirer.identifier.IdentifierCollection;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Base Icecast broadcaster using the shared streaming selector.  Provides inline metadata framing of the audio
+ * stream and parsing of the HTTP status response to the sub-class handshake.
+ */
+public abstract class NioIcecastAudioBroadcaster extends NioAudioStreamingBroadcaster<IcecastConfiguration>
+{
+    private static final Logger mLog = LoggerFactory.getLogger(NioIcecastAudioBroadcaster.class);
+    private static final String MOUNT_POINT_IN_USE = "Mountpoint in use";
+    private IBroadcastMetadataUpdater mMetadataUpdater;
+    protected AliasModel mAliasModel;
+
+    public NioIcecastAudioBroadcaster(IcecastConfiguration configuration, InputAudioFormat inputAudioFormat,
+                                      MP3Setting mp3Setting, AliasModel aliasModel)
+    {
+        super(configuration, inputAudioFormat, mp3Setting);
+        mAliasModel = aliasModel;
+    }
+
+    /**
+     * Icecast broadcast configuration
+     */
+    protected IcecastConfiguration getConfiguration()
+    {
+        return getBroadcastConfiguration();
+    }
+
+    @Override
+    protected IBroadcastMetadataUpdater getMetadataUpdater()
+    {
+        if(mMetadataUpdater == null)
+        {
+            mMetadataUpdater = new IcecastBroadcastMetadataUpdater(getConfiguration(), mAliasModel);
+        }
+
+        return mMetadataUpdater;
+    }
+
+    /**
+     * Audio info header value
+     */
+    protected String getAudioInfo()
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append("samplerate=").append(getConfiguration().getSampleRate()).append(";");
+        sb.append("quality=").append(MP3AudioConverter.AUDIO_QUALITY).append(";");
+        sb.append("channels=").append(getConfiguration().getChannels());
+        return sb.toString();
+    }
+
+    /**
+     * Updates the inline metadata settings from the configuration.  Invoked when the connection opens.
+     */
+    protected void updateInlineSettings()
+    {
+        mInlineActive = getConfiguration().hasInline();
+
+        if(mInlineActive)
+        {
+            mInlineInterval = getConfiguration().getInlineInterval();
+        }
+
+        mInlineRemaining = -1;
+    }
+
+    /**
+     * Broadcasts the audio frame or sequence, inserting inline metadata at the configured interval.  The inline
+     * metadata position only advances when the framed audio fits in the outbound buffer.
+     */
+    @Override
+    protected void broadcastAudio(byte[] audio, IdentifierCollection identifierCollection)
+    {
+        if(audio == null || audio.length == 0 || !connected())
+        {
+            return;
+        }
+
+        if(mInlineActive)
+        {
+            byte[] metadata = IcecastMetadata.formatInline(IcecastMetadata.getTitle(identifierCollection, mAliasModel))
+                .getBytes();
+            int remaining = mInlineRemaining == -1 ? mInlineInterval : mInlineRemaining;
+            ByteArrayOutputStream stream = new ByteArrayOutputStream(audio.length + metadata.length);
+            int audioOffset = 0;
+
+            while(audioOffset < audio.length)
+            {
+                int length = Math.min(remaining, audio.length - audioOffset);
+                stream.write(audio, audioOffset, length);
+                remaining -= length;
+                audioOffset += length;
+
+                if(remaining == 0)
+                {
+                    remaining = mInlineInterval;
+                    stream.write(metadata, 0, metadata.length);
+                }
+            }
+
+            if(send(stream.toByteArray()))
+            {
+                mInlineRemaining = remaining;
+            }
+        }
+        else
+        {
+            send(audio);
+        }
+    }
+
+    /**
+     * Parses the server response status line and updates the broadcast state.  Header lines are ignored.
+     */
+    @Override
+    protected void received(ByteBuffer buffer)
+    {
+        if(connected())
+        {
+            //Nothing further is expected from the server once streaming
+            buffer.position(buffer.limit());
+            return;
+        }
+
+        String line = readLine(buffer);
+
+        while(line != null && isOpen())
+        {
+            if(line.startsWith("HTTP/"))
+            {
+                String[] parts = line.split(" ", 3);
+                int code = -1;
+
+                try
+                {
+                    code = parts.length > 1 ? Integer.parseInt(parts[1]) : -1;
+                }
+                catch(NumberFormatException nfe)
+                {
+                    //Handled as unrecognized
+                }
+
+                String remainder = StandardCharsets.UTF_8.decode(buffer.duplicate()).toString();
+
+                switch(code)
+                {
+                    case 100:
+                        //Continue - the 200 OK follows
+                        break;
+                    case 200:
+                        setBroadcastState(BroadcastState.CONNECTED);
+                        buffer.position(buffer.limit());
+                        return;
+                    case 401:
+                        setBroadcastState(BroadcastState.INVALID_CREDENTIALS);
+                        return;
+                    case 403:
+                        if(line.contains(MOUNT_POINT_IN_USE) || remainder.contains(MOUNT_POINT_IN_USE))
+                        {
+                            mLog.error("Stream [" + getStreamName() + "] - unable to connect - mountpoint in use");
+                            setBroadcastState(BroadcastState.MOUNT_POINT_IN_USE);
+                            close(null);
+                        }
+                        else
+                        {
+                            setBroadcastState(BroadcastState.CONFIGURATION_ERROR);
+                        }
+                        return;
+                    case 501:
+                        //Disconnect so that we can reconnect later
+                        close(BroadcastState.DISCONNECTED);
+                        return;
+                    default:
+                        mLog.error("[" + getStreamName() + "] unrecognized server response:" + line);
+                        setBroadcastState(BroadcastState.ERROR);
+                        return;
+                }
+            }
+            else if(line.contains("Invalid Password") || line.contains("Authentication Required"))
+            {
+                setBroadcastState(BroadcastState.INVALID_CREDENTIALS);
+                return;
+            }
+
+            line = readLine(buffer);
+        }
+    }
+}
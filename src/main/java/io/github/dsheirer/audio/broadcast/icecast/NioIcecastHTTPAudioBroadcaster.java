@@ -0,0 +1,103 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.audio.broadcast.icecast;
+
+import io.github.dsheirer.alias.AliasModel;
+import io.github.dsheirer.audio.convert.InputAudioFormat;
+import io.github.dsheirer.audio.convert.MP3Setting;
+import io.github.dsheirer.properties.SystemProperties;
+
+/**
+ * Icecast 2.4.x compatible broadcaster using an HTTP 1.1 PUT request over the shared streaming selector.
+ *
+ * Note: use @see NioIcecastTCPAudioBroadcaster for Icecast version 2.3.x and older.
+ */
+public class NioIcecastHTTPAudioBroadcaster extends NioIcecastAudioBroadcaster
+{
+    private static final String TERMINATOR = "\r\n";
+    private static final String SEPARATOR = ": ";
+
+    /**
+     * Constructs an instance
+     * @param configuration for the Icecast stream
+     */
+    public NioIcecastHTTPAudioBroadcaster(IcecastHTTPConfiguration configuration, InputAudioFormat inputAudioFormat,
+                                          MP3Setting mp3Setting, AliasModel aliasModel)
+    {
+        super(configuration, inputAudioFormat, mp3Setting, aliasModel);
+    }
+
+    /**
+     * Sends the HTTP PUT request with stream configuration and user credentials upon connecting to remote server
+     */
+    @Override
+    protected void sessionOpened()
+    {
+        updateInlineSettings();
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("PUT ").append(getConfiguration().getMountPoint()).append(" HTTP/1.1").append(TERMINATOR);
+        header(sb, "Host", getConfiguration().getHost() + ":" + getConfiguration().getPort());
+        header(sb, IcecastHeader.ACCEPT.getValue(), "*/*");
+        header(sb, IcecastHeader.CONTENT_TYPE.getValue(), getConfiguration().getBroadcastFormat().getValue());
+        header(sb, IcecastHeader.USER_AGENT.getValue(), SystemProperties.getInstance().getApplicationName());
+        header(sb, IcecastHeader.AUTHORIZATION.getValue(), getConfiguration().getBase64EncodedCredentials());
+        header(sb, IcecastHeader.PUBLIC.getValue(), getConfiguration().isPublic() ? "1" : "0");
+        header(sb, IcecastHeader.AUDIO_INFO.getValue(), getAudioInfo());
+
+        if(getConfiguration().hasName())
+        {
+            header(sb, IcecastHeader.NAME.getValue(), getConfiguration().getName());
+        }
+
+        if(getConfiguration().hasDescription())
+        {
+            header(sb, IcecastHeader.DESCRIPTION.getValue(), getConfiguration().getDescription());
+        }
+
+        if(getConfiguration().hasURL())
+        {
+            header(sb, IcecastHeader.URL.getValue(), getConfiguration().getURL());
+        }
+
+        if(getConfiguration().hasGenre())
+        {
+            header(sb, IcecastHeader.GENRE.getValue(), getConfiguration().getGenre());
+        }
+
+        if(getConfiguration().hasBitRate())
+        {
+            header(sb, IcecastHeader.BITRATE.getValue(), String.valueOf(getConfiguration().getBitRate()));
+        }
+
+        if(mInlineActive)
+        {
+            header(sb, IcecastHeader.METAINT.getValue(), String.valueOf(mInlineInterval));
+        }
+
+        sb.append(TERMINATOR);
+
+        send(sb.toString());
+    }
+
+    private static void header(StringBuilder sb, String name, String value)
+    {
+        sb.append(name).append(SEPARATOR).append(value).append(TERMINATOR);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.audio.broadcast.icecast;
+
+import io.github.dsheirer.alias.AliasModel;
+import io.github.dsheirer.audio.convert.InputAudioFormat;
+import io.github.dsheirer.audio.convert.MP3Setting;
+import io.github.dsheirer.properties.SystemProperties;
+
+/**
+ * Icecast 2.3.2 compatible broadcaster using TCP and a pseudo HTTP 1.0 protocol over the shared streaming selector.
+ *
+ * Note: use @see NioIcecastHTTPAudioBroadcaster for Icecast version 2.4.x and newer.
+ */
+public class NioIcecastTCPAudioBroadcaster extends NioIcecastAudioBroadcaster
+{
+    private final static String TERMINATOR = "\n";
+    private final static String SEPARATOR = ":";
+    private static final long RECONNECT_INTERVAL_MILLISECONDS = 3000; //3 seconds
+
+    /**
+     * Constructs an instance
+     * @param configuration for the Icecast stream
+     */
+    public NioIcecastTCPAudioBroadcaster(IcecastTCPConfiguration configuration, InputAudioFormat inputAudioFormat,
+                                         MP3Setting mp3Setting, AliasModel aliasModel)
+    {
+        super(configuration, inputAudioFormat, mp3Setting, aliasModel);
+    }
+
+    @Override
+    protected long getReconnectInterval()
+    {
+        return RECONNECT_INTERVAL_MILLISECONDS;
+    }
+
+    /**
+     * Sends stream configuration and user credentials upon connecting to remote server
+     */
+    @Override
+    protected void sessionOpened()
+    {
+        updateInlineSettings();
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("SOURCE ").append(getConfiguration().getMountPoint());
+        sb.append(" HTTP/1.0").append(TERMINATOR);
+
+        sb.append("Authorization: ").append(getConfiguration().getBase64EncodedCredentials()).append(TERMINATOR);
+        sb.append(IcecastHeader.USER_AGENT.getValue()).append(SEPARATOR)
+            .append(SystemProperties.getInstance().getApplicationName()).append(TERMINATOR);
+        sb.append(IcecastHeader.CONTENT_TYPE.getValue()).append(SEPARATOR)
+            .append(getConfiguration().getBroadcastFormat().getValue()).append(TERMINATOR);
+        sb.append(IcecastHeader.PUBLIC.getValue()).append(SEPARATOR)
+            .append(getConfiguration().isPublic() ? "1" : "0").append(TERMINATOR);
+        sb.append(IcecastHeader.AUDIO_INFO.getValue()).append(SEPARATOR).append(getAudioInfo()).append(TERMINATOR);
+
+        if(getConfiguration().hasName())
+        {
+            sb.append(IcecastHeader.NAME.getValue()).append(SEPARATOR).append(getConfiguration().getName()).append(TERMINATOR);
+        }
+
+        if(getConfiguration().hasGenre())
+        {
+            sb.append(IcecastHeader.GENRE.getValue()).append(SEPARATOR)
+                .append(getConfiguration().getGenre()).append(TERMINATOR);
+        }
+
+        if(getConfiguration().hasDescription())
+        {
+            sb.append(IcecastHeader.DESCRIPTION.getValue()).append(SEPARATOR)
+                .append(getConfiguration().getDescription()).append(TERMINATOR);
+        }
+
+        if(mInlineActive)
+        {
+            sb.append(IcecastHeader.METAINT.getValue()).append(SEPARATOR)
+                .append(mInlineInterval).append(TERMINATOR);
+        }
+
+        sb.append(TERMINATOR);
+
+        send(sb.toString());
+    }
+}
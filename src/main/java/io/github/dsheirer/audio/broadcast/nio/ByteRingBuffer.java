@@ -0,0 +1,162 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.audio.broadcast.nio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Fixed capacity byte ring buffer for staging outbound stream data until the socket channel can accept it.
+ *
+ * Data is only ever accepted whole: a put() that doesn't fit in the remaining capacity is rejected so that a
+ * partially buffered audio frame or protocol message is never sent.
+ *
+ * Note: this class is not thread safe.  It is accessed solely by the streaming selector thread.
+ */
+public class ByteRingBuffer
+{
+    private final byte[] mBuffer;
+    private final ByteBuffer mView;
+    private int mHead;
+    private int mSize;
+
+    /**
+     * Constructs an instance
+     * @param capacity in bytes
+     */
+    public ByteRingBuffer(int capacity)
+    {
+        mBuffer = new byte[capacity];
+        mView = ByteBuffer.wrap(mBuffer);
+    }
+
+    /**
+     * Capacity of the buffer in bytes
+     */
+    public int capacity()
+    {
+        return mBuffer.length;
+    }
+
+    /**
+     * Number of bytes waiting to be written
+     */
+    public int size()
+    {
+        return mSize;
+    }
+
+    /**
+     * Number of bytes that can be added before the buffer is full
+     */
+    public int remaining()
+    {
+        return mBuffer.length - mSize;
+    }
+
+    /**
+     * Indicates if there are no bytes waiting to be written
+     */
+    public boolean isEmpty()
+    {
+        return mSize == 0;
+    }
+
+    /**
+     * Discards any bytes waiting to be written
+     */
+    public void clear()
+    {
+        mHead = 0;
+        mSize = 0;
+    }
+
+    /**
+     * Adds the bytes to the buffer
+     * @param bytes to add
+     * @return true if the bytes were added or false if there isn't enough space for all of the bytes
+     */
+    public boolean put(byte[] bytes)
+    {
+        return put(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Adds the bytes to the buffer
+     * @param bytes array
+     * @param offset to the first byte to add
+     * @param length number of bytes to add
+     * @return true if the bytes were added or false if there isn't enough space for all of the bytes
+     */
+    public boolean put(byte[] bytes, int offset, int length)
+    {
+        if(length > remaining())
+        {
+            return false;
+        }
+
+        int tail = (mHead + mSize) % mBuffer.length;
+        int first = Math.min(length, mBuffer.length - tail);
+        System.arraycopy(bytes, offset, mBuffer, tail, first);
+        System.arraycopy(bytes, offset + first, mBuffer, 0, length - first);
+        mSize += length;
+        return true;
+    }
+
+    /**
+     * Writes as many buffered bytes as the (non-blocking) channel will accept.
+     * @param channel to write to
+     * @return number of bytes written
+     * @throws IOException if there is an error writing to the channel
+     */
+    public int write(WritableByteChannel channel) throws IOException
+    {
+        int total = 0;
+
+        while(mSize > 0)
+        {
+            int contiguous = Math.min(mSize, mBuffer.length - mHead);
+            mView.limit(mBuffer.length).position(mHead).limit(mHead + contiguous);
+
+            int written = channel.write(mView);
+
+            if(written <= 0)
+            {
+                break;
+            }
+
+            mHead = (mHead + written) % mBuffer.length;
+            mSize -= written;
+            total += written;
+
+            if(written < contiguous)
+            {
+                break;
+            }
+        }
+
+        if(mSize == 0)
+        {
+            mHead = 0;
+        }
+
+        return total;
+    }
+}
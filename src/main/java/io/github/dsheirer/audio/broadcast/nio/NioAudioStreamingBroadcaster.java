@@ -0,0 +1,452 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.audio.broadcast.nio;
+
+import io.github.dsheirer.audio.broadcast.AudioStreamingBroadcaster;
+import io.github.dsheirer.audio.broadcast.BroadcastConfiguration;
+import io.github.dsheirer.audio.broadcast.BroadcastState;
+import io.github.dsheirer.audio.convert.InputAudioFormat;
+import io.github.dsheirer.audio.convert.MP3Setting;
+import io.github.dsheirer.util.ThreadPool;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Audio streaming broadcaster that uses the shared streaming selector for connection management, pacing and socket
+ * writes instead of a per-stream socket connector and a per-stream scheduled recording queue processor.
+ *
+ * Each pacing interval, the selector invokes pace() which streams the elapsed interval of audio from the recording
+ * queue (or silence) through the sub-class broadcastAudio() implementation.  Sub-classes frame the audio for their
+ * protocol and stage it in the outbound ring buffer via send().  Sub-classes send the protocol handshake when the
+ * socket opens and parse the server responses in received(), setting the broadcast state to CONNECTED once the
+ * server accepts the stream.  Audio is only paced while the broadcaster is connected.
+ *
+ * All methods other than start(), stop() and disconnect() are invoked on the selector thread.
+ */
+public abstract class NioAudioStreamingBroadcaster<T extends BroadcastConfiguration> extends AudioStreamingBroadcaster<T>
+{
+    private final static Logger mLog = LoggerFactory.getLogger(NioAudioStreamingBroadcaster.class);
+    private static final int RING_BUFFER_CAPACITY = 128 * 1024;
+    private static final int READ_BUFFER_CAPACITY = 8 * 1024;
+    private static final int INITIAL_BUFFER_MS = 1000;
+    private static final int MAXIMUM_PACING_MS = 1000;
+    private static final long CONNECTION_TIMEOUT_MS = 10000;
+    static final long WRITE_TIMEOUT_MS = 10000;
+    protected static final long DEFAULT_RECONNECT_INTERVAL_MS = 30000;
+
+    private StreamingSelector mStreamingSelector = StreamingSelector.getInstance();
+    private ByteRingBuffer mRingBuffer = new ByteRingBuffer(RING_BUFFER_CAPACITY);
+    private ByteBuffer mReadBuffer = ByteBuffer.allocate(READ_BUFFER_CAPACITY);
+    private SocketChannel mSocketChannel;
+    private SelectionKey mSelectionKey;
+    private boolean mResolving;
+    private long mLastConnectionAttempt;
+    private long mLastPacing;
+    private long mLastWrite;
+    private int mOverflowCount;
+
+    /**
+     * Constructs an instance
+     * @param broadcastConfiguration for the stream
+     * @param inputAudioFormat of the audio recordings
+     * @param mp3Setting for silence generation
+     */
+    public NioAudioStreamingBroadcaster(T broadcastConfiguration, InputAudioFormat inputAudioFormat,
+                                        MP3Setting mp3Setting)
+    {
+        super(broadcastConfiguration, inputAudioFormat, mp3Setting);
+    }
+
+    /**
+     * Sends the protocol handshake to the server once the socket connection is established.
+     */
+    protected abstract void sessionOpened();
+
+    /**
+     * Processes server response bytes.  Implementations consume complete responses from the buffer and leave any
+     * partial response in the buffer for the next read.
+     * @param buffer in read mode containing server response bytes
+     */
+    protected abstract void received(ByteBuffer buffer);
+
+    /**
+     * Resets any protocol state when the socket connection closes.
+     */
+    protected void sessionClosed()
+    {
+    }
+
+    /**
+     * Interval to wait between connection attempts
+     */
+    protected long getReconnectInterval()
+    {
+        return DEFAULT_RECONNECT_INTERVAL_MS;
+    }
+
+    /**
+     * Registers with the streaming selector in place of the scheduled recording queue processor.
+     */
+    @Override
+    protected void startRecordingQueueProcessor()
+    {
+        mStreamingSelector.register(this);
+    }
+
+    /**
+     * Unregisters from the streaming selector, which closes the socket connection.
+     */
+    @Override
+    protected void stopRecordingQueueProcessor()
+    {
+        mStreamingSelector.unregister(this);
+    }
+
+    /**
+     * Closes the socket connection.  The broadcaster reconnects after the reconnect interval while it is registered.
+     */
+    @Override
+    protected void disconnect()
+    {
+        mStreamingSelector.execute(() -> close(BroadcastState.DISCONNECTED));
+    }
+
+    /**
+     * Stages the bytes for writing to the server.  Bytes are only staged as a whole.
+     * @param bytes to send
+     * @return true if the bytes were staged or false if the outbound buffer doesn't have enough space
+     */
+    protected boolean send(byte[] bytes)
+    {
+        if(mSocketChannel == null)
+        {
+            return false;
+        }
+
+        if(mRingBuffer.put(bytes))
+        {
+            updateInterest();
+            return true;
+        }
+
+        if(mOverflowCount++ == 0)
+        {
+            mLog.warn("[" + getStreamName() + "] outbound stream buffer is full - server is not keeping up");
+        }
+
+        return false;
+    }
+
+    /**
+     * Convenience method to send a string as UTF-8 bytes
+     */
+    protected boolean send(String value)
+    {
+        return send(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Indicates if the socket connection is open.  Response parsers should stop processing when a response causes
+     * the connection to close.
+     */
+    protected boolean isOpen()
+    {
+        return mSocketChannel != null;
+    }
+
+    /**
+     * Remaining outbound buffer capacity in bytes
+     */
+    protected int getSendCapacity()
+    {
+        return mRingBuffer.remaining();
+    }
+
+    /**
+     * Reads the next line terminated by a line feed (with optional carriage return) from the buffer.
+     * @param buffer in read mode
+     * @return line without the terminator, or null if the buffer doesn't contain a complete line
+     */
+    protected static String readLine(ByteBuffer buffer)
+    {
+        for(int x = buffer.position(); x < buffer.limit(); x++)
+        {
+            if(buffer.get(x) == '\n')
+            {
+                int length = x - buffer.position();
+                byte[] line = new byte[length];
+                buffer.get(line);
+                buffer.get(); //Line feed
+                return new String(line, StandardCharsets.UTF_8).replace("\r", "");
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Invoked by the streaming selector each pacing interval to manage the connection and to stream the elapsed
+     * interval of audio while connected.
+     * @param now current time in milliseconds
+     */
+    void pace(long now)
+    {
+        if(mSocketChannel == null)
+        {
+            if(!mResolving && canConnect() && (mLastConnectionAttempt + getReconnectInterval()) < now)
+            {
+                connect(now);
+            }
+
+            return;
+        }
+
+        if(connected())
+        {
+            int interval = mLastPacing == 0 ? INITIAL_BUFFER_MS : (int)Math.min(now - mLastPacing, MAXIMUM_PACING_MS);
+            mLastPacing = now;
+
+            //When the server stops draining the stream, drop the interval rather than overfilling the buffer
+            if(mRingBuffer.size() < mRingBuffer.capacity() / 2)
+            {
+                processRecordingQueue(interval);
+            }
+
+            if(!mRingBuffer.isEmpty() && (now - mLastWrite) > WRITE_TIMEOUT_MS)
+            {
+                mLog.info("[" + getStreamName() + "] streaming connection write timeout - resetting connection");
+                close(BroadcastState.DISCONNECTED);
+            }
+        }
+        else if((now - mLastConnectionAttempt) > CONNECTION_TIMEOUT_MS)
+        {
+            mLog.info("[" + getStreamName() + "] timeout while connecting to server - resetting connection");
+            close(BroadcastState.NO_SERVER);
+        }
+    }
+
+    /**
+     * Resolves the server address on a separate thread and then opens the socket connection on the selector thread.
+     */
+    private void connect(long now)
+    {
+        mLastConnectionAttempt = now;
+        mResolving = true;
+        setBroadcastState(BroadcastState.CONNECTING);
+
+        final String host = getBroadcastConfiguration().getHost();
+        final int port = getBroadcastConfiguration().getPort();
+
+        ThreadPool.CACHED.submit(() -> {
+            InetSocketAddress address = null;
+
+            try
+            {
+                address = new InetSocketAddress(host, port);
+            }
+            catch(Exception e)
+            {
+                mLog.error("[" + getStreamName() + "] invalid server address [" + host + ":" + port + "]", e);
+            }
+
+            final InetSocketAddress resolved = address;
+            mStreamingSelector.execute(() -> open(resolved));
+        });
+    }
+
+    /**
+     * Opens the non-blocking socket connection to the server.
+     */
+    private void open(InetSocketAddress address)
+    {
+        mResolving = false;
+        mLastConnectionAttempt = System.currentTimeMillis();
+
+        if(address == null || address.isUnresolved())
+        {
+            setBroadcastState(BroadcastState.NETWORK_UNAVAILABLE);
+            return;
+        }
+
+        //Stopped or in an error state while resolving
+        if(!canConnect() || getBroadcastState() != BroadcastState.CONNECTING)
+        {
+            return;
+        }
+
+        try
+        {
+            mSocketChannel = SocketChannel.open();
+            mSocketChannel.configureBlocking(false);
+            mSocketChannel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+
+            if(mSocketChannel.connect(address))
+            {
+                mSelectionKey = mSocketChannel.register(mStreamingSelector.getSelector(), SelectionKey.OP_READ, this);
+                opened();
+            }
+            else
+            {
+                mSelectionKey = mSocketChannel.register(mStreamingSelector.getSelector(), SelectionKey.OP_CONNECT, this);
+            }
+        }
+        catch(IOException ioe)
+        {
+            mLog.debug("[" + getStreamName() + "] failed to connect", ioe);
+            close(BroadcastState.NO_SERVER);
+        }
+    }
+
+    /**
+     * Resets the connection state and sends the protocol handshake
+     */
+    private void opened()
+    {
+        mLastWrite = System.currentTimeMillis();
+        mLastPacing = 0;
+        mOverflowCount = 0;
+        sessionOpened();
+        updateInterest();
+    }
+
+    /**
+     * Processes the ready operations for the socket channel.  Invoked by the streaming selector.
+     */
+    void process(SelectionKey key)
+    {
+        try
+        {
+            if(key.isConnectable())
+            {
+                if(mSocketChannel.finishConnect())
+                {
+                    key.interestOps(SelectionKey.OP_READ);
+                    opened();
+                }
+            }
+
+            if(key.isValid() && key.isReadable())
+            {
+                int read = mSocketChannel.read(mReadBuffer);
+
+                if(read < 0)
+                {
+                    close(BroadcastState.DISCONNECTED);
+                    return;
+                }
+
+                mReadBuffer.flip();
+                received(mReadBuffer);
+
+                //Discard an oversize response that the protocol can't parse so that reads can continue
+                if(mReadBuffer.position() == 0 && mReadBuffer.limit() == mReadBuffer.capacity())
+                {
+                    mReadBuffer.clear();
+                }
+                else
+                {
+                    mReadBuffer.compact();
+                }
+            }
+
+            if(key.isValid() && key.isWritable())
+            {
+                if(mRingBuffer.write(mSocketChannel) > 0)
+                {
+                    mLastWrite = System.currentTimeMillis();
+                }
+            }
+
+            updateInterest();
+        }
+        catch(ConnectException ce)
+        {
+            close(BroadcastState.NO_SERVER);
+        }
+        catch(IOException ioe)
+        {
+            mLog.info("[" + getStreamName() + "] streaming connection error - " + ioe.getMessage() +
+                " - reestablishing connection");
+            close(BroadcastState.DISCONNECTED);
+        }
+    }
+
+    /**
+     * Updates the selection key interest to include writes when there is data waiting to be written.
+     */
+    private void updateInterest()
+    {
+        if(mSelectionKey != null && mSelectionKey.isValid() && mSocketChannel.isConnected())
+        {
+            int ops = SelectionKey.OP_READ | (mRingBuffer.isEmpty() ? 0 : SelectionKey.OP_WRITE);
+
+            if(mSelectionKey.interestOps() != ops)
+            {
+                mSelectionKey.interestOps(ops);
+            }
+        }
+    }
+
+    /**
+     * Closes the socket connection and discards any unsent data.  Invoked on the selector thread.
+     * @param state to apply unless the broadcaster is already in an error state, or null to leave the state as is
+     */
+    protected void close(BroadcastState state)
+    {
+        mResolving = false;
+
+        if(mSocketChannel != null)
+        {
+            if(mSelectionKey != null)
+            {
+                mSelectionKey.cancel();
+                mSelectionKey = null;
+            }
+
+            try
+            {
+                mSocketChannel.close();
+            }
+            catch(IOException ioe)
+            {
+                //Ignore
+            }
+
+            mSocketChannel = null;
+            mRingBuffer.clear();
+            mReadBuffer.clear();
+            mLastPacing = 0;
+            mLastConnectionAttempt = System.currentTimeMillis();
+            sessionClosed();
+        }
+
+        if(state != null && !getBroadcastState().isErrorState() && getBroadcastState() != state)
+        {
+            setBroadcastState(state);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.audio.broadcast.nio;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Single-threaded NIO selector that connects, paces and writes all registered audio streaming broadcasters.
+ *
+ * Each pacing interval, every registered broadcaster is invoked to stream the elapsed interval of audio (recordings
+ * or silence) into its outbound ring buffer, and the selector writes each ring buffer to its socket as the socket
+ * becomes writable.  Using a single thread for all streams avoids the per-stream I/O and scheduler threads, and the
+ * audible stutter caused by scheduling jitter when many streams are active.
+ *
+ * All broadcaster socket, ring buffer and protocol state is accessed solely on the selector thread.  Other threads
+ * interact with the selector by submitting tasks via execute().
+ */
+public class StreamingSelector implements Runnable
+{
+    private static final Logger mLog = LoggerFactory.getLogger(StreamingSelector.class);
+    public static final long PACING_INTERVAL_MS = 100;
+    private static StreamingSelector sInstance;
+
+    private final Selector mSelector;
+    private final Queue<Runnable> mTasks = new ConcurrentLinkedQueue<>();
+    private final Set<NioAudioStreamingBroadcaster<?>> mBroadcasters = new HashSet<>();
+    private final Thread mThread;
+
+    /**
+     * Constructs an instance and starts the selector thread.
+     * @throws IOException if the selector cannot be opened
+     */
+    private StreamingSelector() throws IOException
+    {
+        mSelector = Selector.open();
+        mThread = new Thread(this, "sdrtrunk streaming selector");
+        mThread.setDaemon(true);
+        mThread.start();
+    }
+
+    /**
+     * Singleton instance of the streaming selector, created on first access.
+     */
+    public static synchronized StreamingSelector getInstance()
+    {
+        if(sInstance == null)
+        {
+            try
+            {
+                sInstance = new StreamingSelector();
+            }
+            catch(IOException ioe)
+            {
+                throw new IllegalStateException("Unable to open streaming selector", ioe);
+            }
+        }
+
+        return sInstance;
+    }
+
+    /**
+     * Selector used for registering socket channels.  Only accessed on the selector thread.
+     */
+    Selector getSelector()
+    {
+        return mSelector;
+    }
+
+    /**
+     * Indicates if the calling thread is the selector thread
+     */
+    public boolean isSelectorThread()
+    {
+        return Thread.currentThread() == mThread;
+    }
+
+    /**
+     * Submits a task to run on the selector thread.  Tasks submitted from the selector thread run immediately.
+     */
+    public void execute(Runnable task)
+    {
+        if(isSelectorThread())
+        {
+            task.run();
+        }
+        else
+        {
+            mTasks.add(task);
+            mSelector.wakeup();
+        }
+    }
+
+    /**
+     * Registers the broadcaster for pacing.  The broadcaster connects on the next pacing interval.
+     */
+    public void register(NioAudioStreamingBroadcaster<?> broadcaster)
+    {
+        execute(() -> mBroadcasters.add(broadcaster));
+    }
+
+    /**
+     * Removes the broadcaster from pacing and closes its connection.
+     */
+    public void unregister(NioAudioStreamingBroadcaster<?> broadcaster)
+    {
+        execute(() -> {
+            mBroadcasters.remove(broadcaster);
+            broadcaster.close(null);
+        });
+    }
+
+    @Override
+    public void run()
+    {
+        long nextPacing = System.currentTimeMillis();
+
+        while(true)
+        {
+            try
+            {
+                long timeout = nextPacing - System.currentTimeMillis();
+
+                if(timeout > 0)
+                {
+                    mSelector.select(timeout);
+                }
+                else
+                {
+                    mSelector.selectNow();
+                }
+
+                Runnable task = mTasks.poll();
+
+                while(task != null)
+                {
+                    try
+                    {
+                        task.run();
+                    }
+                    catch(Throwable t)
+                    {
+                        mLog.error("Error running streaming selector task", t);
+                    }
+
+                    task = mTasks.poll();
+                }
+
+                Iterator<SelectionKey> it = mSelector.selectedKeys().iterator();
+
+                while(it.hasNext())
+                {
+                    SelectionKey key = it.next();
+                    it.remove();
+
+                    if(key.isValid() && key.attachment() instanceof NioAudioStreamingBroadcaster<?> broadcaster)
+                    {
+                        try
+                        {
+                            broadcaster.process(key);
+                        }
+                        catch(Throwable t)
+                        {
+                            mLog.error("Error processing stream [" + broadcaster.getStreamName() + "]", t);
+                        }
+                    }
+                }
+
+                long now = System.currentTimeMillis();
+
+                if(now >= nextPacing)
+                {
+                    //Iterate a copy - broadcasters that enter an error state stop and unregister while pacing
+                    for(NioAudioStreamingBroadcaster<?> broadcaster : new ArrayList<>(mBroadcasters))
+                    {
+                        try
+                        {
+                            broadcaster.pace(now);
+                        }
+                        catch(Throwable t)
+                        {
+                            mLog.error("Error pacing stream [" + broadcaster.getStreamName() + "]", t);
+                        }
+                    }
+
+                    nextPacing += PACING_INTERVAL_MS;
+
+                    //Don't attempt to catch up on missed intervals - broadcasters pace from elapsed time
+                    if(nextPacing <= now)
+                    {
+                        nextPacing = now + PACING_INTERVAL_MS;
+                    }
+                }
+            }
+            catch(Throwable t)
+            {
+                mLog.error("Error in streaming selector", t);
+            }
+        }
+    }
+}
@@ -27,6 +27,12 @@ import io.github.dsheirer.audio.broadcast.AbstractAudioBroadcaster;
 import io.github.dsheirer.audio.broadcast.AudioRecording;
 import io.github.dsheirer.audio.broadcast.BroadcastEvent;
 import io.github.dsheirer.audio.broadcast.BroadcastState;
+import io.github.dsheirer.audio.broadcast.upload.HttpUploadEngine;
+import io.github.dsheirer.audio.broadcast.upload.IUploadListener;
+import io.github.dsheirer.audio.broadcast.upload.IUploadProtocol;
+import io.github.dsheirer.audio.broadcast.upload.UploadRequest;
+import io.github.dsheirer.audio.broadcast.upload.UploadResult;
+import io.github.dsheirer.audio.broadcast.upload.UploadSpool;
 import io.github.dsheirer.audio.convert.InputAudioFormat;
 import io.github.dsheirer.audio.convert.MP3Setting;
 import io.github.dsheirer.gui.playlist.radioreference.RadioReferenceDecoder;
@@ -39,20 +45,15 @@ import io.github.dsheirer.identifier.patch.PatchGroup;
 import io.github.dsheirer.identifier.patch.PatchGroupIdentifier;
 import io.github.dsheirer.identifier.radio.RadioIdentifier;
 import io.github.dsheirer.identifier.talkgroup.TalkgroupIdentifier;
-import io.github.dsheirer.util.ThreadPool;
-import java.io.IOException;
+import java.io.FileNotFoundException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.List;
-import java.util.Queue;
-import java.util.concurrent.CompletionException;
-import java.util.concurrent.LinkedTransferQueue;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -62,6 +63,7 @@ import org.slf4j.LoggerFactory;
  *
  */
 public class RdioScannerBroadcaster extends AbstractAudioBroadcaster<RdioScannerConfiguration>
+    implements IUploadProtocol, IUploadListener
 {
     private final static Logger mLog = LoggerFactory.getLogger(RdioScannerBroadcaster.class);
 
@@ -69,38 +71,39 @@ public class RdioScannerBroadcaster extends AbstractAudioBroadcaster<RdioScanner
     private static final String MULTIPART_TYPE = "multipart";
     private static final String DEFAULT_SUBTYPE = "form-data";
     private static final String MULTIPART_FORM_DATA = MULTIPART_TYPE + "/" + DEFAULT_SUBTYPE;
-    private Queue<AudioRecording> mAudioRecordingQueue = new LinkedTransferQueue<>();
-    private ScheduledFuture<?> mAudioRecordingProcessorFuture;
+    private HttpUploadEngine mUploadEngine;
+    private boolean mStarted;
     private HttpClient mHttpClient = HttpClient.newBuilder()
         .version(HttpClient.Version.HTTP_2)
         .followRedirects(HttpClient.Redirect.NORMAL)
         .connectTimeout(Duration.ofSeconds(20))
         .build();
-    private long mLastConnectionAttempt;
-    private long mConnectionAttemptInterval = 5000; //Every 5 seconds
     private AliasModel mAliasModel;
 
     /**
      * Constructs an instance of the broadcaster
      * @param config to use
      * @param aliasModel for access to aliases
+     * @param spoolDirectory for persisting uploads that are waiting to be retried
      */
     public RdioScannerBroadcaster(RdioScannerConfiguration config, InputAudioFormat inputAudioFormat,
-                                       MP3Setting mp3Setting, AliasModel aliasModel)
+                                       MP3Setting mp3Setting, AliasModel aliasModel, Path spoolDirectory)
     {
         super(config);
         mAliasModel = aliasModel;
+        mUploadEngine = new HttpUploadEngine("Rdio Scanner", this, this,
+            spoolDirectory != null ? new UploadSpool(spoolDirectory) : null, config.getMaximumInFlight(),
+            config.getMaximumRecordingAge());
     }
 
     /**
-     * Starts the audio recording processor thread
+     * Starts the upload engine
      */
     @Override
     public void start()
     {
         setBroadcastState(BroadcastState.CONNECTING);
         String response = testConnection(getBroadcastConfiguration());
-        mLastConnectionAttempt = System.currentTimeMillis();
 
         /**
          * Rdio Scanner API does not currently expose a test method.
@@ -115,23 +118,22 @@ public class RdioScannerBroadcaster extends AbstractAudioBroadcaster<RdioScanner
             setBroadcastState(BroadcastState.ERROR);
         }
 
-        if(mAudioRecordingProcessorFuture == null)
+        if(!mStarted)
         {
-            mAudioRecordingProcessorFuture = ThreadPool.SCHEDULED.scheduleAtFixedRate(new AudioRecordingProcessor(),
-                0, 500, TimeUnit.MILLISECONDS);
+            mStarted = true;
+            mUploadEngine.start();
         }
     }
 
     /**
-     * Stops the audio recording processor thread
+     * Stops the upload engine
      */
     @Override
     public void stop()
     {
-        if(mAudioRecordingProcessorFuture != null)
+        if(mStarted)
         {
-            mAudioRecordingProcessorFuture.cancel(true);
-            mAudioRecordingProcessorFuture = null;
+            mStarted = false;
             dispose();
             setBroadcastState(BroadcastState.DISCONNECTED);
         }
@@ -143,234 +145,151 @@ public class RdioScannerBroadcaster extends AbstractAudioBroadcaster<RdioScanner
     @Override
     public void dispose()
     {
-        AudioRecording audioRecording = mAudioRecordingQueue.poll();
-
-        while(audioRecording != null)
-        {
-            audioRecording.removePendingReplay();
-            audioRecording = mAudioRecordingQueue.poll();
-        }
-    }
-
-    /**
-     * Indicates if this broadcaster continues to have successful connections to and transactions with the remote
-     * server.  If there is a connectivity or other issue, the broadcast state is set to temporary error and
-     * the audio processor thread will persistently invoke this method to attempt a reconnect.
-     *
-     * Rdio Scanner does not have a test API endpoint, so we look for the incomplete call response.
-     */
-    private boolean connected()
-    {
-        if(getBroadcastState() != BroadcastState.CONNECTED &&
-            (System.currentTimeMillis() - mLastConnectionAttempt > mConnectionAttemptInterval))
-        {
-            setBroadcastState(BroadcastState.CONNECTING);
-
-            String response = testConnection(getBroadcastConfiguration());
-            mLastConnectionAttempt = System.currentTimeMillis();
-
-            if(response != null && response.toLowerCase().startsWith("incomplete call data: no talkgroup"))
-            {
-                setBroadcastState(BroadcastState.CONNECTED);
-            }
-            else
-            {
-                setBroadcastState(BroadcastState.ERROR);
-            }
-        }
-
-        return getBroadcastState() == BroadcastState.CONNECTED;
+        mUploadEngine.stop();
     }
 
     @Override
     public int getAudioQueueSize()
     {
-        return mAudioRecordingQueue.size();
+        return mUploadEngine.getQueueSize();
     }
 
+    /**
+     * Submits the audio recording to the upload engine.  Recordings without audio are ignored.
+     */
     @Override
     public void receive(AudioRecording audioRecording)
     {
-        mAudioRecordingQueue.offer(audioRecording);
-        broadcast(new BroadcastEvent(this, BroadcastEvent.Event.BROADCASTER_QUEUE_CHANGE));
-    }
+        if(audioRecording.getRecordingLength() <= 0)
+        {
+            audioRecording.removePendingReplay();
+            return;
+        }
 
-    /**
-     * Indicates if the audio recording is non-null and not too old, meaning that the age of the recording has not
-     * exceeded the max age value indicated in the broadcast configuration.  Audio recordings that are too old will be
-     * deleted to ensure that the in-memory queue size doesn't blow up.
-     * @param audioRecording to test
-     * @return true if the recording is valid
-     */
-    private boolean isValid(AudioRecording audioRecording)
-    {
-        return audioRecording != null && System.currentTimeMillis() - audioRecording.getStartTime() <=
-            getBroadcastConfiguration().getMaximumRecordingAge();
+        long timestampSeconds = (int)(audioRecording.getStartTime() / 1E3);
+        String path = audioRecording.getPath().toString();
+        // Remove TEMPORARY_STREAM_FILE_SUFFIX
+        String audioName = path.substring(path.substring(0, path.lastIndexOf("_")).lastIndexOf("_") + 1);
+
+        UploadRequest request = new UploadRequest(audioRecording)
+            .setAudioName(audioName)
+            .addField(FormField.KEY.getHeader(), getBroadcastConfiguration().getApiKey())
+            .addField(FormField.SYSTEM.getHeader(), getBroadcastConfiguration().getSystemID())
+            .addField(FormField.DATE_TIME.getHeader(), timestampSeconds)
+            .addField(FormField.TALKGROUP_ID.getHeader(), getTo(audioRecording))
+            .addField(FormField.SOURCE.getHeader(), getFrom(audioRecording))
+            .addField(FormField.FREQUENCY.getHeader(), getFrequency(audioRecording))
+            .addField(FormField.TALKGROUP_LABEL.getHeader(), getTalkgroupLabel(audioRecording))
+            .addField(FormField.TALKGROUP_GROUP.getHeader(), getTalkgroupGroup(audioRecording))
+            .addField(FormField.SYSTEM_LABEL.getHeader(), getSystemLabel(audioRecording))
+            .addField(FormField.PATCHES.getHeader(), getPatches(audioRecording));
+
+        mUploadEngine.submit(request);
     }
 
     /**
-     * Processes any enqueued audio recordings. This method employs asynchronous
-     * interaction with the server, so multiple audio recording uploads can occur simultaneously.
+     * Uploads a call to the Rdio Scanner call upload API.  The audio file is streamed from disk as part of the
+     * multipart request body.
+     * @param request to upload
+     * @return future upload result
      */
-    private void processRecordingQueue()
+    @Override
+    public CompletableFuture<UploadResult> upload(UploadRequest request)
     {
+        RdioScannerBuilder bodyBuilder = new RdioScannerBuilder();
+        request.getFields().forEach(bodyBuilder::addPart);
+        bodyBuilder.addAudioName(request.getAudioName()).addFile(request.getAudioPath());
 
-        
-        while(connected() && !mAudioRecordingQueue.isEmpty())
+        HttpRequest fileRequest;
+
+        try
         {
-            final AudioRecording audioRecording = mAudioRecordingQueue.poll();
-            broadcast(new BroadcastEvent(this, BroadcastEvent.Event.BROADCASTER_QUEUE_CHANGE));
+            fileRequest = HttpRequest.newBuilder()
+                .uri(URI.create(getBroadcastConfiguration().getHost()))
+                .header(HttpHeaders.CONTENT_TYPE, MULTIPART_FORM_DATA + "; boundary=" + bodyBuilder.getBoundary())
+                .header(HttpHeaders.USER_AGENT, "sdrtrunk")
+                .POST(bodyBuilder.build())
+                .build();
+        }
+        catch(FileNotFoundException fnfe)
+        {
+            mLog.error("Rdio Scanner API - upload file not found [" + request.getAudioPath() + "]");
+            return CompletableFuture.completedFuture(UploadResult.FAILED);
+        }
 
-            if(isValid(audioRecording) && audioRecording.getRecordingLength() > 0)
-            {
-                float durationSeconds = (float)(audioRecording.getRecordingLength() / 1E3f);
-                long timestampSeconds = (int)(audioRecording.getStartTime() / 1E3);
-                String talkgroup = getTo(audioRecording);
-                String radioId = getFrom(audioRecording);
-                Long frequency = getFrequency(audioRecording);
-                String patches = getPatches(audioRecording);
-                String talkgroupLabel = getTalkgroupLabel(audioRecording);
-                String talkgroupGroup = getTalkgroupGroup(audioRecording);
-                String systemLabel = getSystemLabel(audioRecording);
-                String path = audioRecording.getPath().toString();
-                // Remove TEMPORARY_STREAM_FILE_SUFFIX
-                String audioName = path.substring(path.substring(0, path.lastIndexOf("_")).lastIndexOf("_") + 1);
-
-                try
-                {
-                    byte[] audioBytes = null;
+        return mHttpClient.sendAsync(fileRequest, HttpResponse.BodyHandlers.ofString())
+            .thenApply(fileResponse -> {
+                String fileResponseString = fileResponse.body();
 
-                    try
+                if(fileResponse.statusCode() == 200 && fileResponseString != null)
+                {
+                    if(fileResponseString.contains("Call imported successfully."))
                     {
-                        audioBytes = Files.readAllBytes(audioRecording.getPath());
+                        return UploadResult.SUCCESS;
                     }
-                    catch(IOException e)
+                    else if(fileResponseString.contains("duplicate call rejected"))
                     {
-                        mLog.error("Rdio Scanner API - audio recording file not found - ignoring upload");
+                        //Rdio Scanner is telling us to skip audio upload - someone already uploaded it
+                        return UploadResult.DUPLICATE;
                     }
+                }
 
-                    if(audioBytes != null)
-                    {
+                mLog.error("Rdio Scanner API file upload fail [" + fileResponse.statusCode() + "] response [" +
+                    fileResponseString + "]");
+                return fileResponse.statusCode() == 200 ? UploadResult.FAILED :
+                    UploadResult.fromStatusCode(fileResponse.statusCode());
+            })
+            .exceptionally(throwable -> {
+                //Connection errors and socket resets are transient and the call is retried
+                mLog.debug("Rdio Scanner API upload error - " + throwable.getLocalizedMessage());
+                return UploadResult.RETRY;
+            });
+    }
 
-                        RdioScannerBuilder bodyBuilder = new RdioScannerBuilder();
-                            bodyBuilder.addPart(FormField.KEY, getBroadcastConfiguration().getApiKey())
-                            .addPart(FormField.SYSTEM, getBroadcastConfiguration().getSystemID())
-                            .addAudioName(audioName)
-                            .addFile(audioBytes)
-                            .addPart(FormField.DATE_TIME, timestampSeconds)
-                            .addPart(FormField.TALKGROUP_ID, talkgroup)
-                            .addPart(FormField.SOURCE, radioId)
-                            .addPart(FormField.FREQUENCY, frequency)
-                            .addPart(FormField.TALKGROUP_LABEL, talkgroupLabel)
-                            .addPart(FormField.TALKGROUP_GROUP, talkgroupGroup)
-                            .addPart(FormField.SYSTEM_LABEL, systemLabel)
-                            .addPart(FormField.PATCHES, patches);
-
-                        HttpRequest fileRequest = HttpRequest.newBuilder()
-                            .uri(URI.create(getBroadcastConfiguration().getHost()))
-                            .header(HttpHeaders.CONTENT_TYPE, MULTIPART_FORM_DATA + "; boundary=" + bodyBuilder.getBoundary())
-                            .header(HttpHeaders.USER_AGENT, "sdrtrunk")
-                            .POST(bodyBuilder.build())
-                            .build();
-
-                        mHttpClient.sendAsync(fileRequest, HttpResponse.BodyHandlers.ofString())
-                            .whenComplete((fileResponse, throwable1) -> {
-                                if(throwable1 != null || fileResponse.statusCode() != 200)
-                                {
-                                    if(throwable1 instanceof IOException || throwable1 instanceof CompletionException)
-                                    {
-                                        //We get socket reset exceptions occasionally when the remote server doesn't
-                                        //fully read our request and immediately responds.
-                                        setBroadcastState(BroadcastState.TEMPORARY_BROADCAST_ERROR);
-                                        mLog.error("Rdio Scanner API file upload fail [" +
-                                            fileResponse.statusCode() + "] response [" +
-                                            fileResponse.body() + "]");
-                                    }
-                                    else
-                                    {
-                                        setBroadcastState(BroadcastState.TEMPORARY_BROADCAST_ERROR);
-                                        mLog.error("Rdio Scanner API file upload fail [" +
-                                            fileResponse.statusCode() + "] response [" +
-                                            fileResponse.body() + "]");
-                                    }
-
-                                    incrementErrorAudioCount();
-                                    broadcast(new BroadcastEvent(RdioScannerBroadcaster.this,
-                                        BroadcastEvent.Event.BROADCASTER_ERROR_COUNT_CHANGE));
-                                }
-                                else
-                                {
-                                    String fileResponseString = fileResponse.body();
-
-                                    if(fileResponseString.contains("Call imported successfully."))
-                                    {
-                                        incrementStreamedAudioCount();
-                                        broadcast(new BroadcastEvent(RdioScannerBroadcaster.this,
-                                            BroadcastEvent.Event.BROADCASTER_STREAMED_COUNT_CHANGE)); 
-                                        audioRecording.removePendingReplay(); 
-                                    }
-                                    else if(fileResponseString.contains("duplicate call rejected"))
-                                    {
-                                        //Rdio Scanner is telling us to skip audio upload - someone already uploaded it
-                                        audioRecording.removePendingReplay();
-                                    }
-                                    else
-                                    {
-                                        setBroadcastState(BroadcastState.TEMPORARY_BROADCAST_ERROR);
-                                        mLog.error("Rdio Scanner API file upload fail [" +
-                                            fileResponse.statusCode() + "] response [" +
-                                            fileResponse.body() + "]");
-                                    }
-
-
-                                }
-                         
-                            });
-                    }
-                    else
-                    {
-                        //Register an error for the file not found exception
-                        mLog.error("Rdio Scanner API - upload file not found [" +
-                            audioRecording.getPath().toString() + "]");
-                        incrementErrorAudioCount();
-                        broadcast(new BroadcastEvent(RdioScannerBroadcaster.this,
-                            BroadcastEvent.Event.BROADCASTER_ERROR_COUNT_CHANGE));
-                        audioRecording.removePendingReplay();
-                    }
+    @Override
+    public void uploadComplete(UploadRequest request, UploadResult result)
+    {
+        switch(result)
+        {
+            case SUCCESS, DUPLICATE ->
+            {
+                if(getBroadcastState() != BroadcastState.CONNECTED)
+                {
+                    setBroadcastState(BroadcastState.CONNECTED);
                 }
-                catch(Exception e)
+
+                if(result == UploadResult.SUCCESS)
                 {
-                    mLog.error("Unknown Error", e);
-                    setBroadcastState(BroadcastState.ERROR);
-                    incrementErrorAudioCount();
-                    broadcast(new BroadcastEvent(this, BroadcastEvent.Event.BROADCASTER_ERROR_COUNT_CHANGE));
-                    audioRecording.removePendingReplay();
+                    incrementStreamedAudioCount();
+                    broadcast(new BroadcastEvent(this, BroadcastEvent.Event.BROADCASTER_STREAMED_COUNT_CHANGE));
                 }
             }
-        }
-
-        //If we're not connected and there are recordings in the queue, check the recording at the head of the queue
-        // and start age-off once the recordings become too old.  The recordings should be time ordered in the queue.
-        AudioRecording audioRecording = mAudioRecordingQueue.peek();
-
-        while(audioRecording != null)
-        {
-            if(isValid(audioRecording))
+            case RETRY ->
             {
-                return;
+                if(getBroadcastState() != BroadcastState.TEMPORARY_BROADCAST_ERROR)
+                {
+                    setBroadcastState(BroadcastState.TEMPORARY_BROADCAST_ERROR);
+                }
             }
-            else
+            case FAILED ->
+            {
+                incrementErrorAudioCount();
+                broadcast(new BroadcastEvent(this, BroadcastEvent.Event.BROADCASTER_ERROR_COUNT_CHANGE));
+            }
+            case AGED_OFF ->
             {
-                //Remove the recording from the queue, remove a replay, and peek at the next recording in the queue
-                mAudioRecordingQueue.poll();
-                audioRecording.removePendingReplay();
                 incrementAgedOffAudioCount();
                 broadcast(new BroadcastEvent(this, BroadcastEvent.Event.BROADCASTER_AGED_OFF_COUNT_CHANGE));
-                audioRecording = mAudioRecordingQueue.peek();
             }
         }
     }
 
+    @Override
+    public void uploadQueueChanged()
+    {
+        broadcast(new BroadcastEvent(this, BroadcastEvent.Event.BROADCASTER_QUEUE_CHANGE));
+    }
+
     /**
      * Creates a frequency value from the audio recording identifier collection.
      */
@@ -551,18 +470,18 @@ public class RdioScannerBroadcaster extends AbstractAudioBroadcaster<RdioScanner
             .addPart(FormField.SYSTEM, configuration.getSystemID())
             .addPart(FormField.TEST, 1);
 
-        HttpRequest request = HttpRequest.newBuilder()
-            .uri(URI.create(configuration.getHost()))
-            .header(HttpHeaders.CONTENT_TYPE, MULTIPART_FORM_DATA + "; boundary=" + bodyBuilder.getBoundary())
-            .header(HttpHeaders.USER_AGENT, "sdrtrunk")
-            .header(HttpHeaders.ACCEPT, "*/*")
-            .POST(bodyBuilder.build())
-            .build();
-
         HttpResponse.BodyHandler<String> responseHandler = HttpResponse.BodyHandlers.ofString();
 
         try
         {
+            HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(configuration.getHost()))
+                .header(HttpHeaders.CONTENT_TYPE, MULTIPART_FORM_DATA + "; boundary=" + bodyBuilder.getBoundary())
+                .header(HttpHeaders.USER_AGENT, "sdrtrunk")
+                .header(HttpHeaders.ACCEPT, "*/*")
+                .POST(bodyBuilder.build())
+                .build();
+
             HttpResponse<String> response = httpClient.send(request, responseHandler);
             String responseBody = response.body();
             return (responseBody != null ? responseBody : "(no response)") + " Status Code:" + response.statusCode();
@@ -573,15 +492,6 @@ public class RdioScannerBroadcaster extends AbstractAudioBroadcaster<RdioScanner
         }
     }
 
-    public class AudioRecordingProcessor implements Runnable
-    {
-        @Override
-        public void run()
-        {
-            processRecordingQueue();
-        }
-    }
-
     public static void main(String[] args)
     {
         mLog.debug("Starting ...");
@@ -19,12 +19,11 @@
 
 package io.github.dsheirer.audio.broadcast.rdioscanner;
 
+import java.io.FileNotFoundException;
 import java.net.http.HttpRequest;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
-import java.lang.*;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 
 /**
  * Builder for an HTTP body publisher to produce a RdioScanner call event
@@ -34,7 +33,7 @@ public class RdioScannerBuilder
     private static final String DASH_DASH = "--";
     private static final String BOUNDARY = "--sdrtrunk-sdrtrunk-sdrtrunk";
     private List<Part> mParts = new ArrayList<>();
-    private byte[] audioBytes = null;
+    private Path mAudioPath = null;
     private String audioName = null;
 
     /**
@@ -62,11 +61,24 @@ public class RdioScannerBuilder
     }
 
     /**
-     * Adds a Audio bytes part to the call
+     * Adds a Audio file part to the call.  The file contents are streamed when the request body is sent.
      */
-    public RdioScannerBuilder addFile(byte[] value)
+    public RdioScannerBuilder addFile(Path audioPath)
     {
-        audioBytes = value;
+        mAudioPath = audioPath;
+        return this;
+    }
+
+    /**
+     * Adds a string part to the call using the form field header name
+     */
+    public RdioScannerBuilder addPart(String key, String value)
+    {
+        if(key != null && value != null)
+        {
+            mParts.add(new Part(key, value));
+        }
+
         return this;
     }
 
@@ -114,7 +126,7 @@ public class RdioScannerBuilder
     private String formatFilePart(String boundary)
     {
 
-        if(audioBytes == null)
+        if(mAudioPath == null)
         {
             return "";
         }
@@ -137,9 +149,11 @@ public class RdioScannerBuilder
     }
 
     /**
-     * Creates a BodyPublisher for accessing the call form data
+     * Creates a BodyPublisher for accessing the call form data.  When an audio file is added, the body streams the file
+     * contents between the form data and the closing boundary rather than reading the file into memory.
+     * @throws FileNotFoundException if the audio file doesn't exist
      */
-    public HttpRequest.BodyPublisher build()
+    public HttpRequest.BodyPublisher build() throws FileNotFoundException
     {
         StringBuilder sb = new StringBuilder();
 
@@ -150,34 +164,16 @@ public class RdioScannerBuilder
 
         sb.append(formatFilePart(BOUNDARY));
 
+        HttpRequest.BodyPublisher head = HttpRequest.BodyPublishers.ofByteArray(sb.toString().getBytes());
+        HttpRequest.BodyPublisher tail = HttpRequest.BodyPublishers.ofByteArray(("\r\n" +
+            getClosingBoundary(BOUNDARY)).getBytes());
 
-        /**
-        * We need to create a ByteArray consisting of the Sting "parts" and the audio file bytes
-        */
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        
-        try
-        {
-       
-            outputStream.write(sb.toString().getBytes());
-
-            if(audioBytes != null)
-            {
-                outputStream.write(audioBytes);
-            }
-
-            sb = new StringBuilder();
-            sb.append("\r\n");
-            sb.append(getClosingBoundary(BOUNDARY));
-
-            outputStream.write(sb.toString().getBytes());
-        }
-        catch(IOException e)
+        if(mAudioPath != null)
         {
-            //mLog.error("Rdio Scanner API - unable to create POST reqeust.");
+            return HttpRequest.BodyPublishers.concat(head, HttpRequest.BodyPublishers.ofFile(mAudioPath), tail);
         }
 
-        return HttpRequest.BodyPublishers.ofByteArray(outputStream.toByteArray());
+        return HttpRequest.BodyPublishers.concat(head, tail);
     }
 
     @Override
@@ -23,6 +23,7 @@ import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlProperty;
 import io.github.dsheirer.audio.broadcast.BroadcastConfiguration;
 import io.github.dsheirer.audio.broadcast.BroadcastFormat;
 import io.github.dsheirer.audio.broadcast.BroadcastServerType;
+import io.github.dsheirer.audio.broadcast.upload.HttpUploadEngine;
 import javafx.beans.binding.Bindings;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleIntegerProperty;
@@ -39,6 +40,7 @@ public class RdioScannerConfiguration extends BroadcastConfiguration
 {
     private IntegerProperty mSystemID = new SimpleIntegerProperty();
     private StringProperty mApiKey = new SimpleStringProperty();
+    private IntegerProperty mMaximumInFlight = new SimpleIntegerProperty(HttpUploadEngine.DEFAULT_MAXIMUM_IN_FLIGHT);
 
     /**
      * Constructor for faster jackson
@@ -125,11 +127,29 @@ public class RdioScannerConfiguration extends BroadcastConfiguration
         return BroadcastServerType.RDIOSCANNER_CALL;
     }
 
+    /**
+     * Maximum number of concurrent upload requests to the server
+     */
+    @JacksonXmlProperty(isAttribute = true, localName = "maximum_in_flight")
+    public int getMaximumInFlight()
+    {
+        return mMaximumInFlight.get();
+    }
+
+    /**
+     * Sets the maximum number of concurrent upload requests to the server
+     */
+    public void setMaximumInFlight(int maximumInFlight)
+    {
+        mMaximumInFlight.set(maximumInFlight);
+    }
+
     @Override
     public BroadcastConfiguration copyOf()
     {
         RdioScannerConfiguration copy = new RdioScannerConfiguration();
         copy.setSystemID(getSystemID());
+        copy.setMaximumInFlight(getMaximumInFlight());
         return copy;
     }
 }
@@ -0,0 +1,140 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.audio.broadcast.shoutcast.v1;
+
+import io.github.dsheirer.alias.AliasModel;
+import io.github.dsheirer.audio.broadcast.BroadcastState;
+import io.github.dsheirer.audio.broadcast.IBroadcastMetadataUpdater;
+import io.github.dsheirer.audio.broadcast.nio.NioAudioStreamingBroadcaster;
+import io.github.dsheirer.audio.convert.InputAudioFormat;
+import io.github.dsheirer.audio.convert.MP3Setting;
+import io.github.dsheirer.identifier.IdentifierCollection;
+import java.nio.ByteBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shoutcast v1 compatible broadcaster using the shared streaming selector.
+ *
+ * Note: use @see NioShoutcastV2AudioBroadcaster for Shoutcast version 2.x and newer.
+ */
+public class NioShoutcastV1AudioBroadcaster extends NioAudioStreamingBroadcaster<ShoutcastV1Configuration>
+{
+    private final static Logger mLog = LoggerFactory.getLogger(NioShoutcastV1AudioBroadcaster.class);
+    private IBroadcastMetadataUpdater mMetadataUpdater;
+    private AliasModel mAliasModel;
+
+    /**
+     * Constructs an instance
+     * @param configuration for the Shoutcast stream
+     */
+    public NioShoutcastV1AudioBroadcaster(ShoutcastV1Configuration configuration, InputAudioFormat inputAudioFormat,
+                                          MP3Setting mp3Setting, AliasModel aliasModel)
+    {
+        super(configuration, inputAudioFormat, mp3Setting);
+        mAliasModel = aliasModel;
+    }
+
+    /**
+     * Shoutcast V1 broadcast configuration
+     */
+    private ShoutcastV1Configuration getConfiguration()
+    {
+        return getBroadcastConfiguration();
+    }
+
+    @Override
+    protected IBroadcastMetadataUpdater getMetadataUpdater()
+    {
+        if(mMetadataUpdater == null)
+        {
+            mMetadataUpdater = new ShoutcastV1BroadcastMetadataUpdater(getConfiguration(), mAliasModel);
+        }
+
+        return mMetadataUpdater;
+    }
+
+    /**
+     * Broadcasts the audio frame or sequence
+     */
+    @Override
+    protected void broadcastAudio(byte[] audio, IdentifierCollection identifierCollection)
+    {
+        if(audio != null && audio.length > 0 && connected())
+        {
+            send(audio);
+        }
+    }
+
+    /**
+     * Sends stream configuration and user credentials upon connecting to remote server
+     */
+    @Override
+    protected void sessionOpened()
+    {
+        StringBuilder sb = new StringBuilder();
+
+        //Password
+        sb.append(getConfiguration().getPassword()).append(ShoutcastMetadata.COMMAND_TERMINATOR);
+
+        //Metadata
+        sb.append(ShoutcastMetadata.STREAM_NAME.encode(getConfiguration().getName()));
+        sb.append(ShoutcastMetadata.PUBLIC.encode(getConfiguration().isPublic()));
+        sb.append(ShoutcastMetadata.GENRE.encode(getConfiguration().getGenre()));
+        sb.append(ShoutcastMetadata.DESCRIPTION.encode(getConfiguration().getDescription()));
+        sb.append(ShoutcastMetadata.AUDIO_BIT_RATE.encode(getConfiguration().getBitRate()));
+
+        //End of connection string
+        sb.append(ShoutcastMetadata.COMMAND_TERMINATOR);
+        sb.append(ShoutcastMetadata.COMMAND_TERMINATOR);
+
+        send(sb.toString());
+    }
+
+    @Override
+    protected void received(ByteBuffer buffer)
+    {
+        if(connected())
+        {
+            //Nothing further is expected from the server once streaming
+            buffer.position(buffer.limit());
+            return;
+        }
+
+        String message = readLine(buffer);
+
+        while(message != null && isOpen())
+        {
+            if(message.startsWith("OK"))
+            {
+                setBroadcastState(BroadcastState.CONNECTED);
+                buffer.position(buffer.limit());
+                return;
+            }
+            else if(!message.trim().isEmpty() && !message.startsWith("icy-caps:"))
+            {
+                mLog.error("[" + getStreamName() + "] unrecognized server response:" + message);
+                setBroadcastState(BroadcastState.ERROR);
+                return;
+            }
+
+            message = readLine(buffer);
+        }
+    }
+}
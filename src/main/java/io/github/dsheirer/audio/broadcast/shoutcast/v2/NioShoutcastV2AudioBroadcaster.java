@@ -0,0 +1,315 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.audio.broadcast.shoutcast.v2;
+
+import io.github.dsheirer.alias.AliasModel;
+import io.github.dsheirer.audio.broadcast.BroadcastState;
+import io.github.dsheirer.audio.broadcast.IBroadcastMetadataUpdater;
+import io.github.dsheirer.audio.broadcast.nio.NioAudioStreamingBroadcaster;
+import io.github.dsheirer.audio.broadcast.shoutcast.v2.ultravox.AuthenticateBroadcast;
+import io.github.dsheirer.audio.broadcast.shoutcast.v2.ultravox.ConfigureIcyName;
+import io.github.dsheirer.audio.broadcast.shoutcast.v2.ultravox.ConfigureIcyPublic;
+import io.github.dsheirer.audio.broadcast.shoutcast.v2.ultravox.MP3Audio;
+import io.github.dsheirer.audio.broadcast.shoutcast.v2.ultravox.NegotiateMaxPayloadSize;
+import io.github.dsheirer.audio.broadcast.shoutcast.v2.ultravox.RequestCipher;
+import io.github.dsheirer.audio.broadcast.shoutcast.v2.ultravox.SetupBroadcast;
+import io.github.dsheirer.audio.broadcast.shoutcast.v2.ultravox.Standby;
+import io.github.dsheirer.audio.broadcast.shoutcast.v2.ultravox.StreamMimeType;
+import io.github.dsheirer.audio.broadcast.shoutcast.v2.ultravox.UltravoxMessage;
+import io.github.dsheirer.audio.broadcast.shoutcast.v2.ultravox.UltravoxMessageFactory;
+import io.github.dsheirer.audio.broadcast.shoutcast.v2.ultravox.UltravoxMessageType;
+import io.github.dsheirer.audio.convert.InputAudioFormat;
+import io.github.dsheirer.audio.convert.MP3Setting;
+import io.github.dsheirer.identifier.IdentifierCollection;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shoutcast 2.x (Ultravox 2.1) broadcaster using the shared streaming selector.
+ *
+ * Note: use @see NioShoutcastV1AudioBroadcaster for Shoutcast version 1.x and older.
+ */
+public class NioShoutcastV2AudioBroadcaster extends NioAudioStreamingBroadcaster<ShoutcastV2Configuration>
+    implements IBroadcastMetadataUpdater
+{
+    private final static Logger mLog = LoggerFactory.getLogger(NioShoutcastV2AudioBroadcaster.class);
+    private static final int DEFAULT_MAX_PAYLOAD_SIZE = 16377;
+    private static final int FRAME_OVERHEAD = 7;
+    private static final int FRAME_SYNC = 0x5A;
+    private int mMaxPayloadSize = DEFAULT_MAX_PAYLOAD_SIZE;
+    private AliasModel mAliasModel;
+    private Queue<UltravoxMessage> mMetadataMessageQueue = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Constructs an instance
+     * @param configuration for the Shoutcast V2 stream
+     */
+    public NioShoutcastV2AudioBroadcaster(ShoutcastV2Configuration configuration, InputAudioFormat inputAudioFormat,
+                                          MP3Setting mp3Setting, AliasModel aliasModel)
+    {
+        super(configuration, inputAudioFormat, mp3Setting);
+        mAliasModel = aliasModel;
+    }
+
+    public ShoutcastV2Configuration getConfiguration()
+    {
+        return getBroadcastConfiguration();
+    }
+
+    @Override
+    protected IBroadcastMetadataUpdater getMetadataUpdater()
+    {
+        return this;
+    }
+
+    @Override
+    public void update(IdentifierCollection identifierCollection)
+    {
+        List<UltravoxMessage> metadataMessages = ShoutcastV2Metadata.getMetadataMessages(getConfiguration(), mAliasModel,
+            identifierCollection, mMaxPayloadSize);
+
+        if(!metadataMessages.isEmpty())
+        {
+            mMetadataMessageQueue.addAll(metadataMessages);
+        }
+    }
+
+    /**
+     * Broadcasts any queued metadata followed by the audio frame or sequence, framed in MP3 audio messages of no more
+     * than the negotiated maximum payload size.
+     */
+    @Override
+    protected void broadcastAudio(byte[] audio, IdentifierCollection identifierCollection)
+    {
+        if(!connected())
+        {
+            return;
+        }
+
+        UltravoxMessage metadataMessage = mMetadataMessageQueue.peek();
+
+        while(metadataMessage != null && send(metadataMessage.getMessage()))
+        {
+            mMetadataMessageQueue.poll();
+            metadataMessage = mMetadataMessageQueue.peek();
+        }
+
+        if(audio != null && audio.length > 0)
+        {
+            ByteArrayOutputStream stream = new ByteArrayOutputStream(audio.length + FRAME_OVERHEAD);
+            int offset = 0;
+
+            while(offset < audio.length)
+            {
+                int length = Math.min(mMaxPayloadSize, audio.length - offset);
+                MP3Audio mp3Audio = new MP3Audio();
+                mp3Audio.setPayload(Arrays.copyOfRange(audio, offset, offset + length));
+                stream.writeBytes(mp3Audio.getMessage());
+                offset += length;
+            }
+
+            send(stream.toByteArray());
+        }
+    }
+
+    @Override
+    protected void sessionOpened()
+    {
+        mMaxPayloadSize = DEFAULT_MAX_PAYLOAD_SIZE;
+        mMetadataMessageQueue.clear();
+        send(UltravoxMessageFactory.getMessage(UltravoxMessageType.REQUEST_CIPHER).getMessage());
+    }
+
+    /**
+     * Parses complete Ultravox frames from the server response bytes.
+     */
+    @Override
+    protected void received(ByteBuffer buffer)
+    {
+        while(isOpen() && buffer.remaining() >= FRAME_OVERHEAD)
+        {
+            int start = buffer.position();
+
+            if((buffer.get(start) & 0xFF) != FRAME_SYNC)
+            {
+                //Resynchronize on the next frame sync byte
+                buffer.get();
+                continue;
+            }
+
+            int payloadLength = ((buffer.get(start + 4) & 0xFF) << 8) | (buffer.get(start + 5) & 0xFF);
+            int frameLength = payloadLength + FRAME_OVERHEAD;
+
+            if(buffer.remaining() < frameLength)
+            {
+                return;
+            }
+
+            byte[] frame = new byte[frameLength];
+            buffer.get(frame);
+
+            UltravoxMessage message = UltravoxMessageFactory.getMessage(frame);
+
+            if(message != null)
+            {
+                process(message);
+            }
+            else
+            {
+                mLog.debug("[" + getStreamName() + "] unrecognized message received from shoutcast v2 server");
+                setBroadcastState(BroadcastState.ERROR);
+            }
+        }
+    }
+
+    /**
+     * Processes the server response to each step of the stream configuration handshake.
+     */
+    private void process(UltravoxMessage ultravoxMessage)
+    {
+        switch(ultravoxMessage.getMessageType())
+        {
+            case REQUEST_CIPHER:
+                String cipherKey = ((RequestCipher) ultravoxMessage).getCipher();
+                AuthenticateBroadcast authenticateBroadcast = new AuthenticateBroadcast();
+                authenticateBroadcast.setCredentials(cipherKey, getConfiguration().getStreamID(),
+                    getConfiguration().getUserID(), getConfiguration().getPassword());
+                send(authenticateBroadcast.getMessage());
+                break;
+            case AUTHENTICATE_BROADCAST:
+                if(ultravoxMessage.isErrorResponse())
+                {
+                    String errorMessage = ultravoxMessage.getErrorMessage();
+
+                    if(errorMessage.startsWith(AuthenticateBroadcast.STREAM_ID_ERROR))
+                    {
+                        setBroadcastState(BroadcastState.INVALID_MOUNT_POINT);
+                    }
+                    else
+                    {
+                        mLog.error("Invalid Credentials - response: " + ultravoxMessage.getPayload());
+                        setBroadcastState(BroadcastState.INVALID_CREDENTIALS);
+                    }
+                }
+                else
+                {
+                    StreamMimeType streamMimeType = new StreamMimeType();
+                    streamMimeType.setFormat(getConfiguration().getBroadcastFormat());
+                    send(streamMimeType.getMessage());
+                }
+                break;
+            case STREAM_MIME_TYPE:
+                if(ultravoxMessage.isErrorResponse())
+                {
+                    mLog.error("Unsupported Audio Format:" + getConfiguration().getBroadcastFormat().toString() +
+                        " - " + ultravoxMessage.getErrorMessage());
+                    setBroadcastState(BroadcastState.UNSUPPORTED_AUDIO_FORMAT);
+                }
+                else
+                {
+                    SetupBroadcast setupBroadcast = new SetupBroadcast();
+                    //Use the same value for average and minimum bit rates
+                    setupBroadcast.setBitRate(getConfiguration().getBitRate(), getConfiguration().getBitRate());
+                    send(setupBroadcast.getMessage());
+                }
+                break;
+            case SETUP_BROADCAST:
+                if(ultravoxMessage.isErrorResponse())
+                {
+                    mLog.error("Unsupported Audio Bit Rate:" + getConfiguration().getBitRate() +
+                        " - " + ultravoxMessage.getErrorMessage());
+                    setBroadcastState(BroadcastState.UNSUPPORTED_AUDIO_FORMAT);
+                }
+                else
+                {
+                    NegotiateMaxPayloadSize negotiateMaxPayloadSize = new NegotiateMaxPayloadSize();
+                    negotiateMaxPayloadSize.setMaximumPayloadSize(DEFAULT_MAX_PAYLOAD_SIZE, 4192);
+                    send(negotiateMaxPayloadSize.getMessage());
+                }
+                break;
+            case NEGOTIATE_MAX_PAYLOAD_SIZE:
+                if(ultravoxMessage.isErrorResponse())
+                {
+                    mLog.error("Unsupported maximum payload size (18 min - 36 kbps max) - " +
+                        ultravoxMessage.getErrorMessage());
+                    setBroadcastState(BroadcastState.UNSUPPORTED_AUDIO_FORMAT);
+                }
+                else
+                {
+                    int maxPayloadSize = ((NegotiateMaxPayloadSize) ultravoxMessage).getMaximumPayloadSize();
+
+                    if(maxPayloadSize > 0)
+                    {
+                        mMaxPayloadSize = maxPayloadSize;
+                    }
+
+                    ConfigureIcyPublic configureIcyPublic = new ConfigureIcyPublic();
+                    configureIcyPublic.setPublic(getConfiguration().isPublic());
+                    send(configureIcyPublic.getMessage());
+                }
+                break;
+            case CONFIGURE_ICY_PUBLIC:
+                if(ultravoxMessage.isErrorResponse())
+                {
+                    mLog.error("Error setting shoutcast stream as public - " + ultravoxMessage.getErrorMessage());
+                    setBroadcastState(BroadcastState.ERROR);
+                }
+                else
+                {
+                    ConfigureIcyName configureIcyName = new ConfigureIcyName();
+                    configureIcyName.setName(getConfiguration().getName());
+                    send(configureIcyName.getMessage());
+                }
+                break;
+            case CONFIGURE_ICY_NAME:
+                if(ultravoxMessage.isErrorResponse())
+                {
+                    mLog.error("Error setting shoutcast stream name - " + ultravoxMessage.getErrorMessage());
+                    setBroadcastState(BroadcastState.CONFIGURATION_ERROR);
+                }
+                else
+                {
+                    send(new Standby().getMessage());
+                }
+                break;
+            case STANDBY:
+                if(ultravoxMessage.isErrorResponse())
+                {
+                    mLog.error("Error following stream configuration and standby - " +
+                        ultravoxMessage.getErrorMessage());
+                    setBroadcastState(BroadcastState.ERROR);
+                }
+                else
+                {
+                    setBroadcastState(BroadcastState.CONNECTED);
+                }
+                break;
+            default:
+                mLog.error("Unrecognized ultravox message:" + ultravoxMessage.getMessageType() +
+                    " payload:" + ultravoxMessage.getPayload());
+                setBroadcastState(BroadcastState.ERROR);
+        }
+    }
+}
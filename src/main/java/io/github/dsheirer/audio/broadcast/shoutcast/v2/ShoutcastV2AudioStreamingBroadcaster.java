@@ -18,15 +18,11 @@
  */
 package io.github.dsheirer.audio.broadcast.shoutcast.v2;
 
-import com.google.common.base.Joiner;
-import io.github.dsheirer.alias.Alias;
-import io.github.dsheirer.alias.AliasList;
 import io.github.dsheirer.alias.AliasModel;
 import io.github.dsheirer.audio.broadcast.AudioStreamingBroadcaster;
 import io.github.dsheirer.audio.broadcast.BroadcastState;
 import io.github.dsheirer.audio.broadcast.IBroadcastMetadataUpdater;
 import io.github.dsheirer.audio.broadcast.shoutcast.v2.ultravox.AuthenticateBroadcast;
-import io.github.dsheirer.audio.broadcast.shoutcast.v2.ultravox.CacheableXMLMetadata;
 import io.github.dsheirer.audio.broadcast.shoutcast.v2.ultravox.ConfigureIcyName;
 import io.github.dsheirer.audio.broadcast.shoutcast.v2.ultravox.ConfigureIcyPublic;
 import io.github.dsheirer.audio.broadcast.shoutcast.v2.ultravox.MP3Audio;
@@ -38,18 +34,11 @@ import io.github.dsheirer.audio.broadcast.shoutcast.v2.ultravox.StreamMimeType;
 import io.github.dsheirer.audio.broadcast.shoutcast.v2.ultravox.UltravoxMessage;
 import io.github.dsheirer.audio.broadcast.shoutcast.v2.ultravox.UltravoxMessageFactory;
 import io.github.dsheirer.audio.broadcast.shoutcast.v2.ultravox.UltravoxMessageType;
-import io.github.dsheirer.audio.broadcast.shoutcast.v2.ultravox.UltravoxMetadata;
 import io.github.dsheirer.audio.broadcast.shoutcast.v2.ultravox.UltravoxProtocolFactory;
 import io.github.dsheirer.audio.convert.InputAudioFormat;
 import io.github.dsheirer.audio.convert.MP3Setting;
-import io.github.dsheirer.identifier.Form;
-import io.github.dsheirer.identifier.Identifier;
-import io.github.dsheirer.identifier.IdentifierClass;
 import io.github.dsheirer.identifier.IdentifierCollection;
-import io.github.dsheirer.identifier.Role;
-import io.github.dsheirer.properties.SystemProperties;
 import io.github.dsheirer.util.ThreadPool;
-import org.apache.commons.math3.util.FastMath;
 import org.apache.mina.core.RuntimeIoException;
 import org.apache.mina.core.future.ConnectFuture;
 import org.apache.mina.core.service.IoHandlerAdapter;
@@ -60,10 +49,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
 import java.net.ConnectException;
 import java.net.InetSocketAddress;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.LinkedTransferQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -133,7 +120,8 @@ public class ShoutcastV2AudioStreamingBroadcaster extends AudioStreamingBroadcas
     @Override
     public void update(IdentifierCollection identifierCollection)
     {
-        List<UltravoxMessage> metadataMessages = getMetadataMessages(identifierCollection);
+        List<UltravoxMessage> metadataMessages = ShoutcastV2Metadata.getMetadataMessages(getConfiguration(), mAliasModel,
+            identifierCollection, mMaxPayloadSize);
 
         if(!metadataMessages.isEmpty())
         {
@@ -246,156 +234,6 @@ public class ShoutcastV2AudioStreamingBroadcaster extends AudioStreamingBroadcas
         }
     }
 
-    /**
-     * Encodes the list of metadata in one or more Ultravox CacheableXMLMetadata messages according to the maximum negotiated
-     * payload size for the current connection.  Each entry in the list of metadata strings should be an xml encoded
-     * value:  <tag>value</tag>
-     *
-     * See UltravoxMetadata.TAG.asXML(String value)
-     *
-     * @param identifierCollection containing audio metadata tags and attributes
-     * @return a sequence of CacheableXMLMetadata messages sufficient to carry the complete set of metadata
-     */
-    private List<UltravoxMessage> getMetadataMessages(IdentifierCollection identifierCollection)
-    {
-        StringBuilder sb = new StringBuilder();
-
-        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\" ?><metadata>");
-
-        try
-        {
-            sb.append(UltravoxMetadata.ALBUM_TITLE.asXML(getConfiguration().getName()));
-
-            sb.append(UltravoxMetadata.BROADCAST_CLIENT_APPLICATION.asXML(SystemProperties.getInstance().getApplicationName()));
-
-            if(getConfiguration().hasGenre())
-            {
-                sb.append(UltravoxMetadata.GENRE.asXML(getConfiguration().getGenre()));
-            }
-
-            if(getConfiguration().hasURL())
-            {
-                sb.append(UltravoxMetadata.URL.asXML(getConfiguration().getURL()));
-            }
-
-            if(identifierCollection != null)
-            {
-                StringBuilder sbTitle2 = new StringBuilder();
-
-                AliasList aliasList = mAliasModel.getAliasList(identifierCollection);
-
-                Identifier to = identifierCollection.getIdentifier(IdentifierClass.USER, Form.PATCH_GROUP, Role.TO);
-
-                if(to == null)
-                {
-                    to = identifierCollection.getIdentifier(IdentifierClass.USER, Form.TALKGROUP, Role.TO);
-                }
-
-                if(to == null)
-                {
-                    List<Identifier> toIdentifiers = identifierCollection.getIdentifiers(Role.TO);
-
-                    if(!toIdentifiers.isEmpty())
-                    {
-                        to = toIdentifiers.get(0);
-                    }
-                }
-
-                if(to != null)
-                {
-                    sbTitle2.append("TO:").append(to);
-
-                    List<Alias> aliases = aliasList.getAliases(to);
-
-                    if(!aliases.isEmpty())
-                    {
-                        sbTitle2.append(" ").append(Joiner.on(", ").skipNulls().join(aliases));
-                    }
-                }
-                else
-                {
-                    sbTitle2.append("TO:UNKNOWN");
-                }
-
-                Identifier from = identifierCollection.getIdentifier(IdentifierClass.USER, Form.RADIO, Role.FROM);
-
-                if(from == null)
-                {
-                    List<Identifier> fromIdentifiers = identifierCollection.getIdentifiers(Role.FROM);
-
-                    if(!fromIdentifiers.isEmpty())
-                    {
-                        from = fromIdentifiers.get(0);
-                    }
-                }
-
-                if(from != null)
-                {
-                    sbTitle2.append(" FROM:").append(from);
-
-                    List<Alias> aliases = aliasList.getAliases(from);
-
-                    if(!aliases.isEmpty())
-                    {
-                        sbTitle2.append(" ").append(Joiner.on(", ").skipNulls().join(aliases));
-                    }
-                }
-                else
-                {
-                    sbTitle2.append(" FROM:UNKNOWN");
-                }
-
-                sb.append(UltravoxMetadata.TITLE_2.asXML(sbTitle2.toString()));
-            }
-            else
-            {
-                sb.append(UltravoxMetadata.TITLE_2.asXML("Scanning ..."));
-            }
-        }
-        catch(UnsupportedEncodingException uee)
-        {
-            mLog.error("UTF-8 Encoding is not supported - shoutcast/ultravox metadata will not be updated");
-        }
-
-        sb.append("</metadata>");
-
-        byte[] xml = sb.toString().getBytes();
-
-        int pointer = 0;
-        int messageCounter = 1;
-        int messageCount = (int) FastMath.ceil((double) xml.length / (double) (mMaxPayloadSize - 6));
-
-        if(messageCount > 32)
-        {
-            messageCount = 32; //Max number of metadata messages in a sequence
-        }
-
-
-        List<UltravoxMessage> messages = new ArrayList<>();
-
-        while(pointer < xml.length && messageCounter <= messageCount)
-        {
-            int payloadSize = FastMath.min(mMaxPayloadSize - 6, xml.length - pointer);
-
-            byte[] payload = new byte[payloadSize + 6];
-
-            payload[1] = (byte) (0x01);
-            payload[3] = (byte) (messageCount & 0xFF);
-            payload[5] = (byte) (messageCounter & 0xFF);
-
-            System.arraycopy(xml, pointer, payload, 6, payloadSize);
-
-            CacheableXMLMetadata message = new CacheableXMLMetadata();
-            message.setPayload(payload);
-            messages.add(message);
-
-            pointer += payloadSize;
-        }
-
-        return messages;
-    }
-
-
     /**
      * IO Handler for managing Shoutcast V2 connection and credentials
      */
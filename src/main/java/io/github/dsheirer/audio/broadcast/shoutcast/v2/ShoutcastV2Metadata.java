@@ -0,0 +1,201 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.audio.broadcast.shoutcast.v2;
+
+import com.google.common.base.Joiner;
+import io.github.dsheirer.alias.Alias;
+import io.github.dsheirer.alias.AliasList;
+import io.github.dsheirer.alias.AliasModel;
+import io.github.dsheirer.audio.broadcast.shoutcast.v2.ultravox.CacheableXMLMetadata;
+import io.github.dsheirer.audio.broadcast.shoutcast.v2.ultravox.UltravoxMessage;
+import io.github.dsheirer.audio.broadcast.shoutcast.v2.ultravox.UltravoxMetadata;
+import io.github.dsheirer.identifier.Form;
+import io.github.dsheirer.identifier.Identifier;
+import io.github.dsheirer.identifier.IdentifierClass;
+import io.github.dsheirer.identifier.IdentifierCollection;
+import io.github.dsheirer.identifier.Role;
+import io.github.dsheirer.properties.SystemProperties;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.math3.util.FastMath;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shoutcast 2.x (Ultravox 2.1) metadata message encoding shared by the Shoutcast V2 broadcasters.
+ */
+public class ShoutcastV2Metadata
+{
+    private final static Logger mLog = LoggerFactory.getLogger(ShoutcastV2Metadata.class);
+
+    /**
+     * Encodes the list of metadata in one or more Ultravox CacheableXMLMetadata messages according to the maximum negotiated
+     * payload size for the current connection.  Each entry in the list of metadata strings should be an xml encoded
+     * value:  <tag>value</tag>
+     *
+     * See UltravoxMetadata.TAG.asXML(String value)
+     *
+     * @param configuration for the stream
+     * @param aliasModel for aliasing the identifiers
+     * @param identifierCollection containing audio metadata tags and attributes
+     * @param maxPayloadSize negotiated for the current connection
+     * @return a sequence of CacheableXMLMetadata messages sufficient to carry the complete set of metadata
+     */
+    public static List<UltravoxMessage> getMetadataMessages(ShoutcastV2Configuration configuration, AliasModel aliasModel,
+                                                           IdentifierCollection identifierCollection,
+                                                           int maxPayloadSize)
+    {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\" ?><metadata>");
+
+        try
+        {
+            sb.append(UltravoxMetadata.ALBUM_TITLE.asXML(configuration.getName()));
+
+            sb.append(UltravoxMetadata.BROADCAST_CLIENT_APPLICATION.asXML(SystemProperties.getInstance().getApplicationName()));
+
+            if(configuration.hasGenre())
+            {
+                sb.append(UltravoxMetadata.GENRE.asXML(configuration.getGenre()));
+            }
+
+            if(configuration.hasURL())
+            {
+                sb.append(UltravoxMetadata.URL.asXML(configuration.getURL()));
+            }
+
+            if(identifierCollection != null)
+            {
+                StringBuilder sbTitle2 = new StringBuilder();
+
+                AliasList aliasList = aliasModel.getAliasList(identifierCollection);
+
+                Identifier to = identifierCollection.getIdentifier(IdentifierClass.USER, Form.PATCH_GROUP, Role.TO);
+
+                if(to == null)
+                {
+                    to = identifierCollection.getIdentifier(IdentifierClass.USER, Form.TALKGROUP, Role.TO);
+                }
+
+                if(to == null)
+                {
+                    List<Identifier> toIdentifiers = identifierCollection.getIdentifiers(Role.TO);
+
+                    if(!toIdentifiers.isEmpty())
+                    {
+                        to = toIdentifiers.get(0);
+                    }
+                }
+
+                if(to != null)
+                {
+                    sbTitle2.append("TO:").append(to);
+
+                    List<Alias> aliases = aliasList.getAliases(to);
+
+                    if(!aliases.isEmpty())
+                    {
+                        sbTitle2.append(" ").append(Joiner.on(", ").skipNulls().join(aliases));
+                    }
+                }
+                else
+                {
+                    sbTitle2.append("TO:UNKNOWN");
+                }
+
+                Identifier from = identifierCollection.getIdentifier(IdentifierClass.USER, Form.RADIO, Role.FROM);
+
+                if(from == null)
+                {
+                    List<Identifier> fromIdentifiers = identifierCollection.getIdentifiers(Role.FROM);
+
+                    if(!fromIdentifiers.isEmpty())
+                    {
+                        from = fromIdentifiers.get(0);
+                    }
+                }
+
+                if(from != null)
+                {
+                    sbTitle2.append(" FROM:").append(from);
+
+                    List<Alias> aliases = aliasList.getAliases(from);
+
+                    if(!aliases.isEmpty())
+                    {
+                        sbTitle2.append(" ").append(Joiner.on(", ").skipNulls().join(aliases));
+                    }
+                }
+                else
+                {
+                    sbTitle2.append(" FROM:UNKNOWN");
+                }
+
+                sb.append(UltravoxMetadata.TITLE_2.asXML(sbTitle2.toString()));
+            }
+            else
+            {
+                sb.append(UltravoxMetadata.TITLE_2.asXML("Scanning ..."));
+            }
+        }
+        catch(UnsupportedEncodingException uee)
+        {
+            mLog.error("UTF-8 Encoding is not supported - shoutcast/ultravox metadata will not be updated");
+        }
+
+        sb.append("</metadata>");
+
+        byte[] xml = sb.toString().getBytes();
+
+        int pointer = 0;
+        int messageCounter = 1;
+        int messageCount = (int) FastMath.ceil((double) xml.length / (double) (maxPayloadSize - 6));
+
+        if(messageCount > 32)
+        {
+            messageCount = 32; //Max number of metadata messages in a sequence
+        }
+
+
+        List<UltravoxMessage> messages = new ArrayList<>();
+
+        while(pointer < xml.length && messageCounter <= messageCount)
+        {
+            int payloadSize = FastMath.min(maxPayloadSize - 6, xml.length - pointer);
+
+            byte[] payload = new byte[payloadSize + 6];
+
+            payload[1] = (byte) (0x01);
+            payload[3] = (byte) (messageCount & 0xFF);
+            payload[5] = (byte) (messageCounter & 0xFF);
+
+            System.arraycopy(xml, pointer, payload, 6, payloadSize);
+
+            CacheableXMLMetadata message = new CacheableXMLMetadata();
+            message.setPayload(payload);
+            messages.add(message);
+
+            pointer += payloadSize;
+        }
+
+        return messages;
+    }
+}
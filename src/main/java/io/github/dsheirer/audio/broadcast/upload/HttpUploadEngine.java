@@ -0,0 +1,487 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.audio.broadcast.upload;
+
+import io.github.dsheirer.audio.broadcast.BroadcastConfiguration;
+import io.github.dsheirer.util.ThreadPool;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Upload engine for completed call HTTP APIs (e.g. Broadcastify Calls, Rdio Scanner).
+ *
+ * Upload requests are dispatched as soon as they are submitted, with at most a configured number of requests in
+ * flight to the endpoint.  Each completed request dispatches the next queued request, so there is no queue polling.
+ *
+ * When an upload fails with a transient error, the engine backs off with an exponentially increasing delay.  While
+ * backing off, failed, queued and newly submitted requests are moved to a persistent on-disk spool, which releases
+ * the temporary audio recordings and survives an application restart.  When the backoff delay expires, the engine
+ * probes the endpoint with a single request and returns to full concurrency once a request succeeds, so that a
+ * recovered server is not hit with a burst of the backlog.  Requests that exceed the maximum age are aged off.
+ */
+public class HttpUploadEngine
+{
+    private final static Logger mLog = LoggerFactory.getLogger(HttpUploadEngine.class);
+
+    public static final int DEFAULT_MAXIMUM_IN_FLIGHT = 4;
+    public static final String SPOOL_DIRECTORY = "upload_spool";
+    private static final long MINIMUM_BACKOFF_MS = 1000;
+    private static final long MAXIMUM_BACKOFF_MS = TimeUnit.MINUTES.toMillis(5);
+    private static final int MAXIMUM_ATTEMPTS = 10;
+
+    private String mName;
+    private IUploadProtocol mProtocol;
+    private IUploadListener mListener;
+    private UploadSpool mSpool;
+    private int mMaximumInFlight;
+    private long mMaximumAge;
+    private Deque<UploadRequest> mQueue = new ArrayDeque<>();
+    private int mInFlight;
+    private int mConsecutiveFailures;
+    private long mBackoffUntil;
+    private ScheduledFuture<?> mBackoffFuture;
+    private boolean mRunning;
+
+    /**
+     * Constructs an instance
+     * @param name of the endpoint for logging
+     * @param protocol to upload each request
+     * @param listener to receive upload outcomes
+     * @param spool for persisting requests that are waiting to be retried, or null to retain them in memory
+     * @param maximumInFlight number of concurrent requests to the endpoint
+     * @param maximumAge of a request in milliseconds before it is aged off
+     */
+    public HttpUploadEngine(String name, IUploadProtocol protocol, IUploadListener listener, UploadSpool spool,
+                            int maximumInFlight, long maximumAge)
+    {
+        mName = name;
+        mProtocol = protocol;
+        mListener = listener;
+        mSpool = spool;
+        mMaximumInFlight = Math.max(1, maximumInFlight);
+        mMaximumAge = maximumAge;
+    }
+
+    /**
+     * Creates the spool directory path for a broadcast configuration under the streaming directory.
+     * @param streamingDirectory for temporary streaming files
+     * @param configuration of the broadcaster
+     * @return spool directory path
+     */
+    public static Path getSpoolDirectory(Path streamingDirectory, BroadcastConfiguration configuration)
+    {
+        String name = configuration.getName() != null ? configuration.getName() : "";
+
+        return streamingDirectory.resolve(SPOOL_DIRECTORY).resolve(configuration.getBroadcastServerType().name()
+            .toLowerCase() + "_" + name.replaceAll("[^A-Za-z0-9._-]", "_"));
+    }
+
+    /**
+     * Starts the engine, restores any spooled requests and dispatches pending requests
+     */
+    public void start()
+    {
+        if(mSpool != null)
+        {
+            mSpool.load();
+        }
+
+        synchronized(this)
+        {
+            mRunning = true;
+            mConsecutiveFailures = 0;
+            mBackoffUntil = 0;
+        }
+
+        mListener.uploadQueueChanged();
+        dispatch();
+    }
+
+    /**
+     * Stops the engine and releases queued requests.  Spooled requests remain on disk and in-flight requests are
+     * allowed to complete.
+     */
+    public void stop()
+    {
+        List<UploadRequest> released;
+
+        synchronized(this)
+        {
+            mRunning = false;
+
+            if(mBackoffFuture != null)
+            {
+                mBackoffFuture.cancel(false);
+                mBackoffFuture = null;
+            }
+
+            released = new ArrayList<>(mQueue);
+            mQueue.clear();
+        }
+
+        for(UploadRequest request: released)
+        {
+            request.release();
+        }
+
+        mListener.uploadQueueChanged();
+    }
+
+    /**
+     * Number of requests waiting to be uploaded, including spooled requests
+     */
+    public synchronized int getQueueSize()
+    {
+        return mQueue.size() + (mSpool != null ? mSpool.size() : 0);
+    }
+
+    /**
+     * Submits a request for upload.  The request is dispatched immediately when the endpoint has capacity, otherwise
+     * it is queued, or spooled to disk while the engine is backing off from a failing endpoint.
+     * @param request to upload
+     */
+    public void submit(UploadRequest request)
+    {
+        boolean spool;
+
+        synchronized(this)
+        {
+            spool = mConsecutiveFailures > 0 && mSpool != null;
+
+            if(!spool)
+            {
+                mQueue.addLast(request);
+            }
+        }
+
+        //The audio copy is performed outside of the engine lock so that a slow disk doesn't stall other producers
+        if(spool && !mSpool.store(request))
+        {
+            requeue(List.of(request), false);
+        }
+        else if(spool)
+        {
+            request.release();
+        }
+
+        mListener.uploadQueueChanged();
+        dispatch();
+    }
+
+    /**
+     * Starts uploads for queued and spooled requests while the endpoint has capacity.  Only a single probe request is
+     * allowed in flight while the engine is recovering from a failure.  Capacity for spooled requests is reserved
+     * under the lock and the spool entries are read outside of it.
+     */
+    private void dispatch()
+    {
+        List<UploadRequest> started = new ArrayList<>();
+        List<UploadRequest> agedOff = new ArrayList<>();
+        int reserved = 0;
+        long now = System.currentTimeMillis();
+
+        synchronized(this)
+        {
+            int limit = mConsecutiveFailures > 0 ? 1 : mMaximumInFlight;
+            int spooled = mSpool != null ? mSpool.size() : 0;
+
+            while(mRunning && now >= mBackoffUntil && mInFlight < limit)
+            {
+                UploadRequest request = mQueue.pollFirst();
+
+                if(request == null)
+                {
+                    if(reserved < spooled)
+                    {
+                        reserved++;
+                        mInFlight++;
+                        continue;
+                    }
+
+                    break;
+                }
+
+                if(now - request.getTimestamp() > mMaximumAge)
+                {
+                    agedOff.add(request);
+                }
+                else
+                {
+                    mInFlight++;
+                    started.add(request);
+                }
+            }
+        }
+
+        int unused = 0;
+
+        for(int x = 0; x < reserved; x++)
+        {
+            UploadRequest request = mSpool.poll();
+
+            if(request == null)
+            {
+                unused++;
+            }
+            else if(now - request.getTimestamp() > mMaximumAge)
+            {
+                agedOff.add(request);
+                unused++;
+            }
+            else
+            {
+                started.add(request);
+            }
+        }
+
+        if(unused > 0)
+        {
+            synchronized(this)
+            {
+                mInFlight -= unused;
+            }
+        }
+
+        for(UploadRequest request: agedOff)
+        {
+            if(mSpool != null)
+            {
+                mSpool.delete(request);
+            }
+
+            request.release();
+            mListener.uploadComplete(request, UploadResult.AGED_OFF);
+        }
+
+        if(!started.isEmpty() || !agedOff.isEmpty())
+        {
+            mListener.uploadQueueChanged();
+        }
+
+        for(UploadRequest request: started)
+        {
+            upload(request);
+        }
+    }
+
+    /**
+     * Starts the protocol upload for the request and registers for completion
+     */
+    private void upload(UploadRequest request)
+    {
+        CompletableFuture<UploadResult> future;
+
+        try
+        {
+            future = mProtocol.upload(request);
+        }
+        catch(Exception e)
+        {
+            mLog.error("Error starting upload to [" + mName + "]", e);
+            future = CompletableFuture.completedFuture(UploadResult.FAILED);
+        }
+
+        future.whenComplete((result, throwable) -> complete(request,
+            (throwable != null || result == null) ? UploadResult.RETRY : result));
+    }
+
+    /**
+     * Processes the result of an upload attempt and dispatches the next request.  The decision to spool is made under
+     * the lock and the failed and queued requests are copied to the spool outside of it.
+     */
+    private void complete(UploadRequest request, UploadResult result)
+    {
+        UploadResult outcome = result;
+        List<UploadRequest> toSpool = new ArrayList<>();
+        boolean release = false;
+
+        synchronized(this)
+        {
+            mInFlight--;
+
+            if(result == UploadResult.RETRY)
+            {
+                request.incrementAttempts();
+
+                if(request.getAttempts() >= MAXIMUM_ATTEMPTS)
+                {
+                    mLog.warn("Upload to [" + mName + "] failed after [" + request.getAttempts() + "] attempts");
+                    outcome = UploadResult.FAILED;
+                }
+                else
+                {
+                    long now = System.currentTimeMillis();
+
+                    //Requests that were in flight when the endpoint failed don't extend the current backoff
+                    if(now >= mBackoffUntil)
+                    {
+                        mConsecutiveFailures++;
+                        long delay = getBackoffDelay(mConsecutiveFailures);
+                        mBackoffUntil = now + delay;
+
+                        if(mBackoffFuture != null)
+                        {
+                            mBackoffFuture.cancel(false);
+                        }
+
+                        if(mRunning)
+                        {
+                            mBackoffFuture = ThreadPool.SCHEDULED.schedule(this::dispatch, delay,
+                                TimeUnit.MILLISECONDS);
+                        }
+
+                        mLog.info("Upload to [" + mName + "] failed - retrying in [" + delay + "] ms");
+
+                        //Move the queued requests to the spool behind the failed request
+                        if(mSpool != null)
+                        {
+                            toSpool.add(request);
+                            toSpool.addAll(mQueue);
+                            mQueue.clear();
+                        }
+                    }
+                    else if(mSpool != null)
+                    {
+                        toSpool.add(request);
+                    }
+
+                    if(mSpool == null)
+                    {
+                        if(mRunning)
+                        {
+                            mQueue.addFirst(request);
+                        }
+                        else
+                        {
+                            release = true;
+                        }
+                    }
+                }
+            }
+            else
+            {
+                //The server responded, so the endpoint is reachable
+                mConsecutiveFailures = 0;
+                mBackoffUntil = 0;
+            }
+        }
+
+        if(outcome != UploadResult.RETRY)
+        {
+            if(mSpool != null)
+            {
+                mSpool.delete(request);
+            }
+
+            request.release();
+        }
+        else if(release)
+        {
+            request.release();
+        }
+
+        spool(toSpool);
+
+        mListener.uploadComplete(request, outcome);
+        mListener.uploadQueueChanged();
+        dispatch();
+    }
+
+    /**
+     * Moves the requests to the spool while the endpoint is failing.  Requests that can't be spooled are returned to
+     * the head of the queue, in order.
+     */
+    private void spool(List<UploadRequest> requests)
+    {
+        List<UploadRequest> unspooled = new ArrayList<>();
+
+        for(UploadRequest request: requests)
+        {
+            if(mSpool.store(request))
+            {
+                request.release();
+            }
+            else
+            {
+                unspooled.add(request);
+            }
+        }
+
+        if(!unspooled.isEmpty())
+        {
+            requeue(unspooled, true);
+        }
+    }
+
+    /**
+     * Returns requests that could not be spooled to the queue.  Requests are released instead when the engine has
+     * been stopped, since a stopped engine no longer owns its queue.
+     * @param requests to return to the queue, in order
+     * @param head true to place the requests at the head of the queue, or false for the tail
+     */
+    private void requeue(List<UploadRequest> requests, boolean head)
+    {
+        boolean running;
+
+        synchronized(this)
+        {
+            running = mRunning;
+
+            if(running && head)
+            {
+                for(int x = requests.size() - 1; x >= 0; x--)
+                {
+                    mQueue.addFirst(requests.get(x));
+                }
+            }
+            else if(running)
+            {
+                mQueue.addAll(requests);
+            }
+        }
+
+        if(!running)
+        {
+            for(UploadRequest request: requests)
+            {
+                request.release();
+            }
+        }
+    }
+
+    /**
+     * Calculates the exponential backoff delay with up to 10% random jitter.
+     * @param failures count of consecutive failures
+     * @return delay in milliseconds
+     */
+    private static long getBackoffDelay(int failures)
+    {
+        long delay = Math.min(MINIMUM_BACKOFF_MS << Math.min(failures - 1, 20), MAXIMUM_BACKOFF_MS);
+        return delay + ThreadLocalRandom.current().nextLong(delay / 10 + 1);
+    }
+}
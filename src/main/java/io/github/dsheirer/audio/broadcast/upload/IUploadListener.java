@@ -0,0 +1,38 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.audio.broadcast.upload;
+
+/**
+ * Listener for upload engine request outcomes and queue changes
+ */
+public interface IUploadListener
+{
+    /**
+     * Notification of the outcome of an upload request attempt.  A RETRY result indicates that the request was
+     * retained for a later attempt.
+     * @param request that was attempted
+     * @param result of the attempt
+     */
+    void uploadComplete(UploadRequest request, UploadResult result);
+
+    /**
+     * Notification that the number of pending upload requests has changed
+     */
+    void uploadQueueChanged();
+}
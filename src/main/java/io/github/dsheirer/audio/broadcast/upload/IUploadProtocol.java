@@ -0,0 +1,35 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.audio.broadcast.upload;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Server-specific upload protocol used by the HTTP upload engine to transfer a single upload request.
+ */
+public interface IUploadProtocol
+{
+    /**
+     * Starts an asynchronous upload of the request.  Implementations should not block the calling thread and should
+     * complete the returned future with RETRY for connection errors and other transient failures.
+     * @param request to upload
+     * @return future that completes with the upload result
+     */
+    CompletableFuture<UploadResult> upload(UploadRequest request);
+}
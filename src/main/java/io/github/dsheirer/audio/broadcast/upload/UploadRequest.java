@@ -0,0 +1,178 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.audio.broadcast.upload;
+
+import io.github.dsheirer.audio.broadcast.AudioRecording;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Completed call upload request.  Contains the ordered form fields and the encoded audio file for the call.
+ *
+ * A request created from an audio recording holds a pending replay on the recording until the request is released.
+ * A request that is restored from the upload spool references the spooled copy of the audio file instead.
+ */
+public class UploadRequest
+{
+    private Map<String,String> mFields = new LinkedHashMap<>();
+    private AudioRecording mAudioRecording;
+    private Path mAudioPath;
+    private String mAudioName;
+    private long mTimestamp;
+    private int mAttempts;
+    private String mSpoolId;
+
+    /**
+     * Constructs an instance for the audio recording.
+     * @param audioRecording to upload
+     */
+    public UploadRequest(AudioRecording audioRecording)
+    {
+        mAudioRecording = audioRecording;
+        mAudioPath = audioRecording.getPath();
+        mTimestamp = audioRecording.getStartTime();
+    }
+
+    /**
+     * Constructs an instance restored from the upload spool.
+     * @param spoolId for the spool entry
+     * @param audioPath to the spooled copy of the audio file
+     * @param timestamp of the call
+     * @param attempts made so far
+     */
+    UploadRequest(String spoolId, Path audioPath, long timestamp, int attempts)
+    {
+        mSpoolId = spoolId;
+        mAudioPath = audioPath;
+        mTimestamp = timestamp;
+        mAttempts = attempts;
+    }
+
+    /**
+     * Adds a form field to the request.  Null keys or values are ignored.
+     * @param key for the form field
+     * @param value for the form field
+     * @return this request for method chaining
+     */
+    public UploadRequest addField(String key, Object value)
+    {
+        if(key != null && value != null)
+        {
+            mFields.put(key, value.toString());
+        }
+
+        return this;
+    }
+
+    /**
+     * Ordered form fields for the request
+     */
+    public Map<String,String> getFields()
+    {
+        return Collections.unmodifiableMap(mFields);
+    }
+
+    /**
+     * Path to the encoded audio file for the call
+     */
+    public Path getAudioPath()
+    {
+        return mAudioPath;
+    }
+
+    /**
+     * Optional file name to report to the server for the audio file
+     */
+    public String getAudioName()
+    {
+        return mAudioName;
+    }
+
+    /**
+     * Sets the file name to report to the server for the audio file
+     */
+    public UploadRequest setAudioName(String audioName)
+    {
+        mAudioName = audioName;
+        return this;
+    }
+
+    /**
+     * Call start timestamp in milliseconds since epoch
+     */
+    public long getTimestamp()
+    {
+        return mTimestamp;
+    }
+
+    /**
+     * Number of failed upload attempts
+     */
+    public int getAttempts()
+    {
+        return mAttempts;
+    }
+
+    /**
+     * Increments the failed attempts count
+     */
+    void incrementAttempts()
+    {
+        mAttempts++;
+    }
+
+    /**
+     * Identifier of the spool entry for this request, or null if the request has not been spooled
+     */
+    String getSpoolId()
+    {
+        return mSpoolId;
+    }
+
+    /**
+     * Indicates if this request is stored in the upload spool
+     */
+    boolean isSpooled()
+    {
+        return mSpoolId != null;
+    }
+
+    /**
+     * Marks this request as spooled and redirects the audio path to the spooled copy of the audio file
+     */
+    void setSpooled(String spoolId, Path audioPath)
+    {
+        mSpoolId = spoolId;
+        mAudioPath = audioPath;
+    }
+
+    /**
+     * Releases the pending replay on the audio recording, if any, so that the temporary recording can be removed.
+     */
+    void release()
+    {
+        if(mAudioRecording != null)
+        {
+            mAudioRecording.removePendingReplay();
+            mAudioRecording = null;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.audio.broadcast.upload;
+
+/**
+ * Outcome of an upload request attempt
+ */
+public enum UploadResult
+{
+    /**
+     * Server accepted the upload
+     */
+    SUCCESS,
+
+    /**
+     * Server rejected the upload as a duplicate of a call that was already uploaded
+     */
+    DUPLICATE,
+
+    /**
+     * Transient failure (connection error, timeout, server overload) that should be retried after a backoff delay
+     */
+    RETRY,
+
+    /**
+     * Permanent failure that should not be retried
+     */
+    FAILED,
+
+    /**
+     * Upload request exceeded the maximum age before it could be uploaded
+     */
+    AGED_OFF;
+
+    /**
+     * Indicates the outcome for an unsuccessful HTTP response status code.  Request timeouts, rate limiting and server
+     * errors are transient and are retried.  All other status codes are treated as permanent failures.
+     * @param statusCode from the HTTP response
+     * @return RETRY or FAILED
+     */
+    public static UploadResult fromStatusCode(int statusCode)
+    {
+        if(statusCode == 408 || statusCode == 429 || statusCode >= 500)
+        {
+            return RETRY;
+        }
+
+        return FAILED;
+    }
+}
@@ -0,0 +1,308 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.audio.broadcast.upload;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent on-disk spool of upload requests that are waiting to be retried.
+ *
+ * Each entry is a copy of the encoded audio file and a properties file that describes the request form fields, call
+ * timestamp and attempt count.  Entries are named by call timestamp so that the spool is restored oldest-first.  The
+ * spool is thread safe.  Only the entry index is guarded by the spool monitor and file copies are performed outside of
+ * it, so that a slow disk doesn't block the upload engine or other producers.
+ */
+public class UploadSpool
+{
+    private final static Logger mLog = LoggerFactory.getLogger(UploadSpool.class);
+
+    private static final String AUDIO_SUFFIX = ".audio";
+    private static final String PROPERTIES_SUFFIX = ".properties";
+    private static final String KEY_TIMESTAMP = "timestamp";
+    private static final String KEY_ATTEMPTS = "attempts";
+    private static final String KEY_AUDIO_NAME = "audio.name";
+    private static final String KEY_FIELD_COUNT = "field.count";
+    private static final String KEY_FIELD_PREFIX = "field.";
+
+    private Path mDirectory;
+    private Deque<String> mEntries = new ArrayDeque<>();
+    private int mSequence;
+
+    /**
+     * Constructs an instance
+     * @param directory for spool entries
+     */
+    public UploadSpool(Path directory)
+    {
+        mDirectory = directory;
+    }
+
+    /**
+     * Spool directory
+     */
+    public Path getDirectory()
+    {
+        return mDirectory;
+    }
+
+    /**
+     * Number of spooled requests
+     */
+    public synchronized int size()
+    {
+        return mEntries.size();
+    }
+
+    /**
+     * Discovers existing spool entries, ordered oldest first.  Orphaned audio files without a matching properties file
+     * are removed.
+     */
+    public void load()
+    {
+        try
+        {
+            Files.createDirectories(mDirectory);
+
+            List<String> ids = new ArrayList<>();
+
+            try(DirectoryStream<Path> stream = Files.newDirectoryStream(mDirectory))
+            {
+                for(Path path: stream)
+                {
+                    String fileName = path.getFileName().toString();
+
+                    if(fileName.endsWith(PROPERTIES_SUFFIX))
+                    {
+                        ids.add(fileName.substring(0, fileName.length() - PROPERTIES_SUFFIX.length()));
+                    }
+                    else if(fileName.endsWith(AUDIO_SUFFIX) && !Files.exists(mDirectory.resolve(
+                        fileName.substring(0, fileName.length() - AUDIO_SUFFIX.length()) + PROPERTIES_SUFFIX)))
+                    {
+                        Files.deleteIfExists(path);
+                    }
+                }
+            }
+
+            Collections.sort(ids);
+
+            synchronized(this)
+            {
+                mEntries.clear();
+                mEntries.addAll(ids);
+            }
+
+            if(!ids.isEmpty())
+            {
+                mLog.info("Restored [" + ids.size() + "] pending uploads from spool [" + mDirectory + "]");
+            }
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error loading upload spool [" + mDirectory + "]", ioe);
+        }
+    }
+
+    /**
+     * Stores the request in the spool.  A new request has its audio file copied into the spool, after which the
+     * request no longer depends on the original audio recording.  A previously spooled request has its attempt count
+     * updated.  The request is placed at the end of the spool.
+     * @param request to spool
+     * @return true if the request was stored
+     */
+    public boolean store(UploadRequest request)
+    {
+        try
+        {
+            Files.createDirectories(mDirectory);
+
+            String id = request.getSpoolId();
+
+            if(id == null)
+            {
+                do
+                {
+                    id = String.format("%013d_%06d", request.getTimestamp(), nextSequence());
+                }
+                while(Files.exists(mDirectory.resolve(id + PROPERTIES_SUFFIX)));
+
+                Path audioPath = mDirectory.resolve(id + AUDIO_SUFFIX);
+                Files.copy(request.getAudioPath(), audioPath, StandardCopyOption.REPLACE_EXISTING);
+                request.setSpooled(id, audioPath);
+            }
+
+            Properties properties = new Properties();
+            properties.setProperty(KEY_TIMESTAMP, String.valueOf(request.getTimestamp()));
+            properties.setProperty(KEY_ATTEMPTS, String.valueOf(request.getAttempts()));
+
+            if(request.getAudioName() != null)
+            {
+                properties.setProperty(KEY_AUDIO_NAME, request.getAudioName());
+            }
+
+            int index = 0;
+
+            for(Map.Entry<String,String> field: request.getFields().entrySet())
+            {
+                properties.setProperty(KEY_FIELD_PREFIX + index + ".name", field.getKey());
+                properties.setProperty(KEY_FIELD_PREFIX + index + ".value", field.getValue());
+                index++;
+            }
+
+            properties.setProperty(KEY_FIELD_COUNT, String.valueOf(index));
+
+            //Write to a temporary file and move into place so that a crash never leaves a partial entry
+            Path temporary = mDirectory.resolve(id + PROPERTIES_SUFFIX + ".tmp");
+
+            try(OutputStream outputStream = Files.newOutputStream(temporary))
+            {
+                properties.store(outputStream, null);
+            }
+
+            Files.move(temporary, mDirectory.resolve(id + PROPERTIES_SUFFIX), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+
+            synchronized(this)
+            {
+                mEntries.remove(id);
+                mEntries.addLast(id);
+            }
+
+            return true;
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error storing upload request in spool [" + mDirectory + "]", ioe);
+            return false;
+        }
+    }
+
+    /**
+     * Removes and restores the oldest spooled request.  Unreadable entries are deleted.  The entry files remain on
+     * disk until the request is deleted after it completes, so that an in-flight request survives a restart.
+     * @return restored request or null if the spool is empty
+     */
+    public UploadRequest poll()
+    {
+        String id;
+
+        while((id = pollEntry()) != null)
+        {
+            Path audioPath = mDirectory.resolve(id + AUDIO_SUFFIX);
+
+            try(InputStream inputStream = Files.newInputStream(mDirectory.resolve(id + PROPERTIES_SUFFIX)))
+            {
+                Properties properties = new Properties();
+                properties.load(inputStream);
+
+                if(Files.exists(audioPath))
+                {
+                    UploadRequest request = new UploadRequest(id, audioPath,
+                        Long.parseLong(properties.getProperty(KEY_TIMESTAMP)),
+                        Integer.parseInt(properties.getProperty(KEY_ATTEMPTS, "0")));
+                    request.setAudioName(properties.getProperty(KEY_AUDIO_NAME));
+
+                    int count = Integer.parseInt(properties.getProperty(KEY_FIELD_COUNT, "0"));
+
+                    for(int x = 0; x < count; x++)
+                    {
+                        request.addField(properties.getProperty(KEY_FIELD_PREFIX + x + ".name"),
+                            properties.getProperty(KEY_FIELD_PREFIX + x + ".value"));
+                    }
+
+                    return request;
+                }
+
+                mLog.warn("Discarding upload spool entry [" + id + "] - audio file is missing");
+            }
+            catch(IOException | RuntimeException e)
+            {
+                mLog.warn("Discarding unreadable upload spool entry [" + id + "]", e);
+            }
+
+            deleteFiles(id);
+        }
+
+        return null;
+    }
+
+    /**
+     * Deletes the spool entry for the request, if the request was spooled
+     */
+    public void delete(UploadRequest request)
+    {
+        if(request.isSpooled())
+        {
+            synchronized(this)
+            {
+                mEntries.remove(request.getSpoolId());
+            }
+
+            deleteFiles(request.getSpoolId());
+        }
+    }
+
+    /**
+     * Next entry name sequence number
+     */
+    private synchronized int nextSequence()
+    {
+        int sequence = mSequence;
+        mSequence = (mSequence + 1) % 1000000;
+        return sequence;
+    }
+
+    /**
+     * Removes and returns the oldest entry id, or null if the spool is empty
+     */
+    private synchronized String pollEntry()
+    {
+        return mEntries.pollFirst();
+    }
+
+    /**
+     * Deletes the audio and properties files for the spool entry
+     */
+    private void deleteFiles(String id)
+    {
+        try
+        {
+            Files.deleteIfExists(mDirectory.resolve(id + PROPERTIES_SUFFIX));
+            Files.deleteIfExists(mDirectory.resolve(id + AUDIO_SUFFIX));
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error deleting upload spool entry [" + id + "]", ioe);
+        }
+    }
+}
@@ -85,13 +85,43 @@ public class MP3AudioConverter implements IAudioConverter
      */
     public List<byte[]> convert(List<float[]> audioPackets)
     {
-        List<byte[]> converted = new ArrayList<>();
-
         if(mNormalizeAudio)
         {
             audioPackets = AudioUtils.normalize(audioPackets);
         }
 
+        List<byte[]> converted = encode(audioPackets);
+
+        int finalChunkSize = mEncoder.encodeFinish(mOutputFramesBuffer);
+
+        if(finalChunkSize > 0)
+        {
+            converted.add(Arrays.copyOf(mOutputFramesBuffer, finalChunkSize));
+        }
+
+        return converted;
+    }
+
+    /**
+     * Indicates if this converter normalizes the audio before encoding.  Normalization requires the complete set of
+     * audio packets, so streaming encoding via the encode() method is not applicable when normalization is enabled.
+     */
+    public boolean isNormalizeAudio()
+    {
+        return mNormalizeAudio;
+    }
+
+    /**
+     * Encodes the list of PCM audio packets to MP3 without finishing the MP3 stream, so that subsequent packets can be
+     * encoded as a continuation of the same stream.  Audio normalization is not applied.  Use the flush() method to
+     * finish the stream after the final packets are encoded.
+     * @param audioPackets of PCM audio sampled at 8 kHz
+     * @return encoded MP3 audio frames, which may be empty when the encoder is still buffering input samples
+     */
+    public List<byte[]> encode(List<float[]> audioPackets)
+    {
+        List<byte[]> converted = new ArrayList<>();
+
         if(mResampler != null)
         {
             audioPackets = mResampler.resample(audioPackets);
@@ -135,13 +165,6 @@ public class MP3AudioConverter implements IAudioConverter
             }
         }
 
-        int finalChunkSize = mEncoder.encodeFinish(mOutputFramesBuffer);
-
-        if(finalChunkSize > 0)
-        {
-            converted.add(Arrays.copyOf(mOutputFramesBuffer, finalChunkSize));
-        }
-
         return converted;
     }
 
@@ -21,6 +21,7 @@ package io.github.dsheirer.buffer;
 
 import io.github.dsheirer.sample.complex.ComplexSamples;
 import io.github.dsheirer.sample.complex.InterleavedComplexSamples;
+import java.nio.ByteBuffer;
 import java.util.Iterator;
 
 /**
@@ -73,6 +74,18 @@ public class ByteNativeBuffer extends AbstractNativeBuffer
         return mSamples.length / 2;
     }
 
+    @Override
+    public NativeSampleFormat getNativeSampleFormat()
+    {
+        return NativeSampleFormat.CU8;
+    }
+
+    @Override
+    public void writeNativeSamples(ByteBuffer buffer)
+    {
+        buffer.put(mSamples);
+    }
+
     @Override
     public Iterator<ComplexSamples> iterator()
     {
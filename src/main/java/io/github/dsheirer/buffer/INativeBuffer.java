@@ -22,6 +22,7 @@ package io.github.dsheirer.buffer;
 import io.github.dsheirer.sample.complex.ComplexSamples;
 import io.github.dsheirer.sample.complex.InterleavedComplexSamples;
 
+import java.nio.ByteBuffer;
 import java.util.Iterator;
 
 /**
@@ -50,4 +51,25 @@ public interface INativeBuffer
      * @return millis since epoch
      */
     long getTimestamp();
+
+    /**
+     * Format of the raw (native) samples held by this buffer, when the buffer supports writing the raw samples.
+     * @return native sample format or null if raw sample access is not supported.
+     */
+    default NativeSampleFormat getNativeSampleFormat()
+    {
+        return null;
+    }
+
+    /**
+     * Writes the raw (native) interleaved samples held by this buffer to the byte buffer, without conversion, using
+     * the format indicated by getNativeSampleFormat().  The byte buffer must have sample count times bytes per sample
+     * remaining.
+     * @param buffer to receive the raw samples
+     * @throws UnsupportedOperationException if this buffer doesn't support raw sample access
+     */
+    default void writeNativeSamples(ByteBuffer buffer)
+    {
+        throw new UnsupportedOperationException("Native sample access is not supported by " + getClass());
+    }
 }
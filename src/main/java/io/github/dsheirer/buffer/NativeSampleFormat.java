@@ -0,0 +1,92 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.buffer;
+
+/**
+ * Raw (native) interleaved complex sample formats produced by tuners.  Identifiers follow the SigMF core datatype
+ * naming convention.
+ */
+public enum NativeSampleFormat
+{
+    CU8("cu8", 1, false),
+    CI8("ci8", 1, true),
+    CI16_LE("ci16_le", 2, true);
+
+    private String mSigMFDatatype;
+    private int mBytesPerComponent;
+    private boolean mSigned;
+
+    NativeSampleFormat(String sigMFDatatype, int bytesPerComponent, boolean signed)
+    {
+        mSigMFDatatype = sigMFDatatype;
+        mBytesPerComponent = bytesPerComponent;
+        mSigned = signed;
+    }
+
+    /**
+     * SigMF core:datatype value for this format
+     */
+    public String getSigMFDatatype()
+    {
+        return mSigMFDatatype;
+    }
+
+    /**
+     * Number of bytes for each I or Q sample component
+     */
+    public int getBytesPerComponent()
+    {
+        return mBytesPerComponent;
+    }
+
+    /**
+     * Number of bytes for each complex (I/Q) sample
+     */
+    public int getBytesPerSample()
+    {
+        return mBytesPerComponent * 2;
+    }
+
+    /**
+     * Indicates if the sample components are signed values
+     */
+    public boolean isSigned()
+    {
+        return mSigned;
+    }
+
+    /**
+     * Lookup the format from a SigMF core:datatype value.
+     * @param datatype value
+     * @return format or null if the datatype is not supported
+     */
+    public static NativeSampleFormat fromSigMFDatatype(String datatype)
+    {
+        for(NativeSampleFormat format: values())
+        {
+            if(format.getSigMFDatatype().equalsIgnoreCase(datatype))
+            {
+                return format;
+            }
+        }
+
+        return null;
+    }
+}
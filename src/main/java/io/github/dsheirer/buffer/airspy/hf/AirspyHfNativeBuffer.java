@@ -20,9 +20,12 @@
 package io.github.dsheirer.buffer.airspy.hf;
 
 import io.github.dsheirer.buffer.AbstractNativeBuffer;
+import io.github.dsheirer.buffer.NativeSampleFormat;
 import io.github.dsheirer.sample.complex.ComplexSamples;
 import io.github.dsheirer.sample.complex.InterleavedComplexSamples;
+import java.nio.ByteBuffer;
 import java.util.Iterator;
+import java.nio.ByteOrder;
 
 /**
  * Native buffer implementation for Airspy HF+ & Discovery tuners.
@@ -63,6 +66,26 @@ public class AirspyHfNativeBuffer extends AbstractNativeBuffer
         return mInterleavedSamples.length / 2;
     }
 
+    @Override
+    public NativeSampleFormat getNativeSampleFormat()
+    {
+        return NativeSampleFormat.CI16_LE;
+    }
+
+    @Override
+    public void writeNativeSamples(ByteBuffer buffer)
+    {
+        ByteOrder order = buffer.order();
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        for(short sample: mInterleavedSamples)
+        {
+            buffer.putShort(sample);
+        }
+
+        buffer.order(order);
+    }
+
     /**
      * Scalar implementation of complex samples buffer iterator
      */
@@ -0,0 +1,282 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.controller;
+
+import io.github.dsheirer.alias.AliasModel;
+import io.github.dsheirer.audio.DuplicateCallDetector;
+import io.github.dsheirer.audio.broadcast.AudioStreamingManager;
+import io.github.dsheirer.audio.broadcast.BroadcastFormat;
+import io.github.dsheirer.controller.channel.Channel;
+import io.github.dsheirer.controller.channel.ChannelException;
+import io.github.dsheirer.dsp.filter.fir.FIRFilterTapCache;
+import io.github.dsheirer.icon.IconModel;
+import io.github.dsheirer.log.ApplicationLog;
+import io.github.dsheirer.metrics.MetricsServer;
+import io.github.dsheirer.module.log.EventLogManager;
+import io.github.dsheirer.playlist.PlaylistManager;
+import io.github.dsheirer.preference.UserPreferences;
+import io.github.dsheirer.properties.SystemProperties;
+import io.github.dsheirer.record.AudioRecordingManager;
+import io.github.dsheirer.source.tuner.manager.TunerManager;
+import io.github.dsheirer.util.ThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Headless (daemon) application entry point for unattended servers.  Loads the user's playlist, starts the tuner
+ * manager, channel processing, audio recording and audio streaming and then runs until the JVM is signalled to
+ * terminate (e.g. SIGINT/SIGTERM), at which point an orderly shutdown is performed.
+ *
+ * No Swing or JavaFX components are created: the spectral display, waterfall, playback, map and user interface models
+ * and listeners are not instantiated and auto-start channels are started immediately without the countdown dialog.
+ *
+ * Launch with: sdr-trunk --headless  (or run this class directly)
+ */
+public class SDRTrunkDaemon
+{
+    private final static Logger mLog = LoggerFactory.getLogger(SDRTrunkDaemon.class);
+    public static final String HEADLESS_ARGUMENT = "--headless";
+
+    private final CountDownLatch mShutdownLatch = new CountDownLatch(1);
+    private UserPreferences mUserPreferences;
+    private ApplicationLog mApplicationLog;
+    private MetricsServer mMetricsServer;
+    private TunerManager mTunerManager;
+    private PlaylistManager mPlaylistManager;
+    private AudioRecordingManager mAudioRecordingManager;
+    private AudioStreamingManager mAudioStreamingManager;
+
+    /**
+     * Constructs an instance
+     */
+    public SDRTrunkDaemon()
+    {
+    }
+
+    /**
+     * Starts the daemon processing components and auto-start channels.
+     */
+    public void start()
+    {
+        long startupTimestamp = System.currentTimeMillis();
+        mUserPreferences = new UserPreferences();
+        mApplicationLog = new ApplicationLog(mUserPreferences);
+        mApplicationLog.start();
+        mLog.info("starting main application as headless daemon");
+
+        startMetricsServer();
+        ThreadPool.logSettings();
+        loadProperties();
+        SystemProperties.getInstance().logCurrentSettings();
+
+        mTunerManager = new TunerManager(mUserPreferences);
+
+        AliasModel aliasModel = new AliasModel();
+        EventLogManager eventLogManager = new EventLogManager(aliasModel, mUserPreferences);
+        mPlaylistManager = new PlaylistManager(mUserPreferences, mTunerManager, aliasModel, eventLogManager,
+            new IconModel());
+
+        //Load previously designed filters so that channelizer and decoder startup can skip filter design
+        FIRFilterTapCache.load(getFilterTapCachePath());
+
+        //Parse the playlist in the background while tuners are discovered and started
+        mPlaylistManager.preload();
+        mTunerManager.start();
+
+        mAudioRecordingManager = new AudioRecordingManager(mUserPreferences);
+        mAudioRecordingManager.start();
+
+        mAudioStreamingManager = new AudioStreamingManager(mPlaylistManager.getBroadcastModel(), BroadcastFormat.MP3,
+            mUserPreferences);
+        mAudioStreamingManager.start();
+
+        DuplicateCallDetector duplicateCallDetector = new DuplicateCallDetector(mUserPreferences);
+        mPlaylistManager.getChannelProcessingManager().addAudioSegmentListener(duplicateCallDetector);
+        mPlaylistManager.getChannelProcessingManager().addAudioSegmentListener(mAudioRecordingManager);
+        mPlaylistManager.getChannelProcessingManager().addAudioSegmentListener(mAudioStreamingManager);
+
+        mPlaylistManager.init();
+        mLog.info("Startup completed in " + (System.currentTimeMillis() - startupTimestamp) + " ms");
+
+        autoStartChannels();
+    }
+
+    /**
+     * Starts each of the channels that are designated for auto-start, in auto-start order.
+     */
+    private void autoStartChannels()
+    {
+        List<Channel> channels = mPlaylistManager.getChannelModel().getAutoStartChannels();
+
+        mLog.info("Auto-starting [" + channels.size() + "] channel(s)");
+
+        for(Channel channel: channels)
+        {
+            try
+            {
+                mLog.info("Auto-starting channel " + channel.getName());
+                mPlaylistManager.getChannelProcessingManager().start(channel);
+            }
+            catch(ChannelException ce)
+            {
+                mLog.error("Channel: " + channel.getName() + " auto-start failed: " + ce.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Performs an orderly shutdown of channels, recording, streaming and tuners.
+     */
+    public void shutdown()
+    {
+        mLog.info("Application shutdown started ...");
+
+        //Components may be null if startup failed part way through
+        if(mPlaylistManager != null)
+        {
+            mLog.info("Stopping channels ...");
+            mPlaylistManager.getChannelProcessingManager().shutdown();
+        }
+
+        if(mAudioStreamingManager != null)
+        {
+            mAudioStreamingManager.stop();
+        }
+
+        if(mAudioRecordingManager != null)
+        {
+            mAudioRecordingManager.stop();
+        }
+
+        if(mTunerManager != null)
+        {
+            mLog.info("Stopping tuners ...");
+            mTunerManager.stop();
+        }
+
+        if(mMetricsServer != null)
+        {
+            mMetricsServer.stop();
+        }
+
+        FIRFilterTapCache.save(getFilterTapCachePath());
+
+        mLog.info("Shutdown complete.");
+
+        if(mApplicationLog != null)
+        {
+            mApplicationLog.stop();
+        }
+
+        mShutdownLatch.countDown();
+    }
+
+    /**
+     * Blocks the calling thread until shutdown completes.
+     */
+    public void awaitShutdown() throws InterruptedException
+    {
+        mShutdownLatch.await();
+    }
+
+    /**
+     * Location of the persisted filter design cache
+     */
+    private Path getFilterTapCachePath()
+    {
+        return mUserPreferences.getDirectoryPreference().getDirectoryConfiguration()
+            .resolve(FIRFilterTapCache.CACHE_FILE_NAME);
+    }
+
+    /**
+     * Starts the local runtime metrics HTTP endpoint when enabled in the application preferences.
+     */
+    private void startMetricsServer()
+    {
+        if(mUserPreferences.getApplicationPreference().isMetricsEnabled())
+        {
+            mMetricsServer = new MetricsServer(mUserPreferences.getApplicationPreference().getMetricsPort());
+
+            try
+            {
+                mMetricsServer.start();
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Unable to start runtime metrics endpoint on port " + mMetricsServer.getPort(), ioe);
+                mMetricsServer = null;
+            }
+        }
+    }
+
+    /**
+     * Loads (or creates) the application properties file
+     */
+    private void loadProperties()
+    {
+        Path propertiesPath = mUserPreferences.getDirectoryPreference().getDirectoryApplicationRoot().resolve("SDRTrunk.properties");
+
+        if(!Files.exists(propertiesPath))
+        {
+            try
+            {
+                mLog.info("SDRTrunk - creating application properties file [" + propertiesPath.toAbsolutePath() + "]");
+                Files.createFile(propertiesPath);
+            }
+            catch(IOException e)
+            {
+                mLog.error("SDRTrunk - couldn't create application properties file [" + propertiesPath.toAbsolutePath(), e);
+            }
+        }
+
+        if(Files.exists(propertiesPath))
+        {
+            SystemProperties.getInstance().load(propertiesPath);
+        }
+        else
+        {
+            mLog.error("SDRTrunk - couldn't find or recreate the SDRTrunk application properties file");
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        //Ensure that AWT reports headless before any Swing or JavaFX dependent class checks the environment
+        System.setProperty("java.awt.headless", "true");
+
+        SDRTrunkDaemon daemon = new SDRTrunkDaemon();
+        Runtime.getRuntime().addShutdownHook(new Thread(daemon::shutdown, "sdrtrunk daemon shutdown"));
+        daemon.start();
+
+        try
+        {
+            daemon.awaitShutdown();
+        }
+        catch(InterruptedException ie)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
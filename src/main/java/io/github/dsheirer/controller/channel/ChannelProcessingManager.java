@@ -108,11 +108,17 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
         mTunerManager = tunerManager;
         mAliasModel = aliasModel;
         mUserPreferences = userPreferences;
-        mChannelMetadataModel = new ChannelMetadataModel();
+
+        //The channel metadata model only feeds the user interface and is not created when running headless
+        if(!GraphicsEnvironment.isHeadless())
+        {
+            mChannelMetadataModel = new ChannelMetadataModel();
+        }
     }
 
     /**
      * Channel metadata model containing metadata for each channel or channel time-slice that is currently processing.
+     * @return model or null when running headless
      */
     public ChannelMetadataModel getChannelMetadataModel()
     {
@@ -389,8 +395,15 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
 
         if(source == null)
         {
-            //This has to be done on the FX event thread when the playlist editor is constructed
-            Platform.runLater(() -> channel.setProcessing(false));
+            if(GraphicsEnvironment.isHeadless())
+            {
+                channel.setProcessing(false);
+            }
+            else
+            {
+                //This has to be done on the FX event thread when the playlist editor is constructed
+                Platform.runLater(() -> channel.setProcessing(false));
+            }
 
             mChannelEventBroadcaster.broadcast(new ChannelEvent(channel,
                 ChannelEvent.Event.NOTIFICATION_PROCESSING_START_REJECTED, TUNER_UNAVAILABLE_DESCRIPTION));
@@ -560,7 +573,11 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
             {
                 added = true;
                 mProcessingChains.put(channel, processingChain);
-                getChannelMetadataModel().add(new ChannelAndMetadata(channel, processingChain.getChannelState().getChannelMetadata()));
+
+                if(mChannelMetadataModel != null)
+                {
+                    mChannelMetadataModel.add(new ChannelAndMetadata(channel, processingChain.getChannelState().getChannelMetadata()));
+                }
             }
         }
         finally
@@ -586,11 +603,11 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
         {
             removed = mProcessingChains.remove(channel);
 
-            if(removed != null)
+            if(removed != null && mChannelMetadataModel != null)
             {
                 for(ChannelMetadata channelMetadata: removed.getChannelState().getChannelMetadata())
                 {
-                    getChannelMetadataModel().remove(channelMetadata);
+                    mChannelMetadataModel.remove(channelMetadata);
                 }
             }
         }
@@ -692,14 +709,26 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
             processingChain.removeTrafficChannelManager();
 
             //Update processing flag for each configuration.
-            Platform.runLater(() -> {
+            if(GraphicsEnvironment.isHeadless())
+            {
                 request.getCurrentChannel().setProcessing(false);
                 request.getTrafficChannel().setProcessing(true);
-            });
+            }
+            else
+            {
+                Platform.runLater(() -> {
+                    request.getCurrentChannel().setProcessing(false);
+                    request.getTrafficChannel().setProcessing(true);
+                });
+            }
 
             mProcessingChains.put(request.getTrafficChannel(), processingChain);
-            mChannelMetadataModel.updateChannelMetadataToChannelMap(processingChain.getChannelState().getChannelMetadata(),
-                request.getTrafficChannel());
+
+            if(mChannelMetadataModel != null)
+            {
+                mChannelMetadataModel.updateChannelMetadataToChannelMap(processingChain.getChannelState().getChannelMetadata(),
+                    request.getTrafficChannel());
+            }
 
             //Post a change notification so that processing chain modules can reconfigure
             processingChain.channelConfigurationChanged(new ChannelConfigurationChangeNotification(request.getTrafficChannel()));
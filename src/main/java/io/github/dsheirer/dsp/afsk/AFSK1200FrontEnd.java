@@ -0,0 +1,152 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.afsk;
+
+import io.github.dsheirer.bits.IBinarySymbolProcessor;
+import io.github.dsheirer.sample.Listener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shared AFSK 1200-baud front end for multiple AFSK1200 family decoders (e.g. Fleetsync II, MDC1200, LJ1200, Tait 1200)
+ * operating on the same channel audio.
+ *
+ * Resampling, mark/space correlation and symbol timing recovery run once per audio buffer in a single AFSK1200Decoder
+ * and the recovered symbol stream is fanned out to each subscriber, which applies its own normal or inverted output
+ * before passing the symbol to the protocol's symbol processor.  Since every subscriber on a channel receives the same
+ * audio buffers, the first enabled subscriber to receive audio drives the front end and the audio delivered to the
+ * other subscribers is ignored.
+ *
+ * Subscribers are accessed on the channel's processing thread and this class is not thread safe.
+ */
+public class AFSK1200FrontEnd implements IBinarySymbolProcessor
+{
+    private AFSK1200Decoder mDecoder = new AFSK1200Decoder(AFSK1200Decoder.Output.NORMAL);
+    private List<Subscriber> mSubscribers = new ArrayList<>();
+    private Subscriber mDriver;
+
+    /**
+     * Constructs an instance
+     */
+    public AFSK1200FrontEnd()
+    {
+        mDecoder.setSymbolProcessor(this);
+    }
+
+    /**
+     * Creates a subscriber to receive the decoded symbol stream.  The subscriber is disabled until enabled.
+     * @param output NORMAL: 1200Hz = Mark(1) and 1800Hz = Space(0), or INVERTED (vice-versa)
+     * @return subscriber
+     */
+    public Subscriber subscribe(AFSK1200Decoder.Output output)
+    {
+        Subscriber subscriber = new Subscriber(output);
+        mSubscribers.add(subscriber);
+        return subscriber;
+    }
+
+    /**
+     * Number of subscribers
+     */
+    public int getSubscriberCount()
+    {
+        return mSubscribers.size();
+    }
+
+    /**
+     * Dispatches a decoded symbol to each enabled subscriber
+     */
+    @Override
+    public void process(boolean symbol)
+    {
+        for(Subscriber subscriber : mSubscribers)
+        {
+            subscriber.dispatch(symbol);
+        }
+    }
+
+    /**
+     * Decoder subscription to the shared front end.
+     */
+    public class Subscriber implements Listener<float[]>
+    {
+        private boolean mNormalOutput;
+        private boolean mEnabled;
+        private IBinarySymbolProcessor mBinarySymbolProcessor;
+
+        private Subscriber(AFSK1200Decoder.Output output)
+        {
+            mNormalOutput = (output == AFSK1200Decoder.Output.NORMAL);
+        }
+
+        /**
+         * Registers the processor to receive decoded symbols
+         */
+        public void setSymbolProcessor(IBinarySymbolProcessor binarySymbolProcessor)
+        {
+            mBinarySymbolProcessor = binarySymbolProcessor;
+        }
+
+        /**
+         * Enables or disables this subscriber.  A disabled subscriber doesn't receive symbols and releases the front
+         * end to another subscriber if it was driving the front end.
+         */
+        public void setEnabled(boolean enabled)
+        {
+            mEnabled = enabled;
+
+            if(!enabled && mDriver == this)
+            {
+                mDriver = null;
+            }
+        }
+
+        /**
+         * Receives channel audio.  Only the driving subscriber feeds the audio to the front end.
+         * @param buffer containing 8.0 kHz FM demodulated audio samples
+         */
+        @Override
+        public void receive(float[] buffer)
+        {
+            if(!mEnabled)
+            {
+                return;
+            }
+
+            if(mDriver == null)
+            {
+                mDriver = this;
+            }
+
+            if(mDriver == this)
+            {
+                mDecoder.receive(buffer);
+            }
+        }
+
+        private void dispatch(boolean symbol)
+        {
+            if(mEnabled && mBinarySymbolProcessor != null)
+            {
+                mBinarySymbolProcessor.process(mNormalOutput ? symbol : !symbol);
+            }
+        }
+    }
+}
@@ -21,6 +21,7 @@ package io.github.dsheirer.dsp.filter;
 import io.github.dsheirer.dsp.filter.decimate.IRealDecimationFilter;
 import io.github.dsheirer.dsp.filter.design.FilterDesignException;
 import io.github.dsheirer.dsp.filter.fir.FIRFilterSpecification;
+import io.github.dsheirer.dsp.filter.fir.FIRFilterTapCache;
 import io.github.dsheirer.dsp.filter.fir.real.IRealFilter;
 import io.github.dsheirer.dsp.filter.fir.real.RealFIRFilter;
 import io.github.dsheirer.dsp.filter.fir.real.VectorRealFIRFilter128Bit;
@@ -696,22 +697,25 @@ public class FilterFactory
     }
 
     /**
-     * Creates a filter from the filter specification using the remez exchange design algorithm
+     * Creates a filter from the filter specification using the remez exchange design algorithm.  Designed filters are
+     * cached process-wide so that subsequent requests for the same specification don't repeat the design.
      *
      * @param specification
-     * @return filter coefficients
+     * @return filter coefficients or null if the filter cannot be designed
      * @throws FilterDesignException if the filter cannot be designed
      */
     public static float[] getTaps(FIRFilterSpecification specification) throws FilterDesignException
     {
-        RemezFIRFilterDesigner designer = new RemezFIRFilterDesigner(specification);
+        return FIRFilterTapCache.getTaps(specification, () -> {
+            RemezFIRFilterDesigner designer = new RemezFIRFilterDesigner(specification);
 
-        if(designer.isValid())
-        {
-            return designer.getImpulseResponse();
-        }
+            if(designer.isValid())
+            {
+                return designer.getImpulseResponse();
+            }
 
-        return null;
+            return null;
+        });
     }
 
     /**
@@ -788,6 +792,20 @@ public class FilterFactory
      */
     public static float[] getSincM2Synthesizer(double channelSampleRate, double channelBandwidth, int channels,
                                                int tapsPerChannel) throws FilterDesignException
+    {
+        String key = "sincM2Synthesizer|" + Double.toHexString(channelSampleRate) + ":" +
+            Double.toHexString(channelBandwidth) + ":" + channels + ":" + tapsPerChannel;
+
+        return FIRFilterTapCache.getTaps(key, () -> designSincM2Synthesizer(channelSampleRate, channelBandwidth,
+            channels, tapsPerChannel));
+    }
+
+    /**
+     * Designs the polyphase M2 synthesizer sync filter.
+     * @see #getSincM2Synthesizer(double, double, int, int)
+     */
+    private static float[] designSincM2Synthesizer(double channelSampleRate, double channelBandwidth, int channels,
+                                                   int tapsPerChannel) throws FilterDesignException
     {
         int filterLength = (channels * tapsPerChannel) - 1;
 
@@ -841,6 +859,21 @@ public class FilterFactory
      */
     public static float[] getSincM2Channelizer(double channelBandwidth, int channels, int tapsPerChannel,
                                                boolean logResults) throws FilterDesignException
+    {
+        String key = "sincM2Channelizer|" + Double.toHexString(channelBandwidth) + ":" + channels + ":" +
+            tapsPerChannel;
+
+        return FIRFilterTapCache.getTaps(key, () -> designSincM2Channelizer(channelBandwidth, channels,
+            tapsPerChannel, logResults));
+    }
+
+    /**
+     * Designs the polyphase M2 channelizer sync filter.  This is an iterative design that evaluates many candidate
+     * filters, so the result is cached by getSincM2Channelizer().
+     * @see #getSincM2Channelizer(double, int, int, boolean)
+     */
+    private static float[] designSincM2Channelizer(double channelBandwidth, int channels, int tapsPerChannel,
+                                                   boolean logResults) throws FilterDesignException
     {
         int currentTapsPerChannel = tapsPerChannel;
         int filterLength = (channels * currentTapsPerChannel) - 1;
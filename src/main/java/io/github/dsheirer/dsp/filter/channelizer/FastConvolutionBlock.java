@@ -0,0 +1,31 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.filter.channelizer;
+
+/**
+ * Forward FFT of a single overlap-save block produced by the fast convolution channelizer.
+ *
+ * @param spectrum of the block as interleaved complex FFT bins
+ * @param index of the block since the channelizer started, used by channels to maintain phase continuity
+ * @param centerFrequency of the tuner when the block was produced
+ * @param timestamp of the sample buffer that completed the block
+ */
+public record FastConvolutionBlock(float[] spectrum, long index, long centerFrequency, long timestamp)
+{
+}
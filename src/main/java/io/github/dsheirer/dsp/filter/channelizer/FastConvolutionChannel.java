@@ -0,0 +1,257 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.filter.channelizer;
+
+import io.github.dsheirer.dsp.filter.FilterFactory;
+import io.github.dsheirer.dsp.filter.design.FilterDesignException;
+import io.github.dsheirer.dsp.mixer.ComplexMixer;
+import io.github.dsheirer.dsp.mixer.ComplexMixerFactory;
+import io.github.dsheirer.dsp.window.WindowType;
+import io.github.dsheirer.sample.complex.ComplexSamples;
+import org.apache.commons.math3.util.FastMath;
+import org.jtransforms.fft.FloatFFT_1D;
+
+/**
+ * Single channel output of the overlap-save fast convolution channelizer.  Selects the FFT bins surrounding the channel
+ * center frequency from each channelizer block, applies the channel filter frequency response and performs an inverse
+ * FFT sized to the decimated output sample rate.
+ *
+ * The channel is translated to baseband in two steps.  The bin selection translates the nearest FFT bin to baseband and
+ * the channel filter is centered on the residual (sub-bin) frequency offset, which is then removed by a mixer at the
+ * decimated output sample rate.  This allows arbitrary channel center frequencies.
+ *
+ * Note: this class is not thread safe.  Blocks should be processed on a single thread.
+ */
+public class FastConvolutionChannel
+{
+    private static final int MINIMUM_INVERSE_FFT_SIZE = 8;
+
+    private final long mFrequency;
+    private final double mTunerSampleRate;
+    private final int mFFTSize;
+    private final int mBlockSize;
+    private final int mDecimation;
+    private final int mInverseFFTSize;
+    private final int mDiscard;
+    private final float[] mTaps;
+    private final FloatFFT_1D mInverseFFT;
+    private float[] mResponse;
+    private float[] mBins;
+    private int mCenterBin;
+    private ComplexMixer mFineMixer;
+    private long mTunerFrequency;
+    private boolean mConfigured;
+
+    /**
+     * Constructs an instance
+     * @param tunerSampleRate of the channelizer input
+     * @param fftSize of the channelizer
+     * @param frequency of the channel
+     * @param minimumSampleRate for the channel output
+     * @throws FilterDesignException if the channel filter cannot be designed
+     */
+    public FastConvolutionChannel(double tunerSampleRate, int fftSize, long frequency, double minimumSampleRate)
+            throws FilterDesignException
+    {
+        mTunerSampleRate = tunerSampleRate;
+        mFFTSize = fftSize;
+        mFrequency = frequency;
+
+        int overlap = FastConvolutionChannelizer.getOverlap(fftSize);
+        mBlockSize = fftSize - overlap;
+        mDecimation = getDecimation(tunerSampleRate, fftSize, minimumSampleRate);
+        mInverseFFTSize = fftSize / mDecimation;
+        mDiscard = overlap / mDecimation;
+        mInverseFFT = new FloatFFT_1D(mInverseFFTSize);
+
+        //Channel filter length is limited to the block overlap plus one.  Cutoff is set to the output Nyquist frequency,
+        //placing any aliasing in the transition band outside of the channel passband.
+        mTaps = FilterFactory.getSinc(1.0 / (2.0 * mDecimation), overlap + 1, WindowType.BLACKMAN);
+    }
+
+    /**
+     * Calculates the largest power of two decimation rate that provides a sample rate equal to or greater than the
+     * minimum sample rate and that is limited so that the inverse FFT size is at least 8 bins.
+     */
+    private static int getDecimation(double tunerSampleRate, int fftSize, double minimumSampleRate)
+    {
+        int decimation = 1;
+
+        while(tunerSampleRate / (decimation * 2) >= minimumSampleRate &&
+                fftSize / (decimation * 2) >= MINIMUM_INVERSE_FFT_SIZE)
+        {
+            decimation *= 2;
+        }
+
+        return decimation;
+    }
+
+    /**
+     * Output sample rate of this channel
+     */
+    public double getSampleRate()
+    {
+        return mTunerSampleRate / mDecimation;
+    }
+
+    /**
+     * Decimation rate applied by this channel
+     */
+    public int getDecimation()
+    {
+        return mDecimation;
+    }
+
+    /**
+     * Channelizer FFT bin that is translated to baseband for this channel
+     */
+    public int getCenterBin()
+    {
+        return mCenterBin;
+    }
+
+    /**
+     * Residual frequency offset removed by the output mixer.
+     * @return frequency in hertz
+     */
+    public double getMixerFrequency()
+    {
+        return mFineMixer != null ? mFineMixer.getFrequency() : 0.0;
+    }
+
+    /**
+     * Updates the FFT bin selection, channel filter response and residual mixer frequency for the tuner center
+     * frequency.
+     * @param tunerFrequency in hertz
+     */
+    private void configure(long tunerFrequency)
+    {
+        mTunerFrequency = tunerFrequency;
+        mConfigured = true;
+
+        double binWidth = mTunerSampleRate / mFFTSize;
+        double offset = mFrequency - tunerFrequency;
+        mCenterBin = (int)FastMath.round(offset / binWidth);
+        double residual = offset - (mCenterBin * binWidth);
+
+        //Shift the filter to the residual offset and fold the 1/N inverse FFT scaling into the response
+        float[] response = new float[mFFTSize * 2];
+        double scale = 1.0 / mFFTSize;
+
+        for(int x = 0; x < mTaps.length; x++)
+        {
+            double angle = 2.0 * FastMath.PI * residual * x / mTunerSampleRate;
+            response[2 * x] = (float)(mTaps[x] * FastMath.cos(angle) * scale);
+            response[2 * x + 1] = (float)(mTaps[x] * FastMath.sin(angle) * scale);
+        }
+
+        new FloatFFT_1D(mFFTSize).complexForward(response);
+
+        //Keep only the bins surrounding DC, in inverse FFT bin order
+        mResponse = new float[mInverseFFTSize * 2];
+
+        if(mBins == null)
+        {
+            mBins = new float[mInverseFFTSize * 2];
+        }
+
+        for(int x = 0; x < mInverseFFTSize; x++)
+        {
+            int index = FastMath.floorMod(getRelativeBin(x), mFFTSize);
+            mResponse[2 * x] = response[2 * index];
+            mResponse[2 * x + 1] = response[2 * index + 1];
+        }
+
+        if(mFineMixer == null)
+        {
+            mFineMixer = ComplexMixerFactory.getMixer(-residual, getSampleRate());
+        }
+        else
+        {
+            mFineMixer.setFrequency(-residual);
+        }
+    }
+
+    /**
+     * Bin offset relative to the center bin for the inverse FFT bin index.
+     */
+    private int getRelativeBin(int index)
+    {
+        return index < mInverseFFTSize / 2 ? index : index - mInverseFFTSize;
+    }
+
+    /**
+     * Processes the channelizer block and produces decimated output samples for this channel.
+     * @param block to process
+     * @return channel samples
+     */
+    public ComplexSamples process(FastConvolutionBlock block)
+    {
+        if(!mConfigured || block.centerFrequency() != mTunerFrequency)
+        {
+            configure(block.centerFrequency());
+        }
+
+        float[] spectrum = block.spectrum();
+        float[] bins = mBins;
+
+        for(int x = 0; x < mInverseFFTSize; x++)
+        {
+            int index = 2 * FastMath.floorMod(mCenterBin + getRelativeBin(x), mFFTSize);
+            float inphase = spectrum[index];
+            float quadrature = spectrum[index + 1];
+            float responseInphase = mResponse[2 * x];
+            float responseQuadrature = mResponse[2 * x + 1];
+            bins[2 * x] = inphase * responseInphase - quadrature * responseQuadrature;
+            bins[2 * x + 1] = inphase * responseQuadrature + quadrature * responseInphase;
+        }
+
+        mInverseFFT.complexInverse(bins, false);
+
+        //Bin selection translates relative to the start of each block.  Rotate by the accumulated phase of the center
+        //bin at the block start sample to maintain phase continuity across blocks.
+        long blockStart = FastMath.floorMod(block.index(), (long)mFFTSize) * mBlockSize % mFFTSize;
+        long phaseIndex = FastMath.floorMod((long)mCenterBin, (long)mFFTSize) * blockStart % mFFTSize;
+        double angle = -2.0 * FastMath.PI * phaseIndex / mFFTSize;
+        float cos = (float)FastMath.cos(angle);
+        float sin = (float)FastMath.sin(angle);
+
+        //Discard the samples corrupted by the circular convolution wrap-around
+        int count = mInverseFFTSize - mDiscard;
+        float[] i = new float[count];
+        float[] q = new float[count];
+
+        for(int x = 0; x < count; x++)
+        {
+            float inphase = bins[2 * (x + mDiscard)];
+            float quadrature = bins[2 * (x + mDiscard) + 1];
+            i[x] = inphase * cos - quadrature * sin;
+            q[x] = inphase * sin + quadrature * cos;
+        }
+
+        ComplexSamples samples = new ComplexSamples(i, q, block.timestamp());
+
+        if(mFineMixer.hasFrequency())
+        {
+            samples = mFineMixer.mix(samples);
+        }
+
+        return samples;
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.filter.channelizer;
+
+import io.github.dsheirer.dsp.filter.design.FilterDesignException;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.sample.complex.ComplexSamples;
+import io.github.dsheirer.source.SourceEvent;
+import io.github.dsheirer.source.tuner.channel.ChannelSpecification;
+import io.github.dsheirer.source.tuner.channel.TunerChannel;
+import io.github.dsheirer.source.tuner.channel.TunerChannelSource;
+import io.github.dsheirer.util.Dispatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tuner channel source that receives blocks from the fast convolution channelizer and produces a decimated channel
+ * sample stream.  Bin selection, filtering and the inverse FFT for this channel are performed on this channel's
+ * dispatcher thread so that the channelizer thread only performs the shared forward FFT.
+ */
+public class FastConvolutionChannelSource extends TunerChannelSource implements Listener<FastConvolutionBlock>
+{
+    private static final Logger mLog = LoggerFactory.getLogger(FastConvolutionChannelSource.class);
+
+    private Dispatcher<FastConvolutionBlock> mBlockDispatcher;
+    private FastConvolutionChannel mChannel;
+    private Listener<ComplexSamples> mSamplesListener;
+
+    /**
+     * Constructs an instance.
+     *
+     * @param producerSourceEventListener to receive sample stream start/stop requests
+     * @param tunerChannel that details the desired channel frequency and bandwidth
+     * @param sampleRate of the tuner sample stream
+     * @param channelSpecification for the requested channel.
+     * @throws FilterDesignException if the channel filter cannot be designed
+     */
+    public FastConvolutionChannelSource(Listener<SourceEvent> producerSourceEventListener, TunerChannel tunerChannel,
+                                        double sampleRate, ChannelSpecification channelSpecification)
+            throws FilterDesignException
+    {
+        super(producerSourceEventListener, tunerChannel);
+
+        mChannel = new FastConvolutionChannel(sampleRate, FastConvolutionChannelizer.getFFTSize(sampleRate),
+                tunerChannel.getFrequency(), channelSpecification.getMinimumSampleRate());
+
+        mBlockDispatcher = new Dispatcher("sdrtrunk fast convolution channel " + tunerChannel.getFrequency(), 50,
+                getHeartbeatManager());
+        mBlockDispatcher.setListener(new BlockProcessor());
+    }
+
+    @Override
+    public void start()
+    {
+        super.start();
+        mBlockDispatcher.start();
+    }
+
+    @Override
+    public void stop()
+    {
+        super.stop();
+        mBlockDispatcher.stop();
+    }
+
+    @Override
+    public void dispose()
+    {
+    }
+
+    /**
+     * Primary interface for receiving channelizer blocks.
+     */
+    @Override
+    public void receive(FastConvolutionBlock block)
+    {
+        mBlockDispatcher.receive(block);
+    }
+
+    /**
+     * Not implemented.  Channelizer blocks are labeled with the tuner center frequency and the channel updates its
+     * bin selection and filter when a block with a new center frequency arrives.
+     *
+     * @param frequency in hertz
+     */
+    @Override
+    public void setFrequency(long frequency)
+    {
+    }
+
+    /**
+     * Channelizer FFT bin that is translated to baseband for this channel.
+     */
+    public int getCenterBin()
+    {
+        return mChannel.getCenterBin();
+    }
+
+    /**
+     * Residual frequency offset removed by the channel output mixer.
+     */
+    public double getMixerFrequency()
+    {
+        return mChannel.getMixerFrequency();
+    }
+
+    /**
+     * Sets the sample rate of the incoming sample stream from the producer
+     *
+     * @param sampleRate in hertz
+     */
+    @Override
+    protected void setSampleRate(double sampleRate)
+    {
+        //Not implemented.  Sample rate changes are not permitted once sample stream starts
+    }
+
+    /**
+     * Sets the listener to receive the complex buffer sample output from this channel
+     *
+     * @param listener to receive complex buffers
+     */
+    @Override
+    public void setListener(Listener<ComplexSamples> listener)
+    {
+        mSamplesListener = listener;
+    }
+
+    @Override
+    public double getSampleRate()
+    {
+        return mChannel.getSampleRate();
+    }
+
+    /**
+     * Processes channelizer blocks received from the dispatcher and sends channel samples to the registered listener
+     */
+    public class BlockProcessor implements Listener<FastConvolutionBlock>
+    {
+        @Override
+        public void receive(FastConvolutionBlock block)
+        {
+            if(mSamplesListener != null)
+            {
+                ComplexSamples samples = mChannel.process(block);
+
+                try
+                {
+                    mSamplesListener.receive(samples);
+                }
+                catch(Throwable t)
+                {
+                    //The listener can be made null and cause the error - only log if we have a non-null listener
+                    if(mSamplesListener != null)
+                    {
+                        mLog.error("Error dispatching complex samples to listener [" + mSamplesListener + "]");
+                    }
+                }
+            }
+        }
+    }
+}
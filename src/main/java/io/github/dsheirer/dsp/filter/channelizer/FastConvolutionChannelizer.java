@@ -0,0 +1,187 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.filter.channelizer;
+
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.sample.complex.InterleavedComplexSamples;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.jtransforms.fft.FloatFFT_1D;
+
+/**
+ * Overlap-save fast convolution (FC) channelizer.  Performs a single large forward FFT for each block of incoming
+ * samples and distributes the spectrum of each block to the registered channels.  Each channel extracts the subset of
+ * FFT bins surrounding its center frequency, applies its channel filter in the frequency domain and performs a small
+ * inverse FFT to produce decimated output samples.
+ *
+ * Unlike the polyphase channelizer, channel center frequencies are not constrained to a fixed channel grid and the
+ * processing cost scales with the number of active channels instead of the total number of channels in the tuner
+ * bandwidth.
+ *
+ * Blocks overlap by 25% of the FFT size, so each block contains 75% new samples and channel filters can be up to 25%
+ * of the FFT size in length.
+ */
+public class FastConvolutionChannelizer implements Listener<InterleavedComplexSamples>
+{
+    /**
+     * Maximum FFT bin width in hertz.  This also determines the channel filter length and the channel filter
+     * transition bandwidth.
+     */
+    public static final double MAXIMUM_BIN_WIDTH = 500.0;
+    private static final int MINIMUM_FFT_SIZE = 1024;
+
+    private final List<Listener<FastConvolutionBlock>> mListeners = new CopyOnWriteArrayList<>();
+    private final double mSampleRate;
+    private final int mFFTSize;
+    private final int mOverlap;
+    private final FloatFFT_1D mFFT;
+    private final float[] mSamples;
+    private int mSamplesPointer;
+    private long mBlockIndex;
+    private volatile long mCenterFrequency;
+
+    /**
+     * Constructs an instance
+     * @param sampleRate of the incoming sample stream
+     * @param centerFrequency of the incoming sample stream
+     */
+    public FastConvolutionChannelizer(double sampleRate, long centerFrequency)
+    {
+        mSampleRate = sampleRate;
+        mCenterFrequency = centerFrequency;
+        mFFTSize = getFFTSize(sampleRate);
+        mOverlap = getOverlap(mFFTSize);
+        mFFT = new FloatFFT_1D(mFFTSize);
+        mSamples = new float[mFFTSize * 2];
+        mSamplesPointer = mOverlap * 2;
+    }
+
+    /**
+     * Calculates the FFT size for the sample rate as the smallest power of two that provides a bin width no larger
+     * than the maximum bin width.
+     * @param sampleRate of the incoming sample stream
+     * @return FFT size
+     */
+    public static int getFFTSize(double sampleRate)
+    {
+        int fftSize = MINIMUM_FFT_SIZE;
+
+        while(sampleRate / fftSize > MAXIMUM_BIN_WIDTH)
+        {
+            fftSize *= 2;
+        }
+
+        return fftSize;
+    }
+
+    /**
+     * Number of samples that each block overlaps the previous block.  This is also the maximum channel filter length
+     * minus one.
+     * @param fftSize of the channelizer
+     * @return overlap sample count
+     */
+    public static int getOverlap(int fftSize)
+    {
+        return fftSize / 4;
+    }
+
+    /**
+     * Sample rate of the incoming sample stream
+     */
+    public double getSampleRate()
+    {
+        return mSampleRate;
+    }
+
+    /**
+     * Forward FFT size
+     */
+    public int getFFTSize()
+    {
+        return mFFTSize;
+    }
+
+    /**
+     * Updates the center frequency of the incoming sample stream.  Subsequent blocks will be labeled with this center
+     * frequency so that channels can update their bin selection and filters.
+     * @param centerFrequency in hertz
+     */
+    public void setCenterFrequency(long centerFrequency)
+    {
+        mCenterFrequency = centerFrequency;
+    }
+
+    /**
+     * Adds the listener to receive channelizer blocks.
+     */
+    public void addListener(Listener<FastConvolutionBlock> listener)
+    {
+        mListeners.add(listener);
+    }
+
+    /**
+     * Removes the listener from receiving channelizer blocks.
+     */
+    public void removeListener(Listener<FastConvolutionBlock> listener)
+    {
+        mListeners.remove(listener);
+    }
+
+    /**
+     * Number of registered listeners (channels).
+     */
+    public int getListenerCount()
+    {
+        return mListeners.size();
+    }
+
+    @Override
+    public void receive(InterleavedComplexSamples complexSamples)
+    {
+        float[] samples = complexSamples.samples();
+        int samplesPointer = 0;
+
+        while(samplesPointer < samples.length)
+        {
+            int samplesToCopy = Math.min(mSamples.length - mSamplesPointer, samples.length - samplesPointer);
+            System.arraycopy(samples, samplesPointer, mSamples, mSamplesPointer, samplesToCopy);
+            mSamplesPointer += samplesToCopy;
+            samplesPointer += samplesToCopy;
+
+            if(mSamplesPointer >= mSamples.length)
+            {
+                float[] spectrum = Arrays.copyOf(mSamples, mSamples.length);
+                mFFT.complexForward(spectrum);
+
+                FastConvolutionBlock block = new FastConvolutionBlock(spectrum, mBlockIndex++, mCenterFrequency,
+                        complexSamples.timestamp());
+
+                for(Listener<FastConvolutionBlock> listener: mListeners)
+                {
+                    listener.receive(block);
+                }
+
+                //Move the overlap samples from the end of the buffer to the beginning for the next block
+                System.arraycopy(mSamples, mSamples.length - (mOverlap * 2), mSamples, 0, mOverlap * 2);
+                mSamplesPointer = mOverlap * 2;
+            }
+        }
+    }
+}
@@ -24,6 +24,7 @@ import io.github.dsheirer.controller.channel.event.ChannelStopProcessingRequest;
 import io.github.dsheirer.dsp.filter.design.FilterDesignException;
 import io.github.dsheirer.eventbus.MyEventBus;
 import io.github.dsheirer.log.LoggingSuppressor;
+import io.github.dsheirer.metrics.ChannelizerMetrics;
 import io.github.dsheirer.sample.Broadcaster;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.sample.complex.InterleavedComplexSamples;
@@ -83,6 +84,7 @@ public class PolyphaseChannelManager implements ISourceEventProcessor
     private Dispatcher mBufferDispatcher;
     private Map<Integer,float[]> mOutputProcessorFilters = new HashMap<>();
     private boolean mRunning = true;
+    private ChannelizerMetrics mChannelizerMetrics = new ChannelizerMetrics("polyphase");
 
     /**
      * Creates a polyphase channel manager instance.
@@ -124,6 +126,15 @@ public class PolyphaseChannelManager implements ISourceEventProcessor
         this(tunerController, tunerController.getFrequency(), tunerController.getSampleRate());
     }
 
+    /**
+     * Tuner label for the runtime metrics
+     */
+    private String getMetricsTunerLabel()
+    {
+        return mNativeBufferProvider instanceof TunerController tunerController ?
+            tunerController.getTunerType().getLabel() : mNativeBufferProvider.getClass().getSimpleName();
+    }
+
     /**
      * Provides a description of the state of this manager.
      */
@@ -147,6 +158,8 @@ public class PolyphaseChannelManager implements ISourceEventProcessor
             sb.append(" REQUESTED CF: ").append(FREQUENCY_FORMAT.format(requestedCenterFrequency / 1E6d));
             sb.append(" MIXER:").append(FREQUENCY_FORMAT.format(appliedFrequencyOffset / 1E6d));
             sb.append(" | Polyphase Indices: ").append(indexes);
+            sb.append(" | Queue Depth: ").append(pcs.getQueueDepth());
+            sb.append(" Service Time (ms): ").append(String.format("%.3f", pcs.getAverageServiceTime()));
         }
 
         return sb.toString();
@@ -232,6 +245,8 @@ public class PolyphaseChannelManager implements ISourceEventProcessor
             //If this is the first channel, register to start the sample buffers flowing
             if(mPolyphaseChannelizer.getRegisteredChannelCount() == 1)
             {
+                mChannelizerMetrics.register(getMetricsTunerLabel(), mBufferDispatcher::getQueueSize,
+                    this::getTunerChannelCount);
                 mNativeBufferProvider.addBufferListener(mBufferDispatcher);
                 mPolyphaseChannelizer.start();
                 mBufferDispatcher.start();
@@ -259,6 +274,7 @@ public class PolyphaseChannelManager implements ISourceEventProcessor
                 mNativeBufferProvider.removeBufferListener(mBufferDispatcher);
                 mBufferDispatcher.stop();
                 mPolyphaseChannelizer.stop();
+                mChannelizerMetrics.remove();
             }
         }
 
@@ -505,6 +521,7 @@ public class PolyphaseChannelManager implements ISourceEventProcessor
 
             if(mPolyphaseChannelizer != null)
             {
+                long start = System.nanoTime();
                 Iterator<InterleavedComplexSamples> iterator = nativeBuffer.iteratorInterleaved();
 
                 while(iterator.hasNext())
@@ -518,6 +535,8 @@ public class PolyphaseChannelManager implements ISourceEventProcessor
                         mLog.error("Error", throwable);
                     }
                 }
+
+                mChannelizerMetrics.record(start, nativeBuffer.sampleCount());
             }
         }
     }
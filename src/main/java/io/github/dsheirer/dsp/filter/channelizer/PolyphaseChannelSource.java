@@ -74,6 +74,23 @@ public class PolyphaseChannelSource extends TunerChannelSource implements Listen
         return mPolyphaseChannelOutputProcessor.getStateDescription();
     }
 
+    /**
+     * Number of channel results buffers queued for processing by the output processor.
+     */
+    public int getQueueDepth()
+    {
+        return mPolyphaseChannelOutputProcessor.getQueueDepth();
+    }
+
+    /**
+     * Average time for the output processor and downstream consumers to process a channel results buffer.
+     * @return average service time in milliseconds.
+     */
+    public double getAverageServiceTime()
+    {
+        return mPolyphaseChannelOutputProcessor.getAverageServiceTime();
+    }
+
     /**
      * Current output processor indexes.
      * @return indexes
@@ -21,7 +21,7 @@ package io.github.dsheirer.dsp.filter.channelizer.output;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.sample.complex.ComplexSamples;
 import io.github.dsheirer.source.heartbeat.HeartbeatManager;
-import io.github.dsheirer.util.Dispatcher;
+import io.github.dsheirer.util.ChannelDispatcher;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,7 +30,7 @@ public abstract class ChannelOutputProcessor implements IPolyphaseChannelOutputP
 {
     private final static Logger mLog = LoggerFactory.getLogger(ChannelOutputProcessor.class);
 
-    private Dispatcher<List<float[]>> mChannelResultsDispatcher;
+    private ChannelDispatcher<List<float[]>> mChannelResultsDispatcher;
     private HeartbeatManager mHeartbeatManager;
     protected Listener<ComplexSamples> mComplexSamplesListener;
     private int mInputChannelCount;
@@ -44,13 +44,15 @@ public abstract class ChannelOutputProcessor implements IPolyphaseChannelOutputP
      * @param sampleRate of the output channel.  This is used to match the oscillator's sample rate to the output
      * channel sample rate for frequency translation/correction.
      * @param heartbeatManager to receive pings on the dispatcher thread
+     *
+     * Channel results are processed on the shared channel execution engine as soon as they arrive, in order.
      */
     public ChannelOutputProcessor(int inputChannelCount, double sampleRate, HeartbeatManager heartbeatManager)
     {
         mInputChannelCount = inputChannelCount;
-        //Process 1/10th of the sample rate per second at a rate of 20 times a second (200% of anticipated rate)
         mHeartbeatManager = heartbeatManager;
-        mChannelResultsDispatcher = new Dispatcher("sdrtrunk polyphase channel",50, mHeartbeatManager);
+        //Heartbeat at the same 50 ms interval previously used by the polling dispatcher
+        mChannelResultsDispatcher = new ChannelDispatcher<>("Polyphase Channel", 50, mHeartbeatManager);
         mChannelResultsDispatcher.setListener(floats -> {
             try
             {
@@ -72,6 +74,18 @@ public abstract class ChannelOutputProcessor implements IPolyphaseChannelOutputP
         return mCurrentSampleTimestamp;
     }
 
+    @Override
+    public int getQueueDepth()
+    {
+        return mChannelResultsDispatcher.getQueueDepth();
+    }
+
+    @Override
+    public double getAverageServiceTime()
+    {
+        return mChannelResultsDispatcher.getAverageServiceTime();
+    }
+
     @Override
     public void start()
     {
@@ -106,8 +120,8 @@ public abstract class ChannelOutputProcessor implements IPolyphaseChannelOutputP
     @Override
     public void receiveChannelResults(List<float[]> channelResultsList, long timestamp)
     {
-        mChannelResultsDispatcher.receive(channelResultsList);
         mCurrentSampleTimestamp = timestamp;
+        mChannelResultsDispatcher.receive(channelResultsList);
     }
 
     /**
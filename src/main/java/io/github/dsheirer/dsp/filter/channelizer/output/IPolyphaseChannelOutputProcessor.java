@@ -29,6 +29,17 @@ public interface IPolyphaseChannelOutputProcessor
      */
     String getStateDescription();
 
+    /**
+     * Number of channel results buffers currently queued for processing.
+     */
+    int getQueueDepth();
+
+    /**
+     * Average time to process a channel results buffer, including downstream sample consumers.
+     * @return average service time in milliseconds.
+     */
+    double getAverageServiceTime();
+
     /**
      * Start processing channel results
      */
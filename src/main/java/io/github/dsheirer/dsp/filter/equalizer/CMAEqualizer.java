@@ -1,102 +1,200 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
 package io.github.dsheirer.dsp.filter.equalizer;
 
-import io.github.dsheirer.sample.Listener;
-import io.github.dsheirer.sample.complex.Complex;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import io.github.dsheirer.sample.complex.ComplexSamples;
+import java.util.Arrays;
 
-public class CMAEqualizer implements Listener<Complex>
+/**
+ * Constant Modulus Algorithm (CMA) blind adaptive equalizer for complex samples.
+ *
+ * The equalizer processes sample buffers in blocks.  Each buffer is appended to the trailing (tap count - 1) samples
+ * of the previous buffer in a linear working buffer so that the filter and the tap update for each sample operate on
+ * a contiguous span of samples, with no circular indexing.  Taps are stored in reverse order so that tap array
+ * index x multiplies the working buffer sample at offset (n + x) for output sample n.  Implementations can request a
+ * tap array that is longer than the tap count, in which case the leading (unused) entries of the tap array are
+ * zero-valued padding and the working buffer carries a correspondingly longer history.
+ *
+ * The taps are adapted after every sample:
+ *
+ *   error = output * (|output|^2 - modulus), clipped to +/- 1.0 per component
+ *   tap[k] -= mu * conjugate(sample[n - k]) * error
+ *
+ * Sub-class implementations provide the per-block filter and tap update.  Use the CMAEqualizerFactory to obtain the
+ * optimal implementation for this hardware.
+ */
+public abstract class CMAEqualizer
 {
-	private final static Logger mLog = LoggerFactory.getLogger( CMAEqualizer.class );
-
-	public static final int TAP_COUNT = 11;
-	
-	private float mModulus;
-	private float mMu;
-	private Complex mError = new Complex( 0.0f, 0.0f );
-	
-	private Complex[] mTaps = new Complex[ TAP_COUNT ];
-	private Complex[] mBuffer = new Complex[ TAP_COUNT ];
-	
-	private int mBufferPointer = 0;
-	
-	private Listener<Complex> mListener;
-	
-	public CMAEqualizer( float modulus, float mu )
-	{
-		mModulus = modulus;
-		mMu = mu;
-
-		/* Set first tap to 1,0 and all other taps to 0,0 as a starting point.
-		 * This means that the output is solely determined by the last sample
-		 * entering the filter, initially. */
-		mTaps[ 0 ] = new Complex( 1.0f, 0.0f );
-		
-		for( int x = 1; x < TAP_COUNT; x++ )
-		{
-			mTaps[ x ] = new Complex( 0.0f, 0.0f );
-			mBuffer[ x ] = new Complex( 0.0f, 0.0f );
-		}
-	}
-	
-	private void updateTaps( Complex sample )
-	{
-		/* Calculate the error.  The ideal sample magnitude is unity (1.0).
-		 * When the sample is not at unity, the error vector points in the
-		 * opposite direction with a magnitude equal to 1 - sample magnitude.*/
-		mError = Complex.multiply( sample, sample.norm() - mModulus );
-
-		/* Ensure we don't exceed unity */
-		mError.clip( 1.0f );
-
-		for( int x = 0; x < TAP_COUNT; x++ )
-		{
-			// tap -= mu * conj(sample) * error
-			
-			mTaps[ x ] = Complex.subtract( mTaps[ x ], 
-					 Complex.multiply( Complex.multiply( 
-							 mBuffer[ x ].conjugate(), mError ), mMu ) );
-		}
-	}
-	
-	@Override
-	public void receive( Complex sample )
-	{
-		mBuffer[ mBufferPointer ] = sample;
-		
-		mBufferPointer++;
-		
-		mBufferPointer = mBufferPointer % TAP_COUNT;
-		
-		Complex equalized = filter();
-		
-		updateTaps( equalized );
-
-		if( mListener != null )
-		{
-			mListener.receive( equalized );
-		}
-		
-		mLog.debug( "Tap 0:" + mTaps[ 0 ].toString() + " error:" + mError.toString() );
-	}
-	
-	private Complex filter()
-	{
-		Complex sum = new Complex( 0.0f, 0.0f );
-		
-		for( int x = 0; x < TAP_COUNT; x++ )
-		{
-			sum = Complex.add( sum, Complex.multiply( 
-				mBuffer[ ( x + mBufferPointer ) % TAP_COUNT ], 
-				mTaps[ TAP_COUNT - x - 1 ] ) );
-		}
-
-		return sum;
-	}
-	
-	public void setListener( Listener<Complex> listener )
-	{
-		mListener = listener;
-	}
-	
+    public static final int DEFAULT_TAP_COUNT = 11;
+
+    protected final int mTapCount;
+    protected final int mTapArrayLength;
+    protected final float mModulus;
+    protected final float mMu;
+    protected float[] mTapsI;
+    protected float[] mTapsQ;
+    protected float[] mBufferI;
+    protected float[] mBufferQ;
+
+    /**
+     * Constructs an instance
+     * @param tapCount number of equalizer taps
+     * @param modulus target squared magnitude of the equalized samples
+     * @param mu adaptation step size
+     */
+    public CMAEqualizer(int tapCount, float modulus, float mu)
+    {
+        this(tapCount, tapCount, modulus, mu);
+    }
+
+    /**
+     * Constructs an instance with a padded tap array
+     * @param tapCount number of equalizer taps
+     * @param tapArrayLength length of the tap arrays, equal to or larger than the tap count
+     * @param modulus target squared magnitude of the equalized samples
+     * @param mu adaptation step size
+     */
+    protected CMAEqualizer(int tapCount, int tapArrayLength, float modulus, float mu)
+    {
+        if(tapCount < 1)
+        {
+            throw new IllegalArgumentException("Tap count must be a positive value");
+        }
+
+        if(tapArrayLength < tapCount)
+        {
+            throw new IllegalArgumentException("Tap array length must be equal to or larger than the tap count");
+        }
+
+        mTapCount = tapCount;
+        mTapArrayLength = tapArrayLength;
+        mModulus = modulus;
+        mMu = mu;
+        mTapsI = new float[tapArrayLength];
+        mTapsQ = new float[tapArrayLength];
+        mBufferI = new float[tapArrayLength - 1];
+        mBufferQ = new float[tapArrayLength - 1];
+        reset();
+    }
+
+    /**
+     * Resets the taps so that the output is solely determined by the most recent sample entering the filter and
+     * clears the sample history.
+     */
+    public void reset()
+    {
+        Arrays.fill(mTapsI, 0.0f);
+        Arrays.fill(mTapsQ, 0.0f);
+        mTapsI[mTapArrayLength - 1] = 1.0f;
+        Arrays.fill(mBufferI, 0.0f);
+        Arrays.fill(mBufferQ, 0.0f);
+    }
+
+    /**
+     * Number of equalizer taps
+     */
+    public int getTapCount()
+    {
+        return mTapCount;
+    }
+
+    /**
+     * Copy of the current taps as interleaved complex values where index 0 is the tap applied to the most recent
+     * sample.
+     */
+    public float[] getTaps()
+    {
+        float[] taps = new float[mTapCount * 2];
+
+        for(int x = 0; x < mTapCount; x++)
+        {
+            taps[2 * x] = mTapsI[mTapArrayLength - x - 1];
+            taps[2 * x + 1] = mTapsQ[mTapArrayLength - x - 1];
+        }
+
+        return taps;
+    }
+
+    /**
+     * Equalizes the complex samples.
+     * @param samples to equalize
+     * @return equalized samples
+     */
+    public ComplexSamples equalize(ComplexSamples samples)
+    {
+        return equalize(samples.i(), samples.q(), samples.timestamp());
+    }
+
+    /**
+     * Equalizes the complex samples.  The sample arrays are not modified.
+     * @param i samples to equalize
+     * @param q samples to equalize
+     * @param timestamp of the first sample
+     * @return equalized samples
+     */
+    public ComplexSamples equalize(float[] i, float[] q, long timestamp)
+    {
+        int history = mTapArrayLength - 1;
+        int length = history + i.length;
+
+        if(mBufferI.length != length)
+        {
+            //History from the previous buffer is preserved at the front of the resized working buffer
+            mBufferI = Arrays.copyOf(mBufferI, length);
+            mBufferQ = Arrays.copyOf(mBufferQ, length);
+        }
+
+        System.arraycopy(i, 0, mBufferI, history, i.length);
+        System.arraycopy(q, 0, mBufferQ, history, q.length);
+
+        float[] equalizedI = new float[i.length];
+        float[] equalizedQ = new float[q.length];
+
+        equalize(equalizedI, equalizedQ);
+
+        System.arraycopy(mBufferI, i.length, mBufferI, 0, history);
+        System.arraycopy(mBufferQ, i.length, mBufferQ, 0, history);
+
+        return new ComplexSamples(equalizedI, equalizedQ, timestamp);
+    }
+
+    /**
+     * Filters the working buffer and adapts the taps after each output sample.
+     * @param equalizedI array to receive the equalized inphase samples, sized to the current block length
+     * @param equalizedQ array to receive the equalized quadrature samples, sized to the current block length
+     */
+    protected abstract void equalize(float[] equalizedI, float[] equalizedQ);
+
+    /**
+     * Clips the error value to the range +/- 1.0
+     */
+    protected static float clip(float value)
+    {
+        if(value > 1.0f)
+        {
+            return 1.0f;
+        }
+        else if(value < -1.0f)
+        {
+            return -1.0f;
+        }
+
+        return value;
+    }
 }
@@ -0,0 +1,74 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.filter.equalizer;
+
+import io.github.dsheirer.vector.calibrate.CalibrationManager;
+import io.github.dsheirer.vector.calibrate.CalibrationType;
+import io.github.dsheirer.vector.calibrate.Implementation;
+
+/**
+ * Factory for selecting and creating the optimal implementation of the CMA equalizer for this hardware.
+ *
+ * Note: the equalizer calibrations are not registered with the Calibration Manager until a decoder uses the equalizer,
+ * so that they don't add to the start-up calibration time.  Until then, the factory creates the scalar implementation.
+ */
+public class CMAEqualizerFactory
+{
+    /**
+     * Equalizers with at least this many taps use the long equalizer calibration.  The vector implementation has a
+     * fixed per-block cost that only pays off once the tap count fills more of the vector lanes, so short and long
+     * equalizers are calibrated separately.
+     */
+    public static final int LONG_TAP_COUNT = 16;
+
+    /**
+     * Instantiates the optimal CMA equalizer implementation for this hardware and tap count, as determined by the
+     * Calibration Manager.
+     * @param tapCount number of equalizer taps
+     * @param modulus target squared magnitude of the equalized samples
+     * @param mu adaptation step size
+     */
+    public static CMAEqualizer getEqualizer(int tapCount, float modulus, float mu)
+    {
+        CalibrationType type = tapCount < LONG_TAP_COUNT ? CalibrationType.EQUALIZER_CMA_SHORT :
+            CalibrationType.EQUALIZER_CMA_LONG;
+        Implementation implementation = CalibrationManager.getInstance().getImplementation(type);
+
+        switch(implementation)
+        {
+            case VECTOR_SIMD_PREFERRED:
+            {
+                return new VectorCMAEqualizer(tapCount, modulus, mu);
+            }
+            case SCALAR:
+            default:
+                return new ScalarCMAEqualizer(tapCount, modulus, mu);
+        }
+    }
+
+    /**
+     * Instantiates the optimal CMA equalizer implementation with the default tap count.
+     * @param modulus target squared magnitude of the equalized samples
+     * @param mu adaptation step size
+     */
+    public static CMAEqualizer getEqualizer(float modulus, float mu)
+    {
+        return getEqualizer(CMAEqualizer.DEFAULT_TAP_COUNT, modulus, mu);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.filter.equalizer;
+
+/**
+ * Scalar implementation of the CMA equalizer
+ */
+public class ScalarCMAEqualizer extends CMAEqualizer
+{
+    /**
+     * Constructs an instance
+     * @param tapCount number of equalizer taps
+     * @param modulus target squared magnitude of the equalized samples
+     * @param mu adaptation step size
+     */
+    public ScalarCMAEqualizer(int tapCount, float modulus, float mu)
+    {
+        super(tapCount, modulus, mu);
+    }
+
+    @Override
+    protected void equalize(float[] equalizedI, float[] equalizedQ)
+    {
+        float accumulatorI, accumulatorQ, scale, errorI, errorQ, sampleI, sampleQ;
+
+        for(int n = 0; n < equalizedI.length; n++)
+        {
+            accumulatorI = 0.0f;
+            accumulatorQ = 0.0f;
+
+            for(int x = 0; x < mTapCount; x++)
+            {
+                sampleI = mBufferI[n + x];
+                sampleQ = mBufferQ[n + x];
+                accumulatorI += (mTapsI[x] * sampleI) - (mTapsQ[x] * sampleQ);
+                accumulatorQ += (mTapsI[x] * sampleQ) + (mTapsQ[x] * sampleI);
+            }
+
+            equalizedI[n] = accumulatorI;
+            equalizedQ[n] = accumulatorQ;
+
+            scale = (accumulatorI * accumulatorI) + (accumulatorQ * accumulatorQ) - mModulus;
+            errorI = clip(accumulatorI * scale) * mMu;
+            errorQ = clip(accumulatorQ * scale) * mMu;
+
+            //tap -= mu * conjugate(sample) * error
+            for(int x = 0; x < mTapCount; x++)
+            {
+                sampleI = mBufferI[n + x];
+                sampleQ = mBufferQ[n + x];
+                mTapsI[x] -= (sampleI * errorI) + (sampleQ * errorQ);
+                mTapsQ[x] -= (sampleI * errorQ) - (sampleQ * errorI);
+            }
+        }
+    }
+}
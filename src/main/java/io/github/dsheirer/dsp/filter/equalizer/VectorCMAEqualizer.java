@@ -0,0 +1,119 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.filter.equalizer;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector implementation of the CMA equalizer that uses JDK 17+ SIMD instructions.
+ *
+ * The filter accumulates across the taps in SIMD lanes and the tap update is applied across the taps in SIMD lanes.
+ * The tap arrays are padded at the front to a multiple of the SIMD lane width so that no masked operations are needed.
+ * The padding taps are zero-valued and they contribute nothing to the filter output.  A lane-enable vector keeps the
+ * tap update from modifying the padding taps.
+ */
+public class VectorCMAEqualizer extends CMAEqualizer
+{
+    private static final VectorSpecies<Float> VECTOR_SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    private final FloatVector mFirstChunkEnable;
+
+    /**
+     * Constructs an instance
+     * @param tapCount number of equalizer taps
+     * @param modulus target squared magnitude of the equalized samples
+     * @param mu adaptation step size
+     */
+    public VectorCMAEqualizer(int tapCount, float modulus, float mu)
+    {
+        super(tapCount, getTapArrayLength(tapCount), modulus, mu);
+
+        float[] enable = new float[VECTOR_SPECIES.length()];
+
+        for(int x = mTapArrayLength - mTapCount; x < enable.length; x++)
+        {
+            enable[x] = 1.0f;
+        }
+
+        mFirstChunkEnable = FloatVector.fromArray(VECTOR_SPECIES, enable, 0);
+    }
+
+    /**
+     * Tap count rounded up to a multiple of the SIMD lane width
+     */
+    private static int getTapArrayLength(int tapCount)
+    {
+        int lanes = VECTOR_SPECIES.length();
+        return ((tapCount + lanes - 1) / lanes) * lanes;
+    }
+
+    @Override
+    protected void equalize(float[] equalizedI, float[] equalizedQ)
+    {
+        FloatVector tapI, tapQ, sampleI, sampleQ, accumulatorI, accumulatorQ, errorVectorI, errorVectorQ;
+        float outputI, outputQ, scale, errorI, errorQ;
+
+        for(int n = 0; n < equalizedI.length; n++)
+        {
+            accumulatorI = FloatVector.zero(VECTOR_SPECIES);
+            accumulatorQ = FloatVector.zero(VECTOR_SPECIES);
+
+            for(int x = 0; x < mTapArrayLength; x += VECTOR_SPECIES.length())
+            {
+                tapI = FloatVector.fromArray(VECTOR_SPECIES, mTapsI, x);
+                tapQ = FloatVector.fromArray(VECTOR_SPECIES, mTapsQ, x);
+                sampleI = FloatVector.fromArray(VECTOR_SPECIES, mBufferI, n + x);
+                sampleQ = FloatVector.fromArray(VECTOR_SPECIES, mBufferQ, n + x);
+                accumulatorI = tapI.fma(sampleI, accumulatorI).sub(tapQ.mul(sampleQ));
+                accumulatorQ = tapQ.fma(sampleI, tapI.fma(sampleQ, accumulatorQ));
+            }
+
+            outputI = accumulatorI.reduceLanes(VectorOperators.ADD);
+            outputQ = accumulatorQ.reduceLanes(VectorOperators.ADD);
+            equalizedI[n] = outputI;
+            equalizedQ[n] = outputQ;
+
+            scale = (outputI * outputI) + (outputQ * outputQ) - mModulus;
+            errorI = clip(outputI * scale) * mMu;
+            errorQ = clip(outputQ * scale) * mMu;
+
+            //tap -= mu * conjugate(sample) * error, with the padding taps disabled in the first chunk
+            errorVectorI = mFirstChunkEnable.mul(errorI);
+            errorVectorQ = mFirstChunkEnable.mul(errorQ);
+
+            for(int x = 0; x < mTapArrayLength; x += VECTOR_SPECIES.length())
+            {
+                sampleI = FloatVector.fromArray(VECTOR_SPECIES, mBufferI, n + x);
+                sampleQ = FloatVector.fromArray(VECTOR_SPECIES, mBufferQ, n + x);
+                FloatVector.fromArray(VECTOR_SPECIES, mTapsI, x)
+                        .sub(sampleI.fma(errorVectorI, sampleQ.mul(errorVectorQ))).intoArray(mTapsI, x);
+                FloatVector.fromArray(VECTOR_SPECIES, mTapsQ, x)
+                        .sub(sampleI.fma(errorVectorQ, sampleQ.mul(errorVectorI).neg())).intoArray(mTapsQ, x);
+
+                if(x == 0)
+                {
+                    errorVectorI = FloatVector.broadcast(VECTOR_SPECIES, errorI);
+                    errorVectorQ = FloatVector.broadcast(VECTOR_SPECIES, errorQ);
+                }
+            }
+        }
+    }
+}
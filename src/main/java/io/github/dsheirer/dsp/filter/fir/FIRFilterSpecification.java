@@ -61,6 +61,30 @@ public class FIRFilterSpecification
         return sb.toString();
     }
 
+    /**
+     * Canonical key that uniquely identifies the filter that is designed from this specification.  Two specifications
+     * with the same key produce identical filter taps.  Floating point values are encoded as exact hexadecimal values
+     * so that the key is stable across runs and can be used to cache designed filters.
+     */
+    public String getCacheKey()
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append(mRemezFilterType.name());
+        sb.append(":").append(mOrder);
+        sb.append(":").append(mGridDensity);
+
+        for(FrequencyBand band : mFrequencyBands)
+        {
+            sb.append("|").append(Double.toHexString(band.getStart()));
+            sb.append(":").append(Double.toHexString(band.getEnd()));
+            sb.append(":").append(Double.toHexString(band.getAmplitude()));
+            sb.append(":").append(Double.toHexString(band.getRippleDB()));
+            sb.append(":").append(band.mWeight != null ? Double.toHexString(band.mWeight) : "-");
+        }
+
+        return sb.toString();
+    }
+
     public void addFrequencyBand(FrequencyBand band)
     {
         mFrequencyBands.add(band);
@@ -0,0 +1,339 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.filter.fir;
+
+import io.github.dsheirer.dsp.filter.design.FilterDesignException;
+import io.github.dsheirer.metrics.Counter;
+import io.github.dsheirer.metrics.MetricsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Process-wide cache of designed filter taps.
+ *
+ * Filter designs (e.g. Remez exchange or iterative windowed-sinc channelizer designs) are deterministic for a given
+ * set of design parameters, but can be expensive to compute.  Decoders and channelizers that start at the same sample
+ * rate repeatedly request identical filters, so the designed taps are cached here, keyed by a canonical design key
+ * such as FIRFilterSpecification.getCacheKey().
+ *
+ * The cache is thread-safe.  When several threads request the same design at the same time, only the first thread
+ * designs the filter and the other threads wait for the result.  Callers always receive a copy of the cached taps.
+ *
+ * The cache can optionally be loaded from and saved to disk so that filter designs are skipped on subsequent runs.
+ */
+public class FIRFilterTapCache
+{
+    private static final Logger mLog = LoggerFactory.getLogger(FIRFilterTapCache.class);
+
+    /**
+     * Default file name for the persisted cache
+     */
+    public static final String CACHE_FILE_NAME = "filter_tap_cache.bin";
+
+    /**
+     * File format identifier.  Increment the version whenever a filter designer changes the taps that it produces
+     * so that persisted designs from a previous version are discarded.
+     */
+    private static final int MAGIC = 0x46544331; //FTC1
+    private static final int VERSION = 1;
+    private static final String REMEZ_PREFIX = "remez|";
+
+    private static final Map<String,Entry> CACHE = new ConcurrentHashMap<>();
+    private static final Counter HITS = MetricsRegistry.counter("filter_design_cache_total",
+        "Filter design cache lookups", "result", "hit");
+    private static final Counter MISSES = MetricsRegistry.counter("filter_design_cache_total",
+        "Filter design cache lookups", "result", "miss");
+
+    /**
+     * Designer for filter taps that are not already cached.
+     */
+    public interface IFilterDesigner
+    {
+        /**
+         * Designs the filter.
+         * @return filter taps or null if the filter cannot be designed
+         * @throws FilterDesignException if the filter cannot be designed
+         */
+        float[] design() throws FilterDesignException;
+    }
+
+    private FIRFilterTapCache()
+    {
+    }
+
+    /**
+     * Returns the taps for a Remez filter designed from the specification, designing and caching the filter when it
+     * is not already cached.
+     *
+     * @param specification of the filter
+     * @param designer to design the filter when it's not cached
+     * @return copy of the filter taps or null if the filter cannot be designed
+     * @throws FilterDesignException if the filter cannot be designed
+     */
+    public static float[] getTaps(FIRFilterSpecification specification, IFilterDesigner designer)
+        throws FilterDesignException
+    {
+        return getTaps(REMEZ_PREFIX + specification.getCacheKey(), designer);
+    }
+
+    /**
+     * Returns the taps for the design key, designing and caching the filter when it is not already cached.  Failed
+     * designs are not cached.
+     *
+     * @param key that uniquely identifies the filter design, including the design method and all design parameters
+     * @param designer to design the filter when it's not cached
+     * @return copy of the filter taps or null if the filter cannot be designed
+     * @throws FilterDesignException if the filter cannot be designed
+     */
+    public static float[] getTaps(String key, IFilterDesigner designer) throws FilterDesignException
+    {
+        Entry entry = CACHE.get(key);
+
+        if(entry == null)
+        {
+            Entry created = new Entry();
+            entry = CACHE.putIfAbsent(key, created);
+
+            if(entry == null)
+            {
+                MISSES.increment();
+                float[] taps = null;
+
+                try
+                {
+                    long start = System.currentTimeMillis();
+                    taps = designer.design();
+
+                    if(taps != null)
+                    {
+                        mLog.debug("Designed filter with [" + taps.length + "] taps in " +
+                            (System.currentTimeMillis() - start) + " ms");
+                    }
+                }
+                finally
+                {
+                    if(taps == null)
+                    {
+                        CACHE.remove(key, created);
+                    }
+
+                    created.complete(taps);
+                }
+
+                //Return a copy - the caller may modify the taps (e.g. normalize) and the cached array must not change
+                return taps != null ? taps.clone() : null;
+            }
+        }
+
+        HITS.increment();
+        float[] taps = entry.getTaps();
+
+        //A concurrent design of this filter failed - design it independently so that the error surfaces here
+        if(taps == null)
+        {
+            return designer.design();
+        }
+
+        return taps.clone();
+    }
+
+    /**
+     * Number of cached filter designs
+     */
+    public static int size()
+    {
+        return CACHE.size();
+    }
+
+    /**
+     * Removes all cached filter designs
+     */
+    public static void clear()
+    {
+        CACHE.clear();
+    }
+
+    /**
+     * Loads persisted filter designs from the file, when it exists.  Files written by a different cache version are
+     * ignored.
+     * @param path to the cache file
+     */
+    public static void load(Path path)
+    {
+        if(path == null || !Files.exists(path))
+        {
+            return;
+        }
+
+        int count = 0;
+
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path))))
+        {
+            if(in.readInt() != MAGIC || in.readInt() != VERSION)
+            {
+                mLog.info("Ignoring filter design cache [" + path + "] from a different version");
+                return;
+            }
+
+            try
+            {
+                while(true)
+                {
+                    String key = in.readUTF();
+                    int length = in.readInt();
+
+                    if(length < 0)
+                    {
+                        throw new IOException("Invalid filter length [" + length + "]");
+                    }
+
+                    float[] taps = new float[length];
+
+                    for(int x = 0; x < length; x++)
+                    {
+                        taps[x] = in.readFloat();
+                    }
+
+                    Entry entry = new Entry();
+                    entry.complete(taps);
+
+                    if(CACHE.putIfAbsent(key, entry) == null)
+                    {
+                        count++;
+                    }
+                }
+            }
+            catch(EOFException eofe)
+            {
+                //End of file - normal
+            }
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error loading filter design cache [" + path + "]", ioe);
+        }
+
+        mLog.info("Loaded [" + count + "] filter designs from cache [" + path + "]");
+    }
+
+    /**
+     * Saves the cached filter designs to the file.  The file is written to a temporary file first and then moved to
+     * replace any existing file.
+     * @param path to the cache file
+     */
+    public static void save(Path path)
+    {
+        if(path == null)
+        {
+            return;
+        }
+
+        Path temp = path.resolveSibling(path.getFileName().toString() + ".tmp");
+        int count = 0;
+
+        try
+        {
+            try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp))))
+            {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+
+                for(Map.Entry<String,Entry> mapEntry : CACHE.entrySet())
+                {
+                    float[] taps = mapEntry.getValue().getCompletedTaps();
+
+                    if(taps != null)
+                    {
+                        out.writeUTF(mapEntry.getKey());
+                        out.writeInt(taps.length);
+
+                        for(float tap : taps)
+                        {
+                            out.writeFloat(tap);
+                        }
+
+                        count++;
+                    }
+                }
+            }
+
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            mLog.info("Saved [" + count + "] filter designs to cache [" + path + "]");
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error saving filter design cache [" + path + "]", ioe);
+        }
+    }
+
+    /**
+     * Cache entry that blocks readers until the filter design completes.
+     */
+    private static class Entry
+    {
+        private final CountDownLatch mLatch = new CountDownLatch(1);
+        private volatile float[] mTaps;
+
+        public void complete(float[] taps)
+        {
+            mTaps = taps;
+            mLatch.countDown();
+        }
+
+        /**
+         * Waits for the design to complete and returns the taps.
+         * @return taps or null if the design failed or the thread was interrupted while waiting
+         */
+        public float[] getTaps()
+        {
+            try
+            {
+                mLatch.await();
+            }
+            catch(InterruptedException ie)
+            {
+                Thread.currentThread().interrupt();
+            }
+
+            return mTaps;
+        }
+
+        /**
+         * Taps for a completed design without waiting.
+         * @return taps or null if the design is still in progress or failed
+         */
+        public float[] getCompletedTaps()
+        {
+            return mLatch.getCount() == 0 ? mTaps : null;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.filter.fir.real;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorSpecies;
+import org.apache.commons.lang3.ArrayUtils;
+
+/**
+ * Finite Impulse Response (FIR) filter that filters several independent channels in lockstep using Project Panama
+ * SIMD instructions available in JDK 17+.
+ *
+ * A single narrowband channel buffer is too short, and a channel filter has too few taps, to fill the wide vector
+ * registers.  This filter instead arranges the samples of up to one vector-length of channels in struct-of-arrays
+ * (channel interleaved) form so that each vector lane holds the same sample index from a different channel.  Each
+ * filter tap is then applied to all channels with a single vector multiply and add.
+ *
+ * Each lane is accumulated in the same order as the scalar RealFIRFilter, so the output for each channel is identical
+ * to filtering that channel with a RealFIRFilter using the same coefficients.
+ *
+ * The filter itself is stateless across calls.  Each channel provides its own filter history array (coefficient
+ * length - 1 samples) which is updated on each call, so that channels can join, leave or skip a lockstep batch.
+ */
+public class LockstepRealFIRFilter
+{
+    private static final VectorSpecies<Float> VECTOR_SPECIES = FloatVector.SPECIES_PREFERRED;
+    private final float[] mCoefficients;
+    private final int mHistoryLength;
+    private float[] mInterleavedSamples = new float[0];
+    private float[] mInterleavedFiltered = new float[0];
+
+    /**
+     * Constructs an instance
+     * @param coefficients - filter coefficients in normal order.  The array is not modified.
+     */
+    public LockstepRealFIRFilter(float[] coefficients)
+    {
+        //Reverse a copy of the coefficients to match the scalar filter implementation
+        mCoefficients = coefficients.clone();
+        ArrayUtils.reverse(mCoefficients);
+        mHistoryLength = mCoefficients.length - 1;
+    }
+
+    /**
+     * Number of channels that are filtered in each vector operation.
+     */
+    public static int getLaneCount()
+    {
+        return VECTOR_SPECIES.length();
+    }
+
+    /**
+     * Creates an empty (zero valued) filter history array for a channel.
+     */
+    public float[] createHistory()
+    {
+        return new float[mHistoryLength];
+    }
+
+    /**
+     * Filters the sample buffers for the specified number of channels.  All sample buffers must have the same length.
+     *
+     * @param samples array of sample buffers, one per channel
+     * @param histories array of filter histories, one per channel, created by createHistory() and updated by this
+     * method
+     * @param filtered array of output buffers, one per channel, to receive the filtered samples.  Each output buffer
+     * must be at least as long as the sample buffers.
+     * @param count of channels to filter from the start of the arrays
+     */
+    public void filter(float[][] samples, float[][] histories, float[][] filtered, int count)
+    {
+        for(int offset = 0; offset < count; offset += VECTOR_SPECIES.length())
+        {
+            filterLanes(samples, histories, filtered, offset, Math.min(VECTOR_SPECIES.length(), count - offset));
+        }
+    }
+
+    /**
+     * Filters up to one vector length of channels.
+     * @param samples for all channels
+     * @param histories for all channels
+     * @param filtered output buffers for all channels
+     * @param offset to the first channel to filter in this pass
+     * @param lanes number of channels to filter in this pass
+     */
+    private void filterLanes(float[][] samples, float[][] histories, float[][] filtered, int offset, int lanes)
+    {
+        int width = VECTOR_SPECIES.length();
+        int length = samples[offset].length;
+        int rows = mHistoryLength + length;
+
+        if(mInterleavedSamples.length != rows * width)
+        {
+            mInterleavedSamples = new float[rows * width];
+            mInterleavedFiltered = new float[length * width];
+        }
+
+        //Note: unused lanes may hold stale samples from a previous pass - lanes are independent and unused lanes are
+        //simply not de-interleaved
+
+        //Interleave each channel's history followed by its samples into the lane for that channel
+        for(int lane = 0; lane < lanes; lane++)
+        {
+            float[] history = histories[offset + lane];
+            float[] channel = samples[offset + lane];
+
+            for(int x = 0; x < mHistoryLength; x++)
+            {
+                mInterleavedSamples[x * width + lane] = history[x];
+            }
+
+            for(int x = 0; x < length; x++)
+            {
+                mInterleavedSamples[(mHistoryLength + x) * width + lane] = channel[x];
+            }
+        }
+
+        FloatVector accumulator;
+
+        for(int x = 0; x < length; x++)
+        {
+            accumulator = FloatVector.zero(VECTOR_SPECIES);
+
+            for(int tap = 0; tap < mCoefficients.length; tap++)
+            {
+                accumulator = accumulator.add(FloatVector.fromArray(VECTOR_SPECIES, mInterleavedSamples,
+                    (x + tap) * width).mul(mCoefficients[tap]));
+            }
+
+            accumulator.intoArray(mInterleavedFiltered, x * width);
+        }
+
+        //De-interleave the filtered samples and retain the final samples as the history for the next buffer
+        for(int lane = 0; lane < lanes; lane++)
+        {
+            float[] output = filtered[offset + lane];
+
+            for(int x = 0; x < length; x++)
+            {
+                output[x] = mInterleavedFiltered[x * width + lane];
+            }
+
+            float[] history = histories[offset + lane];
+
+            for(int x = 0; x < mHistoryLength; x++)
+            {
+                history[x] = mInterleavedSamples[(length + x) * width + lane];
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.filter.subband;
+
+/**
+ * Consumer of a sub-band output from the sub-band decimation tree.  Each tap (ie tuner channel) is assigned to the
+ * deepest (lowest sample rate) sub-band node that fully contains the tap's bandwidth and that still provides a sample
+ * rate equal to or greater than the tap's output sample rate.
+ */
+public interface ISubBandTap
+{
+    /**
+     * Center frequency of the tap.
+     * @return frequency in hertz
+     */
+    long getFrequency();
+
+    /**
+     * Bandwidth of the tap that must fit within the usable bandwidth of the assigned sub-band node.
+     * @return bandwidth in hertz
+     */
+    int getBandwidth();
+
+    /**
+     * Final output sample rate of the tap.  The assigned sub-band node sample rate will be an integer power of two
+     * multiple of this sample rate.
+     * @return sample rate in hertz
+     */
+    double getSampleRate();
+
+    /**
+     * Receives the samples produced by the assigned sub-band node.  Note: this method is invoked on the sub-band
+     * tree processing thread and implementations should only enqueue the samples for processing on another thread.
+     * @param subBandSamples to receive
+     */
+    void receive(SubBandSamples subBandSamples);
+}
@@ -0,0 +1,234 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.filter.subband;
+
+import io.github.dsheirer.buffer.INativeBuffer;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.sample.complex.ComplexSamples;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.LinkedTransferQueue;
+import org.apache.commons.math3.util.FastMath;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shared front-end for heterodyne channel provisioning.  Performs the early (full sample rate) mix and decimate stages
+ * once for each distinct sub-band of the tuner bandwidth, so that channels tap into the tree at an intermediate sample
+ * rate and only perform the final mixing and decimation stages themselves.  Without this tree, each channel mixes and
+ * decimates at the full tuner sample rate and the processing cost grows with channel count times the tuner sample
+ * rate.
+ *
+ * Each tree level halves the sample rate.  Each node offers three overlapping child sub-bands (lower quarter, center
+ * and upper quarter of the node's bandwidth) and a channel is assigned to the deepest node that fully contains the
+ * channel's bandwidth and whose sample rate is no lower than the channel's output sample rate.
+ *
+ * This class is designed to be controlled by the sample producer thread.  Tap add/remove and center frequency change
+ * requests are queued and applied on the producer thread before the next sample buffer is processed.  Taps are
+ * expected to implement a non-blocking receive method so as not to delay the stream of sample buffers.
+ */
+public class SubBandDecimationTree implements Listener<INativeBuffer>
+{
+    private final static Logger mLog = LoggerFactory.getLogger(SubBandDecimationTree.class);
+
+    /**
+     * Maximum tree depth, limiting the tree decimation to 64x.
+     */
+    public static final int MAX_DEPTH = 6;
+
+    private LinkedTransferQueue<ActionRequest> mActionQueue = new LinkedTransferQueue<>();
+    private List<ISubBandTap> mTaps = new ArrayList<>();
+    private SubBandNode mRoot;
+    private long mCenterFrequency;
+
+    /**
+     * Constructs an instance
+     * @param sampleRate of the incoming sample buffers
+     * @param centerFrequency of the incoming sample buffers
+     */
+    public SubBandDecimationTree(double sampleRate, long centerFrequency)
+    {
+        mRoot = new SubBandNode(sampleRate);
+        mCenterFrequency = centerFrequency;
+    }
+
+    /**
+     * Sample rate of the incoming sample buffers
+     */
+    public double getSampleRate()
+    {
+        return mRoot.getSampleRate();
+    }
+
+    /**
+     * Adds the tap to receive samples from the tree.
+     * @param tap to add
+     */
+    public void addTap(ISubBandTap tap)
+    {
+        mActionQueue.add(new ActionRequest(Action.ADD_TAP, tap, 0));
+    }
+
+    /**
+     * Removes the tap from receiving samples from the tree.
+     * @param tap to remove
+     */
+    public void removeTap(ISubBandTap tap)
+    {
+        mActionQueue.add(new ActionRequest(Action.REMOVE_TAP, tap, 0));
+    }
+
+    /**
+     * Updates the center frequency of the incoming sample stream.  Each tap will be reassigned to the sub-band node
+     * that best fits the tap for the new center frequency.
+     * @param centerFrequency in hertz
+     */
+    public void setCenterFrequency(long centerFrequency)
+    {
+        mActionQueue.add(new ActionRequest(Action.FREQUENCY_CHANGE, null, centerFrequency));
+    }
+
+    /**
+     * Processes the native buffer through the tree and distributes sub-band samples to each tap.
+     * @param nativeBuffer to process
+     */
+    @Override
+    public void receive(INativeBuffer nativeBuffer)
+    {
+        processActions();
+
+        if(!mTaps.isEmpty())
+        {
+            Iterator<ComplexSamples> iterator = nativeBuffer.iterator();
+
+            while(iterator.hasNext())
+            {
+                mRoot.process(iterator.next());
+            }
+        }
+    }
+
+    /**
+     * Processes any queued tap or frequency change requests.  Note: this should only be invoked on the sample
+     * producer thread.
+     */
+    private void processActions()
+    {
+        ActionRequest actionRequest = mActionQueue.poll();
+
+        if(actionRequest == null)
+        {
+            return;
+        }
+
+        while(actionRequest != null)
+        {
+            switch(actionRequest.action())
+            {
+                case ADD_TAP:
+                    mTaps.add(actionRequest.tap());
+                    break;
+                case REMOVE_TAP:
+                    mTaps.remove(actionRequest.tap());
+                    break;
+                case FREQUENCY_CHANGE:
+                    mCenterFrequency = actionRequest.frequency();
+                    break;
+            }
+
+            actionRequest = mActionQueue.poll();
+        }
+
+        assignTaps();
+    }
+
+    /**
+     * Assigns each tap to the best sub-band node and prunes any nodes that are no longer needed.
+     */
+    private void assignTaps()
+    {
+        mRoot.clearTaps();
+
+        for(ISubBandTap tap: mTaps)
+        {
+            double channelOffset = tap.getFrequency() - mCenterFrequency;
+            SubBandNode node = getNode(channelOffset, tap.getBandwidth() / 2.0, tap.getSampleRate());
+            node.addTap(tap, node.getOffset() - channelOffset);
+        }
+
+        mRoot.prune();
+    }
+
+    /**
+     * Finds the deepest sub-band node that fully contains the channel and that has a sample rate equal to or greater
+     * than the requested sample rate.  Nodes are created as needed.
+     * @param channelOffset of the channel center frequency from the tuner center frequency
+     * @param halfBandwidth of the channel
+     * @param sampleRate minimum for the node
+     * @return best node
+     */
+    private SubBandNode getNode(double channelOffset, double halfBandwidth, double sampleRate)
+    {
+        SubBandNode node = mRoot;
+
+        while(node.getDepth() < MAX_DEPTH && (node.getSampleRate() / 2.0) >= sampleRate)
+        {
+            double childUsableHalfBandwidth = node.getSampleRate() * SubBandNode.USABLE_BANDWIDTH_RATIO / 4.0;
+            int bestIndex = -1;
+            double bestDistance = Double.MAX_VALUE;
+
+            for(int x = 0; x < SubBandNode.getChildCount(); x++)
+            {
+                double distance = FastMath.abs(channelOffset - node.getChildOffset(x));
+
+                if(distance + halfBandwidth <= childUsableHalfBandwidth && distance < bestDistance)
+                {
+                    bestIndex = x;
+                    bestDistance = distance;
+                }
+            }
+
+            if(bestIndex < 0)
+            {
+                break;
+            }
+
+            node = node.getChild(bestIndex);
+        }
+
+        return node;
+    }
+
+    /**
+     * Description of the current tree state for logging and debug purposes.
+     */
+    public String getStateDescription()
+    {
+        return "Sub-Band Decimation Tree Taps [" + mTaps.size() + "] Active Nodes [" + mRoot.getNodeCount() +
+                "] Sample Rate [" + getSampleRate() + "]";
+    }
+
+    private enum Action{ADD_TAP, REMOVE_TAP, FREQUENCY_CHANGE};
+
+    /**
+     * Request that must be completed on the incoming sample stream thread.
+     */
+    private record ActionRequest(Action action, ISubBandTap tap, long frequency) {}
+}
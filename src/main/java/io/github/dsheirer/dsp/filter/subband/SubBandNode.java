@@ -0,0 +1,295 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.filter.subband;
+
+import io.github.dsheirer.dsp.filter.decimate.IRealDecimationFilter;
+import io.github.dsheirer.dsp.filter.decimate.RealDecimateX2Filter;
+import io.github.dsheirer.dsp.mixer.ComplexMixer;
+import io.github.dsheirer.dsp.mixer.ComplexMixerFactory;
+import io.github.dsheirer.sample.complex.ComplexSamples;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Node in a sub-band decimation tree.  Each node represents a sub-band of the tuner's bandwidth centered at a
+ * frequency offset from the tuner center frequency.  A child node translates one of three overlapping sub-bands of
+ * the parent (lower quarter, center, upper quarter) to baseband and decimates by two.  Overlapping the child sub-bands
+ * ensures that any channel that is narrow enough will fit entirely within at least one child sub-band, regardless of
+ * where it is located in the parent.
+ *
+ * Child nodes are created on demand and are only processed while they have taps or active descendants, so the cost of
+ * the tree is proportional to the number of distinct sub-bands in use rather than the number of channels.
+ *
+ * Note: this class is not thread safe and should only be accessed from the sub-band tree processing thread.
+ */
+public class SubBandNode
+{
+    /**
+     * Ratio of the node sample rate that is usable bandwidth, centered on the node's frequency offset.  The half-band
+     * decimation filter passband extends to approximately 0.45 of the output sample rate, so we use 0.8 to leave a
+     * margin for the transition band.
+     */
+    public static final double USABLE_BANDWIDTH_RATIO = 0.8;
+    private static final int CHILD_COUNT = 3;
+
+    private final double mOffset;
+    private final double mSampleRate;
+    private final int mDepth;
+    private ComplexMixer mMixer;
+    private IRealDecimationFilter mIDecimationFilter;
+    private IRealDecimationFilter mQDecimationFilter;
+    private final SubBandNode[] mChildren = new SubBandNode[CHILD_COUNT];
+    private final List<TapAssignment> mTapAssignments = new ArrayList<>();
+
+    /**
+     * Constructs a root node that processes the full tuner bandwidth without mixing or decimation.
+     * @param sampleRate of the tuner
+     */
+    public SubBandNode(double sampleRate)
+    {
+        mOffset = 0.0;
+        mSampleRate = sampleRate;
+        mDepth = 0;
+    }
+
+    /**
+     * Constructs a child node.
+     * @param parent node
+     * @param shift of the child sub-band center relative to the parent center frequency
+     */
+    private SubBandNode(SubBandNode parent, double shift)
+    {
+        mOffset = parent.getOffset() + shift;
+        mSampleRate = parent.getSampleRate() / 2.0;
+        mDepth = parent.getDepth() + 1;
+
+        //The center child is already at baseband relative to the parent and doesn't need a mixer
+        if(shift != 0.0)
+        {
+            mMixer = ComplexMixerFactory.getMixer(-shift, parent.getSampleRate());
+        }
+
+        mIDecimationFilter = new RealDecimateX2Filter();
+        mQDecimationFilter = new RealDecimateX2Filter();
+    }
+
+    /**
+     * Frequency offset of this sub-band center relative to the tuner center frequency.
+     * @return offset in hertz
+     */
+    public double getOffset()
+    {
+        return mOffset;
+    }
+
+    /**
+     * Sample rate produced by this node.
+     * @return sample rate in hertz
+     */
+    public double getSampleRate()
+    {
+        return mSampleRate;
+    }
+
+    /**
+     * Depth of this node in the tree where the root node is depth 0.
+     */
+    public int getDepth()
+    {
+        return mDepth;
+    }
+
+    /**
+     * Half of the usable bandwidth of this node.
+     * @return half bandwidth in hertz
+     */
+    public double getUsableHalfBandwidth()
+    {
+        return mSampleRate * USABLE_BANDWIDTH_RATIO / 2.0;
+    }
+
+    /**
+     * Frequency offset, relative to the tuner center frequency, of the child at the specified index.
+     * @param index of the child (0=lower, 1=center, 2=upper)
+     * @return child offset in hertz
+     */
+    public double getChildOffset(int index)
+    {
+        return mOffset + getChildShift(index);
+    }
+
+    /**
+     * Shift of the child sub-band center relative to this node's center frequency.
+     */
+    private double getChildShift(int index)
+    {
+        return (index - 1) * mSampleRate / 4.0;
+    }
+
+    /**
+     * Number of children supported by each node.
+     */
+    public static int getChildCount()
+    {
+        return CHILD_COUNT;
+    }
+
+    /**
+     * Access the child node at the specified index, creating it if necessary.
+     * @param index of the child (0=lower, 1=center, 2=upper)
+     * @return child node
+     */
+    public SubBandNode getChild(int index)
+    {
+        if(mChildren[index] == null)
+        {
+            mChildren[index] = new SubBandNode(this, getChildShift(index));
+        }
+
+        return mChildren[index];
+    }
+
+    /**
+     * Assigns the tap to receive samples from this node.
+     * @param tap to receive samples
+     * @param mixerFrequency that the tap should apply to translate the tap center frequency to baseband
+     */
+    public void addTap(ISubBandTap tap, double mixerFrequency)
+    {
+        mTapAssignments.add(new TapAssignment(tap, mixerFrequency));
+    }
+
+    /**
+     * Removes all tap assignments from this node and all descendant nodes.
+     */
+    public void clearTaps()
+    {
+        mTapAssignments.clear();
+
+        for(SubBandNode child: mChildren)
+        {
+            if(child != null)
+            {
+                child.clearTaps();
+            }
+        }
+    }
+
+    /**
+     * Indicates if this node has any tap assignments or any descendant nodes.
+     */
+    public boolean isActive()
+    {
+        if(!mTapAssignments.isEmpty())
+        {
+            return true;
+        }
+
+        for(SubBandNode child: mChildren)
+        {
+            if(child != null)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Removes any descendant nodes that no longer have tap assignments or active descendants.
+     */
+    public void prune()
+    {
+        for(int x = 0; x < CHILD_COUNT; x++)
+        {
+            if(mChildren[x] != null)
+            {
+                mChildren[x].prune();
+
+                if(!mChildren[x].isActive())
+                {
+                    mChildren[x] = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Count of active nodes in this branch of the tree, including this node.
+     */
+    public int getNodeCount()
+    {
+        int count = 1;
+
+        for(SubBandNode child: mChildren)
+        {
+            if(child != null)
+            {
+                count += child.getNodeCount();
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Translates the parent samples for this sub-band to baseband, decimates by two, and processes the result.
+     * @param parentSamples produced by the parent node
+     */
+    private void receive(ComplexSamples parentSamples)
+    {
+        ComplexSamples basebanded = mMixer != null ? mMixer.mix(parentSamples) : parentSamples;
+        float[] i = mIDecimationFilter.decimateReal(basebanded.i());
+        float[] q = mQDecimationFilter.decimateReal(basebanded.q());
+        process(new ComplexSamples(i, q, parentSamples.timestamp()));
+    }
+
+    /**
+     * Distributes the samples produced by this node to each assigned tap and to each of the child nodes.
+     * @param samples produced by this node
+     */
+    public void process(ComplexSamples samples)
+    {
+        for(TapAssignment tapAssignment: mTapAssignments)
+        {
+            tapAssignment.tap().receive(new SubBandSamples(samples, mSampleRate, tapAssignment.mixerFrequency()));
+        }
+
+        for(SubBandNode child: mChildren)
+        {
+            if(child != null)
+            {
+                child.receive(samples);
+            }
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Sub-Band Node Depth:" + mDepth + " Offset:" + mOffset + " Sample Rate:" + mSampleRate +
+                " Taps:" + mTapAssignments.size();
+    }
+
+    /**
+     * Tap assigned to this node with the mixer frequency to baseband the tap's center frequency.
+     */
+    private record TapAssignment(ISubBandTap tap, double mixerFrequency) {}
+}
@@ -0,0 +1,33 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.filter.subband;
+
+import io.github.dsheirer.sample.complex.ComplexSamples;
+
+/**
+ * Complex samples produced by a sub-band node along with the node's sample rate and the mixer frequency that the
+ * receiving tap should apply to translate the tap's center frequency to baseband.
+ *
+ * @param samples produced by the sub-band node
+ * @param sampleRate of the samples
+ * @param mixerFrequency to apply to the samples to center the tap frequency at baseband
+ */
+public record SubBandSamples(ComplexSamples samples, double sampleRate, double mixerFrequency)
+{
+}
@@ -25,4 +25,15 @@ package io.github.dsheirer.dsp.magnitude;
 public interface IMagnitudeCalculator
 {
     float[] calculate(float[] i, float[] q);
+
+    /**
+     * Calculates the scaled power of each complex sample in decibels: 10 * log10((i * i + q * q) * scale) and
+     * places the results in the decibels array, without allocating any intermediate arrays.
+     *
+     * @param i samples
+     * @param q samples
+     * @param scale to apply to each power value before converting to decibels
+     * @param decibels array to receive the results, same length as the sample arrays
+     */
+    void calculateDecibels(float[] i, float[] q, float scale, float[] decibels);
 }
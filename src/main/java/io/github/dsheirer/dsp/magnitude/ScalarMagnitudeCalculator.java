@@ -36,4 +36,13 @@ public class ScalarMagnitudeCalculator implements IMagnitudeCalculator
 
         return magnitude;
     }
+
+    @Override
+    public void calculateDecibels(float[] i, float[] q, float scale, float[] decibels)
+    {
+        for(int x = 0; x < i.length; x++)
+        {
+            decibels[x] = 10.0f * (float)Math.log10(((i[x] * i[x]) + (q[x] * q[x])) * scale);
+        }
+    }
 }
@@ -21,6 +21,7 @@ package io.github.dsheirer.dsp.magnitude;
 
 import io.github.dsheirer.vector.VectorUtilities;
 import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
 import jdk.incubator.vector.VectorSpecies;
 
 /**
@@ -47,4 +48,19 @@ public class VectorMagnitudeCalculator256 implements IMagnitudeCalculator
 
         return magnitude;
     }
+
+    @Override
+    public void calculateDecibels(float[] i, float[] q, float scale, float[] decibels)
+    {
+        VectorUtilities.checkComplexArrayLength(i, q, VECTOR_SPECIES);
+
+        FloatVector iVector, qVector;
+        for(int x = 0; x < i.length; x += VECTOR_SPECIES.length())
+        {
+            iVector = FloatVector.fromArray(VECTOR_SPECIES, i, x);
+            qVector = FloatVector.fromArray(VECTOR_SPECIES, q, x);
+            iVector.mul(iVector).add(qVector.mul(qVector)).mul(scale).lanewise(VectorOperators.LOG10).mul(10.0f)
+                .intoArray(decibels, x);
+        }
+    }
 }
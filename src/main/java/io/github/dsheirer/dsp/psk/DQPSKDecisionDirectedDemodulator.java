@@ -16,10 +16,9 @@
 package io.github.dsheirer.dsp.psk;
 
 import io.github.dsheirer.dsp.psk.pll.IPhaseLockedLoop;
-import io.github.dsheirer.dsp.symbol.Dibit;
 import io.github.dsheirer.sample.complex.Complex;
 
-public class DQPSKDecisionDirectedDemodulator extends PSKDemodulator<Dibit>
+public class DQPSKDecisionDirectedDemodulator extends DQPSKDemodulator
 {
     protected DQPSKDecisionDirectedSymbolEvaluator mSymbolEvaluator = new DQPSKDecisionDirectedSymbolEvaluator();
     private Complex mPreviousPrecedingSample = new Complex(0, 0);
@@ -85,6 +84,6 @@ public class DQPSKDecisionDirectedDemodulator extends PSKDemodulator<Dibit>
         mPreviousPrecedingSample.setValues(mPrecedingSample);
         mPreviousCurrentSample.setValues(mCurrentSample);
 
-        broadcast(mSymbolEvaluator.getSymbolDecision());
+        dispatch(mSymbolEvaluator.getSymbolDecision());
     }
 }
@@ -0,0 +1,83 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.dsp.psk;
+
+import io.github.dsheirer.dsp.psk.pll.IPhaseLockedLoop;
+import io.github.dsheirer.dsp.symbol.Dibit;
+import io.github.dsheirer.dsp.symbol.DibitBuffer;
+import io.github.dsheirer.dsp.symbol.DibitBufferAssembler;
+import io.github.dsheirer.sample.Listener;
+
+/**
+ * Base Differential QPSK demodulator that produces dibit symbol decisions.
+ *
+ * Symbol decisions can be delivered either one at a time to the symbol listener, or as a DibitBuffer block for each
+ * processed sample buffer when a dibit buffer listener is registered.  Block delivery is preferred since it replaces
+ * a listener call per symbol with a single call per sample buffer.
+ */
+public abstract class DQPSKDemodulator extends PSKDemodulator<Dibit>
+{
+    private DibitBufferAssembler mDibitBufferAssembler = new DibitBufferAssembler();
+
+    /**
+     * Constructs an instance
+     * @param interpolatingSampleBuffer to store complex samples and provide access to interpolated samples
+     * @param phaseLockedLoop to track and remove frequency offset in the incoming samples
+     */
+    public DQPSKDemodulator(InterpolatingSampleBuffer interpolatingSampleBuffer, IPhaseLockedLoop phaseLockedLoop)
+    {
+        super(interpolatingSampleBuffer, phaseLockedLoop);
+    }
+
+    /**
+     * Registers the listener to receive a block of dibit symbol decisions for each processed sample buffer.  When a
+     * dibit buffer listener is registered, symbols are no longer sent individually to the symbol listener.
+     * @param listener to receive dibit buffers, or null to revert to per-symbol delivery
+     */
+    public void setDibitBufferListener(Listener<DibitBuffer> listener)
+    {
+        mDibitBufferAssembler.setListener(listener);
+    }
+
+    /**
+     * Dispatches the symbol decision either to the dibit buffer assembler or to the symbol listener.
+     * @param dibit symbol decision
+     */
+    protected void dispatch(Dibit dibit)
+    {
+        if(mDibitBufferAssembler.hasListener())
+        {
+            mDibitBufferAssembler.add(dibit);
+        }
+        else
+        {
+            broadcast(dibit);
+        }
+    }
+
+    /**
+     * Dispatches accumulated symbol decisions once the sample buffer has been processed.
+     */
+    @Override
+    protected void samplesProcessed(long timestamp)
+    {
+        mDibitBufferAssembler.flush(timestamp);
+    }
+}
@@ -16,10 +16,9 @@
 package io.github.dsheirer.dsp.psk;
 
 import io.github.dsheirer.dsp.psk.pll.IPhaseLockedLoop;
-import io.github.dsheirer.dsp.symbol.Dibit;
 import io.github.dsheirer.sample.complex.Complex;
 
-public class DQPSKGardnerDemodulator extends PSKDemodulator<Dibit>
+public class DQPSKGardnerDemodulator extends DQPSKDemodulator
 {
     protected DQPSKGardnerSymbolEvaluator mSymbolEvaluator = new DQPSKGardnerSymbolEvaluator();
     private Complex mPreviousCurrentSample = new Complex(0, 0);
@@ -85,6 +84,6 @@ public class DQPSKGardnerDemodulator extends PSKDemodulator<Dibit>
         mPreviousMiddleSample.setValues(middleSample);
         mPreviousCurrentSample.setValues(currentSample);
 
-        broadcast(mSymbolEvaluator.getSymbolDecision());
+        dispatch(mSymbolEvaluator.getSymbolDecision());
     }
 }
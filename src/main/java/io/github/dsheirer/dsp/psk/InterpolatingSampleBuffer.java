@@ -85,6 +85,61 @@ public class InterpolatingSampleBuffer
         mDelayLinePointer = mDelayLinePointer % mTwiceSamplesPerSymbol;
     }
 
+    /**
+     * Stores a block of samples in the buffer and updates pointers.  This is equivalent to invoking receive(Complex)
+     * for each sample.
+     *
+     * Note: callers should limit the block length to getSamplesToNextSymbol() so that each symbol can be calculated
+     * as soon as the buffer has a symbol.
+     *
+     * @param i inphase samples
+     * @param q quadrature samples
+     * @param offset to the first sample
+     * @param length number of samples to store
+     */
+    public void receive(float[] i, float[] q, int offset, int length)
+    {
+        int pointer = mDelayLinePointer;
+
+        for(int x = offset; x < offset + length; x++)
+        {
+            mSamplingPoint--;
+
+            mDelayLineInphase[pointer] = i[x];
+            mDelayLineInphase[pointer + mTwiceSamplesPerSymbol] = i[x];
+            mDelayLineQuadrature[pointer] = q[x];
+            mDelayLineQuadrature[pointer + mTwiceSamplesPerSymbol] = q[x];
+
+            pointer++;
+
+            if(pointer == mTwiceSamplesPerSymbol)
+            {
+                pointer = 0;
+            }
+        }
+
+        mDelayLinePointer = pointer;
+    }
+
+    /**
+     * Number of samples that can be received before this buffer has a symbol.
+     *
+     * The sampling point is decremented by one for each received sample and a symbol is available once the sampling
+     * point drops below 1.0.  Decrementing a float by 1.0 is exact while the value is at least 1.0, so the sample
+     * count is simply the integer portion of the sampling point, with a minimum of one sample.
+     *
+     * @return sample count (1 or more)
+     */
+    public int getSamplesToNextSymbol()
+    {
+        if(mSamplingPoint < 1.0f)
+        {
+            return 1;
+        }
+
+        return (int)mSamplingPoint;
+    }
+
     /**
      * Updates the internal sample counter with additional samples to add to the symbol sample counter.
      * @param samplesToAdd to the sample counter
@@ -33,6 +33,7 @@ public class InterpolatingSampleBufferInstrumented extends InterpolatingSampleBu
     private SymbolDecisionData mSymbolDecisionData;
     private ComplexSampleListener mSampleListener;
     private int mBufferLength;
+    private Complex mSample = new Complex(0, 0);
 
     public InterpolatingSampleBufferInstrumented(float samplesPerSymbol, float symbolTimingGain)
     {
@@ -52,6 +53,19 @@ public class InterpolatingSampleBufferInstrumented extends InterpolatingSampleBu
         }
     }
 
+    /**
+     * Overrides block processing to deliver each sample to the instrumentation listeners.
+     */
+    @Override
+    public void receive(float[] i, float[] q, int offset, int length)
+    {
+        for(int x = offset; x < offset + length; x++)
+        {
+            mSample.setValues(i[x], q[x]);
+            receive(mSample);
+        }
+    }
+
     /**
      * Contents of the interpolating buffer and the current buffer index and symbol decision offset.  This data can
      * be used to support an external eye-diagram chart.
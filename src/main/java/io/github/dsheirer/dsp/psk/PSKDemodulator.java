@@ -29,6 +29,8 @@ public abstract class PSKDemodulator<T> implements ComplexSampleListener
     private InterpolatingSampleBuffer mInterpolatingSampleBuffer;
     private IPhaseLockedLoop mPLL;
     private Complex mReceivedSample = new Complex(0, 0);
+    private float[] mMixedInphase = new float[0];
+    private float[] mMixedQuadrature = new float[0];
     private Listener<T> mSymbolListener;
     private boolean mRunning;
 
@@ -106,7 +108,13 @@ public abstract class PSKDemodulator<T> implements ComplexSampleListener
     }
 
     /**
-     * Processes a complex sample buffer
+     * Processes a complex sample buffer.
+     *
+     * Samples are processed in blocks that span the samples up to the next symbol decision.  Each block is mixed
+     * with the PLL and stored in the interpolating sample buffer as arrays, and only the symbol timing and PLL
+     * adjustments at each symbol decision are processed per symbol.  The PLL and symbol timing are only adjusted at
+     * symbol decisions, so this produces the same output as processing one sample at a time via receive(float, float).
+     *
      * @param samples
      */
     public void receive(ComplexSamples samples)
@@ -114,13 +122,44 @@ public abstract class PSKDemodulator<T> implements ComplexSampleListener
         float[] i = samples.i();
         float[] q = samples.q();
 
-        for(int x = 0; x < i.length; x++)
+        int offset = 0;
+
+        while(offset < i.length && isRunning())
         {
-            if(isRunning())
+            int length = Math.min(mInterpolatingSampleBuffer.getSamplesToNextSymbol(), i.length - offset);
+
+            if(mMixedInphase.length < length)
+            {
+                mMixedInphase = new float[length];
+                mMixedQuadrature = new float[length];
+            }
+
+            //Mix the block with the costas loop to remove any rotation from a mis-tuned carrier frequency
+            mPLL.mix(i, q, offset, length, mMixedInphase, mMixedQuadrature);
+
+            //Store the mixed samples in the interpolating buffer
+            mInterpolatingSampleBuffer.receive(mMixedInphase, mMixedQuadrature, 0, length);
+
+            //Calculate the symbol once we've stored enough samples
+            if(mInterpolatingSampleBuffer.hasSymbol())
             {
-                receive(i[x], q[x]);
+                calculateSymbol();
             }
+
+            offset += length;
         }
+
+        samplesProcessed(samples.timestamp());
+    }
+
+    /**
+     * Invoked after each complex sample buffer has been fully processed.  Sub-classes can override this method to
+     * dispatch any symbol decisions that were accumulated while processing the buffer.
+     * @param timestamp of the sample buffer that was processed
+     */
+    protected void samplesProcessed(long timestamp)
+    {
+        //no-op
     }
 
     /**
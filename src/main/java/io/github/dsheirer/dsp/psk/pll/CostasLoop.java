@@ -165,6 +165,42 @@ public class CostasLoop implements IPhaseLockedLoop
         return getCurrentVector();
     }
 
+    /**
+     * Mixes a block of samples with the loop.  This is equivalent to incrementAndGetCurrentVector() and a complex
+     * multiply for each sample, but operates directly on the sample arrays.
+     */
+    @Override
+    public void mix(float[] i, float[] q, int offset, int length, float[] mixedI, float[] mixedQ)
+    {
+        double loopPhase = mLoopPhase;
+        float vectorI, vectorQ, sampleI, sampleQ;
+
+        for(int x = 0; x < length; x++)
+        {
+            loopPhase += mLoopFrequency;
+
+            /* Normalize phase between +/- 2 * PI */
+            if(loopPhase > TWO_PI)
+            {
+                loopPhase -= TWO_PI;
+            }
+
+            if(loopPhase < -TWO_PI)
+            {
+                loopPhase += TWO_PI;
+            }
+
+            vectorI = (float)FastMath.cos(loopPhase);
+            vectorQ = (float)FastMath.sin(loopPhase);
+            sampleI = i[offset + x];
+            sampleQ = q[offset + x];
+            mixedI[x] = (sampleI * vectorI) - (sampleQ * vectorQ);
+            mixedQ[x] = (sampleQ * vectorI) + (sampleI * vectorQ);
+        }
+
+        mLoopPhase = loopPhase;
+    }
+
     public double getLoopFrequency()
     {
         return mLoopFrequency;
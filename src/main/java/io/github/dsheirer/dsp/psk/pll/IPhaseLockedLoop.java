@@ -56,4 +56,28 @@ public interface IPhaseLockedLoop
      * Reset tracking to 0
      */
     void reset();
+
+    /**
+     * Mixes (de-spins) a block of complex samples with the PLL, incrementing the PLL once per sample.  This produces
+     * the same output as invoking incrementAndGetCurrentVector() and multiplying each sample by the returned vector.
+     *
+     * Note: the PLL is only adjusted at symbol decisions, so callers should limit the block to the samples that
+     * precede the next symbol decision.
+     *
+     * @param i inphase samples to mix
+     * @param q quadrature samples to mix
+     * @param offset to the first sample to mix
+     * @param length number of samples to mix
+     * @param mixedI to receive the mixed inphase samples, starting at index 0
+     * @param mixedQ to receive the mixed quadrature samples, starting at index 0
+     */
+    default void mix(float[] i, float[] q, int offset, int length, float[] mixedI, float[] mixedQ)
+    {
+        for(int x = 0; x < length; x++)
+        {
+            Complex vector = incrementAndGetCurrentVector();
+            mixedI[x] = Complex.multiplyInphase(i[offset + x], q[offset + x], vector.inphase(), vector.quadrature());
+            mixedQ[x] = Complex.multiplyQuadrature(i[offset + x], q[offset + x], vector.inphase(), vector.quadrature());
+        }
+    }
 }
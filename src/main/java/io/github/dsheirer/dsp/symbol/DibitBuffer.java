@@ -0,0 +1,51 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.dsp.symbol;
+
+import io.github.dsheirer.sample.buffer.ITimestamped;
+
+/**
+ * Block of demodulated dibit symbols.  Each array element holds a single dibit value (0 - 3) as defined by
+ * Dibit.getValue(), so that symbol consumers can iterate a primitive array instead of receiving one Dibit enum
+ * entry per listener call.
+ *
+ * @param dibits array of dibit values, one per element
+ * @param timestamp of the first dibit in the block
+ */
+public record DibitBuffer(byte[] dibits, long timestamp) implements ITimestamped
+{
+    /**
+     * Number of dibits in this buffer
+     */
+    public int length()
+    {
+        return dibits.length;
+    }
+
+    /**
+     * Dibit at the specified index
+     * @param index of the dibit
+     * @return dibit
+     */
+    public Dibit getDibit(int index)
+    {
+        return Dibit.fromValue(dibits[index]);
+    }
+}
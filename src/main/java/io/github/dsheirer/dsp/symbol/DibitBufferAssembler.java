@@ -0,0 +1,94 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.dsp.symbol;
+
+import io.github.dsheirer.sample.Listener;
+import java.util.Arrays;
+
+/**
+ * Accumulates dibit symbol decisions produced one at a time by a demodulator and dispatches them as a single
+ * DibitBuffer each time the producer finishes processing a sample buffer.
+ */
+public class DibitBufferAssembler
+{
+    private static final int DEFAULT_CAPACITY = 512;
+    private byte[] mDibits = new byte[DEFAULT_CAPACITY];
+    private int mCount;
+    private Listener<DibitBuffer> mListener;
+
+    /**
+     * Constructs an instance
+     */
+    public DibitBufferAssembler()
+    {
+    }
+
+    /**
+     * Adds the dibit to the buffer under assembly.
+     * @param dibit to add
+     */
+    public void add(Dibit dibit)
+    {
+        if(mCount == mDibits.length)
+        {
+            mDibits = Arrays.copyOf(mDibits, mDibits.length * 2);
+        }
+
+        mDibits[mCount++] = (byte)dibit.getValue();
+    }
+
+    /**
+     * Dispatches the accumulated dibits to the registered listener and resets the assembler.  Does nothing when there
+     * are no accumulated dibits.
+     *
+     * @param timestamp for the first dibit in the assembled buffer
+     */
+    public void flush(long timestamp)
+    {
+        if(mCount > 0)
+        {
+            DibitBuffer buffer = new DibitBuffer(Arrays.copyOf(mDibits, mCount), timestamp);
+            mCount = 0;
+
+            if(mListener != null)
+            {
+                mListener.receive(buffer);
+            }
+        }
+    }
+
+    /**
+     * Indicates if a listener is registered with this assembler.
+     */
+    public boolean hasListener()
+    {
+        return mListener != null;
+    }
+
+    /**
+     * Registers the listener to receive assembled dibit buffers.
+     * @param listener to register or null to clear the listener
+     */
+    public void setListener(Listener<DibitBuffer> listener)
+    {
+        mListener = listener;
+        mCount = 0;
+    }
+}
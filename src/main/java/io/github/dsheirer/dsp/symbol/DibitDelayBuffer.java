@@ -34,6 +34,7 @@ import org.slf4j.LoggerFactory;
 public class DibitDelayBuffer
 {
     private final static Logger mLog = LoggerFactory.getLogger(DibitDelayBuffer.class);
+    private static final Dibit[] DIBITS = {Dibit.D00_PLUS_1, Dibit.D01_PLUS_3, Dibit.D10_MINUS_1, Dibit.D11_MINUS_3};
 
     protected Dibit[] mBuffer;
     protected int mPointer;
@@ -233,6 +234,75 @@ public class DibitDelayBuffer
         return toReturn;
     }
 
+    /**
+     * Places the dibit value (0 - 3) into the internal circular buffer, overwriting the oldest dibit.
+     */
+    public void put(int dibit)
+    {
+        put(DIBITS[dibit & 0x3]);
+    }
+
+    /**
+     * Places the dibit value (0 - 3) into the internal circular buffer, overwriting and returning the value of the
+     * oldest dibit.
+     */
+    public int getAndPut(int dibit)
+    {
+        int toReturn = mBuffer[mPointer].getValue();
+        put(DIBITS[dibit & 0x3]);
+        return toReturn;
+    }
+
+    /**
+     * Places a block of dibit values (0 - 3) into the internal circular buffer, overwriting the oldest dibits.
+     * @param dibits array of dibit values
+     * @param offset of the first dibit to place
+     * @param length number of dibits to place
+     */
+    public void put(byte[] dibits, int offset, int length)
+    {
+        for(int x = offset; x < offset + length; x++)
+        {
+            mBuffer[mPointer++] = DIBITS[dibits[x] & 0x3];
+
+            if(mPointer >= mBuffer.length)
+            {
+                mPointer = 0;
+            }
+        }
+    }
+
+    /**
+     * Loads the delayed array with the dibit values (0 - 3) that getAndPut() would return for each dibit in the
+     * block, without altering the buffer contents.  Use this to feed a block of delayed dibits to a sync detector and
+     * then place the processed dibits into this buffer with put().
+     * @param dibits array of dibit values
+     * @param offset of the first dibit
+     * @param length number of dibits
+     * @param delayed array to load, with a length of at least the length argument
+     */
+    public void getDelayed(byte[] dibits, int offset, int length, byte[] delayed)
+    {
+        int bufferPointer = mPointer;
+
+        for(int x = 0; x < length; x++)
+        {
+            if(x < mBuffer.length)
+            {
+                delayed[x] = (byte)mBuffer[bufferPointer++].getValue();
+
+                if(bufferPointer >= mBuffer.length)
+                {
+                    bufferPointer = 0;
+                }
+            }
+            else
+            {
+                delayed[x] = dibits[offset + x - mBuffer.length];
+            }
+        }
+    }
+
     /**
      * Logs the contents of the buffer
      */
@@ -36,6 +36,7 @@ public class DibitToByteBufferAssembler implements Listener<Dibit>, IByteBufferP
     private byte mCurrentByte;
     private int mDibitCount;
     private Listener<ByteBuffer> mBufferListener;
+    private Listener<DibitBuffer> mDibitBufferListener = this::receive;
 
     /**
      * Constructs an assembler to produce reusable byte buffers of the specified size
@@ -99,6 +100,41 @@ public class DibitToByteBufferAssembler implements Listener<Dibit>, IByteBufferP
         }
     }
 
+    /**
+     * Packs a block of dibits into the current byte buffer.
+     * @param buffer of dibit values
+     */
+    public void receive(DibitBuffer buffer)
+    {
+        byte[] dibits = buffer.dibits();
+
+        for(int x = 0; x < dibits.length; x++)
+        {
+            mCurrentByte = (byte)((mCurrentByte << 2) | (dibits[x] & 0x03));
+            mDibitCount++;
+
+            if(mDibitCount >= 4)
+            {
+                mCurrentBuffer.put(mCurrentByte);
+                mCurrentByte = 0x00;
+                mDibitCount = 0;
+
+                if(!mCurrentBuffer.hasRemaining())
+                {
+                    getNextBuffer();
+                }
+            }
+        }
+    }
+
+    /**
+     * Listener to receive blocks of dibits for packing into byte buffers.
+     */
+    public Listener<DibitBuffer> getDibitBufferListener()
+    {
+        return mDibitBufferListener;
+    }
+
     /**
      * Registers the listener to receive fully assembled byte buffers from this assembler.
      */
@@ -0,0 +1,112 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.dsp.symbol.sync;
+
+import io.github.dsheirer.dsp.symbol.QPSKCarrierLock;
+import io.github.dsheirer.protocol.Protocol;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Sync pattern definition for use with the sync pattern engine.
+ *
+ * @param protocol that uses the sync pattern
+ * @param label for the sync pattern
+ * @param pattern value, right-aligned, with the first transmitted dibit in the most significant position
+ * @param bitLength of the pattern (even number of bits, 2 - 62)
+ * @param carrierLock hypothesis that this pattern represents.  Rotated variants of a normal sync pattern are what
+ * the demodulator produces when the PLL has locked at +/- 90 or 180 degrees to the carrier.
+ * @param maxBitErrors allowed when matching this pattern
+ */
+public record SyncPattern(Protocol protocol, String label, long pattern, int bitLength, QPSKCarrierLock carrierLock,
+                          int maxBitErrors)
+{
+    /**
+     * Dibit mappings from a correctly locked dibit value (index) to the dibit value that is observed when the PLL is
+     * locked at plus 90, minus 90, or 180 degrees.  These are the inverse of QPSKCarrierLock.correct(Dibit).
+     */
+    private static final int[] PLUS_90_ROTATION = {1, 3, 0, 2};
+    private static final int[] MINUS_90_ROTATION = {2, 0, 3, 1};
+    private static final int[] INVERTED_ROTATION = {3, 2, 1, 0};
+
+    public SyncPattern
+    {
+        Validate.isTrue(bitLength >= 2 && bitLength < 64 && bitLength % 2 == 0,
+            "Sync pattern bit length must be an even value between 2 and 62");
+        Validate.isTrue(maxBitErrors >= 0 && maxBitErrors < bitLength, "Invalid max bit errors value");
+    }
+
+    /**
+     * Bit mask covering the length of the pattern
+     */
+    public long mask()
+    {
+        return (1L << bitLength) - 1;
+    }
+
+    /**
+     * Number of bits that differ between the pattern and the value.
+     * @param value to compare, only the pattern length least significant bits are compared
+     * @return bit error count
+     */
+    public int getBitErrorCount(long value)
+    {
+        return Long.bitCount((value & mask()) ^ pattern);
+    }
+
+    /**
+     * Creates a rotated variant of this (normally locked) sync pattern that represents the pattern as it is observed
+     * when the PLL has locked with the specified carrier lock error.
+     *
+     * @param carrierLock hypothesis for the rotated pattern
+     * @param maxBitErrors allowed for matching the rotated pattern
+     * @return rotated sync pattern
+     */
+    public SyncPattern rotate(QPSKCarrierLock carrierLock, int maxBitErrors)
+    {
+        int[] rotation = null;
+
+        switch(carrierLock)
+        {
+            case PLUS_90 -> rotation = PLUS_90_ROTATION;
+            case MINUS_90 -> rotation = MINUS_90_ROTATION;
+            case INVERTED -> rotation = INVERTED_ROTATION;
+        }
+
+        long rotated = pattern;
+
+        if(rotation != null)
+        {
+            rotated = 0;
+
+            for(int shift = bitLength - 2; shift >= 0; shift -= 2)
+            {
+                rotated = (rotated << 2) | rotation[(int)((pattern >> shift) & 0x3)];
+            }
+        }
+
+        return new SyncPattern(protocol, label, rotated, bitLength, carrierLock, maxBitErrors);
+    }
+
+    @Override
+    public String toString()
+    {
+        return protocol + " " + label + " " + carrierLock;
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.dsp.symbol.sync;
+
+import java.util.Arrays;
+import java.util.Collection;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Multi-pattern sync detection engine.  Tests a dibit stream against every registered sync pattern, including the
+ * PLL mis-lock (+/-90 and 180 degree) variants and patterns from other protocols, and reports the best matching
+ * pattern, its bit error count and its carrier lock hypothesis.
+ *
+ * Block processing first unrolls the shift register value for every dibit position in the block and then evaluates
+ * each pattern against all positions in a tight loop over primitive arrays (mask, xor, bit count, compare) that the
+ * JIT compiler can unroll and vectorize, instead of a per-symbol, per-pattern sync processor call.
+ *
+ * Patterns can have different lengths.  Each pattern is compared against the least significant bits of the shared
+ * shift register.  When more than one pattern matches at the same dibit position, the pattern with the fewest bit
+ * errors wins, and ties go to the pattern that was registered first.
+ */
+public class SyncPatternEngine
+{
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+    private final SyncPattern[] mPatterns;
+    private final long[] mPatternValues;
+    private final long[] mPatternMasks;
+    private final int[] mPatternThresholds;
+    private long mCurrentValue;
+    private long[] mRegisters = new long[0];
+    private int[] mBestBitErrors = new int[0];
+    private int[] mBestPatternIndexes = new int[0];
+
+    /**
+     * Constructs an instance
+     * @param patterns to detect
+     */
+    public SyncPatternEngine(Collection<SyncPattern> patterns)
+    {
+        Validate.notEmpty(patterns, "Sync patterns cannot be empty");
+        mPatterns = patterns.toArray(new SyncPattern[0]);
+        mPatternValues = new long[mPatterns.length];
+        mPatternMasks = new long[mPatterns.length];
+        mPatternThresholds = new int[mPatterns.length];
+
+        for(int x = 0; x < mPatterns.length; x++)
+        {
+            mPatternValues[x] = mPatterns[x].pattern();
+            mPatternMasks[x] = mPatterns[x].mask();
+            mPatternThresholds[x] = mPatterns[x].maxBitErrors();
+        }
+    }
+
+    /**
+     * Current shift register value containing the most recently received dibits in the least significant bits.
+     */
+    public long getCurrentValue()
+    {
+        return mCurrentValue;
+    }
+
+    /**
+     * Loads the shift register with the value so that subsequent streaming dibits are appended to it.
+     */
+    public void setCurrentValue(long value)
+    {
+        mCurrentValue = value;
+    }
+
+    /**
+     * Bit error count between the current shift register value and the pattern.
+     */
+    public int getBitErrorCount(SyncPattern pattern)
+    {
+        return pattern.getBitErrorCount(mCurrentValue);
+    }
+
+    /**
+     * Clears the shift register
+     */
+    public void reset()
+    {
+        mCurrentValue = 0;
+    }
+
+    /**
+     * Tests an explicit value against all patterns without altering the shift register.
+     * @param value to test
+     * @return best match or null if no pattern matches within its bit error threshold
+     */
+    public SyncMatch check(long value)
+    {
+        int bestBitErrors = NO_MATCH;
+        int bestIndex = -1;
+
+        for(int p = 0; p < mPatternValues.length; p++)
+        {
+            int bitErrors = Long.bitCount((value & mPatternMasks[p]) ^ mPatternValues[p]);
+
+            if(bitErrors <= mPatternThresholds[p] && bitErrors < bestBitErrors)
+            {
+                bestBitErrors = bitErrors;
+                bestIndex = p;
+            }
+        }
+
+        if(bestIndex >= 0)
+        {
+            return new SyncMatch(mPatterns[bestIndex], bestIndex, bestBitErrors, -1);
+        }
+
+        return null;
+    }
+
+    /**
+     * Shifts the dibit into the shift register and tests all patterns.
+     * @param dibit value 0 - 3
+     * @return best match or null if no pattern matches
+     */
+    public SyncMatch receive(int dibit)
+    {
+        mCurrentValue = (mCurrentValue << 2) | (dibit & 0x3);
+        return check(mCurrentValue);
+    }
+
+    /**
+     * Processes dibits from the array until a sync pattern match occurs or all dibits are processed.  When a match
+     * occurs, the shift register is left positioned at the dibit that completed the match so that the caller can
+     * act on the match and then resume processing from the following dibit.
+     *
+     * @param dibits array of dibit values (0 - 3)
+     * @param offset of the first dibit to process
+     * @param length number of dibits to process
+     * @return first (best) match where SyncMatch.index() is the array index of the dibit that completed the pattern,
+     * or null if no patterns matched and all dibits were processed.
+     */
+    public SyncMatch receive(byte[] dibits, int offset, int length)
+    {
+        int matchIndex = search(dibits, offset, length);
+
+        if(matchIndex >= 0)
+        {
+            mCurrentValue = mRegisters[matchIndex];
+            int patternIndex = mBestPatternIndexes[matchIndex];
+            return new SyncMatch(mPatterns[patternIndex], patternIndex, mBestBitErrors[matchIndex],
+                offset + matchIndex);
+        }
+
+        if(length > 0)
+        {
+            mCurrentValue = mRegisters[length - 1];
+        }
+
+        return null;
+    }
+
+    /**
+     * Processes the leading dibits from the array that do not complete a sync pattern match.  The shift register is
+     * left positioned at the dibit preceding the first match so that the matching dibit can then be processed with
+     * the receive(int) method, along with any other per-dibit processing that the caller performs for a match.
+     *
+     * @param dibits array of dibit values (0 - 3)
+     * @param offset of the first dibit to process
+     * @param length number of dibits to process
+     * @return number of dibits processed, which is less than the length when a dibit completes a pattern match
+     */
+    public int scan(byte[] dibits, int offset, int length)
+    {
+        int matchIndex = search(dibits, offset, length);
+        int count = matchIndex >= 0 ? matchIndex : length;
+
+        if(count > 0)
+        {
+            mCurrentValue = mRegisters[count - 1];
+        }
+
+        return count;
+    }
+
+    /**
+     * Unrolls the shift register value for each dibit in the block into the registers array and tests every pattern
+     * against every register value, without altering the shift register.
+     *
+     * @param dibits array of dibit values (0 - 3)
+     * @param offset of the first dibit to process
+     * @param length number of dibits to process
+     * @return block relative index of the first dibit that completes a pattern match, or -1 if there are no matches
+     */
+    private int search(byte[] dibits, int offset, int length)
+    {
+        if(length <= 0)
+        {
+            return -1;
+        }
+
+        if(mRegisters.length < length)
+        {
+            mRegisters = new long[length];
+            mBestBitErrors = new int[length];
+            mBestPatternIndexes = new int[length];
+        }
+
+        long[] registers = mRegisters;
+        int[] bestBitErrors = mBestBitErrors;
+        int[] bestPatternIndexes = mBestPatternIndexes;
+
+        long value = mCurrentValue;
+
+        for(int x = 0; x < length; x++)
+        {
+            value = (value << 2) | (dibits[offset + x] & 0x3);
+            registers[x] = value;
+        }
+
+        Arrays.fill(bestBitErrors, 0, length, NO_MATCH);
+
+        for(int p = 0; p < mPatternValues.length; p++)
+        {
+            long pattern = mPatternValues[p];
+            long mask = mPatternMasks[p];
+            int threshold = mPatternThresholds[p];
+
+            for(int x = 0; x < length; x++)
+            {
+                int bitErrors = Long.bitCount((registers[x] & mask) ^ pattern);
+
+                if(bitErrors <= threshold && bitErrors < bestBitErrors[x])
+                {
+                    bestBitErrors[x] = bitErrors;
+                    bestPatternIndexes[x] = p;
+                }
+            }
+        }
+
+        for(int x = 0; x < length; x++)
+        {
+            if(bestBitErrors[x] != NO_MATCH)
+            {
+                return x;
+            }
+        }
+
+        return -1;
+    }
+}
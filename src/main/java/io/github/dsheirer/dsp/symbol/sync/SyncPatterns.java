@@ -0,0 +1,96 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.dsp.symbol.sync;
+
+import io.github.dsheirer.dsp.symbol.FrameSync;
+import io.github.dsheirer.dsp.symbol.QPSKCarrierLock;
+import io.github.dsheirer.module.decode.dmr.DMRSyncPattern;
+import io.github.dsheirer.protocol.Protocol;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Factory for protocol sync pattern sets for use with the sync pattern engine.
+ */
+public class SyncPatterns
+{
+    public static final int P25_PHASE1_SYNC_BIT_LENGTH = 48;
+    public static final int P25_PHASE2_SYNC_BIT_LENGTH = 40;
+    public static final int DMR_SYNC_BIT_LENGTH = 48;
+
+    /**
+     * Creates a list containing the normal pattern followed by the plus 90, minus 90 and inverted (180 degree)
+     * rotations of the normal pattern.
+     *
+     * @param normal sync pattern with a normal carrier lock
+     * @param rotatedMaxBitErrors allowed for matching the rotated patterns
+     * @return list of patterns
+     */
+    public static List<SyncPattern> withRotations(SyncPattern normal, int rotatedMaxBitErrors)
+    {
+        List<SyncPattern> patterns = new ArrayList<>();
+        patterns.add(normal);
+        patterns.add(normal.rotate(QPSKCarrierLock.PLUS_90, rotatedMaxBitErrors));
+        patterns.add(normal.rotate(QPSKCarrierLock.MINUS_90, rotatedMaxBitErrors));
+        patterns.add(normal.rotate(QPSKCarrierLock.INVERTED, rotatedMaxBitErrors));
+        return patterns;
+    }
+
+    /**
+     * P25 Phase 1 normal sync pattern
+     * @param maxBitErrors allowed for a match
+     */
+    public static SyncPattern p25Phase1(int maxBitErrors)
+    {
+        return new SyncPattern(Protocol.APCO25, "SYNC", FrameSync.P25_PHASE1_NORMAL.getSync(),
+            P25_PHASE1_SYNC_BIT_LENGTH, QPSKCarrierLock.NORMAL, maxBitErrors);
+    }
+
+    /**
+     * P25 Phase 2 normal sync pattern
+     * @param maxBitErrors allowed for a match
+     */
+    public static SyncPattern p25Phase2(int maxBitErrors)
+    {
+        return new SyncPattern(Protocol.APCO25_PHASE2, "SYNC", FrameSync.P25_PHASE2_NORMAL.getSync(),
+            P25_PHASE2_SYNC_BIT_LENGTH, QPSKCarrierLock.NORMAL, maxBitErrors);
+    }
+
+    /**
+     * DMR sync patterns, each followed by its rotated variants.
+     *
+     * @param maxBitErrors allowed for the normal patterns
+     * @param rotatedMaxBitErrors allowed for the rotated patterns
+     * @return patterns in DMRSyncPattern.SYNC_PATTERNS order
+     */
+    public static List<SyncPattern> dmr(int maxBitErrors, int rotatedMaxBitErrors)
+    {
+        List<SyncPattern> patterns = new ArrayList<>();
+
+        for(DMRSyncPattern dmrSyncPattern: DMRSyncPattern.SYNC_PATTERNS)
+        {
+            SyncPattern normal = new SyncPattern(Protocol.DMR, dmrSyncPattern.name(), dmrSyncPattern.getPattern(),
+                DMR_SYNC_BIT_LENGTH, QPSKCarrierLock.NORMAL, maxBitErrors);
+            patterns.addAll(withRotations(normal, rotatedMaxBitErrors));
+        }
+
+        return patterns;
+    }
+}
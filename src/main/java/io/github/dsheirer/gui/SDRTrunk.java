@@ -27,10 +27,12 @@ import io.github.dsheirer.audio.broadcast.BroadcastFormat;
 import io.github.dsheirer.audio.broadcast.BroadcastStatusPanel;
 import io.github.dsheirer.audio.playback.AudioPlaybackManager;
 import io.github.dsheirer.controller.ControllerPanel;
+import io.github.dsheirer.controller.SDRTrunkDaemon;
 import io.github.dsheirer.controller.channel.Channel;
 import io.github.dsheirer.controller.channel.ChannelAutoStartFrame;
 import io.github.dsheirer.controller.channel.ChannelException;
 import io.github.dsheirer.controller.channel.ChannelSelectionManager;
+import io.github.dsheirer.dsp.filter.fir.FIRFilterTapCache;
 import io.github.dsheirer.eventbus.MyEventBus;
 import io.github.dsheirer.gui.icon.ViewIconManagerRequest;
 import io.github.dsheirer.gui.playlist.ViewPlaylistRequest;
@@ -42,6 +44,7 @@ import io.github.dsheirer.gui.viewer.ViewRecordingViewerRequest;
 import io.github.dsheirer.icon.IconModel;
 import io.github.dsheirer.log.ApplicationLog;
 import io.github.dsheirer.map.MapService;
+import io.github.dsheirer.metrics.MetricsServer;
 import io.github.dsheirer.module.log.EventLogManager;
 import io.github.dsheirer.monitor.ResourceMonitor;
 import io.github.dsheirer.playlist.PlaylistManager;
@@ -78,6 +81,7 @@ import java.io.IOException;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
@@ -136,12 +140,15 @@ public class SDRTrunk implements Listener<TunerEvent>
     private TunerManager mTunerManager;
     private ApplicationLog mApplicationLog;
     private ResourceMonitor mResourceMonitor;
+    private MetricsServer mMetricsServer;
     private JFXPanel mResourceStatusPanel;
 
     private String mTitle;
 
     public SDRTrunk()
     {
+        long startupTimestamp = System.currentTimeMillis();
+
         if(!GraphicsEnvironment.isHeadless())
         {
             mMainGui = new JFrame();
@@ -151,6 +158,7 @@ public class SDRTrunk implements Listener<TunerEvent>
         mApplicationLog.start();
 
         mResourceMonitor = new ResourceMonitor(mUserPreferences);
+        startMetricsServer();
 
         String operatingSystem = System.getProperty("os.name", "generic").toLowerCase(Locale.ENGLISH);
 
@@ -179,7 +187,6 @@ public class SDRTrunk implements Listener<TunerEvent>
         IconFontSwing.register(FontAwesome.getIconFont());
 
         mTunerManager = new TunerManager(mUserPreferences);
-        mTunerManager.start();
 
         mSettingsManager = new SettingsManager();
 
@@ -187,6 +194,13 @@ public class SDRTrunk implements Listener<TunerEvent>
         EventLogManager eventLogManager = new EventLogManager(aliasModel, mUserPreferences);
         mPlaylistManager = new PlaylistManager(mUserPreferences, mTunerManager, aliasModel, eventLogManager, mIconModel);
 
+        //Load previously designed filters so that channelizer and decoder startup can skip filter design
+        FIRFilterTapCache.load(getFilterTapCachePath());
+
+        //Parse the playlist in the background while tuners are discovered and started
+        mPlaylistManager.preload();
+        mTunerManager.start();
+
         if(!GraphicsEnvironment.isHeadless())
         {
             mJavaFxWindowManager = new JavaFxWindowManager(mUserPreferences, mTunerManager, mPlaylistManager);
@@ -233,6 +247,7 @@ public class SDRTrunk implements Listener<TunerEvent>
         mTunerManager.getDiscoveredTunerModel().addListener(this);
 
         mPlaylistManager.init();
+        mLog.info("Startup completed in " + (System.currentTimeMillis() - startupTimestamp) + " ms");
 
         if(GraphicsEnvironment.isHeadless())
         {
@@ -594,10 +609,48 @@ public class SDRTrunk implements Listener<TunerEvent>
         mSpectralPanel.clearTuner();
         mLog.info("Stopping tuners ...");
         mTunerManager.stop();
+
+        if(mMetricsServer != null)
+        {
+            mMetricsServer.stop();
+        }
+
+        FIRFilterTapCache.save(getFilterTapCachePath());
+
         mLog.info("Shutdown complete.");
         mApplicationLog.stop();
     }
 
+    /**
+     * Location of the persisted filter design cache
+     */
+    private Path getFilterTapCachePath()
+    {
+        return mUserPreferences.getDirectoryPreference().getDirectoryConfiguration()
+            .resolve(FIRFilterTapCache.CACHE_FILE_NAME);
+    }
+
+    /**
+     * Starts the local runtime metrics HTTP endpoint when enabled in the application preferences.
+     */
+    private void startMetricsServer()
+    {
+        if(mUserPreferences.getApplicationPreference().isMetricsEnabled())
+        {
+            mMetricsServer = new MetricsServer(mUserPreferences.getApplicationPreference().getMetricsPort());
+
+            try
+            {
+                mMetricsServer.start();
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Unable to start runtime metrics endpoint on port " + mMetricsServer.getPort(), ioe);
+                mMetricsServer = null;
+            }
+        }
+    }
+
     /**
      * Lazy constructor for broadcast status panel
      */
@@ -876,6 +929,13 @@ public class SDRTrunk implements Listener<TunerEvent>
      */
     public static void main(String[] args)
     {
-        new SDRTrunk();
+        if(Arrays.asList(args).contains(SDRTrunkDaemon.HEADLESS_ARGUMENT))
+        {
+            SDRTrunkDaemon.main(args);
+        }
+        else
+        {
+            new SDRTrunk();
+        }
     }
 }
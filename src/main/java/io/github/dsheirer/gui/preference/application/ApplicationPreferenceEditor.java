@@ -23,6 +23,7 @@ import io.github.dsheirer.preference.UserPreferences;
 import io.github.dsheirer.preference.application.ApplicationPreference;
 import javafx.geometry.HPos;
 import javafx.geometry.Insets;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.Spinner;
 import javafx.scene.layout.GridPane;
@@ -38,6 +39,10 @@ public class ApplicationPreferenceEditor extends HBox
     private GridPane mEditorPane;
     private Label mAutoStartTimeoutLabel;
     private Spinner<Integer> mTimeoutSpinner;
+    private CheckBox mMetricsEnabledCheckBox;
+    private Spinner<Integer> mMetricsPortSpinner;
+    private CheckBox mLockstepDecodingCheckBox;
+    private CheckBox mMultiplexedStreamingCheckBox;
 
     /**
      * Constructs an instance
@@ -61,7 +66,18 @@ public class ApplicationPreferenceEditor extends HBox
             GridPane.setHalignment(getAutoStartTimeoutLabel(), HPos.RIGHT);
             mEditorPane.add(getAutoStartTimeoutLabel(), 0, row);
             mEditorPane.add(getTimeoutSpinner(), 1, row);
-            mEditorPane.add(new Label("seconds"), 2, row);
+            mEditorPane.add(new Label("seconds"), 2, row++);
+
+            mEditorPane.add(getMetricsEnabledCheckBox(), 0, row, 3, 1);
+            row++;
+            Label portLabel = new Label("Metrics Port");
+            GridPane.setHalignment(portLabel, HPos.RIGHT);
+            mEditorPane.add(portLabel, 0, row);
+            mEditorPane.add(getMetricsPortSpinner(), 1, row);
+            mEditorPane.add(new Label("(requires restart)"), 2, row++);
+
+            mEditorPane.add(getLockstepDecodingCheckBox(), 0, row++, 3, 1);
+            mEditorPane.add(getMultiplexedStreamingCheckBox(), 0, row, 3, 1);
         }
 
         return mEditorPane;
@@ -91,4 +107,68 @@ public class ApplicationPreferenceEditor extends HBox
 
         return mTimeoutSpinner;
     }
+
+    /**
+     * Check box to enable the local runtime metrics (Prometheus) endpoint.
+     */
+    private CheckBox getMetricsEnabledCheckBox()
+    {
+        if(mMetricsEnabledCheckBox == null)
+        {
+            mMetricsEnabledCheckBox = new CheckBox("Enable Runtime Metrics Endpoint (http://127.0.0.1:port/metrics)");
+            mMetricsEnabledCheckBox.setSelected(mApplicationPreference.isMetricsEnabled());
+            mMetricsEnabledCheckBox.selectedProperty().addListener((observable, oldValue, newValue) -> mApplicationPreference.setMetricsEnabled(newValue));
+        }
+
+        return mMetricsEnabledCheckBox;
+    }
+
+    /**
+     * Check box to enable lockstep (batched) baseband filtering across P25 Phase 1 channels.
+     */
+    private CheckBox getLockstepDecodingCheckBox()
+    {
+        if(mLockstepDecodingCheckBox == null)
+        {
+            mLockstepDecodingCheckBox = new CheckBox("Batch P25 Phase 1 Baseband Filtering Across Channels " +
+                "(applies to newly started channels)");
+            mLockstepDecodingCheckBox.setSelected(mApplicationPreference.isLockstepDecodingEnabled());
+            mLockstepDecodingCheckBox.selectedProperty().addListener((observable, oldValue, newValue) ->
+                mApplicationPreference.setLockstepDecodingEnabled(newValue));
+        }
+
+        return mLockstepDecodingCheckBox;
+    }
+
+    /**
+     * Check box to stream Icecast and Shoutcast audio from a single shared selector thread.
+     */
+    private CheckBox getMultiplexedStreamingCheckBox()
+    {
+        if(mMultiplexedStreamingCheckBox == null)
+        {
+            mMultiplexedStreamingCheckBox = new CheckBox("Stream Icecast/Shoutcast Audio From A Single Shared Thread " +
+                "(applies to newly started streams)");
+            mMultiplexedStreamingCheckBox.setSelected(mApplicationPreference.isMultiplexedStreamingEnabled());
+            mMultiplexedStreamingCheckBox.selectedProperty().addListener((observable, oldValue, newValue) ->
+                mApplicationPreference.setMultiplexedStreamingEnabled(newValue));
+        }
+
+        return mMultiplexedStreamingCheckBox;
+    }
+
+    /**
+     * Spinner to select the metrics endpoint port.
+     */
+    private Spinner<Integer> getMetricsPortSpinner()
+    {
+        if(mMetricsPortSpinner == null)
+        {
+            mMetricsPortSpinner = new Spinner<>(1024, 65535, mApplicationPreference.getMetricsPort(), 1);
+            mMetricsPortSpinner.setEditable(true);
+            mMetricsPortSpinner.valueProperty().addListener((observable, oldValue, newValue) -> mApplicationPreference.setMetricsPort(newValue));
+        }
+
+        return mMetricsPortSpinner;
+    }
 }
@@ -21,12 +21,14 @@ package io.github.dsheirer.gui.preference.record;
 
 import io.github.dsheirer.preference.UserPreferences;
 import io.github.dsheirer.preference.record.RecordPreference;
+import io.github.dsheirer.record.BasebandRecordFormat;
 import io.github.dsheirer.record.RecordFormat;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
 import javafx.geometry.Insets;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
+import javafx.scene.control.Spinner;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
@@ -43,6 +45,8 @@ public class RecordPreferenceEditor extends HBox
     private RecordPreference mRecordPreference;
     private GridPane mEditorPane;
     private ComboBox<RecordFormat> mRecordFormatComboBox;
+    private ComboBox<BasebandRecordFormat> mBasebandRecordFormatComboBox;
+    private Spinner<Integer> mRecordingThreadCountSpinner;
 
     public RecordPreferenceEditor(UserPreferences userPreferences)
     {
@@ -64,6 +68,17 @@ public class RecordPreferenceEditor extends HBox
             mEditorPane.add(label, 0, 0);
 
             mEditorPane.add(getRecordFormatComboBox(), 1, 0);
+
+            Label basebandLabel = new Label("Tuner Baseband Recording Format:");
+            mEditorPane.add(basebandLabel, 0, 1);
+
+            mEditorPane.add(getBasebandRecordFormatComboBox(), 1, 1);
+
+            Label threadCountLabel = new Label("Audio Recording Threads:");
+            mEditorPane.add(threadCountLabel, 0, 2);
+
+            mEditorPane.add(getRecordingThreadCountSpinner(), 1, 2);
+            mEditorPane.add(new Label("(requires restart)"), 2, 2);
         }
 
         return mEditorPane;
@@ -88,4 +103,35 @@ public class RecordPreferenceEditor extends HBox
 
         return mRecordFormatComboBox;
     }
+
+    private ComboBox<BasebandRecordFormat> getBasebandRecordFormatComboBox()
+    {
+        if(mBasebandRecordFormatComboBox == null)
+        {
+            mBasebandRecordFormatComboBox = new ComboBox<>();
+            mBasebandRecordFormatComboBox.getItems().addAll(BasebandRecordFormat.values());
+            mBasebandRecordFormatComboBox.getSelectionModel().select(mRecordPreference.getBasebandRecordFormat());
+            mBasebandRecordFormatComboBox.getSelectionModel().selectedItemProperty()
+                .addListener((observable, oldValue, newValue) -> mRecordPreference.setBasebandRecordFormat(newValue));
+        }
+
+        return mBasebandRecordFormatComboBox;
+    }
+
+    /**
+     * Spinner to select the number of audio recording worker threads in range 1-16.
+     * @return spinner
+     */
+    private Spinner<Integer> getRecordingThreadCountSpinner()
+    {
+        if(mRecordingThreadCountSpinner == null)
+        {
+            mRecordingThreadCountSpinner = new Spinner<>(1, 16,
+                Math.min(16, mRecordPreference.getAudioRecordingThreadCount()), 1);
+            mRecordingThreadCountSpinner.valueProperty()
+                .addListener((observable, oldValue, newValue) -> mRecordPreference.setAudioRecordingThreadCount(newValue));
+        }
+
+        return mRecordingThreadCountSpinner;
+    }
 }
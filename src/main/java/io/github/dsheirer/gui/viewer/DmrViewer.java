@@ -19,21 +19,21 @@
 
 package io.github.dsheirer.gui.viewer;
 
+import io.github.dsheirer.dsp.symbol.QPSKCarrierLock;
+import io.github.dsheirer.dsp.symbol.sync.SyncPattern;
+import io.github.dsheirer.dsp.symbol.sync.SyncPatterns;
 import io.github.dsheirer.message.IMessage;
 import io.github.dsheirer.module.decode.dmr.DMRMessageFramer;
 import io.github.dsheirer.module.decode.dmr.DMRMessageProcessor;
 import io.github.dsheirer.module.decode.dmr.DecodeConfigDMR;
-import io.github.dsheirer.record.binary.BinaryReader;
-import io.github.dsheirer.util.ThreadPool;
+import io.github.dsheirer.sample.Listener;
 import java.io.File;
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.function.Predicate;
 import java.util.prefs.Preferences;
-import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.value.ObservableValue;
 import javafx.collections.FXCollections;
@@ -71,6 +71,7 @@ public class DmrViewer extends VBox
 {
     private static final Logger mLog = LoggerFactory.getLogger(DmrViewer.class);
     private static final KeyCodeCombination KEY_CODE_COPY = new KeyCodeCombination(KeyCode.C, KeyCombination.CONTROL_ANY);
+    private static final int SYNC_MAX_BIT_ERRORS = 4;
     private static final String LAST_SELECTED_DIRECTORY = "last.selected.directory.dmr";
     private Preferences mPreferences = Preferences.userNodeForPackage(DmrViewer.class);
     private Button mSelectFileButton;
@@ -87,6 +88,7 @@ public class DmrViewer extends VBox
     private Button mFindButton;
     private Button mFindNextButton;
     private ProgressIndicator mLoadingIndicator;
+    private MessagePager mMessagePager;
 
     public DmrViewer()
     {
@@ -107,7 +109,8 @@ public class DmrViewer extends VBox
         compressedBox.getChildren().addAll(getUseCompressedTalkgroups());
         HBox.setHgrow(compressedBox, Priority.ALWAYS);
 
-        fileBox.getChildren().addAll(getSelectFileButton(), getSelectedFileLabel(), compressedBox);
+        fileBox.getChildren().addAll(getSelectFileButton(), getSelectedFileLabel(),
+            getMessagePager().getPageNavigator(), compressedBox);
 
         HBox filterBox = new HBox();
         filterBox.setMaxWidth(Double.MAX_VALUE);
@@ -133,6 +136,16 @@ public class DmrViewer extends VBox
         getChildren().addAll(fileBox, filterBox, getMessageTableView());
     }
 
+    /**
+     * Opens the recording and loads the first page of messages into the viewer.
+     * @param file containing a .bits recording of decoded DMR data.
+     */
+    private void load(File file)
+    {
+        final boolean useCompressed = getUseCompressedTalkgroups().isSelected();
+        getMessagePager().load(file, getSyncPatterns(), listener -> createDecoder(useCompressed, listener));
+    }
+
     /**
      * Spinny loading icon to show over the message table view
      */
@@ -149,53 +162,30 @@ public class DmrViewer extends VBox
     }
 
     /**
-     * Processes the recording file and loads the content into the viewer
-     * @param file containing a .bits recording of decoded DMR data.
+     * Creates a message framer and processor chain to decode a page of the recording.
+     * @param useCompressed talkgroups
+     * @param listener to receive decoded messages
+     * @return listener to receive the recording byte buffers
      */
-    private void load(File file)
+    private static Listener<ByteBuffer> createDecoder(boolean useCompressed, Listener<IMessage> listener)
     {
-        if(file != null && file.exists())
-        {
-            mMessages.clear();
-            getLoadingIndicator().setVisible(true);
-            getSelectedFileLabel().setText("Loading ...");
-            final boolean useCompressed = getUseCompressedTalkgroups().isSelected();
-
-            ThreadPool.CACHED.submit(new Runnable()
-            {
-                @Override
-                public void run()
-                {
-                    List<IMessage> messages = new ArrayList<>();
-                    DMRMessageFramer messageFramer = new DMRMessageFramer(null);
-                    DecodeConfigDMR config = new DecodeConfigDMR();
-                    config.setUseCompressedTalkgroups(useCompressed);
-                    DMRMessageProcessor messageProcessor = new DMRMessageProcessor(config);
-                    messageFramer.setListener(messageProcessor);
-                    messageProcessor.setMessageListener(message -> messages.add(message));
-
-                    try(BinaryReader reader = new BinaryReader(file.toPath(), 200))
-                    {
-                        while(reader.hasNext())
-                        {
-                            ByteBuffer buffer = reader.next();
-                            messageFramer.receive(buffer);
-                        }
-                    }
-                    catch(Exception ioe)
-                    {
-                        ioe.printStackTrace();
-                    }
+        DMRMessageFramer messageFramer = new DMRMessageFramer(null);
+        DecodeConfigDMR config = new DecodeConfigDMR();
+        config.setUseCompressedTalkgroups(useCompressed);
+        DMRMessageProcessor messageProcessor = new DMRMessageProcessor(config);
+        messageFramer.setListener(messageProcessor);
+        messageProcessor.setMessageListener(listener);
+
+        return messageFramer::receive;
+    }
 
-                    Platform.runLater(() -> {
-                        getLoadingIndicator().setVisible(false);
-                        getSelectedFileLabel().setText(file.getName());
-                        mMessages.addAll(messages);
-                        getMessageTableView().scrollTo(0);
-                    });
-                }
-            });
-        }
+    /**
+     * DMR sync patterns (non-rotated) that mark the start of each burst.
+     */
+    private static List<SyncPattern> getSyncPatterns()
+    {
+        return SyncPatterns.dmr(SYNC_MAX_BIT_ERRORS, 0).stream()
+                .filter(pattern -> pattern.carrierLock() == QPSKCarrierLock.NORMAL).toList();
     }
 
     /**
@@ -222,58 +212,17 @@ public class DmrViewer extends VBox
     }
 
     /**
-     * Finds and selects the first row containing the text argument.
-     * @param text to search for.
+     * Pages the recording messages through the message table
      */
-    private void find(String text)
+    private MessagePager getMessagePager()
     {
-        if(text != null && !text.isEmpty())
+        if(mMessagePager == null)
         {
-            for(IMessage message: mFilteredMessages)
-            {
-                if(message.toString().toLowerCase().contains(text.toLowerCase()))
-                {
-                    getMessageTableView().getSelectionModel().select(message);
-                    getMessageTableView().scrollTo(message);
-                    return;
-                }
-            }
+            mMessagePager = new MessagePager(getMessageTableView(), mMessages, mFilteredMessages,
+                getLoadingIndicator(), getSelectedFileLabel());
         }
-    }
-
-    /**
-     * Finds and selects the first row containing the text argument, after the currently selected row.
-     * @param text to search for.
-     */
-    private void findNext(String text)
-    {
-        if(text != null && !text.isEmpty())
-        {
-            IMessage selected = getMessageTableView().getSelectionModel().getSelectedItem();
-
-            if(selected == null)
-            {
-                find(text);
-                return;
-            }
 
-            int row = mFilteredMessages.indexOf(selected);
-
-            for(int x = row + 1; x < mFilteredMessages.size(); x++)
-            {
-                if(x < mFilteredMessages.size())
-                {
-                    IMessage message = mFilteredMessages.get(x);
-
-                    if(message.toString().toLowerCase().contains(text.toLowerCase()))
-                    {
-                        getMessageTableView().getSelectionModel().select(message);
-                        getMessageTableView().scrollTo(message);
-                        return;
-                    }
-                }
-            }
-        }
+        return mMessagePager;
     }
 
     /**
@@ -509,7 +458,7 @@ public class DmrViewer extends VBox
         if(mFindButton == null)
         {
             mFindButton = new Button("Find");
-            mFindButton.setOnAction(event -> find(getFindText().getText()));
+            mFindButton.setOnAction(event -> getMessagePager().find(getFindText().getText()));
         }
 
         return mFindButton;
@@ -524,7 +473,7 @@ public class DmrViewer extends VBox
         if(mFindNextButton == null)
         {
             mFindNextButton = new Button("Next");
-            mFindNextButton.setOnAction(event -> findNext(getFindText().getText()));
+            mFindNextButton.setOnAction(event -> getMessagePager().findNext(getFindText().getText()));
         }
 
         return mFindNextButton;
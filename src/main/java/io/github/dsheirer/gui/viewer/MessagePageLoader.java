@@ -0,0 +1,281 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.gui.viewer;
+
+import io.github.dsheirer.dsp.symbol.sync.SyncPattern;
+import io.github.dsheirer.message.IMessage;
+import io.github.dsheirer.record.binary.MappedBinaryReader;
+import io.github.dsheirer.record.binary.SyncPositionIndex;
+import io.github.dsheirer.sample.Listener;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lazy loader for decoded messages from a demodulated bitstream (.bits) recording.  On open, the recording is memory
+ * mapped and indexed by frame sync position.  The recording is then decoded on demand, one page (window of frame
+ * syncs) at a time, and only a few recently viewed pages are retained in memory.
+ *
+ * Each page is decoded with a fresh decoder that starts a couple of frames before the page start to prime the
+ * decoder state.  Messages produced while priming the decoder, and while processing the leading bytes of the first
+ * frame sync in the page, are discarded since they belong to the previous page.  Decoding continues into the leading
+ * bytes of the next page so that the final message of the page is completed.
+ *
+ * Closing the loader doesn't wait for a page that is decoding.  The decode stops at the next recording segment and
+ * the recording is closed once the decode returns.
+ */
+public class MessagePageLoader implements AutoCloseable
+{
+    public static final int DEFAULT_FRAMES_PER_PAGE = 500;
+    private static final int WARMUP_FRAMES = 2;
+    private static final int SYNC_BYTES = 8;
+    private static final int MAX_SEGMENT_SIZE = 65536;
+    private static final int CACHED_PAGE_COUNT = 4;
+    private final MappedBinaryReader mReader;
+    private final SyncPositionIndex mIndex;
+    private final IDecoderFactory mDecoderFactory;
+    private final int mFramesPerPage;
+    private final Object mReaderLock = new Object();
+    private volatile boolean mClosed;
+    private boolean mDecoding;
+    private final Map<Integer,List<IMessage>> mPageCache = new LinkedHashMap<>(16, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer,List<IMessage>> eldest)
+        {
+            return size() > CACHED_PAGE_COUNT;
+        }
+    };
+
+    /**
+     * Constructs an instance.  Use the open() method.
+     */
+    private MessagePageLoader(MappedBinaryReader reader, SyncPositionIndex index, IDecoderFactory decoderFactory,
+                              int framesPerPage)
+    {
+        mReader = reader;
+        mIndex = index;
+        mDecoderFactory = decoderFactory;
+        mFramesPerPage = framesPerPage;
+    }
+
+    /**
+     * Opens the recording and builds the frame sync index.  Invoke off of the UI thread.
+     * @param path to the .bits recording
+     * @param syncPatterns that mark the start of each frame
+     * @param decoderFactory to create a decoder for each page
+     * @param framesPerPage number of frame syncs in each page
+     * @return loader
+     * @throws IOException if the recording can't be opened
+     */
+    public static MessagePageLoader open(Path path, Collection<SyncPattern> syncPatterns,
+                                         IDecoderFactory decoderFactory, int framesPerPage) throws IOException
+    {
+        MappedBinaryReader reader = new MappedBinaryReader(path, MAX_SEGMENT_SIZE);
+
+        try
+        {
+            SyncPositionIndex index = SyncPositionIndex.build(reader, syncPatterns);
+            return new MessagePageLoader(reader, index, decoderFactory, framesPerPage);
+        }
+        catch(IOException ioe)
+        {
+            reader.close();
+            throw ioe;
+        }
+    }
+
+    /**
+     * Number of pages in the recording.  There is always at least one (possibly empty) page.
+     */
+    public int getPageCount()
+    {
+        return Math.max(1, (mIndex.size() + mFramesPerPage - 1) / mFramesPerPage);
+    }
+
+    /**
+     * Number of frame syncs detected in the recording
+     */
+    public int getFrameCount()
+    {
+        return mIndex.size();
+    }
+
+    /**
+     * Decodes (or retrieves from cache) the messages for the page.  Invoke off of the UI thread.
+     * @param page number, zero based
+     * @return messages for the page
+     * @throws IOException if there is an error reading the recording
+     */
+    public synchronized List<IMessage> getPage(int page) throws IOException
+    {
+        if(page < 0 || page >= getPageCount())
+        {
+            throw new IllegalArgumentException("Page [" + page + "] is outside of page count [" + getPageCount() + "]");
+        }
+
+        if(mClosed)
+        {
+            throw new IOException("Recording is closed");
+        }
+
+        List<IMessage> messages = mPageCache.get(page);
+
+        if(messages == null)
+        {
+            synchronized(mReaderLock)
+            {
+                if(mClosed)
+                {
+                    throw new IOException("Recording is closed");
+                }
+
+                mDecoding = true;
+            }
+
+            try
+            {
+                messages = decode(page);
+            }
+            finally
+            {
+                synchronized(mReaderLock)
+                {
+                    mDecoding = false;
+
+                    if(mClosed)
+                    {
+                        mReader.close();
+                    }
+                }
+            }
+
+            mPageCache.put(page, messages);
+        }
+
+        return messages;
+    }
+
+    /**
+     * Decodes the messages for the page.
+     */
+    private List<IMessage> decode(int page) throws IOException
+    {
+        List<IMessage> messages = new ArrayList<>();
+
+        if(mIndex.size() == 0)
+        {
+            return Collections.unmodifiableList(messages);
+        }
+
+        int first = page * mFramesPerPage;
+        int last = Math.min(first + mFramesPerPage, mIndex.size());
+        boolean[] collecting = new boolean[1];
+        Listener<ByteBuffer> decoder = mDecoderFactory.create(message -> {
+            if(collecting[0])
+            {
+                messages.add(message);
+            }
+        });
+
+        for(int frame = Math.max(0, first - WARMUP_FRAMES); frame < last; frame++)
+        {
+            long start = mIndex.getOffset(frame);
+            long end = (frame + 1 < mIndex.size()) ? mIndex.getOffset(frame + 1) : mReader.size();
+
+            if(frame == first)
+            {
+                //The leading sync bytes complete the final message of the previous page
+                long split = Math.min(end, start + SYNC_BYTES);
+                feed(decoder, start, split);
+                start = split;
+                collecting[0] = true;
+            }
+
+            feed(decoder, start, end);
+        }
+
+        //Continue into the next page's first frame sync to complete the final message of this page
+        if(last < mIndex.size())
+        {
+            long start = mIndex.getOffset(last);
+            feed(decoder, start, Math.min(mReader.size(), start + SYNC_BYTES));
+        }
+
+        return Collections.unmodifiableList(messages);
+    }
+
+    /**
+     * Copies the recording byte range into exactly sized heap buffers and sends them to the decoder.  Message framers
+     * process the complete backing array of each buffer, so mapped views can't be passed directly.
+     */
+    private void feed(Listener<ByteBuffer> decoder, long start, long end) throws IOException
+    {
+        long offset = start;
+
+        while(offset < end)
+        {
+            if(mClosed)
+            {
+                throw new IOException("Recording is closed");
+            }
+
+            int length = (int)Math.min(MAX_SEGMENT_SIZE, end - offset);
+            decoder.receive(ByteBuffer.wrap(mReader.readBytes(offset, length)));
+            offset += length;
+        }
+    }
+
+    /**
+     * Closes the recording.  Safe to invoke on the UI thread, since this doesn't wait for a page that is decoding.
+     * The decoding page is abandoned and the recording is closed when the decode returns.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        synchronized(mReaderLock)
+        {
+            mClosed = true;
+
+            if(!mDecoding)
+            {
+                mReader.close();
+            }
+        }
+    }
+
+    /**
+     * Creates a new decoder (message framer and processor chain) for each page.
+     */
+    public interface IDecoderFactory
+    {
+        /**
+         * Creates a decoder
+         * @param messageListener to receive decoded messages
+         * @return listener to receive the recording byte buffers
+         */
+        Listener<ByteBuffer> create(Listener<IMessage> messageListener);
+    }
+}
@@ -0,0 +1,337 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.gui.viewer;
+
+import io.github.dsheirer.dsp.symbol.sync.SyncPattern;
+import io.github.dsheirer.message.IMessage;
+import io.github.dsheirer.util.ThreadPool;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+import javafx.application.Platform;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.TableView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pages the decoded messages of a .bits recording through a viewer's message table.  Opens the recording with a
+ * message page loader, provides the page navigator control, displays each page as the user navigates and continues
+ * find and find next searches into the subsequent pages.
+ *
+ * Pages are decoded off of the UI thread.  A decoded page is only displayed when it belongs to the most recent load,
+ * page or search request, so that results from a previous recording or an earlier navigation don't replace the
+ * current page.  All methods are invoked on the JavaFX UI thread.
+ */
+public class MessagePager
+{
+    private static final Logger mLog = LoggerFactory.getLogger(MessagePager.class);
+    private final TableView<IMessage> mMessageTableView;
+    private final ObservableList<IMessage> mMessages;
+    private final FilteredList<IMessage> mFilteredMessages;
+    private final ProgressIndicator mLoadingIndicator;
+    private final Label mSelectedFileLabel;
+    private PageNavigator mPageNavigator;
+    private MessagePageLoader mPageLoader;
+    private int mRequest;
+
+    /**
+     * Constructs an instance
+     * @param messageTableView that displays the filtered messages
+     * @param messages list backing the message table
+     * @param filteredMessages filtered view of the messages list
+     * @param loadingIndicator to show while a recording is loading
+     * @param selectedFileLabel to show the name of the loaded recording
+     */
+    public MessagePager(TableView<IMessage> messageTableView, ObservableList<IMessage> messages,
+                        FilteredList<IMessage> filteredMessages, ProgressIndicator loadingIndicator,
+                        Label selectedFileLabel)
+    {
+        mMessageTableView = messageTableView;
+        mMessages = messages;
+        mFilteredMessages = filteredMessages;
+        mLoadingIndicator = loadingIndicator;
+        mSelectedFileLabel = selectedFileLabel;
+    }
+
+    /**
+     * Opens the recording, indexes the frame sync positions and loads the first page of messages into the viewer.
+     * Subsequent pages are decoded on demand as the user navigates through the recording.
+     * @param file containing a .bits recording
+     * @param syncPatterns that mark the start of each frame
+     * @param decoderFactory to create a decoder for each page
+     */
+    public void load(File file, Collection<SyncPattern> syncPatterns, MessagePageLoader.IDecoderFactory decoderFactory)
+    {
+        if(file != null && file.exists())
+        {
+            int request = ++mRequest;
+            closePageLoader();
+            mMessages.clear();
+            getPageNavigator().setPageCount(0);
+            mLoadingIndicator.setVisible(true);
+            mSelectedFileLabel.setText("Loading ...");
+
+            ThreadPool.CACHED.submit(() -> {
+                try
+                {
+                    MessagePageLoader pageLoader = MessagePageLoader.open(file.toPath(), syncPatterns, decoderFactory,
+                        MessagePageLoader.DEFAULT_FRAMES_PER_PAGE);
+                    List<IMessage> messages = pageLoader.getPage(0);
+
+                    Platform.runLater(() -> {
+                        if(request != mRequest)
+                        {
+                            //A different recording was selected while this one was loading
+                            close(pageLoader);
+                            return;
+                        }
+
+                        mPageLoader = pageLoader;
+                        getPageNavigator().setPageCount(pageLoader.getPageCount());
+                        mLoadingIndicator.setVisible(false);
+                        mSelectedFileLabel.setText(file.getName());
+                        display(0, messages, null);
+                    });
+                }
+                catch(Exception ioe)
+                {
+                    mLog.error("Error loading recording [" + file + "]", ioe);
+                    Platform.runLater(() -> {
+                        if(request == mRequest)
+                        {
+                            mLoadingIndicator.setVisible(false);
+                            mSelectedFileLabel.setText(file.getName());
+                        }
+                    });
+                }
+            });
+        }
+    }
+
+    /**
+     * Finds and selects the first row containing the text argument.  When the current page doesn't contain the text,
+     * the search continues through the subsequent pages.
+     * @param text to search for.
+     */
+    public void find(String text)
+    {
+        if(text != null && !text.isEmpty())
+        {
+            for(IMessage message: mFilteredMessages)
+            {
+                if(message.toString().toLowerCase().contains(text.toLowerCase()))
+                {
+                    mMessageTableView.getSelectionModel().select(message);
+                    mMessageTableView.scrollTo(message);
+                    return;
+                }
+            }
+
+            findInPages(text, getPageNavigator().getPage() + 1);
+        }
+    }
+
+    /**
+     * Finds and selects the first row containing the text argument, after the currently selected row.  When the
+     * remainder of the current page doesn't contain the text, the search continues through the subsequent pages.
+     * @param text to search for.
+     */
+    public void findNext(String text)
+    {
+        if(text != null && !text.isEmpty())
+        {
+            IMessage selected = mMessageTableView.getSelectionModel().getSelectedItem();
+
+            if(selected == null)
+            {
+                find(text);
+                return;
+            }
+
+            int row = mFilteredMessages.indexOf(selected);
+
+            for(int x = row + 1; x < mFilteredMessages.size(); x++)
+            {
+                IMessage message = mFilteredMessages.get(x);
+
+                if(message.toString().toLowerCase().contains(text.toLowerCase()))
+                {
+                    mMessageTableView.getSelectionModel().select(message);
+                    mMessageTableView.scrollTo(message);
+                    return;
+                }
+            }
+
+            findInPages(text, getPageNavigator().getPage() + 1);
+        }
+    }
+
+    /**
+     * Page navigation control for the recording
+     */
+    public PageNavigator getPageNavigator()
+    {
+        if(mPageNavigator == null)
+        {
+            mPageNavigator = new PageNavigator();
+            mPageNavigator.setPageListener(this::showPage);
+        }
+
+        return mPageNavigator;
+    }
+
+    /**
+     * Decodes the page off of the UI thread and displays it.
+     * @param page to show
+     */
+    private void showPage(int page)
+    {
+        MessagePageLoader pageLoader = mPageLoader;
+
+        if(pageLoader != null)
+        {
+            int request = ++mRequest;
+
+            ThreadPool.CACHED.submit(() -> {
+                try
+                {
+                    List<IMessage> messages = pageLoader.getPage(page);
+                    Platform.runLater(() -> {
+                        if(isCurrent(pageLoader, request))
+                        {
+                            display(page, messages, null);
+                        }
+                    });
+                }
+                catch(Exception ioe)
+                {
+                    mLog.error("Error loading recording page [" + page + "]", ioe);
+                }
+            });
+        }
+    }
+
+    /**
+     * Searches the pages off of the UI thread, starting with the start page, for the first message that passes the
+     * current message filter and contains the text, and displays the page with the message selected.
+     * @param text to search for.
+     * @param startPage to start searching
+     */
+    private void findInPages(String text, int startPage)
+    {
+        MessagePageLoader pageLoader = mPageLoader;
+        Predicate<? super IMessage> filter = mFilteredMessages.getPredicate();
+
+        if(pageLoader != null && startPage < pageLoader.getPageCount())
+        {
+            int request = ++mRequest;
+            String lowerCaseText = text.toLowerCase();
+
+            ThreadPool.CACHED.submit(() -> {
+                try
+                {
+                    for(int page = startPage; page < pageLoader.getPageCount(); page++)
+                    {
+                        List<IMessage> messages = pageLoader.getPage(page);
+
+                        for(IMessage message: messages)
+                        {
+                            if((filter == null || filter.test(message)) &&
+                                    message.toString().toLowerCase().contains(lowerCaseText))
+                            {
+                                int foundPage = page;
+                                Platform.runLater(() -> {
+                                    if(isCurrent(pageLoader, request))
+                                    {
+                                        display(foundPage, messages, message);
+                                    }
+                                });
+                                return;
+                            }
+                        }
+                    }
+                }
+                catch(Exception ioe)
+                {
+                    mLog.error("Error searching recording", ioe);
+                }
+            });
+        }
+    }
+
+    /**
+     * Indicates if the page loader is still the current loader and the request is the most recent request.
+     */
+    private boolean isCurrent(MessagePageLoader pageLoader, int request)
+    {
+        return mPageLoader == pageLoader && mRequest == request;
+    }
+
+    /**
+     * Displays the page of messages in the message table.
+     * @param page number
+     * @param messages for the page
+     * @param selection to select after loading, or null to scroll to the top of the page
+     */
+    private void display(int page, List<IMessage> messages, IMessage selection)
+    {
+        getPageNavigator().setPage(page);
+        mMessages.setAll(messages);
+
+        if(selection != null)
+        {
+            mMessageTableView.getSelectionModel().select(selection);
+            mMessageTableView.scrollTo(selection);
+        }
+        else
+        {
+            mMessageTableView.scrollTo(0);
+        }
+    }
+
+    /**
+     * Closes the current page loader, if there is one.
+     */
+    private void closePageLoader()
+    {
+        if(mPageLoader != null)
+        {
+            close(mPageLoader);
+            mPageLoader = null;
+        }
+    }
+
+    private static void close(MessagePageLoader pageLoader)
+    {
+        try
+        {
+            pageLoader.close();
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error closing recording", ioe);
+        }
+    }
+}
@@ -19,21 +19,19 @@
 
 package io.github.dsheirer.gui.viewer;
 
+import io.github.dsheirer.dsp.symbol.sync.SyncPatterns;
 import io.github.dsheirer.message.IMessage;
 import io.github.dsheirer.message.StuffBitsMessage;
 import io.github.dsheirer.module.decode.p25.phase1.P25P1MessageFramer;
 import io.github.dsheirer.module.decode.p25.phase1.P25P1MessageProcessor;
-import io.github.dsheirer.record.binary.BinaryReader;
-import io.github.dsheirer.util.ThreadPool;
+import io.github.dsheirer.sample.Listener;
 import java.io.File;
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.function.Predicate;
 import java.util.prefs.Preferences;
-import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.value.ObservableValue;
 import javafx.collections.FXCollections;
@@ -70,6 +68,7 @@ public class P25P1Viewer extends VBox
 {
     private static final Logger mLog = LoggerFactory.getLogger(P25P1Viewer.class);
     private static final KeyCodeCombination KEY_CODE_COPY = new KeyCodeCombination(KeyCode.C, KeyCombination.CONTROL_ANY);
+    private static final int SYNC_MAX_BIT_ERRORS = 4;
     private static final String LAST_SELECTED_DIRECTORY = "last.selected.directory.p25p1";
     private Preferences mPreferences = Preferences.userNodeForPackage(P25P1Viewer.class);
     private Button mSelectFileButton;
@@ -82,6 +81,7 @@ public class P25P1Viewer extends VBox
     private Button mFindButton;
     private Button mFindNextButton;
     private ProgressIndicator mLoadingIndicator;
+    private MessagePager mMessagePager;
 
     public P25P1Viewer()
     {
@@ -96,7 +96,8 @@ public class P25P1Viewer extends VBox
         HBox.setHgrow(getSelectedFileLabel(), Priority.ALWAYS);
         getSelectedFileLabel().setAlignment(Pos.BASELINE_CENTER);
 
-        fileBox.getChildren().addAll(getSelectFileButton(), getSelectedFileLabel());
+        fileBox.getChildren().addAll(getSelectFileButton(), getSelectedFileLabel(),
+            getMessagePager().getPageNavigator());
 
         HBox filterBox = new HBox();
         filterBox.setMaxWidth(Double.MAX_VALUE);
@@ -121,54 +122,33 @@ public class P25P1Viewer extends VBox
     }
 
     /**
-     * Processes the recording file and loads the content into the viewer
-     *
-     * Note: invoke this method off of the UI thread in a thread pool executor and the results will be loaded into the
-     * message table back on the JavaFX UI thread.
-     *
-     * @param file containing a .bits recording of decoded DMR data.
+     * Opens the recording and loads the first page of messages into the viewer.
+     * @param file containing a .bits recording of decoded APCO25 Phase 1 data.
      */
     private void load(File file)
     {
-        if(file != null && file.exists())
-        {
-            mMessages.clear();
-            getLoadingIndicator().setVisible(true);
-            getSelectedFileLabel().setText("Loading ...");
-
-            ThreadPool.CACHED.submit(() -> {
-                List<IMessage> messages = new ArrayList<>();
-                P25P1MessageFramer messageFramer = new P25P1MessageFramer(null, 9600);
-                P25P1MessageProcessor messageProcessor = new P25P1MessageProcessor();
-                messageFramer.setListener(messageProcessor);
-                messageProcessor.setMessageListener(message -> {
-                    if(!(message instanceof StuffBitsMessage))
-                    {
-                        messages.add(message);
-                    }
-                });
+        getMessagePager().load(file, List.of(SyncPatterns.p25Phase1(SYNC_MAX_BIT_ERRORS)),
+            P25P1Viewer::createDecoder);
+    }
 
-                try(BinaryReader reader = new BinaryReader(file.toPath(), 200))
-                {
-                    while(reader.hasNext())
-                    {
-                        ByteBuffer buffer = reader.next();
-                        messageFramer.receive(buffer);
-                    }
-                }
-                catch(Exception ioe)
-                {
-                    ioe.printStackTrace();
-                }
+    /**
+     * Creates a message framer and processor chain to decode a page of the recording.
+     * @param listener to receive decoded messages
+     * @return listener to receive the recording byte buffers
+     */
+    private static Listener<ByteBuffer> createDecoder(Listener<IMessage> listener)
+    {
+        P25P1MessageFramer messageFramer = new P25P1MessageFramer(null, 9600);
+        P25P1MessageProcessor messageProcessor = new P25P1MessageProcessor();
+        messageFramer.setListener(messageProcessor);
+        messageProcessor.setMessageListener(message -> {
+            if(!(message instanceof StuffBitsMessage))
+            {
+                listener.receive(message);
+            }
+        });
 
-                Platform.runLater(() -> {
-                    getLoadingIndicator().setVisible(false);
-                    getSelectedFileLabel().setText(file.getName());
-                    mMessages.addAll(messages);
-                    getMessageTableView().scrollTo(0);
-                });
-            });
-        }
+        return messageFramer::receive;
     }
 
     /**
@@ -190,58 +170,17 @@ public class P25P1Viewer extends VBox
     }
 
     /**
-     * Finds and selects the first row containing the text argument.
-     * @param text to search for.
+     * Pages the recording messages through the message table
      */
-    private void find(String text)
+    private MessagePager getMessagePager()
     {
-        if(text != null && !text.isEmpty())
+        if(mMessagePager == null)
         {
-            for(IMessage message: mFilteredMessages)
-            {
-                if(message.toString().toLowerCase().contains(text.toLowerCase()))
-                {
-                    getMessageTableView().getSelectionModel().select(message);
-                    getMessageTableView().scrollTo(message);
-                    return;
-                }
-            }
+            mMessagePager = new MessagePager(getMessageTableView(), mMessages, mFilteredMessages,
+                getLoadingIndicator(), getSelectedFileLabel());
         }
-    }
-
-    /**
-     * Finds and selects the first row containing the text argument, after the currently selected row.
-     * @param text to search for.
-     */
-    private void findNext(String text)
-    {
-        if(text != null && !text.isEmpty())
-        {
-            IMessage selected = getMessageTableView().getSelectionModel().getSelectedItem();
-
-            if(selected == null)
-            {
-                find(text);
-                return;
-            }
 
-            int row = mFilteredMessages.indexOf(selected);
-
-            for(int x = row + 1; x < mFilteredMessages.size(); x++)
-            {
-                if(x < mFilteredMessages.size())
-                {
-                    IMessage message = mFilteredMessages.get(x);
-
-                    if(message.toString().toLowerCase().contains(text.toLowerCase()))
-                    {
-                        getMessageTableView().getSelectionModel().select(message);
-                        getMessageTableView().scrollTo(message);
-                        return;
-                    }
-                }
-            }
-        }
+        return mMessagePager;
     }
 
     /**
@@ -439,7 +378,7 @@ public class P25P1Viewer extends VBox
         if(mFindButton == null)
         {
             mFindButton = new Button("Find");
-            mFindButton.setOnAction(event -> find(getFindText().getText()));
+            mFindButton.setOnAction(event -> getMessagePager().find(getFindText().getText()));
         }
 
         return mFindButton;
@@ -454,7 +393,7 @@ public class P25P1Viewer extends VBox
         if(mFindNextButton == null)
         {
             mFindNextButton = new Button("Next");
-            mFindNextButton.setOnAction(event -> findNext(getFindText().getText()));
+            mFindNextButton.setOnAction(event -> getMessagePager().findNext(getFindText().getText()));
         }
 
         return mFindNextButton;
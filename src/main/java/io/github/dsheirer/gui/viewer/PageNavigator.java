@@ -0,0 +1,187 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.gui.viewer;
+
+import io.github.dsheirer.sample.Listener;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.layout.HBox;
+
+/**
+ * Page navigation control (first, previous, next, last) for viewers that load content one page at a time.
+ */
+public class PageNavigator extends HBox
+{
+    private Button mFirstButton;
+    private Button mPreviousButton;
+    private Button mNextButton;
+    private Button mLastButton;
+    private Label mPageLabel;
+    private Listener<Integer> mPageListener;
+    private int mPage;
+    private int mPageCount;
+
+    /**
+     * Constructs an instance
+     */
+    public PageNavigator()
+    {
+        setAlignment(Pos.CENTER_LEFT);
+        setSpacing(5);
+        getChildren().addAll(getFirstButton(), getPreviousButton(), getPageLabel(), getNextButton(), getLastButton());
+        setPageCount(0);
+    }
+
+    /**
+     * Registers the listener to be notified when the user selects a different page.
+     */
+    public void setPageListener(Listener<Integer> listener)
+    {
+        mPageListener = listener;
+    }
+
+    /**
+     * Sets the number of pages and resets the current page to the first page.  Does not notify the listener.
+     */
+    public void setPageCount(int pageCount)
+    {
+        mPageCount = pageCount;
+        mPage = 0;
+        update();
+    }
+
+    /**
+     * Current page, zero based
+     */
+    public int getPage()
+    {
+        return mPage;
+    }
+
+    /**
+     * Number of pages
+     */
+    public int getPageCount()
+    {
+        return mPageCount;
+    }
+
+    /**
+     * Sets the current page without notifying the listener.
+     */
+    public void setPage(int page)
+    {
+        if(page >= 0 && page < mPageCount)
+        {
+            mPage = page;
+            update();
+        }
+    }
+
+    /**
+     * Changes to the page and notifies the listener.
+     */
+    private void select(int page)
+    {
+        if(page >= 0 && page < mPageCount && page != mPage)
+        {
+            setPage(page);
+
+            if(mPageListener != null)
+            {
+                mPageListener.receive(page);
+            }
+        }
+    }
+
+    /**
+     * Updates the label and button states
+     */
+    private void update()
+    {
+        if(mPageCount > 0)
+        {
+            getPageLabel().setText("Page " + (mPage + 1) + " of " + mPageCount);
+        }
+        else
+        {
+            getPageLabel().setText("Page -");
+        }
+
+        getFirstButton().setDisable(mPage <= 0);
+        getPreviousButton().setDisable(mPage <= 0);
+        getNextButton().setDisable(mPage >= mPageCount - 1);
+        getLastButton().setDisable(mPage >= mPageCount - 1);
+    }
+
+    private Label getPageLabel()
+    {
+        if(mPageLabel == null)
+        {
+            mPageLabel = new Label();
+        }
+
+        return mPageLabel;
+    }
+
+    private Button getFirstButton()
+    {
+        if(mFirstButton == null)
+        {
+            mFirstButton = new Button("<<");
+            mFirstButton.setOnAction(event -> select(0));
+        }
+
+        return mFirstButton;
+    }
+
+    private Button getPreviousButton()
+    {
+        if(mPreviousButton == null)
+        {
+            mPreviousButton = new Button("<");
+            mPreviousButton.setOnAction(event -> select(mPage - 1));
+        }
+
+        return mPreviousButton;
+    }
+
+    private Button getNextButton()
+    {
+        if(mNextButton == null)
+        {
+            mNextButton = new Button(">");
+            mNextButton.setOnAction(event -> select(mPage + 1));
+        }
+
+        return mNextButton;
+    }
+
+    private Button getLastButton()
+    {
+        if(mLastButton == null)
+        {
+            mLastButton = new Button(">>");
+            mLastButton.setOnAction(event -> select(mPageCount - 1));
+        }
+
+        return mLastButton;
+    }
+}
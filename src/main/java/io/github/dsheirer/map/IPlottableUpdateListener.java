@@ -19,9 +19,14 @@
  */
 package io.github.dsheirer.map;
 
+import java.util.Collection;
+
 public interface IPlottableUpdateListener
 {
-    void entitiesUpdated();
-    void addPlottableEntity(PlottableEntityHistory entity);
-    void removePlottableEntity(PlottableEntityHistory entity);
+    /**
+     * Batch update of plottable entities.  Invoked on the map service thread.
+     * @param updated entities that were added or that reported a new location since the previous update
+     * @param removed entities that have expired
+     */
+    void entitiesUpdated(Collection<PlottableEntityHistory> updated, Collection<PlottableEntityHistory> removed);
 }
@@ -33,6 +33,7 @@ import org.jdesktop.swingx.mapviewer.TileFactoryInfo;
 
 import javax.swing.JPanel;
 import java.awt.EventQueue;
+import java.util.Collection;
 
 public class MapPanel extends JPanel implements IPlottableUpdateListener
 {
@@ -114,22 +115,11 @@ public class MapPanel extends JPanel implements IPlottableUpdateListener
     }
 
     @Override
-    public void entitiesUpdated()
+    public void entitiesUpdated(Collection<PlottableEntityHistory> updated, Collection<PlottableEntityHistory> removed)
     {
-        EventQueue.invokeLater(() -> mMapViewer.repaint());
-    }
-
-    @Override
-    public void addPlottableEntity(PlottableEntityHistory entity)
-    {
-        mMapPainter.addEntity(entity);
-        entitiesUpdated();
-    }
-
-    @Override
-    public void removePlottableEntity(PlottableEntityHistory entity)
-    {
-        mMapPainter.removeEntity(entity);
-        entitiesUpdated();
+        EventQueue.invokeLater(() -> {
+            mMapPainter.updateEntities(updated, removed);
+            mMapViewer.repaint();
+        });
     }
 }
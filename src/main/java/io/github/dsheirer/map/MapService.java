@@ -24,69 +24,152 @@ import io.github.dsheirer.identifier.Identifier;
 import io.github.dsheirer.module.decode.event.IDecodeEvent;
 import io.github.dsheirer.module.decode.event.PlottableDecodeEvent;
 import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.util.ThreadPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Tracks plottable entities (e.g. GPS/LRRP reporting radios) and their location histories for the map display.
+ *
+ * Plottable decode events are queued by the decoder threads and applied in batches on a scheduled thread, so decoders
+ * never block on map updates.  Listeners receive one notification per batch with the entities that were added or
+ * moved and the entities that have expired because they haven't reported within the history window.
+ */
 public class MapService implements Listener<IDecodeEvent>
 {
     private final static Logger mLog = LoggerFactory.getLogger(MapService.class);
 
-    private int mMaxHistory = 2;
-    private List<IPlottableUpdateListener> mListeners = new ArrayList<IPlottableUpdateListener>();
+    private static final long UPDATE_INTERVAL_MS = 250;
+    private static final long EXPIRATION_CHECK_INTERVAL_MS = TimeUnit.SECONDS.toMillis(10);
+
+    private List<IPlottableUpdateListener> mListeners = new CopyOnWriteArrayList<>();
+    private Queue<IPlottableUpdateListener> mAddedListeners = new ConcurrentLinkedQueue<>();
+    private Queue<PlottableDecodeEvent> mEventQueue = new ConcurrentLinkedQueue<>();
     private Map<Identifier,PlottableEntityHistory> mEntityHistories = new HashMap<>();
+    private long mLastExpirationCheck = System.currentTimeMillis();
     private IconModel mIconModel;
 
     public MapService(IconModel resourceManager)
     {
         mIconModel = resourceManager;
+        ThreadPool.SCHEDULED.scheduleAtFixedRate(this::processEvents, UPDATE_INTERVAL_MS, UPDATE_INTERVAL_MS,
+            TimeUnit.MILLISECONDS);
     }
 
     @Override
     public void receive(IDecodeEvent decodeEvent)
     {
-        if(decodeEvent instanceof PlottableDecodeEvent)
+        if(decodeEvent instanceof PlottableDecodeEvent plottableDecodeEvent)
+        {
+            if(plottableDecodeEvent.getIdentifierCollection().getFromIdentifier() != null)
+            {
+                mEventQueue.offer(plottableDecodeEvent);
+            }
+            else
+            {
+                mLog.warn("Received plottable decode event that does not contain a FROM identifier - cannot plot");
+            }
+        }
+    }
+
+    /**
+     * Applies queued plottable events to the entity histories, expires stale entities and notifies listeners of the
+     * batch of changes.  Invoked on the scheduled thread pool.
+     */
+    private void processEvents()
+    {
+        try
         {
-            PlottableDecodeEvent plottableDecodeEvent = (PlottableDecodeEvent)decodeEvent;
-            Identifier from = plottableDecodeEvent.getIdentifierCollection().getFromIdentifier();
+            Set<PlottableEntityHistory> updated = new LinkedHashSet<>();
+            List<PlottableEntityHistory> removed = new ArrayList<>();
 
-            if(from != null)
+            PlottableDecodeEvent event = mEventQueue.poll();
+
+            while(event != null)
             {
+                Identifier from = event.getIdentifierCollection().getFromIdentifier();
                 PlottableEntityHistory entityHistory = mEntityHistories.get(from);
 
                 if(entityHistory == null)
                 {
-                    entityHistory = new PlottableEntityHistory(from, plottableDecodeEvent);
+                    entityHistory = new PlottableEntityHistory(from, event);
                     mEntityHistories.put(from, entityHistory);
                 }
                 else
                 {
-                    entityHistory.add(plottableDecodeEvent);
+                    entityHistory.add(event);
                 }
 
-                for(IPlottableUpdateListener listener : mListeners)
+                updated.add(entityHistory);
+                event = mEventQueue.poll();
+            }
+
+            long now = System.currentTimeMillis();
+
+            if(now - mLastExpirationCheck > EXPIRATION_CHECK_INTERVAL_MS)
+            {
+                mLastExpirationCheck = now;
+                Iterator<PlottableEntityHistory> it = mEntityHistories.values().iterator();
+
+                while(it.hasNext())
                 {
-                    listener.addPlottableEntity(entityHistory);
+                    PlottableEntityHistory entityHistory = it.next();
+
+                    if(now - entityHistory.getLastUpdated() > PlottableEntityHistory.MAXIMUM_HISTORY_AGE_MS)
+                    {
+                        it.remove();
+                        removed.add(entityHistory);
+                    }
                 }
             }
-            else
+
+            //Newly registered listeners receive the current entities before joining the batch updates
+            IPlottableUpdateListener addedListener = mAddedListeners.poll();
+
+            while(addedListener != null)
             {
-                mLog.warn("Received plottable decode event that does not contain a FROM identifier - cannot plot");
+                addedListener.entitiesUpdated(new ArrayList<>(mEntityHistories.values()), Collections.emptyList());
+                mListeners.add(addedListener);
+                addedListener = mAddedListeners.poll();
             }
+
+            if(!updated.isEmpty() || !removed.isEmpty())
+            {
+                List<PlottableEntityHistory> updatedList = new ArrayList<>(updated);
+
+                for(IPlottableUpdateListener listener : mListeners)
+                {
+                    listener.entitiesUpdated(updatedList, removed);
+                }
+            }
+        }
+        catch(Throwable t)
+        {
+            mLog.error("Error while processing plottable entity updates", t);
         }
     }
 
     public void addListener(IPlottableUpdateListener listener)
     {
-        mListeners.add(listener);
+        mAddedListeners.offer(listener);
     }
 
     public void removeListener(IPlottableUpdateListener listener)
     {
+        mAddedListeners.remove(listener);
         mListeners.remove(listener);
     }
 }
@@ -25,17 +25,29 @@ import io.github.dsheirer.identifier.IdentifierCollection;
 import io.github.dsheirer.module.decode.event.PlottableDecodeEvent;
 import org.jdesktop.swingx.mapviewer.GeoPosition;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Plottable entity history with location history.
+ *
+ * The location history is bounded to a time window relative to the most recent location and to a maximum number of
+ * locations.  Updates are applied by the map service thread and the map display reads an immutable snapshot of the
+ * location history, so the display never sees a partially updated history.
  */
 public class PlottableEntityHistory
 {
-    private List<GeoPosition> mLocationHistory = new ArrayList<>();
-    private PlottableDecodeEvent mCurrentEvent;
+    public static final long MAXIMUM_HISTORY_AGE_MS = TimeUnit.MINUTES.toMillis(30);
+    public static final int MAXIMUM_HISTORY_SIZE = 256;
+
+    private Deque<TimestampedLocation> mLocations = new ArrayDeque<>();
+    private volatile List<GeoPosition> mLocationHistory = Collections.emptyList();
+    private volatile PlottableDecodeEvent mCurrentEvent;
+    private volatile long mLastUpdated;
     private Identifier mIdentifier;
 
     /**
@@ -48,11 +60,11 @@ public class PlottableEntityHistory
     }
 
     /**
-     * Location history for this entity
+     * Location history for this entity, oldest first.  This is an immutable snapshot.
      */
     public List<GeoPosition> getLocationHistory()
     {
-        return Collections.unmodifiableList(mLocationHistory);
+        return mLocationHistory;
     }
 
     /**
@@ -72,11 +84,49 @@ public class PlottableEntityHistory
     }
 
     /**
-     * Updates the entity history with a location from the latest decode event
+     * System time in milliseconds when this entity was last updated
      */
-    public void add(PlottableDecodeEvent event)
+    public long getLastUpdated()
+    {
+        return mLastUpdated;
+    }
+
+    /**
+     * Updates the entity history with a location from the latest decode event.  Locations that are older than the
+     * maximum history age relative to the latest location are removed, as are the oldest locations when the history
+     * exceeds the maximum history size.
+     */
+    public synchronized void add(PlottableDecodeEvent event)
     {
         mCurrentEvent = event;
-        mLocationHistory.add(event.getLocation());
+        mLastUpdated = System.currentTimeMillis();
+
+        if(event.getLocation() != null)
+        {
+            long timestamp = event.getTimeStart();
+            mLocations.addLast(new TimestampedLocation(event.getLocation(), timestamp));
+
+            while(mLocations.size() > MAXIMUM_HISTORY_SIZE ||
+                (mLocations.size() > 1 && mLocations.peekFirst().timestamp() < timestamp - MAXIMUM_HISTORY_AGE_MS))
+            {
+                mLocations.removeFirst();
+            }
+
+            List<GeoPosition> locationHistory = new ArrayList<>(mLocations.size());
+
+            for(TimestampedLocation location: mLocations)
+            {
+                locationHistory.add(location.position());
+            }
+
+            mLocationHistory = Collections.unmodifiableList(locationHistory);
+        }
+    }
+
+    /**
+     * Location with the decode event timestamp
+     */
+    private record TimestampedLocation(GeoPosition position, long timestamp)
+    {
     }
 }
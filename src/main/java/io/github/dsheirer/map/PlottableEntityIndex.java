@@ -0,0 +1,256 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.map;
+
+import org.jdesktop.swingx.mapviewer.GeoPosition;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Uniform latitude/longitude grid spatial index of plottable entities.  Each entity is indexed in every grid cell that
+ * is covered by the bounding box of its location history, so that a viewport query returns the entities whose
+ * location or route may be visible.  Entities with a bounding box that covers too many cells (e.g. a history with a
+ * bad fix on the other side of the world) are kept in an oversize set that is included in every query.
+ *
+ * This class is not thread safe.
+ */
+public class PlottableEntityIndex
+{
+    private static final double CELL_SIZE_DEGREES = 0.25;
+    private static final int MAXIMUM_ENTITY_CELLS = 256;
+
+    private Map<Long,Set<PlottableEntityHistory>> mCells = new HashMap<>();
+    private Map<PlottableEntityHistory,CellRange> mEntityRanges = new HashMap<>();
+    private Set<PlottableEntityHistory> mOversize = new HashSet<>();
+
+    /**
+     * Constructs an instance
+     */
+    public PlottableEntityIndex()
+    {
+    }
+
+    /**
+     * Number of indexed entities
+     */
+    public int size()
+    {
+        return mEntityRanges.size();
+    }
+
+    /**
+     * All indexed entities
+     */
+    public Collection<PlottableEntityHistory> getEntities()
+    {
+        return mEntityRanges.keySet();
+    }
+
+    /**
+     * Adds the entity or updates the indexed cells after the entity location history has changed
+     */
+    public void update(PlottableEntityHistory entity)
+    {
+        CellRange range = getCellRange(entity.getLocationHistory());
+
+        if(mEntityRanges.containsKey(entity) && Objects.equals(mEntityRanges.get(entity), range))
+        {
+            return;
+        }
+
+        remove(entity);
+        mEntityRanges.put(entity, range);
+
+        if(range == null)
+        {
+            return;
+        }
+
+        if(range.getCellCount() > MAXIMUM_ENTITY_CELLS)
+        {
+            mOversize.add(entity);
+            return;
+        }
+
+        for(int lat = range.minLat(); lat <= range.maxLat(); lat++)
+        {
+            for(int lon = range.minLon(); lon <= range.maxLon(); lon++)
+            {
+                mCells.computeIfAbsent(getKey(lat, lon), key -> new HashSet<>()).add(entity);
+            }
+        }
+    }
+
+    /**
+     * Removes the entity from the index
+     */
+    public void remove(PlottableEntityHistory entity)
+    {
+        CellRange range = mEntityRanges.remove(entity);
+
+        if(range == null)
+        {
+            return;
+        }
+
+        if(mOversize.remove(entity))
+        {
+            return;
+        }
+
+        for(int lat = range.minLat(); lat <= range.maxLat(); lat++)
+        {
+            for(int lon = range.minLon(); lon <= range.maxLon(); lon++)
+            {
+                long key = getKey(lat, lon);
+                Set<PlottableEntityHistory> entities = mCells.get(key);
+
+                if(entities != null)
+                {
+                    entities.remove(entity);
+
+                    if(entities.isEmpty())
+                    {
+                        mCells.remove(key);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all entities
+     */
+    public void clear()
+    {
+        mCells.clear();
+        mEntityRanges.clear();
+        mOversize.clear();
+    }
+
+    /**
+     * Finds the entities that may be visible within the bounding box
+     * @param northWest corner of the viewport
+     * @param southEast corner of the viewport
+     * @return entities indexed in the cells that overlap the bounding box
+     */
+    public Set<PlottableEntityHistory> query(GeoPosition northWest, GeoPosition southEast)
+    {
+        Set<PlottableEntityHistory> results = new HashSet<>(mOversize);
+
+        int minLat = getCell(Math.min(northWest.getLatitude(), southEast.getLatitude()));
+        int maxLat = getCell(Math.max(northWest.getLatitude(), southEast.getLatitude()));
+        int minLon = getCell(Math.min(northWest.getLongitude(), southEast.getLongitude()));
+        int maxLon = getCell(Math.max(northWest.getLongitude(), southEast.getLongitude()));
+
+        long queryCells = (long)(maxLat - minLat + 1) * (long)(maxLon - minLon + 1);
+
+        if(queryCells > mCells.size())
+        {
+            //Zoomed out - scan the occupied cells instead of the viewport cells
+            for(Map.Entry<Long,Set<PlottableEntityHistory>> entry: mCells.entrySet())
+            {
+                int lat = (int)(entry.getKey() >> 32);
+                int lon = (int)(entry.getKey().longValue());
+
+                if(minLat <= lat && lat <= maxLat && minLon <= lon && lon <= maxLon)
+                {
+                    results.addAll(entry.getValue());
+                }
+            }
+        }
+        else
+        {
+            for(int lat = minLat; lat <= maxLat; lat++)
+            {
+                for(int lon = minLon; lon <= maxLon; lon++)
+                {
+                    Set<PlottableEntityHistory> entities = mCells.get(getKey(lat, lon));
+
+                    if(entities != null)
+                    {
+                        results.addAll(entities);
+                    }
+                }
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Calculates the range of grid cells covered by the valid locations
+     * @return cell range or null if there are no valid locations
+     */
+    private static CellRange getCellRange(List<GeoPosition> locations)
+    {
+        int minLat = Integer.MAX_VALUE;
+        int maxLat = Integer.MIN_VALUE;
+        int minLon = Integer.MAX_VALUE;
+        int maxLon = Integer.MIN_VALUE;
+
+        for(GeoPosition location: locations)
+        {
+            if(location.isValid())
+            {
+                int lat = getCell(location.getLatitude());
+                int lon = getCell(location.getLongitude());
+                minLat = Math.min(minLat, lat);
+                maxLat = Math.max(maxLat, lat);
+                minLon = Math.min(minLon, lon);
+                maxLon = Math.max(maxLon, lon);
+            }
+        }
+
+        if(minLat == Integer.MAX_VALUE)
+        {
+            return null;
+        }
+
+        return new CellRange(minLat, maxLat, minLon, maxLon);
+    }
+
+    private static int getCell(double degrees)
+    {
+        return (int)Math.floor(degrees / CELL_SIZE_DEGREES);
+    }
+
+    private static long getKey(int lat, int lon)
+    {
+        return ((long)lat << 32) | (lon & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Inclusive range of grid cells
+     */
+    private record CellRange(int minLat, int maxLat, int minLon, int maxLon)
+    {
+        long getCellCount()
+        {
+            return (long)(maxLat - minLat + 1) * (long)(maxLon - minLon + 1);
+        }
+    }
+}
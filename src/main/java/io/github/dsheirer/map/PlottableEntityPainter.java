@@ -23,18 +23,26 @@ package io.github.dsheirer.map;
 import io.github.dsheirer.alias.AliasModel;
 import io.github.dsheirer.icon.IconModel;
 import org.jdesktop.swingx.JXMapViewer;
+import org.jdesktop.swingx.mapviewer.GeoPosition;
+import org.jdesktop.swingx.mapviewer.TileFactory;
 import org.jdesktop.swingx.painter.AbstractPainter;
 
 import java.awt.Graphics2D;
 import java.awt.Rectangle;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
+import java.awt.geom.Point2D;
+import java.util.Collection;
 
+/**
+ * Paints plottable entities on the map.  Entities are held in a spatial index so that only the entities within (or
+ * with a route crossing) the current viewport are rendered.  Accessed on the swing event thread.
+ */
 public class PlottableEntityPainter extends AbstractPainter<JXMapViewer>
 {
+    //Viewport margin in pixels so that icons and labels for entities just outside the viewport are painted
+    private static final int VIEWPORT_MARGIN = 64;
+
     private PlottableEntityRenderer mRenderer;
-    private Set<PlottableEntityHistory> mEntities = new HashSet<>();
+    private PlottableEntityIndex mEntityIndex = new PlottableEntityIndex();
 
     public PlottableEntityPainter(AliasModel aliasModel, IconModel iconModel)
     {
@@ -45,22 +53,35 @@ public class PlottableEntityPainter extends AbstractPainter<JXMapViewer>
 
     public void addEntity(PlottableEntityHistory entity)
     {
-        mEntities.add(entity);
+        mEntityIndex.update(entity);
     }
 
     public void removeEntity(PlottableEntityHistory entity)
     {
-        mEntities.remove(entity);
+        mEntityIndex.remove(entity);
     }
 
     public void clearEntities()
     {
-        mEntities.clear();
+        mEntityIndex.clear();
     }
 
-    private Set<PlottableEntityHistory> getEntities()
+    /**
+     * Applies a batch of entity updates to the spatial index
+     * @param updated entities that were added or moved
+     * @param removed entities to remove
+     */
+    public void updateEntities(Collection<PlottableEntityHistory> updated, Collection<PlottableEntityHistory> removed)
     {
-        return Collections.unmodifiableSet(mEntities);
+        for(PlottableEntityHistory entity : removed)
+        {
+            mEntityIndex.remove(entity);
+        }
+
+        for(PlottableEntityHistory entity : updated)
+        {
+            mEntityIndex.update(entity);
+        }
     }
 
     @Override
@@ -70,9 +91,13 @@ public class PlottableEntityPainter extends AbstractPainter<JXMapViewer>
 
         g.translate(-viewportBounds.getX(), -viewportBounds.getY());
 
-        Set<PlottableEntityHistory> entities = getEntities();
+        TileFactory tileFactory = map.getTileFactory();
+        GeoPosition northWest = tileFactory.pixelToGeo(new Point2D.Double(viewportBounds.getMinX() - VIEWPORT_MARGIN,
+            viewportBounds.getMinY() - VIEWPORT_MARGIN), map.getZoom());
+        GeoPosition southEast = tileFactory.pixelToGeo(new Point2D.Double(viewportBounds.getMaxX() + VIEWPORT_MARGIN,
+            viewportBounds.getMaxY() + VIEWPORT_MARGIN), map.getZoom());
 
-        for(PlottableEntityHistory entity : entities)
+        for(PlottableEntityHistory entity : mEntityIndex.query(northWest, southEast))
         {
             mRenderer.paintPlottableEntity(g, map, entity, true);
         }
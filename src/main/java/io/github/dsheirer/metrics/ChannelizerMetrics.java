@@ -0,0 +1,117 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Runtime metrics for a tuner channelizer: native buffers and samples processed, processing time per native buffer,
+ * buffer queue depth and sourced channel count.  Each channelizer instance is labeled with the channelizer type and
+ * an instance number, and with the tuner type.
+ *
+ * The metrics are registered while the channelizer is processing sample buffers and are removed when it stops, so
+ * that stopped or disposed channelizers don't leave series behind.  A channelizer that restarts begins its counters
+ * from zero, which Prometheus treats as a counter reset.
+ */
+public class ChannelizerMetrics
+{
+    private static final AtomicInteger INSTANCE_COUNTER = new AtomicInteger();
+    private static final double[] PROCESSING_SECONDS_BUCKETS = {0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005, 0.01,
+        0.025, 0.05, 0.1};
+    private static final String BUFFERS = "channelizer_buffers_total";
+    private static final String SAMPLES = "channelizer_samples_total";
+    private static final String PROCESSING = "channelizer_buffer_processing_seconds";
+    private static final String QUEUE_DEPTH = "channelizer_queue_depth";
+    private static final String CHANNELS = "channelizer_channels";
+
+    private final String mChannelizer;
+    private String[] mLabels;
+    private volatile Series mSeries;
+
+    /**
+     * Constructs an instance
+     * @param type of channelizer (e.g. polyphase)
+     */
+    public ChannelizerMetrics(String type)
+    {
+        mChannelizer = type + "-" + INSTANCE_COUNTER.incrementAndGet();
+    }
+
+    /**
+     * Registers the metrics when the channelizer starts processing sample buffers.
+     * @param tuner label for the tuner that provides the sample buffers
+     * @param queueDepth supplier of the number of sample buffers waiting to be processed
+     * @param channelCount supplier of the number of channels currently sourced
+     */
+    public synchronized void register(String tuner, DoubleSupplier queueDepth, DoubleSupplier channelCount)
+    {
+        remove();
+
+        mLabels = new String[]{"channelizer", mChannelizer, "tuner", tuner};
+        MetricsRegistry.gauge(QUEUE_DEPTH, "Native sample buffers waiting for the channelizer", queueDepth, mLabels);
+        MetricsRegistry.gauge(CHANNELS, "Channels currently sourced from the channelizer", channelCount, mLabels);
+        mSeries = new Series(
+            MetricsRegistry.counter(BUFFERS, "Native sample buffers processed by the channelizer", mLabels),
+            MetricsRegistry.counter(SAMPLES, "Complex samples processed by the channelizer", mLabels),
+            MetricsRegistry.histogram(PROCESSING, "Channelizer processing time per native sample buffer",
+                PROCESSING_SECONDS_BUCKETS, mLabels));
+    }
+
+    /**
+     * Records a processed native sample buffer.  Ignored when the metrics are not registered.
+     * @param start time of processing from System.nanoTime()
+     * @param sampleCount number of complex samples in the buffer
+     */
+    public void record(long start, int sampleCount)
+    {
+        Series series = mSeries;
+
+        if(series != null)
+        {
+            series.processing().observe((System.nanoTime() - start) / 1E9);
+            series.buffers().increment();
+            series.samples().add(sampleCount);
+        }
+    }
+
+    /**
+     * Removes the metrics when the channelizer stops processing sample buffers or is disposed.
+     */
+    public synchronized void remove()
+    {
+        if(mLabels != null)
+        {
+            mSeries = null;
+            MetricsRegistry.remove(QUEUE_DEPTH, mLabels);
+            MetricsRegistry.remove(CHANNELS, mLabels);
+            MetricsRegistry.remove(BUFFERS, mLabels);
+            MetricsRegistry.remove(SAMPLES, mLabels);
+            MetricsRegistry.remove(PROCESSING, mLabels);
+            mLabels = null;
+        }
+    }
+
+    /**
+     * Metrics updated for each processed sample buffer
+     */
+    private record Series(Counter buffers, Counter samples, Histogram processing)
+    {
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonically increasing counter metric.  Optimized for frequent increments from multiple threads.
+ */
+public class Counter implements IMetric
+{
+    private final LongAdder mValue = new LongAdder();
+
+    /**
+     * Increments the counter by one.
+     */
+    public void increment()
+    {
+        mValue.increment();
+    }
+
+    /**
+     * Increments the counter by the amount.
+     * @param amount to add (must be positive)
+     */
+    public void add(long amount)
+    {
+        if(amount > 0)
+        {
+            mValue.add(amount);
+        }
+    }
+
+    /**
+     * Current counter value
+     */
+    public long getValue()
+    {
+        return mValue.sum();
+    }
+
+    @Override
+    public void write(StringBuilder sb, String name, String labels)
+    {
+        sb.append(name).append(labels).append(' ').append(getValue()).append('\n');
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Gauge metric for a value that can go up and down.  The value is either set explicitly or is obtained from a
+ * supplier each time the metrics are collected.
+ */
+public class Gauge implements IMetric
+{
+    private final AtomicLong mValueBits = new AtomicLong(Double.doubleToLongBits(0.0));
+    private final DoubleSupplier mSupplier;
+
+    /**
+     * Constructs a gauge with an explicitly set value.
+     */
+    public Gauge()
+    {
+        mSupplier = null;
+    }
+
+    /**
+     * Constructs a gauge that obtains the value from the supplier on collection.
+     * @param supplier of the gauge value
+     */
+    public Gauge(DoubleSupplier supplier)
+    {
+        mSupplier = supplier;
+    }
+
+    /**
+     * Sets the gauge value.  Ignored when the gauge uses a value supplier.
+     */
+    public void set(double value)
+    {
+        mValueBits.set(Double.doubleToLongBits(value));
+    }
+
+    /**
+     * Current gauge value
+     */
+    public double getValue()
+    {
+        if(mSupplier != null)
+        {
+            try
+            {
+                return mSupplier.getAsDouble();
+            }
+            catch(Exception e)
+            {
+                return Double.NaN;
+            }
+        }
+
+        return Double.longBitsToDouble(mValueBits.get());
+    }
+
+    @Override
+    public void write(StringBuilder sb, String name, String labels)
+    {
+        sb.append(name).append(labels).append(' ').append(MetricsRegistry.format(getValue())).append('\n');
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram metric with fixed (cumulative) bucket upper bounds.
+ */
+public class Histogram implements IMetric
+{
+    /**
+     * Default latency buckets in seconds from 1 millisecond to 60 seconds
+     */
+    public static final double[] LATENCY_SECONDS_BUCKETS = {0.001, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1.0,
+        2.5, 5.0, 10.0, 30.0, 60.0};
+
+    private final double[] mUpperBounds;
+    private final LongAdder[] mBucketCounts;
+    private final LongAdder mCount = new LongAdder();
+    private final DoubleAdder mSum = new DoubleAdder();
+
+    /**
+     * Constructs an instance
+     * @param upperBounds for each bucket, in increasing order.  The +Inf bucket is added automatically.
+     */
+    public Histogram(double[] upperBounds)
+    {
+        mUpperBounds = Arrays.copyOf(upperBounds, upperBounds.length);
+        Arrays.sort(mUpperBounds);
+        mBucketCounts = new LongAdder[mUpperBounds.length];
+
+        for(int x = 0; x < mBucketCounts.length; x++)
+        {
+            mBucketCounts[x] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records an observed value
+     */
+    public void observe(double value)
+    {
+        int index = Arrays.binarySearch(mUpperBounds, value);
+
+        if(index < 0)
+        {
+            index = -index - 1;
+        }
+
+        if(index < mBucketCounts.length)
+        {
+            mBucketCounts[index].increment();
+        }
+
+        mCount.increment();
+        mSum.add(value);
+    }
+
+    /**
+     * Number of observed values
+     */
+    public long getCount()
+    {
+        return mCount.sum();
+    }
+
+    /**
+     * Sum of the observed values
+     */
+    public double getSum()
+    {
+        return mSum.sum();
+    }
+
+    @Override
+    public void write(StringBuilder sb, String name, String labels)
+    {
+        //Labels are formatted as {a="b"} - insert the le label before the closing brace
+        String prefix = labels.isEmpty() ? "{" : labels.substring(0, labels.length() - 1) + ",";
+        long cumulative = 0;
+
+        for(int x = 0; x < mUpperBounds.length; x++)
+        {
+            cumulative += mBucketCounts[x].sum();
+            sb.append(name).append("_bucket").append(prefix).append("le=\"").append(MetricsRegistry.format(mUpperBounds[x]))
+                .append("\"} ").append(cumulative).append('\n');
+        }
+
+        long count = getCount();
+        sb.append(name).append("_bucket").append(prefix).append("le=\"+Inf\"} ").append(Math.max(count, cumulative)).append('\n');
+        sb.append(name).append("_sum").append(labels).append(' ').append(MetricsRegistry.format(getSum())).append('\n');
+        sb.append(name).append("_count").append(labels).append(' ').append(count).append('\n');
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.metrics;
+
+/**
+ * Runtime metric that can be exposed in Prometheus text format
+ */
+public interface IMetric
+{
+    /**
+     * Appends the sample line(s) for this metric.
+     * @param sb to append to
+     * @param name of the metric family
+     * @param labels formatted label set (e.g. {tuner="RTL2832"}) or an empty string
+     */
+    void write(StringBuilder sb, String name, String labels);
+}
@@ -0,0 +1,254 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Application-wide registry of runtime metrics.  Metrics are grouped into families by name where each family has a
+ * single type and help text and each metric in the family is identified by a distinct set of labels.  Labels are
+ * provided as alternating key and value strings.
+ *
+ * Registration is idempotent: requesting a metric that already exists returns the existing instance so that
+ * components can register in their constructors or start methods without coordinating with each other.  Components
+ * with a limited lifetime (channels, broadcasters, etc.) should remove their metrics when disposed.
+ *
+ * Metric updates are cheap when nobody is collecting, so instrumentation remains in place whether or not the metrics
+ * endpoint is enabled.
+ */
+public class MetricsRegistry
+{
+    public static final String PREFIX = "sdrtrunk_";
+
+    private static final Map<String,Family> FAMILIES = new ConcurrentSkipListMap<>();
+
+    private MetricsRegistry()
+    {
+    }
+
+    /**
+     * Gets or creates a counter
+     * @param name of the metric (prefixed with sdrtrunk_ when not already prefixed)
+     * @param help text describing the metric
+     * @param labels alternating label key and value strings
+     */
+    public static Counter counter(String name, String help, String... labels)
+    {
+        return get(name, help, "counter", Counter.class, Counter::new, labels);
+    }
+
+    /**
+     * Gets or creates a gauge with an explicitly set value
+     * @param name of the metric (prefixed with sdrtrunk_ when not already prefixed)
+     * @param help text describing the metric
+     * @param labels alternating label key and value strings
+     */
+    public static Gauge gauge(String name, String help, String... labels)
+    {
+        return get(name, help, "gauge", Gauge.class, Gauge::new, labels);
+    }
+
+    /**
+     * Registers a gauge that obtains the value from the supplier on each collection.  Replaces any existing gauge
+     * with the same name and labels so that a restarted component does not leave a stale supplier registered.
+     * @param name of the metric (prefixed with sdrtrunk_ when not already prefixed)
+     * @param help text describing the metric
+     * @param supplier of the gauge value
+     * @param labels alternating label key and value strings
+     */
+    public static Gauge gauge(String name, String help, DoubleSupplier supplier, String... labels)
+    {
+        Gauge gauge = new Gauge(supplier);
+        getFamily(name, help, "gauge").mMetrics.put(formatLabels(labels), gauge);
+        return gauge;
+    }
+
+    /**
+     * Gets or creates a histogram
+     * @param name of the metric (prefixed with sdrtrunk_ when not already prefixed)
+     * @param help text describing the metric
+     * @param upperBounds for the histogram buckets
+     * @param labels alternating label key and value strings
+     */
+    public static Histogram histogram(String name, String help, double[] upperBounds, String... labels)
+    {
+        return get(name, help, "histogram", Histogram.class, () -> new Histogram(upperBounds), labels);
+    }
+
+    /**
+     * Removes the metric with the name and labels.
+     */
+    public static void remove(String name, String... labels)
+    {
+        Family family = FAMILIES.get(prefix(name));
+
+        if(family != null)
+        {
+            family.mMetrics.remove(formatLabels(labels));
+        }
+    }
+
+    /**
+     * Writes all registered metrics in Prometheus text exposition format (version 0.0.4).
+     */
+    public static String write()
+    {
+        StringBuilder sb = new StringBuilder();
+
+        for(Map.Entry<String,Family> entry: FAMILIES.entrySet())
+        {
+            Family family = entry.getValue();
+
+            if(family.mMetrics.isEmpty())
+            {
+                continue;
+            }
+
+            sb.append("# HELP ").append(entry.getKey()).append(' ').append(escapeHelp(family.mHelp)).append('\n');
+            sb.append("# TYPE ").append(entry.getKey()).append(' ').append(family.mType).append('\n');
+
+            for(Map.Entry<String,IMetric> metric: new TreeMap<>(family.mMetrics).entrySet())
+            {
+                metric.getValue().write(sb, entry.getKey(), metric.getKey());
+            }
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Formats a value for the exposition format.
+     */
+    static String format(double value)
+    {
+        if(Double.isNaN(value))
+        {
+            return "NaN";
+        }
+        else if(Double.isInfinite(value))
+        {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        else if(value == Math.rint(value) && Math.abs(value) < 1e15)
+        {
+            return Long.toString((long)value);
+        }
+
+        return Double.toString(value);
+    }
+
+    private static <T extends IMetric> T get(String name, String help, String type, Class<T> metricClass,
+                                             Supplier<T> factory, String... labels)
+    {
+        IMetric metric = getFamily(name, help, type).mMetrics.computeIfAbsent(formatLabels(labels), key -> factory.get());
+
+        if(!metricClass.isInstance(metric))
+        {
+            throw new IllegalArgumentException("Metric [" + name + "] is already registered as a different type");
+        }
+
+        return metricClass.cast(metric);
+    }
+
+    private static Family getFamily(String name, String help, String type)
+    {
+        Family family = FAMILIES.computeIfAbsent(prefix(name), key -> new Family(help, type));
+
+        if(!family.mType.equals(type))
+        {
+            throw new IllegalArgumentException("Metric [" + name + "] is already registered as type [" +
+                family.mType + "]");
+        }
+
+        return family;
+    }
+
+    private static String prefix(String name)
+    {
+        return name.startsWith(PREFIX) ? name : PREFIX + name;
+    }
+
+    /**
+     * Formats the alternating key/value label strings as a Prometheus label set, e.g. {tuner="RTL2832",status="ok"}
+     */
+    private static String formatLabels(String... labels)
+    {
+        if(labels == null || labels.length == 0)
+        {
+            return "";
+        }
+
+        if(labels.length % 2 != 0)
+        {
+            throw new IllegalArgumentException("Labels must be provided as key and value pairs");
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append('{');
+
+        for(int x = 0; x < labels.length; x += 2)
+        {
+            if(x > 0)
+            {
+                sb.append(',');
+            }
+
+            sb.append(labels[x]).append("=\"").append(escapeLabel(labels[x + 1])).append('"');
+        }
+
+        sb.append('}');
+        return sb.toString();
+    }
+
+    private static String escapeLabel(String value)
+    {
+        if(value == null)
+        {
+            return "";
+        }
+
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String escapeHelp(String help)
+    {
+        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    /**
+     * Metric family with a common name, type and help text.
+     */
+    private static class Family
+    {
+        private final String mHelp;
+        private final String mType;
+        private final Map<String,IMetric> mMetrics = new ConcurrentHashMap<>();
+
+        public Family(String help, String type)
+        {
+            mHelp = help;
+            mType = type;
+        }
+    }
+}
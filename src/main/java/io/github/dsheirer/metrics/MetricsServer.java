@@ -0,0 +1,126 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.dsheirer.controller.NamingThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Lightweight HTTP server that exposes the metrics registry at /metrics in Prometheus text format.  The server binds
+ * to the loopback interface only.
+ */
+public class MetricsServer
+{
+    private static final Logger mLog = LoggerFactory.getLogger(MetricsServer.class);
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    public static final String PATH = "/metrics";
+
+    private final int mPort;
+    private HttpServer mHttpServer;
+    private ExecutorService mExecutorService;
+
+    /**
+     * Constructs an instance
+     * @param port to listen on
+     */
+    public MetricsServer(int port)
+    {
+        mPort = port;
+    }
+
+    /**
+     * Starts the server.
+     * @throws IOException if the server port can't be bound
+     */
+    public synchronized void start() throws IOException
+    {
+        if(mHttpServer == null)
+        {
+            mHttpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), mPort), 0);
+            mHttpServer.createContext(PATH, this::handle);
+            mExecutorService = Executors.newSingleThreadExecutor(new NamingThreadFactory("sdrtrunk metrics server"));
+            mHttpServer.setExecutor(mExecutorService);
+            mHttpServer.start();
+            mLog.info("Metrics available at http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" +
+                mPort + PATH);
+        }
+    }
+
+    /**
+     * Stops the server.
+     */
+    public synchronized void stop()
+    {
+        if(mHttpServer != null)
+        {
+            mHttpServer.stop(0);
+            mHttpServer = null;
+            mExecutorService.shutdownNow();
+            mExecutorService = null;
+        }
+    }
+
+    /**
+     * Indicates if the server is running
+     */
+    public synchronized boolean isRunning()
+    {
+        return mHttpServer != null;
+    }
+
+    /**
+     * Port the server listens on
+     */
+    public int getPort()
+    {
+        return mPort;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException
+    {
+        try(exchange)
+        {
+            if(!"GET".equals(exchange.getRequestMethod()))
+            {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            byte[] body = MetricsRegistry.write().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+
+            try(OutputStream outputStream = exchange.getResponseBody())
+            {
+                outputStream.write(body);
+            }
+        }
+    }
+}
@@ -47,6 +47,7 @@ import io.github.dsheirer.message.IMessage;
 import io.github.dsheirer.message.IMessageListener;
 import io.github.dsheirer.message.IMessageProvider;
 import io.github.dsheirer.message.MessageHistory;
+import io.github.dsheirer.module.decode.Decoder;
 import io.github.dsheirer.module.decode.event.DecodeEventHistory;
 import io.github.dsheirer.module.decode.event.IDecodeEvent;
 import io.github.dsheirer.module.decode.event.IDecodeEventListener;
@@ -125,6 +126,8 @@ public class ProcessingChain implements Listener<ChannelEvent>
     //Lock to protect access to the modules list.
     private ReentrantLock mModuleLock = new ReentrantLock();
     private List<Module> mModules = new ArrayList<>();
+    private String mChannelName;
+    private int mChannelID;
 
 
     /**
@@ -135,6 +138,8 @@ public class ProcessingChain implements Listener<ChannelEvent>
      */
     public ProcessingChain(Channel channel, AliasModel aliasModel)
     {
+        mChannelName = channel.getName();
+        mChannelID = channel.getChannelID();
         mEventBus = new EventBus("Processing Chain Event Bus - Channel: " + channel.getName());
 
         if(channel.getDecodeConfiguration().getTimeslotCount() == 1)
@@ -371,6 +376,11 @@ public class ProcessingChain implements Listener<ChannelEvent>
             mModuleLock.unlock();
         }
 
+        if(module instanceof Decoder decoder)
+        {
+            decoder.setMetricsChannel(mChannelName, mChannelID);
+        }
+
         module.setInterModuleEventBus(getEventBus());
         registerListeners(module);
         registerProviders(module);
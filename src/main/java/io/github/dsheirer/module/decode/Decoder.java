@@ -20,6 +20,8 @@ package io.github.dsheirer.module.decode;
 
 import io.github.dsheirer.message.IMessage;
 import io.github.dsheirer.message.IMessageProvider;
+import io.github.dsheirer.metrics.Counter;
+import io.github.dsheirer.metrics.MetricsRegistry;
 import io.github.dsheirer.module.Module;
 import io.github.dsheirer.sample.Listener;
 
@@ -28,9 +30,12 @@ import io.github.dsheirer.sample.Listener;
  */
 public abstract class Decoder extends Module implements IMessageProvider
 {
-    private Listener<IMessage> mMessageDistributor = new MessageDistributor();
+    private static final String MESSAGES_METRIC = "decoder_messages_total";
+    private MessageDistributor mMessageDistributor = new MessageDistributor();
     protected Listener<IMessage> mMessageListener;
     private boolean mRunning;
+    private String mMetricsChannelName = "";
+    private String mMetricsChannelID = "";
 
     /**
      * Decoder - parent class for all decoders, demodulators and components.
@@ -69,6 +74,24 @@ public abstract class Decoder extends Module implements IMessageProvider
         //no-op
     }
 
+    /**
+     * Identifies the channel for this decoder's runtime metrics.  Set by the processing chain for the channel.
+     * @param channelName of the channel
+     * @param channelID of the channel
+     */
+    public void setMetricsChannel(String channelName, int channelID)
+    {
+        mMetricsChannelName = channelName;
+        mMetricsChannelID = String.valueOf(channelID);
+    }
+
+    @Override
+    public void dispose()
+    {
+        super.dispose();
+        mMessageDistributor.removeMetrics();
+    }
+
     /**
      * Identifies the decoder type (ie protocol)
      */
@@ -107,13 +130,55 @@ public abstract class Decoder extends Module implements IMessageProvider
      */
     public class MessageDistributor implements Listener<IMessage>
     {
+        private Counter mValidMessageCounter;
+        private Counter mInvalidMessageCounter;
+        private String[] mValidLabels;
+        private String[] mInvalidLabels;
+
         @Override
         public void receive(IMessage message)
         {
+            if(mValidMessageCounter == null)
+            {
+                mValidLabels = getMetricsLabels(true);
+                mInvalidLabels = getMetricsLabels(false);
+                mValidMessageCounter = MetricsRegistry.counter(MESSAGES_METRIC,
+                    "Messages produced by decoders by protocol, channel and validity", mValidLabels);
+                mInvalidMessageCounter = MetricsRegistry.counter(MESSAGES_METRIC,
+                    "Messages produced by decoders by protocol, channel and validity", mInvalidLabels);
+            }
+
+            if(message.isValid())
+            {
+                mValidMessageCounter.increment();
+            }
+            else
+            {
+                mInvalidMessageCounter.increment();
+            }
+
             if(mMessageListener != null)
             {
                 mMessageListener.receive(message);
             }
         }
+
+        /**
+         * Removes the message counters for this decoder from the metrics registry.
+         */
+        private void removeMetrics()
+        {
+            if(mValidLabels != null)
+            {
+                MetricsRegistry.remove(MESSAGES_METRIC, mValidLabels);
+                MetricsRegistry.remove(MESSAGES_METRIC, mInvalidLabels);
+            }
+        }
+
+        private String[] getMetricsLabels(boolean valid)
+        {
+            return new String[]{"decoder", getDecoderType().name(), "channel", mMetricsChannelName,
+                "channel_id", mMetricsChannelID, "valid", String.valueOf(valid)};
+        }
     }
 }
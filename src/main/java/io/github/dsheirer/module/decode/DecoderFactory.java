@@ -28,6 +28,7 @@ import io.github.dsheirer.controller.channel.Channel;
 import io.github.dsheirer.controller.channel.Channel.ChannelType;
 import io.github.dsheirer.controller.channel.map.ChannelMap;
 import io.github.dsheirer.controller.channel.map.ChannelMapModel;
+import io.github.dsheirer.dsp.afsk.AFSK1200FrontEnd;
 import io.github.dsheirer.filter.AllPassFilter;
 import io.github.dsheirer.filter.FilterSet;
 import io.github.dsheirer.filter.IFilter;
@@ -213,13 +214,20 @@ public class DecoderFactory
     private static void processP25Phase1(Channel channel, UserPreferences userPreferences, List<Module> modules, AliasList aliasList, ChannelType channelType, DecodeConfigP25Phase1 decodeConfig) {
         DecodeConfigP25Phase1 p25Config = decodeConfig;
 
+        boolean lockstep = userPreferences != null &&
+            userPreferences.getApplicationPreference().isLockstepDecodingEnabled();
+
         switch(p25Config.getModulation())
         {
             case C4FM:
-                modules.add(new P25P1DecoderC4FM());
+                P25P1DecoderC4FM c4fmDecoder = new P25P1DecoderC4FM();
+                c4fmDecoder.setLockstepEnabled(lockstep);
+                modules.add(c4fmDecoder);
                 break;
             case CQPSK:
-                modules.add(new P25P1DecoderLSM());
+                P25P1DecoderLSM lsmDecoder = new P25P1DecoderLSM();
+                lsmDecoder.setLockstepEnabled(lockstep);
+                modules.add(lsmDecoder);
                 break;
             default:
                 throw new IllegalArgumentException("Unrecognized P25 Phase 1 Modulation [" +
@@ -447,7 +455,10 @@ public class DecoderFactory
     }
 
     /**
-     * Constructs a list of auxiliary decoders, as specified in the channel configuration
+     * Constructs a list of auxiliary decoders, as specified in the channel configuration.
+     *
+     * When more than one AFSK 1200 decoder is requested, the decoders subscribe to a single shared AFSK 1200 front end
+     * so that the channel audio is filtered and demodulated once instead of once per decoder.
      *
      * @param config - auxiliary configuration
      * @return - list of auxiliary decoders
@@ -458,6 +469,13 @@ public class DecoderFactory
 
         if(config != null)
         {
+            AFSK1200FrontEnd frontEnd = null;
+
+            if(getAFSK1200DecoderCount(config) > 1)
+            {
+                frontEnd = new AFSK1200FrontEnd();
+            }
+
             for(DecoderType auxDecoder : config.getAuxDecoders())
             {
                 switch(auxDecoder)
@@ -467,19 +485,19 @@ public class DecoderFactory
                         modules.add(new DCSDecoderState());
                         break;
                     case FLEETSYNC2:
-                        modules.add(new Fleetsync2Decoder());
+                        modules.add(frontEnd != null ? new Fleetsync2Decoder(frontEnd) : new Fleetsync2Decoder());
                         modules.add(new Fleetsync2DecoderState());
                         break;
                     case MDC1200:
-                        modules.add(new MDCDecoder());
+                        modules.add(frontEnd != null ? new MDCDecoder(frontEnd) : new MDCDecoder());
                         modules.add(new MDCDecoderState());
                         break;
                     case LJ_1200:
-                        modules.add(new LJ1200Decoder());
+                        modules.add(frontEnd != null ? new LJ1200Decoder(frontEnd) : new LJ1200Decoder());
                         modules.add(new LJ1200DecoderState());
                         break;
                     case TAIT_1200:
-                        modules.add(new Tait1200Decoder());
+                        modules.add(frontEnd != null ? new Tait1200Decoder(frontEnd) : new Tait1200Decoder());
                         modules.add(new Tait1200DecoderState());
                         break;
                     default:
@@ -491,6 +509,24 @@ public class DecoderFactory
         return modules;
     }
 
+    /**
+     * Counts the auxiliary decoders in the configuration that use an AFSK 1200 front end
+     */
+    private static int getAFSK1200DecoderCount(AuxDecodeConfiguration config)
+    {
+        int count = 0;
+
+        for(DecoderType auxDecoder : config.getAuxDecoders())
+        {
+            switch(auxDecoder)
+            {
+                case FLEETSYNC2, MDC1200, LJ_1200, TAIT_1200 -> count++;
+            }
+        }
+
+        return count;
+    }
+
     /**
      * Assembles a filter set containing filters for the primary channel
      * decoder and each of the auxiliary decoders
@@ -0,0 +1,371 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.module.decode;
+
+import io.github.dsheirer.dsp.filter.fir.real.LockstepRealFIRFilter;
+import io.github.dsheirer.metrics.Counter;
+import io.github.dsheirer.metrics.MetricsRegistry;
+import io.github.dsheirer.sample.complex.ComplexSamples;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Lockstep decoding group for channels that use the same decoder type at the same sample rate.
+ *
+ * Each member channel submits its incoming sample buffers to the group.  Once every member has a buffer pending, the
+ * group runs the baseband filter across all members in lockstep using a struct-of-arrays SIMD filter that fills the
+ * full vector width, and queues the filtered buffers back to each member.  Each decoder then demodulates its own
+ * filtered buffers on its own thread, so timing recovery and message framing remain independent per channel.
+ *
+ * The group never blocks a channel.  Whichever member thread completes a batch runs it, and a member polls its
+ * filtered buffers each time that it submits a buffer, which can delay a channel's filtered output by up to one
+ * buffer.  When a member falls behind (e.g. its source is stalled), the other members will not wait for more than
+ * MAXIMUM_PENDING_BUFFERS before the group filters a partial batch.
+ */
+public class LockstepChannelGroup
+{
+    private static final Logger mLog = LoggerFactory.getLogger(LockstepChannelGroup.class);
+    private static final int MAXIMUM_PENDING_BUFFERS = 2;
+    private static final Map<String,LockstepChannelGroup> GROUPS = new HashMap<>();
+    private static final Counter BATCHES = MetricsRegistry.counter("decoder_lockstep_batches_total",
+        "Lockstep decoder baseband filter batches");
+    private static final Counter LANES = MetricsRegistry.counter("decoder_lockstep_channel_buffers_total",
+        "Channel sample buffers filtered in lockstep decoder batches");
+
+    private final String mKey;
+    private final LockstepRealFIRFilter mIFilter;
+    private final LockstepRealFIRFilter mQFilter;
+    private final List<Member> mMembers = new CopyOnWriteArrayList<>();
+    private final ReentrantLock mBatchLock = new ReentrantLock();
+
+    //Reusable batch arrays, only accessed while holding the batch lock
+    private Member[] mBatchMembers = new Member[LockstepRealFIRFilter.getLaneCount()];
+    private Member[] mBatchLengthMembers = new Member[LockstepRealFIRFilter.getLaneCount()];
+    private float[][] mBatchI = new float[LockstepRealFIRFilter.getLaneCount()][];
+    private float[][] mBatchQ = new float[LockstepRealFIRFilter.getLaneCount()][];
+    private float[][] mBatchIHistory = new float[LockstepRealFIRFilter.getLaneCount()][];
+    private float[][] mBatchQHistory = new float[LockstepRealFIRFilter.getLaneCount()][];
+    private float[][] mBatchIFiltered = new float[LockstepRealFIRFilter.getLaneCount()][];
+    private float[][] mBatchQFiltered = new float[LockstepRealFIRFilter.getLaneCount()][];
+
+    /**
+     * Constructs an instance
+     * @param key identifying the decoder type and sample rate for the group
+     * @param coefficients for the baseband filter
+     */
+    private LockstepChannelGroup(String key, float[] coefficients)
+    {
+        mKey = key;
+        mIFilter = new LockstepRealFIRFilter(coefficients);
+        mQFilter = new LockstepRealFIRFilter(coefficients);
+    }
+
+    /**
+     * Joins a channel to the lockstep group for the key, creating the group if necessary.
+     *
+     * @param key that uniquely identifies the decoder type and sample rate.  All members of a group must use the same
+     * baseband filter coefficients.
+     * @param coefficients for the baseband filter
+     * @return member for submitting sample buffers and retrieving filtered sample buffers
+     */
+    public static Member join(String key, float[] coefficients)
+    {
+        synchronized(GROUPS)
+        {
+            LockstepChannelGroup group = GROUPS.get(key);
+
+            if(group == null)
+            {
+                group = new LockstepChannelGroup(key, coefficients);
+                GROUPS.put(key, group);
+            }
+
+            Member member = group.new Member();
+            group.mMembers.add(member);
+            mLog.debug("Lockstep decoder group [" + key + "] members [" + group.mMembers.size() + "]");
+            return member;
+        }
+    }
+
+    /**
+     * Removes the member from this group and releases any members that were waiting on it.
+     */
+    private void leave(Member member)
+    {
+        synchronized(GROUPS)
+        {
+            mMembers.remove(member);
+
+            if(mMembers.isEmpty())
+            {
+                GROUPS.remove(mKey);
+            }
+        }
+
+        process();
+    }
+
+    /**
+     * Indicates if a batch can be filtered: either all members have a pending buffer, or a member has reached the
+     * maximum pending buffer count while waiting on a lagging member.
+     */
+    private boolean isBatchReady()
+    {
+        boolean all = !mMembers.isEmpty();
+
+        for(Member member: mMembers)
+        {
+            int pending = member.mPendingCount.get();
+
+            if(pending >= MAXIMUM_PENDING_BUFFERS)
+            {
+                return true;
+            }
+
+            if(pending == 0)
+            {
+                all = false;
+            }
+        }
+
+        return all;
+    }
+
+    /**
+     * Filters batches while batches are ready.  Only one thread filters at a time.  A thread that can't acquire the
+     * batch lock returns immediately, since the thread holding the lock rechecks for ready batches after releasing it.
+     */
+    private void process()
+    {
+        while(isBatchReady())
+        {
+            if(!mBatchLock.tryLock())
+            {
+                return;
+            }
+
+            try
+            {
+                while(isBatchReady())
+                {
+                    filterBatch();
+                }
+            }
+            catch(Throwable t)
+            {
+                mLog.error("Error filtering lockstep decoder batch for group [" + mKey + "]", t);
+            }
+            finally
+            {
+                mBatchLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Filters the next pending buffer from each member that has one.  Buffers are filtered in lockstep with other
+     * buffers of the same length.
+     */
+    private void filterBatch()
+    {
+        int pending = 0;
+
+        for(Member member: mMembers)
+        {
+            ComplexSamples samples = member.mPending.poll();
+
+            if(samples != null)
+            {
+                member.mPendingCount.decrementAndGet();
+
+                if(pending == mBatchMembers.length)
+                {
+                    resizeBatch(pending * 2);
+                }
+
+                member.mBatchSamples = samples;
+                mBatchMembers[pending++] = member;
+            }
+        }
+
+        //Filter the members in lockstep, one batch per distinct buffer length
+        while(pending > 0)
+        {
+            int length = mBatchMembers[0].mBatchSamples.i().length;
+            int count = 0;
+            int remaining = 0;
+
+            for(int x = 0; x < pending; x++)
+            {
+                Member member = mBatchMembers[x];
+                ComplexSamples samples = member.mBatchSamples;
+
+                if(samples.i().length == length)
+                {
+                    mBatchI[count] = samples.i();
+                    mBatchQ[count] = samples.q();
+                    mBatchIHistory[count] = member.mIHistory;
+                    mBatchQHistory[count] = member.mQHistory;
+                    mBatchIFiltered[count] = member.getOutputBuffer(length);
+                    mBatchQFiltered[count] = member.getOutputBuffer(length);
+                    mBatchLengthMembers[count++] = member;
+                }
+                else
+                {
+                    //Compact the members with other buffer lengths for the next pass
+                    mBatchMembers[remaining++] = member;
+                }
+            }
+
+            mIFilter.filter(mBatchI, mBatchIHistory, mBatchIFiltered, count);
+            mQFilter.filter(mBatchQ, mBatchQHistory, mBatchQFiltered, count);
+
+            for(int x = 0; x < count; x++)
+            {
+                Member member = mBatchLengthMembers[x];
+                member.mFiltered.add(new ComplexSamples(mBatchIFiltered[x], mBatchQFiltered[x],
+                    member.mBatchSamples.timestamp()));
+                member.mBatchSamples = null;
+            }
+
+            BATCHES.increment();
+            LANES.add(count);
+            pending = remaining;
+        }
+
+        //Release the references to the members, sample buffers and member output buffers
+        Arrays.fill(mBatchMembers, null);
+        Arrays.fill(mBatchLengthMembers, null);
+        Arrays.fill(mBatchI, null);
+        Arrays.fill(mBatchQ, null);
+        Arrays.fill(mBatchIFiltered, null);
+        Arrays.fill(mBatchQFiltered, null);
+    }
+
+    /**
+     * Resizes the reusable batch arrays to hold the specified number of members.
+     */
+    private void resizeBatch(int size)
+    {
+        mBatchMembers = Arrays.copyOf(mBatchMembers, size);
+        mBatchLengthMembers = new Member[size];
+        mBatchI = new float[size][];
+        mBatchQ = new float[size][];
+        mBatchIHistory = new float[size][];
+        mBatchQHistory = new float[size][];
+        mBatchIFiltered = new float[size][];
+        mBatchQFiltered = new float[size][];
+    }
+
+    /**
+     * Channel member of a lockstep group.
+     */
+    public class Member
+    {
+        private final ConcurrentLinkedQueue<ComplexSamples> mPending = new ConcurrentLinkedQueue<>();
+        private final ConcurrentLinkedQueue<ComplexSamples> mFiltered = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger mPendingCount = new AtomicInteger();
+        private final float[] mIHistory = mIFilter.createHistory();
+        private final float[] mQHistory = mQFilter.createHistory();
+        private final ConcurrentLinkedQueue<float[]> mOutputBuffers = new ConcurrentLinkedQueue<>();
+        private ComplexSamples mPolled;
+        private ComplexSamples mBatchSamples;
+
+        /**
+         * Recycled output buffer of the specified length for the filtered samples, or a new buffer when none are
+         * available.
+         */
+        private float[] getOutputBuffer(int length)
+        {
+            float[] buffer;
+
+            while((buffer = mOutputBuffers.poll()) != null)
+            {
+                //Buffers from before a buffer length change are discarded
+                if(buffer.length == length)
+                {
+                    return buffer;
+                }
+            }
+
+            return new float[length];
+        }
+
+        /**
+         * Recycles the output buffers of the most recently polled filtered samples.
+         */
+        private void recycle()
+        {
+            if(mPolled != null)
+            {
+                mOutputBuffers.add(mPolled.i());
+                mOutputBuffers.add(mPolled.q());
+                mPolled = null;
+            }
+        }
+
+        /**
+         * Submits a sample buffer for lockstep filtering.  The filtered buffer is available from poll() once the
+         * batch that includes this buffer is filtered, which may be immediately or after a subsequent submission.
+         * @param samples to filter
+         */
+        public void receive(ComplexSamples samples)
+        {
+            recycle();
+            mPending.add(samples);
+            mPendingCount.incrementAndGet();
+            process();
+        }
+
+        /**
+         * Next filtered sample buffer for this member, in submission order.
+         *
+         * Note: the filtered sample arrays are reused for later batches.  The returned samples are only valid until
+         * the next call to poll() or receive() on this member.
+         * @return filtered samples or null if there are no filtered buffers available
+         */
+        public ComplexSamples poll()
+        {
+            recycle();
+            mPolled = mFiltered.poll();
+            return mPolled;
+        }
+
+        /**
+         * Removes this member from the lockstep group.  Any pending or filtered buffers are discarded.
+         */
+        public void leave()
+        {
+            LockstepChannelGroup.this.leave(this);
+            mPending.clear();
+            mPendingCount.set(0);
+            mFiltered.clear();
+            mOutputBuffers.clear();
+            mPolled = null;
+        }
+    }
+}
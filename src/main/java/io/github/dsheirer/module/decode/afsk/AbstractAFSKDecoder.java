@@ -18,7 +18,9 @@
  */
 package io.github.dsheirer.module.decode.afsk;
 
+import io.github.dsheirer.bits.IBinarySymbolProcessor;
 import io.github.dsheirer.dsp.afsk.AFSK1200Decoder;
+import io.github.dsheirer.dsp.afsk.AFSK1200FrontEnd;
 import io.github.dsheirer.module.decode.Decoder;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.sample.real.IRealBufferListener;
@@ -26,13 +28,16 @@ import io.github.dsheirer.sample.real.IRealBufferListener;
 /**
  * Abstract class for Audio Frequency Shift Keying (AFSK) 1200-baud decoder based decoder modules.
  *
- * This class handles the AFSK 1200 decoder and incoming sample stream buffer management.
+ * This class handles the AFSK 1200 decoder and incoming sample stream buffer management.  The decoder either runs
+ * its own AFSK 1200 decoder, or subscribes to an AFSK 1200 front end that is shared with other AFSK decoders on the
+ * same channel.
  *
- * Sub-class implementations should invoke getDecoder().setListener() to receive decoded symbol stream.
+ * Sub-class implementations should invoke setSymbolProcessor() to receive decoded symbol stream.
  */
 public abstract class AbstractAFSKDecoder extends Decoder implements IRealBufferListener, Listener<float[]>
 {
     private AFSK1200Decoder mAFSK1200Decoder;
+    private AFSK1200FrontEnd.Subscriber mFrontEndSubscriber;
 
     public AbstractAFSKDecoder(AFSK1200Decoder decoder)
     {
@@ -44,15 +49,72 @@ public abstract class AbstractAFSKDecoder extends Decoder implements IRealBuffer
         mAFSK1200Decoder = new AFSK1200Decoder(output);
     }
 
+    /**
+     * Constructs an instance that subscribes to a shared AFSK 1200 front end
+     * @param frontEnd shared with other AFSK decoders on the channel
+     * @param output NORMAL: 1200Hz = Mark(1) and 1800Hz = Space(0), or INVERTED (vice-versa)
+     */
+    public AbstractAFSKDecoder(AFSK1200FrontEnd frontEnd, AFSK1200Decoder.Output output)
+    {
+        mFrontEndSubscriber = frontEnd.subscribe(output);
+    }
+
+    /**
+     * AFSK 1200 decoder used by this decoder, or null when subscribed to a shared front end.
+     */
     protected AFSK1200Decoder getDecoder()
     {
         return mAFSK1200Decoder;
     }
 
+    /**
+     * Registers the processor to receive the decoded symbol stream
+     */
+    protected void setSymbolProcessor(IBinarySymbolProcessor binarySymbolProcessor)
+    {
+        if(mFrontEndSubscriber != null)
+        {
+            mFrontEndSubscriber.setSymbolProcessor(binarySymbolProcessor);
+        }
+        else
+        {
+            mAFSK1200Decoder.setSymbolProcessor(binarySymbolProcessor);
+        }
+    }
+
+    @Override
+    public void start()
+    {
+        super.start();
+
+        if(mFrontEndSubscriber != null)
+        {
+            mFrontEndSubscriber.setEnabled(true);
+        }
+    }
+
+    @Override
+    public void stop()
+    {
+        super.stop();
+
+        if(mFrontEndSubscriber != null)
+        {
+            mFrontEndSubscriber.setEnabled(false);
+        }
+    }
+
     @Override
     public void receive(float[] realBuffer)
     {
-        mAFSK1200Decoder.receive(realBuffer);
+        if(mFrontEndSubscriber != null)
+        {
+            mFrontEndSubscriber.receive(realBuffer);
+        }
+        else
+        {
+            mAFSK1200Decoder.receive(realBuffer);
+        }
     }
 
     @Override
@@ -76,6 +76,11 @@ public class DMRBurstFramer implements Listener<Dibit>
      */
     private DibitDelayBuffer mSyncDelayBuffer = new DibitDelayBuffer(54);
 
+    /**
+     * Reusable array of sync delayed dibits for block processing
+     */
+    private byte[] mDelayedDibits = new byte[0];
+
     /**
      * Synchronized indicates that either the primary or secondary sync tracker is currently synchronized to
      * one of the timeslot bursts.  Once either sync tracker obtains a valid sync pattern, this flag is set
@@ -131,6 +136,66 @@ public class DMRBurstFramer implements Listener<Dibit>
      */
     @Override
     public void receive(Dibit dibit)
+    {
+        receive(dibit.getValue());
+    }
+
+    /**
+     * Primary input method for blocks of dibit symbol values (0 - 3)
+     * @param dibits array of dibit values
+     * @param offset of the first dibit to process
+     * @param length number of dibits to process
+     */
+    public void receive(byte[] dibits, int offset, int length)
+    {
+        int end = offset + length;
+
+        while(offset < end)
+        {
+            //Bulk load the run of dibits that can't trigger a burst dispatch, sync detect or sync loss message and then
+            //process the dibit that follows the run one at a time.
+            int count;
+
+            if(mSynchronized)
+            {
+                count = Math.min(end - offset, TWO_TIMESLOT_DIBIT_LENGTH - 1 - mDibitCounter);
+            }
+            else
+            {
+                count = Math.min(end - offset, SYNC_LOSS_MESSAGE_THRESHOLD - 1 - mDibitCounter);
+
+                if(count > 0)
+                {
+                    if(mDelayedDibits.length < count)
+                    {
+                        mDelayedDibits = new byte[count];
+                    }
+
+                    mSyncDelayBuffer.getDelayed(dibits, offset, count, mDelayedDibits);
+                    count = mSyncDetectorTimeslot2.scan(mDelayedDibits, 0, count);
+                }
+            }
+
+            if(count > 0)
+            {
+                mDibitCounter += count;
+                mMessageBuffer.put(dibits, offset, count);
+                mSyncDelayBuffer.put(dibits, offset, count);
+                offset += count;
+            }
+
+            if(offset < end)
+            {
+                receive(dibits[offset++]);
+            }
+        }
+    }
+
+    /**
+     * Processes a dibit symbol value (0 - 3)
+     * @param dibit value to process
+     */
+    private void receive(int dibit)
     {
         mDibitCounter++;
 
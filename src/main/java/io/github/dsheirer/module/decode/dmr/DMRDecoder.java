@@ -31,6 +31,7 @@ import io.github.dsheirer.dsp.psk.pll.FrequencyCorrectionSyncMonitor;
 import io.github.dsheirer.dsp.psk.pll.PLLBandwidth;
 import io.github.dsheirer.dsp.squelch.PowerMonitor;
 import io.github.dsheirer.dsp.symbol.Dibit;
+import io.github.dsheirer.dsp.symbol.DibitBuffer;
 import io.github.dsheirer.dsp.symbol.DibitToByteBufferAssembler;
 import io.github.dsheirer.module.decode.DecoderType;
 import io.github.dsheirer.module.decode.FeedbackDecoder;
@@ -59,6 +60,7 @@ public class DMRDecoder extends FeedbackDecoder implements ISourceEventListener,
     private static final double SYMBOL_RATE = 4800.0;
     private double mSampleRate;
     private Broadcaster<Dibit> mDibitBroadcaster = new Broadcaster<>();
+    private Broadcaster<DibitBuffer> mDibitBufferBroadcaster = new Broadcaster<>();
     private DibitToByteBufferAssembler mByteBufferAssembler = new DibitToByteBufferAssembler(300);
     private DMRMessageProcessor mMessageProcessor;
     protected IComplexGainControl mAGC = ComplexGainFactory.getComplexGainControl();
@@ -81,6 +83,7 @@ public class DMRDecoder extends FeedbackDecoder implements ISourceEventListener,
         mMessageProcessor = new DMRMessageProcessor(config);
         mMessageProcessor.setMessageListener(getMessageListener());
         getDibitBroadcaster().addListener(mByteBufferAssembler);
+        getDibitBufferBroadcaster().addListener(mByteBufferAssembler.getDibitBufferListener());
         setSampleRate(25000.0);
     }
 
@@ -140,7 +143,7 @@ public class DMRDecoder extends FeedbackDecoder implements ISourceEventListener,
 
         if(mMessageFramer != null)
         {
-            getDibitBroadcaster().removeListener(mMessageFramer);
+            getDibitBufferBroadcaster().removeListener(mMessageFramer.getDibitBufferListener());
         }
 
         //The Costas Loop receives symbol-inversion correction requests when detected.
@@ -149,8 +152,8 @@ public class DMRDecoder extends FeedbackDecoder implements ISourceEventListener,
         mMessageFramer.setSyncDetectListener(mFrequencyCorrectionSyncMonitor);
         mMessageFramer.setListener(getMessageProcessor());
 
-        mQPSKDemodulator.setSymbolListener(getDibitBroadcaster());
-        getDibitBroadcaster().addListener(mMessageFramer);
+        mQPSKDemodulator.setDibitBufferListener(getDibitBufferBroadcaster());
+        getDibitBufferBroadcaster().addListener(mMessageFramer.getDibitBufferListener());
     }
 
     /**
@@ -250,6 +253,14 @@ public class DMRDecoder extends FeedbackDecoder implements ISourceEventListener,
         return mDibitBroadcaster;
     }
 
+    /**
+     * Broadcaster for blocks of dibits produced by the demodulator for each processed sample buffer.
+     */
+    protected Broadcaster<DibitBuffer> getDibitBufferBroadcaster()
+    {
+        return mDibitBufferBroadcaster;
+    }
+
     /**
      * Implements the IByteBufferProvider interface - delegates to the byte buffer assembler
      */
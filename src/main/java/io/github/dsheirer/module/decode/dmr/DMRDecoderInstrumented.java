@@ -75,6 +75,12 @@ public class DMRDecoderInstrumented extends DMRDecoder
      */
     public void setSampleRate(double sampleRate)
     {
+        //Instrumented demodulators produce individual symbols - remove the previous framer from the dibit broadcaster
+        if(mMessageFramer != null)
+        {
+            getDibitBroadcaster().removeListener(mMessageFramer);
+        }
+
         super.setSampleRate(sampleRate);
 
         InterpolatingSampleBufferInstrumented instrumentedBuffer =
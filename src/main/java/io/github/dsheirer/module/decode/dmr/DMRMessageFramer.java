@@ -21,6 +21,7 @@ package io.github.dsheirer.module.decode.dmr;
 import io.github.dsheirer.bits.CorrectedBinaryMessage;
 import io.github.dsheirer.dsp.psk.pll.IPhaseLockedLoop;
 import io.github.dsheirer.dsp.symbol.Dibit;
+import io.github.dsheirer.dsp.symbol.DibitBuffer;
 import io.github.dsheirer.dsp.symbol.ISyncDetectListener;
 import io.github.dsheirer.message.IMessage;
 import io.github.dsheirer.message.SyncLossMessage;
@@ -60,6 +61,7 @@ import org.slf4j.LoggerFactory;
 public class DMRMessageFramer implements Listener<Dibit>, IDMRBurstDetectListener
 {
     private final static Logger mLog = LoggerFactory.getLogger(DMRMessageFramer.class);
+    private Listener<DibitBuffer> mDibitBufferListener = this::receive;
 
     private static final double DMR_BIT_RATE = 9600.0;
 
@@ -167,6 +169,24 @@ public class DMRMessageFramer implements Listener<Dibit>, IDMRBurstDetectListene
         mBurstFramer.receive(dibit);
     }
 
+    /**
+     * Primary method for streaming blocks of decoded symbol dibits for message framing.
+     *
+     * @param buffer of dibits to process
+     */
+    public void receive(DibitBuffer buffer)
+    {
+        mBurstFramer.receive(buffer.dibits(), 0, buffer.length());
+    }
+
+    /**
+     * Listener to receive blocks of decoded symbol dibits for this framer.
+     */
+    public Listener<DibitBuffer> getDibitBufferListener()
+    {
+        return mDibitBufferListener;
+    }
+
     /**
      * Primary method for streaming decoded symbol byte arrays.
      *
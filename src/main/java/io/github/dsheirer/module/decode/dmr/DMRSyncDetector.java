@@ -2,6 +2,9 @@ package io.github.dsheirer.module.decode.dmr;
 
 import io.github.dsheirer.dsp.symbol.Dibit;
 import io.github.dsheirer.dsp.symbol.QPSKCarrierLock;
+import io.github.dsheirer.dsp.symbol.sync.SyncMatch;
+import io.github.dsheirer.dsp.symbol.sync.SyncPatternEngine;
+import io.github.dsheirer.dsp.symbol.sync.SyncPatterns;
 import org.apache.commons.lang3.Validate;
 
 /**
@@ -21,15 +24,18 @@ import org.apache.commons.lang3.Validate;
  * Note: sync pattern matching maximum bit errors uses a hard-coded value for PLL misalignment sync detection since
  * this threshold should be relatively high to avoid false triggering and once detected, a PLL should be immediately
  * commanded to correct the issue.
+ *
+ * All sync patterns and their PLL misalignment variants are tested in a single pass by a sync pattern engine and the
+ * pattern with the fewest bit errors is selected.
  */
 public class DMRSyncDetector
 {
-    private static long SYNC_MASK = 0xFFFFFFFFFFFFl;
     private static final int MAX_PATTERN_BIT_ERROR_PLL_MISALIGNMENT = 1;
     private int mMaxStreamBitErrors;
     private int mMaxExplicitBitErrors;
-    private long mCurrentSyncValue;
-    private long mErrorPattern;
+    private SyncPatternEngine mStreamSyncPatternEngine;
+    private SyncPatternEngine mExplicitSyncPatternEngine;
+    private DMRSyncPattern[] mEngineSyncPatterns;
     private int mPatternMatchBitErrorCount;
     private DMRSyncPattern mSyncPattern = DMRSyncPattern.UNKNOWN;
     private QPSKCarrierLock mCarrierLock = QPSKCarrierLock.NORMAL;
@@ -47,6 +53,23 @@ public class DMRSyncDetector
             "Max (allowable) explicit bit errors for sync match must be between 0 and 24");
         mMaxStreamBitErrors = maxStreamBitErrors;
         mMaxExplicitBitErrors = maxExplicitBitErrors;
+
+        mStreamSyncPatternEngine = new SyncPatternEngine(SyncPatterns.dmr(mMaxStreamBitErrors,
+            MAX_PATTERN_BIT_ERROR_PLL_MISALIGNMENT));
+        mExplicitSyncPatternEngine = new SyncPatternEngine(SyncPatterns.dmr(mMaxExplicitBitErrors,
+            MAX_PATTERN_BIT_ERROR_PLL_MISALIGNMENT));
+
+        //Engine patterns are each DMR sync pattern followed by its 3x rotated variants
+        mEngineSyncPatterns = new DMRSyncPattern[DMRSyncPattern.SYNC_PATTERNS.size() * 4];
+        int index = 0;
+
+        for(DMRSyncPattern pattern: DMRSyncPattern.SYNC_PATTERNS)
+        {
+            for(int x = 0; x < 4; x++)
+            {
+                mEngineSyncPatterns[index++] = pattern;
+            }
+        }
     }
 
     /**
@@ -99,80 +122,67 @@ public class DMRSyncDetector
      */
     public void add(Dibit dibit)
     {
-        mCurrentSyncValue = Long.rotateLeft(mCurrentSyncValue, 2);
-        mCurrentSyncValue &= SYNC_MASK;
-        mCurrentSyncValue += dibit.getValue();
-        checkSync(mMaxStreamBitErrors);
+        add(dibit.getValue());
     }
 
     /**
-     * Explicitly sets the argument as the current sync value and tests for sync pattern match.
-     * @param value to load as the current sync value and test
+     * Processes the streaming dibit value (0 - 3) by left shifting the current sync value and adding the dibit value
+     * onto the end and then test for sync pattern match.
+     * @param dibit value to process and test for sync pattern.
      */
-    public void setCurrentSyncValue(long value)
+    public void add(int dibit)
     {
-        mCurrentSyncValue = value;
-        checkSync(mMaxExplicitBitErrors);
+        SyncMatch match = mStreamSyncPatternEngine.receive(dibit);
+        update(match);
     }
 
     /**
-     * Checks the current sync value against each of the sync patterns to determine if the value matches a pattern.
+     * Processes the leading streaming dibit values (0 - 3) from the block that do not complete a sync pattern match.
+     * The caller processes the following dibit with add(int) to detect the sync pattern.
+     * @param dibits array of dibit values
+     * @param offset of the first dibit to process
+     * @param length number of dibits to process
+     * @return number of dibits processed
      */
-    private void checkSync(int maxBitErrors)
+    public int scan(byte[] dibits, int offset, int length)
     {
-        for(DMRSyncPattern pattern: DMRSyncPattern.SYNC_PATTERNS)
-        {
-            mErrorPattern = mCurrentSyncValue ^ pattern.getPattern();
-
-            if(mErrorPattern == 0)
-            {
-                mSyncPattern = pattern;
-                mCarrierLock = QPSKCarrierLock.NORMAL;
-                mPatternMatchBitErrorCount = 0;
-                return;
-            }
-
-            mPatternMatchBitErrorCount = Long.bitCount(mErrorPattern);
+        int count = mStreamSyncPatternEngine.scan(dibits, offset, length);
 
-            if(mPatternMatchBitErrorCount <= maxBitErrors)
-            {
-                mSyncPattern = pattern;
-                mCarrierLock = QPSKCarrierLock.NORMAL;
-                return;
-            }
-
-
-            //For PLL mis-aligned lock patterns, reduce the pattern bit error match threshold
-            mPatternMatchBitErrorCount = Long.bitCount(mCurrentSyncValue ^ pattern.getPlus90Pattern());
-
-            if(mPatternMatchBitErrorCount <= MAX_PATTERN_BIT_ERROR_PLL_MISALIGNMENT)
-            {
-                mSyncPattern = pattern;
-                mCarrierLock = QPSKCarrierLock.PLUS_90;
-                return;
-            }
-
-            mPatternMatchBitErrorCount = Long.bitCount(mCurrentSyncValue ^ pattern.getMinus90Pattern());
+        if(count > 0)
+        {
+            update(null);
+        }
 
-            if(mPatternMatchBitErrorCount <= MAX_PATTERN_BIT_ERROR_PLL_MISALIGNMENT)
-            {
-                mSyncPattern = pattern;
-                mCarrierLock = QPSKCarrierLock.MINUS_90;
-                return;
-            }
+        return count;
+    }
 
-            mPatternMatchBitErrorCount = Long.bitCount(mCurrentSyncValue ^ pattern.getInvertedPattern());
+    /**
+     * Explicitly sets the argument as the current sync value and tests for sync pattern match.
+     * @param value to load as the current sync value and test
+     */
+    public void setCurrentSyncValue(long value)
+    {
+        mStreamSyncPatternEngine.setCurrentValue(value);
+        update(mExplicitSyncPatternEngine.check(value));
+    }
 
-            if(mPatternMatchBitErrorCount <= MAX_PATTERN_BIT_ERROR_PLL_MISALIGNMENT)
-            {
-                mSyncPattern = pattern;
-                mCarrierLock = QPSKCarrierLock.INVERTED;
-                return;
-            }
+    /**
+     * Updates the sync pattern, carrier lock and bit error count from the sync pattern engine match result.
+     * @param match from the engine or null if there was no match
+     */
+    private void update(SyncMatch match)
+    {
+        if(match != null)
+        {
+            mSyncPattern = mEngineSyncPatterns[match.patternIndex()];
+            mCarrierLock = match.pattern().carrierLock();
+            mPatternMatchBitErrorCount = match.bitErrors();
+        }
+        else
+        {
+            mSyncPattern = DMRSyncPattern.UNKNOWN;
+            mCarrierLock = QPSKCarrierLock.NORMAL;
+            mPatternMatchBitErrorCount = 0;
         }
-
-        mSyncPattern = DMRSyncPattern.UNKNOWN;
-        mCarrierLock = QPSKCarrierLock.NORMAL;
-        mPatternMatchBitErrorCount = 0;
     }
 }
@@ -19,20 +19,35 @@
 
 package io.github.dsheirer.module.decode.event;
 
+import io.github.dsheirer.util.ThreadPool;
 import java.awt.EventQueue;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.swing.table.AbstractTableModel;
 
 /**
  * AbstractTableModel implementation supporting clearable method options.
+ *
+ * Items received from producer threads via the enqueue() method are collected in a lock-free queue and applied to the
+ * model in a single Swing event thread pass at most once per update interval, with one coalesced table model
+ * notification for the inserted rows, the updated rows and the rows trimmed from the history.
  */
 public abstract class ClearableHistoryModel<T> extends AbstractTableModel
 {
     public static final int DEFAULT_HISTORY_SIZE = 200;
+    //Apply queued updates at most 20 times a second
+    private static final long UPDATE_INTERVAL_MS = 50;
     private LinkedList<T> mItems = new LinkedList<>();
     private int mHistorySize = DEFAULT_HISTORY_SIZE;
+    private ConcurrentLinkedQueue<T> mPendingItems = new ConcurrentLinkedQueue<>();
+    private AtomicBoolean mUpdateScheduled = new AtomicBoolean();
+    private List<T> mUpdatedItems = new ArrayList<>();
+    private Runnable mUpdateTask = this::applyPendingItems;
 
     /**
      * Access an item/row by the model index value.
@@ -49,14 +64,132 @@ public abstract class ClearableHistoryModel<T> extends AbstractTableModel
         return null;
     }
 
+    /**
+     * Indicates if a received item that is already in the model should be treated as an update to the existing row.
+     * Sub-classes whose items are never re-sent can override this to always insert and avoid the row lookup.
+     */
+    protected boolean supportsUpdates()
+    {
+        return true;
+    }
+
+    /**
+     * Notification that the item was removed from the model.  Invoked on the Swing event thread.
+     * @param item that was removed
+     */
+    protected void removed(T item)
+    {
+    }
+
+    /**
+     * Thread-safe method to queue an item to be added to (or updated in) the model on the next Swing event thread
+     * update pass.
+     * @param item to add or update
+     */
+    public void enqueue(T item)
+    {
+        mPendingItems.add(item);
+
+        if(mUpdateScheduled.compareAndSet(false, true))
+        {
+            ThreadPool.SCHEDULED.schedule(() -> EventQueue.invokeLater(mUpdateTask), UPDATE_INTERVAL_MS,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Applies all queued items to the model and fires coalesced table model change notifications.  Invoked on the
+     * Swing event thread.
+     */
+    private void applyPendingItems()
+    {
+        mUpdateScheduled.set(false);
+
+        int inserted = 0;
+        T item;
+
+        while((item = mPendingItems.poll()) != null)
+        {
+            if(supportsUpdates() && mItems.contains(item))
+            {
+                mUpdatedItems.add(item);
+            }
+            else
+            {
+                mItems.addFirst(item);
+                inserted++;
+            }
+        }
+
+        //Row indexes of updated items are resolved after all inserts so that they reflect the final row positions
+        int firstUpdated = Integer.MAX_VALUE;
+        int lastUpdated = -1;
+
+        for(T updated: mUpdatedItems)
+        {
+            int itemRow = mItems.indexOf(updated);
+
+            //Rows inserted during this pass are notified as inserts
+            if(itemRow >= inserted)
+            {
+                firstUpdated = Math.min(firstUpdated, itemRow);
+                lastUpdated = Math.max(lastUpdated, itemRow);
+            }
+        }
+
+        mUpdatedItems.clear();
+
+        //Coalesce very large batches into a single data changed notification
+        if(inserted > mHistorySize)
+        {
+            trim();
+            fireTableDataChanged();
+            return;
+        }
+
+        if(inserted > 0)
+        {
+            fireTableRowsInserted(0, inserted - 1);
+        }
+
+        if(lastUpdated >= 0)
+        {
+            fireTableRowsUpdated(firstUpdated, lastUpdated);
+        }
+
+        int deleted = trim();
+
+        if(deleted > 0)
+        {
+            fireTableRowsDeleted(mItems.size(), mItems.size() + deleted - 1);
+        }
+    }
+
+    /**
+     * Removes tail items while the item list size exceeds the maximum history size for this model.
+     * @return number of items removed
+     */
+    private int trim()
+    {
+        int removed = 0;
+
+        while(mItems.size() > mHistorySize)
+        {
+            removed(mItems.removeLast());
+            removed++;
+        }
+
+        return removed;
+    }
+
     /**
      * Adds the item to the top of the item list and removes any tail items while the item list size exceeds the
-     * maximum history size for this model.
+     * maximum history size for this model.  Note: this method must be invoked on the Swing event thread.
      * @param item to add
      */
     public void add(T item)
     {
-        if(mItems.contains(item))
+        if(supportsUpdates() && mItems.contains(item))
         {
             int itemRow = mItems.indexOf(item);
             fireTableRowsUpdated(itemRow, itemRow);
@@ -66,10 +199,11 @@ public abstract class ClearableHistoryModel<T> extends AbstractTableModel
             mItems.addFirst(item);
             fireTableRowsInserted(0, 0);
 
-            while(mItems.size() > mHistorySize)
+            int deleted = trim();
+
+            if(deleted > 0)
             {
-                mItems.removeLast();
-                fireTableRowsDeleted(mItems.size() - 1, mItems.size() - 1);
+                fireTableRowsDeleted(mItems.size(), mItems.size() + deleted - 1);
             }
         }
     }
@@ -79,8 +213,10 @@ public abstract class ClearableHistoryModel<T> extends AbstractTableModel
      */
     public void clear()
     {
+        mPendingItems.clear();
+
         EventQueue.invokeLater(() -> {
-            mItems.clear();
+            removeAll();
             fireTableDataChanged();
         });
     }
@@ -90,16 +226,33 @@ public abstract class ClearableHistoryModel<T> extends AbstractTableModel
      */
     public void clearAndSet(List<T> items)
     {
+        mPendingItems.clear();
+
         EventQueue.invokeLater(() -> {
-            mItems.clear();
-            fireTableDataChanged();
+            removeAll();
+
             for(T item: items)
             {
-                add(item);
+                mItems.addFirst(item);
             }
+
+            trim();
+            fireTableDataChanged();
         });
     }
 
+    /**
+     * Removes all items from the model without notification.
+     */
+    private void removeAll()
+    {
+        for(T item: mItems)
+        {
+            removed(item);
+        }
+
+        mItems.clear();
+    }
     /**
      * Current history size
      * @return history size
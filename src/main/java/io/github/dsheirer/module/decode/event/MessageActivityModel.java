@@ -21,13 +21,16 @@ package io.github.dsheirer.module.decode.event;
 import io.github.dsheirer.message.IMessage;
 import io.github.dsheirer.message.StuffBitsMessage;
 import io.github.dsheirer.sample.Listener;
-import java.awt.EventQueue;
 import java.text.SimpleDateFormat;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
 /**
  * Table Model for decoded IMessages.
+ *
+ * Messages are only wrapped in a MessageItem, which caches the rendered column values, when the row is first rendered.
  */
-public class MessageActivityModel extends ClearableHistoryModel<MessageItem> implements Listener<IMessage>
+public class MessageActivityModel extends ClearableHistoryModel<IMessage> implements Listener<IMessage>
 {
     private static final long serialVersionUID = 1L;
     private static final int TIME = 0;
@@ -37,6 +40,7 @@ public class MessageActivityModel extends ClearableHistoryModel<MessageItem> imp
 
     private String[] mHeaders = new String[]{"Time", "Protocol", "Timeslot", "Message"};
     private SimpleDateFormat mSDFTime = new SimpleDateFormat("yyyy:MM:dd HH:mm:ss");
+    private Map<IMessage,MessageItem> mRenderedItems = new IdentityHashMap<>();
 
     /**
      * Constructor
@@ -46,7 +50,7 @@ public class MessageActivityModel extends ClearableHistoryModel<MessageItem> imp
     }
 
     /**
-     * Implements the listener interface and wraps the IMessage in table-compatible message item wrapper.
+     * Implements the listener interface and queues the message for addition to the model.
      * @param message to add to the model
      */
     public void receive(final IMessage message)
@@ -57,7 +61,27 @@ public class MessageActivityModel extends ClearableHistoryModel<MessageItem> imp
             return;
         }
 
-        EventQueue.invokeLater(() -> add(new MessageItem(message)));
+        enqueue(message);
+    }
+
+    /**
+     * Messages are never re-sent to update an existing row.
+     */
+    @Override
+    protected boolean supportsUpdates()
+    {
+        return false;
+    }
+
+    @Override
+    protected void removed(IMessage message)
+    {
+        MessageItem item = mRenderedItems.remove(message);
+
+        if(item != null)
+        {
+            item.dispose();
+        }
     }
 
     @Override
@@ -74,10 +98,12 @@ public class MessageActivityModel extends ClearableHistoryModel<MessageItem> imp
     @Override
     public Object getValueAt(int rowIndex, int columnIndex)
     {
-        MessageItem item = getItem(rowIndex);
+        IMessage message = getItem(rowIndex);
 
-        if(item != null)
+        if(message != null)
         {
+            MessageItem item = mRenderedItems.computeIfAbsent(message, MessageItem::new);
+
             switch(columnIndex)
             {
                 case TIME:
@@ -26,8 +26,6 @@ import io.github.dsheirer.module.decode.DecoderFactory;
 import io.github.dsheirer.preference.UserPreferences;
 import io.github.dsheirer.preference.swing.JTableColumnWidthMonitor;
 import io.github.dsheirer.sample.Listener;
-import java.util.ArrayList;
-import java.util.List;
 import net.miginfocom.swing.MigLayout;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -101,13 +99,7 @@ public class MessageActivityPanel extends JPanel implements Listener<ProcessingC
                 mHistoryManagementPanel.updateFilterSet(mMessageFilterSet);
             }
 
-            List<MessageItem> currentHistory = new ArrayList<>();
-            for(IMessage message: mCurrentMessageHistory.getItems())
-            {
-                currentHistory.add(new MessageItem(message));
-            }
-
-            mMessageModel.clearAndSet(currentHistory);
+            mMessageModel.clearAndSet(mCurrentMessageHistory.getItems());
             mCurrentMessageHistory.addListener(mMessageModel);
             mHistoryManagementPanel.setEnabled(true);
         }
@@ -130,11 +122,10 @@ public class MessageActivityPanel extends JPanel implements Listener<ProcessingC
         {
             if(entry.getModel() instanceof MessageActivityModel model)
             {
-                MessageItem item = model.getItem(entry.getIdentifier());
+                IMessage message = model.getItem(entry.getIdentifier());
 
-                if(mMessageFilterSet != null && item != null && item.getMessage() != null)
+                if(mMessageFilterSet != null && message != null)
                 {
-                    IMessage message = item.getMessage();
                     return mMessageFilterSet.canProcess(message) && mMessageFilterSet.passes(message);
                 }
             }
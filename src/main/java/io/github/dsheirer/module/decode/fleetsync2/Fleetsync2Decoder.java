@@ -22,6 +22,7 @@ package io.github.dsheirer.module.decode.fleetsync2;
 import io.github.dsheirer.bits.MessageFramer;
 import io.github.dsheirer.bits.SyncPattern;
 import io.github.dsheirer.dsp.afsk.AFSK1200Decoder;
+import io.github.dsheirer.dsp.afsk.AFSK1200FrontEnd;
 import io.github.dsheirer.module.decode.DecoderType;
 import io.github.dsheirer.module.decode.afsk.AbstractAFSKDecoder;
 
@@ -46,6 +47,17 @@ public class Fleetsync2Decoder extends AbstractAFSKDecoder
         init();
     }
 
+    /**
+     * Constructs a decoder for Fleetsync II protocol that subscribes to a shared AFSK 1200 front end
+     *
+     * @param frontEnd shared with other AFSK decoders on the channel
+     */
+    public Fleetsync2Decoder(AFSK1200FrontEnd frontEnd)
+    {
+        super(frontEnd, AFSK1200Decoder.Output.NORMAL);
+        init();
+    }
+
     /**
      * Constructs a decoder for Fleetsync II protocol
      */
@@ -61,7 +73,7 @@ public class Fleetsync2Decoder extends AbstractAFSKDecoder
     private void init()
     {
         mMessageFramer = new MessageFramer(SyncPattern.FLEETSYNC2.getPattern(), MESSAGE_LENGTH);
-        getDecoder().setSymbolProcessor(mMessageFramer);
+        setSymbolProcessor(mMessageFramer);
         mMessageProcessor = new Fleetsync2MessageProcessor();
         mMessageFramer.addMessageListener(mMessageProcessor);
         mMessageProcessor.setMessageListener(getMessageListener());
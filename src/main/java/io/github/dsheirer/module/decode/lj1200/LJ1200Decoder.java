@@ -23,6 +23,7 @@ import io.github.dsheirer.bits.IBinarySymbolProcessor;
 import io.github.dsheirer.bits.MessageFramer;
 import io.github.dsheirer.bits.SyncPattern;
 import io.github.dsheirer.dsp.afsk.AFSK1200Decoder;
+import io.github.dsheirer.dsp.afsk.AFSK1200FrontEnd;
 import io.github.dsheirer.module.decode.DecoderType;
 import io.github.dsheirer.module.decode.afsk.AbstractAFSKDecoder;
 
@@ -44,6 +45,17 @@ public class LJ1200Decoder extends AbstractAFSKDecoder implements IBinarySymbolP
         init();
     }
 
+    /**
+     * Constructs an LJ1200 decoder that subscribes to a shared AFSK 1200 front end
+     *
+     * @param frontEnd shared with other AFSK decoders on the channel
+     */
+    public LJ1200Decoder(AFSK1200FrontEnd frontEnd)
+    {
+        super(frontEnd, AFSK1200Decoder.Output.NORMAL);
+        init();
+    }
+
     public LJ1200Decoder()
     {
         super(AFSK1200Decoder.Output.NORMAL);
@@ -53,7 +65,7 @@ public class LJ1200Decoder extends AbstractAFSKDecoder implements IBinarySymbolP
 
     private void init()
     {
-        getDecoder().setSymbolProcessor(this);
+        setSymbolProcessor(this);
 
         mTowerMessageFramer = new MessageFramer(SyncPattern.LJ1200.getPattern(), MESSAGE_LENGTH);
         mTransponderMessageFramer = new MessageFramer(SyncPattern.LJ1200_TRANSPONDER.getPattern(), MESSAGE_LENGTH);
@@ -23,6 +23,7 @@ import io.github.dsheirer.bits.MessageFramer;
 import io.github.dsheirer.bits.SyncPattern;
 import io.github.dsheirer.dsp.NRZDecoder;
 import io.github.dsheirer.dsp.afsk.AFSK1200Decoder;
+import io.github.dsheirer.dsp.afsk.AFSK1200FrontEnd;
 import io.github.dsheirer.module.decode.DecoderType;
 import io.github.dsheirer.module.decode.afsk.AbstractAFSKDecoder;
 
@@ -37,6 +38,17 @@ public class MDCDecoder extends AbstractAFSKDecoder
     private MessageFramer mMessageFramer;
     private MDCMessageProcessor mMessageProcessor;
 
+    /**
+     * Constructs an MDC1200 decoder that subscribes to a shared AFSK 1200 front end
+     *
+     * @param frontEnd shared with other AFSK decoders on the channel
+     */
+    public MDCDecoder(AFSK1200FrontEnd frontEnd)
+    {
+        super(frontEnd, AFSK1200Decoder.Output.INVERTED);
+        init();
+    }
+
     public MDCDecoder()
     {
         super(AFSK1200Decoder.Output.INVERTED);
@@ -52,7 +64,7 @@ public class MDCDecoder extends AbstractAFSKDecoder
     private void init()
     {
         mNRZDecoder = new NRZDecoder(NRZDecoder.MODE_INVERTED);
-        getDecoder().setSymbolProcessor(mNRZDecoder);
+        setSymbolProcessor(mNRZDecoder);
         mMessageFramer = new MessageFramer(SyncPattern.MDC1200.getPattern(), MESSAGE_LENGTH);
         mNRZDecoder.setListener(mMessageFramer);
         mMessageProcessor = new MDCMessageProcessor();
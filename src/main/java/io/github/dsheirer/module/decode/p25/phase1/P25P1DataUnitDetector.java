@@ -20,6 +20,7 @@ package io.github.dsheirer.module.decode.p25.phase1;
 
 import io.github.dsheirer.dsp.psk.pll.IPhaseLockedLoop;
 import io.github.dsheirer.dsp.symbol.Dibit;
+import io.github.dsheirer.dsp.symbol.DibitDelayBuffer;
 import io.github.dsheirer.dsp.symbol.ISyncDetectListener;
 import io.github.dsheirer.edac.BCH_63_16_11;
 import io.github.dsheirer.sample.Listener;
@@ -34,8 +35,8 @@ public class P25P1DataUnitDetector implements Listener<Dibit>, ISyncDetectListen
     private static final int SYNC_DIBIT_LENGTH = 24;
     private static final int MAXIMUM_SYNC_MATCH_BIT_ERRORS = 9;
     private P25P1SyncDetector mSyncDetector;
-    private NIDDelayBuffer mDataUnitBuffer = new NIDDelayBuffer();
-    private DibitDelayBuffer mSyncDelayBuffer = new DibitDelayBuffer(DATA_UNIT_DIBIT_LENGTH - SYNC_DIBIT_LENGTH);
+    private SyncDelayBuffer mSyncDelayBuffer = new SyncDelayBuffer(DATA_UNIT_DIBIT_LENGTH - SYNC_DIBIT_LENGTH);
+    private byte[] mDelayedDibits = new byte[0];
     private IP25P1DataUnitDetectListener mDataUnitDetectListener;
     private boolean mInitialSyncTestProcessed = false;
     private int mDibitsProcessed = 0;
@@ -86,6 +87,15 @@ public class P25P1DataUnitDetector implements Listener<Dibit>, ISyncDetectListen
 
     @Override
     public void receive(Dibit dibit)
+    {
+        receive(dibit.getValue());
+    }
+
+    /**
+     * Processes a dibit symbol value (0 - 3)
+     * @param dibit value to process
+     */
+    public void receive(int dibit)
     {
         mDibitsProcessed++;
 
@@ -96,11 +106,8 @@ public class P25P1DataUnitDetector implements Listener<Dibit>, ISyncDetectListen
             mDibitsProcessed -= 4800;
         }
 
-        mDataUnitBuffer.put(dibit);
-
-        //Feed the sync detect with a 32 dibit delay from the data unit buffer so that if/when
-        //a sync detect occurs, the data unit buffer is already filled with both the sync dibits
-        //and the NID dibits and we can test for a valid NID
+        //Feed the sync detect with a 33 dibit delay so that if/when a sync detect occurs, the sync delay buffer is
+        //already filled with the NID dibits and we can test for a valid NID
         mSyncDetector.receive(mSyncDelayBuffer.getAndPut(dibit));
 
         //If the sync detector doesn't fire and we've processed enough dibits for a sync/nid sequence
@@ -112,6 +119,51 @@ public class P25P1DataUnitDetector implements Listener<Dibit>, ISyncDetectListen
         }
     }
 
+    /**
+     * Processes a block of dibit symbol values (0 - 3).  The run of leading dibits that can't trigger a sync detect,
+     * NID check or sync loss is processed in bulk, followed by the next dibit.  Processing stops after that dibit so
+     * that the caller can respond to a data unit detection before sending the remaining dibits.
+     *
+     * @param dibits array of dibit values
+     * @param offset of the first dibit to process
+     * @param length number of dibits available to process
+     * @return number of dibits processed
+     */
+    public int receive(byte[] dibits, int offset, int length)
+    {
+        int count = Math.min(length, 4864 - mDibitsProcessed);
+
+        if(!mInitialSyncTestProcessed && mDibitsProcessed < DATA_UNIT_DIBIT_LENGTH)
+        {
+            count = Math.min(count, DATA_UNIT_DIBIT_LENGTH - 1 - mDibitsProcessed);
+        }
+
+        if(count > 0)
+        {
+            if(mDelayedDibits.length < count)
+            {
+                mDelayedDibits = new byte[count];
+            }
+
+            mSyncDelayBuffer.getDelayed(dibits, offset, count, mDelayedDibits);
+            count = mSyncDetector.scan(mDelayedDibits, 0, count);
+            mSyncDelayBuffer.put(dibits, offset, count);
+            mDibitsProcessed += count;
+        }
+        else
+        {
+            count = 0;
+        }
+
+        if(count < length)
+        {
+            receive(dibits[offset + count]);
+            count++;
+        }
+
+        return count;
+    }
+
     /**
      * Chects/tests the contents of the data unit buffer for a valid NID when a sync pattern is detected
      * or when commanded following a valid message sequence
@@ -276,75 +328,17 @@ public class P25P1DataUnitDetector implements Listener<Dibit>, ISyncDetectListen
         return mNIDDetectionCount;
     }
 
-    public class NIDDelayBuffer extends DibitDelayBuffer
-    {
-        public NIDDelayBuffer()
-        {
-            super(DATA_UNIT_DIBIT_LENGTH);
-        }
-
-        public int[] getNID()
-        {
-            int[] nid = new int[64];
-
-            int nidPointer = 0;
-            int bufferPointer = mPointer;
-
-            while(nidPointer < 64)
-            {
-                if(mBuffer[bufferPointer].getBit2())
-                {
-                    nid[nidPointer] = 1;
-                }
-
-                nidPointer++;
-
-                if(mBuffer[bufferPointer].getBit1())
-                {
-                    nid[nidPointer] = 1;
-                }
-
-                nidPointer++;
-
-                bufferPointer--;
-
-                if(bufferPointer < 0)
-                {
-                    bufferPointer += mBuffer.length;
-                }
-
-                //Check for the status symbol
-                if(nidPointer == 70)
-                {
-                    nidPointer += 2;
-                }
-            }
-
-            return nid;
-        }
-    }
-
-
     /**
-     * Circular buffer for storing and accessing dibits.
+     * Sync delay buffer that provides access to the NID dibits that follow the sync pattern.
      */
-    public class DibitDelayBuffer
+    public class SyncDelayBuffer extends DibitDelayBuffer
     {
-        protected Dibit[] mBuffer;
-        protected int mPointer;
-
         /**
          * Constructs a dibit delay buffer of the specified length
          */
-        public DibitDelayBuffer(int length)
+        public SyncDelayBuffer(int length)
         {
-            mBuffer = new Dibit[length];
-
-            //Preload the buffer to avoid null pointers
-            for(int x = 0; x < length; x++)
-            {
-                mBuffer[x] = Dibit.D00_PLUS_1;
-            }
+            super(length);
         }
 
         /**
@@ -410,111 +404,6 @@ public class P25P1DataUnitDetector implements Listener<Dibit>, ISyncDetectListen
 
             return nid;
         }
-
-        public void log()
-        {
-            StringBuilder sb = new StringBuilder();
-
-            int counter = 0;
-            int pointer = mPointer;
-
-            while(counter < mBuffer.length)
-            {
-                sb.append(mBuffer[pointer].getBit1() ? "1" : "0");
-                sb.append(mBuffer[pointer++].getBit2() ? "1" : "0");
-
-                if(pointer >= mBuffer.length)
-                {
-                    pointer = 0;
-                }
-
-                counter++;
-            }
-
-            if(this instanceof NIDDelayBuffer)
-            {
-                mLog.debug("NIDBUF: " + sb + " Length:" + mBuffer.length);
-            }
-            else
-            {
-                mLog.debug("SYNBUF: " + sb + " Length:" + mBuffer.length);
-            }
-        }
-
-        /**
-         * Returns an ordered buffer of the internal circular buffer contents.
-         */
-        public Dibit[] getBuffer()
-        {
-            Dibit[] transferBuffer = new Dibit[mBuffer.length];
-
-            int transferBufferPointer = 0;
-            int bufferPointer = mPointer;
-
-            while(transferBufferPointer < transferBuffer.length)
-            {
-                transferBuffer[transferBufferPointer++] = mBuffer[bufferPointer++];
-
-                if(bufferPointer >= mBuffer.length)
-                {
-                    bufferPointer = 0;
-                }
-            }
-
-            return transferBuffer;
-        }
-
-        public int[] getBufferAsArray()
-        {
-            Dibit[] dibits = getBuffer();
-
-            int[] bits = new int[dibits.length * 2];
-
-            for(int x = 0; x < dibits.length; x++)
-            {
-                if(dibits[x].getBit1())
-                {
-                    bits[x * 2] = 1;
-                }
-                if(dibits[x].getBit2())
-                {
-                    bits[x * 2 + 1] = 1;
-                }
-            }
-
-            return bits;
-        }
-
-        /**
-         * Places the dibit into the internal circular buffer, overwriting the oldest dibit.
-         */
-        public void put(Dibit dibit)
-        {
-            //Note: this check is necessary where the previous runnable was interrupted and left the buffer
-            //pointer pointing past the end of the array length.
-            if(mPointer >= mBuffer.length)
-            {
-                mPointer = 0;
-            }
-
-            mBuffer[mPointer++] = dibit;
-
-            if(mPointer >= mBuffer.length)
-            {
-                mPointer = 0;
-            }
-        }
-
-        /**
-         * Places the dibit into the internal circular buffer, overwriting and returning the
-         * oldest dibit.
-         */
-        public Dibit getAndPut(Dibit dibit)
-        {
-            Dibit toReturn = mBuffer[mPointer];
-            put(dibit);
-            return toReturn;
-        }
     }
 
     public static int[] reverse(int[] values)
@@ -20,9 +20,11 @@ package io.github.dsheirer.module.decode.p25.phase1;
 
 import io.github.dsheirer.dsp.squelch.PowerMonitor;
 import io.github.dsheirer.dsp.symbol.Dibit;
+import io.github.dsheirer.dsp.symbol.DibitBuffer;
 import io.github.dsheirer.dsp.symbol.DibitToByteBufferAssembler;
 import io.github.dsheirer.module.decode.DecoderType;
 import io.github.dsheirer.module.decode.FeedbackDecoder;
+import io.github.dsheirer.module.decode.LockstepChannelGroup;
 import io.github.dsheirer.sample.Broadcaster;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.sample.buffer.IByteBufferProvider;
@@ -38,11 +40,14 @@ public abstract class P25P1Decoder extends FeedbackDecoder implements ISourceEve
 {
     private double mSampleRate;
     private Broadcaster<Dibit> mDibitBroadcaster = new Broadcaster<>();
+    private Broadcaster<DibitBuffer> mDibitBufferBroadcaster = new Broadcaster<>();
     private DibitToByteBufferAssembler mByteBufferAssembler = new DibitToByteBufferAssembler(300);
     private P25P1MessageProcessor mMessageProcessor;
     private Listener<SourceEvent> mSourceEventListener;
     private double mSymbolRate;
     protected PowerMonitor mPowerMonitor = new PowerMonitor();
+    private boolean mLockstepEnabled;
+    private LockstepChannelGroup.Member mLockstepMember;
 
     public P25P1Decoder(double symbolRate)
     {
@@ -50,6 +55,7 @@ public abstract class P25P1Decoder extends FeedbackDecoder implements ISourceEve
         mMessageProcessor = new P25P1MessageProcessor();
         mMessageProcessor.setMessageListener(getMessageListener());
         getDibitBroadcaster().addListener(mByteBufferAssembler);
+        getDibitBufferBroadcaster().addListener(mByteBufferAssembler.getDibitBufferListener());
     }
 
     @Override
@@ -74,6 +80,14 @@ public abstract class P25P1Decoder extends FeedbackDecoder implements ISourceEve
         return mDibitBroadcaster;
     }
 
+    /**
+     * Broadcaster for blocks of dibits produced by the demodulator for each processed sample buffer.
+     */
+    protected Broadcaster<DibitBuffer> getDibitBufferBroadcaster()
+    {
+        return mDibitBufferBroadcaster;
+    }
+
     /**
      * Implements the IByteBufferProvider interface - delegates to the byte buffer assembler
      */
@@ -137,6 +151,53 @@ public abstract class P25P1Decoder extends FeedbackDecoder implements ISourceEve
         return (float)(getSampleRate() / getSymbolRate());
     }
 
+    /**
+     * Enables lockstep decoding where the baseband filter for this channel is processed in a batch together with
+     * other channels that use the same decoder at the same sample rate.  This must be set before the decoder is
+     * started.
+     * @param enabled true to join a lockstep decoder group when started
+     */
+    public void setLockstepEnabled(boolean enabled)
+    {
+        mLockstepEnabled = enabled;
+    }
+
+    /**
+     * Lockstep decoder group membership for this decoder.
+     * @return member or null if lockstep decoding is not enabled or the decoder is not started
+     */
+    protected LockstepChannelGroup.Member getLockstepMember()
+    {
+        return mLockstepMember;
+    }
+
+    /**
+     * Joins (or re-joins after a sample rate change) the lockstep decoder group for this decoder type and the current
+     * sample rate, when lockstep decoding is enabled.
+     * @param basebandFilter coefficients used by all members of the group
+     */
+    protected void joinLockstepGroup(float[] basebandFilter)
+    {
+        leaveLockstepGroup();
+
+        if(mLockstepEnabled)
+        {
+            mLockstepMember = LockstepChannelGroup.join(getClass().getName() + ":" + getSampleRate(), basebandFilter);
+        }
+    }
+
+    /**
+     * Leaves the lockstep decoder group, if joined.
+     */
+    protected void leaveLockstepGroup()
+    {
+        if(mLockstepMember != null)
+        {
+            mLockstepMember.leave();
+            mLockstepMember = null;
+        }
+    }
+
     @Override
     public Listener<SourceEvent> getSourceEventListener()
     {
@@ -30,6 +30,7 @@ import io.github.dsheirer.dsp.psk.pll.CostasLoop;
 import io.github.dsheirer.dsp.psk.pll.FrequencyCorrectionSyncMonitor;
 import io.github.dsheirer.dsp.psk.pll.PLLBandwidth;
 import io.github.dsheirer.module.decode.DecoderType;
+import io.github.dsheirer.module.decode.LockstepChannelGroup;
 import io.github.dsheirer.sample.complex.ComplexSamples;
 import io.github.dsheirer.source.SourceEvent;
 import java.util.HashMap;
@@ -67,6 +68,7 @@ public class P25P1DecoderC4FM extends P25P1Decoder
     {
         super.start();
         mQPSKDemodulator.start();
+        joinLockstepGroup(getBasebandFilter());
     }
 
     @Override
@@ -74,6 +76,7 @@ public class P25P1DecoderC4FM extends P25P1Decoder
     {
         super.stop();
         mQPSKDemodulator.stop();
+        leaveLockstepGroup();
     }
 
     public void setSampleRate(double sampleRate)
@@ -82,6 +85,11 @@ public class P25P1DecoderC4FM extends P25P1Decoder
         mIBasebandFilter = FilterFactory.getRealFilter(getBasebandFilter());
         mQBasebandFilter = FilterFactory.getRealFilter(getBasebandFilter());
 
+        if(getLockstepMember() != null)
+        {
+            joinLockstepGroup(getBasebandFilter());
+        }
+
         mCostasLoop = new CostasLoop(getSampleRate(), getSymbolRate());
         mCostasLoop.setPLLBandwidth(PLLBandwidth.BW_300);
         mFrequencyCorrectionSyncMonitor = new FrequencyCorrectionSyncMonitor(mCostasLoop, this);
@@ -91,7 +99,7 @@ public class P25P1DecoderC4FM extends P25P1Decoder
 
         if(mMessageFramer != null)
         {
-            getDibitBroadcaster().removeListener(mMessageFramer);
+            getDibitBufferBroadcaster().removeListener(mMessageFramer.getDibitBufferListener());
         }
 
         //The Costas Loop receives symbol-inversion correction requests when detected.
@@ -101,8 +109,8 @@ public class P25P1DecoderC4FM extends P25P1Decoder
         mMessageFramer.setListener(getMessageProcessor());
         mMessageFramer.setSampleRate(sampleRate);
 
-        mQPSKDemodulator.setSymbolListener(getDibitBroadcaster());
-        getDibitBroadcaster().addListener(mMessageFramer);
+        mQPSKDemodulator.setDibitBufferListener(getDibitBufferBroadcaster());
+        getDibitBufferBroadcaster().addListener(mMessageFramer.getDibitBufferListener());
     }
 
     /**
@@ -114,13 +122,38 @@ public class P25P1DecoderC4FM extends P25P1Decoder
     {
         mMessageFramer.setCurrentTime(System.currentTimeMillis());
 
-        float[] i = mIBasebandFilter.filter(samples.i());
-        float[] q = mQBasebandFilter.filter(samples.q());
+        LockstepChannelGroup.Member lockstepMember = getLockstepMember();
+
+        if(lockstepMember != null)
+        {
+            //Baseband filtering is performed in lockstep with other channels - demodulate any filtered buffers
+            lockstepMember.receive(samples);
+
+            ComplexSamples filtered;
+
+            while((filtered = lockstepMember.poll()) != null)
+            {
+                demodulate(filtered.i(), filtered.q(), filtered.timestamp());
+            }
+        }
+        else
+        {
+            demodulate(mIBasebandFilter.filter(samples.i()), mQBasebandFilter.filter(samples.q()), samples.timestamp());
+        }
+    }
 
+    /**
+     * Demodulates baseband filtered samples
+     * @param i inphase filtered samples
+     * @param q quadrature filtered samples
+     * @param timestamp of the samples
+     */
+    private void demodulate(float[] i, float[] q, long timestamp)
+    {
         //Process the buffer for power meter measurements (before gain is applied)
         mPowerMonitor.process(i, q);
 
-        ComplexSamples amplified = mAGC.process(i, q, samples.timestamp());
+        ComplexSamples amplified = mAGC.process(i, q, timestamp);
         mQPSKDemodulator.receive(amplified);
     }
 
@@ -71,6 +71,12 @@ public class P25P1DecoderC4FMInstrumented extends P25P1DecoderC4FM
      */
     public void setSampleRate(double sampleRate)
     {
+        //Instrumented demodulators produce individual symbols - remove the previous framer from the dibit broadcaster
+        if(mMessageFramer != null)
+        {
+            getDibitBroadcaster().removeListener(mMessageFramer);
+        }
+
         super.setSampleRate(sampleRate);
 
         InterpolatingSampleBufferInstrumented instrumentedBuffer =
@@ -29,6 +29,7 @@ import io.github.dsheirer.dsp.psk.pll.FrequencyCorrectionSyncMonitor;
 import io.github.dsheirer.dsp.psk.pll.PLLBandwidth;
 import io.github.dsheirer.dsp.window.WindowType;
 import io.github.dsheirer.module.decode.DecoderType;
+import io.github.dsheirer.module.decode.LockstepChannelGroup;
 import io.github.dsheirer.sample.complex.ComplexSamples;
 import io.github.dsheirer.source.SourceEvent;
 import java.util.HashMap;
@@ -67,6 +68,7 @@ public class P25P1DecoderLSM extends P25P1Decoder
     {
         super.start();
         mQPSKDemodulator.start();
+        joinLockstepGroup(getBasebandFilter());
     }
 
     @Override
@@ -74,6 +76,7 @@ public class P25P1DecoderLSM extends P25P1Decoder
     {
         super.stop();
         mQPSKDemodulator.stop();
+        leaveLockstepGroup();
     }
 
     /**
@@ -88,6 +91,11 @@ public class P25P1DecoderLSM extends P25P1Decoder
         mIBasebandFilter = FilterFactory.getRealFilter(getBasebandFilter());
         mQBasebandFilter = FilterFactory.getRealFilter(getBasebandFilter());
 
+        if(getLockstepMember() != null)
+        {
+            joinLockstepGroup(getBasebandFilter());
+        }
+
         mCostasLoop = new CostasLoop(getSampleRate(), getSymbolRate());
         mCostasLoop.setPLLBandwidth(PLLBandwidth.BW_200);
         mFrequencyCorrectionSyncMonitor = new FrequencyCorrectionSyncMonitor(mCostasLoop, this);
@@ -100,15 +108,15 @@ public class P25P1DecoderLSM extends P25P1Decoder
         //The PLL gain monitor receives sync detect/loss signals from the message framer
         if(mMessageFramer != null)
         {
-            getDibitBroadcaster().removeListener(mMessageFramer);
+            getDibitBufferBroadcaster().removeListener(mMessageFramer.getDibitBufferListener());
         }
 
         mMessageFramer = new P25P1MessageFramer(mCostasLoop, DecoderType.P25_PHASE1.getProtocol().getBitRate());
         mMessageFramer.setSyncDetectListener(mFrequencyCorrectionSyncMonitor);
         mMessageFramer.setListener(getMessageProcessor());
         mMessageFramer.setSampleRate(sampleRate);
-        mQPSKDemodulator.setSymbolListener(getDibitBroadcaster());
-        getDibitBroadcaster().addListener(mMessageFramer);
+        mQPSKDemodulator.setDibitBufferListener(getDibitBufferBroadcaster());
+        getDibitBufferBroadcaster().addListener(mMessageFramer.getDibitBufferListener());
     }
 
     /**
@@ -119,14 +127,38 @@ public class P25P1DecoderLSM extends P25P1Decoder
     {
         mMessageFramer.setCurrentTime(samples.timestamp());
 
-        //The filter will decrement the user count when finished
-        float[] i = mIBasebandFilter.filter(samples.i());
-        float[] q = mQBasebandFilter.filter(samples.q());
+        LockstepChannelGroup.Member lockstepMember = getLockstepMember();
+
+        if(lockstepMember != null)
+        {
+            //Baseband filtering is performed in lockstep with other channels - demodulate any filtered buffers
+            lockstepMember.receive(samples);
+
+            ComplexSamples filtered;
+
+            while((filtered = lockstepMember.poll()) != null)
+            {
+                demodulate(filtered.i(), filtered.q(), filtered.timestamp());
+            }
+        }
+        else
+        {
+            demodulate(mIBasebandFilter.filter(samples.i()), mQBasebandFilter.filter(samples.q()), samples.timestamp());
+        }
+    }
 
-        //Process the buffer for power measurements
+    /**
+     * Demodulates baseband filtered samples
+     * @param i inphase filtered samples
+     * @param q quadrature filtered samples
+     * @param timestamp of the samples
+     */
+    private void demodulate(float[] i, float[] q, long timestamp)
+    {
+        //Process the buffer for power meter measurements (before gain is applied)
         mPowerMonitor.process(i, q);
 
-        ComplexSamples amplified = mAGC.process(i, q, samples.timestamp());
+        ComplexSamples amplified = mAGC.process(i, q, timestamp);
         mQPSKDemodulator.receive(amplified);
     }
 
@@ -73,6 +73,12 @@ public class P25P1DecoderLSMInstrumented extends P25P1DecoderLSM
      */
     public void setSampleRate(double sampleRate)
     {
+        //Instrumented demodulators produce individual symbols - remove the previous framer from the dibit broadcaster
+        if(mMessageFramer != null)
+        {
+            getDibitBroadcaster().removeListener(mMessageFramer);
+        }
+
         super.setSampleRate(sampleRate);
 
         InterpolatingSampleBufferInstrumented instrumentedBuffer = new InterpolatingSampleBufferInstrumented(getSamplesPerSymbol(), SAMPLE_COUNTER_GAIN);
@@ -28,6 +28,7 @@ import io.github.dsheirer.bits.CorrectedBinaryMessage;
 import io.github.dsheirer.controller.channel.Channel;
 import io.github.dsheirer.dsp.psk.pll.IPhaseLockedLoop;
 import io.github.dsheirer.dsp.symbol.Dibit;
+import io.github.dsheirer.dsp.symbol.DibitBuffer;
 import io.github.dsheirer.dsp.symbol.ISyncDetectListener;
 import io.github.dsheirer.message.IMessage;
 import io.github.dsheirer.message.Message;
@@ -70,6 +71,7 @@ import org.slf4j.LoggerFactory;
 public class P25P1MessageFramer implements Listener<Dibit>, IP25P1DataUnitDetectListener
 {
     private final static Logger mLog = LoggerFactory.getLogger(P25P1MessageFramer.class);
+    private Listener<DibitBuffer> mDibitBufferListener = this::receive;
 
     private P25P1DataUnitDetector mDataUnitDetector;
     private P25P1ChannelStatusProcessor mChannelStatusProcessor = new P25P1ChannelStatusProcessor();
@@ -170,6 +172,16 @@ public class P25P1MessageFramer implements Listener<Dibit>, IP25P1DataUnitDetect
      */
     @Override
     public void receive(Dibit dibit)
+    {
+        receive(dibit.getValue());
+    }
+
+    /**
+     * Processes a decoded symbol dibit value (0 - 3) for message framing.
+     *
+     * @param dibit value to process
+     */
+    private void receive(int dibit)
     {
         if(mAssemblingMessage)
         {
@@ -179,7 +191,7 @@ public class P25P1MessageFramer implements Listener<Dibit>, IP25P1DataUnitDetect
                 if(mAssemblingMessage)
                 {
                     //Send status dibit to channel status processor to identify ISP or OSP channel
-                    mChannelStatusProcessor.receive(dibit);
+                    mChannelStatusProcessor.receive(Dibit.fromValue(dibit));
                 }
                 mStatusSymbolDibitCounter = 0;
 
@@ -190,9 +202,9 @@ public class P25P1MessageFramer implements Listener<Dibit>, IP25P1DataUnitDetect
 
             try
             {
-                mBinaryMessage.add(dibit.getBit1());
-                mBinaryMessage.add(dibit.getBit2());
-                
+                mBinaryMessage.add((dibit & 0x2) == 0x2);
+                mBinaryMessage.add((dibit & 0x1) == 0x1);
+
                 if(mBinaryMessage.isFull())
                 {
                     //TDU's have a trailing status symbol that has to be removed -- set flag to true to suppress it.
@@ -370,6 +382,37 @@ public class P25P1MessageFramer implements Listener<Dibit>, IP25P1DataUnitDetect
         mStatusSymbolDibitCounter = 0;
     }
 
+    /**
+     * Primary method for streaming blocks of decoded symbol dibits for message framing.
+     *
+     * @param buffer of dibits to process
+     */
+    public void receive(DibitBuffer buffer)
+    {
+        byte[] dibits = buffer.dibits();
+        int offset = 0;
+
+        while(offset < dibits.length)
+        {
+            if(mAssemblingMessage || mTrailingDibitsToSuppress > 0)
+            {
+                receive(dibits[offset++]);
+            }
+            else
+            {
+                offset += mDataUnitDetector.receive(dibits, offset, dibits.length - offset);
+            }
+        }
+    }
+
+    /**
+     * Listener to receive blocks of decoded symbol dibits for this framer.
+     */
+    public Listener<DibitBuffer> getDibitBufferListener()
+    {
+        return mDibitBufferListener;
+    }
+
     /**
      * Primary method for streaming decoded symbol byte arrays.
      *
@@ -20,6 +20,7 @@ package io.github.dsheirer.module.decode.p25.phase2;
 
 import io.github.dsheirer.dsp.squelch.PowerMonitor;
 import io.github.dsheirer.dsp.symbol.Dibit;
+import io.github.dsheirer.dsp.symbol.DibitBuffer;
 import io.github.dsheirer.dsp.symbol.DibitToByteBufferAssembler;
 import io.github.dsheirer.module.decode.DecoderType;
 import io.github.dsheirer.module.decode.FeedbackDecoder;
@@ -41,6 +42,7 @@ public abstract class P25P2Decoder extends FeedbackDecoder implements ISourceEve
 {
     private double mSampleRate;
     private Broadcaster<Dibit> mDibitBroadcaster = new Broadcaster<>();
+    private Broadcaster<DibitBuffer> mDibitBufferBroadcaster = new Broadcaster<>();
     private DibitToByteBufferAssembler mByteBufferAssembler = new DibitToByteBufferAssembler(300);
     private P25P2MessageProcessor mMessageProcessor;
     private double mSymbolRate;
@@ -52,6 +54,7 @@ public abstract class P25P2Decoder extends FeedbackDecoder implements ISourceEve
         mMessageProcessor = new P25P2MessageProcessor();
         mMessageProcessor.setMessageListener(getMessageListener());
         getDibitBroadcaster().addListener(mByteBufferAssembler);
+        getDibitBufferBroadcaster().addListener(mByteBufferAssembler.getDibitBufferListener());
     }
 
     @Override
@@ -76,6 +79,14 @@ public abstract class P25P2Decoder extends FeedbackDecoder implements ISourceEve
         return mDibitBroadcaster;
     }
 
+    /**
+     * Broadcaster for blocks of dibits produced by the demodulator for each processed sample buffer.
+     */
+    protected Broadcaster<DibitBuffer> getDibitBufferBroadcaster()
+    {
+        return mDibitBufferBroadcaster;
+    }
+
     /**
      * Implements the IByteBufferProvider interface - delegates to the byte buffer assembler
      */
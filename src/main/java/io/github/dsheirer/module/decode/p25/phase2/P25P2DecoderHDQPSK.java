@@ -102,7 +102,7 @@ public class P25P2DecoderHDQPSK extends P25P2Decoder implements IdentifierUpdate
 
         if(mMessageFramer != null)
         {
-            getDibitBroadcaster().removeListener(mMessageFramer);
+            getDibitBufferBroadcaster().removeListener(mMessageFramer.getDibitBufferListener());
         }
 
         //The Costas Loop receives symbol-inversion correction requests when detected.
@@ -119,8 +119,8 @@ public class P25P2DecoderHDQPSK extends P25P2Decoder implements IdentifierUpdate
         mMessageFramer.setListener(getMessageProcessor());
         mMessageFramer.setSampleRate(sampleRate);
 
-        mQPSKDemodulator.setSymbolListener(getDibitBroadcaster());
-        getDibitBroadcaster().addListener(mMessageFramer);
+        mQPSKDemodulator.setDibitBufferListener(getDibitBufferBroadcaster());
+        getDibitBufferBroadcaster().addListener(mMessageFramer.getDibitBufferListener());
     }
 
     /**
@@ -88,6 +88,12 @@ public class P25P2DecoderHDQPSKInstrumented extends P25P2DecoderHDQPSK
      */
     public void setSampleRate(double sampleRate)
     {
+        //Instrumented demodulators produce individual symbols - remove the previous framer from the dibit broadcaster
+        if(mMessageFramer != null)
+        {
+            getDibitBroadcaster().removeListener(mMessageFramer);
+        }
+
         super.setSampleRate(sampleRate);
 
         InterpolatingSampleBufferInstrumented instrumentedBuffer =
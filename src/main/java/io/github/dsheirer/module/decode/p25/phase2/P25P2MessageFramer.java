@@ -24,6 +24,7 @@ import io.github.dsheirer.bits.CorrectedBinaryMessage;
 import io.github.dsheirer.controller.channel.Channel;
 import io.github.dsheirer.dsp.psk.pll.IPhaseLockedLoop;
 import io.github.dsheirer.dsp.symbol.Dibit;
+import io.github.dsheirer.dsp.symbol.DibitBuffer;
 import io.github.dsheirer.dsp.symbol.ISyncDetectListener;
 import io.github.dsheirer.log.ApplicationLog;
 import io.github.dsheirer.message.IMessage;
@@ -57,6 +58,7 @@ import java.util.function.Consumer;
 public class P25P2MessageFramer implements Listener<Dibit>
 {
     private final static Logger mLog = LoggerFactory.getLogger(P25P2MessageFramer.class);
+    private Listener<DibitBuffer> mDibitBufferListener = this::receive;
 
     private P25P2SuperFrameDetector mSuperFrameDetector;
     private boolean mAssemblingMessage = false;
@@ -173,6 +175,24 @@ public class P25P2MessageFramer implements Listener<Dibit>
         mSuperFrameDetector.receive(dibit);
     }
 
+    /**
+     * Primary method for streaming blocks of decoded symbol dibits for message framing.
+     *
+     * @param buffer of dibits to process
+     */
+    public void receive(DibitBuffer buffer)
+    {
+        mSuperFrameDetector.receive(buffer.dibits(), 0, buffer.length());
+    }
+
+    /**
+     * Listener to receive blocks of decoded symbol dibits for this framer.
+     */
+    public Listener<DibitBuffer> getDibitBufferListener()
+    {
+        return mDibitBufferListener;
+    }
+
     private void reset(int bitsProcessed)
     {
         updateBitsProcessed(bitsProcessed);
@@ -24,6 +24,7 @@ package io.github.dsheirer.module.decode.p25.phase2;
 import io.github.dsheirer.bits.CorrectedBinaryMessage;
 import io.github.dsheirer.dsp.psk.pll.IPhaseLockedLoop;
 import io.github.dsheirer.dsp.symbol.Dibit;
+import io.github.dsheirer.dsp.symbol.DibitDelayBuffer;
 import io.github.dsheirer.dsp.symbol.ISyncDetectListener;
 import io.github.dsheirer.message.IMessage;
 import io.github.dsheirer.message.SyncLossMessage;
@@ -65,6 +66,7 @@ public class P25P2SuperFrameDetector implements Listener<Dibit>, ISyncDetectList
     private P25P2SyncDetector mSyncDetector;
     private DibitDelayBuffer mSyncDetectionDelayBuffer = new DibitDelayBuffer(160);
     private DibitDelayBuffer mFragmentBuffer = new DibitDelayBuffer(720);
+    private byte[] mDelayedDibits = new byte[0];
     private int mDibitsProcessed = 0;
     private boolean mSynchronized = false;
     private ISyncDetectListener mSyncDetectListener;
@@ -139,6 +141,61 @@ public class P25P2SuperFrameDetector implements Listener<Dibit>, ISyncDetectList
 
     @Override
     public void receive(Dibit dibit)
+    {
+        receive(dibit.getValue());
+    }
+
+    /**
+     * Processes a block of dibit symbol values (0 - 3)
+     * @param dibits array of dibit values
+     * @param offset of the first dibit to process
+     * @param length number of dibits to process
+     */
+    public void receive(byte[] dibits, int offset, int length)
+    {
+        int end = offset + length;
+
+        while(offset < end)
+        {
+            //Bulk load the run of dibits that can't trigger a fragment check, sync detect or sync loss broadcast and
+            //then process the dibit that follows the run one at a time.
+            int count = Math.min(end - offset, BROADCAST_SYNC_LOSS_DIBIT_COUNT - mDibitsProcessed);
+
+            if(mSynchronized)
+            {
+                count = Math.min(count, FRAGMENT_DIBIT_LENGTH - 1 - mDibitsProcessed);
+            }
+            else if(count > 0)
+            {
+                if(mDelayedDibits.length < count)
+                {
+                    mDelayedDibits = new byte[count];
+                }
+
+                mSyncDetectionDelayBuffer.getDelayed(dibits, offset, count, mDelayedDibits);
+                count = mSyncDetector.scan(mDelayedDibits, 0, count);
+            }
+
+            if(count > 0)
+            {
+                mDibitsProcessed += count;
+                mFragmentBuffer.put(dibits, offset, count);
+                mSyncDetectionDelayBuffer.put(dibits, offset, count);
+                offset += count;
+            }
+
+            if(offset < end)
+            {
+                receive(dibits[offset++]);
+            }
+        }
+    }
+
+    /**
+     * Processes a dibit symbol value (0 - 3)
+     * @param dibit value to process
+     */
+    private void receive(int dibit)
     {
         mDibitsProcessed++;
 
@@ -156,8 +213,7 @@ public class P25P2SuperFrameDetector implements Listener<Dibit>, ISyncDetectList
         else
         {
             //Only feed the sync pattern detector if we're not synchronized
-            Dibit delayed = mSyncDetectionDelayBuffer.getAndPut(dibit);
-            mSyncDetector.receive(delayed);
+            mSyncDetector.receive(mSyncDetectionDelayBuffer.getAndPut(dibit));
         }
 
         //Broadcast sync loss message once a second (3000 dibits/6000 bits) when we're not synchronized
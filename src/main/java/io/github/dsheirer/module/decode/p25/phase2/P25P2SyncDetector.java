@@ -21,18 +21,28 @@
  */
 package io.github.dsheirer.module.decode.p25.phase2;
 
-import io.github.dsheirer.bits.MultiSyncPatternMatcher;
-import io.github.dsheirer.bits.SoftSyncDetector;
-import io.github.dsheirer.bits.SyncDetector;
 import io.github.dsheirer.dsp.psk.pll.IPhaseLockedLoop;
 import io.github.dsheirer.dsp.symbol.Dibit;
-import io.github.dsheirer.dsp.symbol.FrameSync;
 import io.github.dsheirer.dsp.symbol.ISyncDetectListener;
+import io.github.dsheirer.dsp.symbol.sync.SyncMatch;
+import io.github.dsheirer.dsp.symbol.sync.SyncPattern;
+import io.github.dsheirer.dsp.symbol.sync.SyncPatternEngine;
+import io.github.dsheirer.dsp.symbol.sync.SyncPatterns;
 import io.github.dsheirer.sample.Listener;
+import java.util.Collections;
+import java.util.List;
 import org.apache.commons.math3.util.FastMath;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * P25 Phase 2 sync pattern detector.  Uses a sync pattern engine to test each dibit against the normal sync pattern and,
+ * when a phase locked loop is provided, against the +/- 90 and 180 degree rotated sync patterns in a single pass.
+ *
+ * When the costas loop locks with a +/- 90 degree or 180 degree phase error, the slicer will incorrectly apply
+ * the symbol pattern rotated left or right by the phase error.  However, we can detect these rotated sync patterns
+ * and apply immediate phase correction so that message processing can continue.
+ */
 public class P25P2SyncDetector implements Listener<Dibit>
 {
     private final static Logger mLog = LoggerFactory.getLogger(P25P2SyncDetector.class);
@@ -40,6 +50,9 @@ public class P25P2SyncDetector implements Listener<Dibit>
     /* Determines the threshold for sync pattern soft matching */
     private static final int SYNC_MATCH_THRESHOLD = 4;
 
+    /* Rotated (PLL phase lock error) sync patterns must match exactly */
+    private static final int ROTATED_SYNC_MATCH_THRESHOLD = 0;
+
     /* Costas Loop phase lock error correction values.  A phase lock error of
      * 90 degrees requires a correction of 1/4 of the symbol rate (1500Hz).  An
      * error of 180 degrees requires a correction of 1/2 of the symbol rate */
@@ -49,39 +62,37 @@ public class P25P2SyncDetector implements Listener<Dibit>
     public static final double FREQUENCY_PHASE_CORRECTION_90_DEGREES = DEFAULT_SYMBOL_RATE / 4.0;
     public static final double FREQUENCY_PHASE_CORRECTION_180_DEGREES = DEFAULT_SYMBOL_RATE / 2.0;
 
-    private MultiSyncPatternMatcher mMatcher;
-    private SoftSyncDetector mPrimarySyncDetector;
-
-    private PLLPhaseInversionDetector mInversionDetector90CW;
-    private PLLPhaseInversionDetector mInversionDetector90CCW;
-    private PLLPhaseInversionDetector mInversionDetector180;
+    private ISyncDetectListener mSyncDetectListener;
+    private IPhaseLockedLoop mPhaseLockedLoop;
+    private SyncPatternEngine mSyncPatternEngine;
+    private SyncPattern mPrimarySyncPattern = SyncPatterns.p25Phase2(SYNC_MATCH_THRESHOLD);
+    private int mSyncLossThreshold;
+    private int mBitCount;
+    private double mPllCorrection90Degrees;
+    private double mPllCorrection180Degrees;
 
     public P25P2SyncDetector(ISyncDetectListener syncDetectListener, IPhaseLockedLoop phaseLockedLoop)
     {
         //TODO: since we're only going to feed dibits to find next frame, it makes sense to
         //TODO: update the sync lost parameter to 48 bits ....
+        mSyncDetectListener = syncDetectListener;
+        mPhaseLockedLoop = phaseLockedLoop;
+        mSyncLossThreshold = 1440;
 
-        //TODO: only enable the phase inversion detectors when we're in a sync-lost state
-        mMatcher = new MultiSyncPatternMatcher(syncDetectListener, 1440, 40);
-        mPrimarySyncDetector = new SoftSyncDetector(FrameSync.P25_PHASE2_NORMAL.getSync(), SYNC_MATCH_THRESHOLD, syncDetectListener);
-        mMatcher.add(mPrimarySyncDetector);
+        List<SyncPattern> patterns;
 
         if(phaseLockedLoop != null)
         {
-            //Add additional sync pattern detectors to detect when we get 90/180 degree out of phase sync pattern
-            //detections so that we can apply correction to the phase locked loop
-            mInversionDetector90CW = new PLLPhaseInversionDetector(FrameSync.P25_PHASE2_ERROR_90_CW,
-                phaseLockedLoop, DEFAULT_SAMPLE_RATE, FREQUENCY_PHASE_CORRECTION_90_DEGREES);
-            mMatcher.add(mInversionDetector90CW);
-
-            mInversionDetector90CCW = new PLLPhaseInversionDetector(FrameSync.P25_PHASE2_ERROR_90_CCW,
-                phaseLockedLoop, DEFAULT_SAMPLE_RATE, -FREQUENCY_PHASE_CORRECTION_90_DEGREES);
-            mMatcher.add(mInversionDetector90CCW);
-
-            mInversionDetector180 = new PLLPhaseInversionDetector(FrameSync.P25_PHASE2_ERROR_180,
-                phaseLockedLoop, DEFAULT_SAMPLE_RATE, FREQUENCY_PHASE_CORRECTION_180_DEGREES);
-            mMatcher.add(mInversionDetector180);
+            //Add the 90/180 degree out of phase sync patterns so that we can apply correction to the phase locked loop
+            patterns = SyncPatterns.withRotations(mPrimarySyncPattern, ROTATED_SYNC_MATCH_THRESHOLD);
         }
+        else
+        {
+            patterns = Collections.singletonList(mPrimarySyncPattern);
+        }
+
+        mSyncPatternEngine = new SyncPatternEngine(patterns);
+        setSampleRate(DEFAULT_SAMPLE_RATE);
     }
 
     /**
@@ -90,87 +101,91 @@ public class P25P2SyncDetector implements Listener<Dibit>
      */
     public int getPrimarySyncMatchErrorCount()
     {
-        return Long.bitCount(mMatcher.getCurrentValue() ^ FrameSync.P25_PHASE2_NORMAL.getSync());
+        return mSyncPatternEngine.getBitErrorCount(mPrimarySyncPattern);
     }
 
     @Override
     public void receive(Dibit dibit)
     {
-        mMatcher.receive(dibit.getBit1(), dibit.getBit2());
+        receive(dibit.getValue());
     }
 
     /**
-     * Updates the incoming sample stream sample rate to allow the PLL phase inversion detectors to
-     * recalculate their internal phase correction values.
-     *
-     * @param sampleRate of the incoming sample stream
+     * Processes a dibit symbol value (0 - 3)
+     * @param dibit value to process
      */
-    public void setSampleRate(double sampleRate)
+    public void receive(int dibit)
     {
-        mInversionDetector180.setSampleRate(sampleRate);
-        mInversionDetector90CW.setSampleRate(sampleRate);
-        mInversionDetector90CCW.setSampleRate(sampleRate);
+        mBitCount += 2;
+
+        SyncMatch match = mSyncPatternEngine.receive(dibit);
+
+        if(match != null)
+        {
+            mBitCount = 0;
+            process(match);
+        }
+
+        if(mBitCount > mSyncLossThreshold)
+        {
+            mSyncDetectListener.syncLost(mBitCount);
+            mBitCount = 0;
+        }
     }
 
     /**
-     * Sync pattern detector to listen for costas loop phase lock errors and apply a phase correction to the costas
-     * loop so that we don't miss any messages.
-     *
-     * When the costas loop locks with a +/- 90 degree or 180 degree phase error, the slicer will incorrectly apply
-     * the symbol pattern rotated left or right by the phase error.  However, we can detect these rotated sync patterns
-     * and apply immediate phase correction so that message processing can continue.
+     * Processes the leading dibit values (0 - 3) from the block that neither complete a sync pattern match nor reach
+     * the sync loss threshold.  The caller processes the following dibit with receive(int) to produce the sync detect
+     * or sync loss notification.
+     * @param dibits array of dibit values
+     * @param offset of the first dibit to process
+     * @param length number of dibits to process
+     * @return number of dibits processed
      */
-    public class PLLPhaseInversionDetector extends SyncDetector
+    public int scan(byte[] dibits, int offset, int length)
     {
-        private FrameSync mFrameSync;
-        private IPhaseLockedLoop mPhaseLockedLoop;
-        private double mSampleRate;
-        private double mFrequencyCorrection;
-        private double mPllCorrection;
-
-        /**
-         * Constructs the PLL phase inversion detector.
-         *
-         * @param frameSync pattern to monitor for detecting phase inversion errors
-         * @param phaseLockedLoop to receive phase correction values
-         * @param sampleRate of the incoming sample stream
-         * @param frequencyCorrection to apply to the PLL.  Examples:
-         *      QPSK +/-90 degree correction: +/-SYMBOL RATE / 4.0
-         *      QPSK 180 degree correction: SYMBOL RATE / 2.0
-         */
-        public PLLPhaseInversionDetector(FrameSync frameSync, IPhaseLockedLoop phaseLockedLoop, double sampleRate,
-                                         double frequencyCorrection)
+        int count = Math.min(length, (mSyncLossThreshold - mBitCount) / 2);
+
+        if(count <= 0)
         {
-            super(frameSync.getSync());
-            mFrameSync = frameSync;
-            mPhaseLockedLoop = phaseLockedLoop;
-            mFrequencyCorrection = frequencyCorrection;
-            setSampleRate(sampleRate);
-
-            setListener(new ISyncDetectListener()
-            {
-                @Override
-                public void syncDetected(int bitErrors)
-                {
-                    mPhaseLockedLoop.correctInversion(mPllCorrection);
-                }
-
-                @Override
-                public void syncLost(int bitsProcessed)
-                {
-                    //no-op
-                }
-            });
+            return 0;
         }
 
-        /**
-         * Sets or adjusts the sample rate so that the phase inversion correction value can be recalculated.
-         * @param sampleRate
-         */
-        public void setSampleRate(double sampleRate)
+        count = mSyncPatternEngine.scan(dibits, offset, count);
+        mBitCount += count * 2;
+        return count;
+    }
+
+    /**
+     * Processes a sync pattern match according to the carrier lock hypothesis of the matching pattern.
+     */
+    private void process(SyncMatch match)
+    {
+        switch(match.pattern().carrierLock())
         {
-            mSampleRate = sampleRate;
-            mPllCorrection = 2.0 * FastMath.PI * mFrequencyCorrection / mSampleRate;
+            case NORMAL:
+                mSyncDetectListener.syncDetected(match.bitErrors());
+                break;
+            case PLUS_90:
+                mPhaseLockedLoop.correctInversion(-mPllCorrection90Degrees);
+                break;
+            case MINUS_90:
+                mPhaseLockedLoop.correctInversion(mPllCorrection90Degrees);
+                break;
+            case INVERTED:
+                mPhaseLockedLoop.correctInversion(mPllCorrection180Degrees);
+                break;
         }
     }
+
+    /**
+     * Updates the incoming sample stream sample rate to allow the PLL phase inversion corrections to be recalculated.
+     *
+     * @param sampleRate of the incoming sample stream
+     */
+    public void setSampleRate(double sampleRate)
+    {
+        mPllCorrection90Degrees = 2.0 * FastMath.PI * FREQUENCY_PHASE_CORRECTION_90_DEGREES / sampleRate;
+        mPllCorrection180Degrees = 2.0 * FastMath.PI * FREQUENCY_PHASE_CORRECTION_180_DEGREES / sampleRate;
+    }
 }
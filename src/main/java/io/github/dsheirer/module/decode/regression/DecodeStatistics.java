@@ -0,0 +1,226 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.module.decode.regression;
+
+import io.github.dsheirer.bits.CorrectedBinaryMessage;
+import io.github.dsheirer.edac.CRC;
+import io.github.dsheirer.message.IBitErrorProvider;
+import io.github.dsheirer.message.IMessage;
+import io.github.dsheirer.module.decode.dmr.message.DMRMessage;
+import io.github.dsheirer.module.decode.ltrnet.message.LtrNetMessage;
+import io.github.dsheirer.module.decode.ltrstandard.message.LTRMessage;
+import io.github.dsheirer.module.decode.p25.phase1.message.P25Message;
+import io.github.dsheirer.sample.Listener;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Decode yield statistics for a decoder over one or more recordings.
+ *
+ * Messages are classified as valid (passed without error correction), corrected (passed after correcting one or more
+ * bit errors) or failed.  The CRC statistics use the CRC reported by the message when it is available, otherwise the
+ * CRC status is derived from the message classification.
+ */
+public class DecodeStatistics implements Listener<IMessage>
+{
+    private long mMessageCount;
+    private long mValidCount;
+    private long mCorrectedCount;
+    private long mFailedCount;
+    private long mCorrectedBitCount;
+    private Map<CRC,Long> mCRCCounts = new EnumMap<>(CRC.class);
+    private long mSampleCount;
+    private long mElapsedNanoseconds;
+    private long mRecordingCount;
+
+    @Override
+    public void receive(IMessage message)
+    {
+        mMessageCount++;
+        int correctedBits = getCorrectedBitCount(message);
+        CRC crc = getCRC(message);
+
+        if(!message.isValid())
+        {
+            mFailedCount++;
+
+            if(crc == null)
+            {
+                crc = CRC.FAILED_CRC;
+            }
+        }
+        else if(correctedBits > 0)
+        {
+            mCorrectedCount++;
+            mCorrectedBitCount += correctedBits;
+
+            if(crc == null)
+            {
+                crc = CRC.CORRECTED;
+            }
+        }
+        else
+        {
+            mValidCount++;
+
+            if(crc == null)
+            {
+                crc = CRC.PASSED;
+            }
+        }
+
+        mCRCCounts.merge(crc, 1L, Long::sum);
+    }
+
+    /**
+     * Number of corrected bits for the message, when available.
+     */
+    private static int getCorrectedBitCount(IMessage message)
+    {
+        if(message instanceof IBitErrorProvider bitErrorProvider)
+        {
+            return bitErrorProvider.getBitErrorsCount();
+        }
+
+        CorrectedBinaryMessage correctedBinaryMessage = null;
+
+        if(message instanceof P25Message p25Message)
+        {
+            correctedBinaryMessage = p25Message.getMessage();
+        }
+        else if(message instanceof DMRMessage dmrMessage)
+        {
+            correctedBinaryMessage = dmrMessage.getMessage();
+        }
+        else if(message instanceof LTRMessage ltrMessage)
+        {
+            correctedBinaryMessage = ltrMessage.getMessage();
+        }
+
+        return correctedBinaryMessage != null ? Math.max(0, correctedBinaryMessage.getCorrectedBitCount()) : 0;
+    }
+
+    /**
+     * CRC reported by the message, or null if the message doesn't report a CRC status.
+     */
+    private static CRC getCRC(IMessage message)
+    {
+        if(message instanceof LtrNetMessage ltrNetMessage)
+        {
+            return ltrNetMessage.getCRC();
+        }
+        else if(message instanceof LTRMessage ltrMessage)
+        {
+            return ltrMessage.getCRC();
+        }
+
+        return null;
+    }
+
+    /**
+     * Adds the statistics to this statistics instance
+     */
+    public void add(DecodeStatistics statistics)
+    {
+        mMessageCount += statistics.mMessageCount;
+        mValidCount += statistics.mValidCount;
+        mCorrectedCount += statistics.mCorrectedCount;
+        mFailedCount += statistics.mFailedCount;
+        mCorrectedBitCount += statistics.mCorrectedBitCount;
+        mSampleCount += statistics.mSampleCount;
+        mElapsedNanoseconds += statistics.mElapsedNanoseconds;
+        mRecordingCount += statistics.mRecordingCount;
+
+        for(Map.Entry<CRC,Long> entry: statistics.mCRCCounts.entrySet())
+        {
+            mCRCCounts.merge(entry.getKey(), entry.getValue(), Long::sum);
+        }
+    }
+
+    /**
+     * Records the samples processed and the processing time for a recording.
+     * @param sampleCount processed
+     * @param elapsedNanoseconds processing time
+     */
+    public void addRecording(long sampleCount, long elapsedNanoseconds)
+    {
+        mRecordingCount++;
+        mSampleCount += sampleCount;
+        mElapsedNanoseconds += elapsedNanoseconds;
+    }
+
+    public long getMessageCount()
+    {
+        return mMessageCount;
+    }
+
+    public long getValidCount()
+    {
+        return mValidCount;
+    }
+
+    public long getCorrectedCount()
+    {
+        return mCorrectedCount;
+    }
+
+    public long getFailedCount()
+    {
+        return mFailedCount;
+    }
+
+    public long getCorrectedBitCount()
+    {
+        return mCorrectedBitCount;
+    }
+
+    /**
+     * Count of messages with the CRC status
+     */
+    public long getCRCCount(CRC crc)
+    {
+        return mCRCCounts.getOrDefault(crc, 0L);
+    }
+
+    public long getSampleCount()
+    {
+        return mSampleCount;
+    }
+
+    public long getRecordingCount()
+    {
+        return mRecordingCount;
+    }
+
+    /**
+     * Processing time in seconds
+     */
+    public double getElapsedSeconds()
+    {
+        return mElapsedNanoseconds / 1E9;
+    }
+
+    /**
+     * Decode throughput in samples per second of processing time
+     */
+    public double getSamplesPerSecond()
+    {
+        return mElapsedNanoseconds > 0 ? mSampleCount / getElapsedSeconds() : 0.0;
+    }
+}
@@ -0,0 +1,345 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.module.decode.regression;
+
+import io.github.dsheirer.buffer.INativeBuffer;
+import io.github.dsheirer.controller.NamingThreadFactory;
+import io.github.dsheirer.module.decode.Decoder;
+import io.github.dsheirer.record.sigmf.SigMFMetadata;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.sample.SampleType;
+import io.github.dsheirer.sample.complex.ComplexSamples;
+import io.github.dsheirer.sample.complex.IComplexSamplesListener;
+import io.github.dsheirer.sample.real.IRealBufferListener;
+import io.github.dsheirer.source.wave.ComplexWaveSource;
+import io.github.dsheirer.source.wave.RealWaveSource;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Headless decoder regression harness.  Runs each selected decoder over every compatible recording in a directory
+ * (recursive) in parallel and produces a report of message yield, error correction and CRC statistics and decode
+ * throughput.  Complex baseband channel recordings (wave or SigMF) are processed by the complex sample decoders and
+ * demodulated 8 kHz audio recordings are processed by the real sample decoders.
+ *
+ * Each decoder and recording pair is processed independently with a new decoder instance and the results are
+ * reported in a fixed (decoder, recording) order, so the report is repeatable regardless of the thread count.
+ *
+ * Usage: DecoderRegressionHarness recordings_directory [--decoders=P25_PHASE1,DMR,...] [--threads=N]
+ * [--report=file] [--baseline=file]
+ */
+public class DecoderRegressionHarness
+{
+    private final static Logger mLog = LoggerFactory.getLogger(DecoderRegressionHarness.class);
+    private static final int BUFFER_FRAMES = 8192;
+    private final Collection<RegressionDecoder> mDecoders;
+    private final int mThreadCount;
+
+    /**
+     * Constructs an instance
+     * @param decoders to run
+     * @param threadCount for parallel processing
+     */
+    public DecoderRegressionHarness(Collection<RegressionDecoder> decoders, int threadCount)
+    {
+        mDecoders = EnumSet.copyOf(decoders);
+        mThreadCount = Math.max(1, threadCount);
+    }
+
+    /**
+     * Runs the decoders over the recordings in the directory
+     * @param directory containing recordings
+     * @return report
+     * @throws IOException if the directory can't be read
+     */
+    public RegressionReport run(Path directory) throws IOException
+    {
+        List<Path> recordings;
+
+        try(Stream<Path> paths = Files.walk(directory))
+        {
+            recordings = paths.filter(Files::isRegularFile)
+                .filter(path -> !path.toString().endsWith(SigMFMetadata.DATA_EXTENSION))
+                .sorted().toList();
+        }
+
+        List<RegressionDecoder> decoders = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        List<Callable<DecodeStatistics>> tasks = new ArrayList<>();
+
+        for(RegressionDecoder decoder: mDecoders)
+        {
+            for(Path recording: recordings)
+            {
+                File file = recording.toFile();
+                SampleType sampleType = getSampleType(file);
+
+                if(sampleType == decoder.getSampleType())
+                {
+                    decoders.add(decoder);
+                    names.add(directory.relativize(recording).toString().replace('\t', ' '));
+                    tasks.add(() -> decode(decoder, file));
+                }
+            }
+        }
+
+        mLog.info("Processing [" + tasks.size() + "] decoder/recording combinations from [" + recordings.size() +
+            "] files using [" + mThreadCount + "] threads");
+
+        List<RegressionReport.Result> results = new ArrayList<>();
+        ExecutorService executorService = Executors.newFixedThreadPool(mThreadCount,
+            new NamingThreadFactory("sdrtrunk decoder regression"));
+
+        try
+        {
+            List<Future<DecodeStatistics>> futures = executorService.invokeAll(tasks);
+
+            for(int x = 0; x < futures.size(); x++)
+            {
+                try
+                {
+                    results.add(new RegressionReport.Result(decoders.get(x), names.get(x), futures.get(x).get(), null));
+                }
+                catch(ExecutionException ee)
+                {
+                    Throwable cause = ee.getCause() != null ? ee.getCause() : ee;
+                    mLog.error("Error processing [" + names.get(x) + "] with decoder [" + decoders.get(x) + "]", cause);
+                    results.add(new RegressionReport.Result(decoders.get(x), names.get(x), new DecodeStatistics(),
+                        cause.getClass().getSimpleName() + ": " + cause.getMessage()));
+                }
+            }
+        }
+        catch(InterruptedException ie)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while processing recordings", ie);
+        }
+        finally
+        {
+            executorService.shutdownNow();
+        }
+
+        return new RegressionReport(results);
+    }
+
+    /**
+     * Determines the sample type of the recording file, or null if the file is not a supported recording.
+     */
+    private static SampleType getSampleType(File file)
+    {
+        if(ComplexWaveSource.supports(file))
+        {
+            return SampleType.COMPLEX;
+        }
+        else if(RealWaveSource.supports(file))
+        {
+            return SampleType.REAL;
+        }
+
+        return null;
+    }
+
+    /**
+     * Decodes the recording file with a new instance of the decoder.
+     * @param regressionDecoder to use
+     * @param file to process
+     * @return statistics
+     * @throws Exception if there is an error reading the recording
+     */
+    private static DecodeStatistics decode(RegressionDecoder regressionDecoder, File file) throws Exception
+    {
+        DecodeStatistics statistics = new DecodeStatistics();
+        long start = System.nanoTime();
+        long frameCount;
+
+        if(regressionDecoder.getSampleType() == SampleType.COMPLEX)
+        {
+            try(ComplexWaveSource source = new ComplexWaveSource(file, false))
+            {
+                source.open();
+                Decoder decoder = regressionDecoder.createDecoder(source.getSampleRate());
+                decoder.setMessageListener(statistics);
+                decoder.start();
+                Listener<ComplexSamples> listener = ((IComplexSamplesListener)decoder).getComplexSamplesListener();
+                source.setListener((Listener<INativeBuffer>)nativeBuffer -> {
+                    Iterator<ComplexSamples> iterator = nativeBuffer.iterator();
+
+                    while(iterator.hasNext())
+                    {
+                        listener.receive(iterator.next());
+                    }
+                });
+                frameCount = process(source.getFrameCount(), source::next);
+                decoder.stop();
+            }
+        }
+        else
+        {
+            try(RealWaveSource source = new RealWaveSource(file))
+            {
+                source.open();
+                Decoder decoder = regressionDecoder.createDecoder(source.getSampleRate());
+                decoder.setMessageListener(statistics);
+                decoder.start();
+                source.setListener(((IRealBufferListener)decoder).getBufferListener());
+                frameCount = process(source.getFrameCount(), source::next);
+                decoder.stop();
+            }
+        }
+
+        statistics.addRecording(frameCount, System.nanoTime() - start);
+        return statistics;
+    }
+
+    /**
+     * Reads all frames from the source in buffer sized reads.
+     * @return number of frames processed
+     */
+    private static long process(long frameCount, FrameReader reader) throws IOException
+    {
+        long processed = 0;
+
+        while(processed < frameCount)
+        {
+            int frames = (int)Math.min(BUFFER_FRAMES, frameCount - processed);
+            reader.next(frames);
+            processed += frames;
+        }
+
+        return processed;
+    }
+
+    /**
+     * Reads the number of frames from a recording source
+     */
+    private interface FrameReader
+    {
+        void next(int frames) throws IOException;
+    }
+
+    /**
+     * Runs the regression harness from the command line.
+     */
+    public static void main(String[] args)
+    {
+        Path directory = null;
+        Collection<RegressionDecoder> decoders = EnumSet.allOf(RegressionDecoder.class);
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path reportPath = null;
+        Path baselinePath = null;
+
+        try
+        {
+            for(String arg: args)
+            {
+                if(arg.startsWith("--decoders="))
+                {
+                    decoders = EnumSet.noneOf(RegressionDecoder.class);
+
+                    for(String name: arg.substring("--decoders=".length()).split(","))
+                    {
+                        decoders.add(RegressionDecoder.valueOf(name.trim().toUpperCase()));
+                    }
+                }
+                else if(arg.startsWith("--threads="))
+                {
+                    threads = Integer.parseInt(arg.substring("--threads=".length()));
+                }
+                else if(arg.startsWith("--report="))
+                {
+                    reportPath = Path.of(arg.substring("--report=".length()));
+                }
+                else if(arg.startsWith("--baseline="))
+                {
+                    baselinePath = Path.of(arg.substring("--baseline=".length()));
+                }
+                else if(!arg.startsWith("--"))
+                {
+                    directory = Path.of(arg);
+                }
+                else
+                {
+                    throw new IllegalArgumentException("Unrecognized option [" + arg + "]");
+                }
+            }
+        }
+        catch(IllegalArgumentException iae)
+        {
+            System.err.println(iae.getMessage());
+            directory = null;
+        }
+
+        if(directory == null || !Files.isDirectory(directory) || decoders.isEmpty())
+        {
+            System.err.println("Usage: DecoderRegressionHarness recordings_directory [--decoders=P25_PHASE1,DMR,...] " +
+                "[--threads=N] [--report=file] [--baseline=file]");
+            System.err.println("Decoders: " + EnumSet.allOf(RegressionDecoder.class));
+            System.exit(2);
+        }
+
+        try
+        {
+            DecoderRegressionHarness harness = new DecoderRegressionHarness(decoders, threads);
+            RegressionReport report = harness.run(directory);
+
+            if(reportPath != null)
+            {
+                try(PrintStream out = new PrintStream(new FileOutputStream(reportPath.toFile())))
+                {
+                    report.write(out);
+                }
+
+                mLog.info("Regression report written to [" + reportPath + "]");
+            }
+            else
+            {
+                report.write(System.out);
+            }
+
+            if(baselinePath != null && report.compare(baselinePath, System.out))
+            {
+                System.exit(1);
+            }
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error running decoder regression", ioe);
+            System.exit(2);
+        }
+
+        System.exit(0);
+    }
+}
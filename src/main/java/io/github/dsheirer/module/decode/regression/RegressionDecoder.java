@@ -0,0 +1,108 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.module.decode.regression;
+
+import io.github.dsheirer.message.MessageDirection;
+import io.github.dsheirer.module.decode.Decoder;
+import io.github.dsheirer.module.decode.DecoderType;
+import io.github.dsheirer.module.decode.dmr.DMRDecoder;
+import io.github.dsheirer.module.decode.dmr.DecodeConfigDMR;
+import io.github.dsheirer.module.decode.fleetsync2.Fleetsync2Decoder;
+import io.github.dsheirer.module.decode.ltrnet.DecodeConfigLTRNet;
+import io.github.dsheirer.module.decode.ltrnet.LTRNetDecoder;
+import io.github.dsheirer.module.decode.ltrstandard.LTRStandardDecoder;
+import io.github.dsheirer.module.decode.mpt1327.MPT1327Decoder;
+import io.github.dsheirer.module.decode.mpt1327.Sync;
+import io.github.dsheirer.module.decode.p25.phase1.P25P1DecoderC4FM;
+import io.github.dsheirer.sample.SampleType;
+
+/**
+ * Decoders supported by the decoder regression harness.  Complex decoders process complex baseband channel
+ * recordings and real decoders process demodulated 8 kHz audio recordings.
+ */
+public enum RegressionDecoder
+{
+    P25_PHASE1(DecoderType.P25_PHASE1, SampleType.COMPLEX),
+    DMR(DecoderType.DMR, SampleType.COMPLEX),
+    LTR_NET(DecoderType.LTR_NET, SampleType.REAL),
+    LTR(DecoderType.LTR, SampleType.REAL),
+    MPT1327(DecoderType.MPT1327, SampleType.REAL),
+    FLEETSYNC2(DecoderType.FLEETSYNC2, SampleType.REAL);
+
+    private DecoderType mDecoderType;
+    private SampleType mSampleType;
+
+    RegressionDecoder(DecoderType decoderType, SampleType sampleType)
+    {
+        mDecoderType = decoderType;
+        mSampleType = sampleType;
+    }
+
+    /**
+     * Decoder type
+     */
+    public DecoderType getDecoderType()
+    {
+        return mDecoderType;
+    }
+
+    /**
+     * Type of recording samples processed by the decoder
+     */
+    public SampleType getSampleType()
+    {
+        return mSampleType;
+    }
+
+    /**
+     * Creates a new decoder instance with the default decode configuration.
+     * @param sampleRate of the recording
+     * @return decoder
+     */
+    public Decoder createDecoder(double sampleRate)
+    {
+        switch(this)
+        {
+            case P25_PHASE1:
+                P25P1DecoderC4FM p25Decoder = new P25P1DecoderC4FM();
+                p25Decoder.setSampleRate(sampleRate);
+                return p25Decoder;
+            case DMR:
+                DMRDecoder dmrDecoder = new DMRDecoder(new DecodeConfigDMR());
+                dmrDecoder.setSampleRate(sampleRate);
+                return dmrDecoder;
+            case LTR_NET:
+                return new LTRNetDecoder(new DecodeConfigLTRNet());
+            case LTR:
+                return new LTRStandardDecoder(MessageDirection.OSW);
+            case MPT1327:
+                return new MPT1327Decoder(Sync.NORMAL);
+            case FLEETSYNC2:
+                return new Fleetsync2Decoder();
+            default:
+                throw new IllegalArgumentException("Unrecognized regression decoder [" + name() + "]");
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return mDecoderType.getShortDisplayString();
+    }
+}
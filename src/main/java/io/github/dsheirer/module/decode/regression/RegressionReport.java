@@ -0,0 +1,263 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.module.decode.regression;
+
+import io.github.dsheirer.edac.CRC;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Decoder regression report.  The report is a tab-separated text format where the RESULT and TOTAL lines are
+ * deterministic for a given set of recordings and decoder implementation, so that two reports can be compared with
+ * a text diff, or with the compare() method.  Decode throughput varies between runs and hosts and is reported on
+ * separate THROUGHPUT lines.
+ */
+public class RegressionReport
+{
+    public static final String RESULT = "RESULT";
+    public static final String TOTAL = "TOTAL";
+    public static final String THROUGHPUT = "THROUGHPUT";
+    public static final String ERROR = "ERROR";
+    private final List<Result> mResults;
+
+    /**
+     * Constructs an instance
+     * @param results ordered by decoder and recording
+     */
+    public RegressionReport(List<Result> results)
+    {
+        mResults = Collections.unmodifiableList(results);
+    }
+
+    /**
+     * Results for each decoder and recording
+     */
+    public List<Result> getResults()
+    {
+        return mResults;
+    }
+
+    /**
+     * Combined statistics for each decoder
+     */
+    public Map<RegressionDecoder,DecodeStatistics> getTotals()
+    {
+        Map<RegressionDecoder,DecodeStatistics> totals = new EnumMap<>(RegressionDecoder.class);
+
+        for(Result result: mResults)
+        {
+            totals.computeIfAbsent(result.decoder(), decoder -> new DecodeStatistics()).add(result.statistics());
+        }
+
+        return totals;
+    }
+
+    /**
+     * Writes the report
+     */
+    public void write(PrintStream out)
+    {
+        out.println("# sdrtrunk decoder regression report");
+        out.println("# " + RESULT + "\tdecoder\trecording\t" + getCountHeader());
+
+        for(Result result: mResults)
+        {
+            if(result.error() != null)
+            {
+                out.println(ERROR + "\t" + result.decoder().name() + "\t" + result.recording() + "\t" + result.error());
+            }
+            else
+            {
+                out.println(RESULT + "\t" + result.decoder().name() + "\t" + result.recording() + "\t" +
+                    getCounts(result.statistics()));
+            }
+        }
+
+        Map<RegressionDecoder,DecodeStatistics> totals = getTotals();
+
+        out.println("# " + TOTAL + "\tdecoder\trecordings\t" + getCountHeader());
+
+        for(Map.Entry<RegressionDecoder,DecodeStatistics> entry: totals.entrySet())
+        {
+            out.println(TOTAL + "\t" + entry.getKey().name() + "\t" + entry.getValue().getRecordingCount() + "\t" +
+                getCounts(entry.getValue()));
+        }
+
+        out.println("# " + THROUGHPUT + "\tdecoder\tsamples\tseconds\tsamples_per_second");
+
+        for(Map.Entry<RegressionDecoder,DecodeStatistics> entry: totals.entrySet())
+        {
+            DecodeStatistics statistics = entry.getValue();
+            out.println(String.format("%s\t%s\t%d\t%.3f\t%.0f", THROUGHPUT, entry.getKey().name(),
+                statistics.getSampleCount(), statistics.getElapsedSeconds(), statistics.getSamplesPerSecond()));
+        }
+    }
+
+    private static String getCountHeader()
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append("messages\tvalid\tcorrected\tfailed\tcorrected_bits");
+
+        for(CRC crc: CRC.values())
+        {
+            sb.append("\tcrc_").append(crc.name());
+        }
+
+        return sb.toString();
+    }
+
+    private static String getCounts(DecodeStatistics statistics)
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append(statistics.getMessageCount()).append("\t");
+        sb.append(statistics.getValidCount()).append("\t");
+        sb.append(statistics.getCorrectedCount()).append("\t");
+        sb.append(statistics.getFailedCount()).append("\t");
+        sb.append(statistics.getCorrectedBitCount());
+
+        for(CRC crc: CRC.values())
+        {
+            sb.append("\t").append(statistics.getCRCCount(crc));
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Compares the decode yield (valid plus corrected messages) of this report against a baseline report that was
+     * previously written by this class, and writes the differences.  A recording that failed to process, or a baseline
+     * recording that is missing from this report, counts as a regression.
+     * @param baseline report file
+     * @param out to write the comparison
+     * @return true if the decode yield decreased for any decoder, or a recording failed or is missing
+     * @throws IOException if the baseline can't be read
+     */
+    public boolean compare(Path baseline, PrintStream out) throws IOException
+    {
+        Map<String,Long> baselineResults = new LinkedHashMap<>();
+        Map<String,Long> baselineTotals = new HashMap<>();
+
+        for(String line: Files.readAllLines(baseline))
+        {
+            String[] fields = line.split("\t");
+
+            if(fields.length > 5 && fields[0].equals(RESULT))
+            {
+                baselineResults.put(fields[1] + "\t" + fields[2], getYield(fields));
+            }
+            else if(fields.length > 5 && fields[0].equals(TOTAL))
+            {
+                baselineTotals.put(fields[1], getYield(fields));
+            }
+        }
+
+        out.println("# Comparison with baseline [" + baseline + "] - decode yield (valid + corrected messages)");
+
+        boolean decreased = false;
+        Set<String> processed = new HashSet<>();
+
+        for(Result result: mResults)
+        {
+            String key = result.decoder().name() + "\t" + result.recording();
+            processed.add(key);
+
+            if(result.error() != null)
+            {
+                out.println(ERROR + "\t" + key + "\t" + result.error());
+                decreased = true;
+                continue;
+            }
+
+            Long previous = baselineResults.get(key);
+            long current = getYield(result.statistics());
+
+            if(previous == null)
+            {
+                out.println("NEW\t" + key + "\t" + current);
+            }
+            else if(previous != current)
+            {
+                out.println("CHANGED\t" + key + "\t" + previous + " -> " + current + "\t" +
+                    String.format("%+d", current - previous));
+            }
+        }
+
+        for(String key: baselineResults.keySet())
+        {
+            if(!processed.contains(key))
+            {
+                out.println("MISSING\t" + key);
+                decreased = true;
+            }
+        }
+
+        for(Map.Entry<RegressionDecoder,DecodeStatistics> entry: getTotals().entrySet())
+        {
+            Long previous = baselineTotals.get(entry.getKey().name());
+            long current = getYield(entry.getValue());
+
+            if(previous == null)
+            {
+                out.println(TOTAL + "\t" + entry.getKey().name() + "\tno baseline");
+            }
+            else
+            {
+                out.println(TOTAL + "\t" + entry.getKey().name() + "\t" + previous + " -> " + current + "\t" +
+                    String.format("%+d", current - previous));
+                decreased |= current < previous;
+            }
+        }
+
+        return decreased;
+    }
+
+    /**
+     * Decode yield from the valid and corrected message count fields of a baseline RESULT or TOTAL line
+     */
+    private static long getYield(String[] fields)
+    {
+        return Long.parseLong(fields[4]) + Long.parseLong(fields[5]);
+    }
+
+    private static long getYield(DecodeStatistics statistics)
+    {
+        return statistics.getValidCount() + statistics.getCorrectedCount();
+    }
+
+    /**
+     * Regression result for a decoder and recording
+     * @param decoder used
+     * @param recording path relative to the recordings directory
+     * @param statistics for the decode
+     * @param error description when the recording couldn't be processed, otherwise null
+     */
+    public record Result(RegressionDecoder decoder, String recording, DecodeStatistics statistics, String error)
+    {
+    }
+}
@@ -23,6 +23,7 @@ import io.github.dsheirer.bits.IBinarySymbolProcessor;
 import io.github.dsheirer.bits.MessageFramer;
 import io.github.dsheirer.bits.SyncPattern;
 import io.github.dsheirer.dsp.afsk.AFSK1200Decoder;
+import io.github.dsheirer.dsp.afsk.AFSK1200FrontEnd;
 import io.github.dsheirer.module.decode.DecoderType;
 import io.github.dsheirer.module.decode.afsk.AbstractAFSKDecoder;
 
@@ -44,6 +45,17 @@ public class Tait1200Decoder extends AbstractAFSKDecoder implements IBinarySymbo
         init();
     }
 
+    /**
+     * Constructs a Tait 1200 decoder that subscribes to a shared AFSK 1200 front end
+     *
+     * @param frontEnd shared with other AFSK decoders on the channel
+     */
+    public Tait1200Decoder(AFSK1200FrontEnd frontEnd)
+    {
+        super(frontEnd, AFSK1200Decoder.Output.NORMAL);
+        init();
+    }
+
     public Tait1200Decoder()
     {
         super(AFSK1200Decoder.Output.NORMAL);
@@ -52,7 +64,7 @@ public class Tait1200Decoder extends AbstractAFSKDecoder implements IBinarySymbo
 
     private void init()
     {
-        getDecoder().setSymbolProcessor(this);
+        setSymbolProcessor(this);
 
         mMessageFramerGPS = new MessageFramer(SyncPattern.TAIT_CCDI_GPS_MESSAGE.getPattern(), MESSAGE_LENGTH);
         mMessageFramerANI = new MessageFramer(SyncPattern.TAIT_SELCAL_MESSAGE.getPattern(), MESSAGE_LENGTH);
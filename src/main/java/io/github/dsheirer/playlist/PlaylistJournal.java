@@ -0,0 +1,562 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.playlist;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.dsheirer.alias.Alias;
+import io.github.dsheirer.audio.broadcast.BroadcastConfiguration;
+import io.github.dsheirer.controller.channel.Channel;
+import io.github.dsheirer.controller.channel.map.ChannelMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Incremental playlist change journal.
+ *
+ * Instead of rewriting the entire playlist for each change, changed playlist elements (aliases, channels, channel maps
+ * and broadcast configurations) are appended to a journal file alongside the playlist.  Each element is identified by
+ * a journal key that is the element's position in the playlist file when the journal was started, or a newly
+ * assigned key for elements added after that.  The journal is replayed over the playlist file at load and is
+ * compacted (ie the full playlist is rewritten and the journal emptied) once it grows large or old.
+ *
+ * The journal header records the size and CRC-32 checksum of the playlist file that it applies to so that a journal
+ * is never replayed over a playlist file that was changed or replaced outside of the application.  Records are
+ * length-prefixed so that a record truncated by a crash is detected and ignored.
+ *
+ * Journal file format: header [int magic][long playlist size][long playlist crc] followed by records
+ * [byte operation][byte category][int key][int length][length bytes of XML element].
+ */
+public class PlaylistJournal
+{
+    private final static Logger mLog = LoggerFactory.getLogger(PlaylistJournal.class);
+    private static final int MAGIC = 0x53544A31;
+    private static final byte OPERATION_PUT = 1;
+    private static final byte OPERATION_REMOVE = 2;
+    private static final Object REMOVED = new Object();
+
+    /**
+     * Journal is compacted once it contains this many change records
+     */
+    public static final int COMPACTION_RECORD_THRESHOLD = 10_000;
+
+    /**
+     * Journal is compacted once it contains changes that are older than this interval
+     */
+    public static final long COMPACTION_INTERVAL_MS = 60 * 60 * 1000;
+
+    /**
+     * Playlist element categories
+     */
+    public enum Category
+    {
+        ALIAS(Alias.class),
+        BROADCAST_CONFIGURATION(BroadcastConfiguration.class),
+        CHANNEL(Channel.class),
+        CHANNEL_MAP(ChannelMap.class);
+
+        private Class<?> mElementClass;
+
+        Category(Class<?> elementClass)
+        {
+            mElementClass = elementClass;
+        }
+
+        public Class<?> getElementClass()
+        {
+            return mElementClass;
+        }
+    }
+
+    private final Path mJournalPath;
+    private final ObjectMapper mObjectMapper = PlaylistReader.createObjectMapper();
+    private final Map<Category,IdentityHashMap<Object,Integer>> mKeys = new EnumMap<>(Category.class);
+    private final Map<Category,Integer> mNextKeys = new EnumMap<>(Category.class);
+    private final Map<Category,LinkedHashMap<Integer,Object>> mPendingChanges = new EnumMap<>(Category.class);
+    private int mRecordCount;
+    private long mFirstRecordTimestamp;
+    private boolean mJournalValid = false;
+    private boolean mCompactionRequired = false;
+
+    /**
+     * Constructs an instance
+     * @param journalPath for the journal file
+     */
+    public PlaylistJournal(Path journalPath)
+    {
+        mJournalPath = journalPath;
+
+        for(Category category: Category.values())
+        {
+            mKeys.put(category, new IdentityHashMap<>());
+            mNextKeys.put(category, 0);
+            mPendingChanges.put(category, new LinkedHashMap<>());
+        }
+    }
+
+    /**
+     * Replays the journal (when it applies to the playlist file) over the playlist that was read from the playlist
+     * file and binds journal keys to each of the playlist elements.
+     *
+     * @param playlist that was read from the playlist file
+     * @param playlistPath for the playlist file, or null if the playlist was not read from the current playlist file
+     * @return playlist with the journaled changes applied
+     */
+    public synchronized PlaylistV2 replay(PlaylistV2 playlist, Path playlistPath)
+    {
+        Map<Category,LinkedHashMap<Integer,Object>> elements = new EnumMap<>(Category.class);
+
+        for(Category category: Category.values())
+        {
+            LinkedHashMap<Integer,Object> map = new LinkedHashMap<>();
+            List<?> list = getList(playlist, category);
+
+            for(int x = 0; x < list.size(); x++)
+            {
+                map.put(x, list.get(x));
+            }
+
+            elements.put(category, map);
+        }
+
+        mRecordCount = 0;
+        mJournalValid = false;
+        mCompactionRequired = false;
+
+        if(playlistPath != null && Files.exists(mJournalPath))
+        {
+            try
+            {
+                mJournalValid = replay(elements, playlistPath);
+            }
+            catch(IOException | RuntimeException e)
+            {
+                mLog.error("Error reading playlist journal [" + mJournalPath + "]", e);
+            }
+
+            if(!mJournalValid)
+            {
+                discardJournal();
+            }
+        }
+
+        for(Category category: Category.values())
+        {
+            setList(playlist, category, new ArrayList<>(elements.get(category).values()));
+            bind(category, elements.get(category));
+        }
+
+        //A missing or unusable journal requires a compaction to establish a new journal for the current playlist
+        mCompactionRequired |= !mJournalValid;
+
+        if(mRecordCount > 0)
+        {
+            mFirstRecordTimestamp = System.currentTimeMillis();
+            mLog.info("Replayed [" + mRecordCount + "] playlist journal changes");
+        }
+
+        return playlist;
+    }
+
+    /**
+     * Applies the journal records to the elements map.
+     * @return true if the journal applies to the playlist file and was read without error
+     */
+    private boolean replay(Map<Category,LinkedHashMap<Integer,Object>> elements, Path playlistPath) throws IOException
+    {
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(mJournalPath))))
+        {
+            if(in.readInt() != MAGIC)
+            {
+                mLog.warn("Playlist journal [" + mJournalPath + "] has an unrecognized format");
+                return false;
+            }
+
+            long size = in.readLong();
+            long checksum = in.readLong();
+
+            if(size != Files.size(playlistPath) || checksum != checksum(playlistPath))
+            {
+                mLog.warn("Playlist journal [" + mJournalPath + "] does not match the current playlist file");
+                return false;
+            }
+
+            while(true)
+            {
+                int operation;
+
+                try
+                {
+                    operation = in.readByte();
+                }
+                catch(EOFException eofe)
+                {
+                    return true;
+                }
+
+                try
+                {
+                    Category category = Category.values()[in.readByte()];
+                    int key = in.readInt();
+                    byte[] bytes = new byte[in.readInt()];
+                    in.readFully(bytes);
+
+                    if(operation == OPERATION_PUT)
+                    {
+                        Object element = mObjectMapper.readerFor(category.getElementClass()).readValue(bytes);
+                        elements.get(category).put(key, element);
+                    }
+                    else
+                    {
+                        elements.get(category).remove(key);
+                    }
+
+                    mRecordCount++;
+                }
+                catch(EOFException eofe)
+                {
+                    //Record truncated by a crash or power loss - changes up to the prior record are intact.  Compact
+                    //so that further changes are not appended after the truncated record.
+                    mLog.warn("Playlist journal [" + mJournalPath + "] ends with an incomplete change record - ignored");
+                    mCompactionRequired = true;
+                    return true;
+                }
+                catch(IOException | RuntimeException e)
+                {
+                    //Keep the changes up to the unreadable record and preserve a copy of the journal for inspection
+                    //since the compaction will replace it.
+                    mLog.error("Playlist journal [" + mJournalPath + "] contains an unreadable change record - " +
+                        "remaining changes ignored", e);
+                    Files.copy(mJournalPath, mJournalPath.resolveSibling(mJournalPath.getFileName() + ".discarded"),
+                        StandardCopyOption.REPLACE_EXISTING);
+                    mCompactionRequired = true;
+                    return true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves an unusable journal aside so that it can be inspected, rather than deleting it.
+     */
+    private void discardJournal()
+    {
+        try
+        {
+            Path discarded = mJournalPath.resolveSibling(mJournalPath.getFileName() + ".discarded");
+            Files.move(mJournalPath, discarded, StandardCopyOption.REPLACE_EXISTING);
+            mLog.warn("Playlist journal was not applied and has been moved to [" + discarded + "]");
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Unable to move aside the unused playlist journal [" + mJournalPath + "]", ioe);
+        }
+    }
+
+    /**
+     * Binds journal keys to the elements
+     */
+    private void bind(Category category, LinkedHashMap<Integer,Object> elements)
+    {
+        IdentityHashMap<Object,Integer> keys = mKeys.get(category);
+        keys.clear();
+        int nextKey = 0;
+
+        for(Map.Entry<Integer,Object> entry: elements.entrySet())
+        {
+            keys.put(entry.getValue(), entry.getKey());
+            nextKey = Math.max(nextKey, entry.getKey() + 1);
+        }
+
+        mNextKeys.put(category, nextKey);
+    }
+
+    /**
+     * Records an added or changed playlist element.
+     */
+    public synchronized void put(Category category, Object element)
+    {
+        Integer key = mKeys.get(category).get(element);
+
+        if(key == null)
+        {
+            key = mNextKeys.get(category);
+            mNextKeys.put(category, key + 1);
+            mKeys.get(category).put(element, key);
+        }
+
+        mPendingChanges.get(category).put(key, element);
+    }
+
+    /**
+     * Records a removed playlist element.
+     */
+    public synchronized void remove(Category category, Object element)
+    {
+        Integer key = mKeys.get(category).remove(element);
+
+        if(key != null)
+        {
+            mPendingChanges.get(category).put(key, REMOVED);
+        }
+    }
+
+    /**
+     * Number of changes that have not yet been written to the journal.
+     */
+    public synchronized int getPendingChangeCount()
+    {
+        int count = 0;
+
+        for(LinkedHashMap<Integer,Object> changes: mPendingChanges.values())
+        {
+            count += changes.size();
+        }
+
+        return count;
+    }
+
+    /**
+     * Indicates if the journal should be compacted (ie the full playlist rewritten) instead of appending the pending
+     * changes to the journal.
+     */
+    public synchronized boolean isCompactionRequired()
+    {
+        return mCompactionRequired || !mJournalValid ||
+            (mRecordCount + getPendingChangeCount()) > COMPACTION_RECORD_THRESHOLD ||
+            (mRecordCount > 0 && (System.currentTimeMillis() - mFirstRecordTimestamp) > COMPACTION_INTERVAL_MS);
+    }
+
+    /**
+     * Appends the pending changes to the journal file.
+     * @throws IOException if there is an error writing to the journal.  Changes that can't be written are retained
+     * and the journal is flagged for compaction.
+     */
+    public void flush() throws IOException
+    {
+        Map<Category,LinkedHashMap<Integer,Object>> changes = new EnumMap<>(Category.class);
+
+        synchronized(this)
+        {
+            if(!mJournalValid)
+            {
+                throw new IOException("Playlist journal requires compaction before changes can be appended");
+            }
+
+            for(Category category: Category.values())
+            {
+                changes.put(category, new LinkedHashMap<>(mPendingChanges.get(category)));
+                mPendingChanges.get(category).clear();
+            }
+        }
+
+        int count = 0;
+
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(mJournalPath,
+            StandardOpenOption.WRITE, StandardOpenOption.APPEND))))
+        {
+            for(Map.Entry<Category,LinkedHashMap<Integer,Object>> entry: changes.entrySet())
+            {
+                Category category = entry.getKey();
+
+                for(Map.Entry<Integer,Object> change: entry.getValue().entrySet())
+                {
+                    if(change.getValue() == REMOVED)
+                    {
+                        out.writeByte(OPERATION_REMOVE);
+                        out.writeByte(category.ordinal());
+                        out.writeInt(change.getKey());
+                        out.writeInt(0);
+                    }
+                    else
+                    {
+                        byte[] bytes = mObjectMapper.writerFor(category.getElementClass())
+                            .writeValueAsBytes(change.getValue());
+                        out.writeByte(OPERATION_PUT);
+                        out.writeByte(category.ordinal());
+                        out.writeInt(change.getKey());
+                        out.writeInt(bytes.length);
+                        out.write(bytes);
+                    }
+
+                    count++;
+                }
+            }
+        }
+        catch(IOException ioe)
+        {
+            synchronized(this)
+            {
+                //Restore the unwritten changes, without overwriting newer changes, and force a compaction
+                for(Category category: Category.values())
+                {
+                    LinkedHashMap<Integer,Object> restored = changes.get(category);
+                    restored.putAll(mPendingChanges.get(category));
+                    mPendingChanges.get(category).clear();
+                    mPendingChanges.get(category).putAll(restored);
+                }
+
+                mCompactionRequired = true;
+            }
+
+            throw ioe;
+        }
+
+        synchronized(this)
+        {
+            if(mRecordCount == 0)
+            {
+                mFirstRecordTimestamp = System.currentTimeMillis();
+            }
+
+            mRecordCount += count;
+        }
+    }
+
+    /**
+     * Starts a compaction.  Binds journal keys to the element positions in the playlist snapshot that is about to be
+     * written and clears the pending changes, since the snapshot contains them.  Changes recorded after this call
+     * are journaled against the new playlist file once the compaction completes.
+     * @param snapshot of the playlist that will be written to the playlist file
+     */
+    public synchronized void startCompaction(PlaylistV2 snapshot)
+    {
+        for(Category category: Category.values())
+        {
+            LinkedHashMap<Integer,Object> elements = new LinkedHashMap<>();
+            List<?> list = getList(snapshot, category);
+
+            for(int x = 0; x < list.size(); x++)
+            {
+                elements.put(x, list.get(x));
+            }
+
+            bind(category, elements);
+            mPendingChanges.get(category).clear();
+        }
+
+        //Until the new playlist file and journal are written, only another compaction can persist changes
+        mJournalValid = false;
+    }
+
+    /**
+     * Completes a compaction after the playlist file was successfully written by starting a new, empty journal for
+     * the playlist file.
+     * @param playlistPath of the playlist file that was written
+     * @throws IOException if the journal can't be created
+     */
+    public void completeCompaction(Path playlistPath) throws IOException
+    {
+        long size = Files.size(playlistPath);
+        long checksum = checksum(playlistPath);
+        Path temp = mJournalPath.resolveSibling(mJournalPath.getFileName() + ".tmp");
+
+        try(DataOutputStream out = new DataOutputStream(Files.newOutputStream(temp)))
+        {
+            out.writeInt(MAGIC);
+            out.writeLong(size);
+            out.writeLong(checksum);
+        }
+
+        Files.move(temp, mJournalPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        synchronized(this)
+        {
+            mRecordCount = 0;
+            mJournalValid = true;
+            mCompactionRequired = false;
+        }
+    }
+
+    /**
+     * Flags that the compaction failed so that the next save is also a compaction.
+     */
+    public synchronized void failCompaction()
+    {
+        mCompactionRequired = true;
+    }
+
+    /**
+     * Calculates the CRC-32 checksum of the file contents
+     */
+    private static long checksum(Path path) throws IOException
+    {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[65536];
+
+        try(InputStream in = Files.newInputStream(path))
+        {
+            int read;
+
+            while((read = in.read(buffer)) > 0)
+            {
+                crc.update(buffer, 0, read);
+            }
+        }
+
+        return crc.getValue();
+    }
+
+    private static List<?> getList(PlaylistV2 playlist, Category category)
+    {
+        switch(category)
+        {
+            case ALIAS:
+                return playlist.getAliases();
+            case BROADCAST_CONFIGURATION:
+                return playlist.getBroadcastConfigurations();
+            case CHANNEL:
+                return playlist.getChannels();
+            case CHANNEL_MAP:
+                return playlist.getChannelMaps();
+            default:
+                throw new IllegalArgumentException("Unrecognized category: " + category);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void setList(PlaylistV2 playlist, Category category, List<Object> elements)
+    {
+        switch(category)
+        {
+            case ALIAS -> playlist.setAliases((List<Alias>)(List<?>)elements);
+            case BROADCAST_CONFIGURATION -> playlist.setBroadcastConfigurations((List<BroadcastConfiguration>)(List<?>)elements);
+            case CHANNEL -> playlist.setChannels((List<Channel>)(List<?>)elements);
+            case CHANNEL_MAP -> playlist.setChannelMaps((List<ChannelMap>)(List<?>)elements);
+        }
+    }
+}
@@ -48,6 +48,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -77,6 +79,11 @@ public class PlaylistManager implements Listener<ChannelEvent>
     private AtomicBoolean mPlaylistSavePending = new AtomicBoolean();
     private ScheduledFuture<?> mPlaylistSaveFuture;
     private boolean mPlaylistLoading = false;
+    private Future<PlaylistV2> mPreloadedPlaylist;
+    private volatile boolean mPreloading = false;
+    private volatile boolean mSaveRequestedWhilePreloading = false;
+    private volatile PlaylistJournal mPlaylistJournal;
+    private AtomicBoolean mFullSaveRequested = new AtomicBoolean();
 
     /**
      * Playlist manager - manages all channel configurations, channel maps, and alias lists and handles loading or
@@ -116,17 +123,20 @@ public class PlaylistManager implements Listener<ChannelEvent>
         //save the playlist when there are any changes
         mChannelModel.addListener(this);
 
-        mAliasModel.aliasList().addListener((ListChangeListener<Alias>)c -> schedulePlaylistSave());
+        mAliasModel.aliasList().addListener((ListChangeListener<Alias>)c -> journal(PlaylistJournal.Category.ALIAS, c));
 
-        mChannelMapModel.getChannelMaps().addListener((ListChangeListener<ChannelMap>)c -> schedulePlaylistSave());
+        mChannelMapModel.getChannelMaps().addListener((ListChangeListener<ChannelMap>)c ->
+            journal(PlaylistJournal.Category.CHANNEL_MAP, c));
 
         mBroadcastModel.addListener(broadcastEvent -> {
             switch(broadcastEvent.getEvent())
             {
                 case CONFIGURATION_ADD:
                 case CONFIGURATION_CHANGE:
+                    journalPut(PlaylistJournal.Category.BROADCAST_CONFIGURATION, broadcastEvent.getBroadcastConfiguration());
+                    break;
                 case CONFIGURATION_DELETE:
-                    schedulePlaylistSave();
+                    journalRemove(PlaylistJournal.Category.BROADCAST_CONFIGURATION, broadcastEvent.getBroadcastConfiguration());
                     break;
                 default:
                     //Do nothing
@@ -197,8 +207,61 @@ public class PlaylistManager implements Listener<ChannelEvent>
      */
     public void init()
     {
-        PlaylistV2 playlist = load();
+        PlaylistV2 playlist = null;
+
+        if(mPreloadedPlaylist != null)
+        {
+            try
+            {
+                playlist = mPreloadedPlaylist.get();
+            }
+            catch(InterruptedException ie)
+            {
+                Thread.currentThread().interrupt();
+            }
+            catch(ExecutionException ee)
+            {
+                mLog.error("Error while preloading playlist", ee);
+            }
+
+            mPreloadedPlaylist = null;
+        }
+
+        if(playlist == null)
+        {
+            playlist = load();
+        }
+
+        boolean saveRequested = mSaveRequestedWhilePreloading;
+        mSaveRequestedWhilePreloading = false;
+        mPreloading = false;
+
+        long start = System.currentTimeMillis();
         transferPlaylistToModels(playlist);
+        mLog.info("Playlist models loaded in " + (System.currentTimeMillis() - start) + " ms");
+
+        if(saveRequested)
+        {
+            schedulePlaylistSave();
+        }
+    }
+
+    /**
+     * Starts reading and parsing the playlist file on a background thread so that it can proceed concurrently with
+     * other startup activities, such as tuner discovery.  A subsequent call to init() uses the preloaded playlist.
+     *
+     * Playlist saves requested while preloading (e.g. playlist version updates) are deferred until init() has
+     * transferred the playlist into the models so that a save can't overwrite the playlist with empty models.
+     */
+    public void preload()
+    {
+        mPreloading = true;
+        mPreloadedPlaylist = ThreadPool.CACHED.submit(() -> {
+            long start = System.currentTimeMillis();
+            PlaylistV2 playlist = load();
+            mLog.info("Playlist preloaded in " + (System.currentTimeMillis() - start) + " ms");
+            return playlist;
+        });
     }
 
     /**
@@ -319,9 +382,106 @@ public class PlaylistManager implements Listener<ChannelEvent>
         }
 
         if(mPlaylistSavePending.getAndSet(false))
+        {
+            persist();
+        }
+    }
+
+    /**
+     * Records changes to the elements of an observable model list in the playlist journal and schedules a save.
+     * @param category of the list elements
+     * @param change to the list
+     */
+    private void journal(PlaylistJournal.Category category, ListChangeListener.Change<?> change)
+    {
+        PlaylistJournal journal = mPlaylistJournal;
+
+        if(journal != null && !mPlaylistLoading)
+        {
+            while(change.next())
+            {
+                if(change.wasUpdated())
+                {
+                    for(int x = change.getFrom(); x < change.getTo(); x++)
+                    {
+                        journal.put(category, change.getList().get(x));
+                    }
+                }
+                else if(!change.wasPermutated())
+                {
+                    for(Object removed: change.getRemoved())
+                    {
+                        journal.remove(category, removed);
+                    }
+
+                    for(Object added: change.getAddedSubList())
+                    {
+                        journal.put(category, added);
+                    }
+                }
+            }
+        }
+
+        schedulePlaylistJournalSave();
+    }
+
+    /**
+     * Records an added or changed playlist element in the journal and schedules a save.
+     */
+    private void journalPut(PlaylistJournal.Category category, Object element)
+    {
+        PlaylistJournal journal = mPlaylistJournal;
+
+        if(journal != null && element != null && !mPlaylistLoading)
+        {
+            journal.put(category, element);
+        }
+
+        schedulePlaylistJournalSave();
+    }
+
+    /**
+     * Records a removed playlist element in the journal and schedules a save.
+     */
+    private void journalRemove(PlaylistJournal.Category category, Object element)
+    {
+        PlaylistJournal journal = mPlaylistJournal;
+
+        if(journal != null && element != null && !mPlaylistLoading)
+        {
+            journal.remove(category, element);
+        }
+
+        schedulePlaylistJournalSave();
+    }
+
+    /**
+     * Persists the playlist changes, either by appending the pending changes to the playlist journal or, when a full
+     * save was requested or the journal requires compaction, by rewriting the full playlist.
+     */
+    private void persist()
+    {
+        PlaylistJournal journal = mPlaylistJournal;
+
+        if(mFullSaveRequested.getAndSet(false) || journal == null || journal.isCompactionRequired())
         {
             save();
         }
+        else if(journal.getPendingChangeCount() > 0)
+        {
+            try
+            {
+                long start = System.currentTimeMillis();
+                int count = journal.getPendingChangeCount();
+                journal.flush();
+                mLog.debug("Journaled [" + count + "] playlist changes in " + (System.currentTimeMillis() - start) + " ms");
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Error writing playlist journal - saving full playlist", ioe);
+                save();
+            }
+        }
     }
 
     /**
@@ -363,8 +523,10 @@ public class PlaylistManager implements Listener<ChannelEvent>
             {
                 case NOTIFICATION_ADD:
                 case NOTIFICATION_CONFIGURATION_CHANGE:
+                    journalPut(PlaylistJournal.Category.CHANNEL, event.getChannel());
+                    break;
                 case NOTIFICATION_DELETE:
-                    schedulePlaylistSave();
+                    journalRemove(PlaylistJournal.Category.CHANNEL, event.getChannel());
                     break;
             }
         }
@@ -385,6 +547,17 @@ public class PlaylistManager implements Listener<ChannelEvent>
         playlist.setChannelMaps(new ArrayList(mChannelMapModel.getChannelMaps()));
         playlist.setVersion(PLAYLIST_CURRENT_VERSION);
 
+        //Compaction - the full playlist contains all journaled changes
+        PlaylistJournal journal = mPlaylistJournal;
+
+        if(journal != null)
+        {
+            journal.startCompaction(playlist);
+        }
+
+        long start = System.currentTimeMillis();
+        boolean saved = false;
+
         //Create a backup copy of the current playlist
         if(Files.exists(playlistPreference.getPlaylist()))
         {
@@ -428,6 +601,8 @@ public class PlaylistManager implements Listener<ChannelEvent>
             {
                 Files.delete(playlistPreference.getPlaylistLock());
             }
+
+            saved = true;
         }
         catch(IOException ioe)
         {
@@ -437,6 +612,28 @@ public class PlaylistManager implements Listener<ChannelEvent>
         {
             mLog.error("Error while saving playlist [" + playlistPreference.getPlaylist().toString() + "]", e);
         }
+
+        if(journal != null)
+        {
+            if(saved)
+            {
+                try
+                {
+                    journal.completeCompaction(playlistPreference.getPlaylist());
+                }
+                catch(IOException ioe)
+                {
+                    mLog.error("Error creating playlist journal [" + playlistPreference.getPlaylistJournal() + "]", ioe);
+                    journal.failCompaction();
+                }
+            }
+            else
+            {
+                journal.failCompaction();
+            }
+        }
+
+        mLog.info("Playlist saved in " + (System.currentTimeMillis() - start) + " ms");
     }
 
     /**
@@ -447,6 +644,7 @@ public class PlaylistManager implements Listener<ChannelEvent>
         PlaylistPreference files = mUserPreferences.getPlaylistPreference();
 
         PlaylistV2 playlist = null;
+        PlaylistJournal journal = new PlaylistJournal(files.getPlaylistJournal());
 
         //Check for a lock file that indicates the previous save attempt was incomplete or had an error
         if(Files.exists(files.getPlaylistLock()))
@@ -478,14 +676,12 @@ public class PlaylistManager implements Listener<ChannelEvent>
         {
             mLog.info("Loading playlist [" + files.getPlaylist().toString() + "]");
 
-            JacksonXmlModule xmlModule = new JacksonXmlModule();
-            xmlModule.setDefaultUseWrapper(false);
-            ObjectMapper objectMapper = new XmlMapper(xmlModule)
-                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-
-            try(InputStream in = Files.newInputStream(files.getPlaylist()))
+            try
             {
-                playlist = objectMapper.readValue(in, PlaylistV2.class);
+                playlist = PlaylistReader.read(files.getPlaylist());
+
+                //Apply any changes that were journaled since the playlist file was last written
+                playlist = journal.replay(playlist, files.getPlaylist());
 
                 if(PlaylistUpdater.update(playlist))
                 {
@@ -501,14 +697,9 @@ public class PlaylistManager implements Listener<ChannelEvent>
         {
             mLog.info("Loading legacy playlist [" + files.getLegacyPlaylist().toString() + "]");
 
-            JacksonXmlModule xmlModule = new JacksonXmlModule();
-            xmlModule.setDefaultUseWrapper(false);
-            ObjectMapper objectMapper = new XmlMapper(xmlModule)
-                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-
-            try(InputStream in = Files.newInputStream(files.getLegacyPlaylist()))
+            try
             {
-                playlist = objectMapper.readValue(in, PlaylistV2.class);
+                playlist = journal.replay(PlaylistReader.read(files.getLegacyPlaylist()), null);
 
                 //Perform any updates that may be needed for the playist.
                 if(PlaylistUpdater.update(playlist))
@@ -529,10 +720,11 @@ public class PlaylistManager implements Listener<ChannelEvent>
 
         if(playlist == null)
         {
-            playlist = new PlaylistV2();
+            playlist = journal.replay(new PlaylistV2(), null);
             schedulePlaylistSave();
         }
 
+        mPlaylistJournal = journal;
         return playlist;
     }
 
@@ -542,12 +734,41 @@ public class PlaylistManager implements Listener<ChannelEvent>
      */
     public void schedulePlaylistSave()
     {
-        if(!mPlaylistLoading)
+        if(mPreloading)
+        {
+            mSaveRequestedWhilePreloading = true;
+        }
+        else if(!mPlaylistLoading)
+        {
+            mFullSaveRequested.set(true);
+            scheduleSaveTask();
+        }
+    }
+
+    /**
+     * Schedules a playlist save task to append journaled changes to the playlist journal.
+     */
+    private void schedulePlaylistJournalSave()
+    {
+        if(!mPreloading && !mPlaylistLoading)
         {
-            if(mPlaylistSavePending.compareAndSet(false, true))
+            if(mPlaylistJournal == null)
             {
-                mPlaylistSaveFuture = ThreadPool.SCHEDULED.schedule(new PlaylistSaveTask(), 2, TimeUnit.SECONDS);
+                mFullSaveRequested.set(true);
             }
+
+            scheduleSaveTask();
+        }
+    }
+
+    /**
+     * Schedules the playlist save task, unless a save task is already pending.
+     */
+    private void scheduleSaveTask()
+    {
+        if(mPlaylistSavePending.compareAndSet(false, true))
+        {
+            mPlaylistSaveFuture = ThreadPool.SCHEDULED.schedule(new PlaylistSaveTask(), 2, TimeUnit.SECONDS);
         }
     }
 
@@ -559,10 +780,18 @@ public class PlaylistManager implements Listener<ChannelEvent>
         @Override
         public void run()
         {
-            save();
+            persist();
 
             mPlaylistSaveFuture = null;
             mPlaylistSavePending.set(false);
+
+            //Reschedule for any changes that were recorded while this save was in progress
+            PlaylistJournal journal = mPlaylistJournal;
+
+            if(journal != null && journal.getPendingChangeCount() > 0)
+            {
+                scheduleSaveTask();
+            }
         }
     }
 }
@@ -0,0 +1,146 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.playlist;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.xml.JacksonXmlModule;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import io.github.dsheirer.alias.Alias;
+import io.github.dsheirer.audio.broadcast.BroadcastConfiguration;
+import io.github.dsheirer.controller.channel.Channel;
+import io.github.dsheirer.controller.channel.map.ChannelMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Streaming playlist reader.  Reads the playlist one top-level element (alias, channel, channel map or stream) at a
+ * time from the XML token stream so that each element is deserialized directly into its model object instead of
+ * deserializing the whole document as a single object graph in one pass.
+ *
+ * Falls back to whole-document deserialization if the playlist can't be read element-by-element.
+ */
+public class PlaylistReader
+{
+    private final static Logger mLog = LoggerFactory.getLogger(PlaylistReader.class);
+
+    private PlaylistReader()
+    {
+    }
+
+    /**
+     * Creates an object mapper configured for reading and writing playlists and playlist elements.
+     */
+    public static ObjectMapper createObjectMapper()
+    {
+        JacksonXmlModule xmlModule = new JacksonXmlModule();
+        xmlModule.setDefaultUseWrapper(false);
+        return new XmlMapper(xmlModule).configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    /**
+     * Reads the playlist file.
+     * @param path to the playlist
+     * @return playlist
+     * @throws IOException if the file can't be read or parsed
+     */
+    public static PlaylistV2 read(Path path) throws IOException
+    {
+        ObjectMapper objectMapper = createObjectMapper();
+
+        try(InputStream in = new BufferedInputStream(Files.newInputStream(path));
+            JsonParser parser = objectMapper.getFactory().createParser(in))
+        {
+            return read(parser, objectMapper);
+        }
+        catch(IOException | RuntimeException e)
+        {
+            mLog.warn("Unable to stream-read playlist [" + path + "] - reading as a whole document - " +
+                e.getMessage());
+        }
+
+        try(InputStream in = new BufferedInputStream(Files.newInputStream(path)))
+        {
+            return objectMapper.readValue(in, PlaylistV2.class);
+        }
+    }
+
+    /**
+     * Reads the playlist from the parser, one top-level element at a time.
+     */
+    private static PlaylistV2 read(JsonParser parser, ObjectMapper objectMapper) throws IOException
+    {
+        if(parser.nextToken() != JsonToken.START_OBJECT)
+        {
+            throw new IOException("Playlist root element not found");
+        }
+
+        PlaylistV2 playlist = new PlaylistV2();
+
+        while(parser.nextToken() == JsonToken.FIELD_NAME)
+        {
+            String name = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+
+            switch(name)
+            {
+                case "version" -> playlist.setVersion(parser.getValueAsInt(PlaylistManager.PLAYLIST_CURRENT_VERSION));
+                case "alias" -> readElement(parser, token, objectMapper, Alias.class, playlist.getAliases());
+                case "channel" -> readElement(parser, token, objectMapper, Channel.class, playlist.getChannels());
+                case "channel_map" -> readElement(parser, token, objectMapper, ChannelMap.class,
+                    playlist.getChannelMaps());
+                case "stream" -> readElement(parser, token, objectMapper, BroadcastConfiguration.class,
+                    playlist.getBroadcastConfigurations());
+                default -> parser.skipChildren();
+            }
+        }
+
+        return playlist;
+    }
+
+    /**
+     * Deserializes the element at the current parser position and adds it to the list.  Empty elements are ignored.
+     */
+    private static <T> void readElement(JsonParser parser, JsonToken token, ObjectMapper objectMapper,
+                                        Class<T> elementClass, List<T> list) throws IOException
+    {
+        if(token == JsonToken.START_OBJECT)
+        {
+            T element = objectMapper.readValue(parser, elementClass);
+
+            if(element != null)
+            {
+                list.add(element);
+            }
+        }
+        else
+        {
+            parser.skipChildren();
+        }
+    }
+}
@@ -32,10 +32,19 @@ import org.slf4j.LoggerFactory;
 public class ApplicationPreference extends Preference
 {
     private static final String PREFERENCE_KEY_CHANNEL_AUTO_START_TIMEOUT = "channel.auto.start.timeout";
+    private static final String PREFERENCE_KEY_METRICS_ENABLED = "metrics.enabled";
+    private static final String PREFERENCE_KEY_METRICS_PORT = "metrics.port";
+    private static final String PREFERENCE_KEY_LOCKSTEP_DECODING_ENABLED = "lockstep.decoding.enabled";
+    private static final String PREFERENCE_KEY_MULTIPLEXED_STREAMING_ENABLED = "multiplexed.streaming.enabled";
+    public static final int DEFAULT_METRICS_PORT = 9464;
 
     private final static Logger mLog = LoggerFactory.getLogger(ApplicationPreference.class);
     private Preferences mPreferences = Preferences.userNodeForPackage(ApplicationPreference.class);
     private Integer mChannelAutoStartTimeout;
+    private Boolean mMetricsEnabled;
+    private Integer mMetricsPort;
+    private Boolean mLockstepDecodingEnabled;
+    private Boolean mMultiplexedStreamingEnabled;
 
     /**
      * Constructs an instance
@@ -77,4 +86,98 @@ public class ApplicationPreference extends Preference
         mPreferences.putInt(PREFERENCE_KEY_CHANNEL_AUTO_START_TIMEOUT, timeout);
         notifyPreferenceUpdated();
     }
+
+    /**
+     * Indicates if the runtime metrics HTTP endpoint is enabled.
+     */
+    public boolean isMetricsEnabled()
+    {
+        if(mMetricsEnabled == null)
+        {
+            mMetricsEnabled = mPreferences.getBoolean(PREFERENCE_KEY_METRICS_ENABLED, false);
+        }
+
+        return mMetricsEnabled;
+    }
+
+    /**
+     * Enables or disables the runtime metrics HTTP endpoint.
+     */
+    public void setMetricsEnabled(boolean enabled)
+    {
+        mMetricsEnabled = enabled;
+        mPreferences.putBoolean(PREFERENCE_KEY_METRICS_ENABLED, enabled);
+        notifyPreferenceUpdated();
+    }
+
+    /**
+     * Local (loopback) port for the runtime metrics HTTP endpoint.
+     */
+    public int getMetricsPort()
+    {
+        if(mMetricsPort == null)
+        {
+            mMetricsPort = mPreferences.getInt(PREFERENCE_KEY_METRICS_PORT, DEFAULT_METRICS_PORT);
+        }
+
+        return mMetricsPort;
+    }
+
+    /**
+     * Sets the local port for the runtime metrics HTTP endpoint.
+     */
+    public void setMetricsPort(int port)
+    {
+        mMetricsPort = port;
+        mPreferences.putInt(PREFERENCE_KEY_METRICS_PORT, port);
+        notifyPreferenceUpdated();
+    }
+
+    /**
+     * Indicates if lockstep (batched) baseband filtering is enabled for P25 Phase 1 channels that share a decoder
+     * type and sample rate.
+     */
+    public boolean isLockstepDecodingEnabled()
+    {
+        if(mLockstepDecodingEnabled == null)
+        {
+            mLockstepDecodingEnabled = mPreferences.getBoolean(PREFERENCE_KEY_LOCKSTEP_DECODING_ENABLED, false);
+        }
+
+        return mLockstepDecodingEnabled;
+    }
+
+    /**
+     * Enables or disables lockstep (batched) baseband filtering for newly started channels.
+     */
+    public void setLockstepDecodingEnabled(boolean enabled)
+    {
+        mLockstepDecodingEnabled = enabled;
+        mPreferences.putBoolean(PREFERENCE_KEY_LOCKSTEP_DECODING_ENABLED, enabled);
+        notifyPreferenceUpdated();
+    }
+
+    /**
+     * Indicates if Icecast and Shoutcast streams share a single selector thread for connection management, pacing
+     * and socket writes.
+     */
+    public boolean isMultiplexedStreamingEnabled()
+    {
+        if(mMultiplexedStreamingEnabled == null)
+        {
+            mMultiplexedStreamingEnabled = mPreferences.getBoolean(PREFERENCE_KEY_MULTIPLEXED_STREAMING_ENABLED, false);
+        }
+
+        return mMultiplexedStreamingEnabled;
+    }
+
+    /**
+     * Enables or disables multiplexed streaming for newly created streams.
+     */
+    public void setMultiplexedStreamingEnabled(boolean enabled)
+    {
+        mMultiplexedStreamingEnabled = enabled;
+        mPreferences.putBoolean(PREFERENCE_KEY_MULTIPLEXED_STREAMING_ENABLED, enabled);
+        notifyPreferenceUpdated();
+    }
 }
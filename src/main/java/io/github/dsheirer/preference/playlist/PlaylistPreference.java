@@ -109,6 +109,15 @@ public class PlaylistPreference extends Preference
         return Paths.get(playlist + ".backup");
     }
 
+    /**
+     * Incremental change journal for the playlist.
+     */
+    public Path getPlaylistJournal()
+    {
+        String playlist = getPlaylist().toString();
+        return Paths.get(playlist + ".journal");
+    }
+
     /**
      * Sets the path to the playlist
      */
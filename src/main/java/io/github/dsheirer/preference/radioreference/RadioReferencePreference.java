@@ -58,6 +58,8 @@ public class RadioReferencePreference extends Preference
     private static final String SHOW_CHANNEL_EDITOR_COUNTY = "create.and.show.editor.county";
     private static final String ENCRYPTED_TALKGROUP_DO_NOT_MONITOR = "encrypted.talkgroup.import.do.not.monitor";
     private static final String CREATE_AND_SHOW_CHANNEL_EDITOR = "create.and.show.channel.editor";
+    private static final String CACHE_TIME_TO_LIVE_DAYS = "cache.time.to.live.days";
+    public static final int DEFAULT_CACHE_TIME_TO_LIVE_DAYS = 7;
 
     private String mUserName;
     private String mPassword;
@@ -68,6 +70,7 @@ public class RadioReferencePreference extends Preference
     private Boolean mShowChannelEditorCounty;
     private Boolean mEncryptedTalkgroupImport;
     private Boolean mCreateAndShowChannelEditor;
+    private Integer mCacheTimeToLiveDays;
     private int mPreferredCountryId = INVALID_ID;
     private int mPreferredStateId = INVALID_ID;
     private int mPreferredCountyId = INVALID_ID;
@@ -513,4 +516,27 @@ public class RadioReferencePreference extends Preference
         mPreferences.putBoolean(CREATE_AND_SHOW_CHANNEL_EDITOR, show);
         notifyPreferenceUpdated();
     }
+
+    /**
+     * Number of days that cached radio reference query results are used before they are refreshed from the service
+     */
+    public int getCacheTimeToLiveDays()
+    {
+        if(mCacheTimeToLiveDays == null)
+        {
+            mCacheTimeToLiveDays = mPreferences.getInt(CACHE_TIME_TO_LIVE_DAYS, DEFAULT_CACHE_TIME_TO_LIVE_DAYS);
+        }
+
+        return mCacheTimeToLiveDays;
+    }
+
+    /**
+     * Sets the number of days that cached radio reference query results are used before they are refreshed
+     */
+    public void setCacheTimeToLiveDays(int days)
+    {
+        mCacheTimeToLiveDays = days;
+        mPreferences.putInt(CACHE_TIME_TO_LIVE_DAYS, days);
+        notifyPreferenceUpdated();
+    }
 }
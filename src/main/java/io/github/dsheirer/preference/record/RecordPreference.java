@@ -21,6 +21,7 @@ package io.github.dsheirer.preference.record;
 
 import io.github.dsheirer.preference.Preference;
 import io.github.dsheirer.preference.PreferenceType;
+import io.github.dsheirer.record.BasebandRecordFormat;
 import io.github.dsheirer.record.RecordFormat;
 import io.github.dsheirer.sample.Listener;
 import org.slf4j.Logger;
@@ -35,9 +36,16 @@ public class RecordPreference extends Preference
 {
     private static final String PREFERENCE_KEY_AUDIO_RECORD_FORMAT = "audio.record.format";
     private static final RecordFormat DEFAULT_RECORD_FORMAT = RecordFormat.MP3;
+    private static final String PREFERENCE_KEY_BASEBAND_RECORD_FORMAT = "baseband.record.format";
+    private static final BasebandRecordFormat DEFAULT_BASEBAND_RECORD_FORMAT = BasebandRecordFormat.WAVE;
+    private static final String PREFERENCE_KEY_AUDIO_RECORDING_THREAD_COUNT = "audio.recording.thread.count";
+    private static final int DEFAULT_AUDIO_RECORDING_THREAD_COUNT =
+            Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
     private final static Logger mLog = LoggerFactory.getLogger(RecordPreference.class);
     private Preferences mPreferences = Preferences.userNodeForPackage(RecordPreference.class);
     private RecordFormat mAudioRecordFormat;
+    private BasebandRecordFormat mBasebandRecordFormat;
+    private Integer mAudioRecordingThreadCount;
 
     /**
      * Constructs this preference with an update listener
@@ -90,4 +98,65 @@ public class RecordPreference extends Preference
         mPreferences.put(PREFERENCE_KEY_AUDIO_RECORD_FORMAT, audioRecordFormat.name());
         notifyPreferenceUpdated();
     }
+
+    /**
+     * Tuner baseband recording format
+     */
+    public BasebandRecordFormat getBasebandRecordFormat()
+    {
+        if(mBasebandRecordFormat == null)
+        {
+            try
+            {
+                String format = mPreferences.get(PREFERENCE_KEY_BASEBAND_RECORD_FORMAT,
+                        DEFAULT_BASEBAND_RECORD_FORMAT.name());
+                mBasebandRecordFormat = BasebandRecordFormat.valueOf(format);
+            }
+            catch(Exception e)
+            {
+                mLog.error("Error parsing baseband record format preference", e);
+            }
+
+            if(mBasebandRecordFormat == null)
+            {
+                mBasebandRecordFormat = DEFAULT_BASEBAND_RECORD_FORMAT;
+            }
+        }
+
+        return mBasebandRecordFormat;
+    }
+
+    /**
+     * Sets the tuner baseband recording format
+     */
+    public void setBasebandRecordFormat(BasebandRecordFormat basebandRecordFormat)
+    {
+        mBasebandRecordFormat = basebandRecordFormat;
+        mPreferences.put(PREFERENCE_KEY_BASEBAND_RECORD_FORMAT, basebandRecordFormat.name());
+        notifyPreferenceUpdated();
+    }
+
+    /**
+     * Number of worker threads used to encode and write audio recordings.
+     */
+    public int getAudioRecordingThreadCount()
+    {
+        if(mAudioRecordingThreadCount == null)
+        {
+            mAudioRecordingThreadCount = Math.max(1, mPreferences.getInt(PREFERENCE_KEY_AUDIO_RECORDING_THREAD_COUNT,
+                    DEFAULT_AUDIO_RECORDING_THREAD_COUNT));
+        }
+
+        return mAudioRecordingThreadCount;
+    }
+
+    /**
+     * Sets the number of audio recording worker threads.  Changes are applied the next time the application starts.
+     */
+    public void setAudioRecordingThreadCount(int threadCount)
+    {
+        mAudioRecordingThreadCount = Math.max(1, threadCount);
+        mPreferences.putInt(PREFERENCE_KEY_AUDIO_RECORDING_THREAD_COUNT, mAudioRecordingThreadCount);
+        notifyPreferenceUpdated();
+    }
 }
@@ -25,7 +25,9 @@ package io.github.dsheirer.preference.source;
 public enum ChannelizerType
 {
     POLYPHASE("Polyphase"),
-    HETERODYNE(" Heterodyne");
+    HETERODYNE(" Heterodyne"),
+    SUB_BAND("Sub-Band Heterodyne"),
+    FAST_CONVOLUTION("Fast Convolution");
 
     private String mLabel;
 
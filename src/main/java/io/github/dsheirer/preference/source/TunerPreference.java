@@ -76,6 +76,14 @@ public class TunerPreference extends Preference
                 {
                     mChannelizerType = ChannelizerType.HETERODYNE;
                 }
+                else if(type.equalsIgnoreCase(ChannelizerType.SUB_BAND.name()))
+                {
+                    mChannelizerType = ChannelizerType.SUB_BAND;
+                }
+                else if(type.equalsIgnoreCase(ChannelizerType.FAST_CONVOLUTION.name()))
+                {
+                    mChannelizerType = ChannelizerType.FAST_CONVOLUTION;
+                }
             }
 
             if(type == null)
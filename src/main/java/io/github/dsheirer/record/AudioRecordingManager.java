@@ -20,6 +20,7 @@
 package io.github.dsheirer.record;
 
 import io.github.dsheirer.audio.AudioSegment;
+import io.github.dsheirer.controller.NamingThreadFactory;
 import io.github.dsheirer.identifier.Form;
 import io.github.dsheirer.identifier.Identifier;
 import io.github.dsheirer.identifier.IdentifierClass;
@@ -30,6 +31,8 @@ import io.github.dsheirer.identifier.string.StringIdentifier;
 import io.github.dsheirer.identifier.tone.Tone;
 import io.github.dsheirer.identifier.tone.ToneIdentifier;
 import io.github.dsheirer.identifier.tone.ToneSequence;
+import io.github.dsheirer.metrics.Histogram;
+import io.github.dsheirer.metrics.MetricsRegistry;
 import io.github.dsheirer.preference.UserPreferences;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.util.StringUtils;
@@ -43,18 +46,38 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.List;
-import java.util.concurrent.LinkedTransferQueue;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Monitors audio segments and upon completion records any audio segments that have been flagged as recordable
+ * Monitors audio segments and upon completion records any audio segments that have been flagged as recordable.
+ *
+ * Completed audio segments are submitted immediately to a pool of recording worker threads, so that several calls can
+ * be encoded and written concurrently.  While a call is in progress, its audio is periodically encoded and written to
+ * a temporary file so that long calls aren't encoded all at once when the call completes.  Backlog and latency
+ * (audio segment completion to recording written) metrics are available for monitoring.
  */
 public class AudioRecordingManager implements Listener<AudioSegment>
 {
     private final static Logger mLog = LoggerFactory.getLogger(AudioRecordingManager.class);
-    private LinkedTransferQueue<AudioSegment> mCompletedAudioSegmentQueue = new LinkedTransferQueue<>();
-    private ScheduledFuture<?> mQueueProcessorHandle;
+    private static final long INCREMENTAL_UPDATE_INTERVAL_MS = 5000;
+    private static final int INCREMENTAL_UPDATE_MINIMUM_BUFFERS = 25;
+    private final Map<AudioSegment,IncrementalAudioSegmentRecorder> mInProgressRecorders = new ConcurrentHashMap<>();
+    private final AtomicInteger mBacklog = new AtomicInteger();
+    private final AtomicLong mRecordedCount = new AtomicLong();
+    private final AtomicLong mTotalLatency = new AtomicLong();
+    private final AtomicLong mMaxLatency = new AtomicLong();
+    private final Histogram mLatencyHistogram = MetricsRegistry.histogram("audio_recording_latency_seconds",
+        "Time from audio segment completion until the recording is written", Histogram.LATENCY_SECONDS_BUCKETS);
+    private ThreadPoolExecutor mRecordingExecutor;
+    private ScheduledFuture<?> mIncrementalUpdateHandle;
     private UserPreferences mUserPreferences;
     private int mUnknownAudioRecordingIndex = 1;
     private int mDuplicateAudioRecordingSuffix = 1;
@@ -74,10 +97,18 @@ public class AudioRecordingManager implements Listener<AudioSegment>
      */
     public void start()
     {
-        if(mQueueProcessorHandle == null)
+        if(mRecordingExecutor == null)
         {
-            mQueueProcessorHandle = ThreadPool.SCHEDULED.scheduleAtFixedRate(new QueueProcessor(),
-                0, 1, TimeUnit.SECONDS);
+            int threadCount = mUserPreferences.getRecordPreference().getAudioRecordingThreadCount();
+            mRecordingExecutor = new ThreadPoolExecutor(threadCount, threadCount, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new NamingThreadFactory("sdrtrunk audio recorder"));
+            mIncrementalUpdateHandle = ThreadPool.SCHEDULED.scheduleAtFixedRate(new IncrementalUpdateProcessor(),
+                INCREMENTAL_UPDATE_INTERVAL_MS, INCREMENTAL_UPDATE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            MetricsRegistry.gauge("audio_recording_backlog", "Completed audio segments waiting to be recorded",
+                this::getBacklog);
+            MetricsRegistry.gauge("audio_recording_in_progress", "Audio segments being incrementally recorded",
+                this::getInProgressCount);
+            mLog.info("Audio recording manager started with [" + threadCount + "] recording threads");
         }
     }
 
@@ -86,11 +117,36 @@ public class AudioRecordingManager implements Listener<AudioSegment>
      */
     public void stop()
     {
-        if(mQueueProcessorHandle != null)
+        if(mRecordingExecutor != null)
         {
-            mQueueProcessorHandle.cancel(true);
-            processAudioSegments();
-            mQueueProcessorHandle = null;
+            mIncrementalUpdateHandle.cancel(true);
+            mIncrementalUpdateHandle = null;
+
+            //Queued recordings continue to completion after shutdown
+            mRecordingExecutor.shutdown();
+
+            try
+            {
+                if(!mRecordingExecutor.awaitTermination(30, TimeUnit.SECONDS))
+                {
+                    mLog.warn("Timeout while waiting for queued audio recordings to complete");
+                }
+            }
+            catch(InterruptedException ie)
+            {
+                Thread.currentThread().interrupt();
+            }
+
+            mRecordingExecutor = null;
+
+            //Calls that are still in progress will not complete - discard the partial recordings
+            for(IncrementalAudioSegmentRecorder recorder: mInProgressRecorders.values())
+            {
+                recorder.discard();
+            }
+
+            mInProgressRecorders.clear();
+            mLog.info("Audio recording manager stopped - " + getStateDescription());
         }
     }
 
@@ -100,6 +156,14 @@ public class AudioRecordingManager implements Listener<AudioSegment>
     @Override
     public void receive(AudioSegment audioSegment)
     {
+        RecordFormat recordFormat = mUserPreferences.getRecordPreference().getAudioRecordFormat();
+
+        if(IncrementalAudioSegmentRecorder.isSupported(recordFormat, mUserPreferences))
+        {
+            mInProgressRecorders.put(audioSegment, new IncrementalAudioSegmentRecorder(audioSegment, recordFormat,
+                mUserPreferences, getRecordingBasePath()));
+        }
+
         audioSegment.completeProperty().addListener(new AudioSegmentCompletionMonitor(audioSegment));
     }
 
@@ -122,49 +186,120 @@ public class AudioRecordingManager implements Listener<AudioSegment>
             mLog.debug("Audio Segment detected with NO TO identifiers");
         }
 
-        if(audioSegment.recordAudioProperty().get())
+        IncrementalAudioSegmentRecorder recorder = mInProgressRecorders.remove(audioSegment);
+        ThreadPoolExecutor executor = mRecordingExecutor;
+
+        if(audioSegment.recordAudioProperty().get() && executor != null)
         {
-            mCompletedAudioSegmentQueue.add(audioSegment);
+            if(recorder == null)
+            {
+                recorder = new IncrementalAudioSegmentRecorder(audioSegment,
+                    mUserPreferences.getRecordPreference().getAudioRecordFormat(), mUserPreferences,
+                    getRecordingBasePath());
+            }
+
+            mBacklog.incrementAndGet();
+
+            try
+            {
+                executor.execute(new RecordingTask(recorder, System.currentTimeMillis()));
+            }
+            catch(RejectedExecutionException ree)
+            {
+                mBacklog.decrementAndGet();
+                recorder.discard();
+                audioSegment.decrementConsumerCount();
+            }
         }
         else
         {
+            if(recorder != null)
+            {
+                recorder.discard();
+            }
+
             audioSegment.decrementConsumerCount();
         }
     }
 
     /**
-     * Processes any queued audio segments
+     * Records the completed audio segment, or discards the recording for a suppressed duplicate call.
      */
-    private void processAudioSegments()
+    private void record(IncrementalAudioSegmentRecorder recorder)
     {
-        RecordFormat recordFormat = mUserPreferences.getRecordPreference().getAudioRecordFormat();
-        AudioSegment audioSegment = mCompletedAudioSegmentQueue.poll();
+        AudioSegment audioSegment = recorder.getAudioSegment();
 
-        while(audioSegment != null)
+        if(audioSegment.isDuplicate() && mUserPreferences.getDuplicateCallDetectionPreference().isDuplicateRecordingSuppressionEnabled())
+        {
+            recorder.discard();
+        }
+        else
         {
-            if(audioSegment.isDuplicate() && mUserPreferences.getDuplicateCallDetectionPreference().isDuplicateRecordingSuppressionEnabled())
+            RecordFormat recordFormat = mUserPreferences.getRecordPreference().getAudioRecordFormat();
+            Path path = getAudioRecordingPath(audioSegment.getIdentifierCollection(), recordFormat);
+
+            try
             {
-                audioSegment.decrementConsumerCount();
+                recorder.complete(path);
             }
-            else
+            catch(IOException ioe)
             {
-                Path path = getAudioRecordingPath(audioSegment.getIdentifierCollection(), recordFormat);
+                mLog.error("Error recording audio segment to [" + path.toString() + "]", ioe);
+                recorder.discard();
+            }
+        }
 
-                try
-                {
-                    AudioSegmentRecorder.record(audioSegment, path, recordFormat, mUserPreferences);
-                }
-                catch(IOException ioe)
-                {
-                    mLog.error("Error recording audio segment to [" + path.toString() + "]");
-                }
+        audioSegment.decrementConsumerCount();
+    }
 
-                audioSegment.decrementConsumerCount();
-            }
+    /**
+     * Number of completed audio segments waiting to be (or currently being) recorded.
+     */
+    public int getBacklog()
+    {
+        return mBacklog.get();
+    }
 
-            //Grab the next one to record
-            audioSegment = mCompletedAudioSegmentQueue.poll();
-        }
+    /**
+     * Number of in-progress audio segments that are tracked for incremental recording.
+     */
+    public int getInProgressCount()
+    {
+        return mInProgressRecorders.size();
+    }
+
+    /**
+     * Number of audio segments recorded since startup.
+     */
+    public long getRecordedCount()
+    {
+        return mRecordedCount.get();
+    }
+
+    /**
+     * Average latency in milliseconds from audio segment completion to recording written.
+     */
+    public double getAverageLatency()
+    {
+        long count = mRecordedCount.get();
+        return count > 0 ? (double)mTotalLatency.get() / count : 0.0;
+    }
+
+    /**
+     * Maximum latency in milliseconds from audio segment completion to recording written.
+     */
+    public long getMaxLatency()
+    {
+        return mMaxLatency.get();
+    }
+
+    /**
+     * Description of the recording metrics
+     */
+    public String getStateDescription()
+    {
+        return String.format("Audio Recording - Backlog:%d In-Progress:%d Recorded:%d Latency Avg:%.1f ms Max:%d ms",
+            getBacklog(), getInProgressCount(), getRecordedCount(), getAverageLatency(), getMaxLatency());
     }
 
     /**
@@ -179,7 +314,7 @@ public class AudioRecordingManager implements Listener<AudioSegment>
     /**
      * Provides a formatted audio recording filename to use as the final audio filename.
      */
-    private Path getAudioRecordingPath(IdentifierCollection identifierCollection, RecordFormat recordFormat)
+    private synchronized Path getAudioRecordingPath(IdentifierCollection identifierCollection, RecordFormat recordFormat)
     {
         StringBuilder sb = new StringBuilder();
 
@@ -345,20 +480,90 @@ public class AudioRecordingManager implements Listener<AudioSegment>
     }
 
     /**
-     * Threaded queue processor to process/record each recordable audio segment
+     * Records a completed audio segment on a recording worker thread and updates the metrics.
      */
-    public class QueueProcessor implements Runnable
+    public class RecordingTask implements Runnable
     {
+        private IncrementalAudioSegmentRecorder mRecorder;
+        private long mCompletionTimestamp;
+
+        public RecordingTask(IncrementalAudioSegmentRecorder recorder, long completionTimestamp)
+        {
+            mRecorder = recorder;
+            mCompletionTimestamp = completionTimestamp;
+        }
+
         @Override
         public void run()
         {
             try
             {
-                processAudioSegments();
+                record(mRecorder);
+            }
+            catch(Throwable t)
+            {
+                mLog.error("Error while recording audio segment", t);
+            }
+            finally
+            {
+                mBacklog.decrementAndGet();
+                long latency = System.currentTimeMillis() - mCompletionTimestamp;
+                mRecordedCount.incrementAndGet();
+                mTotalLatency.addAndGet(latency);
+                mMaxLatency.accumulateAndGet(latency, Math::max);
+                mLatencyHistogram.observe(latency / 1E3);
+            }
+        }
+    }
+
+    /**
+     * Periodically submits incremental recording updates for in-progress audio segments.  Completed audio segment
+     * recordings take priority, so incremental updates are skipped while there is a recording backlog.
+     */
+    public class IncrementalUpdateProcessor implements Runnable
+    {
+        @Override
+        public void run()
+        {
+            try
+            {
+                ThreadPoolExecutor executor = mRecordingExecutor;
+
+                if(executor == null)
+                {
+                    return;
+                }
+
+                for(IncrementalAudioSegmentRecorder recorder: mInProgressRecorders.values())
+                {
+                    if(mBacklog.get() >= executor.getMaximumPoolSize())
+                    {
+                        return;
+                    }
+
+                    if(recorder.getAudioSegment().recordAudioProperty().get() &&
+                        recorder.getPendingBufferCount() >= INCREMENTAL_UPDATE_MINIMUM_BUFFERS && recorder.requestUpdate())
+                    {
+                        executor.execute(() -> {
+                            try
+                            {
+                                recorder.update();
+                            }
+                            catch(Throwable t)
+                            {
+                                mLog.error("Error while incrementally recording audio segment", t);
+                            }
+                        });
+                    }
+                }
+            }
+            catch(RejectedExecutionException ree)
+            {
+                //Manager is stopping
             }
             catch(Throwable t)
             {
-                mLog.error("Error while processing queued audio segments to recordings", t);
+                mLog.error("Error while processing incremental audio recording updates", t);
             }
         }
     }
@@ -0,0 +1,289 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.record;
+
+import io.github.dsheirer.audio.AudioFormats;
+import io.github.dsheirer.audio.AudioSegment;
+import io.github.dsheirer.audio.convert.MP3AudioConverter;
+import io.github.dsheirer.preference.UserPreferences;
+import io.github.dsheirer.record.wave.AudioMetadata;
+import io.github.dsheirer.record.wave.AudioMetadataUtils;
+import io.github.dsheirer.record.wave.WaveWriter;
+import io.github.dsheirer.sample.ConversionUtils;
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Incrementally records an in-progress audio segment to a temporary file, so that long calls are encoded and written
+ * while the call is in progress instead of all at once when the call completes.
+ *
+ * The recording filename and the metadata are based on the audio segment identifiers, which can change while the
+ * call is in progress.  So, the metadata is written and the recording is moved to its final path once the audio
+ * segment is complete.  If the audio segment completes before any incremental update, the complete() method records
+ * the audio segment in the normal (single pass) manner.
+ */
+public class IncrementalAudioSegmentRecorder
+{
+    private final static Logger mLog = LoggerFactory.getLogger(IncrementalAudioSegmentRecorder.class);
+    private static final AtomicInteger TEMPORARY_FILE_COUNTER = new AtomicInteger();
+    private final AudioSegment mAudioSegment;
+    private final RecordFormat mRecordFormat;
+    private final UserPreferences mUserPreferences;
+    private final Path mTemporaryPath;
+    private final AtomicBoolean mUpdatePending = new AtomicBoolean();
+    private volatile int mRecordedBufferCount;
+    private boolean mStarted;
+    private boolean mClosed;
+    private WaveWriter mWaveWriter;
+    private MP3AudioConverter mMP3AudioConverter;
+    private OutputStream mMP3OutputStream;
+
+    /**
+     * Constructs an instance
+     * @param audioSegment to record
+     * @param recordFormat for the recording
+     * @param userPreferences for MP3 encoder settings
+     * @param directory for the temporary recording file
+     */
+    public IncrementalAudioSegmentRecorder(AudioSegment audioSegment, RecordFormat recordFormat,
+                                           UserPreferences userPreferences, Path directory)
+    {
+        mAudioSegment = audioSegment;
+        mRecordFormat = recordFormat;
+        mUserPreferences = userPreferences;
+        mTemporaryPath = directory.resolve("audio_recording_" + System.currentTimeMillis() + "_" +
+                TEMPORARY_FILE_COUNTER.incrementAndGet() + ".tmp");
+    }
+
+    /**
+     * Indicates if incremental recording is supported for the record format and user preferences.  MP3 audio
+     * normalization requires the complete audio segment, so it can't be applied incrementally.
+     */
+    public static boolean isSupported(RecordFormat recordFormat, UserPreferences userPreferences)
+    {
+        if(recordFormat == RecordFormat.MP3)
+        {
+            return !userPreferences.getMP3Preference().isNormalizeAudioBeforeEncode();
+        }
+
+        return recordFormat == RecordFormat.WAVE;
+    }
+
+    /**
+     * Audio segment for this recorder
+     */
+    public AudioSegment getAudioSegment()
+    {
+        return mAudioSegment;
+    }
+
+    /**
+     * Number of audio buffers in the audio segment that have not yet been recorded.
+     */
+    public int getPendingBufferCount()
+    {
+        return mAudioSegment.getAudioBufferCount() - mRecordedBufferCount;
+    }
+
+    /**
+     * Claims the next incremental update so that only one update is queued at a time.
+     * @return true if the caller should schedule an update, or false if an update is already pending.
+     */
+    public boolean requestUpdate()
+    {
+        return mUpdatePending.compareAndSet(false, true);
+    }
+
+    /**
+     * Records any audio buffers that were added to the audio segment since the previous update.
+     * @throws IOException if there is an error writing the temporary recording file
+     */
+    public synchronized void update() throws IOException
+    {
+        mUpdatePending.set(false);
+
+        if(!mClosed)
+        {
+            writeAudio();
+        }
+    }
+
+    /**
+     * Records the remaining audio and the metadata and moves the completed recording to the path.
+     * @param path for the final recording
+     * @throws IOException if there is an error writing the recording
+     */
+    public synchronized void complete(Path path) throws IOException
+    {
+        if(mClosed)
+        {
+            return;
+        }
+
+        if(!mStarted)
+        {
+            mClosed = true;
+            AudioSegmentRecorder.record(mAudioSegment, path, mRecordFormat, mUserPreferences);
+            return;
+        }
+
+        writeAudio();
+        mClosed = true;
+
+        Map<AudioMetadata,String> metadataMap = AudioMetadataUtils.getMetadataMap(mAudioSegment.getIdentifierCollection(),
+            mAudioSegment.getAliasList());
+        byte[] id3Bytes = AudioMetadataUtils.getMP3ID3(metadataMap);
+
+        switch(mRecordFormat)
+        {
+            case MP3:
+                for(byte[] mp3Frame: mMP3AudioConverter.flush())
+                {
+                    mMP3OutputStream.write(mp3Frame);
+                }
+
+                mMP3OutputStream.close();
+
+                //ID3 metadata is at the head of the file, followed by the incrementally encoded audio
+                try(OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(path.toFile())))
+                {
+                    outputStream.write(id3Bytes);
+                    Files.copy(mTemporaryPath, outputStream);
+                }
+
+                Files.delete(mTemporaryPath);
+                break;
+            case WAVE:
+                ByteBuffer listChunk = AudioMetadataUtils.getLISTChunk(metadataMap);
+                ByteBuffer id3Chunk = AudioMetadataUtils.getID3Chunk(id3Bytes);
+                mWaveWriter.writeMetadata(listChunk, id3Chunk);
+                mWaveWriter.close(path);
+                break;
+            default:
+                throw new IllegalArgumentException("Unrecognized recording format [" + mRecordFormat.name() + "]");
+        }
+    }
+
+    /**
+     * Discards the recording and deletes the temporary recording file.
+     */
+    public synchronized void discard()
+    {
+        if(mClosed && !mStarted)
+        {
+            return;
+        }
+
+        mClosed = true;
+
+        if(mStarted)
+        {
+            try
+            {
+                if(mMP3OutputStream != null)
+                {
+                    mMP3OutputStream.close();
+                }
+
+                if(mWaveWriter != null)
+                {
+                    mWaveWriter.close();
+                }
+
+                Files.deleteIfExists(mTemporaryPath);
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Error deleting temporary audio recording [" + mTemporaryPath + "]", ioe);
+            }
+        }
+    }
+
+    /**
+     * Opens the temporary recording file
+     */
+    private void open() throws IOException
+    {
+        switch(mRecordFormat)
+        {
+            case MP3:
+                mMP3AudioConverter = new MP3AudioConverter(mUserPreferences.getMP3Preference().getAudioSampleRate(),
+                    mUserPreferences.getMP3Preference().getMP3Setting(), false);
+                mMP3OutputStream = new BufferedOutputStream(new FileOutputStream(mTemporaryPath.toFile()));
+                break;
+            case WAVE:
+                mWaveWriter = new WaveWriter(AudioFormats.PCM_SIGNED_8000_HZ_16_BIT_MONO, mTemporaryPath);
+                break;
+            default:
+                throw new IllegalArgumentException("Unrecognized recording format [" + mRecordFormat.name() + "]");
+        }
+
+        mStarted = true;
+    }
+
+    /**
+     * Encodes and writes the audio buffers that have not yet been recorded.
+     */
+    private void writeAudio() throws IOException
+    {
+        int count = mAudioSegment.getAudioBufferCount();
+
+        if(count <= mRecordedBufferCount)
+        {
+            return;
+        }
+
+        if(!mStarted)
+        {
+            open();
+        }
+
+        List<float[]> audioBuffers = new ArrayList<>(mAudioSegment.getAudioBuffers().subList(mRecordedBufferCount, count));
+
+        switch(mRecordFormat)
+        {
+            case MP3:
+                for(byte[] mp3Frame: mMP3AudioConverter.encode(audioBuffers))
+                {
+                    mMP3OutputStream.write(mp3Frame);
+                }
+                break;
+            case WAVE:
+                for(float[] audioBuffer: audioBuffers)
+                {
+                    mWaveWriter.writeData(ConversionUtils.convertToSigned16BitSamples(audioBuffer));
+                }
+                break;
+        }
+
+        mRecordedBufferCount = count;
+    }
+}
@@ -26,6 +26,7 @@ import io.github.dsheirer.module.decode.p25.audio.P25P1CallSequenceRecorder;
 import io.github.dsheirer.module.decode.p25.audio.P25P2CallSequenceRecorder;
 import io.github.dsheirer.preference.UserPreferences;
 import io.github.dsheirer.record.binary.BinaryRecorder;
+import io.github.dsheirer.record.sigmf.SigMFRecorder;
 import io.github.dsheirer.record.wave.ComplexSamplesWaveRecorder;
 import io.github.dsheirer.record.wave.IRecordingStatusListener;
 import io.github.dsheirer.record.wave.NativeBufferWaveRecorder;
@@ -183,14 +184,30 @@ public class RecorderFactory
     }
 
     /**
-     * Constructs a baseband recorder for use in a processing chain.
+     * Constructs a tuner baseband recorder using the baseband recording format from the user preferences.
+     * @param tunerName to identify the tuner in the recording file name and metadata
+     * @param frequency of the tuner
+     * @param sampleRate of the tuner
+     * @param userPreferences for the recording directory and format
+     * @param statusListener to receive recording file name and size updates
      */
-    public static NativeBufferWaveRecorder getTunerRecorder(String channelName, UserPreferences userPreferences,
-                                                            IRecordingStatusListener statusListener)
+    public static IBasebandRecorder getTunerRecorder(String tunerName, long frequency, float sampleRate,
+                                                     UserPreferences userPreferences,
+                                                     IRecordingStatusListener statusListener)
     {
         StringBuilder sb = new StringBuilder();
         sb.append(getRecordingBasePath(userPreferences));
-        sb.append(File.separator).append(StringUtils.replaceIllegalCharacters(channelName)).append("_baseband");
-        return new NativeBufferWaveRecorder(BASEBAND_SAMPLE_RATE, sb.toString(), statusListener);
+        sb.append(File.separator).append(StringUtils.replaceIllegalCharacters(tunerName + "_" + frequency))
+                .append("_baseband");
+
+        if(userPreferences.getRecordPreference().getBasebandRecordFormat() == BasebandRecordFormat.SIGMF)
+        {
+            return new SigMFRecorder(sampleRate, frequency, tunerName, sb.toString(), statusListener);
+        }
+
+        NativeBufferWaveRecorder recorder = new NativeBufferWaveRecorder(BASEBAND_SAMPLE_RATE, sb.toString(),
+                statusListener);
+        recorder.setSampleRate(sampleRate);
+        return recorder;
     }
 }
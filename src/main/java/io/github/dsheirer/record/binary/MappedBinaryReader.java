@@ -0,0 +1,205 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.record.binary;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Memory-mapped binary recording reader with random access.  The file is mapped in regions of up to 1 GB so that
+ * recordings larger than 2 GB are supported, and only the regions that are accessed are paged in by the operating
+ * system.
+ *
+ * The iterator methods return read-only views of the mapped file that are not backed by an accessible array.  Use
+ * readBytes() when a heap byte array is required, for example when feeding a message framer.
+ */
+public class MappedBinaryReader implements Iterator<ByteBuffer>, AutoCloseable
+{
+    private static final long REGION_SIZE = 1L << 30;
+    private final Path mPath;
+    private final int mBufferSize;
+    private FileChannel mFileChannel;
+    private long mSize;
+    private MappedByteBuffer mRegion;
+    private long mRegionStart = -1;
+    private long mPosition;
+
+    /**
+     * Constructs an instance
+     * @param path to the binary file
+     * @param bufferSize for each buffer provided by the iterator
+     * @throws IOException if the file can't be opened
+     */
+    public MappedBinaryReader(Path path, int bufferSize) throws IOException
+    {
+        mPath = path;
+        mBufferSize = bufferSize;
+        mFileChannel = FileChannel.open(path, StandardOpenOption.READ);
+        mSize = mFileChannel.size();
+    }
+
+    /**
+     * Path for the file
+     */
+    public Path getPath()
+    {
+        return mPath;
+    }
+
+    /**
+     * Size of the file in bytes
+     */
+    public long size()
+    {
+        return mSize;
+    }
+
+    /**
+     * Current iterator position (byte offset) in the file
+     */
+    public long getPosition()
+    {
+        return mPosition;
+    }
+
+    /**
+     * Sets the iterator position (byte offset) in the file
+     * @param position to read from next
+     */
+    public void setPosition(long position)
+    {
+        if(position < 0 || position > mSize)
+        {
+            throw new IllegalArgumentException("Position [" + position + "] is outside of file size [" + mSize + "]");
+        }
+
+        mPosition = position;
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        return mFileChannel != null && mPosition < mSize;
+    }
+
+    /**
+     * Returns a read-only view of the next buffer size bytes from the file.  The returned buffer may contain fewer
+     * bytes than the buffer size at the end of the file or at a mapped region boundary.
+     */
+    @Override
+    public ByteBuffer next()
+    {
+        if(!hasNext())
+        {
+            throw new NoSuchElementException("End of file");
+        }
+
+        try
+        {
+            ByteBuffer buffer = read(mPosition, (int)Math.min(mBufferSize, mSize - mPosition));
+            mPosition += buffer.remaining();
+            return buffer;
+        }
+        catch(IOException ioe)
+        {
+            throw new IllegalStateException("Error reading binary file [" + mPath + "]", ioe);
+        }
+    }
+
+    /**
+     * Returns a read-only view of the file contents starting at the offset.  The view will contain fewer than the
+     * requested length bytes when the requested range crosses a mapped region boundary.
+     * @param offset in the file
+     * @param length number of bytes requested
+     * @return view of the file contents
+     * @throws IOException if there is an error mapping the file
+     */
+    public ByteBuffer read(long offset, int length) throws IOException
+    {
+        MappedByteBuffer region = getRegion(offset);
+        int regionOffset = (int)(offset - mRegionStart);
+        int available = Math.min(length, region.limit() - regionOffset);
+        return region.slice(regionOffset, available).asReadOnlyBuffer();
+    }
+
+    /**
+     * Copies the file contents starting at the offset into a new heap byte array.
+     * @param offset in the file
+     * @param length number of bytes to copy, limited to the end of the file
+     * @return byte array with the file contents
+     * @throws IOException if there is an error mapping the file
+     */
+    public byte[] readBytes(long offset, int length) throws IOException
+    {
+        byte[] bytes = new byte[(int)Math.max(0, Math.min(length, mSize - offset))];
+        int copied = 0;
+
+        while(copied < bytes.length)
+        {
+            ByteBuffer view = read(offset + copied, bytes.length - copied);
+            int count = view.remaining();
+            view.get(bytes, copied, count);
+            copied += count;
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Maps (if necessary) and returns the file region that contains the offset.
+     */
+    private MappedByteBuffer getRegion(long offset) throws IOException
+    {
+        if(mFileChannel == null)
+        {
+            throw new IOException("Reader is closed");
+        }
+
+        if(offset < 0 || offset >= mSize)
+        {
+            throw new IOException("Offset [" + offset + "] is outside of file size [" + mSize + "]");
+        }
+
+        if(mRegion == null || offset < mRegionStart || offset >= mRegionStart + mRegion.limit())
+        {
+            mRegionStart = (offset / REGION_SIZE) * REGION_SIZE;
+            long regionSize = Math.min(REGION_SIZE, mSize - mRegionStart);
+            mRegion = mFileChannel.map(FileChannel.MapMode.READ_ONLY, mRegionStart, regionSize);
+        }
+
+        return mRegion;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if(mFileChannel != null)
+        {
+            mFileChannel.close();
+            mFileChannel = null;
+            mRegion = null;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.record.binary;
+
+import io.github.dsheirer.dsp.symbol.sync.SyncMatch;
+import io.github.dsheirer.dsp.symbol.sync.SyncPattern;
+import io.github.dsheirer.dsp.symbol.sync.SyncPatternEngine;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Index of the byte offsets of the frame sync patterns in a demodulated bitstream (.bits) recording.  Each recording
+ * byte contains four dibits, most significant dibit first.  The index is built with a single pass over the memory
+ * mapped recording using the multi-pattern sync pattern engine, without decoding any messages, so that the recording
+ * can then be decoded one window of frames at a time.
+ */
+public class SyncPositionIndex
+{
+    private static final int SCAN_CHUNK_SIZE = 4096;
+    private long[] mOffsets = new long[1024];
+    private int mSize;
+
+    /**
+     * Constructs an empty index.  Use the build() method.
+     */
+    private SyncPositionIndex()
+    {
+    }
+
+    /**
+     * Number of frame syncs in the index
+     */
+    public int size()
+    {
+        return mSize;
+    }
+
+    /**
+     * Byte offset in the recording of the byte that contains the first dibit of the indexed frame sync.
+     * @param index of the frame sync
+     * @return byte offset
+     */
+    public long getOffset(int index)
+    {
+        if(index < 0 || index >= mSize)
+        {
+            throw new IndexOutOfBoundsException("Index [" + index + "] size [" + mSize + "]");
+        }
+
+        return mOffsets[index];
+    }
+
+    /**
+     * Adds the byte offset to the index, ignoring offsets that don't advance past the previous entry.
+     */
+    private void add(long offset)
+    {
+        if(mSize > 0 && offset <= mOffsets[mSize - 1])
+        {
+            return;
+        }
+
+        if(mSize == mOffsets.length)
+        {
+            mOffsets = Arrays.copyOf(mOffsets, mOffsets.length * 2);
+        }
+
+        mOffsets[mSize++] = offset;
+    }
+
+    /**
+     * Builds a sync position index for the recording.
+     * @param reader for the recording
+     * @param patterns to detect
+     * @return index
+     * @throws IOException if there is an error reading the recording
+     */
+    public static SyncPositionIndex build(MappedBinaryReader reader, Collection<SyncPattern> patterns) throws IOException
+    {
+        SyncPositionIndex index = new SyncPositionIndex();
+        SyncPatternEngine engine = new SyncPatternEngine(patterns);
+        byte[] dibits = new byte[SCAN_CHUNK_SIZE * 4];
+        long offset = 0;
+
+        while(offset < reader.size())
+        {
+            ByteBuffer view = reader.read(offset, SCAN_CHUNK_SIZE);
+            int length = view.remaining();
+            int dibitCount = length * 4;
+
+            for(int x = 0; x < length; x++)
+            {
+                byte value = view.get();
+                int dibitOffset = x * 4;
+                dibits[dibitOffset] = (byte)((value >> 6) & 0x3);
+                dibits[dibitOffset + 1] = (byte)((value >> 4) & 0x3);
+                dibits[dibitOffset + 2] = (byte)((value >> 2) & 0x3);
+                dibits[dibitOffset + 3] = (byte)(value & 0x3);
+            }
+
+            long chunkDibitStart = offset * 4;
+            int dibitPointer = 0;
+
+            while(dibitPointer < dibitCount)
+            {
+                SyncMatch match = engine.receive(dibits, dibitPointer, dibitCount - dibitPointer);
+
+                if(match == null)
+                {
+                    break;
+                }
+
+                long syncStartDibit = chunkDibitStart + match.index() - (match.pattern().bitLength() / 2) + 1;
+                index.add(Math.max(0, syncStartDibit / 4));
+                dibitPointer = match.index() + 1;
+            }
+
+            offset += length;
+        }
+
+        return index;
+    }
+}
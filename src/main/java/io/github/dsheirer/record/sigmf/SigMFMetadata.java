@@ -0,0 +1,280 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.record.sigmf;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.github.dsheirer.buffer.NativeSampleFormat;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Signal Metadata Format (SigMF) recording metadata.  A SigMF recording is a pair of files: a .sigmf-data file
+ * containing the raw interleaved samples and a .sigmf-meta JSON file describing the sample format, sample rate and
+ * the center frequency and start time of the capture.
+ *
+ * See: https://github.com/sigmf/SigMF
+ */
+public class SigMFMetadata
+{
+    public static final String DATA_EXTENSION = ".sigmf-data";
+    public static final String META_EXTENSION = ".sigmf-meta";
+    private static final String SIGMF_VERSION = "1.0.0";
+    private static final String GLOBAL = "global";
+    private static final String CAPTURES = "captures";
+    private static final String ANNOTATIONS = "annotations";
+    private static final String DATATYPE = "core:datatype";
+    private static final String SAMPLE_RATE = "core:sample_rate";
+    private static final String VERSION = "core:version";
+    private static final String DESCRIPTION = "core:description";
+    private static final String RECORDER = "core:recorder";
+    private static final String HARDWARE = "core:hw";
+    private static final String SAMPLE_START = "core:sample_start";
+    private static final String FREQUENCY = "core:frequency";
+    private static final String DATETIME = "core:datetime";
+
+    private NativeSampleFormat mSampleFormat;
+    private double mSampleRate;
+    private long mFrequency;
+    private long mStartTimestamp;
+    private String mDescription;
+    private String mHardware;
+
+    /**
+     * Constructs an instance
+     * @param sampleFormat of the recorded samples
+     * @param sampleRate of the recorded samples
+     * @param frequency center frequency of the capture in hertz
+     * @param startTimestamp of the first recorded sample in milliseconds since epoch
+     */
+    public SigMFMetadata(NativeSampleFormat sampleFormat, double sampleRate, long frequency, long startTimestamp)
+    {
+        mSampleFormat = sampleFormat;
+        mSampleRate = sampleRate;
+        mFrequency = frequency;
+        mStartTimestamp = startTimestamp;
+    }
+
+    /**
+     * Format of the recorded samples
+     */
+    public NativeSampleFormat getSampleFormat()
+    {
+        return mSampleFormat;
+    }
+
+    /**
+     * Sample rate of the recorded samples
+     */
+    public double getSampleRate()
+    {
+        return mSampleRate;
+    }
+
+    /**
+     * Center frequency of the capture in hertz, or zero if not specified
+     */
+    public long getFrequency()
+    {
+        return mFrequency;
+    }
+
+    /**
+     * Timestamp of the first recorded sample, or zero if not specified
+     */
+    public long getStartTimestamp()
+    {
+        return mStartTimestamp;
+    }
+
+    /**
+     * Optional description of the recording
+     */
+    public String getDescription()
+    {
+        return mDescription;
+    }
+
+    public void setDescription(String description)
+    {
+        mDescription = description;
+    }
+
+    /**
+     * Optional description of the recording hardware (tuner)
+     */
+    public String getHardware()
+    {
+        return mHardware;
+    }
+
+    public void setHardware(String hardware)
+    {
+        mHardware = hardware;
+    }
+
+    /**
+     * Writes this metadata to the file as SigMF JSON
+     * @param path for the .sigmf-meta file
+     * @throws IOException if there is an error
+     */
+    public void write(Path path) throws IOException
+    {
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode root = mapper.createObjectNode();
+
+        ObjectNode global = root.putObject(GLOBAL);
+        global.put(DATATYPE, mSampleFormat.getSigMFDatatype());
+        global.put(SAMPLE_RATE, mSampleRate);
+        global.put(VERSION, SIGMF_VERSION);
+        global.put(RECORDER, "sdrtrunk");
+
+        if(mDescription != null)
+        {
+            global.put(DESCRIPTION, mDescription);
+        }
+
+        if(mHardware != null)
+        {
+            global.put(HARDWARE, mHardware);
+        }
+
+        ArrayNode captures = root.putArray(CAPTURES);
+        ObjectNode capture = captures.addObject();
+        capture.put(SAMPLE_START, 0);
+
+        if(mFrequency > 0)
+        {
+            capture.put(FREQUENCY, mFrequency);
+        }
+
+        if(mStartTimestamp > 0)
+        {
+            capture.put(DATETIME, Instant.ofEpochMilli(mStartTimestamp).toString());
+        }
+
+        root.putArray(ANNOTATIONS);
+
+        mapper.enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), root);
+    }
+
+    /**
+     * Reads the SigMF metadata file.
+     * @param path to a .sigmf-meta file
+     * @return metadata
+     * @throws IOException if the file can't be read or specifies an unsupported sample format
+     */
+    public static SigMFMetadata read(Path path) throws IOException
+    {
+        JsonNode root = new ObjectMapper().readTree(path.toFile());
+        JsonNode global = root.path(GLOBAL);
+
+        String datatype = global.path(DATATYPE).asText();
+        NativeSampleFormat format = NativeSampleFormat.fromSigMFDatatype(datatype);
+
+        if(format == null)
+        {
+            throw new IOException("Unsupported SigMF datatype [" + datatype + "] - supported types are cu8, ci8 and ci16_le");
+        }
+
+        double sampleRate = global.path(SAMPLE_RATE).asDouble();
+
+        if(sampleRate <= 0)
+        {
+            throw new IOException("SigMF metadata does not specify a valid sample rate");
+        }
+
+        long frequency = 0;
+        long timestamp = 0;
+        JsonNode capture = root.path(CAPTURES).path(0);
+
+        if(!capture.isMissingNode())
+        {
+            frequency = capture.path(FREQUENCY).asLong();
+
+            if(capture.hasNonNull(DATETIME))
+            {
+                try
+                {
+                    timestamp = Instant.parse(capture.get(DATETIME).asText()).toEpochMilli();
+                }
+                catch(DateTimeParseException dtpe)
+                {
+                    //Ignore - the datetime is optional
+                }
+            }
+        }
+
+        SigMFMetadata metadata = new SigMFMetadata(format, sampleRate, frequency, timestamp);
+
+        if(global.hasNonNull(DESCRIPTION))
+        {
+            metadata.setDescription(global.get(DESCRIPTION).asText());
+        }
+
+        if(global.hasNonNull(HARDWARE))
+        {
+            metadata.setHardware(global.get(HARDWARE).asText());
+        }
+
+        return metadata;
+    }
+
+    /**
+     * Indicates if the file is either a SigMF data or metadata file, by extension.
+     */
+    public static boolean isSigMF(File file)
+    {
+        String name = file.getName().toLowerCase();
+        return name.endsWith(DATA_EXTENSION) || name.endsWith(META_EXTENSION);
+    }
+
+    /**
+     * Path to the .sigmf-data file that is paired with the SigMF data or metadata file
+     */
+    public static Path getDataPath(Path path)
+    {
+        return path.resolveSibling(getBaseName(path) + DATA_EXTENSION);
+    }
+
+    /**
+     * Path to the .sigmf-meta file that is paired with the SigMF data or metadata file
+     */
+    public static Path getMetaPath(Path path)
+    {
+        return path.resolveSibling(getBaseName(path) + META_EXTENSION);
+    }
+
+    /**
+     * File name without the SigMF extension
+     */
+    private static String getBaseName(Path path)
+    {
+        String name = path.getFileName().toString();
+        int index = name.lastIndexOf(".sigmf-");
+        return index > 0 ? name.substring(0, index) : name;
+    }
+}
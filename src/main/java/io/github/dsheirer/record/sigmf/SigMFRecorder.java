@@ -0,0 +1,317 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.record.sigmf;
+
+import io.github.dsheirer.buffer.INativeBuffer;
+import io.github.dsheirer.buffer.NativeSampleFormat;
+import io.github.dsheirer.record.IBasebandRecorder;
+import io.github.dsheirer.record.wave.IRecordingStatusListener;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.sample.complex.InterleavedComplexSamples;
+import io.github.dsheirer.util.Dispatcher;
+import io.github.dsheirer.util.ThreadPool;
+import io.github.dsheirer.util.TimeStamp;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tuner baseband recorder that writes the tuner's raw native samples (e.g. cu8, ci8, ci16_le) straight from the
+ * native buffers to a SigMF data file, without float conversion, with an accompanying SigMF metadata file.
+ *
+ * Native buffers are written on a dedicated dispatcher thread and are staged into a large write buffer so that the
+ * recording is written to disk with large sequential writes.  Native buffers that don't support raw sample access are
+ * converted and recorded as ci16_le samples.  SigMF data files are not size limited, so recordings are not split.
+ */
+public class SigMFRecorder implements IBasebandRecorder
+{
+    private static final Logger mLog = LoggerFactory.getLogger(SigMFRecorder.class);
+    private static final int WRITE_BUFFER_SIZE = 4 * 1024 * 1024;
+    private static final long STATUS_UPDATE_BYTE_INTERVAL = 1_048_576;
+    private Dispatcher<INativeBuffer> mBufferProcessor = new Dispatcher<>("sdrtrunk sigmf recorder", 100);
+    private AtomicBoolean mRunning = new AtomicBoolean();
+    private SigMFWriter mWriter;
+    private String mFilePrefix;
+    private String mHardware;
+    private long mFrequency;
+    private float mSampleRate;
+    private IRecordingStatusListener mStatusListener;
+    private int mRecordingCount = 0;
+
+    /**
+     * Constructs an instance
+     * @param sampleRate of the tuner sample stream
+     * @param frequency center frequency of the tuner
+     * @param hardware description of the tuner
+     * @param filePrefix for the recording files
+     * @param statusListener to receive recording file name and size updates
+     */
+    public SigMFRecorder(float sampleRate, long frequency, String hardware, String filePrefix,
+                         IRecordingStatusListener statusListener)
+    {
+        mSampleRate = sampleRate;
+        mFrequency = frequency;
+        mHardware = hardware;
+        mFilePrefix = filePrefix;
+        mStatusListener = statusListener;
+    }
+
+    @Override
+    public void setSampleRate(float sampleRate)
+    {
+        if(mSampleRate != sampleRate)
+        {
+            mSampleRate = sampleRate;
+
+            //Start a new recording since the sample rate is fixed for a SigMF recording
+            if(mRunning.get())
+            {
+                stop();
+                start();
+            }
+        }
+    }
+
+    @Override
+    public void start()
+    {
+        if(mRunning.compareAndSet(false, true))
+        {
+            mRecordingCount++;
+            Path dataPath = Paths.get(mFilePrefix + "_" + TimeStamp.getTimeStamp("_") + SigMFMetadata.DATA_EXTENSION);
+            mWriter = new SigMFWriter(dataPath);
+            mBufferProcessor.setListener(mWriter);
+            mStatusListener.update(mRecordingCount, dataPath.toString(), 0);
+            mBufferProcessor.start();
+        }
+    }
+
+    @Override
+    public void stop()
+    {
+        if(mRunning.compareAndSet(true, false))
+        {
+            mBufferProcessor.stop();
+            mBufferProcessor.setListener(null);
+
+            final SigMFWriter writer = mWriter;
+            mWriter = null;
+
+            if(writer != null)
+            {
+                //Close on a separate thread so that the final write doesn't tie up the calling thread
+                ThreadPool.CACHED.submit(() ->
+                {
+                    try
+                    {
+                        writer.close();
+                    }
+                    catch(IOException ioe)
+                    {
+                        mLog.error("Error closing SigMF baseband recording", ioe);
+                    }
+                });
+            }
+        }
+    }
+
+    @Override
+    public void receive(INativeBuffer nativeBuffer)
+    {
+        if(mRunning.get())
+        {
+            //Queue the buffer with the buffer processor so that recording occurs on the buffer processor thread
+            mBufferProcessor.receive(nativeBuffer);
+        }
+    }
+
+    /**
+     * Writes native buffers to a SigMF data file.  The data and metadata files are created when the first buffer
+     * arrives, once the native sample format is known.
+     */
+    public class SigMFWriter implements Listener<INativeBuffer>
+    {
+        private Path mDataPath;
+        private FileOutputStream mOutputStream;
+        private ByteBuffer mWriteBuffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+        private NativeSampleFormat mSampleFormat;
+        private long mCurrentSize;
+        private long mLastReportedSize;
+        private boolean mClosed;
+
+        /**
+         * Constructs an instance
+         * @param dataPath for the SigMF data file
+         */
+        public SigMFWriter(Path dataPath)
+        {
+            mDataPath = dataPath;
+        }
+
+        @Override
+        public synchronized void receive(INativeBuffer nativeBuffer)
+        {
+            if(mClosed)
+            {
+                return;
+            }
+
+            NativeSampleFormat format = nativeBuffer.getNativeSampleFormat();
+
+            if(format == null)
+            {
+                format = NativeSampleFormat.CI16_LE;
+            }
+
+            try
+            {
+                if(mOutputStream == null)
+                {
+                    open(format, nativeBuffer.getTimestamp());
+                }
+                else if(format != mSampleFormat)
+                {
+                    mLog.warn("Native sample format changed from [" + mSampleFormat + "] to [" + format +
+                            "] - ignoring buffer");
+                    return;
+                }
+
+                int required = nativeBuffer.sampleCount() * format.getBytesPerSample();
+
+                if(mWriteBuffer.remaining() < required)
+                {
+                    flush();
+
+                    if(mWriteBuffer.capacity() < required)
+                    {
+                        mWriteBuffer = ByteBuffer.allocate(required);
+                    }
+                }
+
+                int start = mWriteBuffer.position();
+
+                if(nativeBuffer.getNativeSampleFormat() != null)
+                {
+                    nativeBuffer.writeNativeSamples(mWriteBuffer);
+                }
+                else
+                {
+                    writeConverted(nativeBuffer);
+                }
+
+                mCurrentSize += (mWriteBuffer.position() - start);
+
+                if(mCurrentSize > (mLastReportedSize + STATUS_UPDATE_BYTE_INTERVAL))
+                {
+                    mStatusListener.update(mRecordingCount, mDataPath.toString(), mCurrentSize);
+                    mLastReportedSize = mCurrentSize;
+                }
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Error writing SigMF baseband recording - stopping recorder", ioe);
+                mClosed = true;
+                ThreadPool.CACHED.submit(SigMFRecorder.this::stop);
+            }
+        }
+
+        /**
+         * Creates the data file and writes the metadata file.
+         */
+        private void open(NativeSampleFormat format, long timestamp) throws IOException
+        {
+            mSampleFormat = format;
+            SigMFMetadata metadata = new SigMFMetadata(format, mSampleRate, mFrequency, timestamp);
+            metadata.setHardware(mHardware);
+            metadata.setDescription("sdrtrunk tuner baseband recording");
+            metadata.write(SigMFMetadata.getMetaPath(mDataPath));
+            mOutputStream = new FileOutputStream(mDataPath.toFile());
+        }
+
+        /**
+         * Converts float samples to little-endian 16-bit samples for buffers that don't provide native samples.
+         */
+        private void writeConverted(INativeBuffer nativeBuffer)
+        {
+            mWriteBuffer.order(ByteOrder.LITTLE_ENDIAN);
+            Iterator<InterleavedComplexSamples> iterator = nativeBuffer.iteratorInterleaved();
+
+            while(iterator.hasNext())
+            {
+                for(float sample: iterator.next().samples())
+                {
+                    if(sample > 1.0f)
+                    {
+                        sample = 1.0f;
+                    }
+                    else if(sample < -1.0f)
+                    {
+                        sample = -1.0f;
+                    }
+
+                    mWriteBuffer.putShort((short)(sample * Short.MAX_VALUE));
+                }
+            }
+        }
+
+        /**
+         * Writes the staged samples to the data file with a single sequential write.
+         */
+        private void flush() throws IOException
+        {
+            if(mOutputStream != null && mWriteBuffer.position() > 0)
+            {
+                mOutputStream.write(mWriteBuffer.array(), 0, mWriteBuffer.position());
+            }
+
+            mWriteBuffer.clear();
+        }
+
+        /**
+         * Flushes any staged samples and closes the data file.
+         */
+        public synchronized void close() throws IOException
+        {
+            if(mOutputStream != null)
+            {
+                try
+                {
+                    flush();
+                }
+                finally
+                {
+                    mOutputStream.close();
+                    mOutputStream = null;
+                }
+
+                mStatusListener.update(mRecordingCount, mDataPath.toString(), mCurrentSize);
+            }
+
+            mClosed = true;
+        }
+    }
+}
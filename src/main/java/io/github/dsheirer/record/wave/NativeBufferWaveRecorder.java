@@ -20,6 +20,7 @@ package io.github.dsheirer.record.wave;
 
 import io.github.dsheirer.buffer.INativeBuffer;
 import io.github.dsheirer.module.Module;
+import io.github.dsheirer.record.IBasebandRecorder;
 import io.github.dsheirer.sample.ConversionUtils;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.sample.complex.InterleavedComplexSamples;
@@ -42,7 +43,7 @@ import javax.sound.sampled.AudioFormat;
 /**
  * WAVE audio recorder module for recording complex (I&Q) samples to a wave file
  */
-public class NativeBufferWaveRecorder extends Module implements Listener<INativeBuffer>, ISourceEventListener
+public class NativeBufferWaveRecorder extends Module implements IBasebandRecorder, ISourceEventListener
 {
     private static final Logger mLog = LoggerFactory.getLogger(ComplexSamplesWaveRecorder.class);
     private static final long STATUS_UPDATE_BYTE_INTERVAL = 1_048_576;
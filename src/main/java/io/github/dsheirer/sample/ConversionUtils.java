@@ -53,6 +53,36 @@ public class ConversionUtils
         return samples;
     }
 
+    /**
+     * Converts unsigned 8-bit samples (e.g. cu8) into a float array with values in the range -1.0 to 1.0
+     */
+    public static float[] convertFromUnsigned8BitSamples(byte[] bytes)
+    {
+        float[] samples = new float[bytes.length];
+
+        for(int x = 0; x < samples.length; x++)
+        {
+            samples[x] = ((bytes[x] & 0xFF) - 127.5f) / 128.0f;
+        }
+
+        return samples;
+    }
+
+    /**
+     * Converts signed 8-bit samples (e.g. ci8) into a float array with values in the range -1.0 to 1.0
+     */
+    public static float[] convertFromSigned8BitSamples(byte[] bytes)
+    {
+        float[] samples = new float[bytes.length];
+
+        for(int x = 0; x < samples.length; x++)
+        {
+            samples[x] = bytes[x] / 128.0f;
+        }
+
+        return samples;
+    }
+
     /**
      * Converts the float samples into a little-endian 16-bit sample byte buffer.
      *
@@ -18,6 +18,8 @@
  ******************************************************************************/
 package io.github.dsheirer.sample;
 
+import io.github.dsheirer.metrics.Counter;
+import io.github.dsheirer.metrics.MetricsRegistry;
 import io.github.dsheirer.source.Source;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +42,8 @@ public class OverflowableTransferQueue<E>
     protected AtomicBoolean mOverflow = new AtomicBoolean();
     private int mMaximumSize;
     private int mResetThreshold;
+    private final Counter mOverflowCounter;
+    private final Counter mDroppedCounter;
 
     /**
      * Concurrent transfer queue that couples a higher-throughput linked transfer queue with an atomic integer for
@@ -53,6 +57,11 @@ public class OverflowableTransferQueue<E>
     {
         mMaximumSize = maximumSize;
         mResetThreshold = resetThreshold;
+        mOverflowCounter = MetricsRegistry.counter("queue_overflow_events_total",
+            "Transitions of overflowable transfer queues into the overflow state", "queue", getClass().getSimpleName());
+        mDroppedCounter = MetricsRegistry.counter("queue_dropped_elements_total",
+            "Elements discarded by overflowable transfer queues while in the overflow state", "queue",
+            getClass().getSimpleName());
     }
 
     public void dispose()
@@ -81,6 +90,7 @@ public class OverflowableTransferQueue<E>
         }
         else
         {
+            mDroppedCounter.increment();
             overflow(e);
         }
     }
@@ -169,6 +179,11 @@ public class OverflowableTransferQueue<E>
     {
         if(mOverflow.compareAndSet(!overflow, overflow))
         {
+            if(overflow)
+            {
+                mOverflowCounter.increment();
+            }
+
             if(mOverflowListener != null)
             {
                 mOverflowListener.sourceOverflow(overflow);
@@ -22,212 +22,123 @@
 
 package io.github.dsheirer.service.radioreference;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import com.fasterxml.jackson.core.type.TypeReference;
 import io.github.dsheirer.rrapi.RadioReferenceException;
 import io.github.dsheirer.rrapi.RadioReferenceService;
 import io.github.dsheirer.rrapi.type.AgencyInfo;
 import io.github.dsheirer.rrapi.type.AuthorizationInformation;
+import io.github.dsheirer.rrapi.type.Country;
+import io.github.dsheirer.rrapi.type.CountryInfo;
 import io.github.dsheirer.rrapi.type.CountyInfo;
 import io.github.dsheirer.rrapi.type.Frequency;
 import io.github.dsheirer.rrapi.type.Site;
 import io.github.dsheirer.rrapi.type.StateInfo;
 import io.github.dsheirer.rrapi.type.SystemInformation;
 import io.github.dsheirer.rrapi.type.Talkgroup;
+import io.github.dsheirer.rrapi.type.TalkgroupCategory;
 
 import java.util.List;
 
 /**
- * Provides local caching for frequently retrieved items from the radio reference service
+ * Provides local caching for frequently retrieved items from the radio reference service.  Query results are held in
+ * a persistent cache so that repeated imports of the same system, including large systems with many thousands of
+ * talkgroups, are served locally and refreshed from the service in the background once the cached copy expires.
  */
 public class CachingRadioReferenceService extends RadioReferenceService
 {
-    private LoadingCache<Integer,AgencyInfo> mAgencyInfoCache;
-    private LoadingCache<Integer,CountyInfo> mCountyInfoCache;
-    private LoadingCache<Integer,StateInfo> mStateInfoCache;
-    private LoadingCache<Integer,SystemInformation> mSystemInfoCache;
-    private LoadingCache<Integer,List<Site>> mSystemSitesCache;
-    private LoadingCache<Integer,List<Frequency>> mSubCategoryFrequencyCache;
-    private LoadingCache<Integer,List<Talkgroup>> mTalkgroupCache;
+    private static final int NO_ID = 0;
+    private static final TypeReference<AgencyInfo> AGENCY_INFO = new TypeReference<>(){};
+    private static final TypeReference<List<Country>> COUNTRIES = new TypeReference<>(){};
+    private static final TypeReference<CountryInfo> COUNTRY_INFO = new TypeReference<>(){};
+    private static final TypeReference<CountyInfo> COUNTY_INFO = new TypeReference<>(){};
+    private static final TypeReference<StateInfo> STATE_INFO = new TypeReference<>(){};
+    private static final TypeReference<SystemInformation> SYSTEM_INFO = new TypeReference<>(){};
+    private static final TypeReference<List<Site>> SITES = new TypeReference<>(){};
+    private static final TypeReference<List<Frequency>> FREQUENCIES = new TypeReference<>(){};
+    private static final TypeReference<List<Talkgroup>> TALKGROUPS = new TypeReference<>(){};
+    private static final TypeReference<List<TalkgroupCategory>> TALKGROUP_CATEGORIES = new TypeReference<>(){};
+
+    private RadioReferenceCache mCache;
 
     /**
      * Constructs an instance of the service
      *
      * @param authorizationInformation with username and password for accessing the web service
+     * @param cache for storing query results
      * @throws RadioReferenceException if there are any errors while accessing the service
      */
-    public CachingRadioReferenceService(AuthorizationInformation authorizationInformation) throws RadioReferenceException
+    public CachingRadioReferenceService(AuthorizationInformation authorizationInformation, RadioReferenceCache cache)
+        throws RadioReferenceException
     {
         super(authorizationInformation);
-
-        mAgencyInfoCache = CacheBuilder.newBuilder()
-            .maximumSize(1000)
-            .build(new CacheLoader<Integer,AgencyInfo>()
-            {
-                @Override
-                public AgencyInfo load(Integer key) throws Exception
-                {
-                    return CachingRadioReferenceService.super.getAgencyInfo(key);
-                }
-            });
-
-        mCountyInfoCache = CacheBuilder.newBuilder()
-            .maximumSize(1000)
-            .build(new CacheLoader<Integer,CountyInfo>()
-            {
-                @Override
-                public CountyInfo load(Integer key) throws Exception
-                {
-                    return CachingRadioReferenceService.super.getCountyInfo(key);
-                }
-            });
-
-        mStateInfoCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .build(new CacheLoader<Integer,StateInfo>()
-            {
-                @Override
-                public StateInfo load(Integer key) throws Exception
-                {
-                    return CachingRadioReferenceService.super.getStateInfo(key);
-                }
-            });
-
-        mSystemInfoCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .build(new CacheLoader<Integer,SystemInformation>()
-            {
-                @Override
-                public SystemInformation load(Integer key) throws Exception
-                {
-                    return CachingRadioReferenceService.super.getSystemInformation(key);
-                }
-            });
-
-        mSystemSitesCache = CacheBuilder.newBuilder()
-            .maximumSize(1000)
-            .build(new CacheLoader<Integer,List<Site>>()
-            {
-                @Override
-                public List<Site> load(Integer key) throws Exception
-                {
-                    return CachingRadioReferenceService.super.getSites(key);
-                }
-            });
-
-        mSubCategoryFrequencyCache = CacheBuilder.newBuilder()
-            .maximumSize(1000)
-            .build(new CacheLoader<Integer,List<Frequency>>()
-            {
-                @Override
-                public List<Frequency> load(Integer key) throws Exception
-                {
-                    return CachingRadioReferenceService.super.getSubCategoryFrequencies(key);
-                }
-            });
-
-        mTalkgroupCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .build(new CacheLoader<Integer,List<Talkgroup>>()
-            {
-                @Override
-                public List<Talkgroup> load(Integer key) throws Exception
-                {
-                    return CachingRadioReferenceService.super.getTalkgroups(key);
-                }
-            });
+        mCache = cache;
     }
 
     @Override
     public AgencyInfo getAgencyInfo(int agencyId) throws RadioReferenceException
     {
-        try
-        {
-            return mAgencyInfoCache.get(agencyId);
-        }
-        catch(Exception e)
-        {
-            return CachingRadioReferenceService.super.getAgencyInfo(agencyId);
-        }
+        return mCache.get("agency", agencyId, AGENCY_INFO,
+            () -> CachingRadioReferenceService.super.getAgencyInfo(agencyId));
+    }
+
+    @Override
+    public List<Country> getCountries() throws RadioReferenceException
+    {
+        return mCache.get("countries", NO_ID, COUNTRIES, () -> CachingRadioReferenceService.super.getCountries());
+    }
+
+    @Override
+    public CountryInfo getCountryInfo(int countryId) throws RadioReferenceException
+    {
+        return mCache.get("country", countryId, COUNTRY_INFO,
+            () -> CachingRadioReferenceService.super.getCountryInfo(countryId));
     }
 
     @Override
     public CountyInfo getCountyInfo(final int countyId) throws RadioReferenceException
     {
-        try
-        {
-            return mCountyInfoCache.get(countyId);
-        }
-        catch(Exception e)
-        {
-            return CachingRadioReferenceService.super.getCountyInfo(countyId);
-        }
+        return mCache.get("county", countyId, COUNTY_INFO,
+            () -> CachingRadioReferenceService.super.getCountyInfo(countyId));
     }
 
     @Override
     public StateInfo getStateInfo(final int stateId) throws RadioReferenceException
     {
-        try
-        {
-            return mStateInfoCache.get(stateId);
-        }
-        catch(Exception e)
-        {
-            return CachingRadioReferenceService.super.getStateInfo(stateId);
-        }
+        return mCache.get("state", stateId, STATE_INFO,
+            () -> CachingRadioReferenceService.super.getStateInfo(stateId));
     }
 
     @Override
     public SystemInformation getSystemInformation(int systemId) throws RadioReferenceException
     {
-        try
-        {
-            return mSystemInfoCache.get(systemId);
-        }
-        catch(Exception e)
-        {
-            return CachingRadioReferenceService.super.getSystemInformation(systemId);
-        }
+        return mCache.get("system", systemId, SYSTEM_INFO,
+            () -> CachingRadioReferenceService.super.getSystemInformation(systemId));
     }
 
     @Override
     public List<Site> getSites(int systemId) throws RadioReferenceException
     {
-        try
-        {
-            return mSystemSitesCache.get(systemId);
-        }
-        catch(Exception e)
-        {
-            return CachingRadioReferenceService.super.getSites(systemId);
-        }
+        return mCache.get("sites", systemId, SITES, () -> CachingRadioReferenceService.super.getSites(systemId));
     }
 
     @Override
     public List<Frequency> getSubCategoryFrequencies(int subCategoryId) throws RadioReferenceException
     {
-        try
-        {
-            return mSubCategoryFrequencyCache.get(subCategoryId);
-        }
-        catch(Exception e)
-        {
-            return CachingRadioReferenceService.super.getSubCategoryFrequencies(subCategoryId);
-        }
+        return mCache.get("subcategory-frequencies", subCategoryId, FREQUENCIES,
+            () -> CachingRadioReferenceService.super.getSubCategoryFrequencies(subCategoryId));
     }
 
-
     @Override
     public List<Talkgroup> getTalkgroups(int systemId) throws RadioReferenceException
     {
-        try
-        {
-            return mTalkgroupCache.get(systemId);
-        }
-        catch(Exception e)
-        {
-            return CachingRadioReferenceService.super.getTalkgroups(systemId);
-        }
+        return mCache.get("talkgroups", systemId, TALKGROUPS,
+            () -> CachingRadioReferenceService.super.getTalkgroups(systemId));
+    }
+
+    @Override
+    public List<TalkgroupCategory> getTalkgroupCategories(int systemId) throws RadioReferenceException
+    {
+        return mCache.get("talkgroup-categories", systemId, TALKGROUP_CATEGORIES,
+            () -> CachingRadioReferenceService.super.getTalkgroupCategories(systemId));
     }
 }
@@ -29,16 +29,19 @@ import io.github.dsheirer.rrapi.RadioReferenceService;
 import io.github.dsheirer.rrapi.response.Fault;
 import io.github.dsheirer.rrapi.type.AuthorizationInformation;
 import io.github.dsheirer.rrapi.type.UserInfo;
+import io.github.dsheirer.util.ThreadPool;
 import javafx.beans.property.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.file.Path;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.Locale;
 import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service interface to radioreference.com data API with caching for Flavor, Mode, Type and Tag values.
@@ -48,7 +51,9 @@ public class RadioReference
     private static final Logger mLog = LoggerFactory.getLogger(RadioReference.class);
 
     public static final String SDRTRUNK_APP_KEY = "88969092";
+    private static final String CACHE_DIRECTORY = "radioreference_cache";
     private RadioReferenceService mRadioReferenceService;
+    private RadioReferenceCache mRadioReferenceCache;
     private UserPreferences mUserPreferences;
     private AuthorizationInformation mAuthorizationInformation;
     private StringProperty mUserName = new SimpleStringProperty();
@@ -144,7 +149,7 @@ public class RadioReference
             if(authorizationInformation != null)
             {
                 //Use the caching version of the service to cache frequently used values
-                mRadioReferenceService = new CachingRadioReferenceService(authorizationInformation);
+                mRadioReferenceService = new CachingRadioReferenceService(authorizationInformation, getCache());
             }
         }
 
@@ -156,6 +161,23 @@ public class RadioReference
         return mRadioReferenceService;
     }
 
+    /**
+     * Persistent cache for radio reference query results, shared across service instances.
+     */
+    public RadioReferenceCache getCache()
+    {
+        if(mRadioReferenceCache == null)
+        {
+            Path directory = mUserPreferences.getDirectoryPreference().getDirectoryApplicationRoot()
+                .resolve(CACHE_DIRECTORY);
+            long timeToLive = TimeUnit.DAYS.toMillis(mUserPreferences.getRadioReferencePreference()
+                .getCacheTimeToLiveDays());
+            mRadioReferenceCache = new RadioReferenceCache(directory, timeToLive, ThreadPool.CACHED);
+        }
+
+        return mRadioReferenceCache;
+    }
+
     /**
      * Tests the connection to radio reference service using the provided credentials.
      * @param userName for radio reference account
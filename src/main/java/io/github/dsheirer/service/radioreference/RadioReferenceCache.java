@@ -0,0 +1,447 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.service.radioreference;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.github.dsheirer.rrapi.RadioReferenceException;
+import io.github.dsheirer.util.ThreadPool;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent, time-to-live (TTL) cache for radio reference service query results.
+ *
+ * Each query result is stored in its own compressed JSON file in the cache directory, and an index file tracks the
+ * time each result was fetched from the service.  Recently used results are also held in memory.  Results that are
+ * younger than the TTL are served locally without contacting the service.  Results older than the TTL are still
+ * served locally, and a background refresh fetches a new copy from the service.  The service is only queried while
+ * the caller waits when there is no cached copy of the result, and concurrent callers for the same result share a
+ * single query.  If a refresh fails, the stale copy remains in use.
+ */
+public class RadioReferenceCache
+{
+    private static final Logger mLog = LoggerFactory.getLogger(RadioReferenceCache.class);
+    private static final String INDEX_FILE = "index.json";
+    private static final String DATA_FILE_SUFFIX = ".json.gz";
+    private static final int MEMORY_CACHE_SIZE = 500;
+    private static final long INDEX_SAVE_DELAY_MS = 2000;
+
+    private final Path mDirectory;
+    private final long mTimeToLive;
+    private final Executor mRefreshExecutor;
+    private final ObjectMapper mObjectMapper;
+    private final Map<String,Long> mIndex = new ConcurrentHashMap<>();
+    private final Set<String> mRefreshing = ConcurrentHashMap.newKeySet();
+    private final Map<String,CompletableFuture<Object>> mFetching = new ConcurrentHashMap<>();
+    private final Cache<String,Entry> mMemoryCache = CacheBuilder.newBuilder().maximumSize(MEMORY_CACHE_SIZE).build();
+    private final AtomicBoolean mIndexSaveScheduled = new AtomicBoolean();
+
+    /**
+     * Service query that provides the value to cache.
+     */
+    public interface Fetcher<T>
+    {
+        T fetch() throws RadioReferenceException;
+    }
+
+    /**
+     * Constructs an instance and loads the index from the cache directory.
+     * @param directory for the cache files
+     * @param timeToLive in milliseconds before a cached value is refreshed
+     * @param refreshExecutor to run background refreshes of stale values
+     */
+    public RadioReferenceCache(Path directory, long timeToLive, Executor refreshExecutor)
+    {
+        mDirectory = directory;
+        mTimeToLive = timeToLive;
+        mRefreshExecutor = refreshExecutor;
+
+        //Service types are simple data objects - serialize the fields so that derived getters aren't persisted
+        mObjectMapper = new ObjectMapper()
+            .setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE)
+            .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
+
+        loadIndex();
+    }
+
+    /**
+     * Number of cached values
+     */
+    public int size()
+    {
+        return mIndex.size();
+    }
+
+    /**
+     * Indicates if there is a cached value for the query
+     */
+    public boolean contains(String query, int id)
+    {
+        return mIndex.containsKey(getKey(query, id));
+    }
+
+    /**
+     * Retrieves the cached value for the query, or fetches and caches the value when there is no cached copy.  A
+     * stale cached value is returned and refreshed in the background.  When several callers request the same value
+     * and there is no cached copy, the first caller fetches the value and the others wait for that result.
+     *
+     * @param query name, used with the id to identify the value
+     * @param id of the queried item
+     * @param type of the value for deserialization
+     * @param fetcher to obtain the value from the service
+     * @return value
+     * @throws RadioReferenceException if there is no cached copy and the service query fails
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String query, int id, TypeReference<T> type, Fetcher<T> fetcher) throws RadioReferenceException
+    {
+        String key = getKey(query, id);
+        Entry entry = mMemoryCache.getIfPresent(key);
+
+        if(entry == null)
+        {
+            entry = read(key, type);
+
+            if(entry != null)
+            {
+                mMemoryCache.put(key, entry);
+            }
+        }
+
+        if(entry == null)
+        {
+            return fetchOnce(key, fetcher);
+        }
+
+        if(isStale(entry.getTimestamp()))
+        {
+            refresh(key, fetcher);
+        }
+
+        return (T)entry.getValue();
+    }
+
+    /**
+     * Saves any pending changes to the index of cached values.  Index changes are otherwise saved shortly after each
+     * value is stored, so that a burst of stores rewrites the index once.
+     */
+    public void flush()
+    {
+        if(mIndexSaveScheduled.getAndSet(false))
+        {
+            saveIndex();
+        }
+    }
+
+    /**
+     * Fetches the value from the service and stores it in the cache.
+     */
+    private <T> T fetch(String key, Fetcher<T> fetcher) throws RadioReferenceException
+    {
+        T value = fetcher.fetch();
+
+        if(value != null)
+        {
+            store(key, value);
+        }
+
+        return value;
+    }
+
+    /**
+     * Fetches the value for a cold cache miss, unless another caller is already fetching the same value, in which
+     * case this caller waits for and shares that result.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T fetchOnce(String key, Fetcher<T> fetcher) throws RadioReferenceException
+    {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = mFetching.putIfAbsent(key, future);
+
+        if(existing != null)
+        {
+            return (T)await(key, existing);
+        }
+
+        try
+        {
+            //A previous fetch may have completed between the cache miss and claiming the fetch
+            Entry entry = mMemoryCache.getIfPresent(key);
+            T value = entry != null ? (T)entry.getValue() : fetch(key, fetcher);
+            future.complete(value);
+            return value;
+        }
+        catch(RadioReferenceException | RuntimeException e)
+        {
+            future.completeExceptionally(e);
+            throw e;
+        }
+        finally
+        {
+            mFetching.remove(key, future);
+        }
+    }
+
+    /**
+     * Waits for a fetch started by another caller.
+     * @throws RadioReferenceException if that fetch failed or the wait is interrupted
+     */
+    private Object await(String key, CompletableFuture<Object> future) throws RadioReferenceException
+    {
+        try
+        {
+            return future.get();
+        }
+        catch(InterruptedException ie)
+        {
+            Thread.currentThread().interrupt();
+            throw new RadioReferenceException("Interrupted while waiting for radio reference query [" + key + "]");
+        }
+        catch(ExecutionException ee)
+        {
+            if(ee.getCause() instanceof RadioReferenceException rre)
+            {
+                throw rre;
+            }
+            else if(ee.getCause() instanceof RuntimeException re)
+            {
+                throw re;
+            }
+
+            throw new RadioReferenceException("Radio reference query [" + key + "] failed - " +
+                ee.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Schedules a background refresh of the stale value, unless a refresh is already in progress.
+     */
+    private <T> void refresh(String key, Fetcher<T> fetcher)
+    {
+        if(mRefreshing.add(key))
+        {
+            mRefreshExecutor.execute(() -> {
+                try
+                {
+                    fetch(key, fetcher);
+                }
+                catch(Exception e)
+                {
+                    mLog.info("Unable to refresh radio reference cache entry [" + key + "] - using cached copy - " +
+                        e.getMessage());
+                }
+                finally
+                {
+                    mRefreshing.remove(key);
+                }
+            });
+        }
+    }
+
+    private boolean isStale(long timestamp)
+    {
+        return System.currentTimeMillis() - timestamp >= mTimeToLive;
+    }
+
+    /**
+     * Stores the value in memory and on disk and schedules an index save.
+     */
+    private void store(String key, Object value)
+    {
+        long timestamp = System.currentTimeMillis();
+        mMemoryCache.put(key, new Entry(value, timestamp));
+
+        try
+        {
+            Files.createDirectories(mDirectory);
+            Path temp = Files.createTempFile(mDirectory, key, DATA_FILE_SUFFIX + ".tmp");
+
+            try(OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp)))
+            {
+                mObjectMapper.writeValue(out, value);
+            }
+
+            Files.move(temp, getDataPath(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            mIndex.put(key, timestamp);
+            scheduleIndexSave();
+        }
+        catch(IOException ioe)
+        {
+            mLog.warn("Unable to store radio reference cache entry [" + key + "]", ioe);
+        }
+    }
+
+    /**
+     * Reads the value from disk.
+     * @return entry or null if there is no readable cached copy
+     */
+    private <T> Entry read(String key, TypeReference<T> type)
+    {
+        Long timestamp = mIndex.get(key);
+
+        if(timestamp == null)
+        {
+            return null;
+        }
+
+        Path path = getDataPath(key);
+
+        try(InputStream in = new GZIPInputStream(Files.newInputStream(path)))
+        {
+            return new Entry(mObjectMapper.readValue(in, type), timestamp);
+        }
+        catch(Exception e)
+        {
+            mLog.warn("Discarding unreadable radio reference cache entry [" + key + "]", e);
+            mIndex.remove(key);
+            scheduleIndexSave();
+
+            try
+            {
+                Files.deleteIfExists(path);
+            }
+            catch(IOException ioe)
+            {
+                //Ignore
+            }
+
+            return null;
+        }
+    }
+
+    /**
+     * Loads the index of cached values, discarding entries whose data file is missing.
+     */
+    private void loadIndex()
+    {
+        Path path = mDirectory.resolve(INDEX_FILE);
+
+        if(Files.exists(path))
+        {
+            try
+            {
+                Map<String,Long> index = mObjectMapper.readValue(path.toFile(),
+                    new TypeReference<HashMap<String,Long>>(){});
+
+                for(Map.Entry<String,Long> entry: index.entrySet())
+                {
+                    if(Files.exists(getDataPath(entry.getKey())))
+                    {
+                        mIndex.put(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+            catch(Exception e)
+            {
+                mLog.warn("Unable to read radio reference cache index - cache will be rebuilt", e);
+            }
+        }
+    }
+
+    /**
+     * Schedules a save of the index, when a save isn't already scheduled.
+     */
+    private void scheduleIndexSave()
+    {
+        if(mIndexSaveScheduled.compareAndSet(false, true))
+        {
+            ThreadPool.SCHEDULED.schedule(this::flush, INDEX_SAVE_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Saves the index to the cache directory, replacing the existing index atomically.
+     */
+    private synchronized void saveIndex()
+    {
+        try
+        {
+            Files.createDirectories(mDirectory);
+            Path temp = mDirectory.resolve(INDEX_FILE + ".tmp");
+            mObjectMapper.writeValue(temp.toFile(), new HashMap<>(mIndex));
+            Files.move(temp, mDirectory.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch(IOException ioe)
+        {
+            mLog.warn("Unable to save radio reference cache index", ioe);
+        }
+    }
+
+    private Path getDataPath(String key)
+    {
+        return mDirectory.resolve(key + DATA_FILE_SUFFIX);
+    }
+
+    private static String getKey(String query, int id)
+    {
+        return query + "-" + id;
+    }
+
+    /**
+     * Cached value and the time it was fetched from the service
+     */
+    private static class Entry
+    {
+        private final Object mValue;
+        private final long mTimestamp;
+
+        public Entry(Object value, long timestamp)
+        {
+            mValue = value;
+            mTimestamp = timestamp;
+        }
+
+        public Object getValue()
+        {
+            return mValue;
+        }
+
+        public long getTimestamp()
+        {
+            return mTimestamp;
+        }
+    }
+}
@@ -26,8 +26,10 @@ import io.github.dsheirer.source.SourceEvent;
 import io.github.dsheirer.source.SourceException;
 import io.github.dsheirer.source.tuner.TunerEvent.Event;
 import io.github.dsheirer.source.tuner.manager.ChannelSourceManager;
+import io.github.dsheirer.source.tuner.manager.FastConvolutionChannelSourceManager;
 import io.github.dsheirer.source.tuner.manager.HeterodyneChannelSourceManager;
 import io.github.dsheirer.source.tuner.manager.PolyphaseChannelSourceManager;
+import io.github.dsheirer.source.tuner.manager.SubBandChannelSourceManager;
 import java.util.concurrent.atomic.AtomicBoolean;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -75,6 +77,14 @@ public abstract class Tuner implements ISourceEventProcessor, ITunerErrorListene
         {
             setChannelSourceManager(new HeterodyneChannelSourceManager(mTunerController));
         }
+        else if(channelizerType == ChannelizerType.SUB_BAND)
+        {
+            setChannelSourceManager(new SubBandChannelSourceManager(mTunerController));
+        }
+        else if(channelizerType == ChannelizerType.FAST_CONVOLUTION)
+        {
+            setChannelSourceManager(new FastConvolutionChannelSourceManager(mTunerController));
+        }
         else
         {
             throw new IllegalArgumentException("Unrecognized channelizer type: " + channelizerType);
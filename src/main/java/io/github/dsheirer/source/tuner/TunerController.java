@@ -21,9 +21,9 @@ package io.github.dsheirer.source.tuner;
 import io.github.dsheirer.buffer.INativeBuffer;
 import io.github.dsheirer.buffer.INativeBufferProvider;
 import io.github.dsheirer.preference.UserPreferences;
+import io.github.dsheirer.record.IBasebandRecorder;
 import io.github.dsheirer.record.RecorderFactory;
 import io.github.dsheirer.record.wave.IRecordingStatusListener;
-import io.github.dsheirer.record.wave.NativeBufferWaveRecorder;
 import io.github.dsheirer.sample.Broadcaster;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.source.ISourceEventListener;
@@ -56,7 +56,7 @@ public abstract class TunerController implements Tunable, ISourceEventProcessor,
     private int mMeasuredFrequencyError;
     private double mUsableBandwidthPercentage;
     private SourceEventListenerToProcessorAdapter mSourceEventListener;
-    private NativeBufferWaveRecorder mRecorder;
+    private IBasebandRecorder mRecorder;
     private ITunerErrorListener mTunerErrorListener;
     private DecimalFormat mFrequencyErrorPPMFormat = new DecimalFormat("0.0");
     private FrequencyErrorCorrectionManager mFrequencyErrorCorrectionManager;
@@ -750,8 +750,8 @@ public abstract class TunerController implements Tunable, ISourceEventProcessor,
     {
         if(!isRecording())
         {
-            mRecorder = RecorderFactory.getTunerRecorder(prefix + "_" + getFrequency(), userPreferences, statusListener);
-            mRecorder.setSampleRate((float)getSampleRate());
+            mRecorder = RecorderFactory.getTunerRecorder(prefix, getFrequency(), (float)getSampleRate(),
+                    userPreferences, statusListener);
             mRecorder.start();
             addBufferListener(mRecorder);
         }
@@ -0,0 +1,230 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.source.tuner.channel;
+
+import io.github.dsheirer.dsp.filter.decimate.DecimationFilterFactory;
+import io.github.dsheirer.dsp.filter.decimate.IRealDecimationFilter;
+import io.github.dsheirer.dsp.filter.subband.ISubBandTap;
+import io.github.dsheirer.dsp.filter.subband.SubBandSamples;
+import io.github.dsheirer.dsp.mixer.ComplexMixer;
+import io.github.dsheirer.dsp.mixer.ComplexMixerFactory;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.sample.complex.ComplexSamples;
+import io.github.dsheirer.source.SourceEvent;
+import io.github.dsheirer.util.Dispatcher;
+import org.apache.commons.math3.util.FastMath;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Complex sample source that taps into a shared sub-band decimation tree and provides a frequency-translated and
+ * decimated sample buffer stream.  The tree performs the early mix and decimate stages at the higher sample rates and
+ * this source performs the final mixing and decimation at the sub-band (intermediate) sample rate.  The output sample
+ * rate is fixed at construction and does not change when the tap is reassigned to a different sub-band node following
+ * a tuner center frequency change.  Sample buffer processing occurs on a scheduled runnable thread.
+ */
+public class SubBandTunerChannelSource extends TunerChannelSource implements ISubBandTap
+{
+    private static final Logger mLog = LoggerFactory.getLogger(SubBandTunerChannelSource.class);
+
+    private Dispatcher<SubBandSamples> mBufferDispatcher;
+    private ComplexMixer mFrequencyCorrectionMixer;
+    private IRealDecimationFilter mIDecimationFilter;
+    private IRealDecimationFilter mQDecimationFilter;
+    private Listener<ComplexSamples> mSamplesListener;
+    private double mChannelSampleRate;
+    private double mSubBandSampleRate;
+
+    /**
+     * Constructs an instance.
+     *
+     * @param producerSourceEventListener to receive sample stream start/stop requests
+     * @param tunerChannel that details the desired channel frequency and bandwidth
+     * @param sampleRate of the tuner sample stream
+     * @param channelSpecification for the requested channel.
+     */
+    public SubBandTunerChannelSource(Listener<SourceEvent> producerSourceEventListener, TunerChannel tunerChannel,
+                                     double sampleRate, ChannelSpecification channelSpecification)
+    {
+        super(producerSourceEventListener, tunerChannel);
+
+        int desiredDecimation = (int)(sampleRate / channelSpecification.getMinimumSampleRate());
+        int decimation = FastMath.max(DecimationFilterFactory.getDecimationRate(desiredDecimation), 1);
+        mChannelSampleRate = sampleRate / (double)decimation;
+
+        mBufferDispatcher = new Dispatcher("sdrtrunk sub-band channel " + tunerChannel.getFrequency(), 50,
+                getHeartbeatManager());
+        mBufferDispatcher.setListener(new SubBandSamplesProcessor());
+    }
+
+    @Override
+    public void start()
+    {
+        super.start();
+        mBufferDispatcher.start();
+    }
+
+    @Override
+    public void stop()
+    {
+        super.stop();
+        mBufferDispatcher.stop();
+    }
+
+    @Override
+    public void dispose()
+    {
+    }
+
+    /**
+     * Primary interface for receiving sub-band samples from the sub-band decimation tree.
+     */
+    @Override
+    public void receive(SubBandSamples subBandSamples)
+    {
+        mBufferDispatcher.receive(subBandSamples);
+    }
+
+    /**
+     * Channel bandwidth used for assigning this source to a sub-band.
+     */
+    @Override
+    public int getBandwidth()
+    {
+        return getTunerChannel().getBandwidth();
+    }
+
+    /**
+     * Sets/updates the center frequency for the sample streaming being sent from the producer.
+     *
+     * Not implemented.  The sub-band decimation tree calculates the mixer frequency for this channel following a
+     * tuner center frequency change.
+     *
+     * @param frequency in hertz
+     */
+    @Override
+    public void setFrequency(long frequency)
+    {
+    }
+
+    /**
+     * Mixer frequency applying offset to the sub-band samples.
+     * @return mixer frequency
+     */
+    public long getMixerFrequency()
+    {
+        ComplexMixer mixer = mFrequencyCorrectionMixer;
+        return mixer != null ? (long)mixer.getFrequency() : 0;
+    }
+
+    /**
+     * Sample rate of the sub-band currently tapped by this channel.
+     */
+    public double getSubBandSampleRate()
+    {
+        return mSubBandSampleRate;
+    }
+
+    /**
+     * Sets the sample rate of the incoming sample stream from the producer
+     *
+     * @param sampleRate in hertz
+     */
+    @Override
+    protected void setSampleRate(double sampleRate)
+    {
+        //Not implemented.  Sample rate changes are not permitted once sample stream starts
+    }
+
+    /**
+     * Sets the listener to receive the complex buffer sample output from this channel
+     *
+     * @param listener to receive complex buffers
+     */
+    @Override
+    public void setListener(Listener<ComplexSamples> listener)
+    {
+        mSamplesListener = listener;
+    }
+
+    @Override
+    public double getSampleRate()
+    {
+        return mChannelSampleRate;
+    }
+
+    /**
+     * Reconfigures the mixer and decimation filters when the sub-band sample rate or mixer frequency changes.
+     * @param subBandSamples with the current sub-band sample rate and mixer frequency
+     */
+    private void configure(SubBandSamples subBandSamples)
+    {
+        if(subBandSamples.sampleRate() != mSubBandSampleRate || mFrequencyCorrectionMixer == null)
+        {
+            mSubBandSampleRate = subBandSamples.sampleRate();
+            int decimation = (int)FastMath.round(mSubBandSampleRate / mChannelSampleRate);
+
+            //A decimation rate of 1 is handled by the pass-through (rate 0) decimation filter
+            if(decimation <= 1)
+            {
+                decimation = 0;
+            }
+
+            mIDecimationFilter = DecimationFilterFactory.getRealDecimationFilter(decimation);
+            mQDecimationFilter = DecimationFilterFactory.getRealDecimationFilter(decimation);
+            mFrequencyCorrectionMixer = ComplexMixerFactory.getMixer(subBandSamples.mixerFrequency(), mSubBandSampleRate);
+        }
+        else if(subBandSamples.mixerFrequency() != mFrequencyCorrectionMixer.getFrequency())
+        {
+            mFrequencyCorrectionMixer.setFrequency(subBandSamples.mixerFrequency());
+        }
+    }
+
+    /**
+     * Processes sub-band samples received from the dispatcher and sends to the registered listener
+     */
+    public class SubBandSamplesProcessor implements Listener<SubBandSamples>
+    {
+        @Override
+        public void receive(SubBandSamples subBandSamples)
+        {
+            if(mSamplesListener != null)
+            {
+                configure(subBandSamples);
+
+                ComplexSamples basebanded = mFrequencyCorrectionMixer.mix(subBandSamples.samples());
+                float[] i = mIDecimationFilter.decimateReal(basebanded.i());
+                float[] q = mQDecimationFilter.decimateReal(basebanded.q());
+
+                try
+                {
+                    mSamplesListener.receive(new ComplexSamples(i, q, basebanded.timestamp()));
+                }
+                catch(Throwable t)
+                {
+                    //The listener can be made null and cause the error - only log if we have a non-null listener
+                    if(mSamplesListener != null)
+                    {
+                        mLog.error("Error dispatching complex samples to listener [" + mSamplesListener + "]");
+                    }
+                }
+            }
+        }
+    }
+}
@@ -35,6 +35,7 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
@@ -51,7 +52,7 @@ public class TunerConfigurationManager implements IDiscoveredTunerStatusListener
     private static final String SETTINGS_FILE_NAME = "tuner_configuration.json";
     private UserPreferences mUserPreferences;
     private List<DisabledTuner> mDisabledTunerList = new ArrayList<>();
-    private List<TunerConfiguration> mTunerConfigurations = new ArrayList<>();
+    private List<TunerConfiguration> mTunerConfigurations = new CopyOnWriteArrayList<>();
     private AtomicBoolean mSavePending = new AtomicBoolean();
     private Lock mLock = new ReentrantLock();
 
@@ -274,11 +275,20 @@ public class TunerConfigurationManager implements IDiscoveredTunerStatusListener
      */
     public void addTunerConfiguration(TunerConfiguration tunerConfiguration)
     {
-        if(!mTunerConfigurations.stream().filter(config -> config.getTunerType().equals(tunerConfiguration.getTunerType()) &&
-                config.getUniqueID().equalsIgnoreCase(tunerConfiguration.getUniqueID())).findFirst().isPresent())
+        mLock.lock();
+
+        try
         {
-            mTunerConfigurations.add(tunerConfiguration);
-            saveConfigurations();
+            if(!mTunerConfigurations.stream().filter(config -> config.getTunerType().equals(tunerConfiguration.getTunerType()) &&
+                    config.getUniqueID().equalsIgnoreCase(tunerConfiguration.getUniqueID())).findFirst().isPresent())
+            {
+                mTunerConfigurations.add(tunerConfiguration);
+                saveConfigurations();
+            }
+        }
+        finally
+        {
+            mLock.unlock();
         }
     }
 
@@ -295,21 +305,30 @@ public class TunerConfigurationManager implements IDiscoveredTunerStatusListener
     /**
      * Provides an existing or creates a new tuner configuration for the specified tuner type and unique ID value.
      *
-     * Note: this method is not thread-safe.
+     * Note: this method is thread-safe so that tuners can be started in parallel during discovery.
      */
     public TunerConfiguration getTunerConfiguration(TunerType type, String uniqueID )
     {
-        Optional<TunerConfiguration> optional = mTunerConfigurations.stream().filter(config -> config.getTunerType().equals(type) &&
-                config.getUniqueID().equalsIgnoreCase(uniqueID)).findFirst();
+        mLock.lock();
 
-        if(optional.isPresent())
+        try
         {
-            return optional.get();
-        }
+            Optional<TunerConfiguration> optional = mTunerConfigurations.stream().filter(config -> config.getTunerType().equals(type) &&
+                    config.getUniqueID().equalsIgnoreCase(uniqueID)).findFirst();
+
+            if(optional.isPresent())
+            {
+                return optional.get();
+            }
 
-        TunerConfiguration config = TunerFactory.getTunerConfiguration(type, uniqueID);
-        addTunerConfiguration(config);
-        return config;
+            TunerConfiguration config = TunerFactory.getTunerConfiguration(type, uniqueID);
+            addTunerConfiguration(config);
+            return config;
+        }
+        finally
+        {
+            mLock.unlock();
+        }
     }
 
     /**
@@ -0,0 +1,468 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.source.tuner.manager;
+
+import io.github.dsheirer.buffer.INativeBuffer;
+import io.github.dsheirer.controller.channel.event.ChannelStopProcessingRequest;
+import io.github.dsheirer.dsp.filter.design.FilterDesignException;
+import io.github.dsheirer.eventbus.MyEventBus;
+import io.github.dsheirer.metrics.ChannelizerMetrics;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.source.SourceEvent;
+import io.github.dsheirer.source.SourceException;
+import io.github.dsheirer.source.tuner.TunerController;
+import io.github.dsheirer.source.tuner.channel.ChannelSpecification;
+import io.github.dsheirer.source.tuner.channel.TunerChannel;
+import io.github.dsheirer.source.tuner.channel.TunerChannelSource;
+import io.github.dsheirer.util.Dispatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Base channel provider for channelizers that share a single front end across all channel sources.  The front end is
+ * created for the tuner sample rate when the first channel starts, receives tuner sample buffers on a dedicated buffer
+ * dispatcher thread, and is released when the last channel stops.
+ *
+ * Sub-classes create the channel sources and manage the front end.  This class manages the tuner center frequency,
+ * the channel source lifecycle, the tuner buffer registration and the channelizer runtime metrics.
+ *
+ * @param <T> channel source type
+ */
+public abstract class AbstractSharedChannelSourceManager<T extends TunerChannelSource> extends ChannelSourceManager
+{
+    private final static Logger mLog = LoggerFactory.getLogger(AbstractSharedChannelSourceManager.class);
+
+    private Class<T> mChannelSourceClass;
+    private List<T> mChannelSources = new CopyOnWriteArrayList<>();
+    private SortedSet<TunerChannel> mTunerChannels = new TreeSet<>();
+    private TunerController mTunerController;
+    private ChannelSourceEventProcessor mChannelSourceEventProcessor = new ChannelSourceEventProcessor();
+    private Dispatcher<INativeBuffer> mBufferDispatcher;
+    private ChannelizerMetrics mChannelizerMetrics;
+    private boolean mRunning = true;
+
+    /**
+     * Constructs an instance
+     * @param tunerController with a center tuned frequency that will be managed by this instance
+     * @param channelSourceClass of the channel sources created by this manager
+     * @param dispatcherName for the buffer dispatcher thread
+     * @param metricsType channelizer type label for the runtime metrics
+     */
+    protected AbstractSharedChannelSourceManager(TunerController tunerController, Class<T> channelSourceClass,
+                                                 String dispatcherName, String metricsType)
+    {
+        mTunerController = tunerController;
+        mChannelSourceClass = channelSourceClass;
+        mTunerController.addListener(this);
+        mBufferDispatcher = new Dispatcher<>(dispatcherName, 10);
+        mChannelizerMetrics = new ChannelizerMetrics(metricsType);
+    }
+
+    @Override
+    public void dispose()
+    {
+        mChannelizerMetrics.remove();
+        super.dispose();
+    }
+
+    /**
+     * Tuner controller managed by this instance
+     */
+    protected TunerController getTunerController()
+    {
+        return mTunerController;
+    }
+
+    /**
+     * Current channel sources
+     */
+    protected List<T> getChannelSources()
+    {
+        return mChannelSources;
+    }
+
+    /**
+     * Creates a channel source for the tuner channel.
+     * @param producerSourceEventListener to receive channel source events
+     * @param tunerChannel for the channel source
+     * @param sampleRate of the tuner
+     * @param channelSpecification for the channel
+     * @return channel source
+     * @throws FilterDesignException if a channel filter can't be designed
+     */
+    protected abstract T createChannelSource(Listener<SourceEvent> producerSourceEventListener,
+                                             TunerChannel tunerChannel, double sampleRate,
+                                             ChannelSpecification channelSpecification) throws FilterDesignException;
+
+    /**
+     * Indicates if the front end exists and was created for the sample rate.
+     */
+    protected abstract boolean hasFrontEnd(double sampleRate);
+
+    /**
+     * Creates the front end for the tuner sample rate and center frequency.
+     * @return listener to receive tuner sample buffers on the buffer dispatcher thread
+     */
+    protected abstract Listener<INativeBuffer> createFrontEnd(double sampleRate, long centerFrequency);
+
+    /**
+     * Releases the front end once the last channel source has stopped.
+     */
+    protected abstract void disposeFrontEnd();
+
+    /**
+     * Adds the channel source to the front end.
+     */
+    protected abstract void addToFrontEnd(T channelSource);
+
+    /**
+     * Removes the channel source from the front end, if the front end exists.
+     */
+    protected abstract void removeFromFrontEnd(T channelSource);
+
+    /**
+     * Updates the front end, if it exists, with a new tuner center frequency.
+     */
+    protected abstract void setFrontEndFrequency(long centerFrequency);
+
+    /**
+     * Title line of the state description.
+     */
+    protected abstract String getStateTitle();
+
+    /**
+     * Front end state description, or null if there is no front end.
+     */
+    protected abstract String getFrontEndDescription();
+
+    /**
+     * Front end specific details for the channel source state description.
+     */
+    protected abstract String getChannelDescription(T channelSource);
+
+    @Override
+    public String getStateDescription()
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append(getStateTitle()).append(" Providing [").append(mTunerChannels.size()).append("] Channels");
+        sb.append("\n\tTuner Controller Frequency: ").append(mTunerController.getFrequency());
+
+        String frontEnd = getFrontEndDescription();
+
+        if(frontEnd != null)
+        {
+            sb.append("\n\t").append(frontEnd);
+        }
+
+        for(T channelSource: mChannelSources)
+        {
+            sb.append("\n\tChannel [").append(channelSource.getTunerChannel())
+                    .append("] Frequency [").append(channelSource.getFrequency())
+                    .append("] ").append(getChannelDescription(channelSource));
+        }
+
+        return sb.toString();
+    }
+
+    @Override
+    public void stopAllChannels()
+    {
+        mRunning = false;
+
+        List<TunerChannelSource> toStop = new ArrayList<>(mChannelSources);
+
+        for(TunerChannelSource tunerChannelSource: toStop)
+        {
+            MyEventBus.getGlobalEventBus().post(new ChannelStopProcessingRequest(tunerChannelSource));
+        }
+    }
+
+    @Override
+    public SortedSet<TunerChannel> getTunerChannels()
+    {
+        return mTunerChannels;
+    }
+
+    @Override
+    public int getTunerChannelCount()
+    {
+        return mTunerChannels.size();
+    }
+
+    @Override
+    public TunerChannelSource getSource(TunerChannel tunerChannel, ChannelSpecification channelSpecification)
+    {
+        if(!mRunning)
+        {
+            return null;
+        }
+
+        TunerChannelSource source = null;
+
+        try
+        {
+            mTunerController.getFrequencyControllerLock().lock();
+            if(CenterFrequencyCalculator.canTune(tunerChannel, mTunerController, mTunerChannels))
+            {
+                //Attempt to create the channel source first, in case we get a filter design exception
+                T tunerChannelSource = createChannelSource(mChannelSourceEventProcessor, tunerChannel,
+                        mTunerController.getSampleRate(), channelSpecification);
+
+                mChannelSources.add(tunerChannelSource);
+
+                //Add to the channel list and update the tuner center frequency as needed
+                mTunerChannels.add(tunerChannel);
+                updateTunerFrequency();
+
+                //Lock the tuner controller frequency and sample rate
+                mTunerController.setLockedSampleRate(true);
+
+                broadcast(SourceEvent.channelCountChange(getTunerChannelCount()));
+
+                source = tunerChannelSource;
+            }
+        }
+        catch(FilterDesignException fde)
+        {
+            mLog.error("Error creating tuner channel source - couldn't design channel filter", fde);
+        }
+        finally
+        {
+            mTunerController.getFrequencyControllerLock().unlock();
+        }
+
+        return source;
+    }
+
+    @Override
+    public void setErrorMessage(String errorMessage)
+    {
+        for(TunerChannelSource tunerChannelSource: mChannelSources)
+        {
+            tunerChannelSource.setError(errorMessage);
+        }
+    }
+
+    /**
+     * Calculates a new center frequency and updates the tuner center frequency
+     */
+    private void updateTunerFrequency()
+    {
+        if(!mTunerController.isTunedFor(getTunerChannels()))
+        {
+            long centerFrequency = CenterFrequencyCalculator.getCenterFrequency(mTunerController, getTunerChannels());
+
+            if(centerFrequency == CenterFrequencyCalculator.INVALID_FREQUENCY)
+            {
+                mLog.error("Couldn't calculate center frequency for tuner and tuner channels");
+                return;
+            }
+
+            if(centerFrequency != mTunerController.getFrequency())
+            {
+                try
+                {
+                    mTunerController.setFrequency(centerFrequency);
+                }
+                catch(SourceException se)
+                {
+                    mLog.error("Couldn't update tuner center frequency to " + centerFrequency, se);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void process(SourceEvent tunerSourceEvent) throws SourceException
+    {
+        switch(tunerSourceEvent.getEvent())
+        {
+            case NOTIFICATION_FREQUENCY_CHANGE:
+                //Tuner center frequency has changed - update the front end
+                setFrontEndFrequency(tunerSourceEvent.getValue().longValue());
+                break;
+            case NOTIFICATION_FREQUENCY_CORRECTION_CHANGE:
+                //The tuner is self-correcting for PPM error - relay to channels
+                broadcastToChannels(tunerSourceEvent);
+                break;
+            case NOTIFICATION_SAMPLE_RATE_CHANGE:
+            case NOTIFICATION_FREQUENCY_AND_SAMPLE_RATE_LOCKED:
+            case NOTIFICATION_FREQUENCY_AND_SAMPLE_RATE_UNLOCKED:
+                //no-op
+                break;
+            default:
+                mLog.info("Unrecognized Source Event received from tuner: " + tunerSourceEvent);
+        }
+    }
+
+    /**
+     * Broadcasts the source event to any channel
+     */
+    private void broadcastToChannels(SourceEvent sourceEvent)
+    {
+        for(T channelSource : mChannelSources)
+        {
+            try
+            {
+                channelSource.process(sourceEvent);
+            }
+            catch(Exception e)
+            {
+                mLog.error("Error broadcasting source event to channel: " + sourceEvent);
+            }
+        }
+    }
+
+    /**
+     * Adds the channel source to the front end and registers with the tuner to receive sample buffers when this is
+     * the first channel.
+     *
+     * @param channelSource to start
+     */
+    private void startChannelSource(T channelSource)
+    {
+        synchronized(mBufferDispatcher)
+        {
+            double sampleRate = mTunerController.getSampleRate();
+
+            //Create or recreate the front end when the tuner sample rate has changed since the last channel was sourced
+            if(!hasFrontEnd(sampleRate))
+            {
+                if(mBufferDispatcher.isRunning())
+                {
+                    mLog.error("Channelizer cannot be changed to a new sample rate while channels are currently " +
+                            "sourced");
+                    return;
+                }
+
+                mBufferDispatcher.setListener(new MeteredFrontEnd(createFrontEnd(sampleRate,
+                        mTunerController.getFrequency())));
+            }
+
+            addToFrontEnd(channelSource);
+
+            //If this is the first channel, register to start the sample buffers flowing
+            if(!mBufferDispatcher.isRunning())
+            {
+                setFrontEndFrequency(mTunerController.getFrequency());
+                mChannelizerMetrics.register(mTunerController.getTunerType().getLabel(),
+                        mBufferDispatcher::getQueueSize, this::getTunerChannelCount);
+                mBufferDispatcher.start();
+                mTunerController.addBufferListener(mBufferDispatcher);
+            }
+        }
+    }
+
+    /**
+     * Removes the channel source from the front end and deregisters from the tuner when this is the last channel
+     * being sourced.
+     *
+     * @param channelSource to stop
+     */
+    private void stopChannelSource(T channelSource)
+    {
+        synchronized(mBufferDispatcher)
+        {
+            removeFromFrontEnd(channelSource);
+
+            mChannelSources.remove(channelSource);
+            mTunerChannels.remove(channelSource.getTunerChannel());
+
+            //If this is the last/only channel, deregister to stop the sample buffers
+            if(mChannelSources.isEmpty() && mBufferDispatcher.isRunning())
+            {
+                mTunerController.removeBufferListener(mBufferDispatcher);
+                mBufferDispatcher.stop();
+                mChannelizerMetrics.remove();
+                disposeFrontEnd();
+            }
+        }
+    }
+
+    /**
+     * Records the channelizer runtime metrics for each sample buffer processed by the front end.
+     */
+    private class MeteredFrontEnd implements Listener<INativeBuffer>
+    {
+        private Listener<INativeBuffer> mFrontEnd;
+
+        public MeteredFrontEnd(Listener<INativeBuffer> frontEnd)
+        {
+            mFrontEnd = frontEnd;
+        }
+
+        @Override
+        public void receive(INativeBuffer nativeBuffer)
+        {
+            long start = System.nanoTime();
+            mFrontEnd.receive(nativeBuffer);
+            mChannelizerMetrics.record(start, nativeBuffer.sampleCount());
+        }
+    }
+
+    /**
+     * Processes channel source events
+     */
+    public class ChannelSourceEventProcessor implements Listener<SourceEvent>
+    {
+        @Override
+        public void receive(SourceEvent sourceEvent)
+        {
+            switch(sourceEvent.getEvent())
+            {
+                case REQUEST_START_SAMPLE_STREAM:
+                    if(mChannelSourceClass.isInstance(sourceEvent.getSource()))
+                    {
+                        startChannelSource(mChannelSourceClass.cast(sourceEvent.getSource()));
+                    }
+                    break;
+                case REQUEST_STOP_SAMPLE_STREAM:
+                    if(mChannelSourceClass.isInstance(sourceEvent.getSource()))
+                    {
+                        T channelSource = mChannelSourceClass.cast(sourceEvent.getSource());
+                        stopChannelSource(channelSource);
+                        channelSource.dispose();
+
+                        //Unlock the tuner controller if there are no more channels
+                        if(getTunerChannelCount() == 0)
+                        {
+                            mTunerController.setLockedSampleRate(false);
+                        }
+                        broadcast(SourceEvent.channelCountChange(getTunerChannelCount()));
+                    }
+                    break;
+                case NOTIFICATION_MEASURED_FREQUENCY_ERROR_SYNC_LOCKED:
+                    //Rebroadcast so that the tuner source can process this event
+                    broadcast(sourceEvent);
+                    break;
+                case NOTIFICATION_CHANNEL_COUNT_CHANGE:
+                    //no-op
+                    break;
+                default:
+                    mLog.info("Unrecognized Source Event received from channel: " + sourceEvent);
+                    break;
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.source.tuner.manager;
+
+import io.github.dsheirer.buffer.INativeBuffer;
+import io.github.dsheirer.dsp.filter.channelizer.FastConvolutionChannelSource;
+import io.github.dsheirer.dsp.filter.channelizer.FastConvolutionChannelizer;
+import io.github.dsheirer.dsp.filter.design.FilterDesignException;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.sample.complex.InterleavedComplexSamples;
+import io.github.dsheirer.source.SourceEvent;
+import io.github.dsheirer.source.tuner.TunerController;
+import io.github.dsheirer.source.tuner.channel.ChannelSpecification;
+import io.github.dsheirer.source.tuner.channel.TunerChannel;
+import java.util.Iterator;
+import org.apache.commons.math3.util.FastMath;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Channel provider using an overlap-save fast convolution channelizer.  The channelizer performs one forward FFT per
+ * block of tuner samples and each channel source performs a small inverse FFT for its own channel, at an arbitrary
+ * channel center frequency.  Processing cost scales with the number of active channels rather than the number of
+ * channels in the tuner bandwidth.
+ *
+ * Note: this is a separate channel source manager rather than a channelizer behind the PolyphaseChannelManager because
+ * the polyphase manager is built around a fixed grid of channelizer bins, with channel sources that recombine one or
+ * two adjacent bins through a synthesis filter.  Fast convolution channels are cut from the forward FFT at any center
+ * frequency and bandwidth, so there is no bin grid to share with the polyphase channel calculator.
+ */
+public class FastConvolutionChannelSourceManager
+        extends AbstractSharedChannelSourceManager<FastConvolutionChannelSource>
+{
+    private final static Logger mLog = LoggerFactory.getLogger(FastConvolutionChannelSourceManager.class);
+
+    private NativeBufferReceiver mNativeBufferReceiver = new NativeBufferReceiver();
+    private FastConvolutionChannelizer mChannelizer;
+
+    /**
+     * Constructs an instance
+     * @param tunerController with a center tuned frequency that will be managed by this instance
+     */
+    public FastConvolutionChannelSourceManager(TunerController tunerController)
+    {
+        super(tunerController, FastConvolutionChannelSource.class, "sdrtrunk fast convolution buffer processor",
+            "fast-convolution");
+    }
+
+    @Override
+    protected FastConvolutionChannelSource createChannelSource(Listener<SourceEvent> producerSourceEventListener,
+                                                               TunerChannel tunerChannel, double sampleRate,
+                                                               ChannelSpecification channelSpecification)
+            throws FilterDesignException
+    {
+        return new FastConvolutionChannelSource(producerSourceEventListener, tunerChannel, sampleRate,
+                channelSpecification);
+    }
+
+    @Override
+    protected boolean hasFrontEnd(double sampleRate)
+    {
+        return mChannelizer != null && FastMath.abs(mChannelizer.getSampleRate() - sampleRate) <= 0.5;
+    }
+
+    @Override
+    protected Listener<INativeBuffer> createFrontEnd(double sampleRate, long centerFrequency)
+    {
+        mChannelizer = new FastConvolutionChannelizer(sampleRate, centerFrequency);
+        return mNativeBufferReceiver;
+    }
+
+    @Override
+    protected void disposeFrontEnd()
+    {
+        mChannelizer = null;
+    }
+
+    @Override
+    protected void addToFrontEnd(FastConvolutionChannelSource channelSource)
+    {
+        mChannelizer.addListener(channelSource);
+    }
+
+    @Override
+    protected void removeFromFrontEnd(FastConvolutionChannelSource channelSource)
+    {
+        if(mChannelizer != null)
+        {
+            mChannelizer.removeListener(channelSource);
+        }
+    }
+
+    @Override
+    protected void setFrontEndFrequency(long centerFrequency)
+    {
+        //Tuner center frequency has changed - channels update bin selection from the labeled blocks
+        FastConvolutionChannelizer channelizer = mChannelizer;
+
+        if(channelizer != null)
+        {
+            channelizer.setCenterFrequency(centerFrequency);
+        }
+    }
+
+    @Override
+    protected String getStateTitle()
+    {
+        return "Fast Convolution Channel Source Manager";
+    }
+
+    @Override
+    protected String getFrontEndDescription()
+    {
+        FastConvolutionChannelizer channelizer = mChannelizer;
+        return channelizer != null ? "Channelizer FFT Size: " + channelizer.getFFTSize() : null;
+    }
+
+    @Override
+    protected String getChannelDescription(FastConvolutionChannelSource channelSource)
+    {
+        return "Center Bin [" + channelSource.getCenterBin() + "]";
+    }
+
+    /**
+     * Transfers native buffers from the tuner to the channelizer on the buffer dispatcher thread.
+     */
+    public class NativeBufferReceiver implements Listener<INativeBuffer>
+    {
+        @Override
+        public void receive(INativeBuffer nativeBuffer)
+        {
+            FastConvolutionChannelizer channelizer = mChannelizer;
+
+            if(channelizer != null)
+            {
+                Iterator<InterleavedComplexSamples> iterator = nativeBuffer.iteratorInterleaved();
+
+                while(iterator.hasNext())
+                {
+                    try
+                    {
+                        channelizer.receive(iterator.next());
+                    }
+                    catch(Throwable throwable)
+                    {
+                        mLog.error("Error", throwable);
+                    }
+                }
+            }
+        }
+    }
+}
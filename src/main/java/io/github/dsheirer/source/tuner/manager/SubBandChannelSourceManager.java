@@ -0,0 +1,128 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.source.tuner.manager;
+
+import io.github.dsheirer.buffer.INativeBuffer;
+import io.github.dsheirer.dsp.filter.subband.SubBandDecimationTree;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.source.SourceEvent;
+import io.github.dsheirer.source.tuner.TunerController;
+import io.github.dsheirer.source.tuner.channel.ChannelSpecification;
+import io.github.dsheirer.source.tuner.channel.SubBandTunerChannelSource;
+import io.github.dsheirer.source.tuner.channel.TunerChannel;
+import org.apache.commons.math3.util.FastMath;
+
+/**
+ * Channel provider for heterodyne and decimate method of channel provisioning using a shared sub-band decimation
+ * tree.  The tree performs the full sample rate mix and decimate stages once for each sub-band that is in use and
+ * each channel source taps into the tree at an intermediate sample rate.
+ *
+ * Note: unlike the HeterodyneChannelSourceManager, channels are not preloaded with delayed sample buffers because the
+ * shared decimation stages can only process the live sample stream.
+ */
+public class SubBandChannelSourceManager extends AbstractSharedChannelSourceManager<SubBandTunerChannelSource>
+{
+    private SubBandDecimationTree mSubBandDecimationTree;
+
+    /**
+     * Constructs an instance
+     * @param tunerController with a center tuned frequency that will be managed by this instance
+     */
+    public SubBandChannelSourceManager(TunerController tunerController)
+    {
+        super(tunerController, SubBandTunerChannelSource.class, "sdrtrunk sub-band buffer processor",
+            "sub-band");
+    }
+
+    @Override
+    protected SubBandTunerChannelSource createChannelSource(Listener<SourceEvent> producerSourceEventListener,
+                                                            TunerChannel tunerChannel, double sampleRate,
+                                                            ChannelSpecification channelSpecification)
+    {
+        return new SubBandTunerChannelSource(producerSourceEventListener, tunerChannel, sampleRate,
+                channelSpecification);
+    }
+
+    @Override
+    protected boolean hasFrontEnd(double sampleRate)
+    {
+        return mSubBandDecimationTree != null &&
+                FastMath.abs(mSubBandDecimationTree.getSampleRate() - sampleRate) <= 0.5;
+    }
+
+    @Override
+    protected Listener<INativeBuffer> createFrontEnd(double sampleRate, long centerFrequency)
+    {
+        mSubBandDecimationTree = new SubBandDecimationTree(sampleRate, centerFrequency);
+        return mSubBandDecimationTree;
+    }
+
+    @Override
+    protected void disposeFrontEnd()
+    {
+        mSubBandDecimationTree = null;
+    }
+
+    @Override
+    protected void addToFrontEnd(SubBandTunerChannelSource channelSource)
+    {
+        mSubBandDecimationTree.addTap(channelSource);
+    }
+
+    @Override
+    protected void removeFromFrontEnd(SubBandTunerChannelSource channelSource)
+    {
+        if(mSubBandDecimationTree != null)
+        {
+            mSubBandDecimationTree.removeTap(channelSource);
+        }
+    }
+
+    @Override
+    protected void setFrontEndFrequency(long centerFrequency)
+    {
+        //Tuner center frequency has changed - reassign channels to sub-bands
+        SubBandDecimationTree tree = mSubBandDecimationTree;
+
+        if(tree != null)
+        {
+            tree.setCenterFrequency(centerFrequency);
+        }
+    }
+
+    @Override
+    protected String getStateTitle()
+    {
+        return "Sub-Band Channel Source Manager";
+    }
+
+    @Override
+    protected String getFrontEndDescription()
+    {
+        SubBandDecimationTree tree = mSubBandDecimationTree;
+        return tree != null ? tree.getStateDescription() : null;
+    }
+
+    @Override
+    protected String getChannelDescription(SubBandTunerChannelSource channelSource)
+    {
+        return "Sub-Band Rate [" + channelSource.getSubBandSampleRate() + "] Mixer [" +
+                channelSource.getMixerFrequency() + "]";
+    }
+}
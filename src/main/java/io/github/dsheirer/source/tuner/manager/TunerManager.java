@@ -19,6 +19,7 @@
 
 package io.github.dsheirer.source.tuner.manager;
 
+import io.github.dsheirer.controller.NamingThreadFactory;
 import io.github.dsheirer.gui.preference.tuner.RspDuoSelectionMode;
 import io.github.dsheirer.preference.UserPreferences;
 import io.github.dsheirer.preference.source.ChannelizerType;
@@ -50,6 +51,9 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
@@ -70,6 +74,7 @@ import org.usb4java.LibUsb;
 public class TunerManager implements IDiscoveredTunerStatusListener
 {
     private static final Logger mLog = LoggerFactory.getLogger(TunerManager.class);
+    private static final int MAXIMUM_PARALLEL_TUNER_STARTUP = 8;
     private UserPreferences mUserPreferences;
     private DiscoveredTunerModel mDiscoveredTunerModel = new DiscoveredTunerModel();
     private TunerConfigurationManager mTunerConfigurationManager;
@@ -110,6 +115,7 @@ public class TunerManager implements IDiscoveredTunerStatusListener
     public void start()
     {
         mLog.info("Discovering tuners ...");
+        long start = System.currentTimeMillis();
         int api = LibUsb.getApiVersion();
 
         mLog.info("LibUsb API Version: " + ((api >> 24) & 0xFF) + "." + ((api >> 16) & 0xFF) + "." + (api & 0xFFFF));
@@ -136,8 +142,14 @@ public class TunerManager implements IDiscoveredTunerStatusListener
             mHotplugEventSupport.start();
         }
 
+        long usbComplete = System.currentTimeMillis();
         discoverSdrPlayTuners();
+        long sdrplayComplete = System.currentTimeMillis();
         discoverRecordingTuners();
+        long end = System.currentTimeMillis();
+
+        mLog.info("Tuner discovery completed in " + (end - start) + " ms - USB [" + (usbComplete - start) +
+            " ms] SDRplay [" + (sdrplayComplete - usbComplete) + " ms] Recordings [" + (end - sdrplayComplete) + " ms]");
     }
 
     /**
@@ -267,11 +279,76 @@ public class TunerManager implements IDiscoveredTunerStatusListener
                 mLog.error("LibUsb - error during USB device discovery", e);
             }
 
-            for(DiscoveredUSBTuner discoveredUSBTuner: discoveredUSBTuners)
+            startUsbTuners(discoveredUSBTuners);
+        }
+    }
+
+    /**
+     * Starts the discovered USB tuners in parallel and then adds them to the tuner model in discovery order.  Each
+     * USB tuner is independent (separate LibUsb device context) and tuner startup is dominated by USB control
+     * transfers for the embedded tuner register setup, so starting tuners concurrently reduces startup time to
+     * roughly that of the slowest tuner.
+     * @param discoveredUSBTuners to start
+     */
+    private void startUsbTuners(List<DiscoveredUSBTuner> discoveredUSBTuners)
+    {
+        List<DiscoveredUSBTuner> tunersToStart = discoveredUSBTuners.stream()
+            .filter(tuner -> !mDiscoveredTunerModel.hasUsbTuner(tuner.getBus(), tuner.getPortAddress())).toList();
+
+        if(tunersToStart.size() <= 1)
+        {
+            tunersToStart.forEach(this::startAndConfigureTuner);
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        int threads = Math.min(tunersToStart.size(), MAXIMUM_PARALLEL_TUNER_STARTUP);
+        ExecutorService executorService = Executors.newFixedThreadPool(threads,
+            new NamingThreadFactory("sdrtrunk tuner startup"));
+
+        try
+        {
+            List<Callable<Void>> tasks = new ArrayList<>();
+
+            for(DiscoveredUSBTuner tuner: tunersToStart)
             {
-                addUsbTuner(discoveredUSBTuner);
+                tasks.add(() -> {
+                    long tunerStart = System.currentTimeMillis();
+
+                    try
+                    {
+                        startTuner(tuner);
+                    }
+                    catch(Exception e)
+                    {
+                        mLog.error("Error starting tuner: " + tuner, e);
+                    }
+
+                    mLog.info("Tuner: " + tuner + " - startup completed in " +
+                        (System.currentTimeMillis() - tunerStart) + " ms");
+                    return null;
+                });
             }
+
+            executorService.invokeAll(tasks);
+        }
+        catch(InterruptedException ie)
+        {
+            mLog.warn("Interrupted while starting USB tuners");
+            Thread.currentThread().interrupt();
+        }
+        finally
+        {
+            executorService.shutdown();
+        }
+
+        for(DiscoveredUSBTuner tuner: tunersToStart)
+        {
+            mDiscoveredTunerModel.addDiscoveredTuner(tuner);
         }
+
+        mLog.info("Started [" + tunersToStart.size() + "] USB tuners using [" + threads + "] threads in " +
+            (System.currentTimeMillis() - start) + " ms");
     }
 
     /**
@@ -301,6 +378,16 @@ public class TunerManager implements IDiscoveredTunerStatusListener
      * @param discoveredTuner to add and configure
      */
     private void startAndConfigureTuner(DiscoveredTuner discoveredTuner)
+    {
+        startTuner(discoveredTuner);
+        mDiscoveredTunerModel.addDiscoveredTuner(discoveredTuner);
+    }
+
+    /**
+     * Starts and configures the tuner, unless the user has disabled the tuner, without adding it to the tuner model.
+     * @param discoveredTuner to start and configure
+     */
+    private void startTuner(DiscoveredTuner discoveredTuner)
     {
         discoveredTuner.addTunerStatusListener(this);
 
@@ -316,8 +403,6 @@ public class TunerManager implements IDiscoveredTunerStatusListener
             //Attempt to start the discovered tuner and determine the tuner type
             tunerStatusUpdated(discoveredTuner, TunerStatus.DISABLED, TunerStatus.ENABLED);
         }
-
-        mDiscoveredTunerModel.addDiscoveredTuner(discoveredTuner);
     }
 
     /**
@@ -25,9 +25,11 @@ import io.github.dsheirer.source.tuner.ITunerErrorListener;
 import io.github.dsheirer.source.tuner.Tuner;
 import io.github.dsheirer.source.tuner.TunerClass;
 import io.github.dsheirer.source.tuner.TunerType;
+import io.github.dsheirer.source.tuner.manager.FastConvolutionChannelSourceManager;
 import io.github.dsheirer.source.tuner.manager.HeterodyneChannelSourceManager;
 import io.github.dsheirer.source.tuner.manager.PassThroughSourceManager;
 import io.github.dsheirer.source.tuner.manager.PolyphaseChannelSourceManager;
+import io.github.dsheirer.source.tuner.manager.SubBandChannelSourceManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -69,6 +71,14 @@ public class RecordingTuner extends Tuner
             {
                 setChannelSourceManager(new HeterodyneChannelSourceManager(getTunerController()));
             }
+            else if(channelizerType == ChannelizerType.SUB_BAND)
+            {
+                setChannelSourceManager(new SubBandChannelSourceManager(getTunerController()));
+            }
+            else if(channelizerType == ChannelizerType.FAST_CONVOLUTION)
+            {
+                setChannelSourceManager(new FastConvolutionChannelSourceManager(getTunerController()));
+            }
             else
             {
                 throw new IllegalArgumentException("Unrecognized channelizer type: " + channelizerType);
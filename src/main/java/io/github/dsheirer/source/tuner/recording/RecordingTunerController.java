@@ -96,6 +96,12 @@ public class RecordingTunerController extends TunerController
                 return;
             }
 
+            //SigMF recordings specify the center frequency of the capture
+            if(mComplexWaveSource.getFrequency() > 0)
+            {
+                mCenterFrequency = mComplexWaveSource.getFrequency();
+            }
+
             try
             {
                 mFrequencyController.setFrequency(mCenterFrequency);
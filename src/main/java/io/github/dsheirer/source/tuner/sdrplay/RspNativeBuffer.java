@@ -20,9 +20,12 @@
 package io.github.dsheirer.source.tuner.sdrplay;
 
 import io.github.dsheirer.buffer.AbstractNativeBuffer;
+import io.github.dsheirer.buffer.NativeSampleFormat;
 import io.github.dsheirer.sample.complex.ComplexSamples;
 import io.github.dsheirer.sample.complex.InterleavedComplexSamples;
+import java.nio.ByteBuffer;
 import java.util.Iterator;
+import java.nio.ByteOrder;
 
 /**
  * Native buffer implementation for RSP tuner I/Q sample buffers.
@@ -73,6 +76,27 @@ public class RspNativeBuffer extends AbstractNativeBuffer
         return mISamples.length * 2;
     }
 
+    @Override
+    public NativeSampleFormat getNativeSampleFormat()
+    {
+        return NativeSampleFormat.CI16_LE;
+    }
+
+    @Override
+    public void writeNativeSamples(ByteBuffer buffer)
+    {
+        ByteOrder order = buffer.order();
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        for(int x = 0; x < mISamples.length; x++)
+        {
+            buffer.putShort(mISamples[x]);
+            buffer.putShort(mQSamples[x]);
+        }
+
+        buffer.order(order);
+    }
+
     /**
      * Iterator providing (non-interleaved) complex sample buffers
      */
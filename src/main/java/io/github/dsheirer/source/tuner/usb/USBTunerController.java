@@ -20,6 +20,8 @@ package io.github.dsheirer.source.tuner.usb;
 
 import io.github.dsheirer.buffer.INativeBuffer;
 import io.github.dsheirer.buffer.INativeBufferFactory;
+import io.github.dsheirer.metrics.Counter;
+import io.github.dsheirer.metrics.MetricsRegistry;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.source.SourceException;
 import io.github.dsheirer.source.tuner.ITunerErrorListener;
@@ -56,6 +58,13 @@ public abstract class USBTunerController extends TunerController
     protected static final byte USB_BULK_TRANSFER_ENDPOINT = (byte) 0x81;
     private static final long USB_BULK_TRANSFER_TIMEOUT_MS = 2000l;
 
+    /**
+     * Metric labels for LibUsb transfer status values, indexed by the status value (LIBUSB_TRANSFER_COMPLETED = 0
+     * through LIBUSB_TRANSFER_OVERFLOW = 6)
+     */
+    private static final String[] TRANSFER_STATUS_LABELS = {"completed", "error", "timed_out", "cancelled", "stall",
+        "no_device", "overflow"};
+
     protected int mBus;
     protected String mPortAddress;
     private Context mDeviceContext = new Context();
@@ -317,6 +326,7 @@ public abstract class USBTunerController extends TunerController
             try
             {
                 prepareStreaming();
+                mTransferManager.registerMetrics();
                 List<Transfer> transfers = mTransferManager.getTransfers();
                 mEventProcessor.start();
                 mTransferManager.setAutoResubmitTransfers(true);
@@ -531,6 +541,58 @@ public abstract class USBTunerController extends TunerController
         private int mTransferErrorCount = 0;
         private List<Transfer> mErrorTransfers = new ArrayList<>();
         private int mResubmitFailureLogCount = 0;
+        private Counter[] mTransferStatusCounters;
+        private Counter mTransferBytesCounter;
+        private Counter mSubmitErrorCounter;
+
+        /**
+         * Registers (or reacquires) the runtime metrics for this tuner.  Metrics are labeled with the tuner type and
+         * the USB bus/port so that multiple tuners of the same type can be distinguished.
+         */
+        private void registerMetrics()
+        {
+            if(mTransferStatusCounters == null)
+            {
+                String tuner = getTunerType().name() + " " + mBus + ":" + mPortAddress;
+                mTransferStatusCounters = new Counter[TRANSFER_STATUS_LABELS.length + 1];
+
+                for(int x = 0; x < mTransferStatusCounters.length; x++)
+                {
+                    String status = x < TRANSFER_STATUS_LABELS.length ? TRANSFER_STATUS_LABELS[x] : "other";
+                    mTransferStatusCounters[x] = MetricsRegistry.counter("usb_transfers_total",
+                        "USB transfers completed by the tuner by transfer status", "tuner", tuner, "status", status);
+                }
+
+                mTransferBytesCounter = MetricsRegistry.counter("usb_transfer_bytes_total",
+                    "Sample bytes received from the tuner over USB", "tuner", tuner);
+                mSubmitErrorCounter = MetricsRegistry.counter("usb_transfer_submit_errors_total",
+                    "USB transfer (re)submissions rejected by LibUsb", "tuner", tuner);
+            }
+        }
+
+        /**
+         * Updates the transfer status counter for the completed transfer
+         */
+        private void countTransfer(int status, int length)
+        {
+            if(mTransferStatusCounters != null)
+            {
+                int index = (status >= 0 && status < TRANSFER_STATUS_LABELS.length) ? status : TRANSFER_STATUS_LABELS.length;
+                mTransferStatusCounters[index].increment();
+                mTransferBytesCounter.add(length);
+            }
+        }
+
+        /**
+         * Updates the submit error counter
+         */
+        private void countSubmitError()
+        {
+            if(mSubmitErrorCounter != null)
+            {
+                mSubmitErrorCounter.increment();
+            }
+        }
 
         /**
          * Creates USB Transfers to carry the streaming sample data.  Transfer buffers are backed by native memory
@@ -620,6 +682,7 @@ public abstract class USBTunerController extends TunerController
                     {
                         mErrorTransfers.add(transfer);
                         mTransferErrorCount++;
+                        countSubmitError();
 
                         //Only log this if more than half of the total transfer buffers are in error-holding
                         if(mErrorTransfers.size() >= (mAvailableTransfers.size() / 2))
@@ -636,6 +699,7 @@ public abstract class USBTunerController extends TunerController
             {
                 mErrorTransfers.add(transfer);
                 mTransferErrorCount++;
+                countSubmitError();
 
                 //Only log this if more than half of the total transfer buffers are in error-holding
                 if(mErrorTransfers.size() >= (mAvailableTransfers.size() / 2))
@@ -702,6 +766,7 @@ public abstract class USBTunerController extends TunerController
         public void processTransfer(Transfer transfer)
         {
             mInProgressTransfers.remove(transfer);
+            countTransfer(transfer.status(), transfer.actualLength());
 
             switch(transfer.status())
             {
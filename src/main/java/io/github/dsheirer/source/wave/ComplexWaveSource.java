@@ -20,6 +20,8 @@ package io.github.dsheirer.source.wave;
 
 import io.github.dsheirer.buffer.FloatNativeBuffer;
 import io.github.dsheirer.buffer.INativeBuffer;
+import io.github.dsheirer.buffer.NativeSampleFormat;
+import io.github.dsheirer.record.sigmf.SigMFMetadata;
 import io.github.dsheirer.sample.ConversionUtils;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.sample.SampleType;
@@ -28,8 +30,12 @@ import io.github.dsheirer.source.IFrameLocationListener;
 import io.github.dsheirer.source.Source;
 import io.github.dsheirer.source.SourceEvent;
 import io.github.dsheirer.util.ThreadPool;
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -42,6 +48,10 @@ import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.UnsupportedAudioFileException;
 
+/**
+ * Complex (I/Q) sample file source.  Supports 2-channel 16-bit WAVE recordings and SigMF recordings (.sigmf-data or
+ * .sigmf-meta file) of cu8, ci8 or ci16_le native samples.
+ */
 public class ComplexWaveSource extends Source implements IControllableFileSource, AutoCloseable
 {
     private final static Logger mLog = LoggerFactory.getLogger(ComplexWaveSource.class);
@@ -56,6 +66,7 @@ public class ComplexWaveSource extends Source implements IControllableFileSource
     private File mFile;
     private boolean mAutoReplay;
     private ScheduledFuture<?> mReplayController;
+    private NativeSampleFormat mSampleFormat;
 
     /**
      * Constructs an instance with optional auto-replay at near real time.
@@ -219,8 +230,13 @@ public class ComplexWaveSource extends Source implements IControllableFileSource
      */
     public void open() throws IOException, UnsupportedAudioFileException
     {
-        if(mInputStream == null)
+        if(mInputStream == null && SigMFMetadata.isSigMF(mFile))
         {
+            openSigMF();
+        }
+        else if(mInputStream == null)
+        {
+            mSampleFormat = null;
             mInputStream = AudioSystem.getAudioInputStream(mFile);
 
             AudioFormat format = mInputStream.getFormat();
@@ -240,6 +256,54 @@ public class ComplexWaveSource extends Source implements IControllableFileSource
         }
     }
 
+    /**
+     * Opens a SigMF recording, using the sample format, sample rate and center frequency from the metadata file.
+     */
+    private void openSigMF() throws IOException
+    {
+        Path path = mFile.toPath();
+        SigMFMetadata metadata = SigMFMetadata.read(SigMFMetadata.getMetaPath(path));
+        Path dataPath = SigMFMetadata.getDataPath(path);
+
+        mSampleFormat = metadata.getSampleFormat();
+        mBytesPerFrame = mSampleFormat.getBytesPerSample();
+
+        if(metadata.getFrequency() > 0)
+        {
+            mFrequency = metadata.getFrequency();
+        }
+
+        AudioFormat.Encoding encoding = mSampleFormat.isSigned() ? AudioFormat.Encoding.PCM_SIGNED :
+                AudioFormat.Encoding.PCM_UNSIGNED;
+        float sampleRate = (float)metadata.getSampleRate();
+        AudioFormat format = new AudioFormat(encoding, sampleRate, mSampleFormat.getBytesPerComponent() * 8, 2,
+                mBytesPerFrame, sampleRate, false);
+        long frames = Files.size(dataPath) / mBytesPerFrame;
+
+        mInputStream = new AudioInputStream(new BufferedInputStream(new FileInputStream(dataPath.toFile()), 1048576),
+                format, frames);
+
+        /* Broadcast that we're at frame location 0 */
+        broadcast(0);
+    }
+
+    /**
+     * Converts the sample bytes read from the file into interleaved float samples
+     */
+    private float[] convert(byte[] buffer)
+    {
+        if(mSampleFormat == NativeSampleFormat.CU8)
+        {
+            return ConversionUtils.convertFromUnsigned8BitSamples(buffer);
+        }
+        else if(mSampleFormat == NativeSampleFormat.CI8)
+        {
+            return ConversionUtils.convertFromSigned8BitSamples(buffer);
+        }
+
+        return ConversionUtils.convertFromSigned16BitSamples(buffer);
+    }
+
     /**
      * Reads the number of frames and sends a buffer to the listener
      */
@@ -277,7 +341,7 @@ public class ComplexWaveSource extends Source implements IControllableFileSource
                     buffer = Arrays.copyOf(buffer, samplesRead);
                 }
 
-                float[] samples = ConversionUtils.convertFromSigned16BitSamples(buffer);
+                float[] samples = convert(buffer);
                 mListener.receive(new FloatNativeBuffer(samples, System.currentTimeMillis(),
                         mInputStream.getFormat().getSampleRate() / 1000.0f));
             }
@@ -334,6 +398,20 @@ public class ComplexWaveSource extends Source implements IControllableFileSource
      */
     public static boolean supports(File file)
     {
+        if(SigMFMetadata.isSigMF(file))
+        {
+            try
+            {
+                Path path = file.toPath();
+                SigMFMetadata.read(SigMFMetadata.getMetaPath(path));
+                return Files.exists(SigMFMetadata.getDataPath(path));
+            }
+            catch(Exception e)
+            {
+                return false;
+            }
+        }
+
         try(AudioInputStream ais = AudioSystem.getAudioInputStream(file))
         {
             AudioFormat format = ais.getFormat();
@@ -19,16 +19,14 @@
 package io.github.dsheirer.spectrum;
 
 import io.github.dsheirer.buffer.INativeBuffer;
-import io.github.dsheirer.controller.NamingThreadFactory;
 import io.github.dsheirer.dsp.window.WindowFactory;
 import io.github.dsheirer.dsp.window.WindowType;
 import io.github.dsheirer.properties.SystemProperties;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.spectrum.converter.DFTResultsConverter;
+import io.github.dsheirer.util.ThreadPool;
 import java.io.IOException;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -39,6 +37,10 @@ import org.slf4j.LoggerFactory;
 /**
  * Processes both complex samples or float samples and dispatches a float array of DFT results, using configurable fft
  * size and output dispatch timelines.
+ *
+ * The DFT calculation task runs on the shared scheduled thread pool and reuses a pair of pre-allocated sample arrays
+ * that are only reallocated when the DFT size changes.  Incoming sample buffers are ignored and DFT calculations are
+ * skipped whenever none of the registered converters have an active listener (e.g. display panels not showing).
  */
 public class ComplexDftProcessor<T extends INativeBuffer> implements Listener<T>, IDFTWidthChangeProcessor
 {
@@ -54,10 +56,10 @@ public class ComplexDftProcessor<T extends INativeBuffer> implements Listener<T>
     private int mFrameRate;
     private AtomicBoolean mRunning = new AtomicBoolean();
     private ScheduledFuture<?> mProcessorTaskHandle;
-    private ScheduledExecutorService mExecutorService = Executors.newSingleThreadScheduledExecutor(new NamingThreadFactory("sdrtrunk dft processor"));
     private CopyOnWriteArrayList<DFTResultsConverter> mListeners = new CopyOnWriteArrayList<>();
     private NativeBufferManager mDftBufferManager = new NativeBufferManager(mDFTSize.getSize() * 2);
     private float[] mPreviousSamples = new float[mDFTSize.getSize() * 2];
+    private float[] mCurrentSamples = new float[mDFTSize.getSize() * 2];
 
     public ComplexDftProcessor()
     {
@@ -130,7 +132,7 @@ public class ComplexDftProcessor<T extends INativeBuffer> implements Listener<T>
             int initialDelay = 0;
             int period = (int) (1000 / mFrameRate);
 
-            mProcessorTaskHandle = mExecutorService.scheduleAtFixedRate(new DFTCalculationTask(), initialDelay, period,
+            mProcessorTaskHandle = ThreadPool.SCHEDULED.scheduleAtFixedRate(new DFTCalculationTask(), initialDelay, period,
                 TimeUnit.MILLISECONDS);
         }
     }
@@ -157,16 +159,40 @@ public class ComplexDftProcessor<T extends INativeBuffer> implements Listener<T>
     }
 
     /**
-     * Places the sample into a transfer queue for future processing.
+     * Places the sample into a transfer queue for future processing, when there is demand for DFT results.
      */
     @Override
     public void receive(T buffer)
     {
-        mDftBufferManager.add(buffer);
+        if(hasActiveConverters())
+        {
+            mDftBufferManager.add(buffer);
+        }
+    }
+
+    /**
+     * Indicates if any of the registered converters have an active listener that needs DFT results.
+     */
+    private boolean hasActiveConverters()
+    {
+        for(DFTResultsConverter converter: mListeners)
+        {
+            if(converter.hasActiveListeners())
+            {
+                return true;
+            }
+        }
+
+        return false;
     }
 
     private void calculate()
     {
+        if(!hasActiveConverters())
+        {
+            return;
+        }
+
         //We always send the previous calculated samples - this should improve the screen rendering since the frame
         //rate will always occur on an even rhythm.  Any delays caused by processing will be absorbed and not impact
         //the screen rendering.
@@ -175,10 +201,14 @@ public class ComplexDftProcessor<T extends INativeBuffer> implements Listener<T>
         try
         {
             //If this throws an IO exception, the buffer queue is (temporarily) empty and we return from the method
-            float[] samples = mDftBufferManager.get(mDFTSize.getSize());
-            WindowFactory.apply(mWindow, samples);
-            mFFT.complexForward(samples);
-            mPreviousSamples = samples;
+            mDftBufferManager.get(mCurrentSamples);
+            WindowFactory.apply(mWindow, mCurrentSamples);
+            mFFT.complexForward(mCurrentSamples);
+
+            //Swap the arrays so that the current results are dispatched on the next frame
+            float[] swap = mPreviousSamples;
+            mPreviousSamples = mCurrentSamples;
+            mCurrentSamples = swap;
         }
         catch(IOException ioe)
         {
@@ -248,6 +278,8 @@ public class ComplexDftProcessor<T extends INativeBuffer> implements Listener<T>
             mDFTSize = mNewDFTSize;
             updateWindow();
             mFFT = new FloatFFT_1D(mDFTSize.getSize());
+            mPreviousSamples = new float[mDFTSize.getSize() * 2];
+            mCurrentSamples = new float[mDFTSize.getSize() * 2];
         }
     }
 
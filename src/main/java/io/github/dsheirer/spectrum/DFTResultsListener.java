@@ -23,4 +23,16 @@ package io.github.dsheirer.spectrum;
 public interface DFTResultsListener
 {
 	public void receive( float[] results );
+
+	/**
+	 * Indicates if this listener currently needs DFT results (e.g. it is
+	 * visible on screen).  DFT processing is suspended when no listeners are
+	 * active.  The results array may be reused by the producer after this
+	 * listener's receive() method returns, so listeners must copy any values
+	 * that they retain.
+	 */
+	default boolean isActive()
+	{
+		return true;
+	}
 }
@@ -126,11 +126,11 @@ public class SpectrumPanel extends JPanel implements DFTResultsListener, Setting
             currentFFTBins = new float[currentFFTBins.length];
         }
 
-        //Construct and/or resize our DFT results variables
+        //Construct and/or resize our DFT results variables.  The converter reuses the results array, so we keep a copy.
         if(mDisplayFFTBins == null ||
             mDisplayFFTBins.length != currentFFTBins.length)
         {
-            mDisplayFFTBins = currentFFTBins;
+            mDisplayFFTBins = Arrays.copyOf(currentFFTBins, currentFFTBins.length);
         }
 
         //Apply smoothing across the bins of the DFT results
@@ -149,12 +149,23 @@ public class SpectrumPanel extends JPanel implements DFTResultsListener, Setting
         }
         else
         {
+            //The smoothing filter returns a new array, so swap the reference rather than overwriting the array
+            //that may be painting on the event dispatch thread
             mDisplayFFTBins = smoothedBins;
         }
 
         repaint();
     }
 
+    /**
+     * DFT results are only needed while this panel is showing on screen.
+     */
+    @Override
+    public boolean isActive()
+    {
+        return isShowing();
+    }
+
     @Override
     public void paintComponent(Graphics g)
     {
@@ -24,8 +24,9 @@ import io.github.dsheirer.settings.Setting;
 import io.github.dsheirer.settings.SettingChangeListener;
 import io.github.dsheirer.settings.SettingsManager;
 import java.awt.Color;
-import java.awt.EventQueue;
+import java.awt.DisplayMode;
 import java.awt.Graphics;
+import java.awt.GraphicsEnvironment;
 import java.awt.Graphics2D;
 import java.awt.Image;
 import java.awt.Point;
@@ -39,6 +40,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.swing.JPanel;
+import javax.swing.Timer;
 
 public class WaterfallPanel extends JPanel implements DFTResultsListener,
     Pausable,
@@ -52,11 +54,26 @@ public class WaterfallPanel extends JPanel implements DFTResultsListener,
     private static DecimalFormat CURSOR_FORMAT = new DecimalFormat("0.00000");
     private static final String PAUSED = "PAUSED - Right Click to Unpause";
     private static final String DISABLED = "DISABLED - Right Click to Select a Tuner";
+    private static final int DEFAULT_REFRESH_RATE = 60;
 
+    //Ring of pixel rows shared between the DFT thread and the swing event thread, guarded by mRingLock.  The newest row
+    //is at mRingHead and older rows follow it, wrapping around the end of the array.
+    private final Object mRingLock = new Object();
     private byte[] mPixels;
+    private int mRingWidth = 4096;
+    private int mRingHead = 0;
+    private int mDirtyRows = 0;
+    private boolean mResetRequired = false;
+
+    //Reusable row buffer, accessed only by the DFT results thread
+    private byte[] mRowBuffer = new byte[0];
+
+    //Display state, accessed only by the swing event thread
     private byte[] mPausedPixels;
+    private int mDisplayHead = 0;
     private int mDFTSize = 4096;
     private int mImageHeight = 700;
+    private Timer mRefreshTimer;
     private MemoryImageSource mMemoryImageSource;
     private ColorModel mColorModel = WaterfallColorModel.getDefaultColorModel();
     private Color mColorSpectrumCursor;
@@ -85,7 +102,42 @@ public class WaterfallPanel extends JPanel implements DFTResultsListener,
         mSettingsManager = settingsManager;
         mSettingsManager.addListener(this);
         mColorSpectrumCursor = getColor(ColorSettingName.SPECTRUM_CURSOR);
+        mPixels = new byte[mRingWidth * mImageHeight];
         reset();
+
+        //Pixel rows are pushed to the display at most once per display refresh, regardless of the DFT frame rate
+        mRefreshTimer = new Timer(getRefreshInterval(), e -> refresh());
+        mRefreshTimer.setCoalesce(true);
+        mRefreshTimer.start();
+    }
+
+    /**
+     * Display refresh interval in milliseconds for the default screen device, or for a 60 Hz display when the refresh
+     * rate can't be determined.
+     */
+    private static int getRefreshInterval()
+    {
+        int refreshRate = DEFAULT_REFRESH_RATE;
+
+        try
+        {
+            if(!GraphicsEnvironment.isHeadless())
+            {
+                DisplayMode displayMode = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                    .getDisplayMode();
+
+                if(displayMode != null && displayMode.getRefreshRate() > 0)
+                {
+                    refreshRate = displayMode.getRefreshRate();
+                }
+            }
+        }
+        catch(Exception e)
+        {
+            mLog.debug("Unable to determine display refresh rate - using default " + DEFAULT_REFRESH_RATE + " Hz");
+        }
+
+        return Math.max(1, 1000 / refreshRate);
     }
 
     /**
@@ -98,17 +150,25 @@ public class WaterfallPanel extends JPanel implements DFTResultsListener,
             mSettingsManager.removeListener(this);
         }
 
+        if(mRefreshTimer != null)
+        {
+            mRefreshTimer.stop();
+            mRefreshTimer = null;
+        }
+
         mSettingsManager = null;
         mMemoryImageSource = null;
     }
 
     /**
-     * Resets the memory image source and byte backing array when the DFT point
-     * size has changed
+     * Resets the memory image source over the current pixel ring when the DFT point size has changed.  Invoked on the
+     * swing event thread while holding the ring lock.
      */
     private void reset()
     {
-        mPixels = new byte[mDFTSize * mImageHeight];
+        mDFTSize = mRingWidth;
+        mDisplayHead = mRingHead;
+        mDirtyRows = 0;
 
         mMemoryImageSource = new MemoryImageSource(mDFTSize,
             mImageHeight,
@@ -129,12 +189,32 @@ public class WaterfallPanel extends JPanel implements DFTResultsListener,
      */
     public void setPaused(boolean paused)
     {
-        if(paused)
+        synchronized(mRingLock)
         {
-            mPausedPixels = mPixels.clone();
-        }
+            if(paused && !mPaused && !mResetRequired && mMemoryImageSource != null)
+            {
+                mPausedPixels = mPixels.clone();
+                mMemoryImageSource.newPixels(mPausedPixels, mColorModel, 0, mDFTSize);
+                mDisplayHead = mRingHead;
+                mDirtyRows = 0;
+            }
+            else if(!paused && mPaused)
+            {
+                //Force a full refresh of the live pixels on the next display refresh
+                mDirtyRows = mImageHeight;
+
+                if(!mResetRequired && mMemoryImageSource != null)
+                {
+                    mMemoryImageSource.newPixels(mPixels, mColorModel, 0, mDFTSize);
+                    mDirtyRows = 0;
+                    mDisplayHead = mRingHead;
+                }
+
+                mPausedPixels = null;
+            }
 
-        mPaused = paused;
+            mPaused = paused;
+        }
 
         repaint();
     }
@@ -294,7 +374,19 @@ public class WaterfallPanel extends JPanel implements DFTResultsListener,
 
         double binPixelWidth = getBinPixelWidth(multiplier);
         int offset = (int)(getPixelOffset(multiplier) - binPixelWidth);
-        g.drawImage(mWaterfallImage, offset, 0, (getWidth() * multiplier) + (int)binPixelWidth, mImageHeight, this);
+        int width = (getWidth() * multiplier) + (int)binPixelWidth;
+
+        //The image is a ring of rows with the newest row at the display head.  Draw the rows from the head to the end of
+        //the image at the top of the panel and then the wrapped rows from the start of the image below them.
+        int head = mDisplayHead;
+        int split = mImageHeight - head;
+        g.drawImage(mWaterfallImage, offset, 0, offset + width, split, 0, head, mDFTSize, mImageHeight, this);
+
+        if(head > 0)
+        {
+            g.drawImage(mWaterfallImage, offset, split, offset + width, mImageHeight, 0, 0, mDFTSize, head, this);
+        }
+
         Graphics2D graphics = (Graphics2D)g;
         graphics.setColor(mColorSpectrumCursor);
 
@@ -350,13 +442,27 @@ public class WaterfallPanel extends JPanel implements DFTResultsListener,
 
     /**
      * Implements the DFT results listener interface method.  This is the primary method for receiving new frequency bin results.
+     *
+     * Each result is scaled into the reusable row buffer and copied into the pixel ring.  Updated rows are pushed to the
+     * display by the refresh timer so that the swing event thread does a bounded amount of work per display refresh,
+     * independent of the DFT frame rate.
      */
     @Override
     public void receive(float[] update)
     {
+        if(update.length == 0)
+        {
+            return;
+        }
+
         mDisabled = false;
 
-        byte[] newPixels = new byte[update.length];
+        if(mRowBuffer.length != update.length)
+        {
+            mRowBuffer = new byte[update.length];
+        }
+
+        byte[] newPixels = mRowBuffer;
 
         /**
          * Find the average value and scale the display to it
@@ -389,50 +495,95 @@ public class WaterfallPanel extends JPanel implements DFTResultsListener,
             }
         }
 
-        //Task the swing event thread to add the new pixels to the pixel array and update the display
-        EventQueue.invokeLater(() -> {
-            if(mMemoryImageSource != null)
+        newPixels[update.length - 1] = 0;
+
+        synchronized(mRingLock)
+        {
+            //If our FFT size changes, replace the pixel ring and flag the image source for reset on the event thread
+            if(mRingWidth != newPixels.length)
             {
-                //If our FFT size changes, reset our pixel map and image source
-                if(mDFTSize != newPixels.length)
-                {
-                    mDFTSize = newPixels.length;
-                    reset();
-                }
+                mRingWidth = newPixels.length;
+                mPixels = new byte[mRingWidth * mImageHeight];
+                mRingHead = 0;
+                mResetRequired = true;
+            }
 
-                //Move the pixels down a row and add in the new pixels row
-                System.arraycopy(mPixels, 0, mPixels, mDFTSize, mPixels.length - mDFTSize);
-                System.arraycopy(newPixels, 0, mPixels, 0, newPixels.length);
+            //Move the ring head up one row and overwrite the oldest row with the new pixels row
+            mRingHead = (mRingHead == 0 ? mImageHeight : mRingHead) - 1;
+            System.arraycopy(newPixels, 0, mPixels, mRingHead * mRingWidth, mRingWidth);
 
-                if(mPaused)
-                {
-                    mMemoryImageSource.newPixels(mPausedPixels, mColorModel, 0, mDFTSize);
-                }
-                else
-                {
-                    mMemoryImageSource.newPixels(mPixels, mColorModel, 0, mDFTSize);
-                }
+            if(mDirtyRows < mImageHeight)
+            {
+                mDirtyRows++;
             }
-        });
+        }
     }
 
-    public void clearWaterfall()
+    /**
+     * Pushes the pixel rows that have changed since the last refresh to the image source and repaints.  Invoked by the
+     * refresh timer on the swing event thread.
+     */
+    private void refresh()
     {
-        Arrays.fill(mPixels, (byte)0);
-        mDisabled = true;
+        synchronized(mRingLock)
+        {
+            if(mMemoryImageSource == null || mPaused)
+            {
+                return;
+            }
 
-        EventQueue.invokeLater(() -> {
-            if(mMemoryImageSource != null)
+            if(mResetRequired)
             {
-                try
-                {
-                    mMemoryImageSource.newPixels(mPixels, mColorModel, 0, mDFTSize);
-                }
-                catch(Exception e)
-                {
-                    mLog.error("Temporary error updating cleared waterfall panel - " + e.getLocalizedMessage());
-                }
+                mResetRequired = false;
+                reset();
+                return;
+            }
+
+            if(mDirtyRows == 0)
+            {
+                return;
             }
-        });
+
+            if(mDirtyRows >= mImageHeight)
+            {
+                mMemoryImageSource.newPixels();
+            }
+            else if(mRingHead + mDirtyRows <= mImageHeight)
+            {
+                mMemoryImageSource.newPixels(0, mRingHead, mDFTSize, mDirtyRows);
+            }
+            else
+            {
+                //The updated rows wrap around the end of the ring
+                int tailRows = mImageHeight - mRingHead;
+                mMemoryImageSource.newPixels(0, mRingHead, mDFTSize, tailRows, false);
+                mMemoryImageSource.newPixels(0, 0, mDFTSize, mDirtyRows - tailRows);
+            }
+
+            mDisplayHead = mRingHead;
+            mDirtyRows = 0;
+        }
+
+        repaint();
+    }
+
+    /**
+     * DFT results are only needed while this panel is showing on screen.
+     */
+    @Override
+    public boolean isActive()
+    {
+        return isShowing();
+    }
+
+    public void clearWaterfall()
+    {
+        synchronized(mRingLock)
+        {
+            Arrays.fill(mPixels, (byte)0);
+            mDirtyRows = mImageHeight;
+        }
+
+        mDisabled = true;
     }
 }
@@ -18,7 +18,8 @@
 package io.github.dsheirer.spectrum.converter;
 
 
-import org.apache.commons.math3.util.FastMath;
+import io.github.dsheirer.dsp.magnitude.IMagnitudeCalculator;
+import io.github.dsheirer.dsp.magnitude.MagnitudeFactory;
 
 /**
  * Converts complex DFT output to scaled dB values with a maximum amplitude of
@@ -61,51 +62,54 @@ import org.apache.commons.math3.util.FastMath;
  */
 public class ComplexDecibelConverter extends DFTResultsConverter
 {
+	private IMagnitudeCalculator mMagnitudeCalculator = MagnitudeFactory.getMagnitudeCalculator();
+	private float[] mInphase = new float[ 0 ];
+	private float[] mQuadrature = new float[ 0 ];
+	private float[] mDecibels = new float[ 0 ];
+
 	/**
 	 * Converts the output of the JTransforms FloatFFT_1D.complexForward()
 	 * calculation into the power spectrum in decibels, normalized to the
 	 * sample bit depth.
+	 *
+	 * Working and result arrays are reused across frames and are only
+	 * reallocated when the DFT size changes.  The dispatched results array is
+	 * reused for each frame, so listeners must copy any values they retain.
 	 */
 	public ComplexDecibelConverter()
 	{
 	}
-	
+
 	@Override
     public void receive( float[] results )
     {
 		int halfResults = results.length / 2;
-		
-//		float dftBinSizeScalor = 1.0f / (float)Math.pow( halfResults, 2.0 );
-		float dftBinSizeScalor = 1.0f / (float)halfResults;
-		
-		float[] processed = new float[ halfResults ];
 
-		int middle = processed.length / 2;
-		
-		for( int x = 0; x < results.length; x += 2 )
+		if( mDecibels.length != halfResults )
 		{
-			//Calculate the magnitude squared (power) value from each bin's real 
-			//and imaginary value and scale it to the DFT bin size squared.
-			//Convert the scaled value to decibels.
-			float decibels = 10.0f * (float) FastMath.log10(
-				( ( results[ x ] * results[ x ] ) + 
-				  ( results[ x + 1 ] * results[ x + 1 ] ) ) * dftBinSizeScalor ); 
+			mInphase = new float[ halfResults ];
+			mQuadrature = new float[ halfResults ];
+			mDecibels = new float[ halfResults ];
+		}
+
+		int middle = halfResults / 2;
 
-			// We have to swap the upper and lower halves of the JTransforms
-			// DFT results for correct display
-			
-			int index = x / 2;
-			
-			if( index >= middle )
-			{
-				processed[ index - middle ] = decibels;
-			}
-			else
-			{
-				processed[ index + middle ] = decibels;
-			}
+		//Deinterleave the DFT results and swap the upper and lower halves of
+		//the JTransforms DFT results for correct display
+		for( int x = 0; x < halfResults; x++ )
+		{
+			int index = ( x < middle ) ? x + middle : x - middle;
+			mInphase[ index ] = results[ 2 * x ];
+			mQuadrature[ index ] = results[ 2 * x + 1 ];
 		}
-		
-		dispatch( processed );
+
+		//Scale the magnitude squared (power) value of each bin to the DFT
+		//bin size and convert the scaled value to decibels.
+		float dftBinSizeScalor = 1.0f / (float)halfResults;
+
+		mMagnitudeCalculator.calculateDecibels( mInphase, mQuadrature,
+			dftBinSizeScalor, mDecibels );
+
+		dispatch( mDecibels );
     }
 }
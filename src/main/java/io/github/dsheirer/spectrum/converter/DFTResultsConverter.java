@@ -36,6 +36,29 @@ public abstract class DFTResultsConverter
 		mListeners.remove( listener );
     }
 
+	/**
+	 * Indicates if any registered listener is currently active and needs
+	 * converted DFT results.
+	 */
+	public boolean hasActiveListeners()
+	{
+		for( DFTResultsListener listener: mListeners )
+		{
+			if( listener.isActive() )
+			{
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	@Override
+	public boolean isActive()
+	{
+		return hasActiveListeners();
+	}
+
 	protected void dispatch( float[] results )
 	{
 		for( DFTResultsListener listener: mListeners )
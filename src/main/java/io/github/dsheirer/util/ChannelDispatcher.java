@@ -0,0 +1,315 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.util;
+
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.source.heartbeat.HeartbeatManager;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Event-driven dispatcher for receiving elements from a separate producer thread and forwarding those elements to a
+ * registered listener on the shared channel execution engine.  Unlike the Dispatcher, this class does not own a thread
+ * or poll on a fixed interval.  Each received element schedules the dispatcher on the engine's work-stealing pool, if
+ * it's not already scheduled, and the scheduled task drains the queue in order.  Only one task per dispatcher is
+ * scheduled or executing at any time, which preserves element ordering and confines the listener to a single thread
+ * at a time.
+ *
+ * An optional heartbeat manager receives a heartbeat command at each heartbeat interval, serialized with the element
+ * processing, whether or not any elements are arriving.
+ */
+public class ChannelDispatcher<E> implements Listener<E>
+{
+    private final static Logger mLog = LoggerFactory.getLogger(ChannelDispatcher.class);
+    //Maximum elements processed per scheduling so that a busy channel yields to other channels
+    private static final int MAX_BATCH_SIZE = 32;
+    private final ConcurrentLinkedQueue<E> mQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger mQueueDepth = new AtomicInteger();
+    private final AtomicBoolean mRunning = new AtomicBoolean();
+    private final AtomicBoolean mScheduled = new AtomicBoolean();
+    private final AtomicBoolean mHeartbeatRequested = new AtomicBoolean();
+    private final Runnable mDrainTask = this::drain;
+    private final String mName;
+    private final long mHeartbeatInterval;
+    private HeartbeatManager mHeartbeatManager;
+    private ScheduledFuture<?> mHeartbeatFuture;
+    private Listener<E> mListener;
+    private volatile long mProcessedCount;
+    private volatile long mServiceTimeNanos;
+    private volatile long mMaxServiceTimeNanos;
+
+    /**
+     * Constructs an instance with integrated heartbeat support.
+     * @param name to identify the channel
+     * @param heartbeatInterval in milliseconds
+     * @param heartbeatManager to receive a heartbeat command at each heartbeat interval.
+     */
+    public ChannelDispatcher(String name, long heartbeatInterval, HeartbeatManager heartbeatManager)
+    {
+        mName = name;
+        mHeartbeatInterval = heartbeatInterval;
+        mHeartbeatManager = heartbeatManager;
+    }
+
+    /**
+     * Constructs an instance
+     * @param name to identify the channel
+     */
+    public ChannelDispatcher(String name)
+    {
+        this(name, 0, null);
+    }
+
+    /**
+     * Sets or changes the listener to receive elements from this dispatcher.
+     * @param listener to receive elements
+     */
+    public void setListener(Listener<E> listener)
+    {
+        mListener = listener;
+    }
+
+    /**
+     * Primary input method for adding elements to this dispatcher.  Note: incoming elements will be ignored if this
+     * dispatcher is in a stopped state.  You must invoke start() to allow incoming elements.
+     *
+     * @param e to enqueue for distribution to a registered listener
+     */
+    @Override
+    public void receive(E e)
+    {
+        if(mRunning.get())
+        {
+            mQueue.add(e);
+            mQueueDepth.incrementAndGet();
+            schedule();
+        }
+    }
+
+    /**
+     * Starts this dispatcher and allows queuing of incoming elements.
+     */
+    public void start()
+    {
+        if(mRunning.compareAndSet(false, true))
+        {
+            clearQueue();
+            ChannelExecutionEngine.register(this);
+
+            if(mHeartbeatManager != null && mHeartbeatInterval > 0)
+            {
+                mHeartbeatFuture = ThreadPool.SCHEDULED.scheduleAtFixedRate(this::requestHeartbeat, 0,
+                        mHeartbeatInterval, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Stops this dispatcher and clears any queued elements.  An element that is currently being processed is allowed
+     * to complete.
+     */
+    public void stop()
+    {
+        if(mRunning.compareAndSet(true, false))
+        {
+            if(mHeartbeatFuture != null)
+            {
+                mHeartbeatFuture.cancel(false);
+                mHeartbeatFuture = null;
+            }
+
+            ChannelExecutionEngine.unregister(this);
+            clearQueue();
+        }
+    }
+
+    /**
+     * Indicates if this dispatcher is currently running
+     */
+    public boolean isRunning()
+    {
+        return mRunning.get();
+    }
+
+    /**
+     * Name of this dispatcher
+     */
+    public String getName()
+    {
+        return mName;
+    }
+
+    /**
+     * Number of elements currently queued for processing.
+     */
+    public int getQueueDepth()
+    {
+        return mQueueDepth.get();
+    }
+
+    /**
+     * Number of elements processed since this dispatcher was created.
+     */
+    public long getProcessedCount()
+    {
+        return mProcessedCount;
+    }
+
+    /**
+     * Average time to process (service) a single element, including downstream listener processing.
+     * @return average service time in milliseconds.
+     */
+    public double getAverageServiceTime()
+    {
+        long count = mProcessedCount;
+
+        if(count == 0)
+        {
+            return 0.0;
+        }
+
+        return mServiceTimeNanos / (double)count / 1E6d;
+    }
+
+    /**
+     * Maximum time to process (service) a single element.
+     * @return maximum service time in milliseconds.
+     */
+    public double getMaxServiceTime()
+    {
+        return mMaxServiceTimeNanos / 1E6d;
+    }
+
+    /**
+     * Clears the queue and adjusts the queue depth for the cleared elements.
+     */
+    private void clearQueue()
+    {
+        while(mQueue.poll() != null)
+        {
+            mQueueDepth.decrementAndGet();
+        }
+    }
+
+    /**
+     * Requests a heartbeat command on the next scheduled processing of this dispatcher.
+     */
+    private void requestHeartbeat()
+    {
+        mHeartbeatRequested.set(true);
+        schedule();
+    }
+
+    /**
+     * Schedules the drain task on the channel execution engine if it's not already scheduled or running.
+     */
+    private void schedule()
+    {
+        if(mScheduled.compareAndSet(false, true))
+        {
+            ChannelExecutionEngine.execute(mDrainTask);
+        }
+    }
+
+    /**
+     * Processes queued elements and a pending heartbeat.  Note: only one drain task is ever scheduled or running for
+     * this dispatcher.
+     */
+    private void drain()
+    {
+        try
+        {
+            int processed = 0;
+            E element;
+
+            while(processed < MAX_BATCH_SIZE && mRunning.get() && (element = mQueue.poll()) != null)
+            {
+                mQueueDepth.decrementAndGet();
+                dispatch(element);
+                processed++;
+            }
+
+            if(mHeartbeatRequested.getAndSet(false) && mRunning.get())
+            {
+                try
+                {
+                    mHeartbeatManager.broadcast();
+                }
+                catch(Throwable t)
+                {
+                    mLog.error("Error broadcasting heartbeat for channel dispatcher [" + mName + "]", t);
+                }
+            }
+        }
+        finally
+        {
+            mScheduled.set(false);
+        }
+
+        //Reschedule if more elements arrived or remain after reaching the batch size limit
+        if(mRunning.get() && (!mQueue.isEmpty() || mHeartbeatRequested.get()))
+        {
+            schedule();
+        }
+    }
+
+    /**
+     * Dispatches the element to the listener and updates the service time statistics.
+     */
+    private void dispatch(E element)
+    {
+        Listener<E> listener = mListener;
+
+        if(listener != null)
+        {
+            long start = System.nanoTime();
+
+            try
+            {
+                listener.receive(element);
+            }
+            catch(Throwable t)
+            {
+                mLog.error("Error while dispatching element [" + element.getClass() + "] to listener [" +
+                        listener.getClass() + "]", t);
+            }
+
+            long elapsed = System.nanoTime() - start;
+            mServiceTimeNanos += elapsed;
+            mProcessedCount++;
+
+            if(elapsed > mMaxServiceTimeNanos)
+            {
+                mMaxServiceTimeNanos = elapsed;
+            }
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return mName + " | Queue Depth: " + getQueueDepth() + " | Processed: " + getProcessedCount() +
+                String.format(" | Service Time (ms) Avg: %.3f Max: %.3f", getAverageServiceTime(), getMaxServiceTime());
+    }
+}
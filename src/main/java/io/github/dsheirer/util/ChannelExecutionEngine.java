@@ -0,0 +1,137 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.util;
+
+import io.github.dsheirer.metrics.MetricsRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Channel execution engine.  Runs channel dispatchers as short-lived tasks on a shared, processor-count sized
+ * work-stealing thread pool instead of dedicating a scheduled thread to each channel.
+ *
+ * Each channel dispatcher serializes execution of its own elements so that per-channel ordering is preserved, while
+ * idle worker threads steal queued channel tasks from busy workers.  The engine maintains a registry of the running
+ * channel dispatchers for monitoring queue depth and service time.
+ */
+public class ChannelExecutionEngine
+{
+    private final static Logger mLog = LoggerFactory.getLogger(ChannelExecutionEngine.class);
+    private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors(),
+            pool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("sdrtrunk channel engine thread " + thread.getPoolIndex());
+                return thread;
+            },
+            (thread, throwable) -> mLog.error("Uncaught error in channel execution engine thread [" +
+                    thread.getName() + "]", throwable), true);
+    private static final List<ChannelDispatcher<?>> DISPATCHERS = new CopyOnWriteArrayList<>();
+
+    static
+    {
+        MetricsRegistry.gauge("channel_engine_threads", "Worker threads in the channel execution engine pool",
+            POOL::getParallelism);
+        MetricsRegistry.gauge("channel_engine_active_threads", "Channel execution engine threads currently running tasks",
+            POOL::getActiveThreadCount);
+        MetricsRegistry.gauge("channel_engine_channels", "Channel dispatchers registered with the execution engine",
+            DISPATCHERS::size);
+        MetricsRegistry.gauge("channel_engine_queue_depth", "Elements queued across all channel dispatchers",
+            () -> DISPATCHERS.stream().mapToInt(ChannelDispatcher::getQueueDepth).sum());
+        MetricsRegistry.gauge("channel_engine_max_queue_depth", "Largest queue depth of any channel dispatcher",
+            () -> DISPATCHERS.stream().mapToInt(ChannelDispatcher::getQueueDepth).max().orElse(0));
+        MetricsRegistry.gauge("channel_engine_max_service_seconds", "Largest per-element service time of any channel " +
+            "dispatcher", () -> DISPATCHERS.stream().mapToDouble(ChannelDispatcher::getMaxServiceTime).max()
+            .orElse(0.0) / 1E3);
+    }
+
+    /**
+     * Not instantiable - use the static methods
+     */
+    private ChannelExecutionEngine()
+    {
+    }
+
+    /**
+     * Submits the task for execution on the shared work-stealing pool.
+     * @param task to execute
+     */
+    static void execute(Runnable task)
+    {
+        POOL.execute(task);
+    }
+
+    /**
+     * Registers a running channel dispatcher for monitoring.
+     */
+    static void register(ChannelDispatcher<?> dispatcher)
+    {
+        if(!DISPATCHERS.contains(dispatcher))
+        {
+            DISPATCHERS.add(dispatcher);
+        }
+    }
+
+    /**
+     * Removes a stopped channel dispatcher from monitoring.
+     */
+    static void unregister(ChannelDispatcher<?> dispatcher)
+    {
+        DISPATCHERS.remove(dispatcher);
+    }
+
+    /**
+     * Snapshot list of the currently running channel dispatchers.
+     */
+    public static List<ChannelDispatcher<?>> getDispatchers()
+    {
+        return new ArrayList<>(DISPATCHERS);
+    }
+
+    /**
+     * Number of worker threads in the shared pool.
+     */
+    public static int getParallelism()
+    {
+        return POOL.getParallelism();
+    }
+
+    /**
+     * Description of the engine state and the queue depth and service time for each running channel.
+     */
+    public static String getStateDescription()
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Channel Execution Engine - Threads [").append(POOL.getParallelism());
+        sb.append("] Active [").append(POOL.getActiveThreadCount());
+        sb.append("] Steals [").append(POOL.getStealCount());
+        sb.append("] Channels [").append(DISPATCHERS.size()).append("]");
+
+        for(ChannelDispatcher<?> dispatcher: DISPATCHERS)
+        {
+            sb.append("\n\t").append(dispatcher);
+        }
+
+        return sb.toString();
+    }
+}
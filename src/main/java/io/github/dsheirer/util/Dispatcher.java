@@ -145,6 +145,15 @@ public class Dispatcher<E> implements Listener<E>
         }
     }
 
+    /**
+     * Number of elements currently queued for dispatch.  Note: this traverses the queue and is intended for periodic
+     * monitoring, not for per-element use.
+     */
+    public int getQueueSize()
+    {
+        return mQueue.size();
+    }
+
     /**
      * Indicates if this processor is currently running
      */
@@ -72,7 +72,7 @@ public class CalibrationManager
      *
      * Note: invoke this method first with a preferences instance to ensure it is the one that is used.
      */
-    public static CalibrationManager getInstance(UserPreferences userPreferences)
+    public static synchronized CalibrationManager getInstance(UserPreferences userPreferences)
     {
         if(sVectorCalibrationPreference == null)
         {
@@ -83,9 +83,10 @@ public class CalibrationManager
     }
 
     /**
-     * Access a singleton instance of this class.
+     * Access a singleton instance of this class.  Synchronized since tuners are started in parallel during discovery
+     * and each may request calibrated implementations.
      */
-    public static CalibrationManager getInstance()
+    public static synchronized CalibrationManager getInstance()
     {
         if(sInstance == null)
         {
@@ -116,6 +117,10 @@ public class CalibrationManager
             sInstance.add(new RealOscillatorCalibration());
 
 //            sInstance.add(new HilbertCalibration()); //Not currently used
+//            sInstance.add(new CMAEqualizerCalibration(CalibrationType.EQUALIZER_CMA_SHORT,
+//                CMAEqualizer.DEFAULT_TAP_COUNT)); //Not currently used
+//            sInstance.add(new CMAEqualizerCalibration(CalibrationType.EQUALIZER_CMA_LONG,
+//                CMAEqualizerFactory.LONG_TAP_COUNT)); //Not currently used
             sInstance.add(new WindowCalibration()); //Not currently used
         }
 
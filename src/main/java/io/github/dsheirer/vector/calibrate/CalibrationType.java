@@ -37,6 +37,8 @@ public enum CalibrationType
     AIRSPY_UNPACKED_ITERATOR("Airspy Unpacked Iterator", 1),
     AM_DEMODULATOR("AM Demodulator", 1),
     DC_REMOVAL_REAL("Real DC Removal Filter", 1),
+    EQUALIZER_CMA_SHORT("CMA Equalizer - Short (Up To 15 Taps)", 1),
+    EQUALIZER_CMA_LONG("CMA Equalizer - Long (16+ Taps)", 1),
     FILTER_FIR("FIR Filter", 1),
     FILTER_HALF_BAND_REAL_11_TAP("Real Half-Band Decimation Filter - 11 Tap", 1),
     FILTER_HALF_BAND_REAL_15_TAP("Real Half-Band Decimation Filter - 15 Tap", 1),
@@ -0,0 +1,134 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.vector.calibrate.filter;
+
+import io.github.dsheirer.dsp.filter.equalizer.CMAEqualizer;
+import io.github.dsheirer.dsp.filter.equalizer.ScalarCMAEqualizer;
+import io.github.dsheirer.dsp.filter.equalizer.VectorCMAEqualizer;
+import io.github.dsheirer.sample.complex.ComplexSamples;
+import io.github.dsheirer.vector.calibrate.Calibration;
+import io.github.dsheirer.vector.calibrate.CalibrationException;
+import io.github.dsheirer.vector.calibrate.CalibrationType;
+import io.github.dsheirer.vector.calibrate.Implementation;
+import org.apache.commons.math3.stat.descriptive.moment.Mean;
+
+/**
+ * Determines the optimal scalar vs vector implementation of the CMA equalizer for a range of equalizer tap counts,
+ * using a representative tap count from that range.
+ */
+public class CMAEqualizerCalibration extends Calibration
+{
+    private static final int BUFFER_SIZE = 2048;
+    private static final int ITERATION_DURATION_MS = 1000;
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int TEST_ITERATIONS = 5;
+    private static final float MODULUS = 1.0f;
+    private static final float MU = 0.0005f;
+    private int mTapCount;
+
+    /**
+     * Constructs an instance
+     * @param type of calibration for the tap count range
+     * @param tapCount representative tap count for the range
+     */
+    public CMAEqualizerCalibration(CalibrationType type, int tapCount)
+    {
+        super(type);
+        mTapCount = tapCount;
+    }
+
+    @Override public void calibrate() throws CalibrationException
+    {
+        float[] i = getFloatSamples(BUFFER_SIZE);
+        float[] q = getFloatSamples(BUFFER_SIZE);
+
+        Mean scalarMean = new Mean();
+        for(int x = 0; x < WARMUP_ITERATIONS; x++)
+        {
+            scalarMean.increment(test(new ScalarCMAEqualizer(mTapCount, MODULUS, MU), i, q));
+        }
+
+        mLog.info("CMA EQUALIZER " + mTapCount + " TAP WARMUP - SCALAR:" +
+            DECIMAL_FORMAT.format(scalarMean.getResult()));
+
+        Mean vectorMean = new Mean();
+        for(int x = 0; x < WARMUP_ITERATIONS; x++)
+        {
+            vectorMean.increment(test(new VectorCMAEqualizer(mTapCount, MODULUS, MU), i, q));
+        }
+
+        mLog.info("CMA EQUALIZER " + mTapCount + " TAP WARMUP - VECTOR:" +
+            DECIMAL_FORMAT.format(vectorMean.getResult()));
+
+        i = getFloatSamples(BUFFER_SIZE);
+        q = getFloatSamples(BUFFER_SIZE);
+
+        scalarMean.clear();
+        for(int x = 0; x < TEST_ITERATIONS; x++)
+        {
+            scalarMean.increment(test(new ScalarCMAEqualizer(mTapCount, MODULUS, MU), i, q));
+        }
+
+        mLog.info("CMA EQUALIZER " + mTapCount + " TAP - SCALAR:" +
+            DECIMAL_FORMAT.format(scalarMean.getResult()));
+
+        vectorMean.clear();
+        for(int x = 0; x < TEST_ITERATIONS; x++)
+        {
+            vectorMean.increment(test(new VectorCMAEqualizer(mTapCount, MODULUS, MU), i, q));
+        }
+
+        mLog.info("CMA EQUALIZER " + mTapCount + " TAP - VECTOR:" +
+            DECIMAL_FORMAT.format(vectorMean.getResult()));
+
+        if(scalarMean.getResult() > vectorMean.getResult())
+        {
+            setImplementation(Implementation.SCALAR);
+        }
+        else
+        {
+            setImplementation(Implementation.VECTOR_SIMD_PREFERRED);
+        }
+
+        mLog.info("CMA EQUALIZER " + mTapCount + " TAP - SET IMPLEMENTATION TO:" +
+            getImplementation());
+    }
+
+    /**
+     * Counts the number of buffers the equalizer processes within the iteration duration.
+     */
+    private long test(CMAEqualizer equalizer, float[] i, float[] q)
+    {
+        float accumulator = 0.0f;
+        long count = 0;
+
+        long start = System.currentTimeMillis();
+
+        while((System.currentTimeMillis() - start) < ITERATION_DURATION_MS)
+        {
+            //Reset so that the taps don't wander while adapting to the random test samples
+            equalizer.reset();
+            ComplexSamples equalized = equalizer.equalize(i, q, start);
+            accumulator += equalized.i()[2];
+            count++;
+        }
+
+        return count + (long)(accumulator * 0);
+    }
+}
@@ -0,0 +1,520 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.audio.broadcast.nio;
+
+import io.github.dsheirer.audio.broadcast.shoutcast.v2.ultravox.UltravoxMessage;
+import io.github.dsheirer.audio.broadcast.shoutcast.v2.ultravox.UltravoxMessageFactory;
+import io.github.dsheirer.audio.broadcast.shoutcast.v2.ultravox.UltravoxMessageType;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Minimal local streaming server for exercising the streaming broadcasters without an Icecast or Shoutcast server.
+ *
+ * Accepts any number of source connections and detects the protocol from the first bytes received: Icecast SOURCE
+ * or PUT requests, Shoutcast v2 (Ultravox) frames, or otherwise a Shoutcast v1 password line.  Every handshake is
+ * accepted.  Once streaming, the server logs the received byte count, the average bit rate and the largest gap
+ * between reads for each connection so that stream pacing and stalls can be observed.
+ *
+ * The server can also be started from a unit test.  Each source connection is recorded so that the test can inspect
+ * the handshake and stream statistics, and the server can pause reading or close the source connections to simulate
+ * a stalled or restarted server.
+ *
+ * Usage: FakeStreamingServer [port]  (default 8000)
+ */
+public class FakeStreamingServer implements AutoCloseable
+{
+    private static final Logger mLog = LoggerFactory.getLogger(FakeStreamingServer.class);
+    private static final int DEFAULT_PORT = 8000;
+    private static final long REPORT_INTERVAL_MS = 10000;
+    private static final int ULTRAVOX_SYNC = 0x5A;
+    private static final int FIRST_AUDIO_BYTES = 4;
+
+    /* Small socket receive buffer so that a paused server applies back pressure to the source quickly */
+    private static final int RECEIVE_BUFFER_SIZE = 16 * 1024;
+
+    public enum Protocol {ICECAST, SHOUTCAST_V1, SHOUTCAST_V2}
+
+    private final ServerSocket mServerSocket;
+    private final List<Connection> mConnections = new CopyOnWriteArrayList<>();
+    private volatile boolean mReading = true;
+
+    /**
+     * Constructs an instance bound to the address.  Use start() to begin accepting source connections.
+     * @param address to bind, with port zero for an ephemeral port
+     * @throws IOException if the server socket cannot be bound
+     */
+    public FakeStreamingServer(InetSocketAddress address) throws IOException
+    {
+        mServerSocket = new ServerSocket();
+        mServerSocket.setReceiveBufferSize(RECEIVE_BUFFER_SIZE);
+        mServerSocket.bind(address);
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+
+        try(FakeStreamingServer server = new FakeStreamingServer(new InetSocketAddress(port)))
+        {
+            mLog.info("Fake streaming server listening on port " + server.getPort());
+            server.accept();
+        }
+    }
+
+    /**
+     * Starts accepting source connections on a daemon thread
+     */
+    public void start()
+    {
+        Thread thread = new Thread(this::accept, "fake streaming server");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Port that the server is listening on
+     */
+    public int getPort()
+    {
+        return mServerSocket.getLocalPort();
+    }
+
+    /**
+     * Source connections accepted by the server, in the order accepted
+     */
+    public List<Connection> getConnections()
+    {
+        return new ArrayList<>(mConnections);
+    }
+
+    /**
+     * Pauses or resumes reading from the source connections.  While paused, the unread stream backs up into the
+     * socket buffers and the source is no longer able to write.
+     */
+    public void setReading(boolean reading)
+    {
+        mReading = reading;
+    }
+
+    /**
+     * Closes all source connections from the server side
+     */
+    public void disconnectAll()
+    {
+        for(Connection connection : mConnections)
+        {
+            connection.close();
+        }
+    }
+
+    /**
+     * Stops accepting connections and closes all source connections
+     */
+    @Override
+    public void close()
+    {
+        try
+        {
+            mServerSocket.close();
+        }
+        catch(IOException ioe)
+        {
+            //Ignore
+        }
+
+        disconnectAll();
+    }
+
+    /**
+     * Accepts source connections until the server socket is closed
+     */
+    private void accept()
+    {
+        while(!mServerSocket.isClosed())
+        {
+            try
+            {
+                Socket socket = mServerSocket.accept();
+                Connection connection = new Connection(socket);
+                mConnections.add(connection);
+                Thread thread = new Thread(() -> handle(connection), "fake streaming server " + socket.getPort());
+                thread.setDaemon(true);
+                thread.start();
+            }
+            catch(IOException ioe)
+            {
+                if(!mServerSocket.isClosed())
+                {
+                    mLog.error("Error accepting source connection", ioe);
+                }
+            }
+        }
+    }
+
+    /**
+     * Detects the protocol, accepts the handshake and then consumes the audio stream.
+     */
+    private void handle(Connection connection)
+    {
+        String client = connection.mClient;
+
+        try(Socket socket = connection.mSocket)
+        {
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            OutputStream out = socket.getOutputStream();
+            int first = in.read();
+
+            if(first < 0)
+            {
+                return;
+            }
+
+            if(first == ULTRAVOX_SYNC)
+            {
+                mLog.info("[" + client + "] Shoutcast v2 (ultravox) source connected");
+                connection.mProtocol = Protocol.SHOUTCAST_V2;
+                handleUltravox(connection, first, in, out);
+                return;
+            }
+
+            String line = (char)first + readLine(in);
+            connection.mRequest = line;
+
+            if(line.startsWith("SOURCE ") || line.startsWith("PUT "))
+            {
+                mLog.info("[" + client + "] Icecast source connected: " + line);
+                connection.mProtocol = Protocol.ICECAST;
+
+                //Consume request headers up to the blank line
+                while(!(line = readLine(in)).isEmpty())
+                {
+                    mLog.debug("[" + client + "] " + line);
+                }
+
+                out.write("HTTP/1.0 200 OK\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            }
+            else
+            {
+                mLog.info("[" + client + "] Shoutcast v1 source connected");
+                connection.mProtocol = Protocol.SHOUTCAST_V1;
+
+                //Password line followed by icy- headers up to the blank line
+                while(!(line = readLine(in)).isEmpty())
+                {
+                    mLog.debug("[" + client + "] " + line);
+                }
+
+                out.write("OK2\r\nicy-caps:11\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            }
+
+            out.flush();
+            consume(connection, in);
+        }
+        catch(IOException ioe)
+        {
+            mLog.info("[" + client + "] connection closed - " + ioe.getMessage());
+        }
+        finally
+        {
+            connection.mOpen = false;
+        }
+    }
+
+    /**
+     * Acknowledges each Ultravox handshake message and then counts the audio and metadata frames.
+     */
+    private void handleUltravox(Connection connection, int first, DataInputStream in, OutputStream out)
+        throws IOException
+    {
+        int sync = first;
+
+        while(true)
+        {
+            if(sync != ULTRAVOX_SYNC)
+            {
+                throw new IOException("lost ultravox frame sync");
+            }
+
+            byte[] header = new byte[5];
+            in.readFully(header);
+            int payloadLength = ((header[3] & 0xFF) << 8) | (header[4] & 0xFF);
+            byte[] frame = new byte[payloadLength + 7];
+            frame[0] = (byte)ULTRAVOX_SYNC;
+            System.arraycopy(header, 0, frame, 1, header.length);
+            in.readFully(frame, 6, payloadLength + 1);
+
+            UltravoxMessage message = UltravoxMessageFactory.getMessage(frame);
+            UltravoxMessageType type = message != null ? message.getMessageType() : UltravoxMessageType.UNKNOWN;
+
+            switch(type)
+            {
+                case MP3_DATA:
+                    connection.audio(frame, 6, payloadLength);
+                    connection.received(frame.length);
+                    break;
+                case CACHEABLE_XML_METADATA:
+                    connection.received(frame.length);
+                    break;
+                case REQUEST_CIPHER:
+                    reply(out, type, "ACK:" + UltravoxMessage.ULTRAVOX_VERSION);
+                    break;
+                case NEGOTIATE_MAX_PAYLOAD_SIZE:
+                    reply(out, type, "ACK:16377");
+                    break;
+                default:
+                    mLog.info("[" + connection.mClient + "] ultravox " + type);
+                    reply(out, type, UltravoxMessage.VALID_RESPONSE_PREFIX);
+            }
+
+            awaitReading(connection);
+            sync = in.read();
+
+            if(sync < 0)
+            {
+                connection.report();
+                return;
+            }
+        }
+    }
+
+    private static void reply(OutputStream out, UltravoxMessageType type, String payload) throws IOException
+    {
+        UltravoxMessage response = UltravoxMessageFactory.getMessage(type);
+
+        if(response != null)
+        {
+            response.setPayload(payload);
+            out.write(response.getMessage());
+            out.flush();
+        }
+    }
+
+    /**
+     * Consumes the audio stream until the source disconnects.
+     */
+    private void consume(Connection connection, InputStream in) throws IOException
+    {
+        byte[] buffer = new byte[8192];
+        awaitReading(connection);
+        int read;
+
+        while((read = in.read(buffer)) >= 0)
+        {
+            connection.audio(buffer, 0, read);
+            connection.received(read);
+            awaitReading(connection);
+        }
+
+        connection.report();
+    }
+
+    /**
+     * Blocks while reading is paused
+     */
+    private void awaitReading(Connection connection) throws IOException
+    {
+        while(!mReading && connection.mOpen)
+        {
+            try
+            {
+                Thread.sleep(10);
+            }
+            catch(InterruptedException ie)
+            {
+                throw new IOException("interrupted while paused");
+            }
+        }
+    }
+
+    /**
+     * Reads a line terminated by a line feed, removing any carriage return.
+     */
+    private static String readLine(InputStream in) throws IOException
+    {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int value;
+
+        while((value = in.read()) >= 0 && value != '\n')
+        {
+            if(value != '\r')
+            {
+                line.write(value);
+            }
+        }
+
+        if(value < 0)
+        {
+            throw new IOException("end of stream");
+        }
+
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Source connection with the detected protocol and stream statistics
+     */
+    public static class Connection
+    {
+        private final Socket mSocket;
+        private final String mClient;
+        private volatile Protocol mProtocol;
+        private volatile String mRequest;
+        private volatile boolean mOpen = true;
+        private volatile long mStreamStart;
+        private volatile long mLastRead;
+        private volatile long mBytes;
+        private volatile long mMaxGap;
+        private volatile byte[] mFirstAudioBytes;
+        private long mLastReport;
+
+        private Connection(Socket socket)
+        {
+            mSocket = socket;
+            mClient = socket.getRemoteSocketAddress().toString();
+        }
+
+        /**
+         * Protocol detected from the handshake, or null until the handshake is received
+         */
+        public Protocol getProtocol()
+        {
+            return mProtocol;
+        }
+
+        /**
+         * First line of the Icecast request or the Shoutcast v1 password line, or null for Shoutcast v2
+         */
+        public String getRequest()
+        {
+            return mRequest;
+        }
+
+        /**
+         * Indicates if the connection is open
+         */
+        public boolean isOpen()
+        {
+            return mOpen;
+        }
+
+        /**
+         * Total stream bytes received after the handshake
+         */
+        public long getBytesReceived()
+        {
+            return mBytes;
+        }
+
+        /**
+         * Largest gap in milliseconds between stream reads
+         */
+        public long getMaxGap()
+        {
+            return mMaxGap;
+        }
+
+        /**
+         * Resets the largest read gap so that a steady state interval can be measured
+         */
+        public void resetMaxGap()
+        {
+            mMaxGap = 0;
+        }
+
+        /**
+         * Leading bytes of the audio stream, or null until audio is received
+         */
+        public byte[] getFirstAudioBytes()
+        {
+            return mFirstAudioBytes;
+        }
+
+        /**
+         * Captures the leading bytes of the audio stream
+         */
+        private void audio(byte[] bytes, int offset, int length)
+        {
+            if(mFirstAudioBytes == null && length > 0)
+            {
+                mFirstAudioBytes = Arrays.copyOfRange(bytes, offset, offset + Math.min(length, FIRST_AUDIO_BYTES));
+            }
+        }
+
+        /**
+         * Updates the stream statistics for the bytes read
+         */
+        private void received(int length)
+        {
+            long now = System.currentTimeMillis();
+
+            if(mStreamStart == 0)
+            {
+                mStreamStart = now;
+                mLastRead = now;
+                mLastReport = now;
+            }
+
+            mMaxGap = Math.max(mMaxGap, now - mLastRead);
+            mLastRead = now;
+            mBytes += length;
+
+            if(now - mLastReport >= REPORT_INTERVAL_MS)
+            {
+                mLastReport = now;
+                report();
+            }
+        }
+
+        private void report()
+        {
+            double seconds = mStreamStart > 0 ? (System.currentTimeMillis() - mStreamStart) / 1000.0 : 0;
+            double kbps = seconds > 0 ? mBytes * 8 / seconds / 1000.0 : 0;
+            mLog.info(String.format("[%s] received %d bytes in %.1f seconds - %.1f kbps - max gap %d ms",
+                mClient, mBytes, seconds, kbps, mMaxGap));
+        }
+
+        private void close()
+        {
+            mOpen = false;
+
+            try
+            {
+                mSocket.close();
+            }
+            catch(IOException ioe)
+            {
+                //Ignore
+            }
+        }
+    }
+}
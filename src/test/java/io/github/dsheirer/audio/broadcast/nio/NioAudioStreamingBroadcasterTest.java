@@ -0,0 +1,264 @@
+package io.github.dsheirer.audio.broadcast.nio;
+
+import io.github.dsheirer.audio.broadcast.BroadcastConfiguration;
+import io.github.dsheirer.audio.broadcast.BroadcastState;
+import io.github.dsheirer.audio.broadcast.icecast.IcecastConfiguration;
+import io.github.dsheirer.audio.broadcast.icecast.IcecastHTTPConfiguration;
+import io.github.dsheirer.audio.broadcast.icecast.IcecastTCPConfiguration;
+import io.github.dsheirer.audio.broadcast.icecast.NioIcecastHTTPAudioBroadcaster;
+import io.github.dsheirer.audio.broadcast.icecast.NioIcecastTCPAudioBroadcaster;
+import io.github.dsheirer.audio.broadcast.nio.FakeStreamingServer.Connection;
+import io.github.dsheirer.audio.broadcast.nio.FakeStreamingServer.Protocol;
+import io.github.dsheirer.audio.broadcast.shoutcast.v1.NioShoutcastV1AudioBroadcaster;
+import io.github.dsheirer.audio.broadcast.shoutcast.v1.ShoutcastV1Configuration;
+import io.github.dsheirer.audio.broadcast.shoutcast.v2.NioShoutcastV2AudioBroadcaster;
+import io.github.dsheirer.audio.broadcast.shoutcast.v2.ShoutcastV2Configuration;
+import io.github.dsheirer.audio.convert.InputAudioFormat;
+import io.github.dsheirer.audio.convert.MP3Setting;
+import io.github.dsheirer.identifier.IdentifierCollection;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the streaming selector broadcasters against the fake streaming server on a loopback port.
+ */
+public class NioAudioStreamingBroadcasterTest
+{
+    private static final String MOUNT_POINT = "/sdrtrunk";
+    private static final String PASSWORD = "hackme";
+    private static final InputAudioFormat INPUT_AUDIO_FORMAT = InputAudioFormat.SR_16000;
+    private static final MP3Setting MP3_SETTING = MP3Setting.CBR_16;
+    private static final double BYTES_PER_SECOND = MP3_SETTING.getSetting() * 1000 / 8.0;
+    private static final long TIMEOUT_MS = 10000;
+
+    /* Padding applied to each audio frame so that a paused server fills the socket buffers quickly */
+    private static final int STALL_FRAME_SIZE = 16 * 1024;
+
+    private FakeStreamingServer mServer;
+    private List<NioAudioStreamingBroadcaster<?>> mBroadcasters = new ArrayList<>();
+
+    @BeforeEach
+    public void setup() throws IOException
+    {
+        mServer = new FakeStreamingServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        mServer.start();
+    }
+
+    @AfterEach
+    public void teardown()
+    {
+        for(NioAudioStreamingBroadcaster<?> broadcaster : mBroadcasters)
+        {
+            broadcaster.stop();
+        }
+
+        mServer.close();
+    }
+
+    @Test
+    public void icecastTCPHandshake()
+    {
+        start(new NioIcecastTCPAudioBroadcaster(icecast(new IcecastTCPConfiguration()), INPUT_AUDIO_FORMAT,
+            MP3_SETTING, null));
+
+        Connection connection = awaitStreaming(1);
+        Assertions.assertEquals(Protocol.ICECAST, connection.getProtocol());
+        Assertions.assertEquals("SOURCE " + MOUNT_POINT + " HTTP/1.0", connection.getRequest());
+    }
+
+    @Test
+    public void icecastHTTPHandshake()
+    {
+        start(new NioIcecastHTTPAudioBroadcaster(icecast(new IcecastHTTPConfiguration()), INPUT_AUDIO_FORMAT,
+            MP3_SETTING, null));
+
+        Connection connection = awaitStreaming(1);
+        Assertions.assertEquals(Protocol.ICECAST, connection.getProtocol());
+        Assertions.assertEquals("PUT " + MOUNT_POINT + " HTTP/1.1", connection.getRequest());
+    }
+
+    @Test
+    public void shoutcastV1Handshake()
+    {
+        ShoutcastV1Configuration configuration = configure(new ShoutcastV1Configuration());
+        configuration.setBitRate(MP3_SETTING.getSetting());
+        start(new NioShoutcastV1AudioBroadcaster(configuration, INPUT_AUDIO_FORMAT, MP3_SETTING, null));
+
+        Connection connection = awaitStreaming(1);
+        Assertions.assertEquals(Protocol.SHOUTCAST_V1, connection.getProtocol());
+        Assertions.assertEquals(PASSWORD, connection.getRequest());
+    }
+
+    @Test
+    public void shoutcastV2Handshake()
+    {
+        ShoutcastV2Configuration configuration = configure(new ShoutcastV2Configuration());
+        configuration.setStreamID(1);
+        configuration.setUserID("source");
+        configuration.setBitRate(MP3_SETTING.getSetting());
+        start(new NioShoutcastV2AudioBroadcaster(configuration, INPUT_AUDIO_FORMAT, MP3_SETTING, null));
+
+        Connection connection = awaitStreaming(1);
+        Assertions.assertEquals(Protocol.SHOUTCAST_V2, connection.getProtocol());
+        assertMP3FrameSync(connection.getFirstAudioBytes());
+    }
+
+    @Test
+    public void silenceIsPacedAtRealTime() throws InterruptedException
+    {
+        start(new NioIcecastTCPAudioBroadcaster(icecast(new IcecastTCPConfiguration()), INPUT_AUDIO_FORMAT,
+            MP3_SETTING, null));
+
+        Connection connection = awaitStreaming(1);
+
+        //With no recordings queued, the stream is filled with MP3 silence frames
+        assertMP3FrameSync(connection.getFirstAudioBytes());
+
+        //The first interval after connecting pre-buffers one second of audio
+        Thread.sleep(500);
+        Assertions.assertTrue(connection.getBytesReceived() >= BYTES_PER_SECOND * 0.9,
+            "Pre-buffer bytes: " + connection.getBytesReceived());
+
+        //Thereafter, audio is streamed at the real-time rate in pacing intervals
+        Thread.sleep(1000);
+        connection.resetMaxGap();
+        long startBytes = connection.getBytesReceived();
+        long start = System.currentTimeMillis();
+        Thread.sleep(4000);
+        long bytes = connection.getBytesReceived() - startBytes;
+        double rate = bytes * 1000.0 / (System.currentTimeMillis() - start);
+
+        Assertions.assertEquals(BYTES_PER_SECOND, rate, BYTES_PER_SECOND * 0.06, "Streaming rate bytes/second");
+        Assertions.assertTrue(connection.getMaxGap() < 500, "Max gap between reads: " + connection.getMaxGap());
+    }
+
+    @Test
+    public void reconnectsAfterServerClose()
+    {
+        NioAudioStreamingBroadcaster<?> broadcaster = start(new NioIcecastTCPAudioBroadcaster(
+            icecast(new IcecastTCPConfiguration()), INPUT_AUDIO_FORMAT, MP3_SETTING, null));
+
+        Connection first = awaitStreaming(1);
+        mServer.disconnectAll();
+
+        await(() -> broadcaster.getBroadcastState() == BroadcastState.DISCONNECTED, TIMEOUT_MS,
+            "Broadcaster did not detect the server close");
+        Assertions.assertFalse(first.isOpen());
+
+        Connection second = awaitStreaming(2);
+        Assertions.assertEquals(Protocol.ICECAST, second.getProtocol());
+        Assertions.assertEquals(2, mServer.getConnections().size());
+    }
+
+    @Test
+    public void stalledConnectionIsReset()
+    {
+        NioAudioStreamingBroadcaster<?> broadcaster = start(new NioIcecastTCPAudioBroadcaster(
+            icecast(new IcecastTCPConfiguration()), INPUT_AUDIO_FORMAT, MP3_SETTING, null)
+        {
+            @Override
+            protected void broadcastAudio(byte[] audio, IdentifierCollection identifierCollection)
+            {
+                super.broadcastAudio(Arrays.copyOf(audio, STALL_FRAME_SIZE), identifierCollection);
+            }
+        });
+
+        awaitStreaming(1);
+        mServer.setReading(false);
+        long paused = System.currentTimeMillis();
+
+        await(() -> broadcaster.getBroadcastState() == BroadcastState.DISCONNECTED,
+            NioAudioStreamingBroadcaster.WRITE_TIMEOUT_MS * 3, "Stalled connection was not reset");
+        long elapsed = System.currentTimeMillis() - paused;
+        Assertions.assertTrue(elapsed >= NioAudioStreamingBroadcaster.WRITE_TIMEOUT_MS,
+            "Connection reset before the write timeout: " + elapsed);
+
+        mServer.setReading(true);
+        awaitStreaming(2);
+    }
+
+    /**
+     * Registers the broadcaster for removal after the test and starts it
+     */
+    private NioAudioStreamingBroadcaster<?> start(NioAudioStreamingBroadcaster<?> broadcaster)
+    {
+        mBroadcasters.add(broadcaster);
+        broadcaster.start();
+        return broadcaster;
+    }
+
+    /**
+     * Waits for the connection count to reach the count and for the last connection to receive audio
+     * @return last connection
+     */
+    private Connection awaitStreaming(int count)
+    {
+        await(() -> mServer.getConnections().size() >= count, TIMEOUT_MS, "Source did not connect");
+        Connection connection = mServer.getConnections().get(count - 1);
+        await(() -> connection.getFirstAudioBytes() != null, TIMEOUT_MS, "Source did not stream audio");
+
+        for(NioAudioStreamingBroadcaster<?> broadcaster : mBroadcasters)
+        {
+            Assertions.assertEquals(BroadcastState.CONNECTED, broadcaster.getBroadcastState());
+        }
+
+        return connection;
+    }
+
+    private static void await(BooleanSupplier condition, long timeout, String message)
+    {
+        long deadline = System.currentTimeMillis() + timeout;
+
+        while(!condition.getAsBoolean())
+        {
+            if(System.currentTimeMillis() > deadline)
+            {
+                Assertions.fail(message);
+            }
+
+            try
+            {
+                Thread.sleep(20);
+            }
+            catch(InterruptedException ie)
+            {
+                Assertions.fail("Interrupted");
+            }
+        }
+    }
+
+    private static void assertMP3FrameSync(byte[] bytes)
+    {
+        Assertions.assertNotNull(bytes);
+        Assertions.assertEquals(0xFF, bytes[0] & 0xFF, "MP3 frame sync");
+        Assertions.assertEquals(0xE0, bytes[1] & 0xE0, "MP3 frame sync");
+    }
+
+    private <T extends IcecastConfiguration> T icecast(T configuration)
+    {
+        configure(configuration);
+        configuration.setMountPoint(MOUNT_POINT);
+        configuration.setUserName("source");
+        configuration.setBitRate(MP3_SETTING.getSetting());
+        configuration.setInline(false);
+        return configuration;
+    }
+
+    private <T extends BroadcastConfiguration> T configure(T configuration)
+    {
+        configuration.setName("Test Stream");
+        configuration.setHost(InetAddress.getLoopbackAddress().getHostAddress());
+        configuration.setPort(mServer.getPort());
+        configuration.setPassword(PASSWORD);
+        return configuration;
+    }
+}
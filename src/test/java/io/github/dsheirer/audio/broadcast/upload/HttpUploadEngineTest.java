@@ -0,0 +1,389 @@
+package io.github.dsheirer.audio.broadcast.upload;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.dsheirer.audio.broadcast.AudioRecording;
+import io.github.dsheirer.audio.broadcast.rdioscanner.RdioScannerBuilder;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests the HTTP upload engine against a local HTTP server that stands in for a call upload API.
+ */
+public class HttpUploadEngineTest
+{
+    private static final String CALL_FIELD = "call";
+    private static final String AUDIO_HEADER = "name=\"audio\"\r\n\r\n";
+    private static final long MAXIMUM_AGE = TimeUnit.MINUTES.toMillis(10);
+    private static final long TIMEOUT_SECONDS = 20;
+
+    @TempDir
+    Path mDirectory;
+
+    private HttpServer mServer;
+    private HttpClient mHttpClient = HttpClient.newHttpClient();
+    private AtomicInteger mFailuresRemaining = new AtomicInteger();
+    private AtomicInteger mActive = new AtomicInteger();
+    private AtomicInteger mMaximumActive = new AtomicInteger();
+    private AtomicInteger mRequestCount = new AtomicInteger();
+    private volatile CountDownLatch mGate = new CountDownLatch(0);
+    private List<Long> mArrivals = Collections.synchronizedList(new ArrayList<>());
+    private Map<String,byte[]> mReceived = new ConcurrentHashMap<>();
+    private Map<String,byte[]> mSent = new ConcurrentHashMap<>();
+    private List<AudioRecording> mRecordings = new ArrayList<>();
+    private LinkedBlockingQueue<UploadResult> mResults = new LinkedBlockingQueue<>();
+
+    @BeforeEach
+    void startServer() throws IOException
+    {
+        mServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        mServer.createContext("/upload", this::handle);
+        mServer.setExecutor(Executors.newCachedThreadPool());
+        mServer.start();
+    }
+
+    @AfterEach
+    void stopServer()
+    {
+        mGate.countDown();
+        mServer.stop(0);
+    }
+
+    /**
+     * Verifies that no more than the maximum number of requests are in flight, that the multipart body streamed from
+     * the audio file is byte-exact, and that every audio recording replay is released.
+     */
+    @Test
+    void limitsRequestsInFlight() throws Exception
+    {
+        mGate = new CountDownLatch(1);
+        HttpUploadEngine engine = createEngine(new UploadSpool(mDirectory.resolve("spool")), 3);
+        engine.start();
+
+        for(int x = 0; x < 10; x++)
+        {
+            engine.submit(createRequest("call" + x, 1000 + x * 517));
+        }
+
+        waitFor(() -> mActive.get() == 3);
+        Thread.sleep(200);
+        Assertions.assertEquals(3, mActive.get(), "Requests in flight");
+        Assertions.assertEquals(7, engine.getQueueSize(), "Queued requests");
+        mGate.countDown();
+
+        Assertions.assertEquals(Collections.nCopies(10, UploadResult.SUCCESS), awaitResults(10));
+        Assertions.assertEquals(3, mMaximumActive.get(), "Maximum requests in flight");
+        Assertions.assertEquals(10, mRequestCount.get(), "Each call should be uploaded once");
+        assertReceivedExactly();
+        assertReleased();
+        engine.stop();
+    }
+
+    /**
+     * Verifies that a failing endpoint causes the engine to spool the backlog, back off exponentially and probe with a
+     * single request before returning to full concurrency.
+     */
+    @Test
+    void backsOffAndProbesFailingEndpoint() throws Exception
+    {
+        //The first three concurrent requests and the first probe fail
+        mFailuresRemaining.set(4);
+        UploadSpool spool = new UploadSpool(mDirectory.resolve("spool"));
+        HttpUploadEngine engine = createEngine(spool, 3);
+        engine.start();
+
+        for(int x = 0; x < 6; x++)
+        {
+            engine.submit(createRequest("call" + x, 2000 + x * 311));
+        }
+
+        List<UploadResult> results = awaitResults(10);
+        Assertions.assertEquals(6, Collections.frequency(results, UploadResult.SUCCESS), "Successful uploads");
+        Assertions.assertEquals(4, Collections.frequency(results, UploadResult.RETRY), "Retried uploads");
+        Assertions.assertEquals(10, mRequestCount.get(), "Requests including failed attempts");
+        Assertions.assertEquals(0, spool.size(), "Spool should be empty");
+        Assertions.assertEquals(0, engine.getQueueSize(), "Queue should be empty");
+
+        //The first probe waits for the initial backoff and the second probe waits for the doubled backoff
+        List<Long> arrivals = new ArrayList<>(mArrivals);
+        Assertions.assertTrue(arrivals.get(3) - arrivals.get(2) >= 900, "First probe should wait for the backoff");
+        Assertions.assertTrue(arrivals.get(4) - arrivals.get(3) >= 1900, "Second probe should double the backoff");
+
+        assertReceivedExactly();
+        assertReleased();
+        Assertions.assertEquals(0, countSpoolFiles(), "Spool files should be deleted after upload");
+        engine.stop();
+    }
+
+    /**
+     * Verifies that spooled requests survive an engine stop and are uploaded by a new engine that restores the spool.
+     */
+    @Test
+    void spoolSurvivesRestart() throws Exception
+    {
+        mFailuresRemaining.set(Integer.MAX_VALUE);
+        Path spoolDirectory = mDirectory.resolve("spool");
+        HttpUploadEngine engine = createEngine(new UploadSpool(spoolDirectory), 2);
+        engine.start();
+
+        for(int x = 0; x < 4; x++)
+        {
+            engine.submit(createRequest("call" + x, 3000 + x * 101));
+        }
+
+        //Stop after the initial failures, while the engine is waiting for the backoff delay
+        Assertions.assertEquals(List.of(UploadResult.RETRY, UploadResult.RETRY), awaitResults(2));
+        waitFor(() -> engine.getQueueSize() == 4);
+        engine.stop();
+        assertReleased();
+        Assertions.assertEquals(8, countSpoolFiles(), "Audio and properties file for each spooled request");
+
+        //Source recordings are gone after they are released, so the upload must come from the spooled copies
+        for(AudioRecording recording: mRecordings)
+        {
+            Files.delete(recording.getPath());
+        }
+
+        mFailuresRemaining.set(0);
+        mRequestCount.set(0);
+        UploadSpool restored = new UploadSpool(spoolDirectory);
+        HttpUploadEngine restarted = createEngine(restored, 2);
+        restarted.start();
+
+        Assertions.assertEquals(Collections.nCopies(4, UploadResult.SUCCESS), awaitResults(4));
+        Assertions.assertEquals(4, mRequestCount.get(), "Each restored call should be uploaded once");
+        assertReceivedExactly();
+        Assertions.assertEquals(0, countSpoolFiles(), "Spool files should be deleted after upload");
+        restarted.stop();
+    }
+
+    /**
+     * Creates an engine with a protocol that streams the multipart body to the local server
+     */
+    private HttpUploadEngine createEngine(UploadSpool spool, int maximumInFlight)
+    {
+        IUploadListener listener = new IUploadListener()
+        {
+            @Override
+            public void uploadComplete(UploadRequest request, UploadResult result)
+            {
+                mResults.add(result);
+            }
+
+            @Override
+            public void uploadQueueChanged()
+            {
+            }
+        };
+
+        return new HttpUploadEngine("test", this::upload, listener, spool, maximumInFlight, MAXIMUM_AGE);
+    }
+
+    /**
+     * Uploads the request using the Rdio Scanner streaming multipart body
+     */
+    private CompletableFuture<UploadResult> upload(UploadRequest request)
+    {
+        RdioScannerBuilder builder = new RdioScannerBuilder();
+        request.getFields().forEach(builder::addPart);
+        builder.addAudioName(request.getAudioName()).addFile(request.getAudioPath());
+
+        HttpRequest httpRequest;
+
+        try
+        {
+            httpRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://127.0.0.1:" + mServer.getAddress().getPort() + "/upload"))
+                .header("Content-Type", "multipart/form-data; boundary=" + builder.getBoundary())
+                .POST(builder.build())
+                .build();
+        }
+        catch(IOException ioe)
+        {
+            return CompletableFuture.completedFuture(UploadResult.FAILED);
+        }
+
+        return mHttpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofString())
+            .thenApply(response -> response.statusCode() == 200 ? UploadResult.SUCCESS :
+                UploadResult.fromStatusCode(response.statusCode()))
+            .exceptionally(throwable -> UploadResult.RETRY);
+    }
+
+    /**
+     * Server request handler
+     */
+    private void handle(HttpExchange exchange) throws IOException
+    {
+        mArrivals.add(System.currentTimeMillis());
+        mRequestCount.incrementAndGet();
+        int active = mActive.incrementAndGet();
+        mMaximumActive.accumulateAndGet(active, Math::max);
+
+        try
+        {
+            byte[] body;
+
+            try(InputStream inputStream = exchange.getRequestBody())
+            {
+                body = inputStream.readAllBytes();
+            }
+
+            mGate.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+            int status = 200;
+
+            if(mFailuresRemaining.getAndUpdate(remaining -> Math.max(0, remaining - 1)) > 0)
+            {
+                status = 503;
+            }
+            else
+            {
+                String text = new String(body, StandardCharsets.ISO_8859_1);
+                String call = getField(text, CALL_FIELD);
+                int start = text.indexOf(AUDIO_HEADER) + AUDIO_HEADER.length();
+                int end = text.lastIndexOf("\r\n--" + new RdioScannerBuilder().getBoundary() + "--");
+                mReceived.put(call, Arrays.copyOfRange(body, start, end));
+            }
+
+            mActive.decrementAndGet();
+            exchange.sendResponseHeaders(status, -1);
+        }
+        catch(InterruptedException ie)
+        {
+            mActive.decrementAndGet();
+            exchange.sendResponseHeaders(500, -1);
+        }
+        finally
+        {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Extracts a form field value from the multipart body
+     */
+    private static String getField(String body, String name)
+    {
+        String header = "name=\"" + name + "\"\r\n\r\n";
+        int start = body.indexOf(header) + header.length();
+        return body.substring(start, body.indexOf("\r\n", start));
+    }
+
+    /**
+     * Creates an upload request for a temporary audio recording filled with random bytes
+     */
+    private UploadRequest createRequest(String call, int length) throws IOException
+    {
+        byte[] audio = new byte[length];
+        new Random(call.hashCode()).nextBytes(audio);
+        Path path = mDirectory.resolve(call + ".mp3");
+        Files.write(path, audio);
+        mSent.put(call, audio);
+
+        AudioRecording recording = new AudioRecording(path, Collections.emptyList(), null,
+            System.currentTimeMillis(), 1000);
+        recording.addPendingReplay();
+        mRecordings.add(recording);
+
+        return new UploadRequest(recording).setAudioName(call + ".mp3").addField(CALL_FIELD, call);
+    }
+
+    /**
+     * Waits for the number of upload results, including retried attempts
+     */
+    private List<UploadResult> awaitResults(int count) throws InterruptedException
+    {
+        List<UploadResult> results = new ArrayList<>();
+
+        for(int x = 0; x < count; x++)
+        {
+            UploadResult result = mResults.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            Assertions.assertNotNull(result, "Timed out waiting for upload result " + x);
+            results.add(result);
+        }
+
+        return results;
+    }
+
+    /**
+     * Verifies that the server received each sent audio file exactly
+     */
+    private void assertReceivedExactly()
+    {
+        Assertions.assertEquals(mSent.keySet(), mReceived.keySet(), "Received calls");
+
+        for(Map.Entry<String,byte[]> entry: mSent.entrySet())
+        {
+            Assertions.assertArrayEquals(entry.getValue(), mReceived.get(entry.getKey()),
+                "Audio for " + entry.getKey());
+        }
+    }
+
+    /**
+     * Verifies that every audio recording replay was released
+     */
+    private void assertReleased()
+    {
+        for(AudioRecording recording: mRecordings)
+        {
+            Assertions.assertFalse(recording.hasPendingReplays(), "Replay leaked for " + recording.getPath());
+        }
+    }
+
+    /**
+     * Number of files in the spool directory
+     */
+    private long countSpoolFiles() throws IOException
+    {
+        try(var stream = Files.list(mDirectory.resolve("spool")))
+        {
+            return stream.count();
+        }
+    }
+
+    /**
+     * Waits up to the timeout for the condition to become true
+     */
+    private static void waitFor(Condition condition) throws Exception
+    {
+        long timeout = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+
+        while(!condition.isTrue())
+        {
+            Assertions.assertTrue(System.currentTimeMillis() < timeout, "Timed out waiting for condition");
+            Thread.sleep(10);
+        }
+    }
+
+    private interface Condition
+    {
+        boolean isTrue() throws Exception;
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.filter.channelizer;
+
+import io.github.dsheirer.dsp.filter.design.FilterDesignException;
+import io.github.dsheirer.sample.complex.InterleavedComplexSamples;
+import io.github.dsheirer.source.tuner.channel.TunerChannel;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Benchmark comparing the processing throughput of the fast convolution channelizer against the polyphase M2
+ * channelizer for an increasing number of active channels.
+ *
+ * Both measurements include the complete processing for each active channel.  The polyphase measurement includes
+ * the polyphase filter bank, the IFFT across all channels and the per-channel synthesis and mixing performed by the
+ * polyphase channel output processors.  The fast convolution measurement includes the forward FFT and the
+ * per-channel bin selection, filtering, inverse FFT and residual mixing.  The polyphase IFFT and output processing
+ * run on their own threads as they do in a tuner, so the polyphase measurement runs until the last channel output
+ * buffer is produced.
+ */
+public class FastConvolutionChannelizerBenchmark
+{
+    private static final Logger mLog = LoggerFactory.getLogger(FastConvolutionChannelizerBenchmark.class);
+    private static final DecimalFormat DECIMAL_FORMAT = new DecimalFormat("0.0");
+    private static final double SAMPLE_RATE = 10_000_000.0;
+    private static final long CENTER_FREQUENCY = 450_000_000;
+    private static final double CHANNEL_SAMPLE_RATE = 25_000.0;
+    private static final int CHANNEL_BANDWIDTH = 12500;
+    private static final double CHANNEL_OVERSAMPLING = 2.0;
+    private static final int BUFFER_SIZE = 131072;
+    private static final int ITERATIONS = 200;
+
+    /**
+     * Interval with no new channel output that indicates the polyphase threads have processed all queued results
+     */
+    private static final long DRAIN_CHECK_MS = 500;
+
+    /**
+     * Creates a set of random sample buffers, interleaved complex.
+     */
+    private static List<InterleavedComplexSamples> getSamples()
+    {
+        Random random = new Random();
+        List<InterleavedComplexSamples> buffers = new ArrayList<>();
+
+        for(int x = 0; x < 8; x++)
+        {
+            float[] samples = new float[BUFFER_SIZE * 2];
+
+            for(int y = 0; y < samples.length; y++)
+            {
+                samples[y] = random.nextFloat() * 2.0f - 1.0f;
+            }
+
+            buffers.add(new InterleavedComplexSamples(samples, System.currentTimeMillis()));
+        }
+
+        return buffers;
+    }
+
+    /**
+     * Channel frequencies spread across the middle 80% of the bandwidth at arbitrary (non-grid) frequencies
+     */
+    private static long[] getFrequencies(int channelCount)
+    {
+        long[] frequencies = new long[channelCount];
+        double spacing = (SAMPLE_RATE * 0.8) / channelCount;
+
+        for(int x = 0; x < channelCount; x++)
+        {
+            frequencies[x] = (long)(CENTER_FREQUENCY - (SAMPLE_RATE * 0.4) + (x * spacing) + 1234);
+        }
+
+        return frequencies;
+    }
+
+    /**
+     * Measures the polyphase channelizer throughput with the specified number of active channels.
+     * @return samples per second
+     */
+    private static double benchmarkPolyphase(List<InterleavedComplexSamples> buffers, int channelCount)
+            throws FilterDesignException, InterruptedException
+    {
+        ComplexPolyphaseChannelizerM2 channelizer = new ComplexPolyphaseChannelizerM2(SAMPLE_RATE, 9);
+        ChannelCalculator channelCalculator = new ChannelCalculator(SAMPLE_RATE, channelizer.getChannelCount(),
+                CENTER_FREQUENCY, CHANNEL_OVERSAMPLING);
+        SynthesisFilterManager filterManager = new SynthesisFilterManager();
+        List<PolyphaseChannelSource> channels = new ArrayList<>();
+        AtomicLong outputCount = new AtomicLong();
+        AtomicLong lastOutput = new AtomicLong();
+
+        for(long frequency: getFrequencies(channelCount))
+        {
+            PolyphaseChannelSource channel = new PolyphaseChannelSource(new TunerChannel(frequency, CHANNEL_BANDWIDTH),
+                    channelCalculator, filterManager, null);
+            channel.setListener(samples -> {
+                lastOutput.set(System.nanoTime());
+                outputCount.incrementAndGet();
+            });
+            channelizer.addChannel(channel);
+            channel.start();
+            channels.add(channel);
+        }
+
+        channelizer.start();
+
+        long start = System.nanoTime();
+
+        for(int iteration = 0; iteration < ITERATIONS; iteration++)
+        {
+            channelizer.receive(buffers.get(iteration % buffers.size()));
+        }
+
+        //Wait for the IFFT dispatcher and the channel output processors to finish the queued channel results
+        long previousCount = -1;
+
+        while(outputCount.get() != previousCount)
+        {
+            previousCount = outputCount.get();
+            Thread.sleep(DRAIN_CHECK_MS);
+        }
+
+        double elapsed = (lastOutput.get() - start) / 1E9;
+
+        channelizer.stop();
+
+        for(PolyphaseChannelSource channel: channels)
+        {
+            channel.stop();
+            channelizer.removeChannel(channel);
+            channel.dispose();
+        }
+
+        return (double)ITERATIONS * BUFFER_SIZE / elapsed;
+    }
+
+    /**
+     * Measures the fast convolution channelizer throughput with the specified number of active channels.
+     * @return samples per second
+     */
+    private static double benchmarkFastConvolution(List<InterleavedComplexSamples> buffers, int channelCount)
+            throws FilterDesignException
+    {
+        FastConvolutionChannelizer channelizer = new FastConvolutionChannelizer(SAMPLE_RATE, CENTER_FREQUENCY);
+
+        for(long frequency: getFrequencies(channelCount))
+        {
+            FastConvolutionChannel channel = new FastConvolutionChannel(SAMPLE_RATE, channelizer.getFFTSize(),
+                    frequency, CHANNEL_SAMPLE_RATE);
+            channelizer.addListener(channel::process);
+        }
+
+        long start = System.nanoTime();
+
+        for(int iteration = 0; iteration < ITERATIONS; iteration++)
+        {
+            channelizer.receive(buffers.get(iteration % buffers.size()));
+        }
+
+        double elapsed = (System.nanoTime() - start) / 1E9;
+        return (double)ITERATIONS * BUFFER_SIZE / elapsed;
+    }
+
+    public static void main(String[] args)
+    {
+        List<InterleavedComplexSamples> buffers = getSamples();
+
+        try
+        {
+            //Warm-up
+            benchmarkPolyphase(buffers, 10);
+            benchmarkFastConvolution(buffers, 10);
+
+            for(int channels: new int[]{1, 5, 10, 20, 40, 80})
+            {
+                double polyphase = benchmarkPolyphase(buffers, channels);
+                double fastConvolution = benchmarkFastConvolution(buffers, channels);
+                mLog.info("[" + channels + "] channels - Polyphase M2: " + DECIMAL_FORMAT.format(polyphase / 1E6) +
+                        " MSps Fast Convolution: " + DECIMAL_FORMAT.format(fastConvolution / 1E6) + " MSps (" +
+                        DECIMAL_FORMAT.format(fastConvolution / polyphase * 100.0) + "% of polyphase)");
+            }
+        }
+        catch(FilterDesignException fde)
+        {
+            mLog.error("Error designing channelizer filters", fde);
+        }
+        catch(InterruptedException ie)
+        {
+            mLog.error("Interrupted while waiting for the polyphase channels", ie);
+        }
+
+        System.exit(0);
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2023 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.filter.equalizer;
+
+import io.github.dsheirer.sample.complex.ComplexSamples;
+import java.text.DecimalFormat;
+import java.util.Random;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Benchmark comparing the processing throughput of the scalar and vector CMA equalizer implementations across a
+ * range of tap counts, using QPSK symbols that have passed through a simulated simulcast multipath channel.
+ *
+ * Both implementations process the same sample stream and the benchmark also reports the largest difference between
+ * the equalized outputs so that any divergence between the implementations is visible alongside the timing.
+ */
+public class CMAEqualizerBenchmark
+{
+    private static final Logger mLog = LoggerFactory.getLogger(CMAEqualizerBenchmark.class);
+    private static final DecimalFormat DECIMAL_FORMAT = new DecimalFormat("0.0");
+    private static final int[] TAP_COUNTS = {5, 11, 16, 21, 32};
+    private static final int BUFFER_SIZE = 2048;
+    private static final int BUFFER_COUNT = 8;
+    private static final int ITERATIONS = 2000;
+    private static final float MODULUS = 1.0f;
+    private static final float MU = 0.002f;
+
+    /**
+     * Creates unit-modulus QPSK symbols passed through a two-path channel with a delayed echo, with a small amount of
+     * noise.
+     */
+    private static ComplexSamples[] getSamples()
+    {
+        Random random = new Random(1);
+        ComplexSamples[] buffers = new ComplexSamples[BUFFER_COUNT];
+        float previousI = 0.0f, previousQ = 0.0f, delayedI = 0.0f, delayedQ = 0.0f;
+        float component = (float)Math.sqrt(0.5);
+
+        for(int buffer = 0; buffer < BUFFER_COUNT; buffer++)
+        {
+            float[] i = new float[BUFFER_SIZE];
+            float[] q = new float[BUFFER_SIZE];
+
+            for(int x = 0; x < BUFFER_SIZE; x++)
+            {
+                float symbolI = random.nextBoolean() ? component : -component;
+                float symbolQ = random.nextBoolean() ? component : -component;
+
+                //Echo arrives two symbols late with 0.3 amplitude and a 90 degree phase rotation
+                i[x] = symbolI - (0.3f * delayedQ) + (float)(random.nextGaussian() * 0.01);
+                q[x] = symbolQ + (0.3f * delayedI) + (float)(random.nextGaussian() * 0.01);
+
+                delayedI = previousI;
+                delayedQ = previousQ;
+                previousI = symbolI;
+                previousQ = symbolQ;
+            }
+
+            buffers[buffer] = new ComplexSamples(i, q, 0);
+        }
+
+        return buffers;
+    }
+
+    /**
+     * Measures the equalizer throughput.
+     * @return samples per second
+     */
+    private static double benchmark(CMAEqualizer equalizer, ComplexSamples[] buffers)
+    {
+        float accumulator = 0.0f;
+        long start = System.nanoTime();
+
+        for(int iteration = 0; iteration < ITERATIONS; iteration++)
+        {
+            accumulator += equalizer.equalize(buffers[iteration % buffers.length]).i()[0];
+        }
+
+        double elapsed = (System.nanoTime() - start) / 1E9;
+        return ((double)ITERATIONS * BUFFER_SIZE / elapsed) + (accumulator * 0);
+    }
+
+    /**
+     * Largest absolute difference between the scalar and vector outputs for the same sample stream.
+     */
+    private static float getMaximumDifference(int tapCount, ComplexSamples[] buffers)
+    {
+        CMAEqualizer scalar = new ScalarCMAEqualizer(tapCount, MODULUS, MU);
+        CMAEqualizer vector = new VectorCMAEqualizer(tapCount, MODULUS, MU);
+        float maximum = 0.0f;
+
+        for(ComplexSamples buffer : buffers)
+        {
+            ComplexSamples scalarOutput = scalar.equalize(buffer);
+            ComplexSamples vectorOutput = vector.equalize(buffer);
+
+            for(int x = 0; x < BUFFER_SIZE; x++)
+            {
+                maximum = Math.max(maximum, Math.abs(scalarOutput.i()[x] - vectorOutput.i()[x]));
+                maximum = Math.max(maximum, Math.abs(scalarOutput.q()[x] - vectorOutput.q()[x]));
+            }
+        }
+
+        return maximum;
+    }
+
+    public static void main(String[] args)
+    {
+        ComplexSamples[] buffers = getSamples();
+
+        //Warm up both implementations
+        for(int tapCount : TAP_COUNTS)
+        {
+            benchmark(new ScalarCMAEqualizer(tapCount, MODULUS, MU), buffers);
+            benchmark(new VectorCMAEqualizer(tapCount, MODULUS, MU), buffers);
+        }
+
+        for(int tapCount : TAP_COUNTS)
+        {
+            double scalar = benchmark(new ScalarCMAEqualizer(tapCount, MODULUS, MU), buffers);
+            double vector = benchmark(new VectorCMAEqualizer(tapCount, MODULUS, MU), buffers);
+
+            mLog.info("Taps [" + tapCount + "] Scalar [" + DECIMAL_FORMAT.format(scalar / 1E6) +
+                    " MS/s] Vector [" + DECIMAL_FORMAT.format(vector / 1E6) + " MS/s] Speedup [" +
+                    DECIMAL_FORMAT.format(vector / scalar) + "x] Max Difference [" +
+                    getMaximumDifference(tapCount, buffers) + "]");
+        }
+    }
+}
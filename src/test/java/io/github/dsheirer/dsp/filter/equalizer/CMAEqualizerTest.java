@@ -0,0 +1,110 @@
+package io.github.dsheirer.dsp.filter.equalizer;
+
+import io.github.dsheirer.sample.complex.ComplexSamples;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class CMAEqualizerTest
+{
+    private static final float MODULUS = 1.0f;
+    private static final float MU = 0.002f;
+    private static final float TOLERANCE = 1E-3f;
+
+    /**
+     * Creates unit-modulus QPSK symbols with a delayed, phase-rotated echo
+     */
+    private static float[][] getSamples(int length, long seed)
+    {
+        Random random = new Random(seed);
+        float component = (float)Math.sqrt(0.5);
+        float[] i = new float[length];
+        float[] q = new float[length];
+
+        for(int x = 0; x < length; x++)
+        {
+            i[x] = random.nextBoolean() ? component : -component;
+            q[x] = random.nextBoolean() ? component : -component;
+        }
+
+        float[] echoedI = new float[length];
+        float[] echoedQ = new float[length];
+
+        for(int x = 0; x < length; x++)
+        {
+            echoedI[x] = i[x] - (x >= 2 ? 0.3f * q[x - 2] : 0.0f);
+            echoedQ[x] = q[x] + (x >= 2 ? 0.3f * i[x - 2] : 0.0f);
+        }
+
+        return new float[][]{echoedI, echoedQ};
+    }
+
+    /**
+     * Verifies that the vector implementation produces the same output as the scalar implementation for a range of
+     * tap counts, including tap counts that are not a multiple of the SIMD lane width, and for buffer lengths that
+     * change from one call to the next.
+     */
+    @Test
+    void vectorMatchesScalar()
+    {
+        int[] bufferLengths = {1, 7, 64, 13, 2048, 100, 512};
+
+        for(int tapCount : new int[]{1, 5, 8, 11, 16, 21, 33})
+        {
+            CMAEqualizer scalar = new ScalarCMAEqualizer(tapCount, MODULUS, MU);
+            CMAEqualizer vector = new VectorCMAEqualizer(tapCount, MODULUS, MU);
+            long seed = 0;
+
+            for(int length : bufferLengths)
+            {
+                float[][] samples = getSamples(length, seed++);
+                ComplexSamples scalarOutput = scalar.equalize(samples[0], samples[1], 0);
+                ComplexSamples vectorOutput = vector.equalize(samples[0], samples[1], 0);
+
+                for(int x = 0; x < length; x++)
+                {
+                    Assertions.assertEquals(scalarOutput.i()[x], vectorOutput.i()[x], TOLERANCE,
+                            "Inphase mismatch - taps [" + tapCount + "] buffer length [" + length + "] index [" + x + "]");
+                    Assertions.assertEquals(scalarOutput.q()[x], vectorOutput.q()[x], TOLERANCE,
+                            "Quadrature mismatch - taps [" + tapCount + "] buffer length [" + length + "] index [" + x + "]");
+                }
+            }
+
+            float[] scalarTaps = scalar.getTaps();
+            float[] vectorTaps = vector.getTaps();
+
+            for(int x = 0; x < scalarTaps.length; x++)
+            {
+                Assertions.assertEquals(scalarTaps[x], vectorTaps[x], TOLERANCE, "Tap mismatch - taps [" + tapCount + "]");
+            }
+        }
+    }
+
+    /**
+     * Verifies that the equalizer reduces the deviation from the constant modulus for a signal with an echo
+     */
+    @Test
+    void convergence()
+    {
+        CMAEqualizer equalizer = new ScalarCMAEqualizer(CMAEqualizer.DEFAULT_TAP_COUNT, MODULUS, MU);
+        float[][] samples = getSamples(20000, 1);
+        ComplexSamples output = equalizer.equalize(samples[0], samples[1], 0);
+
+        Assertions.assertTrue(getModulusError(output, 18000, 20000) < getModulusError(output, 0, 2000) / 2,
+                "Equalizer should reduce the modulus error");
+    }
+
+    private static double getModulusError(ComplexSamples samples, int start, int end)
+    {
+        double error = 0.0;
+
+        for(int x = start; x < end; x++)
+        {
+            float squaredMagnitude = samples.i()[x] * samples.i()[x] + samples.q()[x] * samples.q()[x];
+            error += Math.abs(squaredMagnitude - MODULUS);
+        }
+
+        return error / (end - start);
+    }
+}
@@ -0,0 +1,124 @@
+package io.github.dsheirer.dsp.filter.fir.real;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class LockstepRealFIRFilterTest
+{
+    private static final int TAP_COUNT = 41;
+
+    /**
+     * Creates low pass style filter coefficients
+     */
+    private static float[] getCoefficients(long seed)
+    {
+        Random random = new Random(seed);
+        float[] coefficients = new float[TAP_COUNT];
+
+        for(int x = 0; x < coefficients.length; x++)
+        {
+            coefficients[x] = (random.nextFloat() - 0.5f) / TAP_COUNT;
+        }
+
+        return coefficients;
+    }
+
+    private static float[] getSamples(Random random, int length)
+    {
+        float[] samples = new float[length];
+
+        for(int x = 0; x < length; x++)
+        {
+            samples[x] = random.nextFloat() * 2.0f - 1.0f;
+        }
+
+        return samples;
+    }
+
+    /**
+     * Verifies that each lane of the lockstep filter produces output that is bit-identical to filtering the channel
+     * with its own scalar filter.  The channel count spans more than one vector pass with a partially filled final
+     * pass, each channel starts from a different filter history, and the buffer length changes from one call to the
+     * next.  Some channels also skip batches, as they would when lagging behind the other members of a group.
+     */
+    @Test
+    void lanesMatchScalarFilters()
+    {
+        float[] coefficients = getCoefficients(1);
+        int channelCount = LockstepRealFIRFilter.getLaneCount() * 2 + 3;
+        Random random = new Random(2);
+
+        LockstepRealFIRFilter lockstep = new LockstepRealFIRFilter(coefficients);
+        RealFIRFilter[] scalars = new RealFIRFilter[channelCount];
+        float[][] histories = new float[channelCount][];
+
+        for(int channel = 0; channel < channelCount; channel++)
+        {
+            //The scalar filter reverses the coefficient array that it is given
+            scalars[channel] = new RealFIRFilter(coefficients.clone());
+            histories[channel] = lockstep.createHistory();
+
+            //Prime each channel with a different number of samples so that every channel has a different history
+            int primeLength = 1 + channel * 3;
+            float[] prime = getSamples(random, primeLength);
+            scalars[channel].filter(prime);
+            float[][] output = {new float[primeLength]};
+            lockstep.filter(new float[][]{prime}, new float[][]{histories[channel]}, output, 1);
+        }
+
+        int[] lengths = {64, 37, 1, 128, 40, 255, 64};
+
+        for(int pass = 0; pass < lengths.length; pass++)
+        {
+            int length = lengths[pass];
+            float[][] samples = new float[channelCount][];
+            float[][] batchHistories = new float[channelCount][];
+            float[][] filtered = new float[channelCount][];
+            int[] channels = new int[channelCount];
+            int count = 0;
+
+            for(int channel = 0; channel < channelCount; channel++)
+            {
+                //Every fifth channel skips alternate batches
+                if(channel % 5 == 4 && pass % 2 == 1)
+                {
+                    continue;
+                }
+
+                samples[count] = getSamples(random, length);
+                batchHistories[count] = histories[channel];
+                filtered[count] = new float[length];
+                channels[count++] = channel;
+            }
+
+            lockstep.filter(samples, batchHistories, filtered, count);
+
+            for(int x = 0; x < count; x++)
+            {
+                float[] expected = scalars[channels[x]].filter(samples[x]);
+                Assertions.assertArrayEquals(expected, filtered[x], "Channel " + channels[x] + " buffer length " +
+                    length);
+            }
+        }
+    }
+
+    /**
+     * Verifies that the filter writes into the caller's output buffers and does not modify the coefficients.
+     */
+    @Test
+    void filtersIntoOutputBuffers()
+    {
+        float[] coefficients = getCoefficients(3);
+        float[] original = coefficients.clone();
+        LockstepRealFIRFilter lockstep = new LockstepRealFIRFilter(coefficients);
+        Assertions.assertArrayEquals(original, coefficients);
+
+        float[] output = new float[16];
+        float[][] filtered = {output};
+        lockstep.filter(new float[][]{getSamples(new Random(4), 16)}, new float[][]{lockstep.createHistory()},
+            filtered, 1);
+        Assertions.assertSame(output, filtered[0]);
+    }
+}
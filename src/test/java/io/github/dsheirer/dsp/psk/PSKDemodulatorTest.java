@@ -0,0 +1,129 @@
+package io.github.dsheirer.dsp.psk;
+
+import io.github.dsheirer.dsp.psk.pll.CostasLoop;
+import io.github.dsheirer.dsp.symbol.Dibit;
+import io.github.dsheirer.sample.complex.ComplexSamples;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Verifies that block demodulation of complex sample buffers produces the same symbol decisions and loop state as
+ * demodulating the same samples one at a time.
+ */
+public class PSKDemodulatorTest
+{
+    private static final double SAMPLE_RATE = 50000.0;
+
+    /**
+     * Creates a randomized pi/4 DQPSK signal with a carrier frequency offset and noise
+     * @param symbolCount number of symbols
+     * @param symbolRate of the signal
+     * @param frequencyOffset carrier offset in hertz
+     * @param random generator
+     * @return inphase and quadrature sample arrays
+     */
+    private static float[][] getSignal(int symbolCount, double symbolRate, double frequencyOffset, Random random)
+    {
+        double samplesPerSymbol = SAMPLE_RATE / symbolRate;
+        int length = (int)(symbolCount * samplesPerSymbol);
+        double[] phases = new double[symbolCount + 1];
+
+        for(int x = 1; x <= symbolCount; x++)
+        {
+            phases[x] = phases[x - 1] + Math.PI / 4.0 * (2 * random.nextInt(4) + 1);
+        }
+
+        float[] i = new float[length];
+        float[] q = new float[length];
+
+        for(int x = 0; x < length; x++)
+        {
+            double position = x / samplesPerSymbol;
+            int symbol = (int)position;
+            double fraction = position - symbol;
+
+            //Linear interpolation between symbol points approximates the pulse shaped transitions
+            double symbolI = Math.cos(phases[symbol]) * (1.0 - fraction) + Math.cos(phases[symbol + 1]) * fraction;
+            double symbolQ = Math.sin(phases[symbol]) * (1.0 - fraction) + Math.sin(phases[symbol + 1]) * fraction;
+            double carrier = 2.0 * Math.PI * frequencyOffset * x / SAMPLE_RATE;
+
+            i[x] = (float)(symbolI * Math.cos(carrier) - symbolQ * Math.sin(carrier) + random.nextGaussian() * 0.05);
+            q[x] = (float)(symbolI * Math.sin(carrier) + symbolQ * Math.cos(carrier) + random.nextGaussian() * 0.05);
+        }
+
+        return new float[][]{i, q};
+    }
+
+    /**
+     * Demodulates the signal with both the block and the per-sample methods and compares the symbol decisions, the
+     * costas loop frequency and the symbol sampling point after each buffer.
+     */
+    private static void compare(float[][] signal, double symbolRate, float timingGain, boolean gardner, Random random)
+    {
+        float samplesPerSymbol = (float)(SAMPLE_RATE / symbolRate);
+
+        CostasLoop blockLoop = new CostasLoop(SAMPLE_RATE, symbolRate);
+        InterpolatingSampleBuffer blockBuffer = new InterpolatingSampleBuffer(samplesPerSymbol, timingGain);
+        PSKDemodulator<Dibit> blockDemodulator = gardner ? new DQPSKGardnerDemodulator(blockLoop, blockBuffer) :
+            new DQPSKDecisionDirectedDemodulator(blockLoop, blockBuffer);
+        List<Dibit> blockDibits = new ArrayList<>();
+        blockDemodulator.setSymbolListener(blockDibits::add);
+        blockDemodulator.start();
+
+        CostasLoop sampleLoop = new CostasLoop(SAMPLE_RATE, symbolRate);
+        InterpolatingSampleBuffer sampleBuffer = new InterpolatingSampleBuffer(samplesPerSymbol, timingGain);
+        PSKDemodulator<Dibit> sampleDemodulator = gardner ? new DQPSKGardnerDemodulator(sampleLoop, sampleBuffer) :
+            new DQPSKDecisionDirectedDemodulator(sampleLoop, sampleBuffer);
+        List<Dibit> sampleDibits = new ArrayList<>();
+        sampleDemodulator.setSymbolListener(sampleDibits::add);
+        sampleDemodulator.start();
+
+        float[] i = signal[0];
+        float[] q = signal[1];
+        int offset = 0;
+
+        while(offset < i.length)
+        {
+            int length = Math.min(i.length - offset, 1 + random.nextInt(4000));
+            float[] blockI = new float[length];
+            float[] blockQ = new float[length];
+            System.arraycopy(i, offset, blockI, 0, length);
+            System.arraycopy(q, offset, blockQ, 0, length);
+
+            blockDemodulator.receive(new ComplexSamples(blockI, blockQ, offset));
+
+            for(int x = 0; x < length; x++)
+            {
+                sampleDemodulator.receive(blockI[x], blockQ[x]);
+            }
+
+            Assertions.assertEquals(sampleLoop.getLoopFrequency(), blockLoop.getLoopFrequency(), 0.0,
+                "Loop frequency at sample " + offset);
+            Assertions.assertEquals(sampleBuffer.getSamplingPoint(), blockBuffer.getSamplingPoint(), 0.0f,
+                "Sampling point at sample " + offset);
+
+            offset += length;
+        }
+
+        Assertions.assertTrue(sampleDibits.size() > 1000, "Demodulator should produce symbols");
+        Assertions.assertEquals(sampleDibits, blockDibits, "Symbol decisions");
+    }
+
+    @Test
+    public void c4fmBlockDemodulationMatchesSampleDemodulation()
+    {
+        Random random = new Random(42);
+        compare(getSignal(20000, 4800.0, 180.0, random), 4800.0, 0.3f, false, random);
+    }
+
+    @Test
+    public void hdqpskBlockDemodulationMatchesSampleDemodulation()
+    {
+        Random random = new Random(43);
+        compare(getSignal(20000, 6000.0, -220.0, random), 6000.0, 0.1f, true, random);
+    }
+}
@@ -0,0 +1,390 @@
+package io.github.dsheirer.module.decode;
+
+import io.github.dsheirer.bits.CorrectedBinaryMessage;
+import io.github.dsheirer.dsp.psk.pll.IPhaseLockedLoop;
+import io.github.dsheirer.dsp.symbol.Dibit;
+import io.github.dsheirer.dsp.symbol.ISyncDetectListener;
+import io.github.dsheirer.dsp.symbol.QPSKCarrierLock;
+import io.github.dsheirer.dsp.symbol.sync.SyncPattern;
+import io.github.dsheirer.dsp.symbol.sync.SyncPatterns;
+import io.github.dsheirer.module.decode.dmr.DMRBurstFramer;
+import io.github.dsheirer.module.decode.dmr.DMRSyncPattern;
+import io.github.dsheirer.module.decode.dmr.IDMRBurstDetectListener;
+import io.github.dsheirer.module.decode.p25.phase1.IP25P1DataUnitDetectListener;
+import io.github.dsheirer.module.decode.p25.phase1.P25P1DataUnitDetector;
+import io.github.dsheirer.module.decode.p25.phase1.P25P1DataUnitID;
+import io.github.dsheirer.module.decode.p25.phase2.P25P2SuperFrameDetector;
+import io.github.dsheirer.protocol.Protocol;
+import io.github.dsheirer.sample.complex.Complex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Verifies that the DMR burst framer and the P25 data unit and super-frame detectors produce the same detections, sync
+ * events and PLL corrections when dibits are delivered in blocks as when they are delivered one dibit at a time.
+ */
+public class DibitBlockFramingTest
+{
+    /**
+     * Inserts the sync pattern value into the dibit array at the offset
+     */
+    private static void insert(byte[] dibits, int offset, long pattern, int bitLength)
+    {
+        int dibitLength = bitLength / 2;
+
+        for(int x = 0; x < dibitLength; x++)
+        {
+            dibits[offset + x] = (byte)((pattern >> (2 * (dibitLength - 1 - x))) & 0x3);
+        }
+    }
+
+    /**
+     * Randomly flips up to the specified number of bits in the dibit array region
+     */
+    private static void corrupt(byte[] dibits, int offset, int dibitLength, int maxBitErrors, Random random)
+    {
+        int errors = random.nextInt(maxBitErrors + 1);
+
+        for(int x = 0; x < errors; x++)
+        {
+            dibits[offset + random.nextInt(dibitLength)] ^= (byte)(1 << random.nextInt(2));
+        }
+    }
+
+    private static byte[] random(int length, Random random)
+    {
+        byte[] dibits = new byte[length];
+
+        for(int x = 0; x < length; x++)
+        {
+            dibits[x] = (byte)random.nextInt(4);
+        }
+
+        return dibits;
+    }
+
+    /**
+     * P25 Phase 1 stream with normal, corrupted and PLL rotated sync patterns at random spacing
+     */
+    private static byte[] getP25Phase1Stream(Random random)
+    {
+        byte[] dibits = random(300_000, random);
+        List<SyncPattern> patterns = SyncPatterns.withRotations(SyncPatterns.p25Phase1(0), 0);
+        int offset = 100;
+
+        while(offset < dibits.length - 1000)
+        {
+            SyncPattern pattern = patterns.get(random.nextInt(10) == 0 ? 1 + random.nextInt(3) : 0);
+            insert(dibits, offset, pattern.pattern(), pattern.bitLength());
+
+            if(pattern.carrierLock() == QPSKCarrierLock.NORMAL)
+            {
+                corrupt(dibits, offset, 24, 6, random);
+            }
+
+            offset += 24 + random.nextInt(random.nextBoolean() ? 500 : 5500);
+        }
+
+        return dibits;
+    }
+
+    /**
+     * P25 Phase 2 stream of super-frame fragments with ISCH sync patterns, including corrupted and missing fragments
+     */
+    private static byte[] getP25Phase2Stream(Random random)
+    {
+        byte[] dibits = random(360_000, random);
+        List<SyncPattern> patterns = SyncPatterns.withRotations(SyncPatterns.p25Phase2(0), 0);
+
+        for(int fragment = 0; fragment < dibits.length / 720; fragment++)
+        {
+            if(random.nextInt(8) != 0)
+            {
+                SyncPattern pattern = patterns.get(random.nextInt(20) == 0 ? 1 + random.nextInt(3) : 0);
+
+                for(int sync: new int[]{360, 540})
+                {
+                    int offset = fragment * 720 + sync;
+                    insert(dibits, offset, pattern.pattern(), pattern.bitLength());
+
+                    if(pattern.carrierLock() == QPSKCarrierLock.NORMAL)
+                    {
+                        corrupt(dibits, offset, 20, 8, random);
+                    }
+                }
+            }
+        }
+
+        return dibits;
+    }
+
+    /**
+     * DMR stream of bursts with sync patterns, including corrupted, rotated and missing sync patterns
+     */
+    private static byte[] getDMRStream(Random random)
+    {
+        byte[] dibits = random(300_000, random);
+        List<DMRSyncPattern> dmrPatterns = new ArrayList<>(DMRSyncPattern.SYNC_PATTERNS);
+
+        for(int burst = 0; burst < dibits.length / 144; burst++)
+        {
+            if(random.nextInt(6) != 0)
+            {
+                DMRSyncPattern dmrPattern = dmrPatterns.get(random.nextInt(dmrPatterns.size()));
+                SyncPattern pattern = new SyncPattern(Protocol.DMR, dmrPattern.name(),
+                    dmrPattern.getPattern(), 48, QPSKCarrierLock.NORMAL, 0);
+
+                if(random.nextInt(20) == 0)
+                {
+                    pattern = pattern.rotate(QPSKCarrierLock.values()[1 + random.nextInt(3)], 0);
+                }
+
+                int offset = burst * 144 + 66;
+                insert(dibits, offset, pattern.pattern(), pattern.bitLength());
+
+                if(pattern.carrierLock() == QPSKCarrierLock.NORMAL)
+                {
+                    corrupt(dibits, offset, 24, 6, random);
+                }
+            }
+        }
+
+        return dibits;
+    }
+
+    /**
+     * Records PLL inversion corrections
+     */
+    private static IPhaseLockedLoop getPLL(List<String> events)
+    {
+        return new IPhaseLockedLoop()
+        {
+            @Override
+            public void increment()
+            {
+            }
+
+            @Override
+            public void adjust(double error)
+            {
+            }
+
+            @Override
+            public void correctInversion(double correction)
+            {
+                events.add("PLL:" + correction);
+            }
+
+            @Override
+            public Complex getCurrentVector()
+            {
+                return null;
+            }
+
+            @Override
+            public Complex incrementAndGetCurrentVector()
+            {
+                return null;
+            }
+
+            @Override
+            public void reset()
+            {
+            }
+        };
+    }
+
+    /**
+     * Records sync detect and sync loss notifications
+     */
+    private static ISyncDetectListener getSyncDetectListener(List<String> events)
+    {
+        return new ISyncDetectListener()
+        {
+            @Override
+            public void syncDetected(int bitErrors)
+            {
+                events.add("SYNC:" + bitErrors);
+            }
+
+            @Override
+            public void syncLost(int bitsProcessed)
+            {
+                events.add("LOST:" + bitsProcessed);
+            }
+        };
+    }
+
+    /**
+     * Splits the dibits into randomly sized blocks
+     */
+    private static List<byte[]> split(byte[] dibits, Random random)
+    {
+        List<byte[]> blocks = new ArrayList<>();
+        int offset = 0;
+
+        while(offset < dibits.length)
+        {
+            int length = Math.min(dibits.length - offset, 1 + random.nextInt(2000));
+            byte[] block = new byte[length];
+            System.arraycopy(dibits, offset, block, 0, length);
+            blocks.add(block);
+            offset += length;
+        }
+
+        return blocks;
+    }
+
+    /**
+     * Compares the events recorded for dibit and block processing
+     */
+    private static void compare(List<String> dibitEvents, List<String> blockEvents, String... expectedEventTypes)
+    {
+        for(String type: expectedEventTypes)
+        {
+            Assertions.assertTrue(dibitEvents.stream().anyMatch(event -> event.startsWith(type)),
+                "Test stream should produce " + type + " events");
+        }
+
+        Assertions.assertEquals(dibitEvents.size(), blockEvents.size(), "Event count");
+
+        for(int x = 0; x < dibitEvents.size(); x++)
+        {
+            Assertions.assertEquals(dibitEvents.get(x), blockEvents.get(x), "Event " + x);
+        }
+    }
+
+    /**
+     * Records data unit detections and sync losses
+     */
+    private static IP25P1DataUnitDetectListener getDataUnitDetectListener(List<String> events)
+    {
+        return new IP25P1DataUnitDetectListener()
+        {
+            @Override
+            public void dataUnitDetected(P25P1DataUnitID dataUnitID, int nac, int bitErrors, int discardedDibits,
+                                         int[] correctedNid)
+            {
+                events.add("DATA UNIT:" + dataUnitID + ":" + nac + ":" + bitErrors + ":" + discardedDibits);
+            }
+
+            @Override
+            public void syncLost(int bitsProcessed)
+            {
+                events.add("LOST:" + bitsProcessed);
+            }
+        };
+    }
+
+    /**
+     * Records detected bursts and sync losses
+     */
+    private static IDMRBurstDetectListener getBurstDetectListener(List<String> events)
+    {
+        return new IDMRBurstDetectListener()
+        {
+            @Override
+            public void burstDetected(CorrectedBinaryMessage binaryMessage, DMRSyncPattern pattern, int timeslot)
+            {
+                events.add("BURST:" + pattern + ":" + timeslot + ":" + binaryMessage.getCorrectedBitCount() + ":" +
+                    binaryMessage.toHexString());
+            }
+
+            @Override
+            public void syncLost(int bitsProcessed, int timeslot)
+            {
+                events.add("LOST:" + bitsProcessed + ":" + timeslot);
+            }
+        };
+    }
+
+    @Test
+    public void p25Phase1BlockDetectionMatchesDibitDetection()
+    {
+        Random random = new Random(11);
+        byte[] dibits = getP25Phase1Stream(random);
+
+        List<String> dibitEvents = new ArrayList<>();
+        P25P1DataUnitDetector dibitDetector = new P25P1DataUnitDetector(getDataUnitDetectListener(dibitEvents),
+            getPLL(dibitEvents));
+
+        for(byte dibit: dibits)
+        {
+            dibitDetector.receive(Dibit.fromValue(dibit));
+        }
+
+        List<String> blockEvents = new ArrayList<>();
+        P25P1DataUnitDetector blockDetector = new P25P1DataUnitDetector(getDataUnitDetectListener(blockEvents),
+            getPLL(blockEvents));
+
+        for(byte[] block: split(dibits, random))
+        {
+            int offset = 0;
+
+            while(offset < block.length)
+            {
+                offset += blockDetector.receive(block, offset, block.length - offset);
+            }
+        }
+
+        compare(dibitEvents, blockEvents, "DATA UNIT:", "LOST:", "PLL:");
+    }
+
+    @Test
+    public void p25Phase2BlockDetectionMatchesDibitDetection()
+    {
+        Random random = new Random(12);
+        byte[] dibits = getP25Phase2Stream(random);
+
+        List<String> dibitEvents = new ArrayList<>();
+        P25P2SuperFrameDetector dibitDetector = new P25P2SuperFrameDetector(getPLL(dibitEvents));
+        dibitDetector.setSyncDetectListener(getSyncDetectListener(dibitEvents));
+        dibitDetector.setListener(message -> dibitEvents.add("MESSAGE:" + message.getClass().getSimpleName()));
+
+        for(byte dibit: dibits)
+        {
+            dibitDetector.receive(Dibit.fromValue(dibit));
+        }
+
+        List<String> blockEvents = new ArrayList<>();
+        P25P2SuperFrameDetector blockDetector = new P25P2SuperFrameDetector(getPLL(blockEvents));
+        blockDetector.setSyncDetectListener(getSyncDetectListener(blockEvents));
+        blockDetector.setListener(message -> blockEvents.add("MESSAGE:" + message.getClass().getSimpleName()));
+
+        for(byte[] block: split(dibits, random))
+        {
+            blockDetector.receive(block, 0, block.length);
+        }
+
+        compare(dibitEvents, blockEvents, "SYNC:", "MESSAGE:", "PLL:");
+    }
+
+    @Test
+    public void dmrBlockFramingMatchesDibitFraming()
+    {
+        Random random = new Random(13);
+        byte[] dibits = getDMRStream(random);
+
+        List<String> dibitEvents = new ArrayList<>();
+        DMRBurstFramer dibitFramer = new DMRBurstFramer(getBurstDetectListener(dibitEvents), getPLL(dibitEvents));
+
+        for(byte dibit: dibits)
+        {
+            dibitFramer.receive(Dibit.fromValue(dibit));
+        }
+
+        List<String> blockEvents = new ArrayList<>();
+        DMRBurstFramer blockFramer = new DMRBurstFramer(getBurstDetectListener(blockEvents), getPLL(blockEvents));
+
+        for(byte[] block: split(dibits, random))
+        {
+            blockFramer.receive(block, 0, block.length);
+        }
+
+        compare(dibitEvents, blockEvents, "BURST:", "LOST:", "PLL:");
+    }
+}
@@ -0,0 +1,98 @@
+package io.github.dsheirer.module.decode;
+
+import io.github.dsheirer.dsp.filter.fir.real.RealFIRFilter;
+import io.github.dsheirer.sample.complex.ComplexSamples;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class LockstepChannelGroupTest
+{
+    private static float[] getSamples(Random random, int length)
+    {
+        float[] samples = new float[length];
+
+        for(int x = 0; x < length; x++)
+        {
+            samples[x] = random.nextFloat() * 2.0f - 1.0f;
+        }
+
+        return samples;
+    }
+
+    /**
+     * Verifies that each member receives its own filtered buffers, in order and identical to scalar filtering, while
+     * the group recycles the member output buffers.  One member submits every other round so that the group also
+     * filters partial batches.
+     */
+    @Test
+    void membersMatchScalarFilters()
+    {
+        Random random = new Random(5);
+        float[] coefficients = getSamples(random, 31);
+        int memberCount = 5;
+
+        List<LockstepChannelGroup.Member> members = new ArrayList<>();
+        List<RealFIRFilter> iFilters = new ArrayList<>();
+        List<RealFIRFilter> qFilters = new ArrayList<>();
+        List<List<float[][]>> expected = new ArrayList<>();
+
+        for(int x = 0; x < memberCount; x++)
+        {
+            members.add(LockstepChannelGroup.join("test:lockstep", coefficients));
+            iFilters.add(new RealFIRFilter(coefficients.clone()));
+            qFilters.add(new RealFIRFilter(coefficients.clone()));
+            expected.add(new ArrayList<>());
+        }
+
+        Set<float[]> polledArrays = Collections.newSetFromMap(new IdentityHashMap<>());
+        int filteredCount = 0;
+
+        for(int round = 0; round < 40; round++)
+        {
+            int length = round < 20 ? 128 : 96;
+
+            for(int x = 0; x < memberCount; x++)
+            {
+                if(x == memberCount - 1 && round % 2 == 1)
+                {
+                    continue;
+                }
+
+                float[] i = getSamples(random, length);
+                float[] q = getSamples(random, length);
+                expected.get(x).add(new float[][]{iFilters.get(x).filter(i), qFilters.get(x).filter(q)});
+
+                LockstepChannelGroup.Member member = members.get(x);
+                member.receive(new ComplexSamples(i, q, round));
+
+                ComplexSamples filtered;
+
+                while((filtered = member.poll()) != null)
+                {
+                    float[][] next = expected.get(x).remove(0);
+                    Assertions.assertArrayEquals(next[0], filtered.i(), "Member " + x + " round " + round);
+                    Assertions.assertArrayEquals(next[1], filtered.q(), "Member " + x + " round " + round);
+                    polledArrays.add(filtered.i());
+                    filteredCount++;
+                }
+            }
+        }
+
+        Assertions.assertTrue(filteredCount > 100, "Filtered buffer count " + filteredCount);
+
+        Assertions.assertTrue(polledArrays.size() < filteredCount / 4, "Output buffers should be recycled - distinct " +
+            polledArrays.size() + " of " + filteredCount);
+
+        for(LockstepChannelGroup.Member member: members)
+        {
+            member.leave();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package io.github.dsheirer.module.decode.regression;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests comparing a regression report against a baseline report
+ */
+public class RegressionReportTest
+{
+    private static final RegressionDecoder P25 = RegressionDecoder.P25_PHASE1;
+    private static final RegressionDecoder DMR = RegressionDecoder.DMR;
+    private static final String FIRST = "first.bits";
+    private static final String SECOND = "second.bits";
+
+    @TempDir
+    Path mDirectory;
+
+    @Test
+    public void unchangedReportPasses() throws IOException
+    {
+        Path baseline = baseline(result(P25, FIRST), result(P25, SECOND));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        RegressionReport report = new RegressionReport(List.of(result(P25, FIRST), result(P25, SECOND)));
+
+        Assertions.assertFalse(report.compare(baseline, new PrintStream(out, true)), out.toString());
+        Assertions.assertTrue(out.toString().contains("TOTAL\tP25_PHASE1\t0 -> 0"), out.toString());
+    }
+
+    @Test
+    public void erroringDecoderIsRegression() throws IOException
+    {
+        Path baseline = baseline(result(P25, FIRST), result(P25, SECOND), result(DMR, FIRST));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        RegressionReport report = new RegressionReport(List.of(result(P25, FIRST),
+            new RegressionReport.Result(P25, SECOND, new DecodeStatistics(),
+                "IllegalStateException: broken"), result(DMR, FIRST)));
+
+        Assertions.assertTrue(report.compare(baseline, new PrintStream(out, true)), out.toString());
+        Assertions.assertTrue(out.toString().contains("ERROR\tP25_PHASE1\t" + SECOND), out.toString());
+
+        //Totals are still compared when the error reduces the recording count
+        Assertions.assertTrue(out.toString().contains("TOTAL\tP25_PHASE1\t0 -> 0"), out.toString());
+    }
+
+    @Test
+    public void missingRecordingIsRegression() throws IOException
+    {
+        Path baseline = baseline(result(P25, FIRST), result(P25, SECOND));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        RegressionReport report = new RegressionReport(List.of(result(P25, FIRST)));
+
+        Assertions.assertTrue(report.compare(baseline, new PrintStream(out, true)), out.toString());
+        Assertions.assertTrue(out.toString().contains("MISSING\tP25_PHASE1\t" + SECOND), out.toString());
+    }
+
+    @Test
+    public void newRecordingIsNotRegression() throws IOException
+    {
+        Path baseline = baseline(result(P25, FIRST));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        RegressionReport report = new RegressionReport(List.of(result(P25, FIRST), result(P25, SECOND)));
+
+        Assertions.assertFalse(report.compare(baseline, new PrintStream(out, true)), out.toString());
+        Assertions.assertTrue(out.toString().contains("NEW\tP25_PHASE1\t" + SECOND), out.toString());
+    }
+
+    /**
+     * Writes a baseline report for the results
+     */
+    private Path baseline(RegressionReport.Result... results) throws IOException
+    {
+        Path path = mDirectory.resolve("baseline.txt");
+
+        try(PrintStream out = new PrintStream(path.toFile()))
+        {
+            new RegressionReport(List.of(results)).write(out);
+        }
+
+        return path;
+    }
+
+    private static RegressionReport.Result result(RegressionDecoder decoder, String recording)
+    {
+        DecodeStatistics statistics = new DecodeStatistics();
+        statistics.addRecording(48000, 1000000);
+        return new RegressionReport.Result(decoder, recording, statistics, null);
+    }
+}
@@ -0,0 +1,252 @@
+package io.github.dsheirer.playlist;
+
+import io.github.dsheirer.alias.Alias;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PlaylistJournalTest
+{
+    @TempDir
+    Path mDirectory;
+
+    private Path mPlaylistPath;
+    private Path mJournalPath;
+    private PlaylistJournal mJournal;
+    private PlaylistV2 mPlaylist;
+
+    /**
+     * Creates a playlist with aliases with the specified names
+     */
+    private static PlaylistV2 createPlaylist(String... aliasNames)
+    {
+        PlaylistV2 playlist = new PlaylistV2();
+        List<Alias> aliases = new ArrayList<>();
+
+        for(String name: aliasNames)
+        {
+            aliases.add(new Alias(name));
+        }
+
+        playlist.setAliases(aliases);
+        return playlist;
+    }
+
+    private static List<String> getAliasNames(PlaylistV2 playlist)
+    {
+        return playlist.getAliases().stream().map(Alias::getName).toList();
+    }
+
+    /**
+     * Replays the journal with a new journal instance over the playlist as it was read from the playlist file
+     */
+    private PlaylistJournal replay(PlaylistV2 playlist)
+    {
+        PlaylistJournal journal = new PlaylistJournal(mJournalPath);
+        journal.replay(playlist, mPlaylistPath);
+        return journal;
+    }
+
+    /**
+     * Writes the playlist file and starts a new journal for it, the same as a playlist save with compaction.  The
+     * journal only tracks the playlist file size and checksum, so the file contents don't need to be a playlist.
+     */
+    private void compact(PlaylistJournal journal, PlaylistV2 snapshot, String contents) throws IOException
+    {
+        journal.startCompaction(snapshot);
+        Files.writeString(mPlaylistPath, contents);
+        journal.completeCompaction(mPlaylistPath);
+    }
+
+    @BeforeEach
+    void setup() throws IOException
+    {
+        mPlaylistPath = mDirectory.resolve("playlist.xml");
+        mJournalPath = mDirectory.resolve("playlist.journal");
+        Files.writeString(mPlaylistPath, "playlist version 1");
+
+        mJournal = new PlaylistJournal(mJournalPath);
+        mPlaylist = mJournal.replay(createPlaylist("a", "b", "c"), mPlaylistPath);
+        Assertions.assertTrue(mJournal.isCompactionRequired(), "A missing journal requires a compaction");
+
+        compact(mJournal, mPlaylist, "playlist version 1");
+        Assertions.assertFalse(mJournal.isCompactionRequired());
+    }
+
+    /**
+     * Verifies that changes appended to the journal are applied when the journal is replayed over the playlist file.
+     */
+    @Test
+    void replayAfterCleanWrite() throws IOException
+    {
+        List<Alias> aliases = mPlaylist.getAliases();
+        Alias b = aliases.get(1);
+        b.setName("b2");
+        mJournal.put(PlaylistJournal.Category.ALIAS, b);
+
+        Alias d = new Alias("d");
+        aliases.add(d);
+        mJournal.put(PlaylistJournal.Category.ALIAS, d);
+
+        mJournal.remove(PlaylistJournal.Category.ALIAS, aliases.remove(0));
+        Assertions.assertEquals(3, mJournal.getPendingChangeCount());
+
+        mJournal.flush();
+        Assertions.assertEquals(0, mJournal.getPendingChangeCount());
+
+        PlaylistV2 replayed = createPlaylist("a", "b", "c");
+        PlaylistJournal journal = replay(replayed);
+        Assertions.assertEquals(List.of("b2", "c", "d"), getAliasNames(replayed));
+        Assertions.assertFalse(journal.isCompactionRequired());
+
+        //Keys bound during replay continue to identify the same elements
+        Alias c = replayed.getAliases().get(1);
+        c.setName("c2");
+        journal.put(PlaylistJournal.Category.ALIAS, c);
+        journal.flush();
+
+        PlaylistV2 replayedAgain = createPlaylist("a", "b", "c");
+        replay(replayedAgain);
+        Assertions.assertEquals(List.of("b2", "c2", "d"), getAliasNames(replayedAgain));
+    }
+
+    /**
+     * Verifies that a final record that was only partially written is ignored, the complete records before it are
+     * applied, and a compaction is requested so that no records are appended after the torn record.
+     */
+    @Test
+    void tornFinalRecord() throws IOException
+    {
+        Alias b = mPlaylist.getAliases().get(1);
+        b.setName("b2");
+        mJournal.put(PlaylistJournal.Category.ALIAS, b);
+        mJournal.flush();
+
+        Alias d = new Alias("d");
+        mPlaylist.getAliases().add(d);
+        mJournal.put(PlaylistJournal.Category.ALIAS, d);
+        mJournal.flush();
+
+        try(RandomAccessFile file = new RandomAccessFile(mJournalPath.toFile(), "rw"))
+        {
+            file.setLength(file.length() - 3);
+        }
+
+        PlaylistV2 replayed = createPlaylist("a", "b", "c");
+        PlaylistJournal journal = replay(replayed);
+        Assertions.assertEquals(List.of("a", "b2", "c"), getAliasNames(replayed));
+        Assertions.assertTrue(journal.isCompactionRequired());
+    }
+
+    /**
+     * Verifies that a journal with a corrupted header is not applied and is moved aside for inspection.
+     */
+    @Test
+    void corruptedHeader() throws IOException
+    {
+        Alias b = mPlaylist.getAliases().get(1);
+        b.setName("b2");
+        mJournal.put(PlaylistJournal.Category.ALIAS, b);
+        mJournal.flush();
+
+        try(RandomAccessFile file = new RandomAccessFile(mJournalPath.toFile(), "rw"))
+        {
+            file.seek(0);
+            file.writeInt(0);
+        }
+
+        PlaylistV2 replayed = createPlaylist("a", "b", "c");
+        PlaylistJournal journal = replay(replayed);
+        Assertions.assertEquals(List.of("a", "b", "c"), getAliasNames(replayed));
+        Assertions.assertTrue(journal.isCompactionRequired());
+        Assertions.assertFalse(Files.exists(mJournalPath));
+        Assertions.assertTrue(Files.exists(mDirectory.resolve("playlist.journal.discarded")));
+    }
+
+    /**
+     * Verifies that a journal is not applied when the playlist file checksum recorded in the header doesn't match
+     * the playlist file, either because the header CRC is corrupted or because the playlist file was replaced.
+     */
+    @Test
+    void checksumMismatch() throws IOException
+    {
+        Alias b = mPlaylist.getAliases().get(1);
+        b.setName("b2");
+        mJournal.put(PlaylistJournal.Category.ALIAS, b);
+        mJournal.flush();
+        byte[] journal = Files.readAllBytes(mJournalPath);
+
+        //Header: int magic, long playlist size, long playlist CRC
+        try(RandomAccessFile file = new RandomAccessFile(mJournalPath.toFile(), "rw"))
+        {
+            file.seek(12);
+            int value = file.read();
+            file.seek(12);
+            file.write(value ^ 0xFF);
+        }
+
+        PlaylistV2 replayed = createPlaylist("a", "b", "c");
+        Assertions.assertTrue(replay(replayed).isCompactionRequired());
+        Assertions.assertEquals(List.of("a", "b", "c"), getAliasNames(replayed));
+
+        //Restore the journal and replace the playlist file with different contents of the same size
+        Files.write(mJournalPath, journal);
+        Files.writeString(mPlaylistPath, "playlist version 2");
+
+        PlaylistV2 replacedPlaylist = createPlaylist("a", "b", "c");
+        Assertions.assertTrue(replay(replacedPlaylist).isCompactionRequired());
+        Assertions.assertEquals(List.of("a", "b", "c"), getAliasNames(replacedPlaylist));
+    }
+
+    /**
+     * Verifies that compaction replaces the journal with an empty journal for the rewritten playlist file, and that
+     * changes made while the compaction is in progress are journaled against the new playlist file.
+     */
+    @Test
+    void compactionPreservesLatestState() throws IOException
+    {
+        List<Alias> aliases = mPlaylist.getAliases();
+        Alias b = aliases.get(1);
+        b.setName("b2");
+        mJournal.put(PlaylistJournal.Category.ALIAS, b);
+        mJournal.remove(PlaylistJournal.Category.ALIAS, aliases.remove(0));
+        mJournal.flush();
+        long journalSize = Files.size(mJournalPath);
+
+        //Snapshot is written to the playlist file while another change arrives, before the new journal is created
+        PlaylistV2 snapshot = createPlaylist();
+        snapshot.setAliases(new ArrayList<>(aliases));
+        mJournal.startCompaction(snapshot);
+
+        Alias c = aliases.get(1);
+        c.setName("c2");
+        mJournal.put(PlaylistJournal.Category.ALIAS, c);
+
+        Files.writeString(mPlaylistPath, "playlist version 2 - b2 c");
+        mJournal.completeCompaction(mPlaylistPath);
+        Assertions.assertTrue(Files.size(mJournalPath) < journalSize, "Compaction should empty the journal");
+        Assertions.assertFalse(mJournal.isCompactionRequired());
+
+        mJournal.flush();
+
+        //The playlist file contains the snapshot, as it was when the compaction started
+        PlaylistV2 replayed = createPlaylist("b2", "c");
+        PlaylistJournal journal = replay(replayed);
+        Assertions.assertEquals(List.of("b2", "c2"), getAliasNames(replayed));
+        Assertions.assertFalse(journal.isCompactionRequired());
+
+        //An older copy of the playlist file is not matched by the new journal
+        Files.writeString(mPlaylistPath, "playlist version 1");
+        PlaylistV2 stale = createPlaylist("a", "b", "c");
+        Assertions.assertTrue(replay(stale).isCompactionRequired());
+        Assertions.assertEquals(List.of("a", "b", "c"), getAliasNames(stale));
+    }
+}
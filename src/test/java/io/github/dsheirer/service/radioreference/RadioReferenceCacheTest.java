@@ -0,0 +1,441 @@
+package io.github.dsheirer.service.radioreference;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.github.dsheirer.rrapi.RadioReferenceException;
+import io.github.dsheirer.rrapi.type.AgencyInfo;
+import io.github.dsheirer.rrapi.type.Country;
+import io.github.dsheirer.rrapi.type.CountryInfo;
+import io.github.dsheirer.rrapi.type.CountyInfo;
+import io.github.dsheirer.rrapi.type.Frequency;
+import io.github.dsheirer.rrapi.type.Site;
+import io.github.dsheirer.rrapi.type.StateInfo;
+import io.github.dsheirer.rrapi.type.SystemInformation;
+import io.github.dsheirer.rrapi.type.Talkgroup;
+import io.github.dsheirer.rrapi.type.TalkgroupCategory;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests the persistent radio reference query cache using a local stand-in for the radio reference service.
+ */
+public class RadioReferenceCacheTest
+{
+    private static final long ONE_WEEK = TimeUnit.DAYS.toMillis(7);
+    private static final TypeReference<List<TestTalkgroup>> TALKGROUPS = new TypeReference<>(){};
+    private static final int SYSTEM_ID = 1234;
+    private static final int TALKGROUP_COUNT = 12000;
+    private static final int THREAD_COUNT = 8;
+    private static final int MAXIMUM_DEPTH = 4;
+    private static final String SERVICE_TYPE_PACKAGE = "io.github.dsheirer.rrapi";
+
+    @TempDir
+    Path mDirectory;
+
+    /**
+     * Verifies that a large talkgroup query is fetched once and then served from the cache, including by a new cache
+     * instance that loads the persisted copy.
+     */
+    @Test
+    void servesRepeatedQueriesLocally() throws Exception
+    {
+        StandInService service = new StandInService();
+        RadioReferenceCache cache = new RadioReferenceCache(mDirectory, ONE_WEEK, Runnable::run);
+
+        List<TestTalkgroup> first = cache.get("talkgroups", SYSTEM_ID, TALKGROUPS, service::getTalkgroups);
+        List<TestTalkgroup> second = cache.get("talkgroups", SYSTEM_ID, TALKGROUPS, service::getTalkgroups);
+        Assertions.assertEquals(1, service.mQueryCount, "Service should be queried once");
+        Assertions.assertEquals(TALKGROUP_COUNT, first.size());
+        Assertions.assertSame(first, second, "Second query should be served from memory");
+
+        cache.flush();
+        RadioReferenceCache reloaded = new RadioReferenceCache(mDirectory, ONE_WEEK, Runnable::run);
+        Assertions.assertTrue(reloaded.contains("talkgroups", SYSTEM_ID));
+        List<TestTalkgroup> persisted = reloaded.get("talkgroups", SYSTEM_ID, TALKGROUPS, service::getTalkgroups);
+        Assertions.assertEquals(1, service.mQueryCount, "Persisted copy should be used after reload");
+        Assertions.assertEquals(TALKGROUP_COUNT, persisted.size());
+
+        for(int x = 0; x < TALKGROUP_COUNT; x += 997)
+        {
+            Assertions.assertEquals(first.get(x).mDecimalValue, persisted.get(x).mDecimalValue);
+            Assertions.assertEquals(first.get(x).mAlphaTag, persisted.get(x).mAlphaTag);
+        }
+    }
+
+    /**
+     * Verifies that an expired value is served immediately and refreshed in the background, and that the cached copy
+     * is retained when the refresh fails.
+     */
+    @Test
+    void refreshesExpiredValuesInBackground() throws Exception
+    {
+        StandInService service = new StandInService();
+        List<Runnable> refreshes = new ArrayList<>();
+        RadioReferenceCache cache = new RadioReferenceCache(mDirectory, 0, refreshes::add);
+
+        cache.get("talkgroups", SYSTEM_ID, TALKGROUPS, service::getTalkgroups);
+        Assertions.assertEquals(1, service.mQueryCount);
+
+        //Expired value is returned without waiting on the service, and only one refresh is scheduled
+        List<TestTalkgroup> stale = cache.get("talkgroups", SYSTEM_ID, TALKGROUPS, service::getTalkgroups);
+        cache.get("talkgroups", SYSTEM_ID, TALKGROUPS, service::getTalkgroups);
+        Assertions.assertEquals(1, service.mQueryCount);
+        Assertions.assertEquals(1, refreshes.size());
+        Assertions.assertEquals("Talkgroup 0 v1", stale.get(0).mAlphaTag);
+
+        refreshes.remove(0).run();
+        Assertions.assertEquals(2, service.mQueryCount);
+        List<TestTalkgroup> refreshed = cache.get("talkgroups", SYSTEM_ID, TALKGROUPS, service::getTalkgroups);
+        Assertions.assertEquals("Talkgroup 0 v2", refreshed.get(0).mAlphaTag);
+
+        //Failed refresh keeps the cached copy
+        service.mAvailable = false;
+        refreshes.remove(0).run();
+        List<TestTalkgroup> retained = cache.get("talkgroups", SYSTEM_ID, TALKGROUPS, service::getTalkgroups);
+        Assertions.assertEquals("Talkgroup 0 v2", retained.get(0).mAlphaTag);
+    }
+
+    /**
+     * Verifies that a service error is reported when there is no cached copy.
+     */
+    @Test
+    void reportsErrorsWithoutCachedCopy() throws Exception
+    {
+        StandInService service = new StandInService();
+        RadioReferenceCache cache = new RadioReferenceCache(mDirectory, ONE_WEEK, Runnable::run);
+        cache.get("talkgroups", SYSTEM_ID, TALKGROUPS, service::getTalkgroups);
+
+        service.mAvailable = false;
+        Assertions.assertThrows(RadioReferenceException.class,
+            () -> cache.get("talkgroups", SYSTEM_ID + 1, TALKGROUPS, service::getTalkgroups));
+        Assertions.assertEquals(1, cache.size());
+        Assertions.assertFalse(cache.contains("talkgroups", SYSTEM_ID + 1));
+    }
+
+    /**
+     * Verifies that the index is saved once for a burst of stored values rather than for each stored value.
+     */
+    @Test
+    void batchesIndexSaves() throws Exception
+    {
+        StandInService service = new StandInService();
+        RadioReferenceCache cache = new RadioReferenceCache(mDirectory, ONE_WEEK, Runnable::run);
+
+        for(int x = 0; x < 10; x++)
+        {
+            cache.get("talkgroups", SYSTEM_ID + x, TALKGROUPS, service::getTalkgroups);
+        }
+
+        Assertions.assertFalse(Files.exists(mDirectory.resolve("index.json")), "Index should not be saved per value");
+
+        cache.flush();
+        RadioReferenceCache reloaded = new RadioReferenceCache(mDirectory, ONE_WEEK, Runnable::run);
+        Assertions.assertEquals(10, reloaded.size());
+    }
+
+    /**
+     * Verifies that concurrent requests for a value that isn't cached share a single service query.
+     */
+    @Test
+    void concurrentColdMissesShareOneQuery() throws Exception
+    {
+        StandInService service = new StandInService();
+        RadioReferenceCache cache = new RadioReferenceCache(mDirectory, ONE_WEEK, Runnable::run);
+        AtomicInteger fetchCount = new AtomicInteger();
+        CountDownLatch fetchStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        RadioReferenceCache.Fetcher<List<TestTalkgroup>> fetcher = () -> {
+            fetchCount.incrementAndGet();
+            fetchStarted.countDown();
+
+            try
+            {
+                release.await(10, TimeUnit.SECONDS);
+            }
+            catch(InterruptedException ie)
+            {
+                throw new RadioReferenceException("Interrupted");
+            }
+
+            return service.getTalkgroups();
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+
+        try
+        {
+            List<Future<List<TestTalkgroup>>> results = new ArrayList<>();
+
+            for(int x = 0; x < THREAD_COUNT; x++)
+            {
+                results.add(executor.submit(() -> cache.get("talkgroups", SYSTEM_ID, TALKGROUPS, fetcher)));
+            }
+
+            Assertions.assertTrue(fetchStarted.await(10, TimeUnit.SECONDS));
+
+            //Allow the remaining callers to reach the cache and wait on the fetch in progress
+            Thread.sleep(200);
+            release.countDown();
+
+            List<TestTalkgroup> first = results.get(0).get(10, TimeUnit.SECONDS);
+
+            for(Future<List<TestTalkgroup>> result : results)
+            {
+                Assertions.assertSame(first, result.get(10, TimeUnit.SECONDS));
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        Assertions.assertEquals(1, fetchCount.get(), "Concurrent cold misses should share one query");
+        Assertions.assertEquals(1, service.mQueryCount);
+    }
+
+    /**
+     * Verifies that each radio reference service type cached by the caching service is restored from the persisted
+     * copy with every field intact.  The values are populated by reflection so that fields added to the service types
+     * are covered as well.
+     */
+    @Test
+    void serviceTypesRoundTrip() throws Exception
+    {
+        assertRoundTrip("agency", new TypeReference<AgencyInfo>(){});
+        assertRoundTrip("countries", new TypeReference<List<Country>>(){});
+        assertRoundTrip("country", new TypeReference<CountryInfo>(){});
+        assertRoundTrip("county", new TypeReference<CountyInfo>(){});
+        assertRoundTrip("state", new TypeReference<StateInfo>(){});
+        assertRoundTrip("system", new TypeReference<SystemInformation>(){});
+        assertRoundTrip("sites", new TypeReference<List<Site>>(){});
+        assertRoundTrip("subcategory-frequencies", new TypeReference<List<Frequency>>(){});
+        assertRoundTrip("talkgroups", new TypeReference<List<Talkgroup>>(){});
+        assertRoundTrip("talkgroup-categories", new TypeReference<List<TalkgroupCategory>>(){});
+    }
+
+    /**
+     * Caches a populated value of the type and compares it to the copy loaded by a new cache instance.
+     */
+    private <T> void assertRoundTrip(String query, TypeReference<T> type) throws Exception
+    {
+        @SuppressWarnings("unchecked")
+        T value = (T)populate(type.getType(), 1, 0);
+        RadioReferenceCache cache = new RadioReferenceCache(mDirectory, ONE_WEEK, Runnable::run);
+        cache.get(query, SYSTEM_ID, type, () -> value);
+        cache.flush();
+
+        RadioReferenceCache reloaded = new RadioReferenceCache(mDirectory, ONE_WEEK, Runnable::run);
+        T restored = reloaded.get(query, SYSTEM_ID, type, () -> {
+            throw new RadioReferenceException("Value should be restored from the cache");
+        });
+
+        assertFieldsEqual(value, restored, query);
+    }
+
+    /**
+     * Creates a value of the type with distinct, non-default values in every field.
+     */
+    private static Object populate(Type type, int seed, int depth) throws Exception
+    {
+        if(type instanceof ParameterizedType parameterized)
+        {
+            Class<?> raw = (Class<?>)parameterized.getRawType();
+
+            if(Collection.class.isAssignableFrom(raw) && depth < MAXIMUM_DEPTH)
+            {
+                List<Object> list = new ArrayList<>();
+                list.add(populate(parameterized.getActualTypeArguments()[0], seed * 3 + 1, depth + 1));
+                list.add(populate(parameterized.getActualTypeArguments()[0], seed * 3 + 2, depth + 1));
+                return list;
+            }
+
+            return null;
+        }
+
+        if(!(type instanceof Class<?> cls))
+        {
+            return null;
+        }
+
+        if(cls == int.class || cls == Integer.class)
+        {
+            return seed;
+        }
+        else if(cls == long.class || cls == Long.class)
+        {
+            return seed * 1000L;
+        }
+        else if(cls == double.class || cls == Double.class)
+        {
+            return seed + 0.5;
+        }
+        else if(cls == float.class || cls == Float.class)
+        {
+            return seed + 0.25f;
+        }
+        else if(cls == short.class || cls == Short.class)
+        {
+            return (short)seed;
+        }
+        else if(cls == byte.class || cls == Byte.class)
+        {
+            return (byte)seed;
+        }
+        else if(cls == boolean.class || cls == Boolean.class)
+        {
+            return Boolean.TRUE;
+        }
+        else if(cls == char.class || cls == Character.class)
+        {
+            return (char)('A' + seed % 26);
+        }
+        else if(cls == String.class)
+        {
+            return "Value " + seed;
+        }
+        else if(cls.isEnum())
+        {
+            Object[] constants = cls.getEnumConstants();
+            return constants[seed % constants.length];
+        }
+        else if(isServiceType(cls) && depth < MAXIMUM_DEPTH)
+        {
+            Object value = cls.getDeclaredConstructor().newInstance();
+            int index = 0;
+
+            for(Field field : getFields(cls))
+            {
+                Object fieldValue = populate(field.getGenericType(), seed * 31 + ++index, depth + 1);
+
+                if(fieldValue != null || !field.getType().isPrimitive())
+                {
+                    field.set(value, fieldValue);
+                }
+            }
+
+            return value;
+        }
+
+        return null;
+    }
+
+    /**
+     * Compares the values, recursing into lists and service types.
+     */
+    private static void assertFieldsEqual(Object expected, Object actual, String path) throws Exception
+    {
+        if(expected == null || actual == null)
+        {
+            Assertions.assertEquals(expected, actual, path);
+        }
+        else if(expected instanceof List<?> expectedList)
+        {
+            List<?> actualList = (List<?>)actual;
+            Assertions.assertEquals(expectedList.size(), actualList.size(), path + " size");
+
+            for(int x = 0; x < expectedList.size(); x++)
+            {
+                assertFieldsEqual(expectedList.get(x), actualList.get(x), path + "[" + x + "]");
+            }
+        }
+        else if(isServiceType(expected.getClass()) && !expected.getClass().isEnum())
+        {
+            Assertions.assertEquals(expected.getClass(), actual.getClass(), path);
+
+            for(Field field : getFields(expected.getClass()))
+            {
+                assertFieldsEqual(field.get(expected), field.get(actual), path + "." + field.getName());
+            }
+        }
+        else
+        {
+            Assertions.assertEquals(expected, actual, path);
+        }
+    }
+
+    private static boolean isServiceType(Class<?> cls)
+    {
+        return cls.getName().startsWith(SERVICE_TYPE_PACKAGE);
+    }
+
+    /**
+     * Instance fields of the class and its super classes that are persisted by the cache
+     */
+    private static List<Field> getFields(Class<?> cls)
+    {
+        List<Field> fields = new ArrayList<>();
+
+        while(cls != null && cls != Object.class)
+        {
+            for(Field field : cls.getDeclaredFields())
+            {
+                int modifiers = field.getModifiers();
+
+                if(!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers) && !field.isSynthetic())
+                {
+                    field.setAccessible(true);
+                    fields.add(field);
+                }
+            }
+
+            cls = cls.getSuperclass();
+        }
+
+        return fields;
+    }
+
+    /**
+     * Local stand-in for the radio reference service talkgroup query
+     */
+    private static class StandInService
+    {
+        private int mQueryCount;
+        private boolean mAvailable = true;
+
+        public List<TestTalkgroup> getTalkgroups() throws RadioReferenceException
+        {
+            if(!mAvailable)
+            {
+                throw new RadioReferenceException("Service unavailable");
+            }
+
+            mQueryCount++;
+            List<TestTalkgroup> talkgroups = new ArrayList<>();
+
+            for(int x = 0; x < TALKGROUP_COUNT; x++)
+            {
+                TestTalkgroup talkgroup = new TestTalkgroup();
+                talkgroup.mDecimalValue = x;
+                talkgroup.mAlphaTag = "Talkgroup " + x + " v" + mQueryCount;
+                talkgroups.add(talkgroup);
+            }
+
+            return talkgroups;
+        }
+    }
+
+    /**
+     * Simple data object standing in for the service talkgroup type
+     */
+    public static class TestTalkgroup
+    {
+        private int mDecimalValue;
+        private String mAlphaTag;
+    }
+}